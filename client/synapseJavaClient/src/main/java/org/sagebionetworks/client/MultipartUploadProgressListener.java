@@ -0,0 +1,22 @@
+package org.sagebionetworks.client;
+
+/**
+ * Receives progress events from a {@link ParallelMultipartUpload}. Events are
+ * sent from the upload threads, so implementations must be thread safe.
+ *
+ */
+@FunctionalInterface
+public interface MultipartUploadProgressListener {
+
+	/**
+	 * Called each time a part has been added to the upload.
+	 *
+	 * @param bytesUploaded  The total number of bytes of the file that have been
+	 *                       uploaded, including parts uploaded before a resume.
+	 * @param totalBytes     The size of the file.
+	 * @param bytesPerSecond The average throughput of the parts uploaded by this
+	 *                       call.
+	 */
+	void progress(long bytesUploaded, long totalBytes, double bytesPerSecond);
+
+}
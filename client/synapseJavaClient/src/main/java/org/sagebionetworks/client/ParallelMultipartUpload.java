@@ -0,0 +1,315 @@
+package org.sagebionetworks.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.codec.binary.Hex;
+import org.sagebionetworks.client.exceptions.SynapseClientException;
+import org.sagebionetworks.client.exceptions.SynapseException;
+import org.sagebionetworks.repo.model.file.BatchPresignedUploadUrlRequest;
+import org.sagebionetworks.repo.model.file.BatchPresignedUploadUrlResponse;
+import org.sagebionetworks.repo.model.file.CloudProviderFileHandleInterface;
+import org.sagebionetworks.repo.model.file.MultipartUploadRequest;
+import org.sagebionetworks.repo.model.file.MultipartUploadStatus;
+import org.sagebionetworks.repo.model.file.PartPresignedUrl;
+import org.sagebionetworks.repo.model.file.PartUtils;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.FileProvider;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * Multi-part upload of a file that uploads several parts at a time.
+ * <p>
+ * Unlike {@link MultipartUpload} the parts are not written to temporary files
+ * up front. The file is memory-mapped and each upload thread hashes its part
+ * while staging it for the PUT, so at most one part per thread is held on disk
+ * at any time. Only the parts that are missing from the upload are hashed and
+ * uploaded, so an interrupted upload resumes where it stopped. Pre-signed URLs
+ * are requested in batches just before they are needed.
+ *
+ */
+public class ParallelMultipartUpload {
+
+	/**
+	 * The maximum number of bytes mapped at one time.
+	 */
+	public static final long MAP_WINDOW_BYTES = 64L * 1024L * 1024L;
+	/**
+	 * The number of pre-signed URLs requested with each call.
+	 */
+	public static final int PRESIGNED_URL_BATCH_SIZE = 20;
+
+	// input parameters
+	final SynapseClient client;
+	final File file;
+	final Boolean forceRestart;
+	final MultipartUploadRequest request;
+	final int threadCount;
+	final MultipartUploadProgressListener listener;
+	final FileProvider fileProvider;
+	final Clock clock;
+	long partSizeBytes;
+
+	/**
+	 *
+	 * @param client
+	 * @param file
+	 * @param contentType
+	 * @param storageLocationId
+	 * @param generatePreview
+	 * @param forceRestart
+	 * @param threadCount       The maximum number of parts uploaded at the same
+	 *                          time.
+	 * @param listener          Optional.
+	 * @param fileProvider
+	 * @param clock
+	 */
+	public ParallelMultipartUpload(SynapseClient client, File file, String contentType, Long storageLocationId,
+			Boolean generatePreview, Boolean forceRestart, int threadCount, MultipartUploadProgressListener listener,
+			FileProvider fileProvider, Clock clock) {
+		ValidateArgument.required(client, "SynapseClient");
+		ValidateArgument.required(file, "file");
+		ValidateArgument.required(contentType, "contentType");
+		ValidateArgument.requirement(threadCount > 0, "threadCount must be greater than zero");
+		ValidateArgument.required(fileProvider, "fileProvider");
+		ValidateArgument.required(clock, "clock");
+		this.request = new MultipartUploadRequest();
+		this.request.setFileName(file.getName());
+		this.request.setContentType(contentType);
+		this.request.setFileSizeBytes(file.length());
+		this.request.setGeneratePreview(generatePreview);
+		this.request.setStorageLocationId(storageLocationId);
+		this.client = client;
+		this.file = file;
+		this.forceRestart = forceRestart;
+		this.threadCount = threadCount;
+		this.listener = listener;
+		this.fileProvider = fileProvider;
+		this.clock = clock;
+		this.partSizeBytes = PartUtils.choosePartSize(file.length());
+	}
+
+	/**
+	 * Upload the file.
+	 *
+	 * @return
+	 * @throws SynapseException
+	 */
+	public CloudProviderFileHandleInterface uploadFile() throws SynapseException {
+		final long fileSizeBytes = request.getFileSizeBytes();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MessageDigest fileMD5Digest = MultipartUpload.createMD5Digest();
+			copyAndDigest(channel, 0L, fileSizeBytes, fileMD5Digest, null);
+			this.request.setPartSizeBytes(partSizeBytes);
+			this.request.setContentMD5Hex(new String(Hex.encodeHex(fileMD5Digest.digest())));
+			MultipartUploadStatus status = client.startMultipartUpload(request, forceRestart);
+			// If the file upload is done then just return the FileHandle
+			if (status.getResultFileHandleId() != null) {
+				return (CloudProviderFileHandleInterface) client.getRawFileHandle(status.getResultFileHandleId());
+			}
+			uploadMissingParts(channel, status);
+			status = client.completeMultipartUpload(status.getUploadId());
+			return (CloudProviderFileHandleInterface) client.getRawFileHandle(status.getResultFileHandleId());
+		} catch (IOException e) {
+			throw new SynapseClientException(e);
+		}
+	}
+
+	/**
+	 * Upload each part that is missing from the given status with up to
+	 * {@link #threadCount} parts in flight.
+	 *
+	 * @param channel
+	 * @param status
+	 * @throws SynapseException
+	 */
+	void uploadMissingParts(FileChannel channel, MultipartUploadStatus status) throws SynapseException {
+		final long fileSizeBytes = request.getFileSizeBytes();
+		List<Long> missingParts = new ArrayList<>();
+		long bytesAlreadyUploaded = 0L;
+		char[] partStateArray = status.getPartsState().toCharArray();
+		for (int i = 0; i < partStateArray.length; i++) {
+			long partNumber = i + 1;
+			if ('0' == partStateArray[i]) {
+				missingParts.add(partNumber);
+			} else {
+				bytesAlreadyUploaded += getPartLength(partNumber, fileSizeBytes);
+			}
+		}
+		final long startMS = clock.currentTimeMillis();
+		final AtomicLong bytesUploaded = new AtomicLong(bytesAlreadyUploaded);
+		final AtomicLong sessionBytes = new AtomicLong(0L);
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		final Semaphore inFlight = new Semaphore(threadCount);
+		List<Future<Void>> futures = new LinkedList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			for (int start = 0; start < missingParts.size() && failure.get() == null; start += PRESIGNED_URL_BATCH_SIZE) {
+				List<Long> batch = missingParts.subList(start, Math.min(start + PRESIGNED_URL_BATCH_SIZE, missingParts.size()));
+				BatchPresignedUploadUrlRequest batchRequest = new BatchPresignedUploadUrlRequest();
+				batchRequest.setUploadId(status.getUploadId());
+				batchRequest.setPartNumbers(new LinkedList<Long>(batch));
+				BatchPresignedUploadUrlResponse batchResponse = client.getMultipartPresignedUrlBatch(batchRequest);
+				for (PartPresignedUrl partUrl : batchResponse.getPartPresignedUrls()) {
+					inFlight.acquireUninterruptibly();
+					if (failure.get() != null) {
+						inFlight.release();
+						break;
+					}
+					futures.add(executor.submit(() -> {
+						try {
+							long partLength = uploadPart(channel, status.getUploadId(), partUrl);
+							long total = bytesUploaded.addAndGet(partLength);
+							long session = sessionBytes.addAndGet(partLength);
+							if (listener != null) {
+								listener.progress(total, fileSizeBytes,
+										calculateBytesPerSecond(session, clock.currentTimeMillis() - startMS));
+							}
+							return null;
+						} catch (Throwable e) {
+							failure.compareAndSet(null, e);
+							throw e;
+						} finally {
+							inFlight.release();
+						}
+					}));
+				}
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SynapseClientException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SynapseException) {
+				throw (SynapseException) e.getCause();
+			}
+			throw new SynapseClientException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Stage a single part, PUT it to its pre-signed URL and add it to the upload.
+	 *
+	 * @param channel
+	 * @param uploadId
+	 * @param partUrl
+	 * @return The number of bytes in the part.
+	 * @throws SynapseException
+	 * @throws IOException
+	 */
+	long uploadPart(FileChannel channel, String uploadId, PartPresignedUrl partUrl)
+			throws SynapseException, IOException {
+		final long partNumber = partUrl.getPartNumber();
+		final long position = (partNumber - 1) * partSizeBytes;
+		final long length = getPartLength(partNumber, request.getFileSizeBytes());
+		final URL url;
+		try {
+			url = new URL(partUrl.getUploadPresignedUrl());
+		} catch (MalformedURLException e) {
+			throw new SynapseClientException(e);
+		}
+		String partMD5Hex;
+		try {
+			// the temporary file is deleted as soon as the PUT completes.
+			partMD5Hex = fileProvider.createTemporaryFile("multipart", ".tmp", (File partFile) -> {
+				MessageDigest partDigest = MultipartUpload.createMD5Digest();
+				try (OutputStream out = fileProvider.createFileOutputStream(partFile);
+						WritableByteChannel outChannel = Channels.newChannel(out)) {
+					copyAndDigest(channel, position, length, partDigest, outChannel);
+				}
+				try {
+					client.putFileToURL(url, partFile, request.getContentType());
+				} catch (SynapseException e) {
+					throw new IOException(e);
+				}
+				return new String(Hex.encodeHex(partDigest.digest()));
+			});
+		} catch (IOException e) {
+			if (e.getCause() instanceof SynapseException) {
+				throw (SynapseException) e.getCause();
+			}
+			throw e;
+		}
+		client.addPartToMultipartUpload(uploadId, (int) partNumber, partMD5Hex);
+		return length;
+	}
+
+	/**
+	 * The number of bytes in the given part.
+	 *
+	 * @param partNumber
+	 * @param fileSizeBytes
+	 * @return
+	 */
+	long getPartLength(long partNumber, long fileSizeBytes) {
+		long start = (partNumber - 1) * partSizeBytes;
+		return Math.min(partSizeBytes, fileSizeBytes - start);
+	}
+
+	/**
+	 * Update the digest with a range of the file, mapping at most
+	 * {@link #MAP_WINDOW_BYTES} at a time, and optionally write the same bytes to
+	 * the given output.
+	 *
+	 * @param channel
+	 * @param position
+	 * @param length
+	 * @param digest
+	 * @param out      Optional.
+	 * @throws IOException
+	 */
+	static void copyAndDigest(FileChannel channel, long position, long length, MessageDigest digest,
+			WritableByteChannel out) throws IOException {
+		final long end = position + length;
+		while (position < end) {
+			long size = Math.min(MAP_WINDOW_BYTES, end - position);
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, position, size);
+			ByteBuffer toDigest = buffer.duplicate();
+			digest.update(toDigest);
+			if (out != null) {
+				while (buffer.hasRemaining()) {
+					out.write(buffer);
+				}
+			}
+			position += size;
+		}
+	}
+
+	/**
+	 *
+	 * @param bytes
+	 * @param elapsedMS
+	 * @return
+	 */
+	static double calculateBytesPerSecond(long bytes, long elapsedMS) {
+		if (elapsedMS < 1L) {
+			return 0.0;
+		}
+		return bytes * 1000.0 / elapsedMS;
+	}
+}
@@ -2906,6 +2906,25 @@ public interface SynapseClient extends BaseClient {
 	 */
 	CloudProviderFileHandleInterface multipartUpload(File file, Long storageLocationId, Boolean generatePreview, Boolean forceRestart) throws SynapseException, FileNotFoundException, IOException;
 
+	/**
+	 * Upload the passed file with multi-part upload, uploading up to threadCount
+	 * parts at a time. The parts are read directly from the file rather than
+	 * copied to temporary files first, and only the parts missing from an
+	 * existing upload are sent.
+	 * 
+	 * @param file
+	 * @param storageLocationId
+	 * @param generatePreview
+	 * @param forceRestart
+	 * @param threadCount       The maximum number of parts uploaded at the same
+	 *                          time.
+	 * @param listener          Optional. Notified as each part is uploaded.
+	 * @return
+	 * @throws SynapseException
+	 * @throws IOException
+	 */
+	CloudProviderFileHandleInterface multipartUpload(File file, Long storageLocationId, Boolean generatePreview, Boolean forceRestart, int threadCount, MultipartUploadProgressListener listener) throws SynapseException, IOException;
+
 	/**
 	 * Subscribe to a topic
 	 * 
@@ -348,6 +348,7 @@ import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
 import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
 import org.sagebionetworks.simpleHttpClient.SimpleHttpClientConfig;
 import org.sagebionetworks.simpleHttpClient.SimpleHttpResponse;
+import org.sagebionetworks.util.DefaultClock;
 import org.sagebionetworks.util.FileProviderImpl;
 import org.sagebionetworks.util.ValidateArgument;
 
@@ -5169,6 +5170,14 @@ public class SynapseClientImpl extends BaseClientImpl implements SynapseClient {
 		}
 	}
 
+	@Override
+	public CloudProviderFileHandleInterface multipartUpload(File file, Long storageLocationId, Boolean generatePreview,
+			Boolean forceRestart, int threadCount, MultipartUploadProgressListener listener) throws SynapseException, IOException {
+		String contentType = guessContentTypeFromStream(file);
+		return new ParallelMultipartUpload(this, file, contentType, storageLocationId, generatePreview, forceRestart,
+				threadCount, listener, new FileProviderImpl(), new DefaultClock()).uploadFile();
+	}
+
 	@Override
 	public URL getReplyUrl(String messageKey) throws SynapseException {
 		try {
@@ -0,0 +1,252 @@
+package org.sagebionetworks.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sagebionetworks.client.MultipartUpload.calculateMD5Hex;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.client.exceptions.SynapseException;
+import org.sagebionetworks.client.exceptions.SynapseServerException;
+import org.sagebionetworks.repo.model.file.BatchPresignedUploadUrlRequest;
+import org.sagebionetworks.repo.model.file.BatchPresignedUploadUrlResponse;
+import org.sagebionetworks.repo.model.file.CloudProviderFileHandleInterface;
+import org.sagebionetworks.repo.model.file.MultipartUploadRequest;
+import org.sagebionetworks.repo.model.file.MultipartUploadState;
+import org.sagebionetworks.repo.model.file.MultipartUploadStatus;
+import org.sagebionetworks.repo.model.file.PartPresignedUrl;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.FileProviderImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class ParallelMultipartUploadTest {
+
+	@Mock
+	private SynapseClient mockClient;
+	@Mock
+	private Clock mockClock;
+	@Mock
+	private MultipartUploadProgressListener mockListener;
+
+	private File file;
+	private byte[] fileBytes;
+	private String contentType;
+	private MultipartUploadStatus startStatus;
+	private MultipartUploadStatus completeStatus;
+	private S3FileHandle fileHandle;
+	// the bytes of each part at the time it was PUT.
+	private Map<String, String> putParts;
+	private List<File> partFiles;
+
+	@BeforeEach
+	public void before() throws Exception {
+		// The file's data is the following byte [0, 1, 2, 3, 4, 5, 6, 7, 8, 9]
+		fileBytes = Hex.decodeHex("00010203040506070809".toCharArray());
+		file = File.createTempFile("ParallelMultipartUploadTest", ".txt");
+		Files.write(file.toPath(), fileBytes);
+		contentType = "plain/text";
+
+		startStatus = new MultipartUploadStatus();
+		startStatus.setPartsState("000");
+		startStatus.setUploadId("uploadId");
+
+		completeStatus = new MultipartUploadStatus();
+		completeStatus.setPartsState("111");
+		completeStatus.setResultFileHandleId("1235");
+		completeStatus.setState(MultipartUploadState.COMPLETED);
+		completeStatus.setUploadId(startStatus.getUploadId());
+
+		fileHandle = new S3FileHandle();
+		fileHandle.setId(completeStatus.getResultFileHandleId());
+
+		putParts = new ConcurrentHashMap<>();
+		partFiles = Collections.synchronizedList(new ArrayList<>());
+		lenient().when(mockClient.getMultipartPresignedUrlBatch(any(BatchPresignedUploadUrlRequest.class)))
+				.thenAnswer(invocation -> {
+					BatchPresignedUploadUrlRequest request = invocation.getArgument(0);
+					BatchPresignedUploadUrlResponse response = new BatchPresignedUploadUrlResponse();
+					response.setPartPresignedUrls(request.getPartNumbers().stream().map(n -> {
+						PartPresignedUrl partUrl = new PartPresignedUrl();
+						partUrl.setPartNumber(n);
+						partUrl.setUploadPresignedUrl("http://amazon.com/bucket/key/" + n);
+						return partUrl;
+					}).collect(Collectors.toList()));
+					return response;
+				});
+		lenient().when(mockClient.putFileToURL(any(URL.class), any(File.class), anyString())).thenAnswer(invocation -> {
+			URL url = invocation.getArgument(0);
+			File partFile = invocation.getArgument(1);
+			partFiles.add(partFile);
+			putParts.put(url.getPath(), new String(Hex.encodeHex(Files.readAllBytes(partFile.toPath()))));
+			return null;
+		});
+		lenient().when(mockClock.currentTimeMillis()).thenReturn(1000L, 2000L);
+	}
+
+	@AfterEach
+	public void after() {
+		file.delete();
+	}
+
+	ParallelMultipartUpload createUpload(int threadCount) {
+		ParallelMultipartUpload upload = new ParallelMultipartUpload(mockClient, file, contentType, null, false, null,
+				threadCount, mockListener, new FileProviderImpl(), mockClock);
+		// three parts: 4, 4 and 2 bytes.
+		upload.partSizeBytes = 4L;
+		return upload;
+	}
+
+	@Test
+	public void testUploadFile() throws Exception {
+		when(mockClient.startMultipartUpload(any(), any())).thenReturn(startStatus);
+		when(mockClient.completeMultipartUpload(anyString())).thenReturn(completeStatus);
+		when(mockClient.getRawFileHandle(anyString())).thenReturn(fileHandle);
+		ParallelMultipartUpload upload = createUpload(2);
+		// call under test
+		CloudProviderFileHandleInterface result = upload.uploadFile();
+		assertEquals(fileHandle, result);
+
+		ArgumentCaptor<MultipartUploadRequest> requestCaptor = ArgumentCaptor.forClass(MultipartUploadRequest.class);
+		verify(mockClient).startMultipartUpload(requestCaptor.capture(), eq(null));
+		assertEquals(calculateMD5Hex(fileBytes, 0, 10), requestCaptor.getValue().getContentMD5Hex());
+		assertEquals(4L, requestCaptor.getValue().getPartSizeBytes());
+		assertEquals(10L, requestCaptor.getValue().getFileSizeBytes());
+		assertEquals(file.getName(), requestCaptor.getValue().getFileName());
+		// a single batch of URLs for all three parts.
+		verify(mockClient).getMultipartPresignedUrlBatch(any(BatchPresignedUploadUrlRequest.class));
+		assertEquals("00010203", putParts.get("/bucket/key/1"));
+		assertEquals("04050607", putParts.get("/bucket/key/2"));
+		assertEquals("0809", putParts.get("/bucket/key/3"));
+		verify(mockClient).addPartToMultipartUpload("uploadId", 1, calculateMD5Hex(fileBytes, 0, 4));
+		verify(mockClient).addPartToMultipartUpload("uploadId", 2, calculateMD5Hex(fileBytes, 4, 4));
+		verify(mockClient).addPartToMultipartUpload("uploadId", 3, calculateMD5Hex(fileBytes, 8, 2));
+		verify(mockClient).completeMultipartUpload("uploadId");
+		verify(mockListener, times(3)).progress(anyLong(), eq(10L), anyDouble());
+		// the staged parts are deleted.
+		assertEquals(3, partFiles.size());
+		for (File partFile : partFiles) {
+			assertFalse(partFile.exists());
+		}
+	}
+
+	@Test
+	public void testUploadFileWithResume() throws Exception {
+		// the first two parts were uploaded by a previous call.
+		startStatus.setPartsState("110");
+		when(mockClient.startMultipartUpload(any(), any())).thenReturn(startStatus);
+		when(mockClient.completeMultipartUpload(anyString())).thenReturn(completeStatus);
+		when(mockClient.getRawFileHandle(anyString())).thenReturn(fileHandle);
+		ParallelMultipartUpload upload = createUpload(2);
+		// call under test
+		upload.uploadFile();
+
+		ArgumentCaptor<BatchPresignedUploadUrlRequest> batchCaptor = ArgumentCaptor
+				.forClass(BatchPresignedUploadUrlRequest.class);
+		verify(mockClient).getMultipartPresignedUrlBatch(batchCaptor.capture());
+		assertEquals(Collections.singletonList(3L), batchCaptor.getValue().getPartNumbers());
+		verify(mockClient, times(1)).putFileToURL(any(URL.class), any(File.class), anyString());
+		verify(mockClient).addPartToMultipartUpload("uploadId", 3, calculateMD5Hex(fileBytes, 8, 2));
+		// the previous parts count towards the progress but not the throughput.
+		verify(mockListener).progress(10L, 10L, 2.0);
+	}
+
+	@Test
+	public void testUploadFileComplete() throws Exception {
+		startStatus.setPartsState("111");
+		startStatus.setResultFileHandleId(fileHandle.getId());
+		when(mockClient.startMultipartUpload(any(), any())).thenReturn(startStatus);
+		when(mockClient.getRawFileHandle(anyString())).thenReturn(fileHandle);
+		ParallelMultipartUpload upload = createUpload(2);
+		// call under test
+		assertEquals(fileHandle, upload.uploadFile());
+		verify(mockClient, never()).getMultipartPresignedUrlBatch(any(BatchPresignedUploadUrlRequest.class));
+		verify(mockClient, never()).completeMultipartUpload(anyString());
+	}
+
+	@Test
+	public void testUploadFileWithPartFailure() throws Exception {
+		when(mockClient.startMultipartUpload(any(), any())).thenReturn(startStatus);
+		SynapseServerException exception = new SynapseServerException("busy");
+		when(mockClient.addPartToMultipartUpload(anyString(), anyInt(), anyString())).thenThrow(exception);
+		ParallelMultipartUpload upload = createUpload(1);
+		SynapseException thrown = assertThrows(SynapseException.class, () -> {
+			// call under test
+			upload.uploadFile();
+		});
+		assertSame(exception, thrown);
+		verify(mockClient, never()).completeMultipartUpload(anyString());
+	}
+
+	@Test
+	public void testUploadMissingPartsWithMultipleBatches() throws Exception {
+		int numberOfParts = ParallelMultipartUpload.PRESIGNED_URL_BATCH_SIZE + 1;
+		StringBuilder partsState = new StringBuilder();
+		for (int i = 0; i < numberOfParts; i++) {
+			partsState.append('0');
+		}
+		startStatus.setPartsState(partsState.toString());
+		ParallelMultipartUpload upload = createUpload(3);
+		// the file is large enough for the parts.
+		Files.write(file.toPath(), new byte[numberOfParts * 4]);
+		upload.request.setFileSizeBytes((long) numberOfParts * 4);
+		try (FileChannel channel = FileChannel.open(file.toPath())) {
+			// call under test
+			upload.uploadMissingParts(channel, startStatus);
+		}
+		verify(mockClient, times(2)).getMultipartPresignedUrlBatch(any(BatchPresignedUploadUrlRequest.class));
+		verify(mockClient, times(numberOfParts)).addPartToMultipartUpload(anyString(), anyInt(), anyString());
+	}
+
+	@Test
+	public void testConstructorWithZeroThreads() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			createUpload(0);
+		});
+	}
+
+	@Test
+	public void testGetPartLength() {
+		ParallelMultipartUpload upload = createUpload(1);
+		assertEquals(4L, upload.getPartLength(1, 10));
+		assertEquals(4L, upload.getPartLength(2, 10));
+		assertEquals(2L, upload.getPartLength(3, 10));
+	}
+
+	@Test
+	public void testCalculateBytesPerSecond() {
+		assertEquals(2000.0, ParallelMultipartUpload.calculateBytesPerSecond(1000L, 500L));
+		assertEquals(0.0, ParallelMultipartUpload.calculateBytesPerSecond(1000L, 0L));
+	}
+}
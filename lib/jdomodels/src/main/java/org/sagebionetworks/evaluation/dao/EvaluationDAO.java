@@ -130,6 +130,18 @@ public interface EvaluationDAO {
 	 * @return existing EvaluationRounds for which provided start-end timestamp range overlap
 	 */
 	List<EvaluationRound> overlappingEvaluationRounds(String evaluationId, String currentRoundId, Instant startTimestamp, Instant endTimestamp);
+
+	/**
+	 * Rewrite the submission quotas that are still stored as compressed XML with
+	 * the binary encoding, for every evaluation with an ID within the given
+	 * range. A quota that is updated while it is being rewritten is skipped. The
+	 * etag is not changed since the evaluation itself does not change.
+	 * 
+	 * @param minEvaluationId The minimum evaluation ID (inclusive).
+	 * @param maxEvaluationId The maximum evaluation ID (exclusive).
+	 * @return The number of quotas that were rewritten.
+	 */
+	long rewriteCompressedQuotas(long minEvaluationId, long maxEvaluationId);
 	
 	void truncateAll();
 }
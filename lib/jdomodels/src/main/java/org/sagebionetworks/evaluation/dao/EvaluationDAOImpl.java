@@ -9,6 +9,7 @@ import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_E
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_ETAG;
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_ID;
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_NAME;
+import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_QUOTA;
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_ROUND_ETAG;
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_ROUND_EVALUATION_ID;
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_ROUND_ID;
@@ -29,6 +30,8 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_RESOURCE
 import java.sql.ResultSet;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -56,6 +59,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -127,6 +131,12 @@ public class EvaluationDAOImpl implements EvaluationDAO {
 
 	private static final RowMapper<EvaluationDBO> evaluationRowMapper = ((new EvaluationDBO()).getTableMapping());
 
+	private static final String SQL_SELECT_COMPRESSED_QUOTAS = "SELECT " + COL_EVALUATION_ID + ", " + COL_EVALUATION_QUOTA
+			+ " FROM " + TABLE_EVALUATION + " WHERE " + COL_EVALUATION_ID + " >= ? AND " + COL_EVALUATION_ID + " < ? AND LEFT("
+			+ COL_EVALUATION_QUOTA + ", 2) = X'1F8B'";
+	private static final String SQL_REWRITE_QUOTA = "UPDATE " + TABLE_EVALUATION + " SET " + COL_EVALUATION_QUOTA + " = ? WHERE "
+			+ COL_EVALUATION_ID + " = ? AND " + COL_EVALUATION_QUOTA + " = ?";
+
 	private static final String EVALUATION_NOT_FOUND = "Evaluation could not be found with id :";
 
 	private static final String EVALUATION_ROUND_NOT_FOUND_FORMAT = "Evaluation Round with id=%s, belonging to Evaluation id=%s, could not be found.";
@@ -398,6 +408,25 @@ public class EvaluationDAOImpl implements EvaluationDAO {
 		);
 	}
 
+	@Override
+	@WriteTransaction
+	public long rewriteCompressedQuotas(long minEvaluationId, long maxEvaluationId) {
+		List<Object[]> batchArgs = new ArrayList<>();
+		jdbcTemplate.query(SQL_SELECT_COMPRESSED_QUOTAS, (RowCallbackHandler) (ResultSet rs) -> {
+			byte[] bytes = rs.getBytes(COL_EVALUATION_QUOTA);
+			Optional<byte[]> encoded = EvaluationDBOUtil.reencodeQuota(bytes);
+			if (encoded.isPresent()) {
+				batchArgs.add(new Object[] { encoded.get(), rs.getLong(COL_EVALUATION_ID), bytes });
+			}
+		}, minEvaluationId, maxEvaluationId);
+		if (batchArgs.isEmpty()) {
+			return 0L;
+		}
+		// A quota that was updated since it was read no longer matches and is skipped.
+		int[] updates = jdbcTemplate.batchUpdate(SQL_REWRITE_QUOTA, batchArgs);
+		return Arrays.stream(updates).filter(count -> count > 0).count();
+	}
+
 	@Override
 	@WriteTransaction
 	public void truncateAll() {
@@ -12,6 +12,7 @@ import org.sagebionetworks.evaluation.model.SubmissionStatusEnum;
 import org.sagebionetworks.repo.model.ACCESS_TYPE;
 import org.sagebionetworks.repo.model.DatastoreException;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.table.ObjectDataDTO;
 import org.sagebionetworks.repo.web.NotFoundException;
 
@@ -228,4 +229,19 @@ public interface SubmissionDAO {
 	 */
 	public List<IdAndChecksum> getIdAndChecksumsPage(Long salt, Set<Long> parentIds, Long limit,
 			Long offset);
+
+	/**
+	 * Get the aggregated checksum of each bucket of submissions in the given
+	 * evaluations with an ID within the given range. The bucket of each submission
+	 * is: ID DIV bucketSize.
+	 * 
+	 * @param salt
+	 * @param parentIds  The evaluation ids
+	 * @param minId      The minimum ID (inclusive).
+	 * @param maxId      The maximum ID (exclusive).
+	 * @param bucketSize
+	 * @return The buckets ordered by bucket ascending.
+	 */
+	public List<IdRangeChecksum> getIdRangeChecksums(Long salt, Set<Long> parentIds, Long minId, Long maxId,
+			Long bucketSize);
 }
\ No newline at end of file
@@ -70,6 +70,7 @@ import org.sagebionetworks.ids.IdType;
 import org.sagebionetworks.repo.model.ACCESS_TYPE;
 import org.sagebionetworks.repo.model.DatastoreException;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.IdAndEtag;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.annotation.v2.Annotations;
@@ -96,6 +97,9 @@ public class SubmissionDAOImpl implements SubmissionDAO {
 	public static final String GET_ID_AND_CHECKSUM_FOR_CHILDREN = DDLUtilsImpl
 			.loadSQLFromClasspath("sql/evaluation/GetIdAndChecksumParentId.sql");
 
+	public static final String GET_ID_RANGE_CHECKSUM_FOR_CHILDREN = DDLUtilsImpl
+			.loadSQLFromClasspath("sql/evaluation/GetIdRangeChecksumParentId.sql");
+
 	@Autowired
 	private DBOBasicDao basicDao;
 
@@ -893,4 +897,28 @@ public class SubmissionDAOImpl implements SubmissionDAO {
 		});
 	}
 
+	@Override
+	public List<IdRangeChecksum> getIdRangeChecksums(Long salt, Set<Long> parentIds, Long minId, Long maxId,
+			Long bucketSize) {
+		ValidateArgument.required(salt, "salt");
+		ValidateArgument.required(parentIds, "parentIds");
+		ValidateArgument.required(minId, "minId");
+		ValidateArgument.required(maxId, "maxId");
+		ValidateArgument.required(bucketSize, "bucketSize");
+		ValidateArgument.requirement(bucketSize > 0, "bucketSize must be greater than zero");
+		if(parentIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue("salt", salt);
+		params.addValue("evaluationIds", parentIds);
+		params.addValue("minId", minId);
+		params.addValue("maxId", maxId);
+		params.addValue("bucketSize", bucketSize);
+		return namedJdbcTemplate.query(GET_ID_RANGE_CHECKSUM_FOR_CHILDREN, params, (ResultSet rs, int rowNum) -> {
+			return new IdRangeChecksum().withBucket(rs.getLong("BUCKET")).withCount(rs.getLong("ROW_COUNT"))
+					.withChecksum(rs.getLong("CHECK_SUM"));
+		});
+	}
+
 }
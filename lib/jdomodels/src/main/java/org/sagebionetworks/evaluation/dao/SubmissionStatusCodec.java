@@ -0,0 +1,149 @@
+package org.sagebionetworks.evaluation.dao;
+
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.readBoolean;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.readDate;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.readDouble;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.readLong;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.readSize;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.readString;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.writeBoolean;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.writeDate;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.writeDouble;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.writeLong;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.writeSize;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.writeString;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sagebionetworks.evaluation.model.SubmissionStatus;
+import org.sagebionetworks.evaluation.model.SubmissionStatusEnum;
+import org.sagebionetworks.repo.model.annotation.AnnotationBase;
+import org.sagebionetworks.repo.model.annotation.Annotations;
+import org.sagebionetworks.repo.model.annotation.DoubleAnnotation;
+import org.sagebionetworks.repo.model.annotation.LongAnnotation;
+import org.sagebionetworks.repo.model.annotation.StringAnnotation;
+import org.sagebionetworks.repo.model.jdo.BinaryPropertyCodec;
+import org.sagebionetworks.repo.model.jdo.BinaryValueReader;
+import org.sagebionetworks.repo.model.jdo.BinaryValueWriter;
+
+/**
+ * Binary codec for the serialized field of a {@link SubmissionStatus}. The
+ * submissionAnnotations are stored in their own table and are not written.
+ *
+ */
+class SubmissionStatusCodec implements BinaryPropertyCodec<SubmissionStatus> {
+
+	static final byte VERSION = 1;
+
+	@Override
+	public byte getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public void write(SubmissionStatus value, DataOutput out) throws IOException {
+		writeString(out, value.getId());
+		writeString(out, value.getEtag());
+		writeDate(out, value.getModifiedOn());
+		writeString(out, value.getStatus() == null ? null : value.getStatus().name());
+		writeDouble(out, value.getScore());
+		writeString(out, value.getReport());
+		writeAnnotations(out, value.getAnnotations());
+		writeString(out, value.getEntityId());
+		writeLong(out, value.getVersionNumber());
+		writeLong(out, value.getStatusVersion());
+		writeBoolean(out, value.getCanCancel());
+		writeBoolean(out, value.getCancelRequested());
+	}
+
+	@Override
+	public SubmissionStatus read(DataInput in, byte version) throws IOException {
+		SubmissionStatus status = new SubmissionStatus();
+		status.setId(readString(in));
+		status.setEtag(readString(in));
+		status.setModifiedOn(readDate(in));
+		String statusName = readString(in);
+		status.setStatus(statusName == null ? null : SubmissionStatusEnum.valueOf(statusName));
+		status.setScore(readDouble(in));
+		status.setReport(readString(in));
+		status.setAnnotations(readAnnotations(in));
+		status.setEntityId(readString(in));
+		status.setVersionNumber(readLong(in));
+		status.setStatusVersion(readLong(in));
+		status.setCanCancel(readBoolean(in));
+		status.setCancelRequested(readBoolean(in));
+		return status;
+	}
+
+	static void writeAnnotations(DataOutput out, Annotations annos) throws IOException {
+		out.writeBoolean(annos != null);
+		if (annos == null) {
+			return;
+		}
+		writeString(out, annos.getObjectId());
+		writeString(out, annos.getScopeId());
+		writeLong(out, annos.getVersion());
+		writeList(out, annos.getStringAnnos(), (o, a) -> writeString(o, a.getValue()));
+		writeList(out, annos.getLongAnnos(), (o, a) -> writeLong(o, a.getValue()));
+		writeList(out, annos.getDoubleAnnos(), (o, a) -> writeDouble(o, a.getValue()));
+	}
+
+	static Annotations readAnnotations(DataInput in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		Annotations annos = new Annotations();
+		annos.setObjectId(readString(in));
+		annos.setScopeId(readString(in));
+		annos.setVersion(readLong(in));
+		annos.setStringAnnos(readList(in, i -> new StringAnnotation().setValue(readString(i))));
+		annos.setLongAnnos(readList(in, i -> new LongAnnotation().setValue(readLong(i))));
+		annos.setDoubleAnnos(readList(in, i -> new DoubleAnnotation().setValue(readDouble(i))));
+		return annos;
+	}
+
+	/**
+	 * Write each annotation's key and isPrivate followed by its value.
+	 */
+	static <A extends AnnotationBase> void writeList(DataOutput out, List<A> list, BinaryValueWriter<A> valueWriter)
+			throws IOException {
+		writeSize(out, list == null ? null : list.size());
+		if (list == null) {
+			return;
+		}
+		for (A annotation : list) {
+			out.writeBoolean(annotation != null);
+			if (annotation != null) {
+				writeString(out, annotation.getKey());
+				writeBoolean(out, annotation.getIsPrivate());
+				valueWriter.write(out, annotation);
+			}
+		}
+	}
+
+	static <A extends AnnotationBase> List<A> readList(DataInput in, BinaryValueReader<A> valueReader)
+			throws IOException {
+		Integer size = readSize(in);
+		if (size == null) {
+			return null;
+		}
+		List<A> list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			if (!in.readBoolean()) {
+				list.add(null);
+				continue;
+			}
+			String key = readString(in);
+			Boolean isPrivate = readBoolean(in);
+			A annotation = valueReader.read(in);
+			annotation.setKey(key);
+			annotation.setIsPrivate(isPrivate);
+			list.add(annotation);
+		}
+		return list;
+	}
+}
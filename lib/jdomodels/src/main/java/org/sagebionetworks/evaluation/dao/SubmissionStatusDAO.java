@@ -62,4 +62,16 @@ public interface SubmissionStatusDAO {
 
 	long getCount() throws DatastoreException;
 
+	/**
+	 * Rewrite the serialized statuses that are still stored as compressed XML
+	 * with the binary encoding, for every submission with an ID within the given
+	 * range. A status that is updated while it is being rewritten is skipped.
+	 * The etag is not changed since the status itself does not change.
+	 * 
+	 * @param minSubmissionId The minimum submission ID (inclusive).
+	 * @param maxSubmissionId The maximum submission ID (exclusive).
+	 * @return The number of statuses that were rewritten.
+	 */
+	long rewriteCompressedSerializedEntities(long minSubmissionId, long maxSubmissionId);
+
 }
\ No newline at end of file
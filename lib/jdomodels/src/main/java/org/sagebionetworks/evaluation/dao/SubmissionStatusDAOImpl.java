@@ -3,17 +3,21 @@ package org.sagebionetworks.evaluation.dao;
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_SUBMISSION_EVAL_ID;
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_SUBMISSION_ID;
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_SUBSTATUS_ETAG;
+import static org.sagebionetworks.repo.model.query.SQLConstants.COL_SUBSTATUS_SERIALIZED_ENTITY;
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_SUBSTATUS_SUBMISSION_ID;
 import static org.sagebionetworks.repo.model.query.SQLConstants.COL_SUBSTATUS_VERSION;
 import static org.sagebionetworks.repo.model.query.SQLConstants.TABLE_SUBMISSION;
+import static org.sagebionetworks.repo.model.query.SQLConstants.TABLE_SUBSTATUS;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -31,6 +35,7 @@ import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -56,6 +61,19 @@ public class SubmissionStatusDAOImpl implements SubmissionStatusDAO {
 			"SELECT DISTINCT s."+COL_SUBMISSION_EVAL_ID+" FROM "+TABLE_SUBMISSION+
 			" s WHERE s."+COL_SUBMISSION_ID+" IN (:"+COL_SUBMISSION_ID+")";
 
+	private static final String MIN_ID = "minId";
+	private static final String MAX_ID = "maxId";
+	private static final String OLD_SERIALIZED_ENTITY = "oldSerializedEntity";
+
+	private static final String SQL_SELECT_COMPRESSED_SERIALIZED_ENTITIES = "SELECT " + COL_SUBSTATUS_SUBMISSION_ID + ", "
+			+ COL_SUBSTATUS_SERIALIZED_ENTITY + " FROM " + TABLE_SUBSTATUS + " WHERE " + COL_SUBSTATUS_SUBMISSION_ID
+			+ " >= :" + MIN_ID + " AND " + COL_SUBSTATUS_SUBMISSION_ID + " < :" + MAX_ID + " AND LEFT("
+			+ COL_SUBSTATUS_SERIALIZED_ENTITY + ", 2) = X'1F8B'";
+	private static final String SQL_REWRITE_SERIALIZED_ENTITY = "UPDATE " + TABLE_SUBSTATUS + " SET "
+			+ COL_SUBSTATUS_SERIALIZED_ENTITY + " = :" + COL_SUBSTATUS_SERIALIZED_ENTITY + " WHERE "
+			+ COL_SUBSTATUS_SUBMISSION_ID + " = :" + COL_SUBSTATUS_SUBMISSION_ID + " AND "
+			+ COL_SUBSTATUS_SERIALIZED_ENTITY + " = :" + OLD_SERIALIZED_ENTITY;
+
 	@Override
 	@WriteTransaction
 	public String create(SubmissionStatus dto) throws DatastoreException {
@@ -172,6 +190,32 @@ public class SubmissionStatusDAOImpl implements SubmissionStatusDAO {
 		return basicDao.getCount(SubmissionStatusDBO.class);
 	}
 	
+	@Override
+	@WriteTransaction
+	public long rewriteCompressedSerializedEntities(long minSubmissionId, long maxSubmissionId) {
+		MapSqlParameterSource param = new MapSqlParameterSource();
+		param.addValue(MIN_ID, minSubmissionId);
+		param.addValue(MAX_ID, maxSubmissionId);
+		List<MapSqlParameterSource> batchArgs = new ArrayList<>();
+		namedJdbcTemplate.query(SQL_SELECT_COMPRESSED_SERIALIZED_ENTITIES, param, (RowCallbackHandler) (ResultSet rs) -> {
+			byte[] bytes = rs.getBytes(COL_SUBSTATUS_SERIALIZED_ENTITY);
+			Optional<byte[]> encoded = SubmissionUtils.reencodeSerializedField(bytes);
+			if (encoded.isPresent()) {
+				MapSqlParameterSource update = new MapSqlParameterSource();
+				update.addValue(COL_SUBSTATUS_SERIALIZED_ENTITY, encoded.get());
+				update.addValue(COL_SUBSTATUS_SUBMISSION_ID, rs.getLong(COL_SUBSTATUS_SUBMISSION_ID));
+				update.addValue(OLD_SERIALIZED_ENTITY, bytes);
+				batchArgs.add(update);
+			}
+		});
+		if (batchArgs.isEmpty()) {
+			return 0L;
+		}
+		// A status that was updated since it was read no longer matches and is skipped.
+		int[] updates = namedJdbcTemplate.batchUpdate(SQL_REWRITE_SERIALIZED_ENTITY, batchArgs.toArray(new MapSqlParameterSource[batchArgs.size()]));
+		return Arrays.stream(updates).filter(count -> count > 0).count();
+	}
+	
 	@Override
 	public Long getEvaluationIdForBatch(List<SubmissionStatus> batch)
 			throws DatastoreException, InvalidModelException,
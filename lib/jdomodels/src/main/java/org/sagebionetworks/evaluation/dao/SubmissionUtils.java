@@ -2,6 +2,7 @@ package org.sagebionetworks.evaluation.dao;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.Optional;
 
 import org.sagebionetworks.evaluation.dbo.SubmissionContributorDBO;
 import org.sagebionetworks.evaluation.dbo.SubmissionDBO;
@@ -17,7 +18,11 @@ import org.sagebionetworks.repo.model.jdo.JDOSecondaryPropertyUtils;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
 
 public class SubmissionUtils {
-	private static final UnmodifiableXStream X_STREAM = UnmodifiableXStream.builder().allowTypes(SubmissionStatus.class).build();
+	/**
+	 * Only used to read statuses that were written before the binary codec.
+	 */
+	static final UnmodifiableXStream X_STREAM = UnmodifiableXStream.builder().allowTypes(SubmissionStatus.class).build();
+	static final SubmissionStatusCodec CODEC = new SubmissionStatusCodec();
 
 	/**
 	 * Copy a Submission data transfer object to a SubmissionDBO database object
@@ -173,7 +178,7 @@ public class SubmissionUtils {
 		dto.setSubmissionAnnotations(null);
 		
 		try {
-			dbo.setSerializedEntity(JDOSecondaryPropertyUtils.compressObject(X_STREAM, dto));
+			dbo.setSerializedEntity(JDOSecondaryPropertyUtils.encodeObject(CODEC, dto));
 		} catch (IOException e) {
 			throw new DatastoreException(e);
 		}
@@ -184,7 +189,22 @@ public class SubmissionUtils {
 	
 	public static SubmissionStatus copyFromSerializedField(SubmissionStatusDBO dbo) throws DatastoreException {
 		try {
-			return (SubmissionStatus) JDOSecondaryPropertyUtils.decompressObject(X_STREAM, dbo.getSerializedEntity());
+			return JDOSecondaryPropertyUtils.decodeObject(CODEC, X_STREAM, dbo.getSerializedEntity());
+		} catch (IOException e) {
+			throw new DatastoreException(e);
+		}
+	}
+
+	/**
+	 * Re-encode a serialized status written by an earlier version.
+	 * 
+	 * @param serializedEntity
+	 * @return empty if the status is already encoded with the current version.
+	 * @throws DatastoreException
+	 */
+	public static Optional<byte[]> reencodeSerializedField(byte[] serializedEntity) throws DatastoreException {
+		try {
+			return JDOSecondaryPropertyUtils.reencodeObject(CODEC, X_STREAM, serializedEntity);
 		} catch (IOException e) {
 			throw new DatastoreException(e);
 		}
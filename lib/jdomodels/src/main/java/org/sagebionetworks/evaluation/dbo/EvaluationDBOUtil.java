@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import org.sagebionetworks.evaluation.model.Evaluation;
 import org.sagebionetworks.evaluation.model.SubmissionQuota;
@@ -15,7 +16,11 @@ import org.sagebionetworks.util.ValidateArgument;
 
 public class EvaluationDBOUtil {
 
-	private static final UnmodifiableXStream X_STREAM = UnmodifiableXStream.builder().allowTypes(SubmissionQuota.class).build();
+	/**
+	 * Only used to read quotas that were written before the binary codec.
+	 */
+	static final UnmodifiableXStream X_STREAM = UnmodifiableXStream.builder().allowTypes(SubmissionQuota.class).build();
+	static final SubmissionQuotaCodec CODEC = new SubmissionQuotaCodec();
 
 	/**
 	 * Copy a EvaluationDBO database object to a Evaluation data transfer object
@@ -48,7 +53,7 @@ public class EvaluationDBOUtil {
 		if (dto.getQuota() != null) {
 			try {
 				SubmissionQuota quota = dto.getQuota();
-				dbo.setQuota(JDOSecondaryPropertyUtils.compressObject(X_STREAM, quota));
+				dbo.setQuota(JDOSecondaryPropertyUtils.encodeObject(CODEC, quota));
 				Long startTime = quota.getFirstRoundStart()==null ? null : quota.getFirstRoundStart().getTime();
 				dbo.setStartTimestamp(startTime);
 				dbo.setEndTimestamp(getEndTimeOrNull(startTime, quota.getRoundDurationMillis(), quota.getNumberOfRounds()));
@@ -118,13 +123,28 @@ public class EvaluationDBOUtil {
 		}
 		if (dbo.getQuota() != null) {
 			try {
-				dto.setQuota((SubmissionQuota)JDOSecondaryPropertyUtils.decompressObject(X_STREAM, dbo.getQuota()));
+				dto.setQuota(JDOSecondaryPropertyUtils.decodeObject(CODEC, X_STREAM, dbo.getQuota()));
 			} catch (IOException e) {
 				throw new RuntimeException(e);
 			}
 		}
 	}
 	
+	/**
+	 * Re-encode a quota written by an earlier version.
+	 * 
+	 * @param quota
+	 * @return empty if the quota is already encoded with the current version.
+	 * @throws DatastoreException
+	 */
+	public static Optional<byte[]> reencodeQuota(byte[] quota) throws DatastoreException {
+		try {
+			return JDOSecondaryPropertyUtils.reencodeObject(CODEC, X_STREAM, quota);
+		} catch (IOException e) {
+			throw new DatastoreException(e);
+		}
+	}
+	
 	public static void copyDbosToDtos(List<EvaluationDBO> dbos, List<Evaluation> dtos) throws DatastoreException {
 		for (EvaluationDBO dbo : dbos) {
 			Evaluation dto = new Evaluation();
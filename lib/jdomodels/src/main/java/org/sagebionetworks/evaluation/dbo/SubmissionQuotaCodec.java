@@ -0,0 +1,45 @@
+package org.sagebionetworks.evaluation.dbo;
+
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.readDate;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.readLong;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.writeDate;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.writeLong;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.sagebionetworks.evaluation.model.SubmissionQuota;
+import org.sagebionetworks.repo.model.jdo.BinaryPropertyCodec;
+
+/**
+ * Binary codec for the {@link SubmissionQuota} of an evaluation.
+ *
+ */
+class SubmissionQuotaCodec implements BinaryPropertyCodec<SubmissionQuota> {
+
+	static final byte VERSION = 1;
+
+	@Override
+	public byte getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public void write(SubmissionQuota value, DataOutput out) throws IOException {
+		writeDate(out, value.getFirstRoundStart());
+		writeLong(out, value.getRoundDurationMillis());
+		writeLong(out, value.getNumberOfRounds());
+		writeLong(out, value.getSubmissionLimit());
+	}
+
+	@Override
+	public SubmissionQuota read(DataInput in, byte version) throws IOException {
+		SubmissionQuota quota = new SubmissionQuota();
+		quota.setFirstRoundStart(readDate(in));
+		quota.setRoundDurationMillis(readLong(in));
+		quota.setNumberOfRounds(readLong(in));
+		quota.setSubmissionLimit(readLong(in));
+		return quota;
+	}
+}
@@ -0,0 +1,104 @@
+package org.sagebionetworks.repo.model.content;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * The gzipped bytes of an immutable blob of text, such as wiki markdown or a
+ * discussion message, and the charset of the text. The bytes are only
+ * decompressed when the text is requested.
+ *
+ */
+public class CompressedContent {
+
+	private final byte[] gzippedBytes;
+	private final Charset charset;
+
+	/**
+	 *
+	 * @param gzippedBytes The gzipped bytes of the text.
+	 * @param charset      The charset of the text.
+	 */
+	public CompressedContent(byte[] gzippedBytes, Charset charset) {
+		ValidateArgument.required(gzippedBytes, "gzippedBytes");
+		ValidateArgument.required(charset, "charset");
+		this.gzippedBytes = gzippedBytes;
+		this.charset = charset;
+	}
+
+	/**
+	 * Read all of the gzipped bytes from the given stream. The stream is not
+	 * closed.
+	 *
+	 * @param gzippedStream
+	 * @param charset
+	 * @return
+	 * @throws IOException
+	 */
+	public static CompressedContent read(InputStream gzippedStream, Charset charset) throws IOException {
+		ValidateArgument.required(gzippedStream, "gzippedStream");
+		return new CompressedContent(IOUtils.toByteArray(gzippedStream), charset);
+	}
+
+	/**
+	 * Decompress the text.
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	public String decompress() throws IOException {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzippedBytes))) {
+			return IOUtils.toString(in, charset);
+		}
+	}
+
+	public byte[] getGzippedBytes() {
+		return gzippedBytes;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * @return The number of compressed bytes.
+	 */
+	public int size() {
+		return gzippedBytes.length;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Arrays.hashCode(gzippedBytes);
+		result = prime * result + Objects.hash(charset);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CompressedContent)) {
+			return false;
+		}
+		CompressedContent other = (CompressedContent) obj;
+		return Arrays.equals(gzippedBytes, other.gzippedBytes) && Objects.equals(charset, other.charset);
+	}
+
+	@Override
+	public String toString() {
+		return "CompressedContent [size=" + gzippedBytes.length + ", charset=" + charset + "]";
+	}
+
+}
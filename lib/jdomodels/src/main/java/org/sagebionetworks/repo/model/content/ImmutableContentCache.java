@@ -0,0 +1,301 @@
+package org.sagebionetworks.repo.model.content;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * A size-bounded, two-tier cache of immutable blobs of text such as wiki
+ * markdown (keyed by the markdown file handle ID) and discussion messages
+ * (keyed by their S3 key). The content of a key must never change.
+ * <p>
+ * The first tier is an on-heap, least-recently-used map bounded by the total
+ * number of compressed bytes. Entries evicted from the heap tier are written to
+ * the optional second tier, a least-recently-used directory of local files also
+ * bounded by bytes. An entry read from the disk tier is moved back to the heap
+ * tier. Both tiers hold the compressed bytes; the text is only decompressed for
+ * the caller that requested it.
+ * <p>
+ * The disk tier is a fresh temporary directory per cache, so its files are
+ * never shared with another process.
+ *
+ */
+public class ImmutableContentCache {
+
+	/**
+	 * Loads the compressed content of a key that is not in the cache.
+	 *
+	 */
+	@FunctionalInterface
+	public interface ContentLoader {
+
+		CompressedContent load() throws IOException;
+	}
+
+	public static final String DISK_DIRECTORY_PREFIX = "immutable-content-cache";
+
+	private static final Logger log = LogManager.getLogger(ImmutableContentCache.class);
+
+	private final long maxHeapBytes;
+	private final long maxDiskBytes;
+	private final File diskDirectory;
+	private final LinkedHashMap<String, CompressedContent> heap;
+	private final LinkedHashMap<String, Long> diskIndex;
+	private long heapBytes;
+	private long diskBytes;
+	private final AtomicLong heapHitCount = new AtomicLong();
+	private final AtomicLong diskHitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 *
+	 * @param maxHeapBytes The maximum number of compressed bytes to keep on the
+	 *                     heap.
+	 * @param maxDiskBytes The maximum number of compressed bytes to keep on the
+	 *                     local disk. Zero disables the disk tier.
+	 * @throws IOException If the directory of the disk tier cannot be created.
+	 */
+	public ImmutableContentCache(long maxHeapBytes, long maxDiskBytes) throws IOException {
+		ValidateArgument.requirement(maxHeapBytes > 0, "maxHeapBytes must be greater than zero");
+		ValidateArgument.requirement(maxDiskBytes >= 0, "maxDiskBytes cannot be negative");
+		this.maxHeapBytes = maxHeapBytes;
+		this.maxDiskBytes = maxDiskBytes;
+		if (maxDiskBytes > 0) {
+			this.diskDirectory = Files.createTempDirectory(DISK_DIRECTORY_PREFIX).toFile();
+			this.diskDirectory.deleteOnExit();
+		} else {
+			this.diskDirectory = null;
+		}
+		this.heap = new LinkedHashMap<>(16, 0.75f, true);
+		this.diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Get the text of the given key. If the key is not in either tier the
+	 * compressed content is fetched with the given loader and added to the cache.
+	 *
+	 * @param key
+	 * @param loader
+	 * @return
+	 * @throws IOException
+	 */
+	public String getContent(String key, ContentLoader loader) throws IOException {
+		return getCompressedContent(key, loader).decompress();
+	}
+
+	/**
+	 * Get the compressed content of the given key. If the key is not in either
+	 * tier the compressed content is fetched with the given loader and added to
+	 * the cache.
+	 *
+	 * @param key
+	 * @param loader
+	 * @return
+	 * @throws IOException
+	 */
+	public CompressedContent getCompressedContent(String key, ContentLoader loader) throws IOException {
+		ValidateArgument.required(key, "key");
+		ValidateArgument.required(loader, "loader");
+		CompressedContent content;
+		synchronized (heap) {
+			content = heap.get(key);
+		}
+		if (content != null) {
+			heapHitCount.incrementAndGet();
+			return content;
+		}
+		content = readFromDisk(key);
+		if (content != null) {
+			diskHitCount.incrementAndGet();
+			put(key, content);
+			return content;
+		}
+		missCount.incrementAndGet();
+		content = loader.load();
+		ValidateArgument.required(content, "The loaded content");
+		put(key, content);
+		return content;
+	}
+
+	/**
+	 * Add the given content to the heap tier, moving the least recently used
+	 * entries to the disk tier as needed.
+	 *
+	 * @param key
+	 * @param content
+	 */
+	void put(String key, CompressedContent content) {
+		if (content.size() > maxHeapBytes) {
+			writeToDisk(key, content);
+			return;
+		}
+		List<Map.Entry<String, CompressedContent>> evicted = new ArrayList<>();
+		synchronized (heap) {
+			CompressedContent previous = heap.put(key, content);
+			if (previous != null) {
+				heapBytes -= previous.size();
+			}
+			heapBytes += content.size();
+			Iterator<Map.Entry<String, CompressedContent>> it = heap.entrySet().iterator();
+			while (heapBytes > maxHeapBytes && it.hasNext()) {
+				Map.Entry<String, CompressedContent> eldest = it.next();
+				heapBytes -= eldest.getValue().size();
+				it.remove();
+				evicted.add(eldest);
+			}
+		}
+		// disk writes are made outside of the heap lock.
+		for (Map.Entry<String, CompressedContent> entry : evicted) {
+			writeToDisk(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Write the given content to the disk tier, removing the least recently used
+	 * files as needed. Does nothing if the disk tier is disabled or the content
+	 * is larger than the disk tier.
+	 *
+	 * @param key
+	 * @param content
+	 */
+	void writeToDisk(String key, CompressedContent content) {
+		if (diskDirectory == null || content.size() > maxDiskBytes) {
+			return;
+		}
+		synchronized (diskIndex) {
+			if (diskIndex.containsKey(key)) {
+				return;
+			}
+			File file = getDiskFile(key);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+				out.writeUTF(key);
+				out.writeUTF(content.getCharset().name());
+				out.writeInt(content.size());
+				out.write(content.getGzippedBytes());
+			} catch (IOException e) {
+				log.warn("Failed to write content to the disk cache: " + e.getMessage());
+				FileUtils.deleteQuietly(file);
+				return;
+			}
+			diskIndex.put(key, (long) content.size());
+			diskBytes += content.size();
+			Iterator<Map.Entry<String, Long>> it = diskIndex.entrySet().iterator();
+			while (diskBytes > maxDiskBytes && it.hasNext()) {
+				Map.Entry<String, Long> eldest = it.next();
+				diskBytes -= eldest.getValue();
+				it.remove();
+				FileUtils.deleteQuietly(getDiskFile(eldest.getKey()));
+			}
+		}
+	}
+
+	/**
+	 * Read the given key from the disk tier.
+	 *
+	 * @param key
+	 * @return Null if the key is not on disk.
+	 */
+	CompressedContent readFromDisk(String key) {
+		if (diskDirectory == null) {
+			return null;
+		}
+		synchronized (diskIndex) {
+			if (diskIndex.get(key) == null) {
+				return null;
+			}
+		}
+		// The file might be evicted while it is read, which is treated as a miss.
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(getDiskFile(key))))) {
+			if (!key.equals(in.readUTF())) {
+				return null;
+			}
+			Charset charset = Charset.forName(in.readUTF());
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			return new CompressedContent(bytes, charset);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private File getDiskFile(String key) {
+		return new File(diskDirectory, UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString());
+	}
+
+	/**
+	 * @return The number of compressed bytes currently on the heap.
+	 */
+	public long getHeapBytes() {
+		synchronized (heap) {
+			return heapBytes;
+		}
+	}
+
+	/**
+	 * @return The number of compressed bytes currently on the local disk.
+	 */
+	public long getDiskBytes() {
+		synchronized (diskIndex) {
+			return diskBytes;
+		}
+	}
+
+	/**
+	 * @return The number of calls that were served from the heap tier.
+	 */
+	public long getHeapHitCount() {
+		return heapHitCount.get();
+	}
+
+	/**
+	 * @return The number of calls that were served from the disk tier.
+	 */
+	public long getDiskHitCount() {
+		return diskHitCount.get();
+	}
+
+	/**
+	 * @return The number of calls that required a load.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Remove all entries from both tiers.
+	 */
+	public void clear() {
+		synchronized (heap) {
+			heap.clear();
+			heapBytes = 0L;
+		}
+		if (diskDirectory != null) {
+			synchronized (diskIndex) {
+				diskIndex.keySet().forEach(key -> FileUtils.deleteQuietly(getDiskFile(key)));
+				diskIndex.clear();
+				diskBytes = 0L;
+			}
+		}
+	}
+}
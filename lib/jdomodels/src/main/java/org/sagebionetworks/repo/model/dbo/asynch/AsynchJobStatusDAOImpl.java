@@ -108,7 +108,7 @@ public class AsynchJobStatusDAOImpl implements AsynchronousJobStatusDAO {
 	 */
 	@NewWriteTransaction
 	@Override
-	public AsynchronousJobStatus startJob(Long userId, AsynchronousRequestBody body) {
+	public AsynchronousJobStatus startJob(Long userId, AsynchronousRequestBody body, String requestHash) {
 		if(userId == null) throw new IllegalArgumentException("UserId cannot be null");
 		if(body == null) throw new IllegalArgumentException("body cannot be null");
 		AsynchronousJobStatus status = new AsynchronousJobStatus();
@@ -123,6 +123,7 @@ public class AsynchJobStatusDAOImpl implements AsynchronousJobStatusDAO {
 		status.setRuntimeMS(0L);
 		status.setRequestBody(body);
 		DBOAsynchJobStatus dbo = AsynchJobStatusUtils.createDBOFromDTO(status);
+		dbo.setRequestHash(requestHash);
 		dbo = basicDao.createNew(dbo);
 		return AsynchJobStatusUtils.createDTOFromDBO(dbo);
 	}
@@ -169,8 +170,7 @@ public class AsynchJobStatusDAOImpl implements AsynchronousJobStatusDAO {
 
 	@WriteTransaction
 	@Override
-	public long setComplete(String jobId, AsynchronousResponseBody body,
-			String requestHash) throws DatastoreException, NotFoundException {
+	public long setComplete(String jobId, AsynchronousResponseBody body) throws DatastoreException, NotFoundException {
 		if(jobId == null) throw new IllegalArgumentException("JobId cannot be null");
 		if(body == null) throw new IllegalArgumentException("Body cannot be null");
 		// Get the current value for this job
@@ -193,7 +193,6 @@ public class AsynchJobStatusDAOImpl implements AsynchronousJobStatusDAO {
 		} catch (JSONObjectAdapterException e) {
 			throw new RuntimeException(e);
 		}
-		dbo.setRequestHash(requestHash);
 		basicDao.update(dbo);
 		return runtimeMS;
 	}
@@ -197,6 +197,20 @@ public class DBOAccessControlListDaoImpl implements AccessControlListDAO {
 			+ COL_ACL_OWNER_TYPE + " = :" + COL_ACL_OWNER_TYPE + " ORDER BY "
 			+ COL_ACL_OWNER_ID;
 
+	private static final String SQL_SELECT_ACLS_FOR_OWNERS = "SELECT * FROM "
+			+ TABLE_ACCESS_CONTROL_LIST + " WHERE " + COL_ACL_OWNER_ID
+			+ " IN (:" + IDS_PARAM_NAME + ") AND " + COL_ACL_OWNER_TYPE
+			+ " = :" + COL_ACL_OWNER_TYPE;
+
+	private static final String SQL_SELECT_RESOURCE_ACCESS_FOR_ACLS = "SELECT ra."
+			+ COL_RESOURCE_ACCESS_OWNER + ", ra." + COL_RESOURCE_ACCESS_GROUP_ID
+			+ ", at." + COL_RESOURCE_ACCESS_TYPE_ELEMENT + " FROM "
+			+ TABLE_RESOURCE_ACCESS + " ra LEFT JOIN "
+			+ TABLE_RESOURCE_ACCESS_TYPE + " at ON (at."
+			+ COL_RESOURCE_ACCESS_TYPE_ID + " = ra." + COL_RESOURCE_ACCESS_ID
+			+ ") WHERE ra." + COL_RESOURCE_ACCESS_OWNER + " IN (:"
+			+ IDS_PARAM_NAME + ")";
+
 	private static final String SQL_DELETE_ACLS_BY_IDS = "DELETE FROM "
 			+ TABLE_ACCESS_CONTROL_LIST + " WHERE " + COL_ACL_OWNER_ID
 			+ " IN (:" + IDS_PARAM_NAME + ")" + " AND " + COL_ACL_OWNER_TYPE
@@ -313,6 +327,54 @@ public class DBOAccessControlListDaoImpl implements AccessControlListDAO {
 		return acl;
 	}
 
+	@Override
+	public Map<Long, AccessControlList> getAcls(Set<Long> ownerIds,
+			ObjectType ownerType) {
+		ValidateArgument.required(ownerIds, "ownerIds");
+		ValidateArgument.required(ownerType, "ownerType");
+		Map<Long, AccessControlList> results = new HashMap<Long, AccessControlList>();
+		if (ownerIds.isEmpty()) {
+			return results;
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue(IDS_PARAM_NAME, ownerIds);
+		params.addValue(COL_ACL_OWNER_TYPE, ownerType.name());
+		List<DBOAccessControlList> dboList = namedParameterJdbcTemplate.query(
+				SQL_SELECT_ACLS_FOR_OWNERS, params, aclRowMapper);
+		if (dboList.isEmpty()) {
+			return results;
+		}
+		// map each ACL ID to the access of each principal.
+		final Map<Long, Map<Long, ResourceAccess>> accessByAclId = new HashMap<Long, Map<Long, ResourceAccess>>();
+		for (DBOAccessControlList dbo : dboList) {
+			AccessControlList acl = AccessControlListUtils.createAcl(dbo, ownerType);
+			acl.setResourceAccess(new HashSet<ResourceAccess>());
+			results.put(dbo.getOwnerId(), acl);
+			accessByAclId.put(dbo.getId(), new HashMap<Long, ResourceAccess>());
+		}
+		MapSqlParameterSource accessParams = new MapSqlParameterSource(IDS_PARAM_NAME, accessByAclId.keySet());
+		namedParameterJdbcTemplate.query(SQL_SELECT_RESOURCE_ACCESS_FOR_ACLS, accessParams, new RowCallbackHandler() {
+			@Override
+			public void processRow(ResultSet rs) throws SQLException {
+				Long principalId = rs.getLong(COL_RESOURCE_ACCESS_GROUP_ID);
+				ResourceAccess ra = accessByAclId.get(rs.getLong(COL_RESOURCE_ACCESS_OWNER)).computeIfAbsent(principalId, (Long id) -> {
+					ResourceAccess access = new ResourceAccess();
+					access.setPrincipalId(id);
+					access.setAccessType(new HashSet<ACCESS_TYPE>());
+					return access;
+				});
+				String typeString = rs.getString(COL_RESOURCE_ACCESS_TYPE_ELEMENT);
+				if (typeString != null) {
+					ra.getAccessType().add(ACCESS_TYPE.valueOf(typeString));
+				}
+			}
+		});
+		for (DBOAccessControlList dbo : dboList) {
+			results.get(dbo.getOwnerId()).getResourceAccess().addAll(accessByAclId.get(dbo.getId()).values());
+		}
+		return results;
+	}
+
 	@Override
 	public AccessControlList get(Long id) throws DatastoreException,
 			NotFoundException {
@@ -7,10 +7,12 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_PROJECT_
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_PROJECT_STAT_USER_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_PROJECT_STAT;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.StringJoiner;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.sagebionetworks.ids.IdGenerator;
 import org.sagebionetworks.ids.IdType;
@@ -21,7 +23,6 @@ import org.sagebionetworks.repo.model.dbo.persistence.DBOProjectStat;
 import org.sagebionetworks.repo.transactions.WriteTransaction;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.google.common.base.Function;
@@ -36,19 +37,27 @@ public class DBOProjectStatsDAOImpl implements ProjectStatsDAO {
 	 * Note: For an update, LAST_ACCESSED is only updated if the current value
 	 * is less than the passed value.
 	 */
-	private static final String SQL_INSERT_BATCH =
+	private static final String SQL_INSERT_PREFIX =
 			"INSERT INTO "+TABLE_PROJECT_STAT+ " ("
 					+ COL_PROJECT_STAT_ID
 					+", "+COL_PROJECT_STAT_PROJECT_ID
 					+", "+COL_PROJECT_STAT_USER_ID
 					+", "+COL_PROJECT_STAT_LAST_ACCESSED
 					+", "+COL_PROJECT_STAT_ETAG
-					+") VALUES(?,?,?,?,?)"
-					+ " ON DUPLICATE KEY UPDATE"
+					+") VALUES ";
+	private static final String SQL_INSERT_ROW = "(?,?,?,?,?)";
+	private static final String SQL_INSERT_ON_DUPLICATE =
+			" ON DUPLICATE KEY UPDATE"
 					+ " "+COL_PROJECT_STAT_LAST_ACCESSED+" = CASE"
 							+ " WHEN "+COL_PROJECT_STAT_LAST_ACCESSED+" <"
-									+ " ? THEN ? ELSE "+COL_PROJECT_STAT_LAST_ACCESSED+" END"
-					+ ", "+COL_PROJECT_STAT_ETAG+" = ?";
+									+ " VALUES("+COL_PROJECT_STAT_LAST_ACCESSED+") THEN VALUES("+COL_PROJECT_STAT_LAST_ACCESSED+")"
+									+ " ELSE "+COL_PROJECT_STAT_LAST_ACCESSED+" END"
+					+ ", "+COL_PROJECT_STAT_ETAG+" = VALUES("+COL_PROJECT_STAT_ETAG+")";
+
+	/*
+	 * The maximum number of stats written by a single statement.
+	 */
+	public static final int MAX_STATS_PER_STATEMENT = 1000;
 
 	@Autowired
 	private JdbcTemplate jdbcTemplate;
@@ -67,32 +76,33 @@ public class DBOProjectStatsDAOImpl implements ProjectStatsDAO {
 			ValidateArgument.required(stat.getUserId(), "stat.userId");
 			ValidateArgument.required(stat.getLastAccessed(), "stat.lastAccessed");
 		}
-		jdbcTemplate.batchUpdate(SQL_INSERT_BATCH, new BatchPreparedStatementSetter() {
-			
-			@Override
-			public void setValues(PreparedStatement ps, int i) throws SQLException {
-				ProjectStat stat = projectStats[i];
-				long statId = idGenerator.generateNewId(IdType.PROJECT_STATS_ID);
-				String etag = UUID.randomUUID().toString();
-				long lastAccessed = stat.getLastAccessed().getTime();
-				int parameterIndex = 1;
-				// insert parameters
-				ps.setLong(parameterIndex, statId);
-				ps.setLong(++parameterIndex, stat.getProjectId());
-				ps.setLong(++parameterIndex, stat.getUserId());
-				ps.setLong(++parameterIndex, lastAccessed);
-				ps.setString(++parameterIndex, etag);
-				// update parameters
-				ps.setLong(++parameterIndex, lastAccessed);
-				ps.setLong(++parameterIndex, lastAccessed);
-				ps.setString(++parameterIndex, etag);
-			}
-			
-			@Override
-			public int getBatchSize() {
-				return projectStats.length;
-			}
-		});
+		// Rows are written in a consistent order to avoid deadlocks between concurrent writers.
+		List<ProjectStat> sorted = Arrays.stream(projectStats)
+				.sorted(Comparator.comparingLong(ProjectStat::getProjectId).thenComparingLong(ProjectStat::getUserId))
+				.collect(Collectors.toList());
+		for (List<ProjectStat> page : Lists.partition(sorted, MAX_STATS_PER_STATEMENT)) {
+			upsertProjectStats(page);
+		}
+	}
+
+	/**
+	 * Write the given stats with a single multi-row upsert.
+	 * 
+	 * @param projectStats
+	 */
+	private void upsertProjectStats(List<ProjectStat> projectStats) {
+		StringJoiner rows = new StringJoiner(",", SQL_INSERT_PREFIX, SQL_INSERT_ON_DUPLICATE);
+		Object[] args = new Object[projectStats.size() * 5];
+		int parameterIndex = 0;
+		for (ProjectStat stat : projectStats) {
+			rows.add(SQL_INSERT_ROW);
+			args[parameterIndex++] = idGenerator.generateNewId(IdType.PROJECT_STATS_ID);
+			args[parameterIndex++] = stat.getProjectId();
+			args[parameterIndex++] = stat.getUserId();
+			args[parameterIndex++] = stat.getLastAccessed().getTime();
+			args[parameterIndex++] = UUID.randomUUID().toString();
+		}
+		jdbcTemplate.update(rows.toString(), args);
 	}
 
 	@Override
@@ -52,6 +52,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -76,6 +77,7 @@ import org.sagebionetworks.repo.model.EntityType;
 import org.sagebionetworks.repo.model.EntityTypeUtils;
 import org.sagebionetworks.repo.model.IdAndAlias;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.InvalidModelException;
 import org.sagebionetworks.repo.model.LimitExceededException;
 import org.sagebionetworks.repo.model.NameConflictException;
@@ -161,6 +163,17 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	public static final String SQL_SELECT_ID_AND_CHECKSUM_OBJECTT_ID = DDLUtilsImpl
 			.loadSQLFromClasspath("sql/GetIdAndChecksumObjectIds.sql");
 	
+	public static final String SQL_SELECT_ID_RANGE_CHECKSUM_PARENT_ID = DDLUtilsImpl
+			.loadSQLFromClasspath("sql/GetIdRangeChecksumParentId.sql");
+	
+	public static final String SQL_SELECT_ID_RANGE_CHECKSUM_OBJECT_ID = DDLUtilsImpl
+			.loadSQLFromClasspath("sql/GetIdRangeChecksumObjectIds.sql");
+	
+	public static final RowMapper<IdRangeChecksum> ID_RANGE_CHECKSUM_MAPPER = (ResultSet rs, int rowNum) -> {
+		return new IdRangeChecksum().withBucket(rs.getLong("BUCKET")).withCount(rs.getLong("ROW_COUNT"))
+				.withChecksum(rs.getLong("CHECK_SUM"));
+	};
+	
 	private static final String SQL_CREATE_SNAPSHOT_VERSION = "UPDATE " + TABLE_REVISION + " SET "
 			+ COL_REVISION_COMMENT + " = ?, " + COL_REVISION_LABEL + " = ?, " + COL_REVISION_ACTIVITY_ID + " = ?, "
 			+ COL_REVISION_MODIFIED_BY + " = ?, " + COL_REVISION_MODIFIED_ON + " = ? WHERE " + COL_REVISION_OWNER_NODE
@@ -177,6 +190,15 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	private static final String SQL_UPDATE_ANNOTATIONS_FORMAT = "UPDATE " + TABLE_REVISION + " SET %s"
 			+ " = ? WHERE " + COL_REVISION_OWNER_NODE + " = ? AND " + COL_REVISION_NUMBER + " = ?";
 
+	private static final String SQL_SELECT_COMPRESSED_ENTITY_PROPERTY_ANNOTATIONS = "SELECT " + COL_REVISION_OWNER_NODE + ", "
+			+ COL_REVISION_NUMBER + ", " + COL_REVISION_ENTITY_PROPERTY_ANNOTATIONS_BLOB + " FROM " + TABLE_REVISION
+			+ " WHERE " + COL_REVISION_OWNER_NODE + " >= ? AND " + COL_REVISION_OWNER_NODE + " < ? AND "
+			+ COL_REVISION_ENTITY_PROPERTY_ANNOTATIONS_BLOB + " IS NOT NULL AND LEFT("
+			+ COL_REVISION_ENTITY_PROPERTY_ANNOTATIONS_BLOB + ", 2) = X'1F8B'";
+	private static final String SQL_REWRITE_ENTITY_PROPERTY_ANNOTATIONS = "UPDATE " + TABLE_REVISION + " SET "
+			+ COL_REVISION_ENTITY_PROPERTY_ANNOTATIONS_BLOB + " = ? WHERE " + COL_REVISION_OWNER_NODE + " = ? AND "
+			+ COL_REVISION_NUMBER + " = ? AND " + COL_REVISION_ENTITY_PROPERTY_ANNOTATIONS_BLOB + " = ?";
+
 	private static final String SQL_UPDATE_USER_ANNOTATIONS = "UPDATE " + TABLE_REVISION + " SET " + COL_REVISION_USER_ANNOS_JSON
 			+ " = ? WHERE " + COL_REVISION_OWNER_NODE + " = ? AND " + COL_REVISION_NUMBER + " = ?";
 
@@ -206,6 +228,16 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			+" FROM "+TABLE_NODE
 			+" WHERE "+COL_NODE_PARENT_ID+" = ?"
 					+ " LIMIT ? OFFSET ?";
+
+	private static final String SQL_SELECT_CHILDREN_AFTER = 
+			"SELECT"
+			+ " "+COL_NODE_ID
+			+", "+COL_NODE_TYPE
+			+" FROM "+TABLE_NODE
+			+" WHERE "+COL_NODE_PARENT_ID+" = ?"
+			+" AND "+COL_NODE_ID+" > ?"
+			+" ORDER BY "+COL_NODE_ID
+			+" LIMIT ?";
 	
 	private static final String SQL_COUNT_CHILDREN = 
 			"SELECT COUNT("+COL_NODE_ID+")"
@@ -313,11 +345,20 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			+ " N, " + TABLE_REVISION + " R WHERE N." + COL_NODE_ID + "= R." + COL_REVISION_OWNER_NODE + " AND N."
 			+ COL_NODE_CURRENT_REV + " = R." + COL_REVISION_NUMBER + " AND N." + COL_NODE_ID + "= ?";
 	
+	private static final String SQL_SELECT_CURRENT_NODES = SQL_SELECT_WITHOUT_ANNOTATIONS + " FROM " + TABLE_NODE
+			+ " N, " + TABLE_REVISION + " R WHERE N." + COL_NODE_ID + "= R." + COL_REVISION_OWNER_NODE + " AND N."
+			+ COL_NODE_CURRENT_REV + " = R." + COL_REVISION_NUMBER + " AND N." + COL_NODE_ID + " IN (:" + BIND_NODE_IDS
+			+ ")";
+	
 	private static final String SQL_SELECT_NODE_VERSION = SQL_SELECT_WITHOUT_ANNOTATIONS + " FROM " + TABLE_NODE
 			+ " N, " + TABLE_REVISION + " R WHERE N." + COL_NODE_ID + "= R." + COL_REVISION_OWNER_NODE + " AND R."
 			+ COL_REVISION_NUMBER + " = ? AND N." + COL_NODE_ID + "= ?";
 
 	private static final String SELECT_FUNCTION_PROJECT_ID = "SELECT "+FUNCTION_GET_ENTITY_PROJECT_ID+"(?)";
+	private static final String PROJECT_ALIAS = "PROJECT";
+	private static final String SQL_SELECT_PROJECTS = "SELECT N." + COL_NODE_ID + ", " + FUNCTION_GET_ENTITY_PROJECT_ID
+			+ "(N." + COL_NODE_ID + ") AS " + PROJECT_ALIAS + " FROM " + TABLE_NODE + " N WHERE N." + COL_NODE_ID
+			+ " IN (:" + BIND_NODE_IDS + ")";
 	private static final String SQL_SELECT_NODE_ID_BY_ALIAS = "SELECT "+COL_NODE_ID+" FROM "+TABLE_NODE+" WHERE "+COL_NODE_ALIAS+" = ?";
 	
 	private static final String SQL_SELECT_ALIAS_BY_NODE_ID = "SELECT "+COL_NODE_ID+", "+COL_NODE_ALIAS+
@@ -337,6 +378,10 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 
 	private static final String SELECT_ANNOTATIONS_ONLY_FROM_AND_WHERE_CLAUSE_PREFIX = " FROM  "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+" = :"+COL_NODE_ID +" AND R."+COL_REVISION_OWNER_NODE+" = N."+COL_NODE_ID+" AND R."+COL_REVISION_NUMBER + "=";
 	private static final String SELECT_USER_ANNOTATIONS_ONLY_PREFIX = "SELECT N."+COL_NODE_ID+", N."+COL_NODE_ETAG+", R."+COL_REVISION_USER_ANNOS_JSON+" FROM  "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+" = ? AND R."+COL_REVISION_OWNER_NODE+" = N."+COL_NODE_ID+" AND R."+COL_REVISION_NUMBER + " = ";
+	private static final String SQL_SELECT_CURRENT_USER_ANNOTATIONS = "SELECT N." + COL_NODE_ID + ", N." + COL_NODE_ETAG
+			+ ", R." + COL_REVISION_USER_ANNOS_JSON + " FROM " + TABLE_NODE + " N, " + TABLE_REVISION + " R WHERE N."
+			+ COL_NODE_ID + " IN (:" + BIND_NODE_IDS + ") AND R." + COL_REVISION_OWNER_NODE + " = N." + COL_NODE_ID
+			+ " AND R." + COL_REVISION_NUMBER + " = N." + COL_NODE_CURRENT_REV;
 	private static final String CANNOT_FIND_A_NODE_WITH_ID = "Cannot find a node with id: ";
 	private static final String CANNOT_FIND_A_NODE_WITH_ID_AND_VERSION = "Cannot find a node with id %s and version %d";
 	private static final String ERROR_RESOURCE_NOT_FOUND = "The resource you are attempting to access cannot be found";
@@ -641,6 +686,16 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		}
 	}
 	
+	@Override
+	public List<Node> getNodes(List<Long> ids) {
+		ValidateArgument.required(ids, "ids");
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource(BIND_NODE_IDS, ids);
+		return namedParameterJdbcTemplate.query(SQL_SELECT_CURRENT_NODES, params, NODE_MAPPER);
+	}
+	
 	@Override
 	public Node getNodeForVersion(String id, Long versionNumber){
 		if(id == null) throw new IllegalArgumentException("Id cannot be null");
@@ -1010,12 +1065,51 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		}
 	}
 
+	@Override
+	public List<Annotations> getUserAnnotationsForCurrentVersions(List<Long> ids) {
+		ValidateArgument.required(ids, "ids");
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource(BIND_NODE_IDS, ids);
+		List<Annotations> results = namedParameterJdbcTemplate.query(SQL_SELECT_CURRENT_USER_ANNOTATIONS, params,
+				ANNOTATIONS_V2_ROW_MAPPER);
+		// Remove the eTags (See PLFM-1420)
+		results.forEach(annotations -> annotations.setEtag(NodeConstants.ZERO_E_TAG));
+		return results;
+	}
+
 	@WriteTransaction
 	@Override
 	public void updateEntityPropertyAnnotations(String nodeId, org.sagebionetworks.repo.model.Annotations updatedAnnos) throws NotFoundException, DatastoreException {
 		updateAnnotations(nodeId, updatedAnnos, COL_REVISION_ENTITY_PROPERTY_ANNOTATIONS_BLOB);
 	}
 
+	@WriteTransaction
+	@Override
+	public long rewriteCompressedEntityPropertyAnnotations(long minNodeId, long maxNodeId) {
+		List<Object[]> batchArgs = new ArrayList<>();
+		jdbcTemplate.query(SQL_SELECT_COMPRESSED_ENTITY_PROPERTY_ANNOTATIONS, (RowCallbackHandler) (ResultSet rs) -> {
+			byte[] bytes = rs.getBytes(COL_REVISION_ENTITY_PROPERTY_ANNOTATIONS_BLOB);
+			Optional<byte[]> encoded;
+			try {
+				encoded = AnnotationUtils.reencodeAnnotationsV1(bytes);
+			} catch (IOException e) {
+				throw new DatastoreException(e);
+			}
+			if (encoded.isPresent()) {
+				batchArgs.add(new Object[] { encoded.get(), rs.getLong(COL_REVISION_OWNER_NODE),
+						rs.getLong(COL_REVISION_NUMBER), bytes });
+			}
+		}, minNodeId, maxNodeId);
+		if (batchArgs.isEmpty()) {
+			return 0L;
+		}
+		// A revision that was updated since it was read no longer matches and is skipped.
+		int[] updates = jdbcTemplate.batchUpdate(SQL_REWRITE_ENTITY_PROPERTY_ANNOTATIONS, batchArgs);
+		return Arrays.stream(updates).filter(count -> count > 0).count();
+	}
+
 	void updateAnnotations(String nodeId, org.sagebionetworks.repo.model.Annotations updatedAnnos, String annotationColumnName) throws NotFoundException, DatastoreException {
 
 		ValidateArgument.required(nodeId, "nodeId");
@@ -1708,6 +1802,41 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		}
 		return KeyFactory.keyToString(projectId);
 	}
+
+	@Override
+	public Map<Long, Long> getProjectIds(Set<Long> nodeIds) {
+		ValidateArgument.required(nodeIds, "nodeIds");
+		Map<Long, Long> results = new HashMap<>(nodeIds.size());
+		if (nodeIds.isEmpty()) {
+			return results;
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource(BIND_NODE_IDS, nodeIds);
+		namedParameterJdbcTemplate.query(SQL_SELECT_PROJECTS, params, (RowCallbackHandler) (ResultSet rs) -> {
+			long projectId = rs.getLong(PROJECT_ALIAS);
+			// The project is null for nodes in the trash and negative for a loop in the hierarchy.
+			if (!rs.wasNull() && projectId >= 0) {
+				results.put(rs.getLong(COL_NODE_ID), projectId);
+			}
+		});
+		return results;
+	}
+	
+	@Override
+	public Map<Long, Long> getBenefactors(List<Long> beneficiaryIds) {
+		ValidateArgument.required(beneficiaryIds, "beneficiaryIds");
+		Map<Long, Long> results = new HashMap<>(beneficiaryIds.size());
+		if (beneficiaryIds.isEmpty()) {
+			return results;
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource(BIND_NODE_IDS, beneficiaryIds);
+		namedParameterJdbcTemplate.query(SQL_SELECT_BENEFACTORS, params, (RowCallbackHandler) (ResultSet rs) -> {
+			long benefactorId = rs.getLong(BENEFACTOR_ALIAS);
+			if (!rs.wasNull()) {
+				results.put(rs.getLong(COL_NODE_ID), benefactorId);
+			}
+		});
+		return results;
+	}
 	
 	@Override
 	public String getBenefactor(String nodeId) {
@@ -1941,6 +2070,16 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			}}, parentIdLong, limit, offset);
 	}
 
+	@Override
+	public List<NodeIdAndType> getChildrenAfter(Long parentId, long afterChildId, long limit) {
+		ValidateArgument.required(parentId, "parentId");
+		return jdbcTemplate.query(SQL_SELECT_CHILDREN_AFTER, (ResultSet rs, int rowNum) -> {
+			String nodeId = KeyFactory.keyToString(rs.getLong(COL_NODE_ID));
+			EntityType type = EntityType.valueOf(rs.getString(COL_NODE_TYPE));
+			return new NodeIdAndType(nodeId, type);
+		}, parentId, afterChildId, limit);
+	}
+
 	@Override
 	public String lookupChild(String parentId, String entityName) {
 		ValidateArgument.required(parentId, "parentId");
@@ -2167,4 +2306,49 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		});
 	}
 
+	@Override
+	public List<IdRangeChecksum> getIdRangeChecksumsForChildren(Long salt, Set<Long> parentIds,
+			Set<SubType> subTypes, Long minId, Long maxId, Long bucketSize) {
+		ValidateArgument.required(salt, "salt");
+		ValidateArgument.required(parentIds, "parentIds");
+		ValidateArgument.required(subTypes, "subTypes");
+		if(subTypes.isEmpty()) {
+			throw new IllegalArgumentException("Must provide at least one sub-type");
+		}
+		if(parentIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		MapSqlParameterSource params = createIdRangeParameters(salt, minId, maxId, bucketSize);
+		params.addValue("parentIds", parentIds);
+		params.addValue("subTypes", subTypes.stream().map(t->t.name()).collect(Collectors.toList()));
+		return namedParameterJdbcTemplate.query(SQL_SELECT_ID_RANGE_CHECKSUM_PARENT_ID, params, ID_RANGE_CHECKSUM_MAPPER);
+	}
+
+	@Override
+	public List<IdRangeChecksum> getIdRangeChecksumsForObjects(Long salt, Set<Long> objectIds, Long minId,
+			Long maxId, Long bucketSize) {
+		ValidateArgument.required(salt, "salt");
+		ValidateArgument.required(objectIds, "objectIds");
+		if(objectIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		MapSqlParameterSource params = createIdRangeParameters(salt, minId, maxId, bucketSize);
+		params.addValue("objectIds", objectIds);
+		return namedParameterJdbcTemplate.query(SQL_SELECT_ID_RANGE_CHECKSUM_OBJECT_ID, params, ID_RANGE_CHECKSUM_MAPPER);
+	}
+	
+	private static MapSqlParameterSource createIdRangeParameters(Long salt, Long minId, Long maxId, Long bucketSize) {
+		ValidateArgument.required(minId, "minId");
+		ValidateArgument.required(maxId, "maxId");
+		ValidateArgument.required(bucketSize, "bucketSize");
+		ValidateArgument.requirement(bucketSize > 0, "bucketSize must be greater than zero");
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue("salt", salt);
+		params.addValue("trashId", TRASH_FOLDER_ID);
+		params.addValue("minId", minId);
+		params.addValue("maxId", maxId);
+		params.addValue("bucketSize", bucketSize);
+		return params;
+	}
+
 }
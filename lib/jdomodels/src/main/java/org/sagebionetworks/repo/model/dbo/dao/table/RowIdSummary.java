@@ -0,0 +1,139 @@
+package org.sagebionetworks.repo.model.dbo.dao.table;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.sagebionetworks.util.ValidateArgument;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * A compact summary of the row IDs of a single table change set, stored with
+ * the change so the row level conflict check can rule out a change without
+ * downloading it from S3.
+ * <p>
+ * The summary is the minimum and maximum row ID plus an optional bloom filter
+ * of all of the row IDs. A summary never gives a false negative: when
+ * {@link #mightContainAny(Set)} returns false none of the given rows are in
+ * the change set. The filter is omitted for change sets with more than
+ * {@link #MAX_ROWS_IN_FILTER} rows, in which case only the range is checked.
+ *
+ */
+public class RowIdSummary {
+
+	/**
+	 * The expected false positive probability of the bloom filter.
+	 */
+	public static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+	/**
+	 * At one percent a filter uses about ten bits per row, so this limits each
+	 * filter to about 120 KB.
+	 */
+	public static final int MAX_ROWS_IN_FILTER = 100_000;
+
+	private final long minRowId;
+	private final long maxRowId;
+	private final BloomFilter<Long> filter;
+
+	RowIdSummary(long minRowId, long maxRowId, BloomFilter<Long> filter) {
+		this.minRowId = minRowId;
+		this.maxRowId = maxRowId;
+		this.filter = filter;
+	}
+
+	/**
+	 * Create a summary for the given row IDs. Null row IDs are ignored.
+	 *
+	 * @param rowIds
+	 * @return {@link Optional#empty()} if there are no row IDs.
+	 */
+	public static Optional<RowIdSummary> create(Collection<Long> rowIds) {
+		ValidateArgument.required(rowIds, "rowIds");
+		List<Long> nonNull = rowIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+		if (nonNull.isEmpty()) {
+			return Optional.empty();
+		}
+		long min = nonNull.stream().mapToLong(Long::longValue).min().getAsLong();
+		long max = nonNull.stream().mapToLong(Long::longValue).max().getAsLong();
+		BloomFilter<Long> filter = null;
+		if (nonNull.size() <= MAX_ROWS_IN_FILTER) {
+			filter = BloomFilter.create(Funnels.longFunnel(), nonNull.size(), FALSE_POSITIVE_PROBABILITY);
+			nonNull.forEach(filter::put);
+		}
+		return Optional.of(new RowIdSummary(min, max, filter));
+	}
+
+	/**
+	 * Restore a summary from its stored form.
+	 *
+	 * @param minRowId
+	 * @param maxRowId
+	 * @param filterBytes The serialized filter, or null if the change set did
+	 *                    not have a filter.
+	 * @return
+	 */
+	public static RowIdSummary fromStored(long minRowId, long maxRowId, byte[] filterBytes) {
+		BloomFilter<Long> filter = null;
+		if (filterBytes != null) {
+			try {
+				filter = BloomFilter.readFrom(new ByteArrayInputStream(filterBytes), Funnels.longFunnel());
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return new RowIdSummary(minRowId, maxRowId, filter);
+	}
+
+	/**
+	 * Might the change set contain any of the given row IDs?
+	 *
+	 * @param rowIds
+	 * @return False only if none of the given rows are in the change set.
+	 */
+	public boolean mightContainAny(Set<Long> rowIds) {
+		ValidateArgument.required(rowIds, "rowIds");
+		for (Long rowId : rowIds) {
+			if (rowId == null || rowId < minRowId || rowId > maxRowId) {
+				continue;
+			}
+			if (filter == null || filter.mightContain(rowId)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public long getMinRowId() {
+		return minRowId;
+	}
+
+	public long getMaxRowId() {
+		return maxRowId;
+	}
+
+	/**
+	 * @return The serialized bloom filter, or null if this summary does not have a
+	 *         filter.
+	 */
+	public byte[] getFilterBytes() {
+		if (filter == null) {
+			return null;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			filter.writeTo(out);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return out.toByteArray();
+	}
+
+}
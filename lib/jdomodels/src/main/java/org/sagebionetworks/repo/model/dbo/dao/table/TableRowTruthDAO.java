@@ -3,6 +3,7 @@ package org.sagebionetworks.repo.model.dbo.dao.table;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.sagebionetworks.repo.model.table.ColumnChange;
 import org.sagebionetworks.repo.model.table.ColumnModel;
@@ -147,6 +148,20 @@ public interface TableRowTruthDAO {
 	 * @return
 	 */
 	List<TableRowChange> listRowSetsKeysForTableGreaterThanVersion(String tableId, long version);
+	
+	/**
+	 * List the row changes for a table with a version number greater than the
+	 * given value (exclusive) that might include any of the given row IDs. Each
+	 * change is checked against its row ID summary so only changes that might
+	 * include one of the rows are returned. Changes without a summary are always
+	 * returned.
+	 * 
+	 * @param tableId
+	 * @param version
+	 * @param rowIds
+	 * @return
+	 */
+	List<TableRowChange> listRowChangesThatMightContainRowIds(String tableId, long version, Set<Long> rowIds);
 
 	/**
 	 * Get the TableRowChange for a given tableId and row version number.
@@ -4,6 +4,8 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ID_SEQUE
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ID_SEQUENCE_TABLE_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_HAS_FILE_REFS;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_ID_MAX;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_ID_MIN;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_KEY_NEW;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_TABLE_ETAG;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_TABLE_ID;
@@ -21,9 +23,12 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.aws.SynapseS3Client;
@@ -39,6 +44,7 @@ import org.sagebionetworks.repo.model.table.ColumnChange;
 import org.sagebionetworks.repo.model.table.ColumnModel;
 import org.sagebionetworks.repo.model.table.IdRange;
 import org.sagebionetworks.repo.model.table.SparseChangeSetDto;
+import org.sagebionetworks.repo.model.table.SparseRowDto;
 import org.sagebionetworks.repo.model.table.TableChangeType;
 import org.sagebionetworks.repo.model.table.TableRowChange;
 import org.sagebionetworks.repo.transactions.WriteTransaction;
@@ -114,6 +120,12 @@ public class TableRowTruthDAOImpl implements TableRowTruthDAO {
 	private static final String SQL_SELECT_ALL_ROW_CHANGES_FOR_TABLE_GREATER_VERSION = "SELECT * "
 			+ SQL_ALL_ROW_CHANGES_FOR_TABLE_GREATER_VERSION_BASE;
 
+	private static final String SQL_SELECT_ROW_CHANGES_FOR_TABLE_GREATER_VERSION_IN_ROW_ID_RANGE = "SELECT * FROM "
+			+ TABLE_ROW_CHANGE + " WHERE " + COL_TABLE_ROW_TABLE_ID + " = ? AND " + COL_TABLE_ROW_VERSION + " > ? AND "
+			+ COL_TABLE_ROW_TYPE + " = '" + TableChangeType.ROW + "' AND (" + COL_TABLE_ROW_ID_MIN + " IS NULL OR ("
+			+ COL_TABLE_ROW_ID_MIN + " <= ? AND " + COL_TABLE_ROW_ID_MAX + " >= ?)) ORDER BY " + COL_TABLE_ROW_VERSION
+			+ " ASC";
+
 	private static final String SQL_DELETE_ROW_DATA_FOR_TABLE = "DELETE FROM " + TABLE_TABLE_ID_SEQUENCE + " WHERE "
 			+ COL_ID_SEQUENCE_TABLE_ID + " = ?";
 	private static final String KEY_TEMPLATE = "%1$s.csv.gz";
@@ -225,6 +237,13 @@ public class TableRowTruthDAOImpl implements TableRowTruthDAO {
 		changeDBO.setChangeType(TableChangeType.ROW.name());
 		changeDBO.setTransactionId(transactionId);
 		changeDBO.setHasFileRefs(hasFileRefs);
+		// A summary of the row IDs allows conflict checks to skip this change without reading it from S3.
+		RowIdSummary.create(delta.getRows().stream().map(SparseRowDto::getRowId).collect(Collectors.toList()))
+				.ifPresent(summary -> {
+					changeDBO.setRowIdMin(summary.getMinRowId());
+					changeDBO.setRowIdMax(summary.getMaxRowId());
+					changeDBO.setRowIdFilter(summary.getFilterBytes());
+				});
 		basicDao.createNew(changeDBO);
 		return key;
 	}
@@ -405,6 +424,41 @@ public class TableRowTruthDAOImpl implements TableRowTruthDAO {
 		return TableRowChangeUtils.ceateDTOFromDBO(dboList);
 	}
 
+	@Override
+	public List<TableRowChange> listRowChangesThatMightContainRowIds(String tableIdString, long versionNumber,
+			Set<Long> rowIds) {
+		ValidateArgument.required(tableIdString, "tableId");
+		ValidateArgument.required(rowIds, "rowIds");
+		if (rowIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		long tableId = KeyFactory.stringToKey(tableIdString);
+		long minRowId = Collections.min(rowIds);
+		long maxRowId = Collections.max(rowIds);
+		List<DBOTableRowChange> dboList = jdbcTemplate.query(
+				SQL_SELECT_ROW_CHANGES_FOR_TABLE_GREATER_VERSION_IN_ROW_ID_RANGE, rowChangeMapper, tableId, versionNumber,
+				maxRowId, minRowId);
+		List<DBOTableRowChange> mightContain = dboList.stream().filter(dbo -> mightContainAny(dbo, rowIds))
+				.collect(Collectors.toList());
+		return TableRowChangeUtils.ceateDTOFromDBO(mightContain);
+	}
+
+	/**
+	 * Might the given change include any of the given row IDs? Changes without a
+	 * row ID summary might include any row.
+	 * 
+	 * @param dbo
+	 * @param rowIds
+	 * @return
+	 */
+	static boolean mightContainAny(DBOTableRowChange dbo, Set<Long> rowIds) {
+		if (dbo.getRowIdMin() == null || dbo.getRowIdMax() == null) {
+			return true;
+		}
+		return RowIdSummary.fromStored(dbo.getRowIdMin(), dbo.getRowIdMax(), dbo.getRowIdFilter())
+				.mightContainAny(rowIds);
+	}
+
 	@Override
 	public TableRowChange getTableRowChange(String tableIdString, long rowVersion) throws NotFoundException {
 		if (tableIdString == null)
@@ -1,7 +1,9 @@
 package org.sagebionetworks.repo.model.dbo.dao.table;
 
+import java.util.Map;
 import java.util.Set;
 
+import org.sagebionetworks.repo.model.table.ViewObjectType;
 import org.sagebionetworks.repo.model.table.ViewScopeType;
 
 /**
@@ -36,6 +38,18 @@ public interface ViewScopeDao {
 	 */
 	ViewScopeType getViewScopeType(Long viewId);
 	
+	/**
+	 * Get the views of the given object type that include any of the given
+	 * containers in their scope.
+	 * 
+	 * @param objectType
+	 * @param containerIds
+	 * @return Map of container id to the ids of the views with the container in
+	 *         their scope. Containers that are not in the scope of any view are
+	 *         not included.
+	 */
+	Map<Long, Set<Long>> getViewIdsForContainers(ViewObjectType objectType, Set<Long> containerIds);
+	
 	/**
 	 * Clear all data in the table.
 	 */
@@ -10,9 +10,11 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_VIEW_S
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_VIEW_TYPE;
 
 import java.sql.ResultSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.sagebionetworks.repo.model.table.ViewObjectType;
@@ -23,6 +25,9 @@ import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 
 public class ViewScopeDaoImpl implements ViewScopeDao {
@@ -39,6 +44,10 @@ public class ViewScopeDaoImpl implements ViewScopeDao {
 
 	private static final String SQL_DELETE_ALL_FOR_VIEW_ID = "DELETE FROM "+TABLE_VIEW_SCOPE+" WHERE "+COL_VIEW_SCOPE_VIEW_ID+" = ?";
 	
+	private static final String SQL_SELECT_VIEWS_FOR_CONTAINERS = "SELECT S."+COL_VIEW_SCOPE_CONTAINER_ID+", S."+COL_VIEW_SCOPE_VIEW_ID
+			+" FROM "+TABLE_VIEW_SCOPE+" S JOIN "+TABLE_VIEW_TYPE+" T ON (S."+COL_VIEW_SCOPE_VIEW_ID+" = T."+COL_VIEW_TYPE_VIEW_ID+")"
+			+" WHERE T."+COL_VIEW_TYPE_VIEW_OBJECT_TYPE+" = :objectType AND S."+COL_VIEW_SCOPE_CONTAINER_ID+" IN (:containerIds)";
+	
 	@Autowired
 	private JdbcTemplate jdbcTemplate;
 
@@ -91,6 +100,25 @@ public class ViewScopeDaoImpl implements ViewScopeDao {
 		}
 	}
 
+	@Override
+	public Map<Long, Set<Long>> getViewIdsForContainers(ViewObjectType objectType, Set<Long> containerIds) {
+		ValidateArgument.required(objectType, "objectType");
+		ValidateArgument.required(containerIds, "containerIds");
+		Map<Long, Set<Long>> viewIds = new HashMap<>();
+		if (containerIds.isEmpty()) {
+			return viewIds;
+		}
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("objectType", objectType.name());
+		parameters.addValue("containerIds", containerIds);
+		NamedParameterJdbcTemplate namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+		namedTemplate.query(SQL_SELECT_VIEWS_FOR_CONTAINERS, parameters, (RowCallbackHandler) (ResultSet rs) -> {
+			Long containerId = rs.getLong(COL_VIEW_SCOPE_CONTAINER_ID);
+			viewIds.computeIfAbsent(containerId, (Long key) -> new HashSet<>()).add(rs.getLong(COL_VIEW_SCOPE_VIEW_ID));
+		});
+		return viewIds;
+	}
+
 	@WriteTransaction
 	public void truncateAll(){
 		jdbcTemplate.update(SQL_TRUNCATE_TABLE);
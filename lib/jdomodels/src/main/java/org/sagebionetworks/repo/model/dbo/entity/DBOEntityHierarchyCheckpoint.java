@@ -0,0 +1,148 @@
+package org.sagebionetworks.repo.model.dbo.entity;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ENTITY_HIERARCHY_CHECKPOINT_CHANGE_NUM;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ENTITY_HIERARCHY_CHECKPOINT_CONTAINER_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ENTITY_HIERARCHY_CHECKPOINT_LAST_CHILD_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ENTITY_HIERARCHY_CHECKPOINT_ROOT_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ENTITY_HIERARCHY_CHECKPOINT_UPDATED_ON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_ENTITY_HIERARCHY_CHECKPOINT;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_ENTITY_HIERARCHY_CHECKPOINT;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Objects;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * A container that is still being walked while a change is broadcast to the
+ * hierarchy under a root container. The children of the container up to and
+ * including the last child ID have already been broadcast. The checkpoints of
+ * each change are kept apart so walks of the same root for different changes
+ * do not interfere. This table only tracks work in progress so it is not
+ * migrated.
+ *
+ */
+public class DBOEntityHierarchyCheckpoint implements DatabaseObject<DBOEntityHierarchyCheckpoint> {
+
+	private Long rootId;
+	private Long changeNumber;
+	private Long containerId;
+	private Long lastChildId;
+	private Timestamp updatedOn;
+
+	private static FieldColumn[] FIELDS = new FieldColumn[] {
+			new FieldColumn("rootId", COL_ENTITY_HIERARCHY_CHECKPOINT_ROOT_ID, true),
+			new FieldColumn("changeNumber", COL_ENTITY_HIERARCHY_CHECKPOINT_CHANGE_NUM, true),
+			new FieldColumn("containerId", COL_ENTITY_HIERARCHY_CHECKPOINT_CONTAINER_ID, true),
+			new FieldColumn("lastChildId", COL_ENTITY_HIERARCHY_CHECKPOINT_LAST_CHILD_ID),
+			new FieldColumn("updatedOn", COL_ENTITY_HIERARCHY_CHECKPOINT_UPDATED_ON) };
+
+	public static final TableMapping<DBOEntityHierarchyCheckpoint> MAPPING = new TableMapping<DBOEntityHierarchyCheckpoint>() {
+
+		@Override
+		public DBOEntityHierarchyCheckpoint mapRow(ResultSet rs, int rowNum) throws SQLException {
+			DBOEntityHierarchyCheckpoint dbo = new DBOEntityHierarchyCheckpoint();
+			dbo.setRootId(rs.getLong(COL_ENTITY_HIERARCHY_CHECKPOINT_ROOT_ID));
+			dbo.setContainerId(rs.getLong(COL_ENTITY_HIERARCHY_CHECKPOINT_CONTAINER_ID));
+			dbo.setChangeNumber(rs.getLong(COL_ENTITY_HIERARCHY_CHECKPOINT_CHANGE_NUM));
+			dbo.setLastChildId(rs.getLong(COL_ENTITY_HIERARCHY_CHECKPOINT_LAST_CHILD_ID));
+			dbo.setUpdatedOn(rs.getTimestamp(COL_ENTITY_HIERARCHY_CHECKPOINT_UPDATED_ON));
+			return dbo;
+		}
+
+		@Override
+		public String getTableName() {
+			return TABLE_ENTITY_HIERARCHY_CHECKPOINT;
+		}
+
+		@Override
+		public String getDDLFileName() {
+			return DDL_ENTITY_HIERARCHY_CHECKPOINT;
+		}
+
+		@Override
+		public FieldColumn[] getFieldColumns() {
+			return FIELDS;
+		}
+
+		@Override
+		public Class<? extends DBOEntityHierarchyCheckpoint> getDBOClass() {
+			return DBOEntityHierarchyCheckpoint.class;
+		}
+	};
+
+	@Override
+	public TableMapping<DBOEntityHierarchyCheckpoint> getTableMapping() {
+		return MAPPING;
+	}
+
+	public Long getRootId() {
+		return rootId;
+	}
+
+	public void setRootId(Long rootId) {
+		this.rootId = rootId;
+	}
+
+	public Long getContainerId() {
+		return containerId;
+	}
+
+	public void setContainerId(Long containerId) {
+		this.containerId = containerId;
+	}
+
+	public Long getChangeNumber() {
+		return changeNumber;
+	}
+
+	public void setChangeNumber(Long changeNumber) {
+		this.changeNumber = changeNumber;
+	}
+
+	public Long getLastChildId() {
+		return lastChildId;
+	}
+
+	public void setLastChildId(Long lastChildId) {
+		this.lastChildId = lastChildId;
+	}
+
+	public Timestamp getUpdatedOn() {
+		return updatedOn;
+	}
+
+	public void setUpdatedOn(Timestamp updatedOn) {
+		this.updatedOn = updatedOn;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(changeNumber, containerId, lastChildId, rootId, updatedOn);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DBOEntityHierarchyCheckpoint)) {
+			return false;
+		}
+		DBOEntityHierarchyCheckpoint other = (DBOEntityHierarchyCheckpoint) obj;
+		return Objects.equals(changeNumber, other.changeNumber) && Objects.equals(containerId, other.containerId)
+				&& Objects.equals(lastChildId, other.lastChildId) && Objects.equals(rootId, other.rootId)
+				&& Objects.equals(updatedOn, other.updatedOn);
+	}
+
+	@Override
+	public String toString() {
+		return "DBOEntityHierarchyCheckpoint [rootId=" + rootId + ", containerId=" + containerId + ", changeNumber="
+				+ changeNumber + ", lastChildId=" + lastChildId + ", updatedOn=" + updatedOn + "]";
+	}
+
+}
@@ -0,0 +1,83 @@
+package org.sagebionetworks.repo.model.dbo.entity;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the progress of broadcasting a change to the hierarchy under a root
+ * container, so that a walk that was interrupted can resume where it stopped.
+ * Each checkpoint is a container that still has children to walk, along with
+ * the ID of the last child that was walked. The checkpoints are scoped to the
+ * change that triggered the walk, so two walks of the same root for different
+ * changes do not touch each other's progress.
+ *
+ */
+public interface EntityHierarchyCheckpointDao {
+
+	/**
+	 * The ID of a child that precedes all children, used as the checkpoint of a
+	 * container that has not been walked yet.
+	 */
+	public static final long NO_CHILD_ID = -1L;
+
+	/**
+	 * Get the checkpoints of the walk of the given root for the given change.
+	 *
+	 * @param rootId
+	 * @param changeNumber
+	 * @return Map of container ID to the ID of the last child walked in that
+	 *         container, ordered by container ID. Empty if there is no walk in
+	 *         progress for the given change.
+	 */
+	Map<Long, Long> getCheckpoints(Long rootId, Long changeNumber);
+
+	/**
+	 * Start a new walk of the given root for the given change. Any checkpoints
+	 * of a previous walk of the root for the same change are dropped. The walks
+	 * of the root for other changes are not changed.
+	 *
+	 * @param rootId
+	 * @param changeNumber
+	 */
+	void startWalk(Long rootId, Long changeNumber);
+
+	/**
+	 * Record that the children of a container up to the given child have been
+	 * walked, and add a checkpoint for each of the given child containers so they
+	 * are walked in turn.
+	 *
+	 * @param rootId
+	 * @param changeNumber
+	 * @param containerId
+	 * @param lastChildId
+	 * @param childContainerIds
+	 */
+	void saveProgress(Long rootId, Long changeNumber, Long containerId, Long lastChildId,
+			List<Long> childContainerIds);
+
+	/**
+	 * Remove the checkpoint of a container whose children have all been walked.
+	 *
+	 * @param rootId
+	 * @param changeNumber
+	 * @param containerId
+	 */
+	void finishContainer(Long rootId, Long changeNumber, Long containerId);
+
+	/**
+	 * Remove the checkpoints that have not been updated since the given time.
+	 * These belong to walks that were abandoned, such as walks whose message
+	 * expired or was dead-lettered before the walk finished.
+	 *
+	 * @param updatedBefore
+	 * @return The number of checkpoints removed.
+	 */
+	int purgeCheckpointsUpdatedBefore(Date updatedBefore);
+
+	/**
+	 * Clear all data.
+	 */
+	void truncateAll();
+
+}
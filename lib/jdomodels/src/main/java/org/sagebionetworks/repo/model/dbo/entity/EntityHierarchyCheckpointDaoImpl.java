@@ -0,0 +1,120 @@
+package org.sagebionetworks.repo.model.dbo.entity;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ENTITY_HIERARCHY_CHECKPOINT_CHANGE_NUM;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ENTITY_HIERARCHY_CHECKPOINT_CONTAINER_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ENTITY_HIERARCHY_CHECKPOINT_LAST_CHILD_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ENTITY_HIERARCHY_CHECKPOINT_ROOT_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ENTITY_HIERARCHY_CHECKPOINT_UPDATED_ON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_ENTITY_HIERARCHY_CHECKPOINT;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.sagebionetworks.repo.transactions.WriteTransaction;
+import org.sagebionetworks.util.ValidateArgument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class EntityHierarchyCheckpointDaoImpl implements EntityHierarchyCheckpointDao {
+
+	private static final String SQL_SELECT_CHECKPOINTS = "SELECT " + COL_ENTITY_HIERARCHY_CHECKPOINT_CONTAINER_ID + ", "
+			+ COL_ENTITY_HIERARCHY_CHECKPOINT_LAST_CHILD_ID + " FROM " + TABLE_ENTITY_HIERARCHY_CHECKPOINT + " WHERE "
+			+ COL_ENTITY_HIERARCHY_CHECKPOINT_ROOT_ID + " = ? AND " + COL_ENTITY_HIERARCHY_CHECKPOINT_CHANGE_NUM
+			+ " = ? ORDER BY " + COL_ENTITY_HIERARCHY_CHECKPOINT_CONTAINER_ID;
+
+	private static final String SQL_DELETE_WALK = "DELETE FROM " + TABLE_ENTITY_HIERARCHY_CHECKPOINT + " WHERE "
+			+ COL_ENTITY_HIERARCHY_CHECKPOINT_ROOT_ID + " = ? AND " + COL_ENTITY_HIERARCHY_CHECKPOINT_CHANGE_NUM
+			+ " = ?";
+
+	private static final String SQL_DELETE_CONTAINER = SQL_DELETE_WALK + " AND "
+			+ COL_ENTITY_HIERARCHY_CHECKPOINT_CONTAINER_ID + " = ?";
+
+	private static final String SQL_DELETE_UPDATED_BEFORE = "DELETE FROM " + TABLE_ENTITY_HIERARCHY_CHECKPOINT
+			+ " WHERE " + COL_ENTITY_HIERARCHY_CHECKPOINT_UPDATED_ON + " < ?";
+
+	private static final String INSERT_COLUMNS = " INTO " + TABLE_ENTITY_HIERARCHY_CHECKPOINT + " ("
+			+ COL_ENTITY_HIERARCHY_CHECKPOINT_ROOT_ID + ", " + COL_ENTITY_HIERARCHY_CHECKPOINT_CHANGE_NUM + ", "
+			+ COL_ENTITY_HIERARCHY_CHECKPOINT_CONTAINER_ID + ", " + COL_ENTITY_HIERARCHY_CHECKPOINT_LAST_CHILD_ID
+			+ ") VALUES (?, ?, ?, ?)";
+
+	private static final String SQL_INSERT = "INSERT" + INSERT_COLUMNS;
+
+	private static final String SQL_UPSERT = SQL_INSERT + " ON DUPLICATE KEY UPDATE "
+			+ COL_ENTITY_HIERARCHY_CHECKPOINT_LAST_CHILD_ID + " = ?";
+
+	// A child container that already has a checkpoint keeps its progress.
+	private static final String SQL_INSERT_IGNORE = "INSERT IGNORE" + INSERT_COLUMNS;
+
+	private static final String SQL_TRUNCATE = "DELETE FROM " + TABLE_ENTITY_HIERARCHY_CHECKPOINT;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	public Map<Long, Long> getCheckpoints(Long rootId, Long changeNumber) {
+		ValidateArgument.required(rootId, "rootId");
+		ValidateArgument.required(changeNumber, "changeNumber");
+		Map<Long, Long> checkpoints = new LinkedHashMap<>();
+		jdbcTemplate.query(SQL_SELECT_CHECKPOINTS, (ResultSet rs) -> {
+			checkpoints.put(rs.getLong(COL_ENTITY_HIERARCHY_CHECKPOINT_CONTAINER_ID),
+					rs.getLong(COL_ENTITY_HIERARCHY_CHECKPOINT_LAST_CHILD_ID));
+		}, rootId, changeNumber);
+		return checkpoints;
+	}
+
+	@WriteTransaction
+	@Override
+	public void startWalk(Long rootId, Long changeNumber) {
+		ValidateArgument.required(rootId, "rootId");
+		ValidateArgument.required(changeNumber, "changeNumber");
+		jdbcTemplate.update(SQL_DELETE_WALK, rootId, changeNumber);
+		jdbcTemplate.update(SQL_INSERT, rootId, changeNumber, rootId, NO_CHILD_ID);
+	}
+
+	@WriteTransaction
+	@Override
+	public void saveProgress(Long rootId, Long changeNumber, Long containerId, Long lastChildId,
+			List<Long> childContainerIds) {
+		ValidateArgument.required(rootId, "rootId");
+		ValidateArgument.required(changeNumber, "changeNumber");
+		ValidateArgument.required(containerId, "containerId");
+		ValidateArgument.required(lastChildId, "lastChildId");
+		ValidateArgument.required(childContainerIds, "childContainerIds");
+		if (!childContainerIds.isEmpty()) {
+			jdbcTemplate.batchUpdate(SQL_INSERT_IGNORE, childContainerIds.stream()
+					.map(childId -> new Object[] { rootId, changeNumber, childId, NO_CHILD_ID })
+					.collect(Collectors.toList()));
+		}
+		jdbcTemplate.update(SQL_UPSERT, rootId, changeNumber, containerId, lastChildId, lastChildId);
+	}
+
+	@WriteTransaction
+	@Override
+	public void finishContainer(Long rootId, Long changeNumber, Long containerId) {
+		ValidateArgument.required(rootId, "rootId");
+		ValidateArgument.required(changeNumber, "changeNumber");
+		ValidateArgument.required(containerId, "containerId");
+		jdbcTemplate.update(SQL_DELETE_CONTAINER, rootId, changeNumber, containerId);
+	}
+
+	@WriteTransaction
+	@Override
+	public int purgeCheckpointsUpdatedBefore(Date updatedBefore) {
+		ValidateArgument.required(updatedBefore, "updatedBefore");
+		return jdbcTemplate.update(SQL_DELETE_UPDATED_BEFORE, new Timestamp(updatedBefore.getTime()));
+	}
+
+	@WriteTransaction
+	@Override
+	public void truncateAll() {
+		jdbcTemplate.update(SQL_TRUNCATE);
+	}
+
+}
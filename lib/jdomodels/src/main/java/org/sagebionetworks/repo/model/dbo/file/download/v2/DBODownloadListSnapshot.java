@@ -0,0 +1,132 @@
+package org.sagebionetworks.repo.model.dbo.file.download.v2;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_V2_CREATED_ON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_V2_LIST_ETAG;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_V2_PRINCIPAL_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_V2_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_DOWNLOAD_LIST_SNAPSHOT_V2;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DOWNLOAD_LIST_SNAPSHOT_V2;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Objects;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * The state of a single snapshot of a user's download list. A snapshot is only
+ * current while its list etag matches the etag of the user's download list.
+ * This table is derived from other tables so it is not migrated.
+ *
+ */
+public class DBODownloadListSnapshot implements DatabaseObject<DBODownloadListSnapshot> {
+
+	private Long principalId;
+	private String snapshotType;
+	private String listEtag;
+	private Timestamp createdOn;
+
+	private static FieldColumn[] FIELDS = new FieldColumn[] {
+			new FieldColumn("principalId", COL_DOWNLOAD_LIST_SNAPSHOT_V2_PRINCIPAL_ID, true),
+			new FieldColumn("snapshotType", COL_DOWNLOAD_LIST_SNAPSHOT_V2_TYPE, true),
+			new FieldColumn("listEtag", COL_DOWNLOAD_LIST_SNAPSHOT_V2_LIST_ETAG),
+			new FieldColumn("createdOn", COL_DOWNLOAD_LIST_SNAPSHOT_V2_CREATED_ON) };
+
+	public static final TableMapping<DBODownloadListSnapshot> MAPPING = new TableMapping<DBODownloadListSnapshot>() {
+
+		@Override
+		public DBODownloadListSnapshot mapRow(ResultSet rs, int rowNum) throws SQLException {
+			DBODownloadListSnapshot dbo = new DBODownloadListSnapshot();
+			dbo.setPrincipalId(rs.getLong(COL_DOWNLOAD_LIST_SNAPSHOT_V2_PRINCIPAL_ID));
+			dbo.setSnapshotType(rs.getString(COL_DOWNLOAD_LIST_SNAPSHOT_V2_TYPE));
+			dbo.setListEtag(rs.getString(COL_DOWNLOAD_LIST_SNAPSHOT_V2_LIST_ETAG));
+			dbo.setCreatedOn(rs.getTimestamp(COL_DOWNLOAD_LIST_SNAPSHOT_V2_CREATED_ON));
+			return dbo;
+		}
+
+		@Override
+		public String getTableName() {
+			return TABLE_DOWNLOAD_LIST_SNAPSHOT_V2;
+		}
+
+		@Override
+		public String getDDLFileName() {
+			return DDL_DOWNLOAD_LIST_SNAPSHOT_V2;
+		}
+
+		@Override
+		public FieldColumn[] getFieldColumns() {
+			return FIELDS;
+		}
+
+		@Override
+		public Class<? extends DBODownloadListSnapshot> getDBOClass() {
+			return DBODownloadListSnapshot.class;
+		}
+	};
+
+	@Override
+	public TableMapping<DBODownloadListSnapshot> getTableMapping() {
+		return MAPPING;
+	}
+
+	public Long getPrincipalId() {
+		return principalId;
+	}
+
+	public void setPrincipalId(Long principalId) {
+		this.principalId = principalId;
+	}
+
+	public String getSnapshotType() {
+		return snapshotType;
+	}
+
+	public void setSnapshotType(String snapshotType) {
+		this.snapshotType = snapshotType;
+	}
+
+	public String getListEtag() {
+		return listEtag;
+	}
+
+	public void setListEtag(String listEtag) {
+		this.listEtag = listEtag;
+	}
+
+	public Timestamp getCreatedOn() {
+		return createdOn;
+	}
+
+	public void setCreatedOn(Timestamp createdOn) {
+		this.createdOn = createdOn;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(createdOn, listEtag, principalId, snapshotType);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DBODownloadListSnapshot)) {
+			return false;
+		}
+		DBODownloadListSnapshot other = (DBODownloadListSnapshot) obj;
+		return Objects.equals(createdOn, other.createdOn) && Objects.equals(listEtag, other.listEtag)
+				&& Objects.equals(principalId, other.principalId) && Objects.equals(snapshotType, other.snapshotType);
+	}
+
+	@Override
+	public String toString() {
+		return "DBODownloadListSnapshot [principalId=" + principalId + ", snapshotType=" + snapshotType
+				+ ", listEtag=" + listEtag + ", createdOn=" + createdOn + "]";
+	}
+
+}
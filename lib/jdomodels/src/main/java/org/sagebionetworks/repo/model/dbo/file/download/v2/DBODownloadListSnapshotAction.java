@@ -0,0 +1,131 @@
+package org.sagebionetworks.repo.model.dbo.file.download.v2;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_FILE_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_PRINCIPAL_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * A single action that a user must take to download a file on their download
+ * list, as recorded by the {@link SnapshotType#ACTION_REQUIRED} snapshot. This
+ * table is derived from other tables so it is not migrated.
+ *
+ */
+public class DBODownloadListSnapshotAction implements DatabaseObject<DBODownloadListSnapshotAction> {
+
+	private Long principalId;
+	private Long fileId;
+	private String actionType;
+	private Long actionId;
+
+	private static FieldColumn[] FIELDS = new FieldColumn[] {
+			new FieldColumn("principalId", COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_PRINCIPAL_ID, true),
+			new FieldColumn("fileId", COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_FILE_ID, true),
+			new FieldColumn("actionType", COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_TYPE, true),
+			new FieldColumn("actionId", COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_ID, true) };
+
+	public static final TableMapping<DBODownloadListSnapshotAction> MAPPING = new TableMapping<DBODownloadListSnapshotAction>() {
+
+		@Override
+		public DBODownloadListSnapshotAction mapRow(ResultSet rs, int rowNum) throws SQLException {
+			DBODownloadListSnapshotAction dbo = new DBODownloadListSnapshotAction();
+			dbo.setPrincipalId(rs.getLong(COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_PRINCIPAL_ID));
+			dbo.setFileId(rs.getLong(COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_FILE_ID));
+			dbo.setActionType(rs.getString(COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_TYPE));
+			dbo.setActionId(rs.getLong(COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_ID));
+			return dbo;
+		}
+
+		@Override
+		public String getTableName() {
+			return TABLE_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2;
+		}
+
+		@Override
+		public String getDDLFileName() {
+			return DDL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2;
+		}
+
+		@Override
+		public FieldColumn[] getFieldColumns() {
+			return FIELDS;
+		}
+
+		@Override
+		public Class<? extends DBODownloadListSnapshotAction> getDBOClass() {
+			return DBODownloadListSnapshotAction.class;
+		}
+	};
+
+	@Override
+	public TableMapping<DBODownloadListSnapshotAction> getTableMapping() {
+		return MAPPING;
+	}
+
+	public Long getPrincipalId() {
+		return principalId;
+	}
+
+	public void setPrincipalId(Long principalId) {
+		this.principalId = principalId;
+	}
+
+	public Long getFileId() {
+		return fileId;
+	}
+
+	public void setFileId(Long fileId) {
+		this.fileId = fileId;
+	}
+
+	public String getActionType() {
+		return actionType;
+	}
+
+	public void setActionType(String actionType) {
+		this.actionType = actionType;
+	}
+
+	public Long getActionId() {
+		return actionId;
+	}
+
+	public void setActionId(Long actionId) {
+		this.actionId = actionId;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(actionId, actionType, fileId, principalId);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DBODownloadListSnapshotAction)) {
+			return false;
+		}
+		DBODownloadListSnapshotAction other = (DBODownloadListSnapshotAction) obj;
+		return Objects.equals(actionId, other.actionId) && Objects.equals(actionType, other.actionType)
+				&& Objects.equals(fileId, other.fileId) && Objects.equals(principalId, other.principalId);
+	}
+
+	@Override
+	public String toString() {
+		return "DBODownloadListSnapshotAction [principalId=" + principalId + ", fileId=" + fileId + ", actionType="
+				+ actionType + ", actionId=" + actionId + "]";
+	}
+
+}
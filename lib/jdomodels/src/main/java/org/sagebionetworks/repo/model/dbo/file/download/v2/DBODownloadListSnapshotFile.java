@@ -0,0 +1,130 @@
+package org.sagebionetworks.repo.model.dbo.file.download.v2;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_IS_AVAILABLE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * A single file that has been checked for a snapshot of a user's download
+ * list. This table is derived from other tables so it is not migrated.
+ *
+ */
+public class DBODownloadListSnapshotFile implements DatabaseObject<DBODownloadListSnapshotFile> {
+
+	private Long principalId;
+	private String snapshotType;
+	private Long entityId;
+	private Boolean isAvailable;
+
+	private static FieldColumn[] FIELDS = new FieldColumn[] {
+			new FieldColumn("principalId", COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID, true),
+			new FieldColumn("snapshotType", COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE, true),
+			new FieldColumn("entityId", COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID, true),
+			new FieldColumn("isAvailable", COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_IS_AVAILABLE) };
+
+	public static final TableMapping<DBODownloadListSnapshotFile> MAPPING = new TableMapping<DBODownloadListSnapshotFile>() {
+
+		@Override
+		public DBODownloadListSnapshotFile mapRow(ResultSet rs, int rowNum) throws SQLException {
+			DBODownloadListSnapshotFile dbo = new DBODownloadListSnapshotFile();
+			dbo.setPrincipalId(rs.getLong(COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID));
+			dbo.setSnapshotType(rs.getString(COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE));
+			dbo.setEntityId(rs.getLong(COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID));
+			dbo.setIsAvailable(rs.getBoolean(COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_IS_AVAILABLE));
+			return dbo;
+		}
+
+		@Override
+		public String getTableName() {
+			return TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2;
+		}
+
+		@Override
+		public String getDDLFileName() {
+			return DDL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2;
+		}
+
+		@Override
+		public FieldColumn[] getFieldColumns() {
+			return FIELDS;
+		}
+
+		@Override
+		public Class<? extends DBODownloadListSnapshotFile> getDBOClass() {
+			return DBODownloadListSnapshotFile.class;
+		}
+	};
+
+	@Override
+	public TableMapping<DBODownloadListSnapshotFile> getTableMapping() {
+		return MAPPING;
+	}
+
+	public Long getPrincipalId() {
+		return principalId;
+	}
+
+	public void setPrincipalId(Long principalId) {
+		this.principalId = principalId;
+	}
+
+	public String getSnapshotType() {
+		return snapshotType;
+	}
+
+	public void setSnapshotType(String snapshotType) {
+		this.snapshotType = snapshotType;
+	}
+
+	public Long getEntityId() {
+		return entityId;
+	}
+
+	public void setEntityId(Long entityId) {
+		this.entityId = entityId;
+	}
+
+	public Boolean getIsAvailable() {
+		return isAvailable;
+	}
+
+	public void setIsAvailable(Boolean isAvailable) {
+		this.isAvailable = isAvailable;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(entityId, isAvailable, principalId, snapshotType);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DBODownloadListSnapshotFile)) {
+			return false;
+		}
+		DBODownloadListSnapshotFile other = (DBODownloadListSnapshotFile) obj;
+		return Objects.equals(entityId, other.entityId) && Objects.equals(isAvailable, other.isAvailable)
+				&& Objects.equals(principalId, other.principalId) && Objects.equals(snapshotType, other.snapshotType);
+	}
+
+	@Override
+	public String toString() {
+		return "DBODownloadListSnapshotFile [principalId=" + principalId + ", snapshotType=" + snapshotType
+				+ ", entityId=" + entityId + ", isAvailable=" + isAvailable + "]";
+	}
+
+}
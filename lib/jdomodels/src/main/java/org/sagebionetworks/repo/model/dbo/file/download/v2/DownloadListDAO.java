@@ -1,6 +1,8 @@
 package org.sagebionetworks.repo.model.dbo.file.download.v2;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import org.json.JSONObject;
 import org.sagebionetworks.repo.model.download.ActionRequiredCount;
@@ -92,8 +94,8 @@ public interface DownloadListDAO {
 	void truncateAllData();
 
 	/**
-	 * Read all of value from a temporary of the items from a user's download list
-	 * that the user has download access to.
+	 * Read all of the IDs of the items from a user's download list that the user
+	 * has download access to.
 	 * 
 	 * @param accessCallback
 	 * @param userId
@@ -161,4 +163,22 @@ public interface DownloadListDAO {
 	 */
 	Long addDatasetItemsToDownloadList(Long userId, List<DatasetItem> items, long limit);
 
+	/**
+	 * Get the state of the given snapshot of the user's download list.
+	 * 
+	 * @param userId
+	 * @param type
+	 * @return Empty if the snapshot has not been taken.
+	 */
+	Optional<DBODownloadListSnapshot> getSnapshot(Long userId, SnapshotType type);
+
+	/**
+	 * Invalidate any snapshot that includes one of the given entities. Only the
+	 * given entities will be checked again the next time each affected snapshot
+	 * is read.
+	 * 
+	 * @param entityIds
+	 */
+	void invalidateSnapshots(Set<Long> entityIds);
+
 }
@@ -1,9 +1,23 @@
 package org.sagebionetworks.repo.model.dbo.file.download.v2;
 
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ACCESS_APPROVAL_ACCESSOR_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ACCESS_APPROVAL_MODIFIED_ON;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_ITEM_V2_ADDED_ON;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_ITEM_V2_ENTITY_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_ITEM_V2_PRINCIPAL_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_ITEM_V2_VERSION_NUMBER;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_FILE_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_PRINCIPAL_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_IS_AVAILABLE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_V2_CREATED_ON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_V2_LIST_ETAG;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_V2_PRINCIPAL_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_SNAPSHOT_V2_TYPE;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_V2_ETAG;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_V2_PRINCIPAL_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_V2_UPDATED_ON;
@@ -18,7 +32,11 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_REVISION
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_REVISION_NUMBER;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_REVISION_OWNER_NODE;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_REVISION_USER_ANNOS_JSON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_ACCESS_APPROVAL;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DOWNLOAD_LIST_ITEM_V2;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DOWNLOAD_LIST_SNAPSHOT_V2;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DOWNLOAD_LIST_V2;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_FILES;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE;
@@ -33,7 +51,9 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -91,8 +111,30 @@ public class DownloadListDAOImpl implements DownloadListDAO {
 	public static final String DOWNLOAD_LIST_ACTION_REQUIRED_TEMPLATE = DDLUtilsImpl
 			.loadSQLFromClasspath("sql/DownloadListActionRequired.sql");
 	
-	public static final String TEMP_ACTION_REQUIRED_TEMPLATE = DDLUtilsImpl
-			.loadSQLFromClasspath("sql/TempActionRequired-ddl.sql");
+	/**
+	 * Snapshots older than this are rebuilt from scratch, so that changes that do
+	 * not invalidate a snapshot directly, such as team membership changes, are
+	 * picked up.
+	 */
+	public static final long SNAPSHOT_MAX_AGE_MS = 1000L * 60L * 10L;
+
+	/**
+	 * Derived table of the files that the user can download according to the
+	 * user's {@link SnapshotType#AVAILABLE} snapshot.
+	 */
+	public static final String AVAILABLE_SNAPSHOT_TABLE = "(SELECT " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID
+			+ " FROM " + TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2 + " WHERE " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID
+			+ " = :principalId AND " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE + " = '" + SnapshotType.AVAILABLE.name()
+			+ "' AND " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_IS_AVAILABLE + " = TRUE)";
+
+	/**
+	 * Derived table of the actions the user must take according to the user's
+	 * {@link SnapshotType#ACTION_REQUIRED} snapshot.
+	 */
+	public static final String ACTION_REQUIRED_SNAPSHOT_TABLE = "(SELECT "
+			+ COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_FILE_ID + ", " + COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_TYPE
+			+ ", " + COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_ID + " FROM " + TABLE_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2
+			+ " WHERE " + COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_PRINCIPAL_ID + " = :principalId)";
 
 	private static final int BATCH_SIZE = 10000;
 
@@ -107,6 +149,7 @@ public class DownloadListDAOImpl implements DownloadListDAO {
 
 	private static final RowMapper<DBODownloadList> LIST_MAPPER = new DBODownloadList().getTableMapping();
 	private static final RowMapper<DBODownloadListItem> LIST_ITEM_MAPPER = new DBODownloadListItem().getTableMapping();
+	private static final RowMapper<DBODownloadListSnapshot> SNAPSHOT_MAPPER = new DBODownloadListSnapshot().getTableMapping();
 
 	private static final RowMapper<DownloadListItemResult> RESULT_MAPPER = (ResultSet rs, int rowNum) -> {
 		DownloadListItemResult r = new DownloadListItemResult();
@@ -348,24 +391,21 @@ public class DownloadListDAOImpl implements DownloadListDAO {
 	public List<DownloadListItemResult> getFilesAvailableToDownloadFromDownloadList(EntityAccessCallback accessCallback,
 			Long userId, AvailableFilter filter, List<Sort> sort, Long limit, Long offset) {
 		/*
-		 * The first step is to create a temporary table containing all of the entity
-		 * IDs from the user's download list that the user can download.
+		 * The first step is to bring the snapshot of the files that the user can
+		 * download up-to-date.
 		 */
-		String tempTableName = createTemporaryTableOfAvailableFiles(accessCallback, userId, BATCH_SIZE);
-		try {
-			StringBuilder sqlBuilder = new StringBuilder(String.format(DOWNLOAD_LIST_RESULT_TEMPLATE, tempTableName));
-			sqlBuilder.append(buildAvailableFilter(filter));
-			sqlBuilder.append(buildAvailableDownloadQuerySuffix(sort, limit, offset));
-			MapSqlParameterSource params = new MapSqlParameterSource();
-			params.addValue("principalId", userId);
-			params.addValue("depth", NodeConstants.MAX_PATH_DEPTH_PLUS_ONE);
-			params.addValue("limit", limit);
-			params.addValue("offset", offset);
-			params.addValue("maxEligibleSize", FileConstants.MAX_FILE_SIZE_ELIGIBLE_FOR_PACKAGING);
-			return namedJdbcTemplate.query(sqlBuilder.toString(), params, RESULT_MAPPER);
-		} finally {
-			dropTemporaryTable(tempTableName);
-		}
+		refreshAvailableSnapshot(accessCallback, userId, BATCH_SIZE);
+		StringBuilder sqlBuilder = new StringBuilder(
+				String.format(DOWNLOAD_LIST_RESULT_TEMPLATE, AVAILABLE_SNAPSHOT_TABLE));
+		sqlBuilder.append(buildAvailableFilter(filter));
+		sqlBuilder.append(buildAvailableDownloadQuerySuffix(sort, limit, offset));
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue("principalId", userId);
+		params.addValue("depth", NodeConstants.MAX_PATH_DEPTH_PLUS_ONE);
+		params.addValue("limit", limit);
+		params.addValue("offset", offset);
+		params.addValue("maxEligibleSize", FileConstants.MAX_FILE_SIZE_ELIGIBLE_FOR_PACKAGING);
+		return namedJdbcTemplate.query(sqlBuilder.toString(), params, RESULT_MAPPER);
 	}
 
 	/**
@@ -518,9 +558,12 @@ public class DownloadListDAOImpl implements DownloadListDAO {
 	@Override
 	public List<Long> getAvailableFilesFromDownloadList(EntityAccessCallback accessCallback, Long userId,
 			int batchSize) {
-		String tempTableName = createTemporaryTableOfAvailableFiles(accessCallback, userId, batchSize);
-		return jdbcTemplate.queryForList("SELECT ENTITY_ID FROM " + tempTableName + " ORDER BY ENTITY_ID ASC",
-				Long.class);
+		refreshAvailableSnapshot(accessCallback, userId, batchSize);
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue("principalId", userId);
+		return namedJdbcTemplate.queryForList("SELECT " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID + " FROM "
+				+ AVAILABLE_SNAPSHOT_TABLE + " T ORDER BY " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID + " ASC",
+				params, Long.class);
 	}
 
 	/**
@@ -575,37 +618,38 @@ public class DownloadListDAOImpl implements DownloadListDAO {
 	@Override
 	public FilesStatisticsResponse getListStatistics(EntityAccessCallback createAccessCallback, Long userId) {
 		/*
-		 * The first step is to create a temporary table containing all of the entity
-		 * IDs from the user's download list that the user can download.
+		 * The first step is to bring the snapshot of the files that the user can
+		 * download up-to-date.
 		 */
-		String tempTableName = createTemporaryTableOfAvailableFiles(createAccessCallback, userId, BATCH_SIZE);
-		try {
-			String sql = String.format(DOWNLOAD_LIST_STATISTICS_TEMPLATE, tempTableName);
-			MapSqlParameterSource params = new MapSqlParameterSource();
-			params.addValue("principalId", userId);
-			params.addValue("maxEligibleSize", FileConstants.MAX_FILE_SIZE_ELIGIBLE_FOR_PACKAGING);
-			return namedJdbcTemplate.queryForObject(sql, params,STATS_MAPPER);
-		} finally {
-			dropTemporaryTable(tempTableName);
-		}
+		refreshAvailableSnapshot(createAccessCallback, userId, BATCH_SIZE);
+		String sql = String.format(DOWNLOAD_LIST_STATISTICS_TEMPLATE, AVAILABLE_SNAPSHOT_TABLE);
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue("principalId", userId);
+		params.addValue("maxEligibleSize", FileConstants.MAX_FILE_SIZE_ELIGIBLE_FOR_PACKAGING);
+		return namedJdbcTemplate.queryForObject(sql, params,STATS_MAPPER);
 	}
 	
 	/**
-	 * Helper to add the given batch of entity IDs to a temporary table.
+	 * Helper to add the given batch of actions to the user's
+	 * {@link SnapshotType#ACTION_REQUIRED} snapshot.
 	 * 
-	 * @param entityIdsToAdd
-	 * @param tableName
+	 * @param userId
+	 * @param actions
 	 */
-	void addBatchOfActionsToTempTable(FileActionRequired[] actions, String tableName) {
+	void addBatchOfActionsToSnapshot(Long userId, FileActionRequired[] actions) {
 		if (actions.length < 1) {
 			return;
 		}
-		String sql = String.format("INSERT IGNORE INTO %S (FILE_ID, ACTION_TYPE, ACTION_ID) VALUES (?,?,?)", tableName);
-		jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+		jdbcTemplate.batchUpdate("INSERT IGNORE INTO " + TABLE_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2 + " ("
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_PRINCIPAL_ID + ", " + COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_FILE_ID
+				+ ", " + COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_TYPE + ", "
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_ID + ") VALUES (?,?,?,?)",
+				new BatchPreparedStatementSetter() {
 			@Override
 			public void setValues(PreparedStatement ps, int i) throws SQLException {
 				FileActionRequired required = actions[i];
 				int index = 0;
+				ps.setLong(++index, userId);
 				ps.setLong(++index, required.getFileId());
 				Action action = required.getAction();
 				if(action instanceof MeetAccessRequirement) {
@@ -624,35 +668,237 @@ public class DownloadListDAOImpl implements DownloadListDAO {
 			}
 		});
 	}
-	
+
 	/**
-	 * Create a temporary table of all actions the user must
+	 * Helper to add the given batch of files to the given snapshot of the user's
+	 * download list.
+	 * 
+	 * @param userId
+	 * @param type
+	 * @param batch     All of the files that were checked.
+	 * @param available The sub-set of the checked files that the user can
+	 *                  download.
+	 */
+	void addBatchOfFilesToSnapshot(Long userId, SnapshotType type, List<Long> batch, Set<Long> available) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		Long[] entityIds = batch.toArray(new Long[batch.size()]);
+		jdbcTemplate.batchUpdate("INSERT IGNORE INTO " + TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2 + " ("
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID + ", " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE + ", "
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID + ", " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_IS_AVAILABLE
+				+ ") VALUES (?,?,?,?)", new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						ps.setLong(1, userId);
+						ps.setString(2, type.name());
+						ps.setLong(3, entityIds[i]);
+						ps.setBoolean(4, available.contains(entityIds[i]));
+					}
+
+					@Override
+					public int getBatchSize() {
+						return entityIds.length;
+					}
+				});
+	}
+
+	/**
+	 * Bring the user's {@link SnapshotType#AVAILABLE} snapshot up-to-date.
+	 * 
+	 * @param accessCallback
+	 * @param userId
+	 * @param batchSize
+	 */
+	void refreshAvailableSnapshot(EntityAccessCallback accessCallback, Long userId, int batchSize) {
+		refreshSnapshot(userId, SnapshotType.AVAILABLE, batchSize, (List<Long> batch) -> {
+			// Determine the sub-set that the user can actually download.
+			Set<Long> canDownload = new HashSet<>(accessCallback.filter(batch));
+			addBatchOfFilesToSnapshot(userId, SnapshotType.AVAILABLE, batch, canDownload);
+		});
+	}
+
+	/**
+	 * Bring the user's {@link SnapshotType#ACTION_REQUIRED} snapshot up-to-date.
+	 * 
 	 * @param callback
 	 * @param userId
 	 * @param batchSize
-	 * @return
 	 */
-	String createTemporaryTableOfActionsRequired(EntityActionRequiredCallback callback, Long userId, int batchSize) {
-		String tableName = "U" + userId + "A";
-		String sql = String.format(TEMP_ACTION_REQUIRED_TEMPLATE,tableName);
-		jdbcTemplate.update(sql);
+	void refreshActionRequiredSnapshot(EntityActionRequiredCallback callback, Long userId, int batchSize) {
+		refreshSnapshot(userId, SnapshotType.ACTION_REQUIRED, batchSize, (List<Long> batch) -> {
+			List<FileActionRequired> actions = callback.filter(batch);
+			addBatchOfActionsToSnapshot(userId, actions.toArray(new FileActionRequired[actions.size()]));
+			Set<Long> requireAction = actions.stream().map(FileActionRequired::getFileId).collect(Collectors.toSet());
+			Set<Long> available = batch.stream().filter(id -> !requireAction.contains(id)).collect(Collectors.toSet());
+			addBatchOfFilesToSnapshot(userId, SnapshotType.ACTION_REQUIRED, batch, available);
+		});
+	}
 
+	/**
+	 * Bring the given snapshot of the user's download list up-to-date. A snapshot
+	 * is current when it was taken of the current version (etag) of the user's
+	 * list. Otherwise, files that are no longer on the list are removed from the
+	 * snapshot and only the files that are missing from the snapshot are passed to
+	 * the given consumer, so editing a list does not require the entire list to be
+	 * checked again. Snapshots that are older than {@link #SNAPSHOT_MAX_AGE_MS} or
+	 * that predate a change to one of the user's access approvals are rebuilt from
+	 * scratch.
+	 * 
+	 * @param userId
+	 * @param type
+	 * @param batchSize
+	 * @param addBatchToSnapshot Called for each batch of files that are missing
+	 *                           from the snapshot. Must add every file of the
+	 *                           batch to the snapshot.
+	 */
+	void refreshSnapshot(Long userId, SnapshotType type, int batchSize, Consumer<List<Long>> addBatchToSnapshot) {
+		// Lock the user's list so concurrent refreshes of the same snapshot are serialized.
+		List<String> listEtags = jdbcTemplate.queryForList("SELECT " + COL_DOWNLOAD_LIST_V2_ETAG + " FROM "
+				+ TABLE_DOWNLOAD_LIST_V2 + " WHERE " + COL_DOWNLOAD_LIST_V2_PRINCIPAL_ID + " = ? FOR UPDATE",
+				String.class, userId);
+		if (listEtags.isEmpty()) {
+			// The user does not have a list so the snapshot is empty.
+			return;
+		}
+		String listEtag = listEtags.get(0);
+		Optional<DBODownloadListSnapshot> snapshot = getSnapshot(userId, type);
+		if (snapshot.isPresent() && !isSnapshotExpired(userId, snapshot.get())) {
+			if (listEtag.equals(snapshot.get().getListEtag())) {
+				return;
+			}
+			removeFilesNoLongerOnListFromSnapshot(userId, type);
+		} else {
+			clearSnapshot(userId, type);
+			jdbcTemplate.update("INSERT INTO " + TABLE_DOWNLOAD_LIST_SNAPSHOT_V2 + " ("
+					+ COL_DOWNLOAD_LIST_SNAPSHOT_V2_PRINCIPAL_ID + ", " + COL_DOWNLOAD_LIST_SNAPSHOT_V2_TYPE + ", "
+					+ COL_DOWNLOAD_LIST_SNAPSHOT_V2_CREATED_ON + ") VALUES (?, ?, ?)", userId, type.name(),
+					new Timestamp(System.currentTimeMillis()));
+		}
 		List<Long> batch = null;
-		long limit = batchSize;
-		long offset = 0L;
 		do {
-			batch = getBatchOfFileIdsFromUsersDownloadList(userId, limit, offset);
-			offset += limit;
+			// Files are added to the snapshot as they are checked, so no offset is needed.
+			batch = getBatchOfFileIdsMissingFromSnapshot(userId, type, batchSize);
 			if (batch.isEmpty()) {
 				break;
 			}
-			// Determine the sub-set that the user can actually download.
-			List<FileActionRequired> actions = callback.filter(batch);
-			// Add the sub-set to the temporary table.
-			addBatchOfActionsToTempTable(actions.toArray(new FileActionRequired[actions.size()]), tableName);
+			addBatchToSnapshot.accept(batch);
 		} while (batch.size() == batchSize);
+		jdbcTemplate.update("UPDATE " + TABLE_DOWNLOAD_LIST_SNAPSHOT_V2 + " SET "
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_V2_LIST_ETAG + " = ? WHERE " + COL_DOWNLOAD_LIST_SNAPSHOT_V2_PRINCIPAL_ID
+				+ " = ? AND " + COL_DOWNLOAD_LIST_SNAPSHOT_V2_TYPE + " = ?", listEtag, userId, type.name());
+	}
 
-		return tableName;
+	/**
+	 * A snapshot is expired when it is older than {@link #SNAPSHOT_MAX_AGE_MS} or
+	 * when one of the user's access approvals changed after it was created.
+	 * 
+	 * @param userId
+	 * @param snapshot
+	 * @return
+	 */
+	boolean isSnapshotExpired(Long userId, DBODownloadListSnapshot snapshot) {
+		long createdOn = snapshot.getCreatedOn().getTime();
+		if (createdOn + SNAPSHOT_MAX_AGE_MS < System.currentTimeMillis()) {
+			return true;
+		}
+		Long lastApprovalChange = jdbcTemplate.queryForObject("SELECT MAX(" + COL_ACCESS_APPROVAL_MODIFIED_ON
+				+ ") FROM " + TABLE_ACCESS_APPROVAL + " WHERE " + COL_ACCESS_APPROVAL_ACCESSOR_ID + " = ?", Long.class,
+				userId);
+		return lastApprovalChange != null && lastApprovalChange >= createdOn;
+	}
+
+	/**
+	 * Remove all data for the given snapshot of the user's download list.
+	 * 
+	 * @param userId
+	 * @param type
+	 */
+	void clearSnapshot(Long userId, SnapshotType type) {
+		jdbcTemplate.update("DELETE FROM " + TABLE_DOWNLOAD_LIST_SNAPSHOT_V2 + " WHERE "
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_V2_PRINCIPAL_ID + " = ? AND " + COL_DOWNLOAD_LIST_SNAPSHOT_V2_TYPE + " = ?",
+				userId, type.name());
+		jdbcTemplate.update("DELETE FROM " + TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2 + " WHERE "
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID + " = ? AND " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE
+				+ " = ?", userId, type.name());
+		if (SnapshotType.ACTION_REQUIRED.equals(type)) {
+			jdbcTemplate.update("DELETE FROM " + TABLE_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2 + " WHERE "
+					+ COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_PRINCIPAL_ID + " = ?", userId);
+		}
+	}
+
+	/**
+	 * Remove any file from the given snapshot that is no longer on the user's
+	 * download list.
+	 * 
+	 * @param userId
+	 * @param type
+	 */
+	void removeFilesNoLongerOnListFromSnapshot(Long userId, SnapshotType type) {
+		String notOnList = " NOT IN (SELECT " + COL_DOWNLOAD_LIST_ITEM_V2_ENTITY_ID + " FROM "
+				+ TABLE_DOWNLOAD_LIST_ITEM_V2 + " WHERE " + COL_DOWNLOAD_LIST_ITEM_V2_PRINCIPAL_ID + " = ?)";
+		jdbcTemplate.update("DELETE FROM " + TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2 + " WHERE "
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID + " = ? AND " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE
+				+ " = ? AND " + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID + notOnList, userId, type.name(), userId);
+		if (SnapshotType.ACTION_REQUIRED.equals(type)) {
+			jdbcTemplate.update("DELETE FROM " + TABLE_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2 + " WHERE "
+					+ COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_PRINCIPAL_ID + " = ? AND "
+					+ COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_FILE_ID + notOnList, userId, userId);
+		}
+	}
+
+	/**
+	 * Get a batch of file IDs from the user's download list that are not in the
+	 * given snapshot.
+	 * 
+	 * @param userId
+	 * @param type
+	 * @param limit
+	 * @return
+	 */
+	List<Long> getBatchOfFileIdsMissingFromSnapshot(Long userId, SnapshotType type, long limit) {
+		return jdbcTemplate.queryForList("SELECT DISTINCT D." + COL_DOWNLOAD_LIST_ITEM_V2_ENTITY_ID + " FROM "
+				+ TABLE_DOWNLOAD_LIST_ITEM_V2 + " D LEFT JOIN " + TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2 + " S ON (D."
+				+ COL_DOWNLOAD_LIST_ITEM_V2_PRINCIPAL_ID + " = S." + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID
+				+ " AND S." + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE + " = ? AND D."
+				+ COL_DOWNLOAD_LIST_ITEM_V2_ENTITY_ID + " = S." + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID
+				+ ") WHERE D." + COL_DOWNLOAD_LIST_ITEM_V2_PRINCIPAL_ID + " = ? AND S."
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID + " IS NULL ORDER BY D."
+				+ COL_DOWNLOAD_LIST_ITEM_V2_ENTITY_ID + " LIMIT ?", Long.class, type.name(), userId, limit);
+	}
+
+	@Override
+	public Optional<DBODownloadListSnapshot> getSnapshot(Long userId, SnapshotType type) {
+		ValidateArgument.required(userId, "User Id");
+		ValidateArgument.required(type, "type");
+		List<DBODownloadListSnapshot> results = jdbcTemplate.query(
+				"SELECT * FROM " + TABLE_DOWNLOAD_LIST_SNAPSHOT_V2 + " WHERE "
+						+ COL_DOWNLOAD_LIST_SNAPSHOT_V2_PRINCIPAL_ID + " = ? AND " + COL_DOWNLOAD_LIST_SNAPSHOT_V2_TYPE
+						+ " = ?",
+				SNAPSHOT_MAPPER, userId, type.name());
+		return results.stream().findFirst();
+	}
+
+	@WriteTransaction
+	@Override
+	public void invalidateSnapshots(Set<Long> entityIds) {
+		ValidateArgument.required(entityIds, "entityIds");
+		if (entityIds.isEmpty()) {
+			return;
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue("entityIds", entityIds);
+		// Clearing the etag forces the next read to look for the files removed below.
+		namedJdbcTemplate.update("UPDATE " + TABLE_DOWNLOAD_LIST_SNAPSHOT_V2 + " S JOIN "
+				+ TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2 + " F ON (S." + COL_DOWNLOAD_LIST_SNAPSHOT_V2_PRINCIPAL_ID
+				+ " = F." + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID + " AND S."
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_V2_TYPE + " = F." + COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE + ") SET S."
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_V2_LIST_ETAG + " = NULL WHERE F."
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID + " IN (:entityIds)", params);
+		namedJdbcTemplate.update("DELETE FROM " + TABLE_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2 + " WHERE "
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_FILE_ID + " IN (:entityIds)", params);
+		namedJdbcTemplate.update("DELETE FROM " + TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2 + " WHERE "
+				+ COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID + " IN (:entityIds)", params);
 	}
 
 	/**
@@ -675,19 +921,15 @@ public class DownloadListDAOImpl implements DownloadListDAO {
 	public List<ActionRequiredCount> getActionsRequiredFromDownloadList(EntityActionRequiredCallback callback,
 			Long userId, Long limit, Long offset) {
 		/*
-		 * Build a temp table of all actions the user must take to gain access to files on their download list.
+		 * Bring the snapshot of all actions the user must take to gain access to files on their download list up-to-date.
 		 */
-		String tempTableName = createTemporaryTableOfActionsRequired(callback, userId, BATCH_SIZE);
-		try {
-			String sql = String.format(DOWNLOAD_LIST_ACTION_REQUIRED_TEMPLATE, tempTableName);
-			MapSqlParameterSource params = new MapSqlParameterSource();
-			params.addValue("principalId", userId);
-			params.addValue("limit", limit);
-			params.addValue("offset", offset);
-			return namedJdbcTemplate.query(sql, params, ACTION_MAPPER);
-		} finally {
-			dropTemporaryTable(tempTableName);
-		}
+		refreshActionRequiredSnapshot(callback, userId, BATCH_SIZE);
+		String sql = String.format(DOWNLOAD_LIST_ACTION_REQUIRED_TEMPLATE, ACTION_REQUIRED_SNAPSHOT_TABLE);
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue("principalId", userId);
+		params.addValue("limit", limit);
+		params.addValue("offset", offset);
+		return namedJdbcTemplate.query(sql, params, ACTION_MAPPER);
 	}
 
 	@WriteTransaction
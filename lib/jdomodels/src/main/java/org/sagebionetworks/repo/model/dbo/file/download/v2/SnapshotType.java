@@ -0,0 +1,17 @@
+package org.sagebionetworks.repo.model.dbo.file.download.v2;
+
+/**
+ * The types of snapshots that can be taken of a user's download list.
+ *
+ */
+public enum SnapshotType {
+
+	/**
+	 * Records which files the user can download.
+	 */
+	AVAILABLE,
+	/**
+	 * Records the actions the user must take to download each file.
+	 */
+	ACTION_REQUIRED
+}
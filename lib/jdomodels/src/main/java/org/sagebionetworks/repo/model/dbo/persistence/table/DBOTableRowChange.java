@@ -5,6 +5,9 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_RO
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_CREATED_BY;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_CREATED_ON;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_ID_FILTER;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_ID_MAX;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_ID_MIN;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_HAS_FILE_REFS;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_KEY_NEW;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_TABLE_ETAG;
@@ -18,6 +21,7 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_ROW_CH
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -49,7 +53,10 @@ public class DBOTableRowChange implements MigratableDatabaseObject<DBOTableRowCh
 			new FieldColumn("changeType", COL_TABLE_ROW_TYPE),
 			new FieldColumn("transactionId", COL_TABLE_ROW_TRX_ID),
 			new FieldColumn("hasFileRefs", COL_TABLE_ROW_HAS_FILE_REFS),
-			new FieldColumn("isSearchEnabled", COL_TABLE_ROW_SEARCH_ENABLED)
+			new FieldColumn("isSearchEnabled", COL_TABLE_ROW_SEARCH_ENABLED),
+			new FieldColumn("rowIdMin", COL_TABLE_ROW_ID_MIN),
+			new FieldColumn("rowIdMax", COL_TABLE_ROW_ID_MAX),
+			new FieldColumn("rowIdFilter", COL_TABLE_ROW_ID_FILTER)
 	};
 	
 	private static final TableMapping<DBOTableRowChange> TABLE_MAPPING = new TableMapping<DBOTableRowChange>() {
@@ -79,6 +86,15 @@ public class DBOTableRowChange implements MigratableDatabaseObject<DBOTableRowCh
 			if (rs.wasNull()) {
 				change.setIsSearchEnabled(null);
 			}
+			change.setRowIdMin(rs.getLong(COL_TABLE_ROW_ID_MIN));
+			if (rs.wasNull()) {
+				change.setRowIdMin(null);
+			}
+			change.setRowIdMax(rs.getLong(COL_TABLE_ROW_ID_MAX));
+			if (rs.wasNull()) {
+				change.setRowIdMax(null);
+			}
+			change.setRowIdFilter(rs.getBytes(COL_TABLE_ROW_ID_FILTER));
 			return change;
 		}
 
@@ -119,6 +135,9 @@ public class DBOTableRowChange implements MigratableDatabaseObject<DBOTableRowCh
 	private Long transactionId;
 	private Boolean hasFileRefs;
 	private Boolean isSearchEnabled;
+	private Long rowIdMin;
+	private Long rowIdMax;
+	private byte[] rowIdFilter;
 
 	@Override
 	public TableMapping<DBOTableRowChange> getTableMapping() {
@@ -247,6 +266,48 @@ public class DBOTableRowChange implements MigratableDatabaseObject<DBOTableRowCh
 		this.isSearchEnabled = isSearchEnabled;
 	}
 
+	/**
+	 * The minimum row ID in this change set, or null if the change set does
+	 * not have a row ID summary.
+	 * 
+	 * @return
+	 */
+	public Long getRowIdMin() {
+		return rowIdMin;
+	}
+
+	public void setRowIdMin(Long rowIdMin) {
+		this.rowIdMin = rowIdMin;
+	}
+
+	/**
+	 * The maximum row ID in this change set, or null if the change set does
+	 * not have a row ID summary.
+	 * 
+	 * @return
+	 */
+	public Long getRowIdMax() {
+		return rowIdMax;
+	}
+
+	public void setRowIdMax(Long rowIdMax) {
+		this.rowIdMax = rowIdMax;
+	}
+
+	/**
+	 * The serialized bloom filter of the row IDs in this change set. See
+	 * RowIdSummary.
+	 * 
+	 * @return
+	 */
+	public byte[] getRowIdFilter() {
+		return rowIdFilter;
+	}
+
+	public void setRowIdFilter(byte[] rowIdFilter) {
+		this.rowIdFilter = rowIdFilter;
+	}
+
 	@Override
 	public MigrationType getMigratableTableType() {
 		return MigrationType.TABLE_CHANGE;
@@ -274,8 +335,11 @@ public class DBOTableRowChange implements MigratableDatabaseObject<DBOTableRowCh
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(bucket, changeType, columnIds, createdBy, createdOn, etag, hasFileRefs, id, isSearchEnabled, keyNew, rowCount,
-				rowVersion, tableId, transactionId);
+		final int prime = 31;
+		int result = Objects.hash(bucket, changeType, columnIds, createdBy, createdOn, etag, hasFileRefs, id, isSearchEnabled, keyNew, rowCount,
+				rowVersion, tableId, transactionId, rowIdMin, rowIdMax);
+		result = prime * result + Arrays.hashCode(rowIdFilter);
+		return result;
 	}
 
 	@Override
@@ -296,7 +360,9 @@ public class DBOTableRowChange implements MigratableDatabaseObject<DBOTableRowCh
 				&& Objects.equals(hasFileRefs, other.hasFileRefs) && Objects.equals(id, other.id)
 				&& Objects.equals(isSearchEnabled, other.isSearchEnabled) && Objects.equals(keyNew, other.keyNew)
 				&& Objects.equals(rowCount, other.rowCount) && Objects.equals(rowVersion, other.rowVersion)
-				&& Objects.equals(tableId, other.tableId) && Objects.equals(transactionId, other.transactionId);
+				&& Objects.equals(tableId, other.tableId) && Objects.equals(transactionId, other.transactionId)
+				&& Objects.equals(rowIdMin, other.rowIdMin) && Objects.equals(rowIdMax, other.rowIdMax)
+				&& Arrays.equals(rowIdFilter, other.rowIdFilter);
 	}
 
 	@Override
@@ -304,7 +370,7 @@ public class DBOTableRowChange implements MigratableDatabaseObject<DBOTableRowCh
 		return "DBOTableRowChange [id=" + id + ", tableId=" + tableId + ", etag=" + etag + ", rowVersion=" + rowVersion + ", columnIds="
 				+ columnIds + ", createdBy=" + createdBy + ", createdOn=" + createdOn + ", bucket=" + bucket + ", keyNew=" + keyNew
 				+ ", rowCount=" + rowCount + ", changeType=" + changeType + ", transactionId=" + transactionId + ", hasFileRefs="
-				+ hasFileRefs + ", isSearchEnabled=" + isSearchEnabled + "]";
+				+ hasFileRefs + ", isSearchEnabled=" + isSearchEnabled + ", rowIdMin=" + rowIdMin + ", rowIdMax=" + rowIdMax + "]";
 	}
 
 }
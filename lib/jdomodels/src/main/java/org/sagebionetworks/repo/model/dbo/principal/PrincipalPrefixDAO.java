@@ -104,6 +104,14 @@ public interface PrincipalPrefixDAO {
 	 */
 	Long countTeamMembersForPrefix(String prefix, Long teamId);
 
+	/**
+	 * Add every token of the existing principals to the given builder, ordered by
+	 * token then principal ID.
+	 * 
+	 * @param builder
+	 */
+	public void loadIndex(PrincipalPrefixIndex.Builder builder);
+
 	/**
 	 * Delete all data in the table.
 	 */
@@ -12,12 +12,15 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_PRINCI
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_TEAM;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_USER_GROUP;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex.PrincipalType;
 import org.sagebionetworks.repo.transactions.WriteTransaction;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
@@ -95,6 +98,31 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 					+ " LIKE ? LIMIT ? OFFSET ?";
 
 
+	private static final String COL_INDEX_TEAM_ID = "TEAM_ID";
+
+	// One page of tokens after the given token and principal for the in-memory index.
+	private static final String SQL_SELECT_INDEX_PAGE = "SELECT P." + COL_PRINCIPAL_PREFIX_TOKEN + ", P."
+			+ COL_PRINCIPAL_PREFIX_PRINCIPAL_ID + ", U." + COL_USER_GROUP_IS_INDIVIDUAL + ", T." + COL_TEAM_ID + " AS "
+			+ COL_INDEX_TEAM_ID + " FROM " + TABLE_PRINCIPAL_PREFIX + " P JOIN " + TABLE_USER_GROUP + " U ON P."
+			+ COL_PRINCIPAL_PREFIX_PRINCIPAL_ID + " = U." + COL_USER_GROUP_ID + " LEFT JOIN " + TABLE_TEAM + " T ON U."
+			+ COL_USER_GROUP_ID + " = T." + COL_TEAM_ID + " WHERE P." + COL_PRINCIPAL_PREFIX_TOKEN + " > ? OR (P."
+			+ COL_PRINCIPAL_PREFIX_TOKEN + " = ? AND P." + COL_PRINCIPAL_PREFIX_PRINCIPAL_ID + " > ?) ORDER BY P."
+			+ COL_PRINCIPAL_PREFIX_TOKEN + ", P." + COL_PRINCIPAL_PREFIX_PRINCIPAL_ID + " LIMIT ?";
+
+	static final long INDEX_PAGE_SIZE = 10000L;
+
+	private static final RowMapper<IndexRow> INDEX_ROW_MAPPER = (rs, rowNum) -> {
+		PrincipalType type;
+		if (rs.getBoolean(COL_USER_GROUP_IS_INDIVIDUAL)) {
+			type = PrincipalType.USER;
+		} else {
+			rs.getLong(COL_INDEX_TEAM_ID);
+			type = rs.wasNull() ? PrincipalType.GROUP : PrincipalType.TEAM;
+		}
+		return new IndexRow(rs.getString(COL_PRINCIPAL_PREFIX_TOKEN), rs.getLong(COL_PRINCIPAL_PREFIX_PRINCIPAL_ID),
+				type);
+	};
+
 	private static final String SQL_CLEAR_PRINCIPAL = "DELETE FROM "
 			+ TABLE_PRINCIPAL_PREFIX + " WHERE "
 			+ COL_PRINCIPAL_PREFIX_PRINCIPAL_ID + " = ?";
@@ -119,6 +147,23 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 	private JdbcTemplate jdbcTemplate;
 	@Autowired
 	private NamedParameterJdbcTemplate namedJdbcTemplate;
+	@Autowired
+	private PrincipalPrefixIndex prefixIndex;
+
+	/**
+	 * A single row of the table with the type of its principal.
+	 */
+	private static class IndexRow {
+		private final String token;
+		private final long principalId;
+		private final PrincipalType type;
+
+		IndexRow(String token, long principalId, PrincipalType type) {
+			this.token = token;
+			this.principalId = principalId;
+			this.type = type;
+		}
+	}
 
 	/*
 	 * (non-Javadoc)
@@ -157,18 +202,33 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 	@Override
 	public void addPrincipalName(String firstName, String lastName,
 			Long principalId) {
+		for (String token : getNameTokens(firstName, lastName)) {
+			insertIgnoreDuplicate(principalId, token);
+		}
+	}
 
+	/**
+	 * Get the pre-processed tokens for a first and last name: first-last and
+	 * last-first.
+	 * 
+	 * @param firstName
+	 * @param lastName
+	 * @return The non-empty tokens.
+	 */
+	public static List<String> getNameTokens(String firstName, String lastName) {
+		List<String> tokens = new ArrayList<>(2);
 		// Concatenate first-last
 		String firstLast = preProcessToken(firstName + lastName);
 		if (!EMPTY.equals(firstLast)) {
-			insertIgnoreDuplicate(principalId, firstLast);
+			tokens.add(firstLast);
 		}
 
 		// Concatenate last-first
 		String lastFirst = preProcessToken(lastName + firstName);
 		if (!EMPTY.equals(lastFirst)) {
-			insertIgnoreDuplicate(principalId, lastFirst);
+			tokens.add(lastFirst);
 		}
+		return tokens;
 	}
 
 	/**
@@ -208,6 +268,9 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 	public List<Long> listPrincipalsForPrefix(String prefix, Long limit,
 			Long offset) {
 		String processed = preProcessToken(prefix);
+		if (prefixIndex.isLoaded()) {
+			return prefixIndex.list(processed, PrincipalPrefixIndex.ALL, limit, offset);
+		}
 		return jdbcTemplate.queryForList(SQL_LIST_PRINCIPALS_FOR_PREFIX,
 				Long.class, processed + WILDCARD, limit, offset);
 	}
@@ -219,6 +282,9 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 	@Override
 	public List<Long> listTeamsForPrefix(String prefix, Long limit, Long offset) {
 		String processed = preProcessToken(prefix);
+		if (prefixIndex.isLoaded()) {
+			return prefixIndex.list(processed, (principalId, type) -> PrincipalType.TEAM == type, limit, offset);
+		}
 		return jdbcTemplate.queryForList(SQL_LIST_TEAMS_FOR_PREFIX,
 				Long.class, processed + WILDCARD, limit, offset);
 	}
@@ -231,6 +297,10 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 	public List<Long> listPrincipalsForPrefix(String prefix,
 			boolean isIndividual, Long limit, Long offset) {
 		String processed = preProcessToken(prefix);
+		if (prefixIndex.isLoaded()) {
+			return prefixIndex.list(processed, (principalId, type) -> (PrincipalType.USER == type) == isIndividual,
+					limit, offset);
+		}
 		return jdbcTemplate.queryForList(SQL_LIST_PRINCIPALS_FOR_PREFIX_BY_TYPE,
 				Long.class, isIndividual, processed + WILDCARD, limit, offset);
 	}
@@ -245,6 +315,9 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 	@Override
 	public List<Long> listTeamMembersForPrefix(String prefix, Long teamId,
 			Long limit, Long offset) {
+		// Team member queries stay on the table: the join through the group
+		// members index only reads the members of the team, while the index would
+		// have to scan every token of the prefix.
 		String processed = preProcessToken(prefix);
 		String sql = SQL_LIST_TEAM_MEMBERS_FOR_PREFIX_CORE + " " + SQL_PAGINATED;
 		MapSqlParameterSource param = new MapSqlParameterSource();
@@ -295,6 +368,22 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 		return jdbcTemplate.queryForObject(SQL_COUNT_TEAM_MEMBERS_FOR_PREFIX, Long.class, teamId, processed + WILDCARD);
 	}
 
+	@Override
+	public void loadIndex(PrincipalPrefixIndex.Builder builder) {
+		String lastToken = EMPTY;
+		long lastPrincipalId = -1L;
+		List<IndexRow> page;
+		do {
+			page = jdbcTemplate.query(SQL_SELECT_INDEX_PAGE, INDEX_ROW_MAPPER, lastToken, lastToken,
+					lastPrincipalId, INDEX_PAGE_SIZE);
+			for (IndexRow row : page) {
+				builder.add(row.token, row.principalId, row.type);
+				lastToken = row.token;
+				lastPrincipalId = row.principalId;
+			}
+		} while (page.size() >= INDEX_PAGE_SIZE);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
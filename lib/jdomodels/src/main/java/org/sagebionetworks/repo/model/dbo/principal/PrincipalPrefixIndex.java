@@ -0,0 +1,677 @@
+package org.sagebionetworks.repo.model.dbo.principal;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * An in-memory copy of the principal prefix table used to answer prefix
+ * queries without a database round trip.
+ * <p>
+ * The tokens are held sorted and front coded in blocks of {@link #BLOCK_SIZE}:
+ * each token only stores the bytes that differ from the token before it, and
+ * the first token of each block is stored in full so a lookup can binary search
+ * the blocks. The principals of each token are packed into a single long array
+ * that also holds the type of each principal.
+ * <p>
+ * Principals that change after the index is loaded are written to a small
+ * overlay that hides their old tokens. The overlay is merged into a new base
+ * once it holds more than the configured number of principals. Reads never
+ * block: each call works against an immutable state.
+ *
+ */
+public class PrincipalPrefixIndex {
+
+	public static final int DEFAULT_MAX_OVERLAY_PRINCIPALS = 10000;
+	/**
+	 * The number of tokens in each front coded block.
+	 */
+	static final int BLOCK_SIZE = 16;
+
+	private static final int TYPE_BITS = 2;
+	private static final long TYPE_MASK = (1L << TYPE_BITS) - 1;
+	private static final long[] EMPTY_POSTINGS = new long[0];
+	private static final PrincipalType[] TYPES = PrincipalType.values();
+
+	public enum PrincipalType {
+		USER, GROUP, TEAM
+	}
+
+	/**
+	 * Filter applied to each principal that matches a prefix.
+	 *
+	 */
+	@FunctionalInterface
+	public interface Filter {
+		boolean accept(long principalId, PrincipalType type);
+	}
+
+	/**
+	 * Accepts every principal.
+	 */
+	public static final Filter ALL = (principalId, type) -> true;
+
+	@FunctionalInterface
+	private interface PostingVisitor {
+		/**
+		 * @return False to stop the scan.
+		 */
+		boolean visit(long principalId, PrincipalType type);
+	}
+
+	private final int maxOverlayPrincipals;
+	private volatile State state;
+
+	public PrincipalPrefixIndex() {
+		this(DEFAULT_MAX_OVERLAY_PRINCIPALS);
+	}
+
+	/**
+	 * @param maxOverlayPrincipals The number of changed principals to hold in the
+	 *                             overlay before it is merged into the base.
+	 */
+	public PrincipalPrefixIndex(int maxOverlayPrincipals) {
+		ValidateArgument.requirement(maxOverlayPrincipals >= 0, "maxOverlayPrincipals cannot be negative");
+		this.maxOverlayPrincipals = maxOverlayPrincipals;
+	}
+
+	/**
+	 * @return True once {@link #load(Builder)} has been called. Until then all
+	 *         queries must go to the database.
+	 */
+	public boolean isLoaded() {
+		return state != null;
+	}
+
+	/**
+	 * Replace the entire contents of the index.
+	 *
+	 * @param builder
+	 */
+	public synchronized void load(Builder builder) {
+		ValidateArgument.required(builder, "builder");
+		state = new State(builder.build(), Collections.emptyMap(), Collections.emptyNavigableMap());
+	}
+
+	/**
+	 * Replace all of the tokens of a single principal. Ignored until the index is
+	 * loaded.
+	 *
+	 * @param principalId
+	 * @param type
+	 * @param tokens      Pre-processed tokens. Empty tokens are ignored.
+	 */
+	public synchronized void setPrincipal(long principalId, PrincipalType type, Collection<String> tokens) {
+		ValidateArgument.required(type, "type");
+		ValidateArgument.required(tokens, "tokens");
+		if (state == null) {
+			return;
+		}
+		Set<String> newTokens = new TreeSet<>(tokens);
+		newTokens.remove("");
+		Map<Long, Set<String>> changed = new HashMap<>(state.changed);
+		NavigableMap<String, long[]> overlay = new TreeMap<>(state.overlay);
+		removeFromOverlay(overlay, changed.get(principalId), principalId);
+		changed.put(principalId, Collections.unmodifiableSet(newTokens));
+		long posting = encode(principalId, type);
+		for (String token : newTokens) {
+			overlay.put(token, insertPosting(overlay.get(token), posting));
+		}
+		State newState = new State(state.base, Collections.unmodifiableMap(changed),
+				Collections.unmodifiableNavigableMap(overlay));
+		if (changed.size() > maxOverlayPrincipals) {
+			newState = new State(merge(newState), Collections.emptyMap(), Collections.emptyNavigableMap());
+		}
+		state = newState;
+	}
+
+	/**
+	 * Remove all of the tokens of a single principal. Ignored until the index is
+	 * loaded.
+	 *
+	 * @param principalId
+	 */
+	public void removePrincipal(long principalId) {
+		// A principal without tokens is never visited so the type does not matter.
+		setPrincipal(principalId, PrincipalType.USER, Collections.emptySet());
+	}
+
+	/**
+	 * List a single page of the distinct principals with a token that starts with
+	 * the given prefix, ordered by token then principal ID.
+	 *
+	 * @param prefix A pre-processed prefix.
+	 * @param filter Only principals accepted by the filter are included.
+	 * @param limit
+	 * @param offset
+	 * @return
+	 */
+	public List<Long> list(String prefix, Filter filter, long limit, long offset) {
+		ValidateArgument.required(prefix, "prefix");
+		ValidateArgument.required(filter, "filter");
+		State current = getLoadedState();
+		List<Long> results = new ArrayList<>();
+		if (limit < 1) {
+			return results;
+		}
+		Set<Long> seen = new HashSet<>();
+		long[] skipped = new long[1];
+		scan(current, prefix, (principalId, type) -> {
+			if (!filter.accept(principalId, type) || !seen.add(principalId)) {
+				return true;
+			}
+			if (skipped[0] < offset) {
+				skipped[0]++;
+				return true;
+			}
+			results.add(principalId);
+			return results.size() < limit;
+		});
+		return results;
+	}
+
+	/**
+	 * Count the distinct principals with a token that starts with the given
+	 * prefix.
+	 *
+	 * @param prefix A pre-processed prefix.
+	 * @param filter Only principals accepted by the filter are counted.
+	 * @return
+	 */
+	public long count(String prefix, Filter filter) {
+		ValidateArgument.required(prefix, "prefix");
+		ValidateArgument.required(filter, "filter");
+		Set<Long> seen = new HashSet<>();
+		scan(getLoadedState(), prefix, (principalId, type) -> {
+			if (filter.accept(principalId, type)) {
+				seen.add(principalId);
+			}
+			return true;
+		});
+		return seen.size();
+	}
+
+	/**
+	 * @return The number of distinct tokens in the base of the index.
+	 */
+	public long getTokenCount() {
+		State current = state;
+		return current == null ? 0L : current.base.tokenCount;
+	}
+
+	/**
+	 * @return The number of principals held in the overlay.
+	 */
+	public long getOverlayPrincipalCount() {
+		State current = state;
+		return current == null ? 0L : current.changed.size();
+	}
+
+	/**
+	 * @return The approximate number of bytes used by the base of the index.
+	 */
+	public long getBaseSizeBytes() {
+		State current = state;
+		return current == null ? 0L : current.base.sizeBytes();
+	}
+
+	private State getLoadedState() {
+		State current = state;
+		if (current == null) {
+			throw new IllegalStateException("The principal prefix index has not been loaded");
+		}
+		return current;
+	}
+
+	/**
+	 * Visit each posting of the tokens that start with the given prefix in order
+	 * of token then principal ID.
+	 */
+	private static void scan(State current, String prefix, PostingVisitor visitor) {
+		byte[] key = toBytes(prefix);
+		Cursor cursor = current.base.seek(key);
+		boolean hasBase = cursor.isValid() && cursor.startsWith(key);
+		Iterator<Map.Entry<String, long[]>> overlayIterator = current.overlay.tailMap(prefix, true).entrySet().iterator();
+		Map.Entry<String, long[]> overlayEntry = nextWithPrefix(overlayIterator, prefix);
+		while (hasBase || overlayEntry != null) {
+			int cmp = !hasBase ? 1 : overlayEntry == null ? -1 : cursor.compareTo(overlayEntry.getKey());
+			long[] postings = current.base.postings;
+			int baseIndex = 0;
+			int baseEnd = 0;
+			if (cmp <= 0) {
+				baseIndex = current.base.postingStarts[cursor.tokenIndex];
+				baseEnd = current.base.postingStarts[cursor.tokenIndex + 1];
+			}
+			long[] overlayPostings = cmp >= 0 ? overlayEntry.getValue() : EMPTY_POSTINGS;
+			int overlayIndex = 0;
+			// Merge the postings of both sides by principal ID.
+			while (baseIndex < baseEnd || overlayIndex < overlayPostings.length) {
+				long posting;
+				if (overlayIndex >= overlayPostings.length
+						|| (baseIndex < baseEnd && postings[baseIndex] < overlayPostings[overlayIndex])) {
+					posting = postings[baseIndex++];
+					if (!current.changed.isEmpty() && current.changed.containsKey(decodePrincipalId(posting))) {
+						// this principal's current tokens are in the overlay.
+						continue;
+					}
+				} else {
+					posting = overlayPostings[overlayIndex++];
+				}
+				if (!visitor.visit(decodePrincipalId(posting), decodeType(posting))) {
+					return;
+				}
+			}
+			if (cmp <= 0) {
+				hasBase = cursor.next() && cursor.startsWith(key);
+			}
+			if (cmp >= 0) {
+				overlayEntry = nextWithPrefix(overlayIterator, prefix);
+			}
+		}
+	}
+
+	private static Map.Entry<String, long[]> nextWithPrefix(Iterator<Map.Entry<String, long[]>> iterator,
+			String prefix) {
+		if (iterator.hasNext()) {
+			Map.Entry<String, long[]> entry = iterator.next();
+			if (entry.getKey().startsWith(prefix)) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Build a new base that includes the changes in the overlay.
+	 */
+	private static Snapshot merge(State current) {
+		Builder builder = new Builder();
+		Cursor cursor = current.base.seek(new byte[0]);
+		boolean hasBase = cursor.isValid();
+		Iterator<Map.Entry<String, long[]>> overlayIterator = current.overlay.entrySet().iterator();
+		Map.Entry<String, long[]> overlayEntry = overlayIterator.hasNext() ? overlayIterator.next() : null;
+		while (hasBase || overlayEntry != null) {
+			int cmp = !hasBase ? 1 : overlayEntry == null ? -1 : cursor.compareTo(overlayEntry.getKey());
+			String token = cmp <= 0 ? cursor.getToken() : overlayEntry.getKey();
+			long[] merged = EMPTY_POSTINGS;
+			if (cmp <= 0) {
+				int start = current.base.postingStarts[cursor.tokenIndex];
+				int end = current.base.postingStarts[cursor.tokenIndex + 1];
+				merged = new long[end - start];
+				int count = 0;
+				for (int i = start; i < end; i++) {
+					if (!current.changed.containsKey(decodePrincipalId(current.base.postings[i]))) {
+						merged[count++] = current.base.postings[i];
+					}
+				}
+				merged = Arrays.copyOf(merged, count);
+				hasBase = cursor.next();
+			}
+			if (cmp >= 0) {
+				for (long posting : overlayEntry.getValue()) {
+					merged = insertPosting(merged, posting);
+				}
+				overlayEntry = overlayIterator.hasNext() ? overlayIterator.next() : null;
+			}
+			for (long posting : merged) {
+				builder.add(token, decodePrincipalId(posting), decodeType(posting));
+			}
+		}
+		return builder.build();
+	}
+
+	private static void removeFromOverlay(NavigableMap<String, long[]> overlay, Set<String> tokens, long principalId) {
+		if (tokens == null) {
+			return;
+		}
+		for (String token : tokens) {
+			long[] postings = overlay.get(token);
+			long[] remaining = Arrays.stream(postings).filter(p -> decodePrincipalId(p) != principalId).toArray();
+			if (remaining.length == 0) {
+				overlay.remove(token);
+			} else {
+				overlay.put(token, remaining);
+			}
+		}
+	}
+
+	/**
+	 * Insert a posting into a sorted array, returning a new array.
+	 */
+	private static long[] insertPosting(long[] postings, long posting) {
+		if (postings == null) {
+			return new long[] { posting };
+		}
+		int index = Arrays.binarySearch(postings, posting);
+		if (index >= 0) {
+			return postings;
+		}
+		int insertAt = -index - 1;
+		long[] result = new long[postings.length + 1];
+		System.arraycopy(postings, 0, result, 0, insertAt);
+		result[insertAt] = posting;
+		System.arraycopy(postings, insertAt, result, insertAt + 1, postings.length - insertAt);
+		return result;
+	}
+
+	static long encode(long principalId, PrincipalType type) {
+		return (principalId << TYPE_BITS) | type.ordinal();
+	}
+
+	static long decodePrincipalId(long posting) {
+		return posting >>> TYPE_BITS;
+	}
+
+	static PrincipalType decodeType(long posting) {
+		return TYPES[(int) (posting & TYPE_MASK)];
+	}
+
+	private static byte[] toBytes(String token) {
+		// Pre-processed tokens only contain lower case letters and digits.
+		return token.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static int compare(byte[] left, int leftLength, byte[] right, int rightLength) {
+		int length = Math.min(leftLength, rightLength);
+		for (int i = 0; i < length; i++) {
+			if (left[i] != right[i]) {
+				return (left[i] & 0xFF) - (right[i] & 0xFF);
+			}
+		}
+		return leftLength - rightLength;
+	}
+
+	/**
+	 * Builds the base of an index from tokens that are added in order of token
+	 * then principal ID.
+	 *
+	 */
+	public static class Builder {
+
+		private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		private int[] blockOffsets = new int[16];
+		private int blockCount;
+		private int[] postingStarts = new int[64];
+		private int tokenCount;
+		private long[] postings = new long[64];
+		private int postingCount;
+		private byte[] lastToken;
+		private long lastPrincipalId;
+
+		/**
+		 * Add a single token of a principal.
+		 *
+		 * @param token       A pre-processed token.
+		 * @param principalId
+		 * @param type
+		 * @return
+		 * @throws IllegalArgumentException If the token and principal ID are not
+		 *                                  greater than the previous pair.
+		 */
+		public Builder add(String token, long principalId, PrincipalType type) {
+			ValidateArgument.required(token, "token");
+			ValidateArgument.required(type, "type");
+			byte[] bytes = toBytes(token);
+			int cmp = lastToken == null ? 1 : compare(bytes, bytes.length, lastToken, lastToken.length);
+			if (cmp < 0 || (cmp == 0 && principalId <= lastPrincipalId)) {
+				throw new IllegalArgumentException("Tokens must be added in order of token then principal ID");
+			}
+			if (cmp > 0) {
+				startToken(bytes);
+			}
+			if (postingCount == postings.length) {
+				postings = Arrays.copyOf(postings, postingCount * 2);
+			}
+			postings[postingCount++] = encode(principalId, type);
+			lastPrincipalId = principalId;
+			return this;
+		}
+
+		/**
+		 * @return The number of principal tokens added so far.
+		 */
+		public int getPostingCount() {
+			return postingCount;
+		}
+
+		private void startToken(byte[] bytes) {
+			int shared = 0;
+			if (tokenCount % BLOCK_SIZE == 0) {
+				if (blockCount == blockOffsets.length) {
+					blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+				}
+				blockOffsets[blockCount++] = data.size();
+			} else {
+				int max = Math.min(lastToken.length, bytes.length);
+				while (shared < max && lastToken[shared] == bytes[shared]) {
+					shared++;
+				}
+			}
+			writeVarInt(shared);
+			writeVarInt(bytes.length - shared);
+			data.write(bytes, shared, bytes.length - shared);
+			if (tokenCount + 1 >= postingStarts.length) {
+				postingStarts = Arrays.copyOf(postingStarts, postingStarts.length * 2);
+			}
+			postingStarts[tokenCount++] = postingCount;
+			lastToken = bytes;
+		}
+
+		private void writeVarInt(int value) {
+			while ((value & ~0x7F) != 0) {
+				data.write((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			data.write(value);
+		}
+
+		Snapshot build() {
+			int[] starts = Arrays.copyOf(postingStarts, tokenCount + 1);
+			starts[tokenCount] = postingCount;
+			return new Snapshot(data.toByteArray(), Arrays.copyOf(blockOffsets, blockCount), starts,
+					Arrays.copyOf(postings, postingCount), tokenCount);
+		}
+	}
+
+	/**
+	 * The immutable, front coded base of the index.
+	 *
+	 */
+	static final class Snapshot {
+
+		final byte[] data;
+		final int[] blockOffsets;
+		final int[] postingStarts;
+		final long[] postings;
+		final int tokenCount;
+
+		Snapshot(byte[] data, int[] blockOffsets, int[] postingStarts, long[] postings, int tokenCount) {
+			this.data = data;
+			this.blockOffsets = blockOffsets;
+			this.postingStarts = postingStarts;
+			this.postings = postings;
+			this.tokenCount = tokenCount;
+		}
+
+		/**
+		 * @return A cursor on the first token that is greater than or equal to the
+		 *         given key.
+		 */
+		Cursor seek(byte[] key) {
+			// Find the last block that starts with a token less than or equal to the key.
+			int low = 0;
+			int high = blockOffsets.length - 1;
+			int block = 0;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				if (compareBlockHead(middle, key) <= 0) {
+					block = middle;
+					low = middle + 1;
+				} else {
+					high = middle - 1;
+				}
+			}
+			Cursor cursor = new Cursor(this, block * BLOCK_SIZE - 1, blockOffsets.length == 0 ? 0 : blockOffsets[block]);
+			while (cursor.next()) {
+				if (cursor.compareTo(key) >= 0) {
+					return cursor;
+				}
+			}
+			return cursor;
+		}
+
+		private int compareBlockHead(int block, byte[] key) {
+			int position = blockOffsets[block];
+			// The first token of a block never shares a prefix.
+			position++;
+			int length = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = data[position++];
+				length |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			int max = Math.min(length, key.length);
+			for (int i = 0; i < max; i++) {
+				int diff = (data[position + i] & 0xFF) - (key[i] & 0xFF);
+				if (diff != 0) {
+					return diff;
+				}
+			}
+			return length - key.length;
+		}
+
+		long sizeBytes() {
+			return data.length + 4L * blockOffsets.length + 4L * postingStarts.length + 8L * postings.length;
+		}
+	}
+
+	/**
+	 * Decodes the tokens of a snapshot in order.
+	 *
+	 */
+	static final class Cursor {
+
+		private final Snapshot snapshot;
+		private int tokenIndex;
+		private int position;
+		private byte[] token = new byte[32];
+		private int length;
+		private boolean valid;
+
+		Cursor(Snapshot snapshot, int tokenIndex, int position) {
+			this.snapshot = snapshot;
+			this.tokenIndex = tokenIndex;
+			this.position = position;
+		}
+
+		/**
+		 * Move to the next token.
+		 *
+		 * @return False if there are no more tokens.
+		 */
+		boolean next() {
+			if (tokenIndex + 1 >= snapshot.tokenCount) {
+				valid = false;
+				return false;
+			}
+			tokenIndex++;
+			int shared = readVarInt();
+			int suffix = readVarInt();
+			if (shared + suffix > token.length) {
+				token = Arrays.copyOf(token, Math.max(token.length * 2, shared + suffix));
+			}
+			System.arraycopy(snapshot.data, position, token, shared, suffix);
+			position += suffix;
+			length = shared + suffix;
+			valid = true;
+			return true;
+		}
+
+		boolean isValid() {
+			return valid;
+		}
+
+		boolean startsWith(byte[] prefix) {
+			if (prefix.length > length) {
+				return false;
+			}
+			for (int i = 0; i < prefix.length; i++) {
+				if (token[i] != prefix[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		int compareTo(byte[] key) {
+			return compare(token, length, key, key.length);
+		}
+
+		int compareTo(String key) {
+			int max = Math.min(length, key.length());
+			for (int i = 0; i < max; i++) {
+				int diff = (token[i] & 0xFF) - key.charAt(i);
+				if (diff != 0) {
+					return diff;
+				}
+			}
+			return length - key.length();
+		}
+
+		String getToken() {
+			return new String(token, 0, length, StandardCharsets.US_ASCII);
+		}
+
+		private int readVarInt() {
+			int value = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = snapshot.data[position++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+	}
+
+	/**
+	 * An immutable view of the index.
+	 *
+	 */
+	private static final class State {
+
+		final Snapshot base;
+		/**
+		 * The current tokens of each principal that changed since the base was built.
+		 * Their postings in the base are hidden.
+		 */
+		final Map<Long, Set<String>> changed;
+		/**
+		 * The sorted postings of the changed principals for each token.
+		 */
+		final NavigableMap<String, long[]> overlay;
+
+		State(Snapshot base, Map<Long, Set<String>> changed, NavigableMap<String, long[]> overlay) {
+			this.base = base;
+			this.changed = changed;
+			this.overlay = overlay;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package org.sagebionetworks.repo.model.dbo.rewrite;
+
+import java.util.Optional;
+
+/**
+ * Records how far the background rewrite of compressed secondary property
+ * blobs has come for each {@link BinaryPropertyType}, so that the rewrite can
+ * be done in small ranges of IDs, each in its own transaction, and resume
+ * where it stopped.
+ *
+ */
+public interface BinaryPropertyRewriteDao {
+
+	/**
+	 * Get the first ID that has not been rewritten yet for the given type.
+	 *
+	 * @param type
+	 * @return Zero if the rewrite of the type has not started.
+	 */
+	long getNextId(BinaryPropertyType type);
+
+	/**
+	 * Record that every ID lower than the given ID was rewritten for the given
+	 * type.
+	 *
+	 * @param type
+	 * @param nextId
+	 */
+	void setNextId(BinaryPropertyType type, long nextId);
+
+	/**
+	 * Find the lowest ID of the rows that hold a blob of the given type, that is
+	 * not lower than the given ID. Used to skip over gaps in the IDs.
+	 *
+	 * @param type
+	 * @param fromId
+	 * @return Empty if there are no rows with an ID of at least the given ID.
+	 */
+	Optional<Long> findFirstId(BinaryPropertyType type, long fromId);
+
+	/**
+	 * Clear the progress of all types.
+	 */
+	void truncateAll();
+
+}
@@ -0,0 +1,76 @@
+package org.sagebionetworks.repo.model.dbo.rewrite;
+
+import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_ID;
+import static org.sagebionetworks.repo.model.query.SQLConstants.COL_SUBSTATUS_SUBMISSION_ID;
+import static org.sagebionetworks.repo.model.query.SQLConstants.TABLE_EVALUATION;
+import static org.sagebionetworks.repo.model.query.SQLConstants.TABLE_SUBSTATUS;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BINARY_PROPERTY_REWRITE_NEXT_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BINARY_PROPERTY_REWRITE_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_REVISION_OWNER_NODE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_BINARY_PROPERTY_REWRITE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_REVISION;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.sagebionetworks.repo.transactions.WriteTransaction;
+import org.sagebionetworks.util.ValidateArgument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class BinaryPropertyRewriteDaoImpl implements BinaryPropertyRewriteDao {
+
+	private static final String SQL_SELECT_NEXT_ID = "SELECT " + COL_BINARY_PROPERTY_REWRITE_NEXT_ID + " FROM "
+			+ TABLE_BINARY_PROPERTY_REWRITE + " WHERE " + COL_BINARY_PROPERTY_REWRITE_TYPE + " = ?";
+
+	private static final String SQL_UPSERT_NEXT_ID = "INSERT INTO " + TABLE_BINARY_PROPERTY_REWRITE + " ("
+			+ COL_BINARY_PROPERTY_REWRITE_TYPE + ", " + COL_BINARY_PROPERTY_REWRITE_NEXT_ID
+			+ ") VALUES (?, ?) ON DUPLICATE KEY UPDATE " + COL_BINARY_PROPERTY_REWRITE_NEXT_ID + " = ?";
+
+	private static final String SQL_TRUNCATE = "DELETE FROM " + TABLE_BINARY_PROPERTY_REWRITE;
+
+	private static final Map<BinaryPropertyType, String> SQL_SELECT_FIRST_ID = new EnumMap<>(BinaryPropertyType.class);
+
+	static {
+		SQL_SELECT_FIRST_ID.put(BinaryPropertyType.ENTITY_PROPERTY_ANNOTATIONS, "SELECT MIN(" + COL_REVISION_OWNER_NODE
+				+ ") FROM " + TABLE_REVISION + " WHERE " + COL_REVISION_OWNER_NODE + " >= ?");
+		SQL_SELECT_FIRST_ID.put(BinaryPropertyType.SUBMISSION_STATUS, "SELECT MIN(" + COL_SUBSTATUS_SUBMISSION_ID
+				+ ") FROM " + TABLE_SUBSTATUS + " WHERE " + COL_SUBSTATUS_SUBMISSION_ID + " >= ?");
+		SQL_SELECT_FIRST_ID.put(BinaryPropertyType.SUBMISSION_QUOTA, "SELECT MIN(" + COL_EVALUATION_ID + ") FROM "
+				+ TABLE_EVALUATION + " WHERE " + COL_EVALUATION_ID + " >= ?");
+	}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	public long getNextId(BinaryPropertyType type) {
+		ValidateArgument.required(type, "type");
+		List<Long> nextId = jdbcTemplate.queryForList(SQL_SELECT_NEXT_ID, Long.class, type.name());
+		return nextId.isEmpty() ? 0L : nextId.get(0);
+	}
+
+	@WriteTransaction
+	@Override
+	public void setNextId(BinaryPropertyType type, long nextId) {
+		ValidateArgument.required(type, "type");
+		jdbcTemplate.update(SQL_UPSERT_NEXT_ID, type.name(), nextId, nextId);
+	}
+
+	@Override
+	public Optional<Long> findFirstId(BinaryPropertyType type, long fromId) {
+		ValidateArgument.required(type, "type");
+		return Optional.ofNullable(jdbcTemplate.queryForObject(SQL_SELECT_FIRST_ID.get(type), Long.class, fromId));
+	}
+
+	@WriteTransaction
+	@Override
+	public void truncateAll() {
+		jdbcTemplate.update(SQL_TRUNCATE);
+	}
+
+}
@@ -0,0 +1,23 @@
+package org.sagebionetworks.repo.model.dbo.rewrite;
+
+/**
+ * The secondary property blobs that can still hold compressed XML written
+ * before the binary codec, and that are rewritten in the background.
+ *
+ */
+public enum BinaryPropertyType {
+
+	/**
+	 * The entity property annotations of each node revision, by node ID.
+	 */
+	ENTITY_PROPERTY_ANNOTATIONS,
+	/**
+	 * The serialized submission status, by submission ID.
+	 */
+	SUBMISSION_STATUS,
+	/**
+	 * The submission quota of each evaluation, by evaluation ID.
+	 */
+	SUBMISSION_QUOTA;
+
+}
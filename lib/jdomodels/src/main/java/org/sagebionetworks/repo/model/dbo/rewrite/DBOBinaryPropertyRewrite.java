@@ -0,0 +1,119 @@
+package org.sagebionetworks.repo.model.dbo.rewrite;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BINARY_PROPERTY_REWRITE_NEXT_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BINARY_PROPERTY_REWRITE_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BINARY_PROPERTY_REWRITE_UPDATED_ON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_BINARY_PROPERTY_REWRITE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_BINARY_PROPERTY_REWRITE;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Objects;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * How far the rewrite of the compressed blobs of one {@link BinaryPropertyType}
+ * has come. Every row with an ID lower than the next ID has been rewritten.
+ * This table only tracks work in progress so it is not migrated.
+ *
+ */
+public class DBOBinaryPropertyRewrite implements DatabaseObject<DBOBinaryPropertyRewrite> {
+
+	private String type;
+	private Long nextId;
+	private Timestamp updatedOn;
+
+	private static FieldColumn[] FIELDS = new FieldColumn[] {
+			new FieldColumn("type", COL_BINARY_PROPERTY_REWRITE_TYPE, true),
+			new FieldColumn("nextId", COL_BINARY_PROPERTY_REWRITE_NEXT_ID),
+			new FieldColumn("updatedOn", COL_BINARY_PROPERTY_REWRITE_UPDATED_ON) };
+
+	public static final TableMapping<DBOBinaryPropertyRewrite> MAPPING = new TableMapping<DBOBinaryPropertyRewrite>() {
+
+		@Override
+		public DBOBinaryPropertyRewrite mapRow(ResultSet rs, int rowNum) throws SQLException {
+			DBOBinaryPropertyRewrite dbo = new DBOBinaryPropertyRewrite();
+			dbo.setType(rs.getString(COL_BINARY_PROPERTY_REWRITE_TYPE));
+			dbo.setNextId(rs.getLong(COL_BINARY_PROPERTY_REWRITE_NEXT_ID));
+			dbo.setUpdatedOn(rs.getTimestamp(COL_BINARY_PROPERTY_REWRITE_UPDATED_ON));
+			return dbo;
+		}
+
+		@Override
+		public String getTableName() {
+			return TABLE_BINARY_PROPERTY_REWRITE;
+		}
+
+		@Override
+		public String getDDLFileName() {
+			return DDL_BINARY_PROPERTY_REWRITE;
+		}
+
+		@Override
+		public FieldColumn[] getFieldColumns() {
+			return FIELDS;
+		}
+
+		@Override
+		public Class<? extends DBOBinaryPropertyRewrite> getDBOClass() {
+			return DBOBinaryPropertyRewrite.class;
+		}
+	};
+
+	@Override
+	public TableMapping<DBOBinaryPropertyRewrite> getTableMapping() {
+		return MAPPING;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public Long getNextId() {
+		return nextId;
+	}
+
+	public void setNextId(Long nextId) {
+		this.nextId = nextId;
+	}
+
+	public Timestamp getUpdatedOn() {
+		return updatedOn;
+	}
+
+	public void setUpdatedOn(Timestamp updatedOn) {
+		this.updatedOn = updatedOn;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(nextId, type, updatedOn);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DBOBinaryPropertyRewrite)) {
+			return false;
+		}
+		DBOBinaryPropertyRewrite other = (DBOBinaryPropertyRewrite) obj;
+		return Objects.equals(nextId, other.nextId) && Objects.equals(type, other.type)
+				&& Objects.equals(updatedOn, other.updatedOn);
+	}
+
+	@Override
+	public String toString() {
+		return "DBOBinaryPropertyRewrite [type=" + type + ", nextId=" + nextId + ", updatedOn=" + updatedOn + "]";
+	}
+
+}
@@ -44,6 +44,8 @@ import org.sagebionetworks.ids.IdType;
 import org.sagebionetworks.repo.model.DatastoreException;
 import org.sagebionetworks.repo.model.NameConflictException;
 import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.content.CompressedContent;
+import org.sagebionetworks.repo.model.content.ImmutableContentCache;
 import org.sagebionetworks.repo.model.dao.WikiPageKey;
 import org.sagebionetworks.repo.model.dao.WikiPageKeyHelper;
 import org.sagebionetworks.repo.model.dbo.DBOBasicDao;
@@ -108,6 +110,9 @@ public class V2DBOWikiPageDaoImpl implements V2WikiPageDao {
 
 	@Autowired
 	private FileHandleDao fileMetadataDao;	
+	
+	@Autowired
+	private ImmutableContentCache contentCache;
 
 	/**
 	 * Used to detect if a wiki object already exists.
@@ -521,13 +526,20 @@ public class V2DBOWikiPageDaoImpl implements V2WikiPageDao {
 	@Override
 	public String getMarkdown(WikiPageKey key, Long version) throws IOException, NotFoundException {
 		V2WikiPage wiki = get(key, version);
-		S3FileHandle markdownHandle = (S3FileHandle) fileMetadataDao.get(wiki.getMarkdownFileHandleId());
-		S3Object s3Object = s3Client.getObject(markdownHandle.getBucketName(), markdownHandle.getKey());
-		String contentType = s3Object.getObjectMetadata().getContentType();
-		Charset charset = ContentTypeUtil.getCharsetFromContentTypeString(contentType);
-		try (InputStream in = s3Object.getObjectContent()) {
-			return FileUtils.readStreamAsString(in, charset, /*gunzip*/true);
-		}
+		String markdownFileHandleId = wiki.getMarkdownFileHandleId();
+		// The markdown of a file handle never changes so it can be cached by the file handle id.
+		return contentCache.getContent(markdownFileHandleId, () -> {
+			S3FileHandle markdownHandle = (S3FileHandle) fileMetadataDao.get(markdownFileHandleId);
+			S3Object s3Object = s3Client.getObject(markdownHandle.getBucketName(), markdownHandle.getKey());
+			String contentType = s3Object.getObjectMetadata().getContentType();
+			Charset charset = ContentTypeUtil.getCharsetFromContentTypeString(contentType);
+			if (charset == null) {
+				charset = FileUtils.DEFAULT_FILE_CHARSET;
+			}
+			try (InputStream in = s3Object.getObjectContent()) {
+				return CompressedContent.read(in, charset);
+			}
+		});
 	}
 	
 	@Override
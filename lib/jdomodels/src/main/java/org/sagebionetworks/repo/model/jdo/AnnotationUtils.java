@@ -1,37 +1,53 @@
 package org.sagebionetworks.repo.model.jdo;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import org.sagebionetworks.repo.model.Annotations;
 import org.sagebionetworks.repo.model.UnmodifiableXStream;
 
 public class AnnotationUtils {
-	private static final UnmodifiableXStream X_STREAM = UnmodifiableXStream.builder()
+	/**
+	 * Only used to read annotations that were written before the binary codec.
+	 */
+	static final UnmodifiableXStream X_STREAM = UnmodifiableXStream.builder()
 			.omitField(Annotations.class, "id")
 			.omitField(Annotations.class, "etag")
 			.alias("annotations", Annotations.class)
 			.build();
+	static final AnnotationsV1Codec CODEC = new AnnotationsV1Codec();
 
 	/**
-	 * Convert the passed annotations to a compressed (zip) byte array
+	 * Convert the passed annotations to a binary encoded byte array
 	 * @param dto
-	 * @return compressed annotations
+	 * @return encoded annotations
 	 * @throws IOException
 	 */
 	public static byte[] compressAnnotationsV1(Annotations dto) throws IOException{
-		return JDOSecondaryPropertyUtils.compressObject(X_STREAM, dto == null || dto.isEmpty() ? null : dto);
+		return JDOSecondaryPropertyUtils.encodeObject(CODEC, dto == null || dto.isEmpty() ? null : dto);
 	}
 
 	/**
-	 * Read the compressed (zip) byte array into the Annotations.
+	 * Read the encoded byte array into the Annotations. Both the binary encoding
+	 * and the compressed (zip) XML written by earlier versions are supported.
 	 * @param zippedBytes
 	 * @return the resurrected Annotations
 	 * @throws IOException
 	 */
 	public static Annotations decompressedAnnotationsV1(byte[] zippedBytes) throws IOException{
-		Object o = JDOSecondaryPropertyUtils.decompressObject(X_STREAM, zippedBytes);
-		if (o==null) return new Annotations();
-		return (Annotations) o;
+		Annotations annos = JDOSecondaryPropertyUtils.decodeObject(CODEC, X_STREAM, zippedBytes);
+		if (annos==null) return new Annotations();
+		return annos;
+	}
+
+	/**
+	 * Re-encode annotations written by an earlier version.
+	 * @param bytes
+	 * @return empty if the bytes are already encoded with the current version.
+	 * @throws IOException
+	 */
+	public static Optional<byte[]> reencodeAnnotationsV1(byte[] bytes) throws IOException{
+		return JDOSecondaryPropertyUtils.reencodeObject(CODEC, X_STREAM, bytes);
 	}
 
 
@@ -0,0 +1,85 @@
+package org.sagebionetworks.repo.model.jdo;
+
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.readSize;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.readString;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.writeSize;
+import static org.sagebionetworks.repo.model.jdo.BinaryPropertyIO.writeString;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.sagebionetworks.repo.model.Annotations;
+
+/**
+ * Binary codec for the V1 {@link Annotations} of an entity. The id and etag
+ * are not written. Each of the five maps is written as its size followed by
+ * each key and its list of values.
+ *
+ */
+class AnnotationsV1Codec implements BinaryPropertyCodec<Annotations> {
+
+	static final byte VERSION = 1;
+
+	@Override
+	public byte getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public void write(Annotations value, DataOutput out) throws IOException {
+		writeMap(out, value.getStringAnnotations(), BinaryPropertyIO::writeString);
+		writeMap(out, value.getDoubleAnnotations(), BinaryPropertyIO::writeDouble);
+		writeMap(out, value.getLongAnnotations(), BinaryPropertyIO::writeLong);
+		writeMap(out, value.getDateAnnotations(), BinaryPropertyIO::writeDate);
+		writeMap(out, value.getBlobAnnotations(), BinaryPropertyIO::writeBytes);
+	}
+
+	@Override
+	public Annotations read(DataInput in, byte version) throws IOException {
+		Annotations annos = new Annotations();
+		readMap(in, annos.getStringAnnotations(), BinaryPropertyIO::readString);
+		readMap(in, annos.getDoubleAnnotations(), BinaryPropertyIO::readDouble);
+		readMap(in, annos.getLongAnnotations(), BinaryPropertyIO::readLong);
+		readMap(in, annos.getDateAnnotations(), BinaryPropertyIO::readDate);
+		readMap(in, annos.getBlobAnnotations(), BinaryPropertyIO::readBytes);
+		return annos;
+	}
+
+	static <V> void writeMap(DataOutput out, Map<String, List<V>> map, BinaryValueWriter<V> writer) throws IOException {
+		// null and empty maps are read back as empty maps.
+		writeSize(out, map == null ? 0 : map.size());
+		if (map == null) {
+			return;
+		}
+		for (Map.Entry<String, List<V>> entry : map.entrySet()) {
+			writeString(out, entry.getKey());
+			List<V> values = entry.getValue();
+			writeSize(out, values == null ? null : values.size());
+			if (values != null) {
+				for (V value : values) {
+					writer.write(out, value);
+				}
+			}
+		}
+	}
+
+	static <V> void readMap(DataInput in, Map<String, List<V>> map, BinaryValueReader<V> reader) throws IOException {
+		int size = readSize(in);
+		for (int i = 0; i < size; i++) {
+			String key = readString(in);
+			Integer valueCount = readSize(in);
+			List<V> values = null;
+			if (valueCount != null) {
+				values = new ArrayList<>(valueCount);
+				for (int j = 0; j < valueCount; j++) {
+					values.add(reader.read(in));
+				}
+			}
+			map.put(key, values);
+		}
+	}
+}
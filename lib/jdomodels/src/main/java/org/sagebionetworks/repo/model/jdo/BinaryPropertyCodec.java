@@ -0,0 +1,45 @@
+package org.sagebionetworks.repo.model.jdo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A versioned binary encoding of a secondary property blob. Used with
+ * {@link JDOSecondaryPropertyUtils#encodeObject(BinaryPropertyCodec, Object)}
+ * and
+ * {@link JDOSecondaryPropertyUtils#decodeObject(BinaryPropertyCodec, org.sagebionetworks.repo.model.UnmodifiableXStream, byte[])}
+ * which add and check the header of each blob.
+ * <p>
+ * The version must be incremented whenever the layout written by
+ * {@link #write(Object, DataOutput)} changes, and {@link #read(DataInput, byte)}
+ * must continue to read every earlier version.
+ *
+ * @param <T>
+ */
+public interface BinaryPropertyCodec<T> {
+
+	/**
+	 * @return The version of the layout written by this codec.
+	 */
+	byte getVersion();
+
+	/**
+	 * Write the given value.
+	 *
+	 * @param value Never null.
+	 * @param out
+	 * @throws IOException
+	 */
+	void write(T value, DataOutput out) throws IOException;
+
+	/**
+	 * Read a value that was written with the given version of this codec.
+	 *
+	 * @param in
+	 * @param version
+	 * @return
+	 * @throws IOException
+	 */
+	T read(DataInput in, byte version) throws IOException;
+}
@@ -0,0 +1,150 @@
+package org.sagebionetworks.repo.model.jdo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Helpers for writing and reading the nullable values of a
+ * {@link BinaryPropertyCodec}. Lengths and longs are written as variable
+ * length integers, so small values take a single byte.
+ *
+ */
+public class BinaryPropertyIO {
+
+	/**
+	 * Write a size that may be null, such as the size of a null collection.
+	 *
+	 * @param out
+	 * @param size Null or at least zero.
+	 * @throws IOException
+	 */
+	public static void writeSize(DataOutput out, Integer size) throws IOException {
+		writeVarLong(out, size == null ? 0L : size + 1L);
+	}
+
+	/**
+	 * @param in
+	 * @return Null if a null size was written.
+	 * @throws IOException
+	 */
+	public static Integer readSize(DataInput in) throws IOException {
+		long value = readVarLong(in);
+		if (value == 0L) {
+			return null;
+		}
+		if (value - 1L > Integer.MAX_VALUE) {
+			throw new IOException("Size out of range: " + (value - 1L));
+		}
+		return (int) (value - 1L);
+	}
+
+	public static void writeString(DataOutput out, String value) throws IOException {
+		writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static String readString(DataInput in) throws IOException {
+		byte[] bytes = readBytes(in);
+		return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	public static void writeBytes(DataOutput out, byte[] value) throws IOException {
+		writeSize(out, value == null ? null : value.length);
+		if (value != null) {
+			out.write(value);
+		}
+	}
+
+	public static byte[] readBytes(DataInput in) throws IOException {
+		Integer size = readSize(in);
+		if (size == null) {
+			return null;
+		}
+		byte[] bytes = new byte[size];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	public static void writeLong(DataOutput out, Long value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			// zig-zag so small negative numbers are also short.
+			writeVarLong(out, (value << 1) ^ (value >> 63));
+		}
+	}
+
+	public static Long readLong(DataInput in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		long value = readVarLong(in);
+		return (value >>> 1) ^ -(value & 1L);
+	}
+
+	public static void writeDouble(DataOutput out, Double value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeDouble(value);
+		}
+	}
+
+	public static Double readDouble(DataInput in) throws IOException {
+		return in.readBoolean() ? in.readDouble() : null;
+	}
+
+	public static void writeBoolean(DataOutput out, Boolean value) throws IOException {
+		out.writeByte(value == null ? 0 : value ? 2 : 1);
+	}
+
+	public static Boolean readBoolean(DataInput in) throws IOException {
+		byte value = in.readByte();
+		switch (value) {
+		case 0:
+			return null;
+		case 1:
+			return false;
+		case 2:
+			return true;
+		default:
+			throw new IOException("Unknown boolean value: " + value);
+		}
+	}
+
+	public static void writeDate(DataOutput out, Date value) throws IOException {
+		writeLong(out, value == null ? null : value.getTime());
+	}
+
+	public static Date readDate(DataInput in) throws IOException {
+		Long time = readLong(in);
+		return time == null ? null : new Date(time);
+	}
+
+	/**
+	 * Write an unsigned variable length integer, seven bits per byte.
+	 *
+	 * @param out
+	 * @param value
+	 * @throws IOException
+	 */
+	static void writeVarLong(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0L) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	static long readVarLong(DataInput in) throws IOException {
+		long value = 0L;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+}
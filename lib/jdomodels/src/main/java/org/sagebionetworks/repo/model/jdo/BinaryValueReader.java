@@ -0,0 +1,16 @@
+package org.sagebionetworks.repo.model.jdo;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Reads a single value written by a {@link BinaryValueWriter}, usually one of
+ * the read methods of {@link BinaryPropertyIO}.
+ *
+ * @param <V>
+ */
+@FunctionalInterface
+public interface BinaryValueReader<V> {
+
+	V read(DataInput in) throws IOException;
+}
@@ -0,0 +1,16 @@
+package org.sagebionetworks.repo.model.jdo;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes a single value of a {@link BinaryPropertyCodec}, usually one of the
+ * write methods of {@link BinaryPropertyIO}.
+ *
+ * @param <V>
+ */
+@FunctionalInterface
+public interface BinaryValueWriter<V> {
+
+	void write(DataOutput out, V value) throws IOException;
+}
@@ -2,12 +2,15 @@ package org.sagebionetworks.repo.model.jdo;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.Optional;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -22,6 +25,12 @@ import org.sagebionetworks.repo.model.UnmodifiableXStream;
 public class JDOSecondaryPropertyUtils {
 
 	public static final Charset UTF8 = Charset.forName("UTF-8");
+	/**
+	 * The first bytes of every blob written by
+	 * {@link #encodeObject(BinaryPropertyCodec, Object)}. A GZIP stream always
+	 * starts with 0x1F 0x8B, so the two encodings cannot be confused.
+	 */
+	public static final byte[] BINARY_HEADER = new byte[] { 'S', 'B' };
 
 	/**
 	 * Compresses the dto into compressed XML bytes using the provided customXStream
@@ -58,4 +67,82 @@ public class JDOSecondaryPropertyUtils {
 			return customXStream.fromXML(unZipper);
 		}
 	}
+
+	/**
+	 * Encode the dto with the given binary codec. The result starts with
+	 * {@link #BINARY_HEADER} followed by the version of the codec.
+	 * 
+	 * @param codec
+	 * @param dto
+	 * @return null if the dto is null.
+	 * @throws IOException
+	 */
+	public static <T> byte[] encodeObject(BinaryPropertyCodec<T> codec, T dto) throws IOException {
+		if (dto == null) {
+			return null;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(out);
+		data.write(BINARY_HEADER);
+		data.writeByte(codec.getVersion());
+		codec.write(dto, data);
+		data.flush();
+		return out.toByteArray();
+	}
+
+	/**
+	 * Decode bytes written by either {@link #encodeObject(BinaryPropertyCodec, Object)}
+	 * or {@link #compressObject(UnmodifiableXStream, Object)}, so that blobs
+	 * written before the binary codec are still readable.
+	 * 
+	 * @param codec
+	 * @param legacyXStream Used to read compressed XML.
+	 * @param bytes
+	 * @return null if the bytes are null.
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T decodeObject(BinaryPropertyCodec<T> codec, UnmodifiableXStream legacyXStream, byte[] bytes) throws IOException {
+		if (bytes == null) {
+			return null;
+		}
+		if (!isBinaryEncoding(bytes)) {
+			return (T) decompressObject(legacyXStream, bytes);
+		}
+		DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(bytes, BINARY_HEADER.length, bytes.length - BINARY_HEADER.length));
+		byte version = in.readByte();
+		if (version < 1 || version > codec.getVersion()) {
+			throw new IOException("Unknown codec version: " + version);
+		}
+		return codec.read(in, version);
+	}
+
+	/**
+	 * Re-encode a blob with the current version of the given codec. Used to
+	 * rewrite existing rows in the background.
+	 * 
+	 * @param codec
+	 * @param legacyXStream
+	 * @param bytes
+	 * @return The re-encoded bytes, or empty if the bytes are null or already
+	 *         use the current version of the codec.
+	 * @throws IOException
+	 */
+	public static <T> Optional<byte[]> reencodeObject(BinaryPropertyCodec<T> codec, UnmodifiableXStream legacyXStream, byte[] bytes) throws IOException {
+		if (bytes == null || (isBinaryEncoding(bytes) && bytes[BINARY_HEADER.length] == codec.getVersion())) {
+			return Optional.empty();
+		}
+		return Optional.of(encodeObject(codec, decodeObject(codec, legacyXStream, bytes)));
+	}
+
+	/**
+	 * @param bytes
+	 * @return True if the bytes were written by
+	 *         {@link #encodeObject(BinaryPropertyCodec, Object)}.
+	 */
+	public static boolean isBinaryEncoding(byte[] bytes) {
+		return bytes != null && bytes.length > BINARY_HEADER.length && bytes[0] == BINARY_HEADER[0]
+				&& bytes[1] == BINARY_HEADER[1];
+	}
 }
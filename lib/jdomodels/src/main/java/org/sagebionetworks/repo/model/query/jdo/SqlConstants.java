@@ -262,6 +262,22 @@ public class SqlConstants {
 	public static final String COL_CHANGES_USER_ID					= "USER_ID";
 	public static final String DDL_CHANGES							= "schema/Changes-ddl.sql";
 	
+	// Entity hierarchy change checkpoints
+	public static final String TABLE_ENTITY_HIERARCHY_CHECKPOINT				= "ENTITY_HIERARCHY_CHECKPOINT";
+	public static final String COL_ENTITY_HIERARCHY_CHECKPOINT_ROOT_ID			= "ROOT_ID";
+	public static final String COL_ENTITY_HIERARCHY_CHECKPOINT_CONTAINER_ID		= "CONTAINER_ID";
+	public static final String COL_ENTITY_HIERARCHY_CHECKPOINT_CHANGE_NUM		= "CHANGE_NUM";
+	public static final String COL_ENTITY_HIERARCHY_CHECKPOINT_LAST_CHILD_ID	= "LAST_CHILD_ID";
+	public static final String COL_ENTITY_HIERARCHY_CHECKPOINT_UPDATED_ON		= "UPDATED_ON";
+	public static final String DDL_ENTITY_HIERARCHY_CHECKPOINT					= "schema/EntityHierarchyCheckpoint-ddl.sql";
+	
+	// Progress of the rewrite of compressed secondary property blobs
+	public static final String TABLE_BINARY_PROPERTY_REWRITE					= "BINARY_PROPERTY_REWRITE";
+	public static final String COL_BINARY_PROPERTY_REWRITE_TYPE				= "TYPE";
+	public static final String COL_BINARY_PROPERTY_REWRITE_NEXT_ID			= "NEXT_ID";
+	public static final String COL_BINARY_PROPERTY_REWRITE_UPDATED_ON		= "UPDATED_ON";
+	public static final String DDL_BINARY_PROPERTY_REWRITE					= "schema/BinaryPropertyRewrite-ddl.sql";
+	
 	// Sent messages
 	public static final String TABLE_SENT_MESSAGES					= "SENT_MESSAGES";
 	public static final String COL_SENT_MESSAGES_CHANGE_NUM			= "CHANGE_NUM";
@@ -551,6 +567,9 @@ public class SqlConstants {
 	public static final String COL_TABLE_ROW_TRX_ID			= "TRX_ID";
 	public static final String COL_TABLE_ROW_HAS_FILE_REFS	= "HAS_FILE_REFS";
 	public static final String COL_TABLE_ROW_SEARCH_ENABLED	= "SEARCH_ENABLED";
+	public static final String COL_TABLE_ROW_ID_MIN			= "ROW_ID_MIN";
+	public static final String COL_TABLE_ROW_ID_MAX			= "ROW_ID_MAX";
+	public static final String COL_TABLE_ROW_ID_FILTER		= "ROW_ID_FILTER";
 	public static final String DDL_TABLE_ROW_CHANGE = "schema/TableRowChange-ddl.sql";
 	
 	// Tracks view scope.
@@ -732,6 +751,30 @@ public class SqlConstants {
 	public static final String COL_DOWNLOAD_LIST_ITEM_V2_ADDED_ON		= "ADDED_ON";
 	public static final String DDL_DOWNLOAD_LIST_ITEM_V2				= "schema/DownloadListItem-V2-ddl.sql";
 	
+	// Download list snapshot.
+	public static final String TABLE_DOWNLOAD_LIST_SNAPSHOT_V2				= "DOWNLOAD_LIST_SNAPSHOT_V2";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_V2_PRINCIPAL_ID	= "PRINCIPAL_ID";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_V2_TYPE			= "SNAPSHOT_TYPE";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_V2_LIST_ETAG		= "LIST_ETAG";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_V2_CREATED_ON		= "CREATED_ON";
+	public static final String DDL_DOWNLOAD_LIST_SNAPSHOT_V2				= "schema/DownloadListSnapshot-V2-ddl.sql";
+	
+	// Download list snapshot file.
+	public static final String TABLE_DOWNLOAD_LIST_SNAPSHOT_FILE_V2					= "DOWNLOAD_LIST_SNAPSHOT_FILE_V2";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_PRINCIPAL_ID		= "PRINCIPAL_ID";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_TYPE				= "SNAPSHOT_TYPE";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_ENTITY_ID			= "ENTITY_ID";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2_IS_AVAILABLE		= "IS_AVAILABLE";
+	public static final String DDL_DOWNLOAD_LIST_SNAPSHOT_FILE_V2					= "schema/DownloadListSnapshotFile-V2-ddl.sql";
+	
+	// Download list snapshot action.
+	public static final String TABLE_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2				= "DOWNLOAD_LIST_SNAPSHOT_ACTION_V2";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_PRINCIPAL_ID	= "PRINCIPAL_ID";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_FILE_ID			= "FILE_ID";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_TYPE		= "ACTION_TYPE";
+	public static final String COL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2_ACTION_ID		= "ACTION_ID";
+	public static final String DDL_DOWNLOAD_LIST_SNAPSHOT_ACTION_V2					= "schema/DownloadListSnapshotAction-V2-ddl.sql";
+	
 	// Data type
 	public static final String TABLE_DATA_TYPE				= "DATA_TYPE";
 	public static final String COL_DATA_TYPE_ID 			= "ID";
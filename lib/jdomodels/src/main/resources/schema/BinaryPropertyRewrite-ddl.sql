@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS `BINARY_PROPERTY_REWRITE` (
+  `TYPE` ENUM('ENTITY_PROPERTY_ANNOTATIONS', 'SUBMISSION_STATUS', 'SUBMISSION_QUOTA') NOT NULL,
+  `NEXT_ID` BIGINT NOT NULL,
+  `UPDATED_ON` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`TYPE`)
+)
\ No newline at end of file
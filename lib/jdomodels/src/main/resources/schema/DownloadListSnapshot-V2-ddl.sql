@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS `DOWNLOAD_LIST_SNAPSHOT_V2` (
+  `PRINCIPAL_ID` BIGINT NOT NULL,
+  `SNAPSHOT_TYPE` ENUM('AVAILABLE', 'ACTION_REQUIRED') NOT NULL,
+  `LIST_ETAG` char(36) NULL,
+  `CREATED_ON` TIMESTAMP(3) NOT NULL,
+  PRIMARY KEY (`PRINCIPAL_ID`, `SNAPSHOT_TYPE`),
+  CONSTRAINT FOREIGN KEY (`PRINCIPAL_ID`) REFERENCES `DOWNLOAD_LIST_V2` (`PRINCIPAL_ID`) ON DELETE CASCADE
+)
\ No newline at end of file
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS `DOWNLOAD_LIST_SNAPSHOT_ACTION_V2` (
+  `PRINCIPAL_ID` BIGINT NOT NULL,
+  `FILE_ID` BIGINT NOT NULL,
+  `ACTION_TYPE` ENUM('ACCESS_REQUIREMENT', 'DOWNLOAD_PERMISSION') NOT NULL,
+  `ACTION_ID` BIGINT NOT NULL,
+  PRIMARY KEY (`PRINCIPAL_ID`, `FILE_ID`, `ACTION_TYPE`, `ACTION_ID`),
+  INDEX (`FILE_ID`),
+  CONSTRAINT FOREIGN KEY (`PRINCIPAL_ID`) REFERENCES `DOWNLOAD_LIST_V2` (`PRINCIPAL_ID`) ON DELETE CASCADE
+)
\ No newline at end of file
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS `DOWNLOAD_LIST_SNAPSHOT_FILE_V2` (
+  `PRINCIPAL_ID` BIGINT NOT NULL,
+  `SNAPSHOT_TYPE` ENUM('AVAILABLE', 'ACTION_REQUIRED') NOT NULL,
+  `ENTITY_ID` BIGINT NOT NULL,
+  `IS_AVAILABLE` BOOLEAN NOT NULL,
+  PRIMARY KEY (`PRINCIPAL_ID`, `SNAPSHOT_TYPE`, `ENTITY_ID`),
+  INDEX (`ENTITY_ID`),
+  CONSTRAINT FOREIGN KEY (`PRINCIPAL_ID`) REFERENCES `DOWNLOAD_LIST_V2` (`PRINCIPAL_ID`) ON DELETE CASCADE
+)
\ No newline at end of file
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS `ENTITY_HIERARCHY_CHECKPOINT` (
+  `ROOT_ID` BIGINT NOT NULL,
+  `CHANGE_NUM` BIGINT NOT NULL,
+  `CONTAINER_ID` BIGINT NOT NULL,
+  `LAST_CHILD_ID` BIGINT NOT NULL,
+  `UPDATED_ON` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`ROOT_ID`, `CHANGE_NUM`, `CONTAINER_ID`),
+  INDEX `ENTITY_HIERARCHY_CHECKPOINT_UPDATED_ON_INDEX` (`UPDATED_ON`)
+)
\ No newline at end of file
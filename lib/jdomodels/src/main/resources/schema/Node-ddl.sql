@@ -13,6 +13,7 @@ CREATE TABLE IF NOT EXISTS `JDONODE` (
   UNIQUE KEY `NODE_UNIQUE_CHILD_NAME` (`PARENT_ID`,`NAME`),
   INDEX `NODE_TYPE` (`NODE_TYPE`),
   INDEX `NODE_PARENT_TYPE` (`PARENT_ID`,`NODE_TYPE`),
+  INDEX `NODE_PARENT_ID` (`PARENT_ID`,`ID`),
   INDEX `NODE_NAME_INDEX` (`NAME` ASC),
   UNIQUE KEY `NODE_UNIQUE_ALIAS` (`ALIAS`),
   CONSTRAINT `NODE_PARENT_FK` FOREIGN KEY (`PARENT_ID`) REFERENCES `JDONODE` (`ID`) ON DELETE CASCADE,
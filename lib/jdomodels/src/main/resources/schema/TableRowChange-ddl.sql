@@ -12,6 +12,9 @@ CREATE TABLE IF NOT EXISTS `TABLE_ROW_CHANGE` (
   `TRX_ID` BIGINT DEFAULT NULL,
   `HAS_FILE_REFS` BOOLEAN NOT NULL,
   `SEARCH_ENABLED` BOOLEAN DEFAULT NULL,
+  `ROW_ID_MIN` BIGINT DEFAULT NULL,
+  `ROW_ID_MAX` BIGINT DEFAULT NULL,
+  `ROW_ID_FILTER` MEDIUMBLOB DEFAULT NULL,
   PRIMARY KEY (`ID`),
   UNIQUE (`TABLE_ID`,`ROW_VERSION`),
   KEY `TRC_ETAG_INDEX` (`ETAG`),
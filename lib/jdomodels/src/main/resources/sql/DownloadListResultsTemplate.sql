@@ -1,6 +1,7 @@
 /*
-* This SQL template requires that a temporary table exists that contains only the files from the user's download
-* that the user has full download access to.  The temporary table is given the alias 'U'.  The temporary table 'U'
+* This SQL template requires a table (either a temporary table or a derived table of the user's availability snapshot)
+* that contains only the files from the user's download that the user has full download access to.  The table is given
+* the alias 'U'.  The table 'U'
 * drives the recursive query to lookup the project that each file belongs, and to gather basic information about
 * each entity to generate the PRO table.
 * Next we need to gather the file's size by joining with the FILES table.  However, since an item on a user's
@@ -17,7 +18,7 @@ WITH
 	PRO AS (
 		WITH RECURSIVE PRO (ENTITY_ID, ENTITY_NAME, CREATED_BY, CREATED_ON, PROJECT_ID, PROJECT_NAME, NODE_TYPE, PARENT_ID, DEPTH) AS (
 			SELECT N.ID, N.NAME, N.CREATED_BY, N.CREATED_ON, N.ID, N.NAME, N.NODE_TYPE, N.PARENT_ID, 1 AS DEPTH 
-				FROM %S U JOIN JDONODE N ON (U.ENTITY_ID = N.ID)
+				FROM %s U JOIN JDONODE N ON (U.ENTITY_ID = N.ID)
 			UNION DISTINCT 
             SELECT PRO.ENTITY_ID, PRO.ENTITY_NAME, PRO.CREATED_BY, PRO.CREATED_ON, N.ID, N.NAME, N.NODE_TYPE, N.PARENT_ID, PRO.DEPTH + 1 AS DEPTH FROM
 				PRO JOIN JDONODE N ON (PRO.PARENT_ID = N.ID) WHERE PRO.NODE_TYPE <> 'project' AND PRO.DEPTH < :depth
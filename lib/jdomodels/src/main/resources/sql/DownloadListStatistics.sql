@@ -23,4 +23,4 @@ SELECT
 	SUM(F.CONTENT_SIZE) AS SUM_AVAIABLE_SIZE,
     (SELECT TOTAL_FILE_COUNT FROM TOTAL) AS TOTAL_FILE_COUNT,
     COUNT( CASE WHEN F.METADATA_TYPE = 'S3' AND F.CONTENT_SIZE <= :maxEligibleSize THEN 1 ELSE NULL END) AS ELIGIBLE_FOR_PACKAGING_COUNT
-	FROM %S T JOIN VER_U ON (T.ENTITY_ID = VER_U.ENTITY_ID) JOIN FILES F ON (VER_U.FILE_HANDLE_ID = F.ID)
\ No newline at end of file
+	FROM %s T JOIN VER_U ON (T.ENTITY_ID = VER_U.ENTITY_ID) JOIN FILES F ON (VER_U.FILE_HANDLE_ID = F.ID)
\ No newline at end of file
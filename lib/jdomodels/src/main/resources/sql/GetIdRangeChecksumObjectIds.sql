@@ -0,0 +1,9 @@
+SELECT 
+ N.ID DIV :bucketSize AS BUCKET,
+ COUNT(*) AS ROW_COUNT,
+ SUM(CRC32(CONCAT(':salt','-',N.ETAG,'-',R.NUMBER,'-',getEntityBenefactorId(N.ID)))) AS CHECK_SUM
+  FROM JDONODE N JOIN JDOREVISION R ON (N.ID = R.OWNER_NODE_ID)
+   WHERE N.ID IN (:objectIds) AND :trashId <> getEntityBenefactorId(N.ID)
+    AND N.ID >= :minId AND N.ID < :maxId
+   GROUP BY BUCKET
+    ORDER BY BUCKET ASC
\ No newline at end of file
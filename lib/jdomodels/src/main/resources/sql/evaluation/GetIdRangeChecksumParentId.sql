@@ -0,0 +1,7 @@
+SELECT 
+S.ID DIV :bucketSize AS BUCKET,
+ COUNT(*) AS ROW_COUNT,
+ SUM(CRC32(CONCAT(':salt','-',R.ETAG,'-',R.SUBSTATUS_VERSION,'-',S.EVALUATION_ID))) AS CHECK_SUM
+	FROM JDOSUBMISSION S
+	 INNER JOIN JDOSUBMISSION_STATUS R ON (S.ID = R.ID) 
+	 WHERE S.EVALUATION_ID IN (:evaluationIds) AND S.ID >= :minId AND S.ID < :maxId GROUP BY BUCKET ORDER BY BUCKET ASC
\ No newline at end of file
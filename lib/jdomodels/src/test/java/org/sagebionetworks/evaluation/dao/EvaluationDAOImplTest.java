@@ -6,6 +6,9 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_ID;
+import static org.sagebionetworks.repo.model.query.SQLConstants.COL_EVALUATION_QUOTA;
+import static org.sagebionetworks.repo.model.query.SQLConstants.TABLE_EVALUATION;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -36,9 +39,12 @@ import org.sagebionetworks.repo.model.DatastoreException;
 import org.sagebionetworks.repo.model.NameConflictException;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.ResourceAccess;
+import org.sagebionetworks.repo.model.UnmodifiableXStream;
+import org.sagebionetworks.repo.model.jdo.JDOSecondaryPropertyUtils;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -57,6 +63,9 @@ public class EvaluationDAOImplTest {
 	@Autowired
 	private AccessControlListDAO aclDAO;
 
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	private String evaluationId;
 	private Evaluation eval;
 	private AccessControlList aclToDelete = null;
@@ -170,6 +179,29 @@ public class EvaluationDAOImplTest {
 		assertNull(evaluationDAO.lookupByName(updated.getName()));
 	}
 
+	@Test
+	public void testRewriteCompressedQuotas() throws Exception {
+		String evalId = evaluationDAO.create(eval, EVALUATION_OWNER_ID);
+		toDelete.add(evalId);
+		Long evalIdLong = Long.parseLong(evalId);
+		Evaluation expected = evaluationDAO.get(evalId);
+		// Write the quota as compressed XML as it was before the binary codec.
+		UnmodifiableXStream legacyXStream = UnmodifiableXStream.builder().allowTypes(SubmissionQuota.class).build();
+		byte[] legacy = JDOSecondaryPropertyUtils.compressObject(legacyXStream, eval.getQuota());
+		jdbcTemplate.update("UPDATE " + TABLE_EVALUATION + " SET " + COL_EVALUATION_QUOTA + " = ? WHERE "
+				+ COL_EVALUATION_ID + " = ?", legacy, evalIdLong);
+
+		// call under test
+		assertEquals(1L, evaluationDAO.rewriteCompressedQuotas(evalIdLong, evalIdLong + 1));
+
+		byte[] rewritten = jdbcTemplate.queryForObject("SELECT " + COL_EVALUATION_QUOTA + " FROM " + TABLE_EVALUATION
+				+ " WHERE " + COL_EVALUATION_ID + " = ?", byte[].class, evalIdLong);
+		assertTrue(JDOSecondaryPropertyUtils.isBinaryEncoding(rewritten));
+		assertEquals(expected, evaluationDAO.get(evalId));
+		// nothing left to rewrite
+		assertEquals(0L, evaluationDAO.rewriteCompressedQuotas(evalIdLong, evalIdLong + 1));
+	}
+
 	@Test
 	public void testGetAccessibleEvaluationsForProject() throws Exception {
 		Set<Long> principalIds = Collections.singleton(EVALUATION_OWNER_ID);
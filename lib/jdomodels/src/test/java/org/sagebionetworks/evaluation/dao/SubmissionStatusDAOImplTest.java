@@ -5,6 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.sagebionetworks.repo.model.query.SQLConstants.COL_SUBSTATUS_SERIALIZED_ENTITY;
+import static org.sagebionetworks.repo.model.query.SQLConstants.COL_SUBSTATUS_SUBMISSION_ID;
+import static org.sagebionetworks.repo.model.query.SQLConstants.TABLE_SUBSTATUS;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -31,10 +34,12 @@ import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2TestUtils;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2Utils;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsValueType;
 import org.sagebionetworks.repo.model.dbo.dao.TestUtils;
+import org.sagebionetworks.repo.model.jdo.JDOSecondaryPropertyUtils;
 import org.sagebionetworks.repo.model.jdo.NodeTestUtils;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -50,6 +55,8 @@ public class SubmissionStatusDAOImplTest {
     EvaluationDAO evaluationDAO;
 	@Autowired
 	NodeDAO nodeDAO;
+	@Autowired
+	JdbcTemplate jdbcTemplate;
  
 	private String nodeId;
 	private String userId;
@@ -271,6 +278,30 @@ public class SubmissionStatusDAOImplTest {
 		assertEquals("SubmissionStatus batch has no Submission Ids.", ex.getMessage());
     }
     
+    @Test
+    public void testRewriteCompressedSerializedEntities() throws Exception {
+    	String submissionId = submissionIds.get(0);
+    	Long submissionIdLong = Long.parseLong(submissionId);
+    	createStatus(submissionId);
+    	SubmissionStatus expected = submissionStatusDAO.get(submissionId);
+    	// Write the status as compressed XML as it was before the binary codec.
+    	SubmissionStatus serialized = submissionStatusDAO.get(submissionId);
+    	serialized.setSubmissionAnnotations(null);
+    	byte[] legacy = JDOSecondaryPropertyUtils.compressObject(SubmissionUtils.X_STREAM, serialized);
+    	jdbcTemplate.update("UPDATE " + TABLE_SUBSTATUS + " SET " + COL_SUBSTATUS_SERIALIZED_ENTITY + " = ? WHERE "
+    			+ COL_SUBSTATUS_SUBMISSION_ID + " = ?", legacy, submissionIdLong);
+    	
+    	// call under test
+    	assertEquals(1L, submissionStatusDAO.rewriteCompressedSerializedEntities(submissionIdLong, submissionIdLong + 1));
+    	
+    	byte[] rewritten = jdbcTemplate.queryForObject("SELECT " + COL_SUBSTATUS_SERIALIZED_ENTITY + " FROM "
+    			+ TABLE_SUBSTATUS + " WHERE " + COL_SUBSTATUS_SUBMISSION_ID + " = ?", byte[].class, submissionIdLong);
+    	assertTrue(JDOSecondaryPropertyUtils.isBinaryEncoding(rewritten));
+    	assertEquals(expected, submissionStatusDAO.get(submissionId));
+    	// nothing left to rewrite
+    	assertEquals(0L, submissionStatusDAO.rewriteCompressedSerializedEntities(submissionIdLong, submissionIdLong + 1));
+    }
+    
     // note: this updates 'orig', so the caller shouldn't use 'orig' after passing it to this method
     private static void compare(SubmissionStatus orig, SubmissionStatus retrieved) {
         assertFalse(orig.getEtag().equals(retrieved.getEtag()), "eTag was not updated.");
@@ -0,0 +1,115 @@
+package org.sagebionetworks.evaluation.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.evaluation.dbo.SubmissionStatusDBO;
+import org.sagebionetworks.evaluation.model.SubmissionStatus;
+import org.sagebionetworks.evaluation.model.SubmissionStatusEnum;
+import org.sagebionetworks.repo.model.annotation.Annotations;
+import org.sagebionetworks.repo.model.annotation.DoubleAnnotation;
+import org.sagebionetworks.repo.model.annotation.LongAnnotation;
+import org.sagebionetworks.repo.model.annotation.StringAnnotation;
+import org.sagebionetworks.repo.model.jdo.AllPropertiesUtil;
+import org.sagebionetworks.repo.model.jdo.JDOSecondaryPropertyUtils;
+
+public class SubmissionUtilsTest {
+
+	private SubmissionStatus status;
+
+	@BeforeEach
+	public void before() {
+		Annotations annos = new Annotations();
+		annos.setObjectId("123");
+		annos.setScopeId("456");
+		annos.setVersion(7L);
+		annos.setStringAnnos(Arrays.asList(new StringAnnotation().setKey("s").setIsPrivate(true).setValue("value"),
+				new StringAnnotation().setKey("empty").setIsPrivate(false)));
+		annos.setLongAnnos(Arrays.asList(new LongAnnotation().setKey("l").setIsPrivate(false).setValue(-1L)));
+		annos.setDoubleAnnos(new ArrayList<>());
+
+		status = new SubmissionStatus();
+		status.setId("123");
+		status.setEtag("etag");
+		status.setModifiedOn(new Date(1234567L));
+		status.setStatus(SubmissionStatusEnum.SCORED);
+		status.setScore(0.5);
+		status.setReport("report");
+		status.setAnnotations(annos);
+		status.setEntityId("syn789");
+		status.setVersionNumber(3L);
+		status.setStatusVersion(9L);
+		status.setCanCancel(true);
+		status.setCancelRequested(false);
+	}
+
+	@Test
+	public void testSerializedFieldRoundTrip() {
+		org.sagebionetworks.repo.model.annotation.v2.Annotations submissionAnnotations = new org.sagebionetworks.repo.model.annotation.v2.Annotations();
+		status.setSubmissionAnnotations(submissionAnnotations);
+		SubmissionStatusDBO dbo = new SubmissionStatusDBO();
+		// call under test
+		SubmissionUtils.copyToSerializedField(status, dbo);
+		assertTrue(JDOSecondaryPropertyUtils.isBinaryEncoding(dbo.getSerializedEntity()));
+		// the submission annotations are put back on the DTO.
+		assertEquals(submissionAnnotations, status.getSubmissionAnnotations());
+		// call under test
+		SubmissionStatus result = SubmissionUtils.copyFromSerializedField(dbo);
+		assertNull(result.getSubmissionAnnotations());
+		status.setSubmissionAnnotations(null);
+		assertEquals(status, result);
+	}
+
+	/**
+	 * A property added to SubmissionStatus must also be added to
+	 * SubmissionStatusCodec.
+	 */
+	@Test
+	public void testSerializedFieldRoundTripWithAllProperties() {
+		// the submission annotations are stored in their own table.
+		SubmissionStatus full = AllPropertiesUtil.createWithAllProperties(SubmissionStatus.class, "submissionAnnotations");
+		SubmissionStatusDBO dbo = new SubmissionStatusDBO();
+		// call under test
+		SubmissionUtils.copyToSerializedField(full, dbo);
+		assertEquals(full, SubmissionUtils.copyFromSerializedField(dbo));
+	}
+
+	@Test
+	public void testSerializedFieldRoundTripWithNulls() {
+		SubmissionStatus empty = new SubmissionStatus();
+		SubmissionStatusDBO dbo = new SubmissionStatusDBO();
+		// call under test
+		SubmissionUtils.copyToSerializedField(empty, dbo);
+		assertEquals(empty, SubmissionUtils.copyFromSerializedField(dbo));
+	}
+
+	@Test
+	public void testCopyFromSerializedFieldWithLegacyXML() throws Exception {
+		SubmissionStatusDBO dbo = new SubmissionStatusDBO();
+		dbo.setSerializedEntity(JDOSecondaryPropertyUtils.compressObject(SubmissionUtils.X_STREAM, status));
+		// call under test
+		assertEquals(status, SubmissionUtils.copyFromSerializedField(dbo));
+	}
+
+	@Test
+	public void testBinaryEncodingSize() throws Exception {
+		byte[] xml = JDOSecondaryPropertyUtils.compressObject(SubmissionUtils.X_STREAM, status);
+		// call under test
+		SubmissionStatusDBO dbo = serialize(status);
+		assertTrue(dbo.getSerializedEntity().length < xml.length);
+		assertEquals(status, SubmissionUtils.copyFromSerializedField(dbo));
+	}
+
+	private static SubmissionStatusDBO serialize(SubmissionStatus dto) {
+		SubmissionStatusDBO dbo = new SubmissionStatusDBO();
+		SubmissionUtils.copyToSerializedField(dto, dbo);
+		return dbo;
+	}
+}
@@ -1,12 +1,15 @@
 package org.sagebionetworks.evaluation.dbo;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Date;
 
 import org.junit.jupiter.api.Test;
 import org.sagebionetworks.evaluation.model.Evaluation;
 import org.sagebionetworks.evaluation.model.SubmissionQuota;
+import org.sagebionetworks.repo.model.jdo.AllPropertiesUtil;
+import org.sagebionetworks.repo.model.jdo.JDOSecondaryPropertyUtils;
 
 public class EvaluationDBOUtilTest {
     
@@ -48,4 +51,70 @@ public class EvaluationDBOUtilTest {
     	assertEquals(firstRoundStart.getTime()+60000L*100L, evalDBO.getEndTimestamp());
     	
     }
+    
+    @Test
+    public void testQuotaBinaryEncoding() throws Exception {
+    	Evaluation evalDTO = createEvaluation();
+    	SubmissionQuota quota = new SubmissionQuota();
+    	quota.setSubmissionLimit(10L);
+    	quota.setFirstRoundStart(new Date(123456L));
+    	quota.setNumberOfRounds(100L);
+    	quota.setRoundDurationMillis(60000L);
+    	evalDTO.setQuota(quota);
+    	EvaluationDBO evalDBO = new EvaluationDBO();
+    	
+    	// method under test
+    	EvaluationDBOUtil.copyDtoToDbo(evalDTO, evalDBO);
+    	
+    	assertTrue(JDOSecondaryPropertyUtils.isBinaryEncoding(evalDBO.getQuota()));
+    	Evaluation evalDTOclone = new Evaluation();
+    	EvaluationDBOUtil.copyDboToDto(evalDBO, evalDTOclone);
+    	assertEquals(quota, evalDTOclone.getQuota());
+    }
+    
+    /**
+     * A property added to SubmissionQuota must also be added to
+     * SubmissionQuotaCodec.
+     */
+    @Test
+    public void testQuotaBinaryEncodingWithAllProperties() throws Exception {
+    	Evaluation evalDTO = createEvaluation();
+    	SubmissionQuota quota = AllPropertiesUtil.createWithAllProperties(SubmissionQuota.class);
+    	evalDTO.setQuota(quota);
+    	EvaluationDBO evalDBO = new EvaluationDBO();
+    	
+    	// method under test
+    	EvaluationDBOUtil.copyDtoToDbo(evalDTO, evalDBO);
+    	
+    	Evaluation evalDTOclone = new Evaluation();
+    	EvaluationDBOUtil.copyDboToDto(evalDBO, evalDTOclone);
+    	assertEquals(quota, evalDTOclone.getQuota());
+    }
+    
+    @Test
+    public void testQuotaLegacyXML() throws Exception {
+    	SubmissionQuota quota = new SubmissionQuota();
+    	quota.setSubmissionLimit(10L);
+    	quota.setFirstRoundStart(new Date(123456L));
+    	EvaluationDBO evalDBO = new EvaluationDBO();
+    	EvaluationDBOUtil.copyDtoToDbo(createEvaluation(), evalDBO);
+    	evalDBO.setQuota(JDOSecondaryPropertyUtils.compressObject(EvaluationDBOUtil.X_STREAM, quota));
+    	Evaluation evalDTO = new Evaluation();
+    	
+    	// method under test
+    	EvaluationDBOUtil.copyDboToDto(evalDBO, evalDTO);
+    	
+    	assertEquals(quota, evalDTO.getQuota());
+    }
+    
+    private static Evaluation createEvaluation() {
+    	Evaluation evalDTO = new Evaluation();
+    	evalDTO.setContentSource("syn123");
+    	evalDTO.setCreatedOn(new Date());
+    	evalDTO.setEtag("eTag");
+    	evalDTO.setId("123");
+    	evalDTO.setName("name");
+    	evalDTO.setOwnerId("456");
+    	return evalDTO;
+    }
 }
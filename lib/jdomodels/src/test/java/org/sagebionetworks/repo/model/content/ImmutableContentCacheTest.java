@@ -0,0 +1,165 @@
+package org.sagebionetworks.repo.model.content;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.content.ImmutableContentCache.ContentLoader;
+
+public class ImmutableContentCacheTest {
+
+	private CompressedContent one;
+	private CompressedContent two;
+	private CompressedContent three;
+	private AtomicInteger loadCount;
+	private ImmutableContentCache cache;
+
+	@BeforeEach
+	public void before() throws IOException {
+		one = compress("one");
+		two = compress("two");
+		three = compress("three");
+		loadCount = new AtomicInteger();
+	}
+
+	@AfterEach
+	public void after() {
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	static CompressedContent compress(String text) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(text.getBytes(StandardCharsets.UTF_8));
+		}
+		return new CompressedContent(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	ContentLoader loader(CompressedContent content) {
+		return () -> {
+			loadCount.incrementAndGet();
+			return content;
+		};
+	}
+
+	@Test
+	public void testGetContentHeapHit() throws IOException {
+		cache = new ImmutableContentCache(1000L, 0L);
+		assertEquals("one", cache.getContent("1", loader(one)));
+		// call under test
+		assertEquals("one", cache.getContent("1", loader(one)));
+		assertEquals(1, loadCount.get());
+		assertEquals(1L, cache.getHeapHitCount());
+		assertEquals(0L, cache.getDiskHitCount());
+		assertEquals(1L, cache.getMissCount());
+		assertEquals(one.size(), cache.getHeapBytes());
+		assertEquals(0L, cache.getDiskBytes());
+	}
+
+	@Test
+	public void testGetContentEvictedWithoutDisk() throws IOException {
+		// room for only two entries
+		cache = new ImmutableContentCache(one.size() + two.size(), 0L);
+		cache.getContent("1", loader(one));
+		cache.getContent("2", loader(two));
+		// touch one so two is the least recently used.
+		cache.getContent("1", loader(one));
+		cache.getContent("3", loader(three));
+		assertEquals(3, loadCount.get());
+		// call under test
+		assertEquals("two", cache.getContent("2", loader(two)));
+		assertEquals(4, loadCount.get());
+		assertEquals("one", cache.getContent("1", loader(one)));
+		assertEquals(5, loadCount.get());
+	}
+
+	@Test
+	public void testGetContentDiskHit() throws IOException {
+		// room for only one entry on the heap.
+		cache = new ImmutableContentCache(three.size(), 10_000L);
+		cache.getContent("1", loader(one));
+		cache.getContent("2", loader(two));
+		assertEquals(one.size(), cache.getDiskBytes());
+		// call under test
+		assertEquals("one", cache.getContent("1", loader(one)));
+		assertEquals(2, loadCount.get());
+		assertEquals(1L, cache.getDiskHitCount());
+		// one was moved back to the heap and two to the disk.
+		assertEquals(one.size(), cache.getHeapBytes());
+		assertEquals(one.size() + two.size(), cache.getDiskBytes());
+		assertEquals("two", cache.getContent("2", loader(two)));
+		assertEquals(2, loadCount.get());
+		assertEquals(2L, cache.getDiskHitCount());
+	}
+
+	@Test
+	public void testDiskEviction() throws IOException {
+		cache = new ImmutableContentCache(three.size(), one.size() + two.size());
+		cache.getContent("1", loader(one));
+		cache.getContent("2", loader(two));
+		cache.getContent("3", loader(three));
+		assertEquals(one.size() + two.size(), cache.getDiskBytes());
+		cache.getContent("4", loader(one));
+		// one was evicted from the disk.
+		assertEquals(two.size() + three.size(), cache.getDiskBytes());
+		// call under test
+		assertNull(cache.readFromDisk("1"));
+		assertEquals(two, cache.readFromDisk("2"));
+	}
+
+	@Test
+	public void testGetContentLargerThanHeap() throws IOException {
+		cache = new ImmutableContentCache(1L, 10_000L);
+		cache.getContent("1", loader(one));
+		assertEquals(0L, cache.getHeapBytes());
+		assertEquals(one.size(), cache.getDiskBytes());
+		// call under test
+		assertEquals("one", cache.getContent("1", loader(one)));
+		assertEquals(1, loadCount.get());
+	}
+
+	@Test
+	public void testGetContentLoaderFails() throws IOException {
+		cache = new ImmutableContentCache(1000L, 0L);
+		IOException exception = new IOException("nope");
+		assertThrows(IOException.class, () -> {
+			// call under test
+			cache.getContent("1", () -> {
+				throw exception;
+			});
+		});
+		// failures are not cached
+		assertEquals("one", cache.getContent("1", loader(one)));
+	}
+
+	@Test
+	public void testConstructorWithZeroHeap() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			new ImmutableContentCache(0L, 0L);
+		});
+	}
+
+	@Test
+	public void testClear() throws IOException {
+		cache = new ImmutableContentCache(three.size(), 10_000L);
+		cache.getContent("1", loader(one));
+		cache.getContent("2", loader(two));
+		// call under test
+		cache.clear();
+		assertEquals(0L, cache.getHeapBytes());
+		assertEquals(0L, cache.getDiskBytes());
+		assertNull(cache.readFromDisk("1"));
+	}
+}
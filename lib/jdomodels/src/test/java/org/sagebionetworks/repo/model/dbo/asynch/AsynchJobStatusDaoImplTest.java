@@ -82,7 +82,7 @@ public class AsynchJobStatusDaoImplTest {
 
 	@Test
 	public void testUploadCreateGet() throws DatastoreException, NotFoundException{
-		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, null);
 		assertNotNull(status.getJobId());
 		assertNotNull(status.getEtag());
 		assertNotNull(status.getChangedOn());
@@ -105,7 +105,7 @@ public class AsynchJobStatusDaoImplTest {
 	
 	@Test
 	public void testUpdateProgress() throws DatastoreException, NotFoundException, InterruptedException{
-		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, null);
 		// sleep to increase elapse time
 		Thread.sleep(1);
 		assertNotNull(status);
@@ -124,7 +124,7 @@ public class AsynchJobStatusDaoImplTest {
 	
 	@Test
 	public void testUpdateProgressNotProcessing() throws DatastoreException, NotFoundException {
-		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, null);
 		assertNotNull(status);
 		assertNotNull(status.getEtag());
 		// update the progress
@@ -133,8 +133,7 @@ public class AsynchJobStatusDaoImplTest {
 		assertEquals("A MESSAGE", clone.getProgressMessage());
 		assertEquals(AsynchJobState.PROCESSING, status.getJobState());
 
-		String requestHash = null;
-		asynchJobStatusDao.setComplete(status.getJobId(), response, requestHash);
+		asynchJobStatusDao.setComplete(status.getJobId(), response);
 		clone = asynchJobStatusDao.getJobStatus(status.getJobId());
 		assertEquals("Complete", clone.getProgressMessage());
 		assertEquals(AsynchJobState.COMPLETE, clone.getJobState());
@@ -164,7 +163,7 @@ public class AsynchJobStatusDaoImplTest {
 						@Override
 						public String doInTransaction(TransactionStatus tStatus) {
 							try {
-								AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+								AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, null);
 								assertNotNull(status);
 								assertNotNull(status.getEtag());
 								jobId.set(status.getJobId());
@@ -182,8 +181,7 @@ public class AsynchJobStatusDaoImplTest {
 								stepper.stepDone("progress reported 2");
 								stepper.waitForStepDone("get status 2");
 
-								String requestHash = null;
-								asynchJobStatusDao.setComplete(status.getJobId(), response, requestHash);
+								asynchJobStatusDao.setComplete(status.getJobId(), response);
 
 								stepper.stepDone("job completed");
 								stepper.waitForStepDone("get status completed in transaction");
@@ -251,7 +249,7 @@ public class AsynchJobStatusDaoImplTest {
 
 	@Test
 	public void testUpdateProgressTooBig() throws DatastoreException, NotFoundException{
-		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, null);
 		assertNotNull(status);
 		assertNotNull(status.getEtag());
 		// update the progress
@@ -268,7 +266,7 @@ public class AsynchJobStatusDaoImplTest {
 	
 	@Test
 	public void testSetFailed() throws DatastoreException, NotFoundException{
-		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, null);
 		assertNotNull(status);
 		assertNotNull(status.getEtag());
 		String startEtag = status.getEtag();
@@ -292,7 +290,7 @@ public class AsynchJobStatusDaoImplTest {
 	
 	@Test
 	public void testSetFailedNonStringConstructor() throws DatastoreException, NotFoundException {
-		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, null);
 		// update the progress
 		Throwable error = new TermsOfUseException();
 		asynchJobStatusDao.setJobFailed(status.getJobId(), error);
@@ -302,7 +300,7 @@ public class AsynchJobStatusDaoImplTest {
 
 	@Test
 	public void testSetCanceling() throws DatastoreException, NotFoundException {
-		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, null);
 		assertFalse(status.getJobCanceling());
 		// update the progress
 		asynchJobStatusDao.setJobCanceling(status.getJobId());
@@ -314,7 +312,7 @@ public class AsynchJobStatusDaoImplTest {
 
 	@Test
 	public void testSetComplete() throws DatastoreException, NotFoundException, InterruptedException{
-		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, null);
 		assertNotNull(status);
 		assertNotNull(status.getEtag());
 		String previousEtag = status.getEtag();
@@ -323,8 +321,7 @@ public class AsynchJobStatusDaoImplTest {
 		// Now set it complete
 		// Make sure at at least some time has passed before me set it complete
 		Thread.sleep(10);
-		String requestHash = null;
-		long runtimeMS = asynchJobStatusDao.setComplete(status.getJobId(), response, requestHash);
+		long runtimeMS = asynchJobStatusDao.setComplete(status.getJobId(), response);
 		assertNotNull(runtimeMS);
 		AsynchronousJobStatus result = asynchJobStatusDao.getJobStatus(status.getJobId());
 		assertNotNull(result);
@@ -346,10 +343,10 @@ public class AsynchJobStatusDaoImplTest {
 	@Test
 	public void testFindCompletedJobStatusCompleted() throws DatastoreException, NotFoundException{
 		String requestHash = "sd1zQvpC67saUigIElscOgHash";
-		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, requestHash);
 		assertNotNull(status);
 		assertNotNull(status.getEtag());
-		asynchJobStatusDao.setComplete(status.getJobId(), response, requestHash);
+		asynchJobStatusDao.setComplete(status.getJobId(), response);
 		status = asynchJobStatusDao.getJobStatus(status.getJobId());
 		// Find the job with the hash, etag, and user id.
 		List<AsynchronousJobStatus> foundStatus = asynchJobStatusDao.findCompletedJobStatus(requestHash, creatorUserGroupId);
@@ -358,20 +355,31 @@ public class AsynchJobStatusDaoImplTest {
 		assertEquals(status, foundStatus.get(0));
 	}
 	
+	@Test
+	public void testFindCompletedJobStatusProcessing() throws DatastoreException, NotFoundException{
+		String requestHash = "sd1zQvpC67saUigIElscOgHash";
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(creatorUserGroupId, body, requestHash);
+		// The hash is recorded when the job starts but only completed jobs are matched.
+		assertEquals(Collections.emptyList(), asynchJobStatusDao.findCompletedJobStatus(requestHash, creatorUserGroupId));
+		asynchJobStatusDao.setComplete(status.getJobId(), response);
+		status = asynchJobStatusDao.getJobStatus(status.getJobId());
+		assertEquals(Collections.singletonList(status), asynchJobStatusDao.findCompletedJobStatus(requestHash, creatorUserGroupId));
+	}
+	
 	@Test
 	public void testFindCompletedJobStatusMultiple() throws DatastoreException, NotFoundException{
 		String requestHash = "sd1zQvpC67saUigIElscOgHash";
-		AsynchronousJobStatus one = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus one = asynchJobStatusDao.startJob(creatorUserGroupId, body, requestHash);
 		assertNotNull(one);
 		assertNotNull(one.getEtag());
-		asynchJobStatusDao.setComplete(one.getJobId(), response, requestHash);
+		asynchJobStatusDao.setComplete(one.getJobId(), response);
 		one = asynchJobStatusDao.getJobStatus(one.getJobId());
 		
 		// create another with the same data
-		AsynchronousJobStatus two = asynchJobStatusDao.startJob(creatorUserGroupId, body);
+		AsynchronousJobStatus two = asynchJobStatusDao.startJob(creatorUserGroupId, body, requestHash);
 		assertNotNull(two);
 		assertNotNull(two.getEtag());
-		asynchJobStatusDao.setComplete(two.getJobId(), response, requestHash);
+		asynchJobStatusDao.setComplete(two.getJobId(), response);
 		two = asynchJobStatusDao.getJobStatus(two.getJobId());
 		
 		// Find the job with the hash, etag, and user id.
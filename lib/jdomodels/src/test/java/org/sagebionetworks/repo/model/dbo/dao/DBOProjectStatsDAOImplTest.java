@@ -130,6 +130,36 @@ public class DBOProjectStatsDAOImplTest {
 		// the new date should be applied
 		assertEquals(new Date(1001), stats.get(0).getLastAccessed());
 	}
+
+	/**
+	 * The newest date should be kept when a batch includes the same project and
+	 * user more than once.
+	 */
+	@Test
+	public void testUpdateDuplicatesInBatch(){
+		ProjectStat insert = new ProjectStat(projectId1, userId, new Date(2000));
+		projectStatsDao.updateProjectStat(insert);
+		// call under test
+		projectStatsDao.updateProjectStat(new ProjectStat(projectId1, userId, new Date(1000)),
+				new ProjectStat(projectId2, userId, new Date(1500)), new ProjectStat(projectId1, userId, new Date(3000)),
+				new ProjectStat(projectId1, userId, new Date(2500)));
+		List<ProjectStat> stats = projectStatsDao.getProjectStatsForUser(userId);
+		assertEquals(2, stats.size());
+		for (ProjectStat stat : stats) {
+			if (stat.getProjectId() == projectId1.longValue()) {
+				assertEquals(new Date(3000), stat.getLastAccessed());
+			} else {
+				assertEquals(new Date(1500), stat.getLastAccessed());
+			}
+		}
+	}
+
+	@Test
+	public void testUpdateEmpty(){
+		// call under test
+		projectStatsDao.updateProjectStat();
+		assertEquals(0, projectStatsDao.getProjectStatsForUser(userId).size());
+	}
 	
 	/**
 	 * See PLFM-3684
@@ -12,7 +12,11 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.sagebionetworks.repo.model.dbo.dao.NodeDAOImpl.TRASH_FOLDER_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_PARENT_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_REVISION_ENTITY_PROPERTY_ANNOTATIONS_BLOB;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_REVISION_NUMBER;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_REVISION_OWNER_NODE;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_REVISION;
 import static org.sagebionetworks.repo.model.util.AccessControlListUtil.createResourceAccess;
 
 import java.text.ParseException;
@@ -54,6 +58,7 @@ import org.sagebionetworks.repo.model.EntityTypeUtils;
 import org.sagebionetworks.repo.model.GroupMembersDAO;
 import org.sagebionetworks.repo.model.IdAndAlias;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.InvalidModelException;
 import org.sagebionetworks.repo.model.LimitExceededException;
 import org.sagebionetworks.repo.model.Node;
@@ -68,6 +73,7 @@ import org.sagebionetworks.repo.model.Reference;
 import org.sagebionetworks.repo.model.ResourceAccess;
 import org.sagebionetworks.repo.model.Team;
 import org.sagebionetworks.repo.model.TeamDAO;
+import org.sagebionetworks.repo.model.UnmodifiableXStream;
 import org.sagebionetworks.repo.model.UserGroup;
 import org.sagebionetworks.repo.model.UserGroupDAO;
 import org.sagebionetworks.repo.model.UserInfo;
@@ -93,6 +99,7 @@ import org.sagebionetworks.repo.model.file.FileHandleAssociation;
 import org.sagebionetworks.repo.model.file.S3FileHandle;
 import org.sagebionetworks.repo.model.helper.AccessControlListObjectHelper;
 import org.sagebionetworks.repo.model.helper.DaoObjectHelper;
+import org.sagebionetworks.repo.model.jdo.JDOSecondaryPropertyUtils;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.model.jdo.NodeTestUtils;
 import org.sagebionetworks.repo.model.provenance.Activity;
@@ -2765,6 +2772,35 @@ public class NodeDAOImplTest {
 		assertEquals(project.getId(), nodeDao.getProjectId(parent.getId()));
 		assertEquals(project.getId(), nodeDao.getProjectId(child.getId()));
 	}
+
+	@Test
+	public void testGetProjectIds(){
+		Node project = NodeTestUtils.createNew("Project", creatorUserGroupId);
+		project.setNodeType(EntityType.project);
+		project = nodeDao.createNewNode(project);
+		toDelete.add(project.getId());
+		Node child = NodeTestUtils.createNew("child", creatorUserGroupId);
+		child.setParentId(project.getId());
+		child.setNodeType(EntityType.folder);
+		child = nodeDao.createNewNode(child);
+		toDelete.add(child.getId());
+		Long projectId = KeyFactory.stringToKey(project.getId());
+		Long childId = KeyFactory.stringToKey(child.getId());
+		Long doesNotExist = childId + 1000;
+		
+		// call under test
+		Map<Long, Long> projectIds = nodeDao.getProjectIds(Sets.newHashSet(projectId, childId, doesNotExist));
+		Map<Long, Long> expected = new HashMap<>();
+		expected.put(projectId, projectId);
+		expected.put(childId, projectId);
+		assertEquals(expected, projectIds);
+	}
+
+	@Test
+	public void testGetProjectIdsEmpty(){
+		// call under test
+		assertTrue(nodeDao.getProjectIds(Collections.emptySet()).isEmpty());
+	}
 	
 	/**
 	 * Test for PLFM-4369.
@@ -3807,6 +3843,35 @@ public class NodeDAOImplTest {
 		assertEquals(0, results.size());
 	}
 
+	@Test
+	public void testGetChildrenAfter(){
+		List<Node> nodes = createHierarchy();
+		
+		Long projectId = KeyFactory.stringToKey(nodes.get(0).getId());
+		List<NodeIdAndType> expected = Arrays.asList(
+				new NodeIdAndType(nodes.get(1).getId(), EntityType.folder),
+				new NodeIdAndType(nodes.get(2).getId(), EntityType.folder),
+				new NodeIdAndType(nodes.get(3).getId(), EntityType.file));
+		// call under test
+		List<NodeIdAndType> firstPage = nodeDao.getChildrenAfter(projectId, -1L, 2L);
+		assertEquals(expected.subList(0, 2), firstPage);
+		long lastChildId = KeyFactory.stringToKey(firstPage.get(1).getNodeId());
+		// call under test
+		List<NodeIdAndType> secondPage = nodeDao.getChildrenAfter(projectId, lastChildId, 2L);
+		assertEquals(expected.subList(2, 3), secondPage);
+		lastChildId = KeyFactory.stringToKey(secondPage.get(0).getNodeId());
+		// call under test
+		assertEquals(Collections.emptyList(), nodeDao.getChildrenAfter(projectId, lastChildId, 2L));
+	}
+	
+	@Test
+	public void testGetChildrenAfterNullParentId(){
+		assertThrows(IllegalArgumentException.class, ()->{
+			// call under test
+			nodeDao.getChildrenAfter(null, -1L, 10L);
+		});
+	}
+
 	@Test
 	public void testLoopupChildWithNullParentId(){
 		assertThrows(IllegalArgumentException.class, ()->{
@@ -3956,6 +4021,52 @@ public class NodeDAOImplTest {
 		assertFalse(availableIds.contains(doesNotExist));
 	}
 	
+	@Test
+	public void testGetNodesAnnotationsAndBenefactorsBatch(){
+		Node parent = nodeDao.createNewNode(NodeTestUtils.createNew("parent", creatorUserGroupId));
+		toDelete.add(parent.getId());
+		Node child = NodeTestUtils.createNew("child", creatorUserGroupId);
+		child.setParentId(parent.getId());
+		child = nodeDao.createNewNode(child);
+		toDelete.add(child.getId());
+		Annotations annos = new Annotations();
+		AnnotationsV2TestUtils.putAnnotations(annos, "aString", "someString", AnnotationsValueType.STRING);
+		nodeDao.updateUserAnnotations(child.getId(), annos);
+		AccessControlList acl = AccessControlListUtil.createACLToGrantEntityAdminAccess(parent.getId(), adminUser, new Date());
+		accessControlListDAO.create(acl, ObjectType.ENTITY);
+		
+		Long parentId = KeyFactory.stringToKey(parent.getId());
+		Long childId = KeyFactory.stringToKey(child.getId());
+		Long doesNotExist = -1L;
+		List<Long> ids = Lists.newArrayList(parentId, childId, doesNotExist);
+		
+		// call under test
+		List<Node> nodes = nodeDao.getNodes(ids);
+		assertEquals(Sets.newHashSet(parent.getId(), child.getId()),
+				nodes.stream().map(Node::getId).collect(Collectors.toSet()));
+		// call under test
+		List<Annotations> annotations = nodeDao.getUserAnnotationsForCurrentVersions(ids);
+		Map<String, Annotations> annotationsById = annotations.stream()
+				.collect(Collectors.toMap(Annotations::getId, a -> a));
+		assertEquals(Sets.newHashSet(parent.getId(), child.getId()), annotationsById.keySet());
+		assertTrue(annotationsById.get(parent.getId()).getAnnotations().isEmpty());
+		assertEquals("someString", AnnotationsV2Utils.getSingleValue(annotationsById.get(child.getId()), "aString"));
+		assertEquals(NodeConstants.ZERO_E_TAG, annotationsById.get(child.getId()).getEtag());
+		// call under test
+		Map<Long, Long> benefactors = nodeDao.getBenefactors(ids);
+		Map<Long, Long> expected = new HashMap<>();
+		expected.put(parentId, parentId);
+		expected.put(childId, parentId);
+		assertEquals(expected, benefactors);
+	}
+	
+	@Test
+	public void testGetNodesEmpty(){
+		// call under test
+		assertTrue(nodeDao.getNodes(Collections.emptyList()).isEmpty());
+		assertTrue(nodeDao.getUserAnnotationsForCurrentVersions(Collections.emptyList()).isEmpty());
+	}
+	
 	@Test
 	public void testTouch() throws InterruptedException {
 		Long user1Id = Long.parseLong(user1);
@@ -4304,6 +4415,34 @@ public class NodeDAOImplTest {
 		assertEquals(newEntityPropertiesAnnotations.getStringAnnotations(), retrievedNewVersion.getStringAnnotations());
 	}
 	
+	@Test
+	public void testRewriteCompressedEntityPropertyAnnotations() throws Exception {
+		Node node = nodeDao.createNewNode(privateCreateNew("testRewriteCompressedEntityPropertyAnnotations"));
+		String nodeId = node.getId();
+		toDelete.add(nodeId);
+		Long nodeIdLong = KeyFactory.stringToKey(nodeId);
+		org.sagebionetworks.repo.model.Annotations entityPropertyAnnotations = new org.sagebionetworks.repo.model.Annotations();
+		entityPropertyAnnotations.addAnnotation("primaryString", "primaryTest");
+		entityPropertyAnnotations.addAnnotation("primaryLong", 123L);
+		// Write the annotations as compressed XML as they were before the binary codec.
+		UnmodifiableXStream legacyXStream = UnmodifiableXStream.builder()
+				.alias("annotations", org.sagebionetworks.repo.model.Annotations.class).build();
+		byte[] legacy = JDOSecondaryPropertyUtils.compressObject(legacyXStream, entityPropertyAnnotations);
+		jdbcTemplate.update("UPDATE " + TABLE_REVISION + " SET " + COL_REVISION_ENTITY_PROPERTY_ANNOTATIONS_BLOB + " = ? WHERE "
+				+ COL_REVISION_OWNER_NODE + " = ? AND " + COL_REVISION_NUMBER + " = ?", legacy, nodeIdLong, node.getVersionNumber());
+
+		// call under test
+		assertEquals(1L, nodeDao.rewriteCompressedEntityPropertyAnnotations(nodeIdLong, nodeIdLong + 1));
+
+		byte[] rewritten = jdbcTemplate.queryForObject("SELECT " + COL_REVISION_ENTITY_PROPERTY_ANNOTATIONS_BLOB + " FROM "
+				+ TABLE_REVISION + " WHERE " + COL_REVISION_OWNER_NODE + " = ? AND " + COL_REVISION_NUMBER + " = ?",
+				byte[].class, nodeIdLong, node.getVersionNumber());
+		assertTrue(JDOSecondaryPropertyUtils.isBinaryEncoding(rewritten));
+		assertEquals(entityPropertyAnnotations, nodeDao.getEntityPropertyAnnotations(nodeId));
+		// nothing left to rewrite
+		assertEquals(0L, nodeDao.rewriteCompressedEntityPropertyAnnotations(nodeIdLong, nodeIdLong + 1));
+	}
+	
 	@Test
 	public void testGetEntityPropertiesForVersionWithNonexistentVersion() throws Exception {
 		// PLFM-6632, improving message for this error
@@ -4840,6 +4979,95 @@ public class NodeDAOImplTest {
 		assertEquals(3, results.stream().filter(i-> i.getChecksum() != null).count());
 	}
 	
+	@Test
+	public void testGetIdRangeChecksumsForChildren() throws Exception {
+		Node project = nodeDaoHelper.create(n -> {
+			n.setName("project");
+			n.setCreatedByPrincipalId(creatorUserGroupId);
+		});
+		aclDaoHelper.create(a->{
+			a.setId(project.getId());
+			a.getResourceAccess().add(createResourceAccess(creatorUserGroupId, ACCESS_TYPE.READ));
+		});
+		int numberVersions = 3;
+		List<Long> ids = Arrays.asList(
+				KeyFactory.stringToKey(createNodeWithMultipleVersions(numberVersions, project.getId())),
+				KeyFactory.stringToKey(createNodeWithMultipleVersions(numberVersions, project.getId())),
+				KeyFactory.stringToKey(createNodeWithMultipleVersions(numberVersions, project.getId()))
+		);
+		Set<SubType> subTypes = Sets.newHashSet(SubType.file);
+		Set<Long> parentIds = Sets.newHashSet(KeyFactory.stringToKey(project.getId()));
+		Long salt = 123L;
+		List<IdAndChecksum> perId = nodeDao.getIdsAndChecksumsForChildren(salt, parentIds, subTypes, 100L, 0L);
+		
+		// call under test
+		List<IdRangeChecksum> singles = nodeDao.getIdRangeChecksumsForChildren(salt, parentIds, subTypes, ids.get(0),
+				ids.get(2) + 1, 1L);
+		assertEquals(3, singles.size());
+		for (int i = 0; i < singles.size(); i++) {
+			assertEquals(perId.get(i).getId(), singles.get(i).getBucket());
+			assertEquals(perId.get(i).getChecksum(), singles.get(i).getChecksum());
+			assertEquals(new Long(numberVersions), singles.get(i).getCount());
+		}
+		
+		// call under test
+		List<IdRangeChecksum> all = nodeDao.getIdRangeChecksumsForChildren(salt, parentIds, subTypes, 0L,
+				Long.MAX_VALUE, Long.MAX_VALUE);
+		assertEquals(1, all.size());
+		assertEquals(new Long(0), all.get(0).getBucket());
+		assertEquals(new Long(numberVersions * 3), all.get(0).getCount());
+		assertEquals(new Long(perId.stream().mapToLong(IdAndChecksum::getChecksum).sum()), all.get(0).getChecksum());
+		
+		// call under test
+		List<IdRangeChecksum> excludeFirst = nodeDao.getIdRangeChecksumsForChildren(salt, parentIds, subTypes,
+				ids.get(0) + 1, Long.MAX_VALUE, 1L);
+		assertEquals(2, excludeFirst.size());
+		assertEquals(ids.get(1), excludeFirst.get(0).getBucket());
+	}
+	
+	@Test
+	public void testGetIdRangeChecksumsForObjects() throws Exception {
+		Node project = nodeDaoHelper.create(n -> {
+			n.setName("project");
+			n.setCreatedByPrincipalId(creatorUserGroupId);
+		});
+		aclDaoHelper.create(a->{
+			a.setId(project.getId());
+			a.getResourceAccess().add(createResourceAccess(creatorUserGroupId, ACCESS_TYPE.READ));
+		});
+		int numberVersions = 2;
+		Set<Long> objectIds = Sets.newHashSet(
+				KeyFactory.stringToKey(createNodeWithMultipleVersions(numberVersions, project.getId())),
+				KeyFactory.stringToKey(createNodeWithMultipleVersions(numberVersions, project.getId()))
+		);
+		Long salt = 123L;
+		List<IdAndChecksum> perId = nodeDao.getIdsAndChecksumsForObjects(salt, objectIds, 100L, 0L);
+		
+		// call under test
+		List<IdRangeChecksum> all = nodeDao.getIdRangeChecksumsForObjects(salt, objectIds, 0L, Long.MAX_VALUE,
+				Long.MAX_VALUE);
+		assertEquals(1, all.size());
+		assertEquals(new Long(numberVersions * 2), all.get(0).getCount());
+		assertEquals(new Long(perId.stream().mapToLong(IdAndChecksum::getChecksum).sum()), all.get(0).getChecksum());
+	}
+	
+	@Test
+	public void testGetIdRangeChecksumsForObjectsWithEmpty() throws Exception {
+		// call under test
+		List<IdRangeChecksum> results = nodeDao.getIdRangeChecksumsForObjects(123L, Collections.emptySet(), 0L,
+				Long.MAX_VALUE, 1L);
+		assertEquals(Collections.emptyList(), results);
+	}
+	
+	@Test
+	public void testGetIdRangeChecksumsForObjectsWithZeroBucketSize() throws Exception {
+		String message = assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			nodeDao.getIdRangeChecksumsForObjects(123L, Sets.newHashSet(1L), 0L, Long.MAX_VALUE, 0L);
+		}).getMessage();
+		assertEquals("bucketSize must be greater than zero", message);
+	}
+	
 	@Test
 	public void testGetViewIdsAndChecksumWithHierachyFilterWithEmptyParentIds() throws Exception {
 		Set<SubType> subTypes = Sets.newHashSet(SubType.file);
@@ -0,0 +1,89 @@
+package org.sagebionetworks.repo.model.dbo.dao.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.dbo.persistence.table.DBOTableRowChange;
+
+import com.google.common.collect.Sets;
+
+public class RowIdSummaryTest {
+
+	@Test
+	public void testCreate() {
+		// call under test
+		RowIdSummary summary = RowIdSummary.create(Arrays.asList(15L, 3L, null, 9L)).get();
+		assertEquals(3L, summary.getMinRowId());
+		assertEquals(15L, summary.getMaxRowId());
+		assertNotNull(summary.getFilterBytes());
+		assertTrue(summary.mightContainAny(Sets.newHashSet(9L)));
+		assertTrue(summary.mightContainAny(Sets.newHashSet(1L, 15L)));
+		// out of range
+		assertFalse(summary.mightContainAny(Sets.newHashSet(1L, 16L)));
+		assertFalse(summary.mightContainAny(Collections.emptySet()));
+	}
+
+	@Test
+	public void testCreateWithNoRowIds() {
+		// call under test
+		Optional<RowIdSummary> summary = RowIdSummary.create(Arrays.asList(null, null));
+		assertFalse(summary.isPresent());
+	}
+
+	@Test
+	public void testRoundTrip() {
+		List<Long> rowIds = new ArrayList<>();
+		for (long rowId = 0; rowId < 1000; rowId += 2) {
+			rowIds.add(rowId);
+		}
+		RowIdSummary summary = RowIdSummary.create(rowIds).get();
+		// call under test
+		RowIdSummary clone = RowIdSummary.fromStored(summary.getMinRowId(), summary.getMaxRowId(),
+				summary.getFilterBytes());
+		int falsePositives = 0;
+		for (long rowId = 0; rowId < 1000; rowId++) {
+			boolean mightContain = clone.mightContainAny(Sets.newHashSet(rowId));
+			assertEquals(summary.mightContainAny(Sets.newHashSet(rowId)), mightContain);
+			if (rowId % 2 == 0) {
+				// never a false negative
+				assertTrue(mightContain);
+			} else if (mightContain) {
+				falsePositives++;
+			}
+		}
+		// expect about five false positives out of 500.
+		assertTrue(falsePositives < 50, "False positives: " + falsePositives);
+	}
+
+	@Test
+	public void testCreateOverMaxRowsInFilter() {
+		List<Long> rowIds = new ArrayList<>();
+		for (long rowId = 0; rowId <= RowIdSummary.MAX_ROWS_IN_FILTER; rowId++) {
+			rowIds.add(rowId * 2);
+		}
+		// call under test
+		RowIdSummary summary = RowIdSummary.create(rowIds).get();
+		assertNull(summary.getFilterBytes());
+		// only the range can be checked.
+		assertTrue(summary.mightContainAny(Sets.newHashSet(1L)));
+		assertFalse(summary.mightContainAny(Sets.newHashSet(-1L)));
+		RowIdSummary clone = RowIdSummary.fromStored(summary.getMinRowId(), summary.getMaxRowId(), null);
+		assertTrue(clone.mightContainAny(Sets.newHashSet(1L)));
+	}
+
+	@Test
+	public void testMightContainAnyWithLegacyChange() {
+		// call under test
+		assertTrue(TableRowTruthDAOImpl.mightContainAny(new DBOTableRowChange(), Sets.newHashSet(1L)));
+	}
+}
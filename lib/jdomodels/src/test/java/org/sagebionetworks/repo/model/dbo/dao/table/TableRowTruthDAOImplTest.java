@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
@@ -38,6 +39,7 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(locations = { "classpath:jdomodels-test-context.xml" })
@@ -292,6 +294,39 @@ public class TableRowTruthDAOImplTest {
 		TableRowChange change = rowChanges.get(0);
 		assertEquals(TableChangeType.ROW, change.getChangeType());
 	}
+	
+	@Test
+	public void testListRowChangesThatMightContainRowIds() throws IOException{
+		List<ColumnModel> columns = TableModelTestUtils.createOneOfEachType();
+		// rows 0-4 are version zero
+		RawRowSet set = new RawRowSet(TableModelUtils.getIds(columns), null, tableId, TableModelTestUtils.createRows(columns, 5));
+		appendRowSetToTable(creatorUserGroupId, tableId, columns, set);
+		// rows 5-6 are version one
+		set = new RawRowSet(set.getIds(), set.getEtag(), set.getTableId(), TableModelTestUtils.createRows(columns, 2));
+		appendRowSetToTable(creatorUserGroupId, tableId, columns, set);
+		
+		// Call under test
+		List<TableRowChange> results = tableRowTruthDao.listRowChangesThatMightContainRowIds(tableId, -1L, Sets.newHashSet(6L));
+		assertEquals(1, results.size());
+		assertEquals(new Long(1), results.get(0).getRowVersion());
+		
+		results = tableRowTruthDao.listRowChangesThatMightContainRowIds(tableId, -1L, Sets.newHashSet(2L));
+		assertEquals(1, results.size());
+		assertEquals(new Long(0), results.get(0).getRowVersion());
+		
+		results = tableRowTruthDao.listRowChangesThatMightContainRowIds(tableId, -1L, Sets.newHashSet(2L, 5L));
+		assertEquals(tableRowTruthDao.listRowSetsKeysForTableGreaterThanVersion(tableId, -1L), results);
+		
+		results = tableRowTruthDao.listRowChangesThatMightContainRowIds(tableId, 0L, Sets.newHashSet(2L, 5L));
+		assertEquals(1, results.size());
+		assertEquals(new Long(1), results.get(0).getRowVersion());
+		
+		results = tableRowTruthDao.listRowChangesThatMightContainRowIds(tableId, -1L, Sets.newHashSet(100L));
+		assertTrue(results.isEmpty());
+		
+		results = tableRowTruthDao.listRowChangesThatMightContainRowIds(tableId, -1L, Collections.emptySet());
+		assertTrue(results.isEmpty());
+	}
 
 	
 	@Test
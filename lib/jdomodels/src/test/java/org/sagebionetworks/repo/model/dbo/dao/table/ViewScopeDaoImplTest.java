@@ -6,6 +6,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.jupiter.api.AfterEach;
@@ -133,4 +136,30 @@ public class ViewScopeDaoImplTest {
 		assertTrue(viewScopeDao.getViewScope(viewId1).isEmpty());
 	}
 	
+	@Test
+	public void testGetViewIdsForContainers(){
+		viewScopeDao.setViewScopeAndType(123L, Sets.newHashSet(444L,555L), viewScopeType);
+		viewScopeDao.setViewScopeAndType(456L, Sets.newHashSet(555L,666L), viewScopeType);
+		viewScopeDao.setViewScopeAndType(789L, Sets.newHashSet(555L),
+				new ViewScopeType(ViewObjectType.SUBMISSION, ViewTypeMask.File.getMask()));
+		
+		Map<Long, Set<Long>> expected = new HashMap<>();
+		expected.put(444L, Sets.newHashSet(123L));
+		expected.put(555L, Sets.newHashSet(123L, 456L));
+		// call under test
+		assertEquals(expected, viewScopeDao.getViewIdsForContainers(ViewObjectType.ENTITY, Sets.newHashSet(444L,555L,777L)));
+		
+		expected = new HashMap<>();
+		expected.put(555L, Sets.newHashSet(789L));
+		// call under test
+		assertEquals(expected, viewScopeDao.getViewIdsForContainers(ViewObjectType.SUBMISSION, Sets.newHashSet(444L,555L)));
+	}
+	
+	@Test
+	public void testGetViewIdsForContainersWithEmpty(){
+		viewScopeDao.setViewScopeAndType(123L, Sets.newHashSet(444L), viewScopeType);
+		// call under test
+		assertTrue(viewScopeDao.getViewIdsForContainers(ViewObjectType.ENTITY, Collections.emptySet()).isEmpty());
+	}
+	
 }
@@ -0,0 +1,175 @@
+package org.sagebionetworks.repo.model.dbo.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.sagebionetworks.repo.model.dbo.entity.EntityHierarchyCheckpointDao.NO_CHILD_ID;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(locations = { "classpath:jdomodels-test-context.xml" })
+public class EntityHierarchyCheckpointDaoImplTest {
+
+	@Autowired
+	private EntityHierarchyCheckpointDao checkpointDao;
+
+	private Long rootId;
+	private Long changeNumber;
+
+	@BeforeEach
+	public void before() {
+		checkpointDao.truncateAll();
+		rootId = 123L;
+		changeNumber = 11L;
+	}
+
+	@AfterEach
+	public void after() {
+		checkpointDao.truncateAll();
+	}
+
+	@Test
+	public void testGetCheckpointsWithNoWalk() {
+		// call under test
+		assertEquals(Collections.emptyMap(), checkpointDao.getCheckpoints(rootId, changeNumber));
+	}
+
+	@Test
+	public void testStartWalk() {
+		// call under test
+		checkpointDao.startWalk(rootId, changeNumber);
+		assertEquals(Collections.singletonMap(rootId, NO_CHILD_ID), checkpointDao.getCheckpoints(rootId, changeNumber));
+		// the walk is only resumed for the same change.
+		assertEquals(Collections.emptyMap(), checkpointDao.getCheckpoints(rootId, changeNumber + 1));
+	}
+
+	@Test
+	public void testStartWalkDropsPreviousWalkOfSameChange() {
+		checkpointDao.startWalk(rootId, changeNumber);
+		checkpointDao.saveProgress(rootId, changeNumber, rootId, 200L, Arrays.asList(201L));
+		// call under test
+		checkpointDao.startWalk(rootId, changeNumber);
+		assertEquals(Collections.singletonMap(rootId, NO_CHILD_ID), checkpointDao.getCheckpoints(rootId, changeNumber));
+	}
+
+	@Test
+	public void testStartWalkDoesNotChangeWalksOfOtherChanges() {
+		checkpointDao.startWalk(rootId, changeNumber);
+		checkpointDao.saveProgress(rootId, changeNumber, rootId, 200L, Arrays.asList(201L));
+		Long newChangeNumber = changeNumber + 1;
+		// call under test
+		checkpointDao.startWalk(rootId, newChangeNumber);
+		Map<Long, Long> expected = new LinkedHashMap<>();
+		expected.put(rootId, 200L);
+		expected.put(201L, NO_CHILD_ID);
+		assertEquals(expected, checkpointDao.getCheckpoints(rootId, changeNumber));
+		assertEquals(Collections.singletonMap(rootId, NO_CHILD_ID), checkpointDao.getCheckpoints(rootId, newChangeNumber));
+	}
+
+	@Test
+	public void testInterleavedWalksOfSameRoot() {
+		Long otherChangeNumber = changeNumber + 1;
+		checkpointDao.startWalk(rootId, changeNumber);
+		checkpointDao.startWalk(rootId, otherChangeNumber);
+		checkpointDao.saveProgress(rootId, changeNumber, rootId, 201L, Arrays.asList(201L));
+		checkpointDao.saveProgress(rootId, otherChangeNumber, rootId, 300L, Arrays.asList(201L, 300L));
+		checkpointDao.saveProgress(rootId, changeNumber, 201L, 400L, Collections.emptyList());
+		checkpointDao.finishContainer(rootId, otherChangeNumber, rootId);
+		checkpointDao.finishContainer(rootId, changeNumber, 201L);
+		checkpointDao.saveProgress(rootId, otherChangeNumber, 300L, 500L, Collections.emptyList());
+
+		assertEquals(Collections.singletonMap(rootId, 201L), checkpointDao.getCheckpoints(rootId, changeNumber));
+		Map<Long, Long> expected = new LinkedHashMap<>();
+		expected.put(201L, NO_CHILD_ID);
+		expected.put(300L, 500L);
+		assertEquals(expected, checkpointDao.getCheckpoints(rootId, otherChangeNumber));
+	}
+
+	@Test
+	public void testStartWalkDoesNotChangeOtherRoots() {
+		Long otherRootId = 456L;
+		checkpointDao.startWalk(otherRootId, changeNumber);
+		// call under test
+		checkpointDao.startWalk(rootId, changeNumber);
+		assertEquals(Collections.singletonMap(otherRootId, NO_CHILD_ID), checkpointDao.getCheckpoints(otherRootId, changeNumber));
+	}
+
+	@Test
+	public void testSaveProgress() {
+		checkpointDao.startWalk(rootId, changeNumber);
+		// call under test
+		checkpointDao.saveProgress(rootId, changeNumber, rootId, 300L, Arrays.asList(201L, 300L));
+		Map<Long, Long> expected = new LinkedHashMap<>();
+		expected.put(rootId, 300L);
+		expected.put(201L, NO_CHILD_ID);
+		expected.put(300L, NO_CHILD_ID);
+		assertEquals(expected, checkpointDao.getCheckpoints(rootId, changeNumber));
+	}
+
+	@Test
+	public void testSaveProgressKeepsChildProgress() {
+		checkpointDao.startWalk(rootId, changeNumber);
+		checkpointDao.saveProgress(rootId, changeNumber, rootId, 201L, Arrays.asList(201L));
+		checkpointDao.saveProgress(rootId, changeNumber, 201L, 500L, Collections.emptyList());
+		// call under test
+		checkpointDao.saveProgress(rootId, changeNumber, rootId, 201L, Arrays.asList(201L));
+		Map<Long, Long> expected = new LinkedHashMap<>();
+		expected.put(rootId, 201L);
+		expected.put(201L, 500L);
+		assertEquals(expected, checkpointDao.getCheckpoints(rootId, changeNumber));
+	}
+
+	@Test
+	public void testSaveProgressWithNullChildren() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			checkpointDao.saveProgress(rootId, changeNumber, rootId, 201L, null);
+		});
+	}
+
+	@Test
+	public void testFinishContainer() {
+		checkpointDao.startWalk(rootId, changeNumber);
+		checkpointDao.saveProgress(rootId, changeNumber, rootId, 201L, Arrays.asList(201L));
+		// call under test
+		checkpointDao.finishContainer(rootId, changeNumber, rootId);
+		assertEquals(Collections.singletonMap(201L, NO_CHILD_ID), checkpointDao.getCheckpoints(rootId, changeNumber));
+		// call under test
+		checkpointDao.finishContainer(rootId, changeNumber, 201L);
+		assertEquals(Collections.emptyMap(), checkpointDao.getCheckpoints(rootId, changeNumber));
+	}
+
+	@Test
+	public void testPurgeCheckpointsUpdatedBefore() {
+		checkpointDao.startWalk(rootId, changeNumber);
+		checkpointDao.saveProgress(rootId, changeNumber, rootId, 201L, Arrays.asList(201L));
+		long oneHourMS = 1000L * 60 * 60;
+		// call under test
+		assertEquals(0, checkpointDao.purgeCheckpointsUpdatedBefore(new Date(System.currentTimeMillis() - oneHourMS)));
+		assertEquals(2, checkpointDao.getCheckpoints(rootId, changeNumber).size());
+		// call under test
+		assertEquals(2, checkpointDao.purgeCheckpointsUpdatedBefore(new Date(System.currentTimeMillis() + oneHourMS)));
+		assertEquals(Collections.emptyMap(), checkpointDao.getCheckpoints(rootId, changeNumber));
+	}
+
+	@Test
+	public void testPurgeCheckpointsUpdatedBeforeWithNullDate() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			checkpointDao.purgeCheckpointsUpdatedBefore(null);
+		});
+	}
+
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,6 +27,7 @@ import static org.sagebionetworks.repo.model.dbo.file.download.v2.DownloadListDA
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_ITEM_V2_ADDED_ON;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DOWNLOAD_LIST_ITEM_V2_ENTITY_ID;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -68,10 +70,12 @@ import org.sagebionetworks.repo.model.helper.FileHandleObjectHelper;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.model.table.DatasetItem;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(locations = { "classpath:jdomodels-test-context.xml" })
@@ -89,6 +93,8 @@ public class DownloadListDaoImplTest {
 	private FileHandleObjectHelper fileHandleObjectHelper;
 	@Autowired
 	private FileHandleDao fileHandleDao;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
 
 	private Long userOneIdLong;
 	private String userOneId;
@@ -604,6 +610,127 @@ public class DownloadListDaoImplTest {
 		verify(mockCallback).filter(fileIds.subList(4, 5));
 	}
 
+	@Test
+	public void testGetAvailableFilesFromDownloadListWithCurrentSnapshot() {
+		int numberOfProject = 1;
+		int foldersPerProject = 1;
+		int filesPerFolder = 3;
+		List<Node> files = createFileHierarchy(numberOfProject, foldersPerProject, filesPerFolder);
+		List<Long> fileIds = files.stream().map(n -> KeyFactory.stringToKey(n.getId())).collect(Collectors.toList());
+		downloadListDao.addBatchOfFilesToDownloadList(userOneIdLong, files.stream()
+				.map(n -> new DownloadListItem().setFileEntityId(n.getId())).collect(Collectors.toList()));
+
+		EntityAccessCallback mockCallback = Mockito.mock(EntityAccessCallback.class);
+		when(mockCallback.filter(any())).thenReturn(fileIds.subList(0, 2));
+		int batchSize = 100;
+		assertEquals(fileIds.subList(0, 2),
+				downloadListDao.getAvailableFilesFromDownloadList(mockCallback, userOneIdLong, batchSize));
+		String listEtag = downloadListDao.getDBODownloadList(userOneIdLong).getEtag();
+		assertEquals(listEtag, downloadListDao.getSnapshot(userOneIdLong, SnapshotType.AVAILABLE).get().getListEtag());
+		// Call under test
+		List<Long> results = downloadListDao.getAvailableFilesFromDownloadList(mockCallback, userOneIdLong, batchSize);
+		assertEquals(fileIds.subList(0, 2), results);
+		// the second call is served from the snapshot.
+		verify(mockCallback).filter(any());
+	}
+
+	@Test
+	public void testGetAvailableFilesFromDownloadListWithListEdits() {
+		int numberOfProject = 1;
+		int foldersPerProject = 1;
+		int filesPerFolder = 4;
+		List<Node> files = createFileHierarchy(numberOfProject, foldersPerProject, filesPerFolder);
+		List<Long> fileIds = files.stream().map(n -> KeyFactory.stringToKey(n.getId())).collect(Collectors.toList());
+		downloadListDao.addBatchOfFilesToDownloadList(userOneIdLong,
+				files.subList(0, 3).stream().map(n -> new DownloadListItem().setFileEntityId(n.getId()))
+						.collect(Collectors.toList()));
+
+		EntityAccessCallback mockCallback = Mockito.mock(EntityAccessCallback.class);
+		when(mockCallback.filter(any())).thenAnswer(i -> i.getArgument(0));
+		int batchSize = 100;
+		assertEquals(fileIds.subList(0, 3),
+				downloadListDao.getAvailableFilesFromDownloadList(mockCallback, userOneIdLong, batchSize));
+
+		downloadListDao.removeBatchOfFilesFromDownloadList(userOneIdLong,
+				Arrays.asList(new DownloadListItem().setFileEntityId(files.get(0).getId())));
+		downloadListDao.addBatchOfFilesToDownloadList(userOneIdLong,
+				Arrays.asList(new DownloadListItem().setFileEntityId(files.get(3).getId())));
+
+		// Call under test
+		List<Long> results = downloadListDao.getAvailableFilesFromDownloadList(mockCallback, userOneIdLong, batchSize);
+		assertEquals(fileIds.subList(1, 4), results);
+		// only the added file was checked.
+		verify(mockCallback, times(2)).filter(any());
+		verify(mockCallback).filter(fileIds.subList(0, 3));
+		verify(mockCallback).filter(fileIds.subList(3, 4));
+	}
+
+	@Test
+	public void testGetAvailableFilesFromDownloadListWithInvalidatedSnapshot() {
+		int numberOfProject = 1;
+		int foldersPerProject = 1;
+		int filesPerFolder = 3;
+		List<Node> files = createFileHierarchy(numberOfProject, foldersPerProject, filesPerFolder);
+		List<Long> fileIds = files.stream().map(n -> KeyFactory.stringToKey(n.getId())).collect(Collectors.toList());
+		downloadListDao.addBatchOfFilesToDownloadList(userOneIdLong, files.stream()
+				.map(n -> new DownloadListItem().setFileEntityId(n.getId())).collect(Collectors.toList()));
+		downloadListDao.addBatchOfFilesToDownloadList(userTwoIdLong, files.stream()
+				.map(n -> new DownloadListItem().setFileEntityId(n.getId())).collect(Collectors.toList()));
+
+		EntityAccessCallback mockCallback = Mockito.mock(EntityAccessCallback.class);
+		// access to the second file is granted after the first call.
+		when(mockCallback.filter(any())).thenReturn(Arrays.asList(fileIds.get(0)),
+				Arrays.asList(fileIds.get(1)));
+		int batchSize = 100;
+		assertEquals(Arrays.asList(fileIds.get(0)),
+				downloadListDao.getAvailableFilesFromDownloadList(mockCallback, userOneIdLong, batchSize));
+
+		// Call under test
+		downloadListDao.invalidateSnapshots(Sets.newHashSet(fileIds.get(1)));
+
+		assertNull(downloadListDao.getSnapshot(userOneIdLong, SnapshotType.AVAILABLE).get().getListEtag());
+		// the second user does not have a snapshot.
+		assertFalse(downloadListDao.getSnapshot(userTwoIdLong, SnapshotType.AVAILABLE).isPresent());
+		List<Long> results = downloadListDao.getAvailableFilesFromDownloadList(mockCallback, userOneIdLong, batchSize);
+		assertEquals(fileIds.subList(0, 2), results);
+		// only the invalidated file was checked again.
+		verify(mockCallback, times(2)).filter(any());
+		verify(mockCallback).filter(fileIds.subList(0, 3));
+		verify(mockCallback).filter(fileIds.subList(1, 2));
+	}
+
+	@Test
+	public void testGetAvailableFilesFromDownloadListWithExpiredSnapshot() {
+		int numberOfProject = 1;
+		int foldersPerProject = 1;
+		int filesPerFolder = 3;
+		List<Node> files = createFileHierarchy(numberOfProject, foldersPerProject, filesPerFolder);
+		List<Long> fileIds = files.stream().map(n -> KeyFactory.stringToKey(n.getId())).collect(Collectors.toList());
+		downloadListDao.addBatchOfFilesToDownloadList(userOneIdLong, files.stream()
+				.map(n -> new DownloadListItem().setFileEntityId(n.getId())).collect(Collectors.toList()));
+
+		EntityAccessCallback mockCallback = Mockito.mock(EntityAccessCallback.class);
+		when(mockCallback.filter(any())).thenReturn(fileIds.subList(0, 1), fileIds.subList(0, 2));
+		int batchSize = 100;
+		assertEquals(fileIds.subList(0, 1),
+				downloadListDao.getAvailableFilesFromDownloadList(mockCallback, userOneIdLong, batchSize));
+		jdbcTemplate.update("UPDATE DOWNLOAD_LIST_SNAPSHOT_V2 SET CREATED_ON = ? WHERE PRINCIPAL_ID = ?",
+				new Timestamp(System.currentTimeMillis() - DownloadListDAOImpl.SNAPSHOT_MAX_AGE_MS - 1000L),
+				userOneIdLong);
+
+		// Call under test
+		List<Long> results = downloadListDao.getAvailableFilesFromDownloadList(mockCallback, userOneIdLong, batchSize);
+		assertEquals(fileIds.subList(0, 2), results);
+		// the entire list was checked again.
+		verify(mockCallback, times(2)).filter(fileIds);
+	}
+
+	@Test
+	public void testInvalidateSnapshotsWithEmpty() {
+		// Call under test
+		downloadListDao.invalidateSnapshots(Collections.emptySet());
+	}
+
 	@Test
 	public void testGetDownloadListItemsWithLatestVersion() {
 		int numberOfProject = 1;
@@ -21,6 +21,7 @@ import org.sagebionetworks.repo.model.TeamDAO;
 import org.sagebionetworks.repo.model.UserGroup;
 import org.sagebionetworks.repo.model.UserGroupDAO;
 import org.sagebionetworks.repo.model.dbo.dao.UserGroupTestUtils;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex.PrincipalType;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
@@ -160,6 +161,12 @@ public class PrincipalPrefixDAOImplTest {
 		assertEquals("", PrincipalPrefixDAOImpl.preProcessToken(null));
 	}
 
+	@Test
+	public void testGetNameTokens() {
+		assertEquals(Arrays.asList("jamesbond", "bondjames"), PrincipalPrefixDAOImpl.getNameTokens("James", "Bond"));
+		assertEquals(Collections.emptyList(), PrincipalPrefixDAOImpl.getNameTokens("", ""));
+	}
+
 	@Test
 	public void testAddName() {
 		principalPrefixDao
@@ -577,6 +584,29 @@ public class PrincipalPrefixDAOImplTest {
 		assertEquals(3, results.size());
 	}
 	
+	@Test
+	public void testLoadIndex() {
+		addDefaultAlias();
+		principalPrefixDao.addPrincipalName("James", "Bond", principalOne);
+		PrincipalPrefixIndex index = new PrincipalPrefixIndex();
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder();
+		// call under test
+		principalPrefixDao.loadIndex(builder);
+		index.load(builder);
+		assertEquals(13, builder.getPostingCount());
+		// The index must give the same results as the table.
+		assertEquals(principalPrefixDao.listPrincipalsForPrefix("r", 1000L, 0L),
+				index.list("r", PrincipalPrefixIndex.ALL, 1000L, 0L));
+		assertEquals(principalPrefixDao.listPrincipalsForPrefix("", 1000L, 0L),
+				index.list("", PrincipalPrefixIndex.ALL, 1000L, 0L));
+		assertEquals(principalPrefixDao.listTeamsForPrefix("r", 1000L, 0L),
+				index.list("r", (id, type) -> PrincipalType.TEAM == type, 1000L, 0L));
+		assertEquals(principalPrefixDao.listPrincipalsForPrefix("r", true, 1000L, 0L),
+				index.list("r", (id, type) -> PrincipalType.USER == type, 1000L, 0L));
+		assertEquals(Arrays.asList(nonTeamUserGroupId),
+				index.list("r", (id, type) -> PrincipalType.GROUP == type, 1000L, 0L));
+	}
+
 	/**
 	 * Add default alias to all named principals.
 	 */
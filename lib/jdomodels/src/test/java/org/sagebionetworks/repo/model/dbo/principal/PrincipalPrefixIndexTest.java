@@ -0,0 +1,277 @@
+package org.sagebionetworks.repo.model.dbo.principal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex.Filter;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex.PrincipalType;
+
+public class PrincipalPrefixIndexTest {
+
+	private PrincipalPrefixIndex index;
+
+	@BeforeEach
+	public void before() {
+		index = new PrincipalPrefixIndex();
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder();
+		builder.add("jamesbond", 1L, PrincipalType.USER);
+		builder.add("romane", 3L, PrincipalType.USER);
+		builder.add("romanus", 4L, PrincipalType.USER);
+		builder.add("rteam", 10L, PrincipalType.TEAM);
+		builder.add("rteam", 11L, PrincipalType.GROUP);
+		builder.add("rubens", 5L, PrincipalType.USER);
+		builder.add("rubens", 6L, PrincipalType.USER);
+		builder.add("rubicon", 5L, PrincipalType.USER);
+		index.load(builder);
+	}
+
+	@Test
+	public void testNotLoaded() {
+		PrincipalPrefixIndex notLoaded = new PrincipalPrefixIndex();
+		assertFalse(notLoaded.isLoaded());
+		assertThrows(IllegalStateException.class, () -> {
+			// call under test
+			notLoaded.list("r", PrincipalPrefixIndex.ALL, 10L, 0L);
+		});
+		// changes are ignored until the index is loaded.
+		notLoaded.setPrincipal(1L, PrincipalType.USER, Collections.singleton("foo"));
+		assertFalse(notLoaded.isLoaded());
+	}
+
+	@Test
+	public void testList() {
+		assertTrue(index.isLoaded());
+		// ordered by token then principal ID, without duplicates.
+		assertEquals(Arrays.asList(3L, 4L, 10L, 11L, 5L, 6L), index.list("r", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Arrays.asList(3L, 4L), index.list("roman", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Arrays.asList(4L), index.list("romanus", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Collections.emptyList(), index.list("romanusx", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Collections.emptyList(), index.list("z", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Collections.emptyList(), index.list("a", PrincipalPrefixIndex.ALL, 100L, 0L));
+		// an empty prefix matches everything.
+		assertEquals(Arrays.asList(1L, 3L, 4L, 10L, 11L, 5L, 6L), index.list("", PrincipalPrefixIndex.ALL, 100L, 0L));
+	}
+
+	@Test
+	public void testListPaging() {
+		assertEquals(Arrays.asList(10L, 11L), index.list("r", PrincipalPrefixIndex.ALL, 2L, 2L));
+		assertEquals(Arrays.asList(6L), index.list("r", PrincipalPrefixIndex.ALL, 2L, 5L));
+		assertEquals(Collections.emptyList(), index.list("r", PrincipalPrefixIndex.ALL, 2L, 6L));
+		assertEquals(Collections.emptyList(), index.list("r", PrincipalPrefixIndex.ALL, 0L, 0L));
+	}
+
+	@Test
+	public void testListWithFilter() {
+		assertEquals(Arrays.asList(10L), index.list("r", (id, type) -> PrincipalType.TEAM == type, 100L, 0L));
+		assertEquals(Arrays.asList(10L, 11L), index.list("r", (id, type) -> PrincipalType.USER != type, 100L, 0L));
+		Set<Long> members = new TreeSet<>(Arrays.asList(4L, 5L));
+		assertEquals(Arrays.asList(4L, 5L), index.list("r", (id, type) -> members.contains(id), 100L, 0L));
+	}
+
+	@Test
+	public void testCount() {
+		assertEquals(6L, index.count("r", PrincipalPrefixIndex.ALL));
+		assertEquals(2L, index.count("rub", PrincipalPrefixIndex.ALL));
+		assertEquals(1L, index.count("r", (id, type) -> PrincipalType.GROUP == type));
+		assertEquals(0L, index.count("x", PrincipalPrefixIndex.ALL));
+	}
+
+	@Test
+	public void testSetPrincipal() {
+		// call under test
+		index.setPrincipal(5L, PrincipalType.USER, Arrays.asList("aaron", "rubens", ""));
+		assertEquals(1L, index.getOverlayPrincipalCount());
+		assertEquals(Arrays.asList(5L), index.list("a", PrincipalPrefixIndex.ALL, 100L, 0L));
+		// the old rubicon token is hidden.
+		assertEquals(Collections.emptyList(), index.list("rubi", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Arrays.asList(5L, 6L), index.list("rubens", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Arrays.asList(5L, 1L, 3L, 4L, 10L, 11L, 6L), index.list("", PrincipalPrefixIndex.ALL, 100L, 0L));
+
+		// changing the same principal again replaces its overlay tokens.
+		index.setPrincipal(5L, PrincipalType.USER, Arrays.asList("zed"));
+		assertEquals(Collections.emptyList(), index.list("a", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Arrays.asList(6L), index.list("rub", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Arrays.asList(5L), index.list("z", PrincipalPrefixIndex.ALL, 100L, 0L));
+	}
+
+	@Test
+	public void testSetPrincipalNew() {
+		index.setPrincipal(2L, PrincipalType.TEAM, Arrays.asList("romane"));
+		assertEquals(Arrays.asList(2L, 3L, 4L), index.list("roman", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Arrays.asList(2L, 10L), index.list("r", (id, type) -> PrincipalType.TEAM == type, 100L, 0L));
+	}
+
+	@Test
+	public void testRemovePrincipal() {
+		// call under test
+		index.removePrincipal(10L);
+		assertEquals(Arrays.asList(11L), index.list("rteam", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(5L, index.count("r", PrincipalPrefixIndex.ALL));
+	}
+
+	@Test
+	public void testMergeOverlay() {
+		index = new PrincipalPrefixIndex(1);
+		index.load(new PrincipalPrefixIndex.Builder().add("bar", 1L, PrincipalType.USER).add("foo", 2L,
+				PrincipalType.USER));
+		index.setPrincipal(3L, PrincipalType.USER, Arrays.asList("baz"));
+		assertEquals(1L, index.getOverlayPrincipalCount());
+		assertEquals(2L, index.getTokenCount());
+		// the second change is more than the overlay can hold.
+		index.setPrincipal(1L, PrincipalType.USER, Arrays.asList("foo"));
+		assertEquals(0L, index.getOverlayPrincipalCount());
+		assertEquals(2L, index.getTokenCount());
+		assertEquals(Arrays.asList(3L, 1L, 2L), index.list("", PrincipalPrefixIndex.ALL, 100L, 0L));
+		assertEquals(Arrays.asList(1L, 2L), index.list("f", PrincipalPrefixIndex.ALL, 100L, 0L));
+	}
+
+	@Test
+	public void testBuilderOutOfOrder() {
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder().add("b", 2L, PrincipalType.USER);
+		assertThrows(IllegalArgumentException.class, () -> {
+			builder.add("a", 3L, PrincipalType.USER);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			builder.add("b", 2L, PrincipalType.USER);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			builder.add("b", 1L, PrincipalType.USER);
+		});
+	}
+
+	@Test
+	public void testEmptyIndex() {
+		index.load(new PrincipalPrefixIndex.Builder());
+		assertEquals(Collections.emptyList(), index.list("", PrincipalPrefixIndex.ALL, 100L, 0L));
+		index.setPrincipal(1L, PrincipalType.USER, Arrays.asList("a"));
+		assertEquals(Arrays.asList(1L), index.list("", PrincipalPrefixIndex.ALL, 100L, 0L));
+	}
+
+	/**
+	 * Compare random lookups and changes against a simple sorted map across many
+	 * blocks and overlay merges.
+	 */
+	@Test
+	public void testRandomAgainstSortedMap() {
+		Random random = new Random(123L);
+		Map<Long, Set<String>> expected = new HashMap<>();
+		TreeMap<String, TreeSet<Long>> sorted = new TreeMap<>();
+		for (long id = 0; id < 500; id++) {
+			Set<String> tokens = randomTokens(random);
+			expected.put(id, tokens);
+			for (String token : tokens) {
+				sorted.computeIfAbsent(token, k -> new TreeSet<>()).add(id);
+			}
+		}
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder();
+		sorted.forEach((token, ids) -> ids.forEach(id -> builder.add(token, id, PrincipalType.USER)));
+		index = new PrincipalPrefixIndex(50);
+		index.load(builder);
+		for (int i = 0; i < 300; i++) {
+			long id = random.nextInt(600);
+			Set<String> tokens = randomTokens(random);
+			expected.put(id, tokens);
+			index.setPrincipal(id, PrincipalType.USER, tokens);
+			String prefix = randomToken(random).substring(0, random.nextInt(3));
+			assertEquals(expectedList(expected, prefix), index.list(prefix, PrincipalPrefixIndex.ALL, 1000L, 0L),
+					prefix);
+		}
+	}
+
+	private static List<Long> expectedList(Map<Long, Set<String>> principals, String prefix) {
+		TreeMap<String, TreeSet<Long>> sorted = new TreeMap<>();
+		principals.forEach((id, tokens) -> tokens.forEach(token -> sorted.computeIfAbsent(token, k -> new TreeSet<>()).add(id)));
+		Set<Long> results = new LinkedHashSet<>();
+		sorted.tailMap(prefix, true).forEach((token, ids) -> {
+			if (token.startsWith(prefix)) {
+				results.addAll(ids);
+			}
+		});
+		return new ArrayList<>(results);
+	}
+
+	private static Set<String> randomTokens(Random random) {
+		Set<String> tokens = new TreeSet<>();
+		int count = random.nextInt(3);
+		for (int i = 0; i < count; i++) {
+			tokens.add(randomToken(random));
+		}
+		return tokens;
+	}
+
+	private static String randomToken(Random random) {
+		StringBuilder builder = new StringBuilder();
+		int length = 3 + random.nextInt(6);
+		for (int i = 0; i < length; i++) {
+			builder.append("abc0".charAt(random.nextInt(4)));
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Compare limited and filtered lookups against a simple sorted map for an
+	 * index with many blocks.
+	 */
+	@Test
+	public void testListAgainstSortedMap() {
+		Random random = new Random(42L);
+		Map<Long, Set<String>> principals = new HashMap<>();
+		TreeMap<String, TreeSet<Long>> sorted = new TreeMap<>();
+		for (long id = 0; id < 2000; id++) {
+			String first = randomName(random);
+			String last = randomName(random);
+			Set<String> tokens = new TreeSet<>(Arrays.asList(first + last, last + first, first.charAt(0) + last + id));
+			principals.put(id, tokens);
+			for (String token : tokens) {
+				sorted.computeIfAbsent(token, k -> new TreeSet<>()).add(id);
+			}
+		}
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder();
+		sorted.forEach((token, ids) -> ids.forEach(id -> builder.add(token, id, PrincipalType.USER)));
+		index.load(builder);
+
+		Set<Long> members = new TreeSet<>();
+		for (long id = 0; id < 2000; id += 10) {
+			members.add(id);
+		}
+		Filter memberFilter = (id, type) -> members.contains(id);
+		List<String> tokens = new ArrayList<>(sorted.keySet());
+		for (int i = 0; i < 200; i++) {
+			String token = tokens.get(random.nextInt(tokens.size()));
+			String prefix = token.substring(0, 1 + random.nextInt(Math.min(5, token.length())));
+			List<Long> expected = expectedList(principals, prefix);
+			List<Long> expectedMembers = expected.stream().filter(members::contains).collect(Collectors.toList());
+			assertEquals(expected.subList(0, Math.min(10, expected.size())),
+					index.list(prefix, PrincipalPrefixIndex.ALL, 10L, 0L), prefix);
+			assertEquals(expectedMembers.subList(0, Math.min(10, expectedMembers.size())),
+					index.list(prefix, memberFilter, 10L, 0L), prefix);
+			assertEquals(expected.size(), index.count(prefix, PrincipalPrefixIndex.ALL), prefix);
+		}
+	}
+
+	private static String randomName(Random random) {
+		StringBuilder builder = new StringBuilder();
+		int length = 3 + random.nextInt(7);
+		for (int i = 0; i < length; i++) {
+			builder.append((char) ('a' + random.nextInt(26)));
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,84 @@
+package org.sagebionetworks.repo.model.dbo.rewrite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.sagebionetworks.repo.model.jdo.KeyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(locations = { "classpath:jdomodels-test-context.xml" })
+public class BinaryPropertyRewriteDaoImplTest {
+
+	@Autowired
+	private BinaryPropertyRewriteDao rewriteDao;
+
+	@BeforeEach
+	public void before() {
+		rewriteDao.truncateAll();
+	}
+
+	@AfterEach
+	public void after() {
+		rewriteDao.truncateAll();
+	}
+
+	@Test
+	public void testGetNextIdNotStarted() {
+		// call under test
+		assertEquals(0L, rewriteDao.getNextId(BinaryPropertyType.SUBMISSION_STATUS));
+	}
+
+	@Test
+	public void testSetNextId() {
+		// call under test
+		rewriteDao.setNextId(BinaryPropertyType.SUBMISSION_STATUS, 100L);
+		rewriteDao.setNextId(BinaryPropertyType.SUBMISSION_QUOTA, 10L);
+
+		assertEquals(100L, rewriteDao.getNextId(BinaryPropertyType.SUBMISSION_STATUS));
+		assertEquals(10L, rewriteDao.getNextId(BinaryPropertyType.SUBMISSION_QUOTA));
+		assertEquals(0L, rewriteDao.getNextId(BinaryPropertyType.ENTITY_PROPERTY_ANNOTATIONS));
+
+		// call under test
+		rewriteDao.setNextId(BinaryPropertyType.SUBMISSION_STATUS, 200L);
+
+		assertEquals(200L, rewriteDao.getNextId(BinaryPropertyType.SUBMISSION_STATUS));
+		assertEquals(10L, rewriteDao.getNextId(BinaryPropertyType.SUBMISSION_QUOTA));
+	}
+
+	@Test
+	public void testFindFirstIdPastTheEnd() {
+		for (BinaryPropertyType type : BinaryPropertyType.values()) {
+			// call under test
+			assertEquals(Optional.empty(), rewriteDao.findFirstId(type, Long.MAX_VALUE));
+		}
+	}
+
+	@Test
+	public void testFindFirstId() {
+		// the root node always exists
+		long rootId = KeyFactory.ROOT_ID;
+		// call under test
+		Optional<Long> firstId = rewriteDao.findFirstId(BinaryPropertyType.ENTITY_PROPERTY_ANNOTATIONS, rootId);
+		assertTrue(firstId.isPresent());
+		assertTrue(firstId.get() >= rootId);
+	}
+
+	@Test
+	public void testGetNextIdWithNullType() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			rewriteDao.getNextId(null);
+		});
+	}
+
+}
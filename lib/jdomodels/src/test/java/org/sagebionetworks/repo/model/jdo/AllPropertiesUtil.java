@@ -0,0 +1,94 @@
+package org.sagebionetworks.repo.model.jdo;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility for creating an object with every property set, so a test of a
+ * hand-written codec fails when a property is added to the object and the
+ * codec is not changed to match.
+ *
+ */
+public class AllPropertiesUtil {
+
+	/**
+	 * Create an instance of the given class with each property set to a
+	 * distinct non-null value. Objects and lists of objects are filled in turn.
+	 *
+	 * @param clazz
+	 * @param excludedProperties The properties that are left null.
+	 * @return
+	 * @throws IllegalArgumentException If a property has a type that cannot be
+	 *                                  filled.
+	 */
+	public static <T> T createWithAllProperties(Class<T> clazz, String... excludedProperties) {
+		return fill(clazz, new HashSet<>(Arrays.asList(excludedProperties)), new long[] { 1L });
+	}
+
+	static <T> T fill(Class<T> clazz, Set<String> excludedProperties, long[] counter) {
+		T instance = newInstance(clazz);
+		for (Method method : clazz.getMethods()) {
+			if (!method.getName().startsWith("set") || method.getParameterCount() != 1
+					|| Modifier.isStatic(method.getModifiers())) {
+				continue;
+			}
+			String property = Character.toLowerCase(method.getName().charAt(3)) + method.getName().substring(4);
+			if (excludedProperties.contains(property)) {
+				continue;
+			}
+			Object value = createValue(method.getGenericParameterTypes()[0], property, counter);
+			try {
+				method.invoke(instance, value);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalArgumentException(e);
+			}
+		}
+		return instance;
+	}
+
+	static Object createValue(Type type, String property, long[] counter) {
+		long next = counter[0]++;
+		if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == List.class) {
+			List<Object> list = new ArrayList<>(1);
+			list.add(createValue(((ParameterizedType) type).getActualTypeArguments()[0], property, counter));
+			return list;
+		}
+		if (!(type instanceof Class)) {
+			throw new IllegalArgumentException("Cannot fill " + property + " of type: " + type);
+		}
+		Class<?> clazz = (Class<?>) type;
+		if (clazz == String.class) {
+			return property + next;
+		} else if (clazz == Long.class) {
+			return next;
+		} else if (clazz == Double.class) {
+			return next + 0.5;
+		} else if (clazz == Boolean.class) {
+			return next % 2 == 0;
+		} else if (clazz == Date.class) {
+			return new Date(next * 1000L);
+		} else if (clazz.isEnum()) {
+			Object[] constants = clazz.getEnumConstants();
+			return constants[(int) (next % constants.length)];
+		} else if (clazz.getName().startsWith("org.sagebionetworks.")) {
+			return fill(clazz, new HashSet<>(), counter);
+		}
+		throw new IllegalArgumentException("Cannot fill " + property + " of type: " + type);
+	}
+
+	static <T> T newInstance(Class<T> clazz) {
+		try {
+			return clazz.getConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("Cannot create: " + clazz.getName(), e);
+		}
+	}
+}
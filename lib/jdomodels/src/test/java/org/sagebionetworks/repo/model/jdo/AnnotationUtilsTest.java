@@ -1,5 +1,6 @@
 package org.sagebionetworks.repo.model.jdo;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -9,8 +10,16 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Assertions;
@@ -173,4 +182,67 @@ public class AnnotationUtilsTest {
 		//nothing to assert. If it failed an exception would have been thrown
 		Annotations named = AnnotationUtils.decompressedAnnotationsV1(IOUtils.toByteArray(in));
 	}
+
+	@Test
+	public void testCompressAnnotations_BinaryEncoding() throws IOException {
+		Annotations annos = RandomAnnotationsUtil.generateRandom(123L, 5);
+		// method under test
+		byte[] bytes = AnnotationUtils.compressAnnotationsV1(annos);
+		assertTrue(JDOSecondaryPropertyUtils.isBinaryEncoding(bytes));
+		Assertions.assertEquals(annos, AnnotationUtils.decompressedAnnotationsV1(bytes));
+	}
+
+	/**
+	 * A field added to Annotations must also be added to AnnotationsV1Codec. The
+	 * id and etag are not written by the codec.
+	 */
+	@Test
+	public void testAnnotationsV1CodecCoversAllFields() {
+		Set<String> fields = new HashSet<>();
+		for (Field field : Annotations.class.getDeclaredFields()) {
+			if (!Modifier.isStatic(field.getModifiers())) {
+				fields.add(field.getName());
+			}
+		}
+		Assertions.assertEquals(new HashSet<>(Arrays.asList("id", "etag", "stringAnnotations", "doubleAnnotations",
+				"longAnnotations", "dateAnnotations", "blobAnnotations")), fields);
+	}
+
+	@Test
+	public void testDecompressAnnotations_LegacyXML() throws IOException {
+		Annotations annos = RandomAnnotationsUtil.generateRandom(456L, 5);
+		byte[] legacy = JDOSecondaryPropertyUtils.compressObject(AnnotationUtils.X_STREAM, annos);
+		// method under test
+		Assertions.assertEquals(annos, AnnotationUtils.decompressedAnnotationsV1(legacy));
+	}
+
+	@Test
+	public void testReencodeAnnotations() throws IOException {
+		Annotations annos = RandomAnnotationsUtil.generateRandom(789L, 5);
+		byte[] legacy = JDOSecondaryPropertyUtils.compressObject(AnnotationUtils.X_STREAM, annos);
+		// method under test
+		Optional<byte[]> reencoded = AnnotationUtils.reencodeAnnotationsV1(legacy);
+		assertTrue(reencoded.isPresent());
+		assertTrue(JDOSecondaryPropertyUtils.isBinaryEncoding(reencoded.get()));
+		Assertions.assertEquals(annos, AnnotationUtils.decompressedAnnotationsV1(reencoded.get()));
+		// already current
+		assertFalse(AnnotationUtils.reencodeAnnotationsV1(reencoded.get()).isPresent());
+		assertFalse(AnnotationUtils.reencodeAnnotationsV1(null).isPresent());
+	}
+
+	@Test
+	public void testCompressAnnotations_BinaryEncodingSize() throws IOException {
+		Annotations annos = new Annotations();
+		annos.addAnnotation("string", "a string value");
+		annos.addAnnotation("string", "another string value");
+		annos.addAnnotation("long", 123L);
+		annos.addAnnotation("double", 1.5);
+		annos.addAnnotation("date", new Date(1600000000000L));
+		annos.addAnnotation("blob", "a blob".getBytes(StandardCharsets.UTF_8));
+		byte[] xml = JDOSecondaryPropertyUtils.compressObject(AnnotationUtils.X_STREAM, annos);
+		// method under test
+		byte[] bytes = AnnotationUtils.compressAnnotationsV1(annos);
+		assertTrue(bytes.length < xml.length);
+		Assertions.assertEquals(annos, AnnotationUtils.decompressedAnnotationsV1(bytes));
+	}
 }
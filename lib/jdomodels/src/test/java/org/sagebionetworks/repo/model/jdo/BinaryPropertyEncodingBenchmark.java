@@ -0,0 +1,111 @@
+package org.sagebionetworks.repo.model.jdo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.sagebionetworks.evaluation.dao.SubmissionUtils;
+import org.sagebionetworks.evaluation.dbo.SubmissionStatusDBO;
+import org.sagebionetworks.evaluation.model.SubmissionStatus;
+import org.sagebionetworks.evaluation.model.SubmissionStatusEnum;
+import org.sagebionetworks.repo.model.Annotations;
+import org.sagebionetworks.repo.model.UnmodifiableXStream;
+
+/**
+ * Compares the size and throughput of the binary encoding of secondary
+ * properties with the compressed XML it replaced. This is not a test and is not
+ * run by the build. Run the main method by hand to get the numbers.
+ *
+ */
+public class BinaryPropertyEncodingBenchmark {
+
+	/**
+	 * The configuration SubmissionUtils used to write submission statuses as XML.
+	 */
+	static final UnmodifiableXStream SUBMISSION_X_STREAM = UnmodifiableXStream.builder()
+			.allowTypes(SubmissionStatus.class).build();
+
+	@FunctionalInterface
+	interface RoundTrip<T> {
+		/**
+		 * Write then read the given payload.
+		 *
+		 * @return The size of the written payload in bytes.
+		 */
+		int apply(T payload) throws IOException;
+	}
+
+	/**
+	 * @param args The number of payloads of each type, 1000 by default.
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+		List<Annotations> annotations = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			annotations.add(RandomAnnotationsUtil.generateRandom(i, 10));
+		}
+		run("Annotations XML+GZIP", annotations, (Annotations annos) -> {
+			byte[] bytes = JDOSecondaryPropertyUtils.compressObject(AnnotationUtils.X_STREAM, annos);
+			JDOSecondaryPropertyUtils.decompressObject(AnnotationUtils.X_STREAM, bytes);
+			return bytes.length;
+		});
+		run("Annotations binary", annotations, (Annotations annos) -> {
+			byte[] bytes = AnnotationUtils.compressAnnotationsV1(annos);
+			AnnotationUtils.decompressedAnnotationsV1(bytes);
+			return bytes.length;
+		});
+
+		List<SubmissionStatus> statuses = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			statuses.add(createSubmissionStatus(i));
+		}
+		run("SubmissionStatus XML+GZIP", statuses, (SubmissionStatus status) -> {
+			byte[] bytes = JDOSecondaryPropertyUtils.compressObject(SUBMISSION_X_STREAM, status);
+			JDOSecondaryPropertyUtils.decompressObject(SUBMISSION_X_STREAM, bytes);
+			return bytes.length;
+		});
+		run("SubmissionStatus binary", statuses, (SubmissionStatus status) -> {
+			SubmissionStatusDBO dbo = new SubmissionStatusDBO();
+			SubmissionUtils.copyToSerializedField(status, dbo);
+			SubmissionUtils.copyFromSerializedField(dbo);
+			return dbo.getSerializedEntity().length;
+		});
+	}
+
+	/**
+	 * Round trip each payload, once to warm up and once to measure, and print
+	 * the total size and the throughput.
+	 */
+	static <T> void run(String name, List<T> payloads, RoundTrip<T> roundTrip) throws IOException {
+		for (T payload : payloads) {
+			roundTrip.apply(payload);
+		}
+		long totalBytes = 0;
+		long start = System.nanoTime();
+		for (T payload : payloads) {
+			totalBytes += roundTrip.apply(payload);
+		}
+		long elapsedNanos = System.nanoTime() - start;
+		System.out.println(String.format("%s: %,d bytes, %,.0f round trips/sec", name, totalBytes,
+				payloads.size() * 1e9 / elapsedNanos));
+	}
+
+	static SubmissionStatus createSubmissionStatus(int index) {
+		SubmissionStatus status = new SubmissionStatus();
+		status.setId("" + index);
+		status.setEtag("etag");
+		status.setModifiedOn(new Date(1234567L + index));
+		status.setStatus(SubmissionStatusEnum.SCORED);
+		status.setScore(index / 3.0);
+		status.setReport("report " + index);
+		status.setEntityId("syn" + index);
+		status.setVersionNumber(3L);
+		status.setStatusVersion(9L);
+		status.setCanCancel(true);
+		status.setCancelRequested(false);
+		return status;
+	}
+}
@@ -1,13 +1,18 @@
 package org.sagebionetworks.repo.model.jdo;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.sagebionetworks.repo.model.Annotations;
@@ -77,4 +82,100 @@ public class JDOSecondaryPropertyUtilsTest {
 			return Objects.hash(a, b, c, other);
 		}
 	}
+
+	static class TestObjectCodec implements BinaryPropertyCodec<TestObject> {
+
+		@Override
+		public byte getVersion() {
+			return 2;
+		}
+
+		@Override
+		public void write(TestObject value, DataOutput out) throws IOException {
+			out.writeInt(value.a);
+			BinaryPropertyIO.writeString(out, value.b);
+			BinaryPropertyIO.writeLong(out, value.c);
+			out.writeBoolean(value.other != null);
+			if (value.other != null) {
+				write(value.other, out);
+			}
+		}
+
+		@Override
+		public TestObject read(DataInput in, byte version) throws IOException {
+			int a = in.readInt();
+			String b = BinaryPropertyIO.readString(in);
+			long c = BinaryPropertyIO.readLong(in);
+			TestObject other = in.readBoolean() ? read(in, version) : null;
+			return new TestObject(a, b, c, other);
+		}
+	}
+
+	TestObjectCodec TEST_CODEC = new TestObjectCodec();
+
+	@Test
+	public void encodeObject_null() throws IOException {
+		assertNull(JDOSecondaryPropertyUtils.encodeObject(TEST_CODEC, null));
+		assertNull(JDOSecondaryPropertyUtils.decodeObject(TEST_CODEC, TEST_X_STREAM, null));
+	}
+
+	@Test
+	public void encodeObject_roundTrip() throws IOException {
+		TestObject nested = new TestObject(1, null, -3L, null);
+		TestObject test = new TestObject(4, "\u00e9\u4e2d", Long.MAX_VALUE, nested);
+
+		byte[] bytes = JDOSecondaryPropertyUtils.encodeObject(TEST_CODEC, test);
+		assertTrue(JDOSecondaryPropertyUtils.isBinaryEncoding(bytes));
+		assertEquals(2, bytes[JDOSecondaryPropertyUtils.BINARY_HEADER.length]);
+
+		assertEquals(test, JDOSecondaryPropertyUtils.decodeObject(TEST_CODEC, TEST_X_STREAM, bytes));
+	}
+
+	@Test
+	public void decodeObject_legacyXML() throws IOException {
+		TestObject test = new TestObject(4, "5", 6L, new TestObject(1, "2", 3L, null));
+		byte[] legacy = JDOSecondaryPropertyUtils.compressObject(TEST_X_STREAM, test);
+		assertFalse(JDOSecondaryPropertyUtils.isBinaryEncoding(legacy));
+
+		assertEquals(test, JDOSecondaryPropertyUtils.decodeObject(TEST_CODEC, TEST_X_STREAM, legacy));
+	}
+
+	@Test
+	public void decodeObject_unknownVersion() throws IOException {
+		byte[] bytes = JDOSecondaryPropertyUtils.encodeObject(TEST_CODEC, new TestObject(1, "2", 3L, null));
+		bytes[JDOSecondaryPropertyUtils.BINARY_HEADER.length] = 3;
+
+		assertThrows(IOException.class, () -> {
+			JDOSecondaryPropertyUtils.decodeObject(TEST_CODEC, TEST_X_STREAM, bytes);
+		});
+	}
+
+	@Test
+	public void reencodeObject() throws IOException {
+		TestObject test = new TestObject(4, "5", 6L, null);
+		byte[] legacy = JDOSecondaryPropertyUtils.compressObject(TEST_X_STREAM, test);
+
+		Optional<byte[]> reencoded = JDOSecondaryPropertyUtils.reencodeObject(TEST_CODEC, TEST_X_STREAM, legacy);
+		assertTrue(reencoded.isPresent());
+		assertEquals(test, JDOSecondaryPropertyUtils.decodeObject(TEST_CODEC, TEST_X_STREAM, reencoded.get()));
+
+		assertFalse(JDOSecondaryPropertyUtils.reencodeObject(TEST_CODEC, TEST_X_STREAM, reencoded.get()).isPresent());
+		assertFalse(JDOSecondaryPropertyUtils.reencodeObject(TEST_CODEC, TEST_X_STREAM, null).isPresent());
+	}
+
+	@Test
+	public void reencodeObject_olderVersion() throws IOException {
+		byte[] bytes = JDOSecondaryPropertyUtils.encodeObject(TEST_CODEC, new TestObject(4, "5", 6L, null));
+		bytes[JDOSecondaryPropertyUtils.BINARY_HEADER.length] = 1;
+
+		assertTrue(JDOSecondaryPropertyUtils.reencodeObject(TEST_CODEC, TEST_X_STREAM, bytes).isPresent());
+	}
+
+	@Test
+	public void isBinaryEncoding() {
+		assertFalse(JDOSecondaryPropertyUtils.isBinaryEncoding(null));
+		assertFalse(JDOSecondaryPropertyUtils.isBinaryEncoding(new byte[] { 'S', 'B' }));
+		assertFalse(JDOSecondaryPropertyUtils.isBinaryEncoding(new byte[] { 0x1F, (byte) 0x8B, 8 }));
+		assertTrue(JDOSecondaryPropertyUtils.isBinaryEncoding(new byte[] { 'S', 'B', 1 }));
+	}
 }
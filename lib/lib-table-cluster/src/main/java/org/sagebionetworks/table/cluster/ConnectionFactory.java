@@ -1,6 +1,7 @@
 package org.sagebionetworks.table.cluster;
 
 import java.util.List;
+import java.util.Optional;
 
 import javax.sql.DataSource;
 
@@ -21,6 +22,16 @@ public interface ConnectionFactory {
 	 */
 	TableIndexDAO getConnection(IdAndVersion tableId);
 	
+	/**
+	 * Get a connection to the database that will serve the given table once the
+	 * databases being added to the cluster become active. The index of the table
+	 * should be built there before the switch over.
+	 * 
+	 * @param tableId
+	 * @return Empty if the table will stay on the database that serves it now.
+	 */
+	Optional<TableIndexDAO> getRebalanceConnection(IdAndVersion tableId);
+	
 	/**
 	 * Get all connections.
 	 * @return
@@ -40,4 +51,11 @@ public interface ConnectionFactory {
 	 */
 	DataSource getFirstDataSource();
 	
+	/**
+	 * Get the current load on each database of the cluster.
+	 * 
+	 * @return
+	 */
+	List<InstanceLoad> getInstanceLoads();
+	
 }
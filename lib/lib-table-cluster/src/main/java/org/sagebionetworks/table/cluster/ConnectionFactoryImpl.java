@@ -1,8 +1,11 @@
 package org.sagebionetworks.table.cluster;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -14,14 +17,24 @@ import org.apache.logging.log4j.Logger;
 import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.lib.dbuserhelper.DBUserHelper;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
+import org.sagebionetworks.table.cluster.metadata.ObjectFieldModelResolverFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 /**
- * Note: For the first pass at this feature we are only using one database. This
- * will be extended in the future.
- * 
+ * Each table's index is assigned to one database of the cluster by a
+ * {@link TableIndexRouter}. Each database has its own connection pool and DAO.
+ * <p>
+ * Only the first 'active' databases serve tables. When databases are added to
+ * the end of the cluster, the tables that will move to them are still served by
+ * their current database, while {@link #getRebalanceConnection(IdAndVersion)}
+ * provides the new database so their indexes can be built there first. Raising
+ * the active count to the database count then switches those tables over.
+ * <p>
+ * The object replication tables are created in every database, since a view
+ * can be assigned to any of them.
+ *
  * @author jmhill
  *
  */
@@ -31,36 +44,55 @@ public class ConnectionFactoryImpl implements ConnectionFactory {
 	private static Logger log = LogManager.getLogger(ConnectionFactoryImpl.class);
 
 	private InstanceDiscovery instanceDiscovery;
-	/**
-	 * Note: This field will be remove when we actually have more than one
-	 * connection. It is a simple way to get the functionality up and running
-	 * without adding full support for a load balancing.
-	 */
-	private BasicDataSource singleConnectionPool;
 
 	private StackConfiguration stackConfig;
 
 	private DBUserHelper dbUserHelper;
 
 	/**
-	 * Note: The DAO is autowired so it can be profiled. See: PLFM-5984. We might
-	 * need an alternate solution to support multiple database connections in the
-	 * future.
+	 * Note: The DAO of the first database is autowired so it can be profiled. See:
+	 * PLFM-5984. The DAOs of the other databases are created by this factory.
 	 */
 	private TableIndexDAO tableIndexDao;
-	
+
+	private ObjectFieldModelResolverFactory objectFieldModelResolverFactory;
+
+	private List<InstanceInfo> instances;
+	private List<BasicDataSource> connectionPools;
+	private List<TableIndexDAO> tableIndexDaos;
+	private TableIndexRouter router;
+	private int activeCount;
+	private AtomicLongArray connectionRequestCounts;
+
 	@Autowired
-	public ConnectionFactoryImpl(StackConfiguration config, InstanceDiscovery instanceDiscovery, TableIndexDAO tableIndexDao, DBUserHelper dbuh) {
+	public ConnectionFactoryImpl(StackConfiguration config, InstanceDiscovery instanceDiscovery, TableIndexDAO tableIndexDao, DBUserHelper dbuh,
+			ObjectFieldModelResolverFactory objectFieldModelResolverFactory) {
 		this.stackConfig = config;
 		this.instanceDiscovery = instanceDiscovery;
 		this.tableIndexDao = tableIndexDao;
 		this.dbUserHelper = dbuh;
+		this.objectFieldModelResolverFactory = objectFieldModelResolverFactory;
 	}
 
 	@Override
 	public TableIndexDAO getConnection(IdAndVersion tableId) {
-		// Create a new DAO for this call.
-		return tableIndexDao;
+		int index = router.getInstanceIndex(tableId, activeCount);
+		connectionRequestCounts.incrementAndGet(index);
+		return tableIndexDaos.get(index);
+	}
+
+	@Override
+	public Optional<TableIndexDAO> getRebalanceConnection(IdAndVersion tableId) {
+		if (activeCount == router.getInstanceCount()) {
+			return Optional.empty();
+		}
+		int targetIndex = router.getInstanceIndex(tableId, router.getInstanceCount());
+		if (targetIndex < activeCount) {
+			// Rendezvous hashing only moves tables to the new databases.
+			return Optional.empty();
+		}
+		connectionRequestCounts.incrementAndGet(targetIndex);
+		return Optional.of(tableIndexDaos.get(targetIndex));
 	}
 
 	/**
@@ -71,53 +103,88 @@ public class ConnectionFactoryImpl implements ConnectionFactory {
 		// There is nothing to do if the table feature is not enabled.
 		// The features is enabled so we must find all database instances that we can
 		// use
-		List<InstanceInfo> instances = instanceDiscovery.discoverAllInstances();
-		if (instances == null || instances.isEmpty())
+		List<InstanceInfo> discovered = instanceDiscovery.discoverAllInstances();
+		if (discovered == null || discovered.isEmpty())
 			throw new IllegalArgumentException("Did not find at least one database instances.");
+		activeCount = stackConfig.getTablesDatabaseActiveCount();
+		if (activeCount < 1 || activeCount > discovered.size()) {
+			throw new IllegalArgumentException("The active database count must be between 1 and " + discovered.size()
+					+ " but was: " + activeCount);
+		}
+		instances = new ArrayList<>(discovered);
+		connectionPools = new ArrayList<>(instances.size());
+		tableIndexDaos = new ArrayList<>(instances.size());
+		List<String> instanceKeys = new ArrayList<>(instances.size());
+		for (InstanceInfo instance : instances) {
+			BasicDataSource connectionPool = createConnectionPool(instance);
+			connectionPools.add(connectionPool);
+			TableIndexDAO dao = tableIndexDaos.isEmpty() ? tableIndexDao : createTableIndexDao();
+			// ensure the index has the correct tables
+			dao.setDataSource(connectionPool);
+			dao.createObjectReplicationTablesIfDoesNotExist();
+			tableIndexDaos.add(dao);
+			createDBUser(connectionPool);
+			instanceKeys.add(instance.getEndpoint() + "/" + instance.getSchema());
+		}
+		router = new TableIndexRouter(instanceKeys);
+		connectionRequestCounts = new AtomicLongArray(instances.size());
+		log.info("Connected to " + instances.size() + " table databases, " + activeCount + " of which are active");
+	}
+
+	BasicDataSource createConnectionPool(InstanceInfo instance) {
+		return InstanceUtils.createNewDatabaseConnectionPool(stackConfig, instance);
+	}
 
-		// This will be improved in the future. For now we just use the first database
-		// we find
-		InstanceInfo instance = instances.get(0);
-		// Use the one instance to create a single connection pool
-		singleConnectionPool = InstanceUtils.createNewDatabaseConnectionPool(stackConfig, instance);
-		// ensure the index has the correct tables
-		tableIndexDao.setDataSource(singleConnectionPool);
-		tableIndexDao.createObjectReplicationTablesIfDoesNotExist();
-		createDBUser();
+	TableIndexDAO createTableIndexDao() {
+		return new TableIndexDAOImpl(objectFieldModelResolverFactory);
 	}
 
-	private void createDBUser() {
-		JdbcTemplate template = new JdbcTemplate(singleConnectionPool);
+	private void createDBUser(DataSource connectionPool) {
+		JdbcTemplate template = new JdbcTemplate(connectionPool);
 		dbUserHelper.createDbReadOnlyUser(template);
 	}
 
 	/**
 	 * Spring will calls this method when this bean is destroyed. This is our chance
 	 * to shutdown the database connection pools.
-	 * 
+	 *
 	 * @throws SQLException
 	 */
 	@PreDestroy
 	public void close() throws SQLException {
-		if (singleConnectionPool != null) {
-			log.debug("Closing connection pool to: " + singleConnectionPool.getUrl());
-			singleConnectionPool.close();
+		if (connectionPools != null) {
+			for (BasicDataSource connectionPool : connectionPools) {
+				log.debug("Closing connection pool to: " + connectionPool.getUrl());
+				connectionPool.close();
+			}
 		}
 	}
 
 	@Override
 	public List<TableIndexDAO> getAllConnections() {
-		return Collections.singletonList(tableIndexDao);
+		return Collections.unmodifiableList(tableIndexDaos);
 	}
 
 	@Override
 	public TableIndexDAO getFirstConnection() {
-		return tableIndexDao;
+		return tableIndexDaos.get(0);
 	}
 
 	@Override
 	public DataSource getFirstDataSource() {
-		return singleConnectionPool;
+		return connectionPools.get(0);
+	}
+
+	@Override
+	public List<InstanceLoad> getInstanceLoads() {
+		List<InstanceLoad> loads = new ArrayList<>(instances.size());
+		for (int i = 0; i < instances.size(); i++) {
+			InstanceInfo instance = instances.get(i);
+			BasicDataSource connectionPool = connectionPools.get(i);
+			loads.add(new InstanceLoad(instance.getEndpoint(), instance.getSchema(), i < activeCount,
+					connectionRequestCounts.get(i), connectionPool.getNumActive(), connectionPool.getNumIdle()));
+		}
+		return loads;
 	}
 
 }
@@ -0,0 +1,136 @@
+package org.sagebionetworks.table.cluster;
+
+/**
+ * A snapshot of the load on a single database of the table's cluster.
+ *
+ */
+public class InstanceLoad {
+
+	private String endpoint;
+	private String schema;
+	private boolean active;
+	private long connectionRequestCount;
+	private int activeConnectionCount;
+	private int idleConnectionCount;
+
+	/**
+	 *
+	 * @param endpoint
+	 * @param schema
+	 * @param active                 True if the database serves table queries.
+	 * @param connectionRequestCount The number of table connections routed to
+	 *                               the database since the factory was created.
+	 * @param activeConnectionCount  The number of pooled connections in use.
+	 * @param idleConnectionCount    The number of pooled connections that are
+	 *                               idle.
+	 */
+	public InstanceLoad(String endpoint, String schema, boolean active, long connectionRequestCount,
+			int activeConnectionCount, int idleConnectionCount) {
+		this.endpoint = endpoint;
+		this.schema = schema;
+		this.active = active;
+		this.connectionRequestCount = connectionRequestCount;
+		this.activeConnectionCount = activeConnectionCount;
+		this.idleConnectionCount = idleConnectionCount;
+	}
+
+	/**
+	 * The database endpoint.
+	 * @return
+	 */
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	/**
+	 * The database schema.
+	 * @return
+	 */
+	public String getSchema() {
+		return schema;
+	}
+
+	/**
+	 * True if the database serves table queries.
+	 * @return
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * The number of table connections routed to the database since the factory
+	 * was created.
+	 * @return
+	 */
+	public long getConnectionRequestCount() {
+		return connectionRequestCount;
+	}
+
+	/**
+	 * The number of pooled connections in use.
+	 * @return
+	 */
+	public int getActiveConnectionCount() {
+		return activeConnectionCount;
+	}
+
+	/**
+	 * The number of pooled connections that are idle.
+	 * @return
+	 */
+	public int getIdleConnectionCount() {
+		return idleConnectionCount;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (active ? 1231 : 1237);
+		result = prime * result + activeConnectionCount;
+		result = prime * result + (int) (connectionRequestCount ^ (connectionRequestCount >>> 32));
+		result = prime * result + ((endpoint == null) ? 0 : endpoint.hashCode());
+		result = prime * result + idleConnectionCount;
+		result = prime * result + ((schema == null) ? 0 : schema.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		InstanceLoad other = (InstanceLoad) obj;
+		if (active != other.active)
+			return false;
+		if (activeConnectionCount != other.activeConnectionCount)
+			return false;
+		if (connectionRequestCount != other.connectionRequestCount)
+			return false;
+		if (endpoint == null) {
+			if (other.endpoint != null)
+				return false;
+		} else if (!endpoint.equals(other.endpoint))
+			return false;
+		if (idleConnectionCount != other.idleConnectionCount)
+			return false;
+		if (schema == null) {
+			if (other.schema != null)
+				return false;
+		} else if (!schema.equals(other.schema))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "InstanceLoad [endpoint=" + endpoint + ", schema=" + schema + ", active=" + active
+				+ ", connectionRequestCount=" + connectionRequestCount + ", activeConnectionCount="
+				+ activeConnectionCount + ", idleConnectionCount=" + idleConnectionCount + "]";
+	}
+
+}
@@ -206,11 +206,7 @@ public class SqlQuery {
 		QuerySpecification paginatedModel = SqlElementUntils.overridePagination(model, overrideOffset, overrideLimit, maxRowsPerPage);
 
 		// Create a copy of the paginated model.
-		try {
-			transformedModel = new TableQueryParser(paginatedModel.toSql()).querySpecification();
-		} catch (ParseException e) {
-			throw new IllegalArgumentException(e);
-		}
+		transformedModel = paginatedModel.deepCopy();
 		if (!this.isAggregatedResult) {
 			// we need to add the row count and row version columns
 			SelectList expandedSelectList = SQLTranslatorUtils.addMetadataColumnsToSelect(this.transformedModel.getSelectList(), this.includeEntityEtag);
@@ -6,8 +6,8 @@ import org.sagebionetworks.repo.model.table.FacetColumnRequest;
 import org.sagebionetworks.repo.model.table.QueryFilter;
 import org.sagebionetworks.repo.model.table.SortItem;
 import org.sagebionetworks.table.query.ParseException;
-import org.sagebionetworks.table.query.TableQueryParser;
 import org.sagebionetworks.table.query.model.QuerySpecification;
+import org.sagebionetworks.table.query.util.QuerySpecificationCache;
 
 import java.util.List;
 
@@ -32,12 +32,12 @@ public class SqlQueryBuilder {
 	 * @throws ParseException 
 	 */
 	public SqlQueryBuilder(String sql, Long userId) throws ParseException{
-		model = new TableQueryParser(sql).querySpecification();
+		model = QuerySpecificationCache.getShared().parseQuery(sql);
 		this.userId = userId;
 	}
 	
 	public SqlQueryBuilder(String sql, List<ColumnModel> tableSchema, Long userId) throws ParseException{
-		this.model = new TableQueryParser(sql).querySpecification();
+		this.model = QuerySpecificationCache.getShared().parseQuery(sql);
 		this.tableSchema = tableSchema;
 		this.userId = userId;
 	}
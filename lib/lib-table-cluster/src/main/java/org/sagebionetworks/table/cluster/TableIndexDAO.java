@@ -10,6 +10,7 @@ import javax.sql.DataSource;
 
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.IdAndEtag;
 import org.sagebionetworks.repo.model.dao.table.RowHandler;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
@@ -495,6 +496,67 @@ public interface TableIndexDAO {
 	 * @param newExpirationDateMS
 	 */
 	void setSynchronizationLockExpiredForObject(ReplicationType mainType, Long objectId, Long newExpirationDateMS);
+	
+	/**
+	 * Get the parent of the current version of each of the given objects from
+	 * the replication. Objects that are not replicated or have no parent are
+	 * not included.
+	 * 
+	 * @param mainType
+	 * @param objectIds
+	 * @return Map of object id to parent id.
+	 */
+	Map<Long, Long> getParentIds(ReplicationType mainType, Set<Long> objectIds);
+	
+	/**
+	 * Queue the given objects as changed for the given view. Objects that are
+	 * already queued for the view are ignored.
+	 * 
+	 * @param viewId
+	 * @param objectIds
+	 */
+	void addPendingViewDeltas(Long viewId, Set<Long> objectIds);
+	
+	/**
+	 * Get a page of the objects queued as changed for the given view.
+	 * 
+	 * @param viewId
+	 * @param limit
+	 * @return
+	 */
+	Set<Long> getPendingViewDeltas(Long viewId, long limit);
+	
+	/**
+	 * Remove the given objects from the changes queued for the given view.
+	 * 
+	 * @param viewId
+	 * @param objectIds
+	 */
+	void removePendingViewDeltas(Long viewId, Set<Long> objectIds);
+	
+	/**
+	 * Remove all of the changes queued for the given view and its full scan
+	 * expiration.
+	 * 
+	 * @param viewId
+	 */
+	void clearPendingViewDeltas(Long viewId);
+	
+	/**
+	 * Is the full scan for out-of-date rows expired for the given view?
+	 * 
+	 * @param viewId
+	 * @return
+	 */
+	boolean isViewDeltaScanExpired(Long viewId);
+	
+	/**
+	 * Set the expiration of the full scan for out-of-date rows of the given view.
+	 * 
+	 * @param viewId
+	 * @param newExpirationDateMS
+	 */
+	void setViewDeltaScanExpiration(Long viewId, Long newExpirationDateMS);
 
 	/**
 	 * For each parent, get the sum of CRCs of their children.
@@ -616,6 +678,21 @@ public interface TableIndexDAO {
 	 * @return
 	 */
 	List<IdAndChecksum> getIdAndChecksumsForFilter(Long salt, ViewFilter filter, Long limit, Long offset);
+
+	/**
+	 * Get the aggregated checksum of each bucket of objects from the replication
+	 * table that match the provided filter and have an ID within the given range.
+	 * The bucket of each object is: OBJECT_ID DIV bucketSize.
+	 * 
+	 * @param salt
+	 * @param filter
+	 * @param minId      The minimum ID (inclusive).
+	 * @param maxId      The maximum ID (exclusive).
+	 * @param bucketSize
+	 * @return The buckets ordered by bucket ascending.
+	 */
+	List<IdRangeChecksum> getIdRangeChecksumsForFilter(Long salt, ViewFilter filter, Long minId, Long maxId,
+			Long bucketSize);
 	
 	/**
 	 * Adds a special SEARCH_CONTENT FT column to the table index 
@@ -66,6 +66,7 @@ import javax.sql.DataSource;
 import org.json.JSONArray;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.IdAndEtag;
 import org.sagebionetworks.repo.model.dao.table.RowHandler;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
@@ -125,7 +126,10 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 	private static String OBJECT_REPLICATION_TABLE_CREATE = SQLUtils.loadSQLFromClasspath("schema/ObjectReplication.sql");
 	private static String ANNOTATION_REPLICATION_TABLE_CREATE = SQLUtils.loadSQLFromClasspath("schema/AnnotationReplication.sql");
 	private static String REPLICATION_SYNCH_EXPIRATION_TABLE_CREATE = SQLUtils.loadSQLFromClasspath("schema/ReplicationSynchExpiration.sql");
+	private static String VIEW_PENDING_DELTA_TABLE_CREATE = SQLUtils.loadSQLFromClasspath("schema/ViewPendingDelta.sql");
+	private static String VIEW_DELTA_SCAN_EXPIRATION_TABLE_CREATE = SQLUtils.loadSQLFromClasspath("schema/ViewDeltaScanExpiration.sql");
 	private static String GET_ID_AND_CHECKSUMS_SQL_TEMPLATE = SQLUtils.loadSQLFromClasspath("sql/GetIdAndChecksumsTemplate.sql");
+	private static String GET_ID_RANGE_CHECKSUMS_SQL_TEMPLATE = SQLUtils.loadSQLFromClasspath("sql/GetIdRangeChecksumsTemplate.sql");
 	
 	public static RowMapper<ObjectDataDTO> OBJECT_DATA_ROW_MAPPER = (ResultSet rs, int rowNum) -> {
 		ObjectDataDTO dto = new ObjectDataDTO();
@@ -793,6 +797,8 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		template.update(OBJECT_REPLICATION_TABLE_CREATE);
 		template.update(ANNOTATION_REPLICATION_TABLE_CREATE);
 		template.update(REPLICATION_SYNCH_EXPIRATION_TABLE_CREATE);
+		template.update(VIEW_PENDING_DELTA_TABLE_CREATE);
+		template.update(VIEW_DELTA_SCAN_EXPIRATION_TABLE_CREATE);
 	}
 
 	@Override
@@ -1287,6 +1293,99 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		ValidateArgument.required(newExpirationDateMS, "newExpirationDateMS");
 		template.update(BATCH_INSERT_REPLICATION_SYNC_EXP, mainType.name(),objectId, newExpirationDateMS, newExpirationDateMS);		
 	}
+	
+	@Override
+	public Map<Long, Long> getParentIds(ReplicationType mainType, Set<Long> objectIds) {
+		ValidateArgument.required(mainType, "mainType");
+		ValidateArgument.required(objectIds, "objectIds");
+		Map<Long, Long> parentIds = new HashMap<>(objectIds.size());
+		if (objectIds.isEmpty()) {
+			return parentIds;
+		}
+		MapSqlParameterSource param = new MapSqlParameterSource();
+		param.addValue(OBJECT_TYPE_PARAM_NAME, mainType.name());
+		param.addValue(ID_PARAM_NAME, objectIds);
+		namedTemplate.query(TableConstants.SELECT_OBJECT_REPLICATION_PARENT_IDS, param, (RowCallbackHandler) (ResultSet rs) -> {
+			long parentId = rs.getLong(OBJECT_REPLICATION_COL_PARENT_ID);
+			if (!rs.wasNull()) {
+				parentIds.put(rs.getLong(OBJECT_REPLICATION_COL_OBJECT_ID), parentId);
+			}
+		});
+		return parentIds;
+	}
+	
+	@Override
+	public void addPendingViewDeltas(Long viewId, Set<Long> objectIds) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(objectIds, "objectIds");
+		final List<Long> sorted = new ArrayList<Long>(objectIds);
+		// sort to prevent deadlock.
+		Collections.sort(sorted);
+		template.batchUpdate(TableConstants.BATCH_INSERT_VIEW_PENDING_DELTA, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				ps.setLong(1, viewId);
+				ps.setLong(2, sorted.get(i));
+			}
+
+			@Override
+			public int getBatchSize() {
+				return sorted.size();
+			}
+		});
+	}
+	
+	@Override
+	public Set<Long> getPendingViewDeltas(Long viewId, long limit) {
+		ValidateArgument.required(viewId, "viewId");
+		List<Long> objectIds = template.queryForList(TableConstants.SELECT_VIEW_PENDING_DELTA, Long.class, viewId, limit);
+		return new LinkedHashSet<Long>(objectIds);
+	}
+	
+	@Override
+	public void removePendingViewDeltas(Long viewId, Set<Long> objectIds) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(objectIds, "objectIds");
+		final List<Long> sorted = new ArrayList<Long>(objectIds);
+		// sort to prevent deadlock.
+		Collections.sort(sorted);
+		template.batchUpdate(TableConstants.BATCH_DELETE_VIEW_PENDING_DELTA, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				ps.setLong(1, viewId);
+				ps.setLong(2, sorted.get(i));
+			}
+
+			@Override
+			public int getBatchSize() {
+				return sorted.size();
+			}
+		});
+	}
+	
+	@Override
+	public void clearPendingViewDeltas(Long viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		template.update(TableConstants.DELETE_ALL_VIEW_PENDING_DELTA, viewId);
+		template.update(TableConstants.DELETE_VIEW_DELTA_SCAN_EXP, viewId);
+	}
+	
+	@Override
+	public boolean isViewDeltaScanExpired(Long viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		long count = template.queryForObject(TableConstants.COUNT_NON_EXPIRED_VIEW_DELTA_SCAN, Long.class, viewId,
+				System.currentTimeMillis());
+		return count < 1L;
+	}
+	
+	@Override
+	public void setViewDeltaScanExpiration(Long viewId, Long newExpirationDateMS) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(newExpirationDateMS, "newExpirationDateMS");
+		template.update(TableConstants.INSERT_VIEW_DELTA_SCAN_EXP, viewId, newExpirationDateMS, newExpirationDateMS);
+	}
 
 
 	@Override
@@ -1405,6 +1504,8 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 	@Override
 	public void truncateIndex() {
 		truncateReplicationSyncExpiration();
+		template.update(TableConstants.TRUNCATE_VIEW_PENDING_DELTA_TABLE);
+		template.update(TableConstants.TRUNCATE_VIEW_DELTA_SCAN_EXPIRATION_TABLE);
 		template.update(TRUNCATE_ANNOTATION_REPLICATION_TABLE);
 		template.update(TRUNCATE_OBJECT_REPLICATION_TABLE);
 	}
@@ -1438,6 +1539,32 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		});
 	}
 	
+	@Override
+	public List<IdRangeChecksum> getIdRangeChecksumsForFilter(Long salt, ViewFilter filter, Long minId, Long maxId,
+			Long bucketSize) {
+		ValidateArgument.required(salt, "salt");
+		ValidateArgument.required(filter, "filter");
+		ValidateArgument.required(minId, "minId");
+		ValidateArgument.required(maxId, "maxId");
+		ValidateArgument.required(bucketSize, "bucketSize");
+		ValidateArgument.requirement(bucketSize > 0, "bucketSize must be greater than zero");
+		if(filter.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		String sql = String.format(GET_ID_RANGE_CHECKSUMS_SQL_TEMPLATE, filter.getObjectIdFilterSql());
+		Map<String, Object> params = new HashMap<String, Object>(filter.getParameters());
+		params.put("salt", salt);
+		params.put("minId", minId);
+		params.put("maxId", maxId);
+		params.put("bucketSize", bucketSize);
+		
+		return namedTemplate.query(sql, params, (ResultSet rs, int rowNum) -> {
+			return new IdRangeChecksum().withBucket(rs.getLong("BUCKET")).withCount(rs.getLong("ROW_COUNT"))
+					.withChecksum(rs.getLong("CHECK_SUM"));
+		});
+	}
+	
 	@Override
 	public void addSearchColumn(IdAndVersion idAndVersion) {
 		ValidateArgument.required(idAndVersion, "The id");
@@ -0,0 +1,95 @@
+package org.sagebionetworks.table.cluster;
+
+import java.util.List;
+
+import org.sagebionetworks.repo.model.entity.IdAndVersion;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * Assigns the index of each table to one database of the cluster using
+ * rendezvous hashing. A table gives each database a score and is assigned to
+ * the database with the highest score. A score only depends on the table and
+ * the key of the database, so every machine makes the same assignment. When a
+ * database is added only the tables that score highest on the new database are
+ * moved to it, and the tables of the other databases stay where they are.
+ *
+ */
+public class TableIndexRouter {
+
+	private final long[] instanceSeeds;
+
+	/**
+	 *
+	 * @param instanceKeys A stable key for each database of the cluster, in
+	 *                     cluster order.
+	 */
+	public TableIndexRouter(List<String> instanceKeys) {
+		ValidateArgument.required(instanceKeys, "instanceKeys");
+		ValidateArgument.requirement(!instanceKeys.isEmpty(), "At least one instance key is required");
+		instanceSeeds = new long[instanceKeys.size()];
+		for (int i = 0; i < instanceSeeds.length; i++) {
+			instanceSeeds[i] = hashKey(instanceKeys.get(i));
+		}
+	}
+
+	/**
+	 * The number of databases known to this router.
+	 *
+	 * @return
+	 */
+	public int getInstanceCount() {
+		return instanceSeeds.length;
+	}
+
+	/**
+	 * Get the index of the database assigned to the given table, considering only
+	 * the first instanceCount databases of the cluster.
+	 *
+	 * @param tableId
+	 * @param instanceCount
+	 * @return
+	 */
+	public int getInstanceIndex(IdAndVersion tableId, int instanceCount) {
+		ValidateArgument.required(tableId, "tableId");
+		ValidateArgument.requirement(instanceCount > 0 && instanceCount <= instanceSeeds.length,
+				"instanceCount must be between 1 and " + instanceSeeds.length);
+		long tableKey = mix(tableId.getId() * 0x9E3779B97F4A7C15L + tableId.getVersion().orElse(-1L));
+		int bestIndex = 0;
+		long bestScore = Long.MIN_VALUE;
+		for (int i = 0; i < instanceCount; i++) {
+			long score = mix(instanceSeeds[i] ^ tableKey);
+			if (score > bestScore) {
+				bestScore = score;
+				bestIndex = i;
+			}
+		}
+		return bestIndex;
+	}
+
+	/**
+	 * A hash of the given key that is the same on every machine.
+	 *
+	 * @param key
+	 * @return
+	 */
+	static long hashKey(String key) {
+		long hash = 1125899906842597L;
+		for (int i = 0; i < key.length(); i++) {
+			hash = 31 * hash + key.charAt(i);
+		}
+		return mix(hash);
+	}
+
+	/**
+	 * The finalizer of SplitMix64, which spreads every input bit over the whole
+	 * result.
+	 *
+	 * @param value
+	 * @return
+	 */
+	static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+}
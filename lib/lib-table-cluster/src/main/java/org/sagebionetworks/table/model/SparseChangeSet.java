@@ -99,6 +99,52 @@ public class SparseChangeSet implements TableChange {
 		}
 	}
 	
+	/**
+	 * Coalesce the given change sets, in order, into a single change set. When the
+	 * same row is changed more than once, cell values from later change sets replace
+	 * the values from earlier change sets and a later delete replaces all earlier
+	 * changes to the row. The resulting change set will have the etag of the last
+	 * change set.
+	 * <p>
+	 * All of the provided change sets must be for the same table and must share the
+	 * same schema.
+	 *
+	 * @param changeSets
+	 * @return
+	 */
+	public static SparseChangeSet coalesce(List<SparseChangeSet> changeSets) {
+		ValidateArgument.requiredNotEmpty(changeSets, "changeSets");
+		SparseChangeSet first = changeSets.get(0);
+		SparseChangeSet last = changeSets.get(changeSets.size() - 1);
+		SparseChangeSet result = new SparseChangeSet(first.getTableId(), first.schema, last.getEtag());
+		Map<Long, SparseRowImpl> rowsById = new HashMap<>();
+		for (SparseChangeSet changeSet : changeSets) {
+			ValidateArgument.requirement(first.tableId.equals(changeSet.tableId),
+					"All change sets must be for the same table");
+			ValidateArgument.requirement(first.schema.equals(changeSet.schema),
+					"All change sets must have the same schema");
+			for (SparseRow toAdd : changeSet.rowIterator()) {
+				SparseRowImpl toAddImpl = (SparseRowImpl) toAdd;
+				SparseRowImpl existing = toAdd.getRowId() == null ? null : rowsById.get(toAdd.getRowId());
+				if (existing == null) {
+					existing = (SparseRowImpl) result.addEmptyRow();
+					existing.rowId = toAddImpl.rowId;
+					if (existing.rowId != null) {
+						rowsById.put(existing.rowId, existing);
+					}
+				} else if (toAddImpl.isDelete() || existing.isDelete()) {
+					// a delete replaces everything and nothing can be merged with a delete.
+					existing.valueMap.clear();
+				}
+				existing.versionNumber = toAddImpl.versionNumber;
+				existing.etag = toAddImpl.etag;
+				// the values were validated when they were added to the original change set.
+				existing.valueMap.putAll(toAddImpl.valueMap);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Common initialization.
 	 * @param tableId
@@ -0,0 +1,5 @@
+CREATE TABLE IF NOT EXISTS VIEW_DELTA_SCAN_EXPIRATION (
+    VIEW_ID BIGINT NOT NULL,
+    EXPIRES_MS BIGINT NOT NULL,
+    PRIMARY KEY (VIEW_ID)
+)
\ No newline at end of file
@@ -0,0 +1,5 @@
+CREATE TABLE IF NOT EXISTS VIEW_PENDING_DELTA (
+    VIEW_ID BIGINT NOT NULL,
+    OBJECT_ID BIGINT NOT NULL,
+    PRIMARY KEY (VIEW_ID, OBJECT_ID)
+)
\ No newline at end of file
@@ -0,0 +1,8 @@
+SELECT 
+ R.OBJECT_ID DIV :bucketSize AS BUCKET,
+ COUNT(*) AS ROW_COUNT,
+ SUM(CRC32(CONCAT(':salt','-',R.ETAG,'-',R.OBJECT_VERSION,'-',R.BENEFACTOR_ID))) AS CHECK_SUM
+  FROM OBJECT_REPLICATION R
+   WHERE %s AND R.OBJECT_ID >= :minId AND R.OBJECT_ID < :maxId
+   GROUP BY BUCKET
+    ORDER BY BUCKET ASC
\ No newline at end of file
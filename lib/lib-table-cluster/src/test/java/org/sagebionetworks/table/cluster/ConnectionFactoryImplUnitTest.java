@@ -0,0 +1,184 @@
+package org.sagebionetworks.table.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.lib.dbuserhelper.DBUserHelper;
+import org.sagebionetworks.repo.model.entity.IdAndVersion;
+import org.sagebionetworks.table.cluster.metadata.ObjectFieldModelResolverFactory;
+
+@ExtendWith(MockitoExtension.class)
+public class ConnectionFactoryImplUnitTest {
+
+	@Mock
+	private StackConfiguration mockConfig;
+	@Mock
+	private InstanceDiscovery mockInstanceDiscovery;
+	@Mock
+	private TableIndexDAO mockFirstDao;
+	@Mock
+	private TableIndexDAO mockSecondDao;
+	@Mock
+	private TableIndexDAO mockThirdDao;
+	@Mock
+	private DBUserHelper mockUserHelper;
+	@Mock
+	private ObjectFieldModelResolverFactory mockResolverFactory;
+	@Mock
+	private BasicDataSource mockFirstPool;
+	@Mock
+	private BasicDataSource mockSecondPool;
+	@Mock
+	private BasicDataSource mockThirdPool;
+
+	private ConnectionFactoryImpl factory;
+	private List<InstanceInfo> instances;
+	private List<TableIndexDAO> daos;
+	private TableIndexRouter router;
+
+	@BeforeEach
+	public void before() {
+		instances = Arrays.asList(new InstanceInfo("db-0", "tables", false), new InstanceInfo("db-1", "tables", false),
+				new InstanceInfo("db-2", "tables", false));
+		daos = Arrays.asList(mockFirstDao, mockSecondDao, mockThirdDao);
+		router = new TableIndexRouter(Arrays.asList("db-0/tables", "db-1/tables", "db-2/tables"));
+		factory = spy(new ConnectionFactoryImpl(mockConfig, mockInstanceDiscovery, mockFirstDao, mockUserHelper,
+				mockResolverFactory));
+	}
+
+	private void initialize(int activeCount) {
+		when(mockInstanceDiscovery.discoverAllInstances()).thenReturn(instances);
+		when(mockConfig.getTablesDatabaseActiveCount()).thenReturn(activeCount);
+		doReturn(mockFirstPool).when(factory).createConnectionPool(instances.get(0));
+		doReturn(mockSecondPool).when(factory).createConnectionPool(instances.get(1));
+		doReturn(mockThirdPool).when(factory).createConnectionPool(instances.get(2));
+		doReturn(mockSecondDao, mockThirdDao).when(factory).createTableIndexDao();
+		factory.initialize();
+	}
+
+	/**
+	 * Find a table that the router assigns to the given instance.
+	 */
+	private IdAndVersion findTable(int instanceCount, int instanceIndex) {
+		for (long id = 1;; id++) {
+			IdAndVersion tableId = IdAndVersion.newBuilder().setId(id).build();
+			if (router.getInstanceIndex(tableId, instanceCount) == instanceIndex) {
+				return tableId;
+			}
+		}
+	}
+
+	@Test
+	public void testInitialize() {
+		// call under test
+		initialize(3);
+
+		verify(mockFirstDao).setDataSource(mockFirstPool);
+		verify(mockSecondDao).setDataSource(mockSecondPool);
+		verify(mockThirdDao).setDataSource(mockThirdPool);
+		// the replication tables are needed wherever a view can live.
+		verify(mockFirstDao).createObjectReplicationTablesIfDoesNotExist();
+		verify(mockSecondDao).createObjectReplicationTablesIfDoesNotExist();
+		verify(mockThirdDao).createObjectReplicationTablesIfDoesNotExist();
+		verify(mockUserHelper, times(3)).createDbReadOnlyUser(any());
+		assertEquals(daos, factory.getAllConnections());
+		assertSame(mockFirstDao, factory.getFirstConnection());
+		assertSame(mockFirstPool, factory.getFirstDataSource());
+	}
+
+	@Test
+	public void testInitializeWithNoInstances() {
+		when(mockInstanceDiscovery.discoverAllInstances()).thenReturn(Arrays.asList());
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			factory.initialize();
+		});
+	}
+
+	@Test
+	public void testInitializeWithActiveCountTooLarge() {
+		when(mockInstanceDiscovery.discoverAllInstances()).thenReturn(instances);
+		when(mockConfig.getTablesDatabaseActiveCount()).thenReturn(4);
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			factory.initialize();
+		});
+	}
+
+	@Test
+	public void testGetConnection() {
+		initialize(3);
+		for (int i = 0; i < 3; i++) {
+			IdAndVersion tableId = findTable(3, i);
+			// call under test
+			assertSame(daos.get(i), factory.getConnection(tableId));
+			assertEquals(Optional.empty(), factory.getRebalanceConnection(tableId));
+		}
+	}
+
+	@Test
+	public void testGetConnectionWhileRebalancing() {
+		initialize(2);
+		IdAndVersion moving = findTable(3, 2);
+		int currentIndex = router.getInstanceIndex(moving, 2);
+		// call under test
+		assertSame(daos.get(currentIndex), factory.getConnection(moving));
+		assertEquals(Optional.of(mockThirdDao), factory.getRebalanceConnection(moving));
+
+		IdAndVersion staying = findTable(3, 1);
+		// call under test
+		assertSame(mockSecondDao, factory.getConnection(staying));
+		assertEquals(Optional.empty(), factory.getRebalanceConnection(staying));
+	}
+
+	@Test
+	public void testGetInstanceLoads() {
+		initialize(2);
+		when(mockFirstPool.getNumActive()).thenReturn(3);
+		when(mockFirstPool.getNumIdle()).thenReturn(4);
+		factory.getConnection(findTable(2, 0));
+		factory.getConnection(findTable(2, 0));
+		factory.getConnection(findTable(2, 1));
+		factory.getRebalanceConnection(findTable(3, 2));
+
+		// call under test
+		List<InstanceLoad> loads = factory.getInstanceLoads();
+
+		assertEquals(3, loads.size());
+		assertEquals(new InstanceLoad("db-0", "tables", true, 2L, 3, 4), loads.get(0));
+		assertEquals(new InstanceLoad("db-1", "tables", true, 1L, 0, 0), loads.get(1));
+		assertEquals(new InstanceLoad("db-2", "tables", false, 1L, 0, 0), loads.get(2));
+		assertTrue(loads.get(0).isActive());
+		assertFalse(loads.get(2).isActive());
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		initialize(3);
+		// call under test
+		factory.close();
+		verify(mockFirstPool).close();
+		verify(mockSecondPool).close();
+		verify(mockThirdPool).close();
+	}
+}
@@ -3030,6 +3030,65 @@ public class TableIndexDAOImplTest {
 		assertTrue(tableIndexDAO.isSynchronizationLockExpiredForObject(mainType, one));
 	}
 	
+	@Test
+	public void testGetParentIds() {
+		ObjectDataDTO file = createObjectDataDTO(2L, EntityType.file, 0);
+		file.setParentId(11L);
+		ObjectDataDTO noParent = createObjectDataDTO(3L, EntityType.project, 0);
+		noParent.setParentId(null);
+		tableIndexDAO.addObjectData(mainType, Lists.newArrayList(file, noParent));
+		
+		Map<Long, Long> expected = new HashMap<>();
+		expected.put(2L, 11L);
+		// call under test
+		assertEquals(expected, tableIndexDAO.getParentIds(mainType, Sets.newHashSet(2L, 3L, 4L)));
+		assertEquals(Collections.emptyMap(), tableIndexDAO.getParentIds(mainType, Collections.emptySet()));
+		assertEquals(Collections.emptyMap(), tableIndexDAO.getParentIds(ReplicationType.SUBMISSION, Sets.newHashSet(2L)));
+	}
+	
+	@Test
+	public void testPendingViewDeltas() {
+		Long viewId = 123L;
+		Long otherViewId = 456L;
+		tableIndexDAO.addPendingViewDeltas(viewId, Sets.newHashSet(3L, 1L, 2L));
+		// already queued changes are ignored.
+		tableIndexDAO.addPendingViewDeltas(viewId, Sets.newHashSet(2L, 4L));
+		tableIndexDAO.addPendingViewDeltas(otherViewId, Sets.newHashSet(1L));
+		
+		// call under test
+		assertEquals(Sets.newHashSet(1L, 2L, 3L), tableIndexDAO.getPendingViewDeltas(viewId, 3L));
+		assertEquals(Sets.newHashSet(1L, 2L, 3L, 4L), tableIndexDAO.getPendingViewDeltas(viewId, 10L));
+		
+		// call under test
+		tableIndexDAO.removePendingViewDeltas(viewId, Sets.newHashSet(1L, 3L));
+		assertEquals(Sets.newHashSet(2L, 4L), tableIndexDAO.getPendingViewDeltas(viewId, 10L));
+		assertEquals(Sets.newHashSet(1L), tableIndexDAO.getPendingViewDeltas(otherViewId, 10L));
+		
+		// call under test
+		tableIndexDAO.clearPendingViewDeltas(viewId);
+		assertEquals(Collections.emptySet(), tableIndexDAO.getPendingViewDeltas(viewId, 10L));
+		assertEquals(Sets.newHashSet(1L), tableIndexDAO.getPendingViewDeltas(otherViewId, 10L));
+	}
+	
+	@Test
+	public void testViewDeltaScanExpiration() {
+		Long viewId = 123L;
+		// a scan was never done.
+		assertTrue(tableIndexDAO.isViewDeltaScanExpired(viewId));
+		
+		long now = System.currentTimeMillis();
+		tableIndexDAO.setViewDeltaScanExpiration(viewId, now - 10);
+		assertTrue(tableIndexDAO.isViewDeltaScanExpired(viewId));
+		
+		// call under test
+		tableIndexDAO.setViewDeltaScanExpiration(viewId, now + 60_000);
+		assertFalse(tableIndexDAO.isViewDeltaScanExpired(viewId));
+		
+		// clearing the view's changes also forces a new scan.
+		tableIndexDAO.clearPendingViewDeltas(viewId);
+		assertTrue(tableIndexDAO.isViewDeltaScanExpired(viewId));
+	}
+	
 	@Test
 	public void testArithmeticSelect() throws ParseException {
 		// Create the table
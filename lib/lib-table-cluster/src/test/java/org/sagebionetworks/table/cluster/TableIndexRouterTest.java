@@ -0,0 +1,112 @@
+package org.sagebionetworks.table.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.entity.IdAndVersion;
+
+public class TableIndexRouterTest {
+
+	private static final List<String> KEYS = Arrays.asList("db-0/tables", "db-1/tables", "db-2/tables", "db-3/tables");
+
+	@Test
+	public void testGetInstanceIndexSingleInstance() {
+		TableIndexRouter router = new TableIndexRouter(Arrays.asList("db-0/tables"));
+		for (long id = 0; id < 100; id++) {
+			// call under test
+			assertEquals(0, router.getInstanceIndex(IdAndVersion.newBuilder().setId(id).build(), 1));
+		}
+	}
+
+	@Test
+	public void testGetInstanceIndexStable() {
+		TableIndexRouter one = new TableIndexRouter(KEYS);
+		TableIndexRouter two = new TableIndexRouter(KEYS);
+		for (long id = 0; id < 1000; id++) {
+			IdAndVersion tableId = IdAndVersion.newBuilder().setId(id).build();
+			// call under test
+			assertEquals(one.getInstanceIndex(tableId, 4), two.getInstanceIndex(tableId, 4));
+		}
+	}
+
+	@Test
+	public void testGetInstanceIndexBalanced() {
+		TableIndexRouter router = new TableIndexRouter(KEYS);
+		int tableCount = 40000;
+		int[] counts = new int[KEYS.size()];
+		for (long id = 0; id < tableCount; id++) {
+			// call under test
+			counts[router.getInstanceIndex(IdAndVersion.newBuilder().setId(id).build(), KEYS.size())]++;
+		}
+		int expected = tableCount / KEYS.size();
+		for (int count : counts) {
+			assertTrue(Math.abs(count - expected) < expected / 10, Arrays.toString(counts));
+		}
+	}
+
+	@Test
+	public void testGetInstanceIndexOnlyMovesToNewInstance() {
+		TableIndexRouter router = new TableIndexRouter(KEYS);
+		int moved = 0;
+		int tableCount = 10000;
+		for (long id = 0; id < tableCount; id++) {
+			IdAndVersion tableId = IdAndVersion.newBuilder().setId(id).build();
+			// call under test
+			int before = router.getInstanceIndex(tableId, 3);
+			int after = router.getInstanceIndex(tableId, 4);
+			if (before != after) {
+				assertEquals(3, after);
+				moved++;
+			}
+		}
+		// about a quarter of the tables move to the new instance.
+		assertTrue(moved > tableCount / 5 && moved < tableCount * 3 / 10, "moved: " + moved);
+	}
+
+	@Test
+	public void testGetInstanceIndexVersions() {
+		TableIndexRouter router = new TableIndexRouter(KEYS);
+		boolean spread = false;
+		for (long version = 0; version < 20; version++) {
+			IdAndVersion tableId = IdAndVersion.newBuilder().setId(123L).setVersion(version).build();
+			// call under test
+			if (router.getInstanceIndex(tableId, 4) != router.getInstanceIndex(IdAndVersion.parse("syn123"), 4)) {
+				spread = true;
+			}
+		}
+		assertTrue(spread);
+	}
+
+	@Test
+	public void testGetInstanceIndexWithCountOutOfRange() {
+		TableIndexRouter router = new TableIndexRouter(KEYS);
+		IdAndVersion tableId = IdAndVersion.parse("syn123");
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			router.getInstanceIndex(tableId, 0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			router.getInstanceIndex(tableId, 5);
+		});
+	}
+
+	@Test
+	public void testConstructorWithNoKeys() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			new TableIndexRouter(Arrays.asList());
+		});
+	}
+
+	@Test
+	public void testHashKey() {
+		assertEquals(TableIndexRouter.hashKey("db-0/tables"), TableIndexRouter.hashKey("db-0/tables"));
+		assertTrue(TableIndexRouter.hashKey("db-0/tables") != TableIndexRouter.hashKey("db-1/tables"));
+	}
+}
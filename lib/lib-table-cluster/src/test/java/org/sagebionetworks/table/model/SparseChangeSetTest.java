@@ -563,5 +563,97 @@ public class SparseChangeSetTest {
 
 		assertEquals("The columnModels is required and must not be empty.", ex.getMessage());
 	}
+
+	@Test
+	public void testCoalesce() {
+		SparseChangeSet one = new SparseChangeSet("syn123", schema, "etag1");
+		SparseRow row = one.addEmptyRow();
+		row.setRowId(1L);
+		row.setVersionNumber(1L);
+		row.setCellValue(booleanColumn.getId(), "true");
+		row.setCellValue(stringColumn.getId(), "one");
+		row = one.addEmptyRow();
+		row.setRowId(2L);
+		row.setVersionNumber(1L);
+		row.setCellValue(doubleColumn.getId(), "1.1");
+
+		SparseChangeSet two = new SparseChangeSet("syn123", schema, "etag2");
+		row = two.addEmptyRow();
+		row.setRowId(1L);
+		row.setVersionNumber(2L);
+		row.setCellValue(stringColumn.getId(), "two");
+		row = two.addEmptyRow();
+		row.setRowId(3L);
+		row.setVersionNumber(2L);
+		row.setCellValue(stringColumn.getId(), "three");
+
+		// call under test
+		SparseChangeSet result = SparseChangeSet.coalesce(Arrays.asList(one, two));
+		
+		assertEquals("syn123", result.getTableId());
+		assertEquals("etag2", result.getEtag());
+		assertEquals(schema, result.getSchema());
+		assertEquals(3, result.getRowCount());
+		Iterator<SparseRow> it = result.rowIterator().iterator();
+		SparseRow first = it.next();
+		assertEquals(Long.valueOf(1L), first.getRowId());
+		assertEquals(Long.valueOf(2L), first.getVersionNumber());
+		assertEquals("true", first.getCellValue(booleanColumn.getId()));
+		assertEquals("two", first.getCellValue(stringColumn.getId()));
+		assertFalse(first.hasCellValue(doubleColumn.getId()));
+		SparseRow second = it.next();
+		assertEquals(Long.valueOf(2L), second.getRowId());
+		assertEquals(Long.valueOf(1L), second.getVersionNumber());
+		assertEquals("1.1", second.getCellValue(doubleColumn.getId()));
+		SparseRow third = it.next();
+		assertEquals(Long.valueOf(3L), third.getRowId());
+		assertEquals("three", third.getCellValue(stringColumn.getId()));
+	}
+	
+	@Test
+	public void testCoalesceWithDelete() {
+		SparseChangeSet one = new SparseChangeSet("syn123", schema, "etag1");
+		SparseRow row = one.addEmptyRow();
+		row.setRowId(1L);
+		row.setVersionNumber(1L);
+		row.setCellValue(stringColumn.getId(), "one");
+
+		SparseChangeSet two = new SparseChangeSet("syn123", schema, "etag2");
+		row = two.addEmptyRow();
+		row.setRowId(1L);
+		row.setVersionNumber(2L);
+
+		// call under test
+		SparseChangeSet result = SparseChangeSet.coalesce(Arrays.asList(one, two));
+		
+		assertEquals(1, result.getRowCount());
+		SparseRow deleted = result.rowIterator().iterator().next();
+		assertEquals(Long.valueOf(1L), deleted.getRowId());
+		assertEquals(Long.valueOf(2L), deleted.getVersionNumber());
+		assertTrue(deleted.isDelete());
+	}
+	
+	@Test
+	public void testCoalesceWithDifferentSchema() {
+		SparseChangeSet one = new SparseChangeSet("syn123", schema);
+		SparseChangeSet two = new SparseChangeSet("syn123", Arrays.asList(booleanColumn));
+		
+		IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> {			
+			// Call under test
+			SparseChangeSet.coalesce(Arrays.asList(one, two));
+		});
+
+		assertEquals("All change sets must have the same schema", ex.getMessage());
+	}
+	
+	@Test
+	public void testCoalesceWithEmpty() {
+		IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> {			
+			// Call under test
+			SparseChangeSet.coalesce(Collections.emptyList());
+		});
+
+		assertEquals("changeSets is required and must not be empty.", ex.getMessage());
+	}
 	
 }
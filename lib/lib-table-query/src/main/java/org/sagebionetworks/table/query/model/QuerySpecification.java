@@ -74,6 +74,11 @@ public class QuerySpecification extends SQLElement implements HasAggregate, HasS
 		return false;
 	}
 
+	@Override
+	public QuerySpecification deepCopy() {
+		return (QuerySpecification) super.deepCopy();
+	}
+
 	@Override
 	public Optional<String> getSingleTableName() {
 		if(tableExpression == null) {
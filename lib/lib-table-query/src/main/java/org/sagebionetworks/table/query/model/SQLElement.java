@@ -1,15 +1,25 @@
 package org.sagebionetworks.table.query.model;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * An element that be serialized to SQL.
  *
  */
-public abstract class SQLElement implements Element {
+public abstract class SQLElement implements Element, Cloneable {
+	
+	/**
+	 * The instance fields of each element type that may hold children.
+	 */
+	private static final ConcurrentMap<Class<?>, List<Field>> COPY_FIELDS = new ConcurrentHashMap<>();
 	
 	Element parent;
 		
@@ -225,6 +235,79 @@ public abstract class SQLElement implements Element {
 		}
 	}
 
+	/**
+	 * Create a deep copy of this element. The entire tree under this element is
+	 * copied structurally so the copy can be modified without changing the
+	 * original. This is equivalent to, but much cheaper than, parsing the SQL of
+	 * this element. The copy will not have a parent.
+	 * 
+	 * @return
+	 */
+	public SQLElement deepCopy() {
+		SQLElement copy = copyRecursive(this);
+		copy.setParent(null);
+		copy.recursiveSetParent();
+		return copy;
+	}
+	
+	/**
+	 * Recursively copy the given element and all of its children. Fields that
+	 * are not elements or lists of elements are immutable so they are shared
+	 * with the copy.
+	 * 
+	 * @param element
+	 * @return
+	 */
+	static SQLElement copyRecursive(SQLElement element) {
+		try {
+			SQLElement copy = (SQLElement) element.clone();
+			for (Field field : getCopyFields(element.getClass())) {
+				Object value = field.get(element);
+				if (value instanceof SQLElement) {
+					field.set(copy, copyRecursive((SQLElement) value));
+				} else if (value instanceof List) {
+					List<?> list = (List<?>) value;
+					List<Object> listCopy = new ArrayList<>(list.size());
+					for (Object item : list) {
+						listCopy.add(item instanceof SQLElement ? copyRecursive((SQLElement) item) : item);
+					}
+					field.set(copy, listCopy);
+				}
+			}
+			return copy;
+		} catch (CloneNotSupportedException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Get the instance fields of the given type, including inherited fields,
+	 * that can reference other elements.
+	 * 
+	 * @param type
+	 * @return
+	 */
+	static List<Field> getCopyFields(Class<?> type) {
+		return COPY_FIELDS.computeIfAbsent(type, (Class<?> key) -> {
+			List<Field> fields = new ArrayList<>();
+			for (Class<?> current = key; current != SQLElement.class; current = current.getSuperclass()) {
+				for (Field field : current.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers())) {
+						continue;
+					}
+					Class<?> fieldType = field.getType();
+					boolean isElement = Element.class.isAssignableFrom(fieldType) || fieldType.isAssignableFrom(SQLElement.class);
+					boolean isList = fieldType.isAssignableFrom(ArrayList.class);
+					if (isElement || isList) {
+						field.setAccessible(true);
+						fields.add(field);
+					}
+				}
+			}
+			return Collections.unmodifiableList(fields);
+		});
+	}
+
 	@Override
 	public <T extends Element> boolean isInContext(Class<T> type) {
 		if(this.parent == null) {
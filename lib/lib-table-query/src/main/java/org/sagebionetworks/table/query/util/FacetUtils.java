@@ -54,7 +54,7 @@ public class FacetUtils {
 	 * @throws ParseException
 	 */
 	public static QuerySpecification appendFacetSearchConditionToQuerySpecification(QuerySpecification sqlModel, List<FacetRequestColumnModel> facetRequestColumnModels) throws ParseException{
-		QuerySpecification modelCopy = new TableQueryParser(sqlModel.toSql()).querySpecification();
+		QuerySpecification modelCopy = sqlModel.deepCopy();
 		if(!facetRequestColumnModels.isEmpty()){
 			WhereClause originalWhereClause = sqlModel.getTableExpression().getWhereClause();
 			
@@ -0,0 +1,112 @@
+package org.sagebionetworks.table.query.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagebionetworks.table.query.ParseException;
+import org.sagebionetworks.table.query.TableQueryParser;
+import org.sagebionetworks.table.query.model.QuerySpecification;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * A bounded, least-recently-used cache of parsed {@link QuerySpecification}
+ * keyed by the SQL text. The cached trees are never exposed; each call returns
+ * a deep copy that the caller is free to modify.
+ *
+ */
+public class QuerySpecificationCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+	private static final QuerySpecificationCache SHARED = new QuerySpecificationCache(DEFAULT_MAX_ENTRIES);
+
+	private final Map<String, QuerySpecification> cache;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * 
+	 * @param maxEntries The maximum number of parsed queries to keep.
+	 */
+	public QuerySpecificationCache(final int maxEntries) {
+		ValidateArgument.requirement(maxEntries > 0, "maxEntries must be greater than zero");
+		this.cache = new LinkedHashMap<String, QuerySpecification>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, QuerySpecification> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * The cache shared by all callers in this JVM.
+	 * 
+	 * @return
+	 */
+	public static QuerySpecificationCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Parse the given SQL into a QuerySpecification. If the same SQL was recently
+	 * parsed, a copy of the existing tree is returned without parsing the SQL
+	 * again.
+	 * 
+	 * @param sql
+	 * @return A new tree that is not shared with any other caller.
+	 * @throws ParseException
+	 */
+	public QuerySpecification parseQuery(String sql) throws ParseException {
+		ValidateArgument.required(sql, "sql");
+		QuerySpecification cached;
+		synchronized (cache) {
+			cached = cache.get(sql);
+		}
+		if (cached != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+			cached = TableQueryParser.parserQuery(sql);
+			synchronized (cache) {
+				cache.put(sql, cached);
+			}
+		}
+		return cached.deepCopy();
+	}
+
+	/**
+	 * @return The number of queries currently in the cache.
+	 */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * @return The number of calls that were served from the cache.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return The number of calls that required a parse.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Remove all entries from the cache.
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+}
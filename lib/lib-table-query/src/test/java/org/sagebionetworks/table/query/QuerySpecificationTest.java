@@ -4,10 +4,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 import org.sagebionetworks.table.query.model.Element;
@@ -113,5 +117,61 @@ public class QuerySpecificationTest {
 				.querySpecification();
 		assertTrue(querySpec.isIncludeSearch());
 	}
+	
+	@Test
+	public void testDeepCopy() throws ParseException {
+		QuerySpecification original = new TableQueryParser(
+				"select distinct foo, count(*) from syn123 where bar in (1,2,3) and foo like 'a%' group by foo order by foo desc limit 10 offset 2")
+				.querySpecification();
+		// call under test
+		QuerySpecification copy = original.deepCopy();
+		assertEquals(original.toSql(), copy.toSql());
+		assertEquals(original.getSetQuantifier(), copy.getSetQuantifier());
+		assertNull(copy.getParent());
+		// No element of the copy can be shared with the original.
+		Set<Element> originalElements = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Element element : original.createAllElementsIterable()) {
+			originalElements.add(element);
+		}
+		for (Element element : copy.createAllElementsIterable()) {
+			assertFalse(originalElements.contains(element));
+		}
+	}
+	
+	@Test
+	public void testDeepCopySetsParents() throws ParseException {
+		QuerySpecification original = new TableQueryParser("select foo from syn123 where bar = 1")
+				.querySpecification();
+		// call under test
+		QuerySpecification copy = original.deepCopy();
+		WhereClause where = copy.getFirstElementOfType(WhereClause.class);
+		Element root = where;
+		while (root.getParent() != null) {
+			root = root.getParent();
+		}
+		assertSame(copy, root);
+	}
+	
+	@Test
+	public void testDeepCopyIsIndependent() throws ParseException {
+		QuerySpecification original = new TableQueryParser("select foo from syn123 where bar = 1")
+				.querySpecification();
+		QuerySpecification copy = original.deepCopy();
+		// call under test
+		copy.getTableExpression().replaceWhere(new TableQueryParser("where bar = 2").whereClause());
+		copy.replaceSelectList(new TableQueryParser("count(*)").selectList());
+		assertEquals("SELECT foo FROM syn123 WHERE bar = 1", original.toSql());
+		assertEquals("SELECT COUNT(*) FROM syn123 WHERE bar = 2", copy.toSql());
+	}
+	
+	@Test
+	public void testDeepCopyAllExamples() throws ParseException {
+		for (SQLExample example : SQLExampleProvider.getSQLExamples()) {
+			QuerySpecification parsed = TableQueryParser.parserQuery(example.getSql());
+			// call under test
+			QuerySpecification copy = parsed.deepCopy();
+			assertEquals(parsed.toSql(), copy.toSql(), example.getSql());
+		}
+	}
 
 }
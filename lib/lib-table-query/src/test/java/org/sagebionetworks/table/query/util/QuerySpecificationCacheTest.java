@@ -0,0 +1,93 @@
+package org.sagebionetworks.table.query.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.table.query.ParseException;
+import org.sagebionetworks.table.query.TableQueryParser;
+import org.sagebionetworks.table.query.model.QuerySpecification;
+
+public class QuerySpecificationCacheTest {
+
+	QuerySpecificationCache cache;
+
+	@BeforeEach
+	public void before() {
+		cache = new QuerySpecificationCache(2);
+	}
+
+	@Test
+	public void testParseQueryMiss() throws ParseException {
+		// call under test
+		QuerySpecification result = cache.parseQuery("select * from syn123");
+		assertEquals("SELECT * FROM syn123", result.toSql());
+		assertEquals(0L, cache.getHitCount());
+		assertEquals(1L, cache.getMissCount());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testParseQueryHit() throws ParseException {
+		QuerySpecification first = cache.parseQuery("select * from syn123");
+		// call under test
+		QuerySpecification second = cache.parseQuery("select * from syn123");
+		assertEquals(first.toSql(), second.toSql());
+		// each caller gets its own tree.
+		assertNotSame(first, second);
+		assertEquals(1L, cache.getHitCount());
+		assertEquals(1L, cache.getMissCount());
+	}
+
+	@Test
+	public void testParseQueryCopyIsolation() throws ParseException {
+		QuerySpecification first = cache.parseQuery("select * from syn123 where a = 1");
+		// changes made by one caller must not be seen by the next.
+		first.getTableExpression().replaceWhere(new TableQueryParser("where b = 2").whereClause());
+		// call under test
+		QuerySpecification second = cache.parseQuery("select * from syn123 where a = 1");
+		assertEquals("SELECT * FROM syn123 WHERE a = 1", second.toSql());
+	}
+
+	@Test
+	public void testParseQueryEvictsLeastRecentlyUsed() throws ParseException {
+		cache.parseQuery("select * from syn1");
+		cache.parseQuery("select * from syn2");
+		// touch the first so the second is the eldest.
+		cache.parseQuery("select * from syn1");
+		// call under test
+		cache.parseQuery("select * from syn3");
+		assertEquals(2, cache.size());
+		cache.parseQuery("select * from syn1");
+		assertEquals(2L, cache.getHitCount());
+		cache.parseQuery("select * from syn2");
+		assertEquals(4L, cache.getMissCount());
+	}
+
+	@Test
+	public void testParseQueryParseError() {
+		assertThrows(ParseException.class, () -> {
+			// call under test
+			cache.parseQuery("this is not sql");
+		});
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testParseQueryNullSql() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			cache.parseQuery(null);
+		});
+	}
+
+	@Test
+	public void testConstructorInvalidSize() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			new QuerySpecificationCache(0);
+		});
+	}
+}
@@ -4,14 +4,16 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.repo.model.UploadContentToS3DAO;
+import org.sagebionetworks.repo.model.content.CompressedContent;
+import org.sagebionetworks.repo.model.content.ImmutableContentCache;
 import org.sagebionetworks.repo.model.discussion.MessageURL;
 import org.sagebionetworks.util.ContentDispositionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +37,9 @@ public class UploadContentToS3DAOImpl implements UploadContentToS3DAO {
 	@Autowired
 	private SynapseS3Client s3Client;
 
+	@Autowired
+	private ImmutableContentCache contentCache;
+
 	private String bucketName;
 
 	/**
@@ -119,16 +124,20 @@ public class UploadContentToS3DAOImpl implements UploadContentToS3DAO {
 
 	@Override
 	public String getMessage(String key) {
-		InputStream input = null;
 		try {
-			S3Object object = s3Client.getObject(bucketName, key);
-			input = object.getObjectContent();
-			GZIPInputStream zipIn = new GZIPInputStream(input);
-			return IOUtils.toString(zipIn, "UTF-8");
+			// Each message is uploaded to a new key so the content of a key never changes.
+			return contentCache.getContent(key, () -> {
+				InputStream input = null;
+				try {
+					S3Object object = s3Client.getObject(bucketName, key);
+					input = object.getObjectContent();
+					return new CompressedContent(IOUtils.toByteArray(input), StandardCharsets.UTF_8);
+				} finally {
+					IOUtils.closeQuietly(input);
+				}
+			});
 		} catch(IOException e) {
 			throw new RuntimeException("Failed to retrieve message for key "+key);
-		} finally {
-			IOUtils.closeQuietly(input);
 		}
 	}
 }
@@ -3,14 +3,16 @@ package org.sagebionetworks.upload.discussion;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.net.URL;
 
 import org.junit.Before;
@@ -19,6 +21,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.repo.model.content.ImmutableContentCache;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.amazonaws.services.s3.model.BucketCrossOriginConfiguration;
@@ -40,12 +43,13 @@ public class UploadContentToS3DAOImplTest {
 	private URL url;
 
 	@Before
-	public void before() throws MalformedURLException {
+	public void before() throws IOException {
 		MockitoAnnotations.initMocks(this);
 
 		dao = new UploadContentToS3DAOImpl();
 		ReflectionTestUtils.setField(dao, "s3Client", mockS3Client);
 		ReflectionTestUtils.setField(dao, "bucketName", bucketName);
+		ReflectionTestUtils.setField(dao, "contentCache", new ImmutableContentCache(10_000L, 0L));
 		url = new URL("https://www.synapse.org/");
 	}
 
@@ -129,10 +133,25 @@ public class UploadContentToS3DAOImplTest {
 		when(mockS3Client.getObject(anyString(), anyString())).thenReturn(mockS3Object);
 		when(mockS3Object.getObjectContent()).thenReturn(s3ObjectInputStream);
 		String key = "key";
-		dao.getMessage(key);
+		assertEquals("message", dao.getMessage(key));
 		verify(mockS3Client).getObject(anyString(), eq(key));
 	}
 
+	@Test
+	public void testGetMessageCached() throws IOException {
+		byte[] compressedBytes = UploadContentToS3DAOImpl.compress("message");
+		ByteArrayInputStream in = new ByteArrayInputStream(compressedBytes);
+		S3ObjectInputStream s3ObjectInputStream = new S3ObjectInputStream(in, null);
+		when(mockS3Client.getObject(anyString(), anyString())).thenReturn(mockS3Object);
+		when(mockS3Object.getObjectContent()).thenReturn(s3ObjectInputStream);
+		String key = "key";
+		assertEquals("message", dao.getMessage(key));
+		// call under test
+		assertEquals("message", dao.getMessage(key));
+		// the second call is served from the cache.
+		verify(mockS3Client, times(1)).getObject(anyString(), eq(key));
+	}
+
 	@Test (expected = NullPointerException.class)
 	public void testGetMessageWithNullInputStream() throws IOException {
 		when(mockS3Client.getObject(anyString(), anyString())).thenReturn(mockS3Object);
@@ -147,6 +166,8 @@ public class UploadContentToS3DAOImplTest {
 	public void testGetMessageCloseInputStream() throws IOException {
 		when(mockS3Client.getObject(anyString(), anyString())).thenReturn(mockS3Object);
 		when(mockS3Object.getObjectContent()).thenReturn(mockInputStream);
+		when(mockInputStream.read(any(byte[].class))).thenReturn(-1);
+		when(mockInputStream.read(any(byte[].class), anyInt(), anyInt())).thenReturn(-1);
 		String key = "key";
 		try {
 			dao.getMessage(key);
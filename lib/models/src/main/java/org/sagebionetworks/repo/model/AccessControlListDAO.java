@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.model;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.sagebionetworks.repo.model.auth.AuthorizationStatus;
@@ -45,6 +46,16 @@ public interface AccessControlListDAO  {
 	 */
 	public AccessControlList get(String id, ObjectType objectType) throws DatastoreException, NotFoundException;
 	
+	/**
+	 * Get the ACL of each of the given owners with a fixed number of queries.
+	 * Owners without an ACL are not included in the results.
+	 * 
+	 * @param ownerIds
+	 * @param objectType
+	 * @return Map of each owner ID to its ACL.
+	 */
+	public Map<Long, AccessControlList> getAcls(Set<Long> ownerIds, ObjectType objectType);
+	
 	/**
 	 * Get the ACL's ID using ownerId and objectType
 	 * @param id
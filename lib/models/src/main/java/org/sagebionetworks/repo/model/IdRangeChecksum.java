@@ -0,0 +1,86 @@
+package org.sagebionetworks.repo.model;
+
+import java.util.Objects;
+
+/**
+ * The aggregated checksum of all objects with an ID in a single bucket of an
+ * ID range, where the bucket of an object is: ID DIV bucketSize. Since the
+ * checksum of each object is the sum of the checksum of each of its versions,
+ * the checksum of a bucket is the sum of the checksums of each of its objects.
+ *
+ */
+public class IdRangeChecksum {
+
+	private Long bucket;
+	private Long count;
+	private Long checksum;
+
+	/**
+	 * @return the bucket number (ID DIV bucketSize)
+	 */
+	public Long getBucket() {
+		return bucket;
+	}
+
+	/**
+	 * @param bucket the bucket to set
+	 */
+	public IdRangeChecksum withBucket(Long bucket) {
+		this.bucket = bucket;
+		return this;
+	}
+
+	/**
+	 * @return the number of rows (object versions) in the bucket
+	 */
+	public Long getCount() {
+		return count;
+	}
+
+	/**
+	 * @param count the count to set
+	 */
+	public IdRangeChecksum withCount(Long count) {
+		this.count = count;
+		return this;
+	}
+
+	/**
+	 * @return the checksum
+	 */
+	public Long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * @param checksum the checksum to set
+	 */
+	public IdRangeChecksum withChecksum(Long checksum) {
+		this.checksum = checksum;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(bucket, checksum, count);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof IdRangeChecksum)) {
+			return false;
+		}
+		IdRangeChecksum other = (IdRangeChecksum) obj;
+		return Objects.equals(bucket, other.bucket) && Objects.equals(checksum, other.checksum)
+				&& Objects.equals(count, other.count);
+	}
+
+	@Override
+	public String toString() {
+		return "IdRangeChecksum [bucket=" + bucket + ", count=" + count + ", checksum=" + checksum + "]";
+	}
+
+}
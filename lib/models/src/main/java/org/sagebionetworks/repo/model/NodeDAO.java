@@ -79,6 +79,15 @@ public interface NodeDAO {
 	 */
 	public Node getNode(String id);
 	
+	/**
+	 * Fetch the current version of each of the given nodes with a single query.
+	 * Nodes that do not exist are not included in the results.
+	 * 
+	 * @param ids
+	 * @return
+	 */
+	public List<Node> getNodes(List<Long> ids);
+	
 	/**
 	 * Get the node for a given version number.
 	 * @param id
@@ -133,6 +142,18 @@ public interface NodeDAO {
 	 */
 	void updateEntityPropertyAnnotations(String nodeId, org.sagebionetworks.repo.model.Annotations updatedAnnos) throws NotFoundException, DatastoreException;
 
+	/**
+	 * Rewrite the entity property annotations that are still stored as compressed
+	 * XML with the binary encoding, for every revision of the nodes with an ID
+	 * within the given range. A revision that is updated while it is being
+	 * rewritten is skipped.
+	 * 
+	 * @param minNodeId The minimum node ID (inclusive).
+	 * @param maxNodeId The maximum node ID (exclusive).
+	 * @return The number of revisions that were rewritten.
+	 */
+	long rewriteCompressedEntityPropertyAnnotations(long minNodeId, long maxNodeId);
+
 	/**
 	 * Get all of the version numbers for this node.
 	 * @param id
@@ -166,6 +187,16 @@ public interface NodeDAO {
 	 * @throws NotFoundException
 	 */
 	Annotations getUserAnnotationsForVersion(String id, Long versionNumber);
+	
+	/**
+	 * Get the user annotations of the current version of each of the given nodes
+	 * with a single query. Nodes that do not exist are not included in the
+	 * results.
+	 * 
+	 * @param ids
+	 * @return
+	 */
+	List<Annotations> getUserAnnotationsForCurrentVersions(List<Long> ids);
 
 	/**
 	 * Get Entity properties that could not be stored as a Node
@@ -507,6 +538,16 @@ public interface NodeDAO {
 	 * @return
 	 */
 	public String getProjectId(String objectId);
+
+	/**
+	 * Get the project of each of the given nodes with a single query. Nodes that
+	 * do not exist, are in the trash or do not belong to a project are not
+	 * included in the results.
+	 * 
+	 * @param nodeIds
+	 * @return Map of each node ID to its project ID.
+	 */
+	public Map<Long, Long> getProjectIds(Set<Long> nodeIds);
 	
 	/**
 	 * A node's permissions benefactor is the node which its permissions are inherited from.
@@ -515,6 +556,15 @@ public interface NodeDAO {
 	 * @return
 	 */
 	public String getBenefactor(String beneficiaryId);
+	
+	/**
+	 * Get the permissions benefactor of each of the given nodes with a single
+	 * query. Nodes that do not exist are not included in the results.
+	 * 
+	 * @param beneficiaryIds
+	 * @return Map of each node ID to its benefactor ID.
+	 */
+	public Map<Long, Long> getBenefactors(List<Long> beneficiaryIds);
 
 	/**
 	 * Return a set of fileHandleIds that associated with entityId and appear in the provided list.
@@ -576,6 +626,19 @@ public interface NodeDAO {
 	public List<NodeIdAndType> getChildren(String parentId, long limit,
 			long offset);
 
+	/**
+	 * A single page of IDs and types of the children of the given parent, ordered
+	 * by ID. Pages are read with a key set rather than an offset so that walking a
+	 * large container costs the same for each page: pass the ID of the last child
+	 * of the previous page to get the next page.
+	 * 
+	 * @param parentId
+	 * @param afterChildId Only children with an ID greater than this are included.
+	 * @param limit
+	 * @return
+	 */
+	public List<NodeIdAndType> getChildrenAfter(Long parentId, long afterChildId, long limit);
+
 	/**
 	 * Retrieve an entityId given its name and parentId.
 	 * 
@@ -688,4 +751,35 @@ public interface NodeDAO {
 	 */
 	public List<IdAndChecksum> getIdsAndChecksumsForObjects(Long salt, Set<Long> objectIds, Long limit, Long offset);
 
+	/**
+	 * Get the aggregated checksum of each bucket of children of the given parents
+	 * with an ID within the given range. The bucket of each child is: ID DIV
+	 * bucketSize. Only buckets with at least one child are included.
+	 * 
+	 * @param salt
+	 * @param parentIds
+	 * @param subTypes
+	 * @param minId      The minimum ID (inclusive).
+	 * @param maxId      The maximum ID (exclusive).
+	 * @param bucketSize
+	 * @return The buckets ordered by bucket ascending.
+	 */
+	public List<IdRangeChecksum> getIdRangeChecksumsForChildren(Long salt, Set<Long> parentIds, Set<SubType> subTypes,
+			Long minId, Long maxId, Long bucketSize);
+
+	/**
+	 * Get the aggregated checksum of each bucket of the given objectIds with an ID
+	 * within the given range. The bucket of each object is: ID DIV bucketSize.
+	 * Only buckets with at least one object are included.
+	 * 
+	 * @param salt
+	 * @param objectIds
+	 * @param minId      The minimum ID (inclusive).
+	 * @param maxId      The maximum ID (exclusive).
+	 * @param bucketSize
+	 * @return The buckets ordered by bucket ascending.
+	 */
+	public List<IdRangeChecksum> getIdRangeChecksumsForObjects(Long salt, Set<Long> objectIds, Long minId, Long maxId,
+			Long bucketSize);
+
 }
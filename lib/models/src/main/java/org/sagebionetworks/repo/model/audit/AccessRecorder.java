@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.model.audit;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Abstraction for recording access events.
@@ -17,9 +18,9 @@ public interface AccessRecorder {
 	
 	/**
 	 * Called when the timer is fired
-	 * @return
+	 * @return The names of the files that were written.
 	 * @throws IOException
 	 */
-	public String timerFired() throws IOException;
+	public List<String> timerFired() throws IOException;
 
 }
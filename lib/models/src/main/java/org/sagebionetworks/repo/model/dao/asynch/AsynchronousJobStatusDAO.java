@@ -20,10 +20,12 @@ public interface AsynchronousJobStatusDAO {
 	 * @param startedByUserId The ID of the user that is starting the job.
 	 * @param body
 	 * @param requestHash For jobs that are cacheable a hash of the job body + object etag will be included.
-	 * This hash can then be used to find existing jobs with the same hash.
+	 * This hash can then be used to find existing jobs with the same hash once the job is complete.
+	 * The hash is computed when the job starts so a completed job is only matched for the state it ran against.
+	 * See: {@link #findCompletedJobStatus(String, Long)}.
 	 * @return
 	 */
-	public AsynchronousJobStatus startJob(Long startedByUserId, AsynchronousRequestBody body);
+	public AsynchronousJobStatus startJob(Long startedByUserId, AsynchronousRequestBody body, String requestHash);
 	
 	/**
 	 * Get the status of a job from its jobId.
@@ -66,14 +68,12 @@ public interface AsynchronousJobStatusDAO {
 	 * Set a job to complete
 	 * 
 	 * @param body The final body of the job.
-	 * @param requestHash Set the request hash for cacheable requests.  This hash is used to find cached jobs for the same
-	 * request from the same user.  See: {@link #findCompletedJobStatus(String, Long)}.
 	 * 
 	 * @return runtime MS.
 	 * @throws NotFoundException 
 	 * @throws DatastoreException 
 	 */
-	public long setComplete(String jobId, AsynchronousResponseBody body, String requestHash) throws DatastoreException, NotFoundException;
+	public long setComplete(String jobId, AsynchronousResponseBody body) throws DatastoreException, NotFoundException;
 
 	
 	/**
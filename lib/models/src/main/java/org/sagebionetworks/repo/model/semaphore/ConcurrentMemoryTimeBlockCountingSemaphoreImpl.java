@@ -0,0 +1,145 @@
+package org.sagebionetworks.repo.model.semaphore;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.sagebionetworks.common.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * A thread-safe implementation of MemoryTimeBlockCountingSemaphore that does
+ * not serialize all callers on a single monitor. The time block of each key is
+ * updated atomically within {@link ConcurrentHashMap#compute}, so callers only
+ * contend with each other when they use the same key (or keys in the same hash
+ * bin).
+ * <p>
+ * Expired time blocks are removed incrementally: each time a new block is
+ * created a small batch of existing entries is checked for expiration. This
+ * keeps the size of the map bounded by the number of keys used within the
+ * longest timeout without a full scan or a global clear.
+ *
+ */
+public class ConcurrentMemoryTimeBlockCountingSemaphoreImpl implements MemoryTimeBlockCountingSemaphore {
+
+	/**
+	 * The number of entries checked for expiration each time a new time block is
+	 * created.
+	 */
+	public static final int SWEEP_BATCH_SIZE = 16;
+
+	private final ConcurrentHashMap<String, TimeBlock> keyTimeBlockMap = new ConcurrentHashMap<>();
+	// Only one thread sweeps at a time. Others skip the sweep rather than wait.
+	private final ReentrantLock sweepLock = new ReentrantLock();
+	// guarded by the sweepLock.
+	private Iterator<Map.Entry<String, TimeBlock>> sweepIterator;
+	// abstraction from the system clock.
+	private final Clock clock;
+
+	/**
+	 * Create a new semaphore given a clock.
+	 * 
+	 * @param clock
+	 */
+	public ConcurrentMemoryTimeBlockCountingSemaphoreImpl(Clock clock) {
+		ValidateArgument.required(clock, "clock");
+		this.clock = clock;
+	}
+
+	@Override
+	public boolean attemptToAcquireLock(String key, long timeoutSec, long maxLockCount) {
+		ValidateArgument.required(key, "key");
+		ValidateArgument.requirement(timeoutSec >= 0, "timeoutSec must be a positive value");
+		ValidateArgument.requirement(maxLockCount >= 0, "maxLockCount must be a positive value");
+
+		if (maxLockCount == 0) {
+			// no need to track nor do anything if the max number of acquirable locks is 0
+			return false;
+		}
+		final long now = clock.currentTimeMillis();
+		// [0] = lock acquired, [1] = new time block created
+		final boolean[] outcome = new boolean[2];
+		keyTimeBlockMap.compute(key, (String k, TimeBlock block) -> {
+			if (block == null || block.isExpired(now)) {
+				// start a new time block for this key.
+				outcome[0] = true;
+				outcome[1] = block == null;
+				return new TimeBlock(now + timeoutSec * 1000);
+			}
+			if (block.count < maxLockCount) {
+				// current count not exceeding maximum. just increment
+				block.count++;
+				outcome[0] = true;
+			}
+			return block;
+		});
+		if (outcome[1]) {
+			sweepExpired(now);
+		}
+		return outcome[0];
+	}
+
+	/**
+	 * Remove up to {@link #SWEEP_BATCH_SIZE} expired time blocks, continuing from
+	 * where the last sweep stopped.
+	 * 
+	 * @param now
+	 */
+	void sweepExpired(final long now) {
+		if (!sweepLock.tryLock()) {
+			// another thread is already sweeping.
+			return;
+		}
+		try {
+			for (int i = 0; i < SWEEP_BATCH_SIZE; i++) {
+				if (sweepIterator == null || !sweepIterator.hasNext()) {
+					// start over from the beginning of the map.
+					sweepIterator = keyTimeBlockMap.entrySet().iterator();
+					if (!sweepIterator.hasNext()) {
+						return;
+					}
+				}
+				String key = sweepIterator.next().getKey();
+				// Only remove the block if it is still expired when we hold the bin.
+				keyTimeBlockMap.computeIfPresent(key, (String k, TimeBlock block) -> block.isExpired(now) ? null : block);
+			}
+		} finally {
+			sweepLock.unlock();
+		}
+	}
+
+	/**
+	 * The number of keys currently tracked.
+	 * 
+	 * @return
+	 */
+	int getKeyCount() {
+		return keyTimeBlockMap.size();
+	}
+
+	@Override
+	public void releaseAllLocks() {
+		keyTimeBlockMap.clear();
+	}
+
+	/**
+	 * The count and expiration of a single key. Instances are only read or modified
+	 * while holding the key's bin in the map.
+	 */
+	private static class TimeBlock {
+
+		private final long expirationTimeMillis;
+		private long count;
+
+		TimeBlock(long expirationTimeMillis) {
+			this.expirationTimeMillis = expirationTimeMillis;
+			this.count = 1;
+		}
+
+		boolean isExpired(long now) {
+			return now >= expirationTimeMillis;
+		}
+	}
+
+}
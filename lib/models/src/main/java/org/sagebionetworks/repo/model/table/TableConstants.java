@@ -168,6 +168,66 @@ public class TableConstants {
 	
 	public static final String TRUNCATE_REPLICATION_SYNC_EXPIRATION_TABLE = 
 			"TRUNCATE TABLE "+REPLICATION_SYNC_EXPIRATION_TABLE;
+	
+	// VIEW_PENDING_DELTA
+	public static final String VIEW_PENDING_DELTA_TABLE						= "VIEW_PENDING_DELTA";
+	public static final String VIEW_PENDING_DELTA_COL_VIEW_ID				= "VIEW_ID";
+	public static final String VIEW_PENDING_DELTA_COL_OBJECT_ID				= "OBJECT_ID";
+	
+	// VIEW_DELTA_SCAN_EXPIRATION
+	public static final String VIEW_DELTA_SCAN_EXPIRATION_TABLE				= "VIEW_DELTA_SCAN_EXPIRATION";
+	public static final String VIEW_DELTA_SCAN_EXP_COL_VIEW_ID				= "VIEW_ID";
+	public static final String VIEW_DELTA_SCAN_EXP_COL_EXPIRES				= "EXPIRES_MS";
+	
+	public static final String BATCH_INSERT_VIEW_PENDING_DELTA =
+			"INSERT IGNORE INTO " + VIEW_PENDING_DELTA_TABLE + " ("
+			+ VIEW_PENDING_DELTA_COL_VIEW_ID + ", "
+			+ VIEW_PENDING_DELTA_COL_OBJECT_ID
+			+ ") VALUES (?,?)";
+	
+	public static final String SELECT_VIEW_PENDING_DELTA =
+			"SELECT " + VIEW_PENDING_DELTA_COL_OBJECT_ID
+			+ " FROM " + VIEW_PENDING_DELTA_TABLE
+			+ " WHERE " + VIEW_PENDING_DELTA_COL_VIEW_ID + " = ?"
+			+ " ORDER BY " + VIEW_PENDING_DELTA_COL_OBJECT_ID + " LIMIT ?";
+	
+	public static final String BATCH_DELETE_VIEW_PENDING_DELTA =
+			"DELETE FROM " + VIEW_PENDING_DELTA_TABLE
+			+ " WHERE " + VIEW_PENDING_DELTA_COL_VIEW_ID + " = ?"
+			+ " AND " + VIEW_PENDING_DELTA_COL_OBJECT_ID + " = ?";
+	
+	public static final String DELETE_ALL_VIEW_PENDING_DELTA =
+			"DELETE FROM " + VIEW_PENDING_DELTA_TABLE
+			+ " WHERE " + VIEW_PENDING_DELTA_COL_VIEW_ID + " = ?";
+	
+	public static final String TRUNCATE_VIEW_PENDING_DELTA_TABLE =
+			"TRUNCATE TABLE " + VIEW_PENDING_DELTA_TABLE;
+	
+	public static final String INSERT_VIEW_DELTA_SCAN_EXP =
+			"INSERT INTO " + VIEW_DELTA_SCAN_EXPIRATION_TABLE + " ("
+			+ VIEW_DELTA_SCAN_EXP_COL_VIEW_ID + ", "
+			+ VIEW_DELTA_SCAN_EXP_COL_EXPIRES
+			+ ") VALUES (?,?) ON DUPLICATE KEY UPDATE"
+			+ " " + VIEW_DELTA_SCAN_EXP_COL_EXPIRES + " = ?";
+	
+	public static final String COUNT_NON_EXPIRED_VIEW_DELTA_SCAN =
+			"SELECT COUNT(*) FROM " + VIEW_DELTA_SCAN_EXPIRATION_TABLE
+			+ " WHERE " + VIEW_DELTA_SCAN_EXP_COL_VIEW_ID + " = ?"
+			+ " AND " + VIEW_DELTA_SCAN_EXP_COL_EXPIRES + " > ?";
+	
+	public static final String DELETE_VIEW_DELTA_SCAN_EXP =
+			"DELETE FROM " + VIEW_DELTA_SCAN_EXPIRATION_TABLE
+			+ " WHERE " + VIEW_DELTA_SCAN_EXP_COL_VIEW_ID + " = ?";
+	
+	public static final String TRUNCATE_VIEW_DELTA_SCAN_EXPIRATION_TABLE =
+			"TRUNCATE TABLE " + VIEW_DELTA_SCAN_EXPIRATION_TABLE;
+	
+	public static final String SELECT_OBJECT_REPLICATION_PARENT_IDS =
+			"SELECT " + OBJECT_REPLICATION_COL_OBJECT_ID + ", " + OBJECT_REPLICATION_COL_PARENT_ID
+			+ " FROM " + OBJECT_REPLICATION_TABLE
+			+ " WHERE " + OBJECT_REPLICATION_COL_OBJECT_TYPE + " = :" + OBJECT_TYPE_PARAM_NAME
+			+ " AND " + OBJECT_REPLICATION_COL_OBJECT_ID + " IN (:" + ID_PARAM_NAME + ")"
+			+ " AND " + OBJECT_REPLICATION_COL_OBJECT_VERSION + " = " + OBJECT_REPLICATION_COL_CUR_VERSION;
 
 	public final static String OBJECT_REPLICATION_DELETE_ALL = "DELETE FROM "+OBJECT_REPLICATION_TABLE+" WHERE " 
 			+ OBJECT_REPLICATION_COL_OBJECT_TYPE + " = ? AND "
@@ -0,0 +1,147 @@
+package org.sagebionetworks.repo.model.semaphore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.sagebionetworks.common.util.Clock;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConcurrentMemoryTimeBlockCountingSemaphoreImplTest {
+
+	@Mock
+	private Clock mockClock;
+
+	private ConcurrentMemoryTimeBlockCountingSemaphoreImpl semaphore;
+
+	private static final String key = "some key";
+
+	private static final int limit = 2;
+
+	private static final int timeoutSec = 2;
+
+	@Before
+	public void setUp() {
+		semaphore = new ConcurrentMemoryTimeBlockCountingSemaphoreImpl(mockClock);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAcquireLockNullKey() {
+		semaphore.attemptToAcquireLock(null, timeoutSec, limit);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAcquireLockNegativeTimeoutSec() {
+		semaphore.attemptToAcquireLock(key, -1, limit);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAcquireLockNegativeMaxLock() {
+		semaphore.attemptToAcquireLock(key, timeoutSec, -1);
+	}
+
+	@Test
+	public void testAcquireLockZeroMaxLocks() {
+		assertFalse(semaphore.attemptToAcquireLock(key, timeoutSec, 0));
+		assertEquals(0, semaphore.getKeyCount());
+	}
+
+	@Test
+	public void testAcquireLockUpToLimit() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		assertTrue(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+		assertTrue(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+		assertFalse(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+		// other keys are not limited by this key.
+		assertTrue(semaphore.attemptToAcquireLock("other key", timeoutSec, limit));
+	}
+
+	@Test
+	public void testAcquireLockExpired() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L, 1000L, 1000L, 1000L + timeoutSec * 1000, 1000L + timeoutSec * 1000);
+		assertTrue(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+		assertTrue(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+		assertFalse(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+		// the block has expired so a new block starts.
+		assertTrue(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+		assertTrue(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+	}
+
+	@Test
+	public void testExpiredKeysAreRemoved() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		int oldKeyCount = ConcurrentMemoryTimeBlockCountingSemaphoreImpl.SWEEP_BATCH_SIZE / 2;
+		for (int i = 0; i < oldKeyCount; i++) {
+			assertTrue(semaphore.attemptToAcquireLock("key" + i, timeoutSec, limit));
+		}
+		assertEquals(oldKeyCount, semaphore.getKeyCount());
+		// all of the existing keys are now expired.
+		long now = 1000L + timeoutSec * 1000;
+		when(mockClock.currentTimeMillis()).thenReturn(now);
+		// adding a new key triggers a sweep.
+		assertTrue(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+		// call under test
+		semaphore.sweepExpired(now);
+		assertEquals(1, semaphore.getKeyCount());
+		// the new key is still tracked.
+		assertTrue(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+		assertFalse(semaphore.attemptToAcquireLock(key, timeoutSec, limit));
+	}
+
+	@Test
+	public void testReleaseAllLocks() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		assertTrue(semaphore.attemptToAcquireLock(key, timeoutSec, 1));
+		assertFalse(semaphore.attemptToAcquireLock(key, timeoutSec, 1));
+		// call under test
+		semaphore.releaseAllLocks();
+		assertEquals(0, semaphore.getKeyCount());
+		assertTrue(semaphore.attemptToAcquireLock(key, timeoutSec, 1));
+	}
+
+	@Test
+	public void testConcurrentAcquireNeverExceedsLimit() throws Exception {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		int threadCount = 64;
+		int keyCount = 100;
+		int maxLocks = 10;
+		int attemptsPerThread = 1000;
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<Integer>> futures = new ArrayList<>(threadCount);
+			for (int t = 0; t < threadCount; t++) {
+				final int offset = t;
+				futures.add(executor.submit((Callable<Integer>) () -> {
+					int acquired = 0;
+					for (int i = 0; i < attemptsPerThread; i++) {
+						if (semaphore.attemptToAcquireLock("key" + ((i + offset) % keyCount), timeoutSec, maxLocks)) {
+							acquired++;
+						}
+					}
+					return acquired;
+				}));
+			}
+			int totalAcquired = 0;
+			for (Future<Integer> future : futures) {
+				totalAcquired += future.get();
+			}
+			assertEquals(keyCount * maxLocks, totalAcquired);
+			assertEquals(keyCount, semaphore.getKeyCount());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
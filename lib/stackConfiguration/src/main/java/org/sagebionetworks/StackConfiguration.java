@@ -361,6 +361,80 @@ public interface StackConfiguration {
 	 */
 	public boolean getShouldMessagesBePublishedToTopic();
 
+	/**
+	 * The maximum number of records that a record collector (access records,
+	 * change messages, events) will hold in memory before its overflow policy is
+	 * applied.
+	 * 
+	 * @return
+	 */
+	public int getRecordCollectorCapacity();
+
+	/**
+	 * The number of queued records that will trigger a flush of a record
+	 * collector without waiting for its timer.
+	 * 
+	 * @return
+	 */
+	public int getRecordCollectorBatchSize();
+
+	/**
+	 * What a full record collector does with new records. One of: DROP_OLDEST,
+	 * SPILL_TO_DISK or BLOCK.
+	 * 
+	 * @return
+	 */
+	public String getRecordCollectorOverflowPolicy();
+
+	/**
+	 * The maximum number of compressed bytes of wiki markdown and discussion
+	 * messages that will be cached on the heap.
+	 * 
+	 * @return
+	 */
+	public long getImmutableContentCacheMaxHeapBytes();
+
+	/**
+	 * The maximum number of compressed bytes of wiki markdown and discussion
+	 * messages that will be cached on the local disk. Zero disables the disk
+	 * cache.
+	 * 
+	 * @return
+	 */
+	public long getImmutableContentCacheMaxDiskBytes();
+
+	/**
+	 * The maximum number of recently verified JSON Web Tokens that will be cached.
+	 * Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public long getVerifiedTokenCacheMaxSize();
+
+	/**
+	 * The maximum number of seconds that a verified JSON Web Token will be cached.
+	 * Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public long getVerifiedTokenCacheTimeToLiveSeconds();
+
+	/**
+	 * The maximum number of users whose group memberships will be cached. Zero
+	 * disables the cache.
+	 * 
+	 * @return
+	 */
+	public long getUserMembershipCacheMaxSize();
+
+	/**
+	 * The maximum number of seconds that a user's group memberships will be
+	 * cached. Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public long getUserMembershipCacheTimeToLiveSeconds();
+
 	/**
 	 * DataCite user name.
 	 */
@@ -528,6 +602,70 @@ public interface StackConfiguration {
 	 */
 	public int getTableMaxEnumValues();
 
+	/**
+	 * The maximum number of table change sets that will be loaded ahead of the
+	 * change currently being applied while building a table index. A value less
+	 * than two will apply each change one at a time.
+	 * 
+	 * @return
+	 */
+	public int getTableIndexReplayPrefetchCount();
+
+	/**
+	 * When true, the count, facet and sum-file-size parts of a table query are
+	 * run concurrently with the main query.
+	 * 
+	 * @return
+	 */
+	public boolean getTableQueryConcurrentPartsEnabled();
+
+	/**
+	 * The number of threads shared by all table queries to run query parts
+	 * concurrently.
+	 * 
+	 * @return
+	 */
+	public int getTableQueryPartThreadCount();
+
+	/**
+	 * When true, the parts of an entity bundle are fetched concurrently.
+	 * 
+	 * @return
+	 */
+	public boolean getEntityBundleConcurrentPartsEnabled();
+
+	/**
+	 * The number of threads shared by all entity bundle requests to fetch bundle
+	 * parts concurrently.
+	 * 
+	 * @return
+	 */
+	public int getEntityBundlePartThreadCount();
+
+	/**
+	 * When true, view reconciliation compares aggregated checksums of ID ranges and
+	 * only descends into ranges that differ, rather than comparing every object.
+	 * 
+	 * @return
+	 */
+	public boolean getReplicationReconcileTieredEnabled();
+
+	/**
+	 * The size of each ID range compared at the top tier of a tiered view
+	 * reconciliation.
+	 * 
+	 * @return
+	 */
+	public long getReplicationReconcileTopBucketSize();
+
+	/**
+	 * The number of ID ranges that a single range is split into at each tier of a
+	 * tiered view reconciliation.
+	 * 
+	 * @return
+	 */
+	public int getReplicationReconcileBucketFanout();
+
 	/**
 	 * The maximum amount of time in MS that the table worker can hold the semaphore
 	 * lock on the table.
@@ -603,6 +741,16 @@ public interface StackConfiguration {
 	 */
 	public int getTablesDatabaseCount();
 
+	/**
+	 * Get the number of databases in the table's cluster that serve table
+	 * queries. These are the first databases of the cluster. The databases after
+	 * them are being filled with the indexes they will serve once this number is
+	 * raised.
+	 * 
+	 * @return
+	 */
+	public int getTablesDatabaseActiveCount();
+
 	/**
 	 * Get the endpoint of a table's database given its index.
 	 * 
@@ -594,6 +594,98 @@ public class StackConfigurationImpl implements StackConfiguration {
 				configuration.getProperty("org.sagebionetworks.repo.manage.shouldMessagesBePublishedToTopic"));
 	}
 
+	/**
+	 * The maximum number of records that a record collector (access records,
+	 * change messages, events) will hold in memory before its overflow policy is
+	 * applied.
+	 * 
+	 * @return
+	 */
+	public int getRecordCollectorCapacity() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.record.collector.capacity"));
+	}
+
+	/**
+	 * The number of queued records that will trigger a flush of a record
+	 * collector without waiting for its timer.
+	 * 
+	 * @return
+	 */
+	public int getRecordCollectorBatchSize() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.record.collector.batch.size"));
+	}
+
+	/**
+	 * What a full record collector does with new records. One of: DROP_OLDEST,
+	 * SPILL_TO_DISK or BLOCK.
+	 * 
+	 * @return
+	 */
+	public String getRecordCollectorOverflowPolicy() {
+		return configuration.getProperty("org.sagebionetworks.record.collector.overflow.policy");
+	}
+
+	/**
+	 * The maximum number of compressed bytes of wiki markdown and discussion
+	 * messages that will be cached on the heap.
+	 * 
+	 * @return
+	 */
+	public long getImmutableContentCacheMaxHeapBytes() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.immutable.content.cache.max.heap.bytes"));
+	}
+
+	/**
+	 * The maximum number of compressed bytes of wiki markdown and discussion
+	 * messages that will be cached on the local disk. Zero disables the disk
+	 * cache.
+	 * 
+	 * @return
+	 */
+	public long getImmutableContentCacheMaxDiskBytes() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.immutable.content.cache.max.disk.bytes"));
+	}
+
+	/**
+	 * The maximum number of recently verified JSON Web Tokens that will be cached.
+	 * Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public long getVerifiedTokenCacheMaxSize() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.oauth.verified.token.cache.max.size"));
+	}
+
+	/**
+	 * The maximum number of seconds that a verified JSON Web Token will be cached.
+	 * Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public long getVerifiedTokenCacheTimeToLiveSeconds() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.oauth.verified.token.cache.ttl.seconds"));
+	}
+
+	/**
+	 * The maximum number of users whose group memberships will be cached. Zero
+	 * disables the cache.
+	 * 
+	 * @return
+	 */
+	public long getUserMembershipCacheMaxSize() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.user.membership.cache.max.size"));
+	}
+
+	/**
+	 * The maximum number of seconds that a user's group memberships will be
+	 * cached. Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public long getUserMembershipCacheTimeToLiveSeconds() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.user.membership.cache.ttl.seconds"));
+	}
+
 	/**
 	 * Prefix under which DOIs should be registered.
 	 */
@@ -824,6 +916,85 @@ public class StackConfigurationImpl implements StackConfiguration {
 		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.max.enum.values"));
 	}
 
+	/**
+	 * The maximum number of table change sets that will be loaded ahead of the
+	 * change currently being applied while building a table index.
+	 * 
+	 * @return
+	 */
+	public int getTableIndexReplayPrefetchCount() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.index.replay.prefetch.count"));
+	}
+
+	/**
+	 * When true, the count, facet and sum-file-size parts of a table query are
+	 * run concurrently with the main query.
+	 * 
+	 * @return
+	 */
+	public boolean getTableQueryConcurrentPartsEnabled() {
+		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.table.query.concurrent.parts.enabled"));
+	}
+
+	/**
+	 * The number of threads shared by all table queries to run query parts
+	 * concurrently.
+	 * 
+	 * @return
+	 */
+	public int getTableQueryPartThreadCount() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.query.part.thread.count"));
+	}
+
+	/**
+	 * When true, the parts of an entity bundle are fetched concurrently.
+	 * 
+	 * @return
+	 */
+	public boolean getEntityBundleConcurrentPartsEnabled() {
+		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.entity.bundle.concurrent.parts.enabled"));
+	}
+
+	/**
+	 * The number of threads shared by all entity bundle requests to fetch bundle
+	 * parts concurrently.
+	 * 
+	 * @return
+	 */
+	public int getEntityBundlePartThreadCount() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.entity.bundle.part.thread.count"));
+	}
+
+	/**
+	 * When true, view reconciliation compares aggregated checksums of ID ranges and
+	 * only descends into ranges that differ, rather than comparing every object.
+	 * 
+	 * @return
+	 */
+	public boolean getReplicationReconcileTieredEnabled() {
+		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.replication.reconcile.tiered.enabled"));
+	}
+
+	/**
+	 * The size of each ID range compared at the top tier of a tiered view
+	 * reconciliation.
+	 * 
+	 * @return
+	 */
+	public long getReplicationReconcileTopBucketSize() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.replication.reconcile.top.bucket.size"));
+	}
+
+	/**
+	 * The number of ID ranges that a single range is split into at each tier of a
+	 * tiered view reconciliation.
+	 * 
+	 * @return
+	 */
+	public int getReplicationReconcileBucketFanout() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.replication.reconcile.bucket.fanout"));
+	}
+
 	/**
 	 * The maximum amount of time in MS that the table worker can hold the semaphore
 	 * lock on the table.
@@ -921,6 +1092,16 @@ public class StackConfigurationImpl implements StackConfiguration {
 		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.cluster.database.count"));
 	}
 
+	/**
+	 * Get the number of databases in the table's cluster that serve table
+	 * queries.
+	 * 
+	 * @return
+	 */
+	public int getTablesDatabaseActiveCount() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.cluster.database.active.count"));
+	}
+
 	/**
 	 * Get the endpoint of a table's database given its index.
 	 * 
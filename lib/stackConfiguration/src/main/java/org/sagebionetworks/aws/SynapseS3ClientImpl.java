@@ -45,6 +45,8 @@ import com.amazonaws.services.s3.model.RestoreObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.SetObjectTaggingRequest;
 import com.amazonaws.services.s3.model.Tag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
 import com.amazonaws.util.StringUtils;
 
 /*
@@ -200,6 +202,11 @@ public class SynapseS3ClientImpl implements SynapseS3Client {
 		return getS3ClientForBucket(copyPartRequest.getDestinationBucketName()).copyPart(copyPartRequest);
 	}
 
+	@Override
+	public UploadPartResult uploadPart(UploadPartRequest uploadPartRequest) throws SdkClientException, AmazonServiceException {
+		return getS3ClientForBucket(uploadPartRequest.getBucketName()).uploadPart(uploadPartRequest);
+	}
+
 	@Override
 	public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request)
 			throws SdkClientException, AmazonServiceException {
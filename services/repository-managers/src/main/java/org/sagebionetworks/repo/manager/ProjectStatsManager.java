@@ -1,8 +1,10 @@
 package org.sagebionetworks.repo.manager;
 
 import java.util.Date;
+import java.util.List;
 
 import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
 
 public interface ProjectStatsManager {
 
@@ -27,6 +29,18 @@ public interface ProjectStatsManager {
 	void updateProjectStats(Long userId, String objectId,
 			ObjectType objectType, Date activityDate);
 
+	/**
+	 * Update the projects statistics for a batch of changes. Each user and
+	 * project pair is written once, with the newest activity date of the batch.
+	 * The projects of the objects are looked up with a single query and the
+	 * statistics are written with a single batch upsert.
+	 * 
+	 * @param changes
+	 *            Each change must include the user that performed the
+	 *            activity, the object and the date/time of the activity.
+	 */
+	void updateProjectStats(List<ChangeMessage> changes);
+
 	/**
 	 * Get the project that contains the given object.
 	 * 
@@ -1,16 +1,25 @@
 package org.sagebionetworks.repo.manager;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.sagebionetworks.repo.model.GroupMembersDAO;
 import org.sagebionetworks.repo.model.NodeDAO;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.ProjectStat;
 import org.sagebionetworks.repo.model.ProjectStatsDAO;
+import org.sagebionetworks.repo.model.UserGroup;
 import org.sagebionetworks.repo.model.UserGroupDAO;
 import org.sagebionetworks.repo.model.dao.WikiPageKey;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.v2.dao.V2WikiPageDao;
 import org.sagebionetworks.repo.transactions.WriteTransaction;
 import org.sagebionetworks.repo.web.NotFoundException;
@@ -100,6 +109,120 @@ public class ProjectStatsManagerImpl implements ProjectStatsManager {
 	}
 
 
+	@WriteTransaction
+	@Override
+	public void updateProjectStats(List<ChangeMessage> changes) {
+		ValidateArgument.required(changes, "changes");
+		// The newest activity of each principal on each entity.
+		Map<Long, Map<Long, Date>> activityByEntity = new HashMap<>();
+		for (ChangeMessage change : changes) {
+			ValidateArgument.required(change.getUserId(), "change.userId");
+			ValidateArgument.required(change.getObjectId(), "change.objectId");
+			ValidateArgument.required(change.getObjectType(), "change.objectType");
+			ValidateArgument.required(change.getTimestamp(), "change.timestamp");
+			Long entityId = getEntityForObject(change.getObjectId(), change.getObjectType());
+			if (entityId != null) {
+				addActivity(activityByEntity, entityId, change.getUserId(), change.getTimestamp());
+			}
+		}
+		if (activityByEntity.isEmpty()) {
+			return;
+		}
+		// Lookup the project of each entity with a single query.
+		Map<Long, Long> projectIds = nodeDao.getProjectIds(activityByEntity.keySet());
+		Map<Long, Map<Long, Date>> activityByProject = new HashMap<>();
+		Set<Long> principalIds = new HashSet<>();
+		activityByEntity.forEach((entityId, activity) -> {
+			Long projectId = projectIds.get(entityId);
+			if (projectId != null) {
+				activity.forEach((principalId, activityDate) -> {
+					addActivity(activityByProject, projectId, principalId, activityDate);
+					principalIds.add(principalId);
+				});
+			}
+		});
+		if (activityByProject.isEmpty()) {
+			return;
+		}
+		Map<Long, Set<Long>> usersByPrincipal = getUsersForPrincipals(principalIds);
+		// The newest activity of each user on each project.
+		Map<Long, Map<Long, Date>> userActivityByProject = new HashMap<>();
+		activityByProject.forEach((projectId, activity) -> {
+			activity.forEach((principalId, activityDate) -> {
+				for (Long userId : usersByPrincipal.getOrDefault(principalId, Collections.emptySet())) {
+					addActivity(userActivityByProject, projectId, userId, activityDate);
+				}
+			});
+		});
+		List<ProjectStat> update = new ArrayList<>();
+		userActivityByProject.forEach((projectId, activity) -> {
+			activity.forEach((userId, activityDate) -> {
+				update.add(new ProjectStat(projectId, userId, activityDate));
+			});
+		});
+		if (!update.isEmpty()) {
+			// batch update
+			projectStatDao.updateProjectStat(update.toArray(new ProjectStat[update.size()]));
+		}
+	}
+
+	/**
+	 * Get the ID of the entity that the given object belongs to.
+	 * 
+	 * @param objectId
+	 * @param objectType
+	 * @return Null if the object does not belong to an entity.
+	 */
+	Long getEntityForObject(String objectId, ObjectType objectType) {
+		switch (objectType) {
+		case ENTITY:
+		case TABLE:
+			return KeyFactory.stringToKey(objectId);
+		case WIKI:
+			try {
+				// Lookup the owner id and type for this wiki.
+				WikiPageKey key = v2wikiPageDao.lookupWikiKey(objectId);
+				return getEntityForObject(key.getOwnerObjectId(), key.getOwnerObjectType());
+			} catch (NotFoundException e) {
+				return null;
+			}
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Get the users of each of the given principals. A user is its own user,
+	 * while the users of a team are its members. Principals that do not exist
+	 * are not included in the results.
+	 * 
+	 * @param principalIds
+	 * @return
+	 */
+	Map<Long, Set<Long>> getUsersForPrincipals(Set<Long> principalIds) {
+		List<String> ids = principalIds.stream().map(Object::toString).collect(Collectors.toList());
+		Map<Long, Set<Long>> usersByPrincipal = new HashMap<>(ids.size());
+		for (UserGroup principal : userGroupDao.get(ids)) {
+			Long principalId = Long.parseLong(principal.getId());
+			if (Boolean.TRUE.equals(principal.getIsIndividual())) {
+				usersByPrincipal.put(principalId, Collections.singleton(principalId));
+			} else {
+				// team so update for each member
+				usersByPrincipal.put(principalId, groupMemberDao.getMemberIds(principalId));
+			}
+		}
+		return usersByPrincipal;
+	}
+
+	/**
+	 * Add the given activity, keeping the newest activity date of each key pair.
+	 */
+	private static void addActivity(Map<Long, Map<Long, Date>> activity, Long firstKey, Long secondKey,
+			Date activityDate) {
+		activity.computeIfAbsent(firstKey, k -> new HashMap<>()).merge(secondKey, activityDate,
+				(one, two) -> one.after(two) ? one : two);
+	}
+
 	@WriteTransaction
 	@Override
 	public void memberAddedToTeam(Long teamId, Long memberId, Date activityDate) {
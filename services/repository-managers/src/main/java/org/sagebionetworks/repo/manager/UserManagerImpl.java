@@ -1,12 +1,15 @@
 package org.sagebionetworks.repo.manager;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.sagebionetworks.repo.manager.principal.NewUserUtils;
+import org.sagebionetworks.repo.manager.principal.UserMembershipCache;
+import org.sagebionetworks.repo.manager.principal.UserMembershipCache.UserMembership;
 import org.sagebionetworks.repo.manager.team.TeamConstants;
 import org.sagebionetworks.repo.model.AuthorizationConstants.BOOTSTRAP_PRINCIPAL;
 import org.sagebionetworks.repo.model.AuthorizationUtils;
@@ -30,6 +33,7 @@ import org.sagebionetworks.repo.model.principal.PrincipalAliasDAO;
 import org.sagebionetworks.repo.transactions.WriteTransaction;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.securitytools.HMACUtils;
+import org.sagebionetworks.util.Clock;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.google.common.collect.Lists;
@@ -54,6 +58,12 @@ public class UserManagerImpl implements UserManager {
 	@Autowired
 	private NotificationEmailDAO notificationEmailDao;
 	
+	@Autowired
+	private UserMembershipCache membershipCache;
+	
+	@Autowired
+	private Clock clock;
+	
 	/**
 	 * Testing purposes only
 	 * Do NOT use in non-test code
@@ -182,7 +192,8 @@ public class UserManagerImpl implements UserManager {
 
 	@Override
 	public UserInfo getUserInfo(Long principalId) throws NotFoundException {
-		UserGroup principal = userGroupDAO.get(principalId);
+		UserMembership membership = membershipCache.getOrLoad(principalId, this::loadMembership);
+		UserGroup principal = membership.getPrincipal();
 		if(!principal.getIsIndividual()) throw new IllegalArgumentException("Principal: "+principalId+" is not a User");
 		// Lookup the user's name
 		// Check which group(s) of Anonymous, Public, or Authenticated the user belongs to  
@@ -198,11 +209,7 @@ public class UserManagerImpl implements UserManager {
 		groups.add(principalId);
 		groups.add(BOOTSTRAP_PRINCIPAL.PUBLIC_GROUP.getPrincipalId());
 		// Add all groups the user belongs to
-		List<UserGroup> groupFromDAO = groupMembersDAO.getUsersGroups(principal.getId());
-		// Add each group
-		for(UserGroup ug: groupFromDAO){
-			groups.add(Long.parseLong(ug.getId()));
-		}
+		groups.addAll(membership.getGroupIds());
 
 		// Check to see if the user is an Admin
 		boolean isAdmin = false;
@@ -219,6 +226,23 @@ public class UserManagerImpl implements UserManager {
 		return ui;
 	}
 
+	/**
+	 * Read the principal and the groups it belongs to from the database.
+	 * 
+	 * @param principalId
+	 * @return
+	 */
+	UserMembership loadMembership(Long principalId) {
+		UserGroup principal = userGroupDAO.get(principalId);
+		Set<Long> groupIds = new HashSet<Long>();
+		if (principal.getIsIndividual()) {
+			for (UserGroup ug : groupMembersDAO.getUsersGroups(principal.getId())) {
+				groupIds.add(Long.parseLong(ug.getId()));
+			}
+		}
+		return new UserMembership(principal, groupIds, clock.currentTimeMillis());
+	}
+
 	@WriteTransaction
 	@Override
 	public void deletePrincipal(UserInfo adminUserInfo, Long principalId) throws NotFoundException {
@@ -227,6 +251,8 @@ public class UserManagerImpl implements UserManager {
 		}
 		
 		userGroupDAO.delete(principalId.toString());
+		// Deleting a principal does not send a change message.
+		membershipCache.invalidate(Collections.singleton(principalId));
 	}
 
 	@Override
@@ -41,6 +41,10 @@ public class AsynchJobStatusManagerImpl implements AsynchJobStatusManager {
 	public static final String JOB_TYPE = "JobType";
 
 	public static final String METRIC_NAME = "Job elapse time";
+	
+	public static final String METRIC_NAME_CACHE_HIT = "Cached job hit count";
+	
+	public static final String METRIC_NAME_CACHE_MISS = "Cached job miss count";
 
 	private static final String CACHED_MESSAGE_TEMPLATE = "Returning a cached job for user: %d, requestHash: %s, and jobId: %s";
 
@@ -117,16 +121,19 @@ public class AsynchJobStatusManagerImpl implements AsynchJobStatusManager {
 	public AsynchronousJobStatus startJob(UserInfo user, AsynchronousRequestBody body) throws DatastoreException, NotFoundException {
 		if(user == null) throw new IllegalArgumentException("UserInfo cannot be null");
 		if(body == null) throw new IllegalArgumentException("Body cannot be null");
+		String requestHash = null;
 		if(body instanceof CacheableRequestBody){
 			/*
 			 *  Before we start a CacheableRequestBody job, we need to determine if a job already exists
 			 *  for this request and user.
 			 */
-			String requestHash = jobHashProvider.getJobHash((CacheableRequestBody) body);
+			requestHash = jobHashProvider.getJobHash((CacheableRequestBody) body, user);
 			// if the requestHash is null the job cannot be cached.
 			if(requestHash != null){
 				// Does this job already exist
 				AsynchronousJobStatus status = findJobsMatching(requestHash, body, user.getId());
+				AsynchJobType type = AsynchJobType.findTypeFromRequestClass(body.getClass());
+				pushCacheMetric(status != null ? METRIC_NAME_CACHE_HIT : METRIC_NAME_CACHE_MISS, type);
 				if(status != null){
 					/*
 					 * If here then the caller has already made this exact request
@@ -140,8 +147,11 @@ public class AsynchJobStatusManagerImpl implements AsynchJobStatusManager {
 			}
 		}
 		
-		// Start the job.
-		AsynchronousJobStatus status = asynchJobStatusDao.startJob(user.getId(), body);
+		/*
+		 * Start the job. The hash is recorded now, so the result is only served for
+		 * the object state and the caller's access at the time the job started.
+		 */
+		AsynchronousJobStatus status = asynchJobStatusDao.startJob(user.getId(), body, requestHash);
 		// publish a message to get the work started
 		asynchJobQueuePublisher.publishMessage(status);
 		return status;
@@ -207,22 +217,14 @@ public class AsynchJobStatusManagerImpl implements AsynchJobStatusManager {
 	@Override
 	public void setComplete(String jobId, AsynchronousResponseBody body)
 			throws DatastoreException, NotFoundException, IOException {
-		/*
-		 *  For a cacheable requests we need to calculate a request hash.
-		 *  This hash can be used to find jobs that already match an existing request.
-		 */
+		// The request hash of a cacheable job was recorded when the job started.
 		AsynchronousJobStatus status = lookupJobStatus(jobId);
-		String requestHash = null;
-		if(status.getRequestBody() instanceof CacheableRequestBody){
-			CacheableRequestBody request = (CacheableRequestBody) status.getRequestBody();
-			requestHash = jobHashProvider.getJobHash(request);
-		}
 		// capture the body of the response
 		if (body instanceof Snapshotable) {
 			ObjectRecord record = ObjectRecordBuilderUtils.buildObjectRecord(body, System.currentTimeMillis());
 			objectRecordDAO.saveBatch(Arrays.asList(record), record.getJsonClassName());
 		}
-		long runtimeMS = asynchJobStatusDao.setComplete(jobId, body, requestHash);
+		long runtimeMS = asynchJobStatusDao.setComplete(jobId, body);
 		// Record the runtime for this job.
 		AsynchJobType type = AsynchJobType.findTypeFromRequestClass(status.getRequestBody().getClass());
 		pushCloudwatchMetric(runtimeMS, type);
@@ -245,6 +247,22 @@ public class AsynchJobStatusManagerImpl implements AsynchJobStatusManager {
 		this.cloudeWatch.addProfileData(profileData);
 	}
 	
+	/**
+	 * Push a cloudwatch metric to count a cache hit or miss for the given job type.
+	 * @param metricName
+	 * @param type
+	 */
+	void pushCacheMetric(String metricName, AsynchJobType type) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(getMetricNamespace());
+		profileData.setName(metricName);
+		profileData.setValue(1.0);
+		profileData.setUnit(StandardUnit.Count.name());
+		profileData.setTimestamp(new Date());
+		profileData.setDimension(Collections.singletonMap(JOB_TYPE, type.name()));
+		this.cloudeWatch.addProfileData(profileData);
+	}
+	
 	public String getMetricNamespace() {
 		if(this.metricNamespace == null) {
 			this.metricNamespace = METRIC_NAMESPACE_PREFIX+stackConfig.getStackInstance();
@@ -1,5 +1,6 @@
 package org.sagebionetworks.repo.manager.asynch;
 
+import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.asynch.CacheableRequestBody;
 
 /**
@@ -10,12 +11,14 @@ import org.sagebionetworks.repo.model.asynch.CacheableRequestBody;
 public interface JobHashProvider {
 
 	/**
-	 * Generate a hash for the given given request body and user ID.
+	 * Generate a hash for the given given request body and user.
 	 * Note: The returned hash is the MD5 of the following:
 	 * <body_json_> + <object_etag>
+	 * For views the benefactors readable by the user are also included.
 	 * @param body
+	 * @param user
 	 * @return
 	 */
-	public String getJobHash(CacheableRequestBody body);
+	public String getJobHash(CacheableRequestBody body, UserInfo user);
 	
 }
@@ -1,11 +1,14 @@
 package org.sagebionetworks.repo.manager.asynch;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.codec.binary.Hex;
 import org.sagebionetworks.repo.manager.table.TableManagerSupport;
 import org.sagebionetworks.repo.manager.table.TableQueryUtils;
 import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.asynch.CacheableRequestBody;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.repo.model.table.TableStatus;
@@ -22,34 +25,37 @@ public class JobHashProviderImpl implements JobHashProvider {
 	TableManagerSupport tableManagerSupport;
 
 	@Override
-	public String getJobHash(CacheableRequestBody body) {
+	public String getJobHash(CacheableRequestBody body, UserInfo user) {
 		if (body == null) {
 			throw new IllegalArgumentException("Body cannot be null");
 		}
+		if (user == null) {
+			throw new IllegalArgumentException("User cannot be null");
+		}
 		try {
 			// Extract the tableId from the request body.
 			String tableId = TableQueryUtils.getTableIdFromRequestBody(body);
 			IdAndVersion idAndVersion = IdAndVersion.parse(tableId);
-
-			/*
-			 * Since view query results can vary with permission changes on
-			 * entities within a view's scope, the view results cannot be
-			 * cached. Returning a null job hash will prevent caching of view
-			 * results. See PLFM-4231.
-			 */
 			ObjectType type = tableManagerSupport.getTableType(idAndVersion);
-			if (ObjectType.ENTITY_VIEW.equals(type)) {
-				return null;
-			}
 			
 			StringBuilder builder = new StringBuilder();
 			builder.append(EntityFactory.createJSONStringForEntity(body));
-			String objectEtag = getTableEtag(tableId);
+			String objectEtag = getTableEtag(idAndVersion, type);
 			if (objectEtag != null) {
 				builder.append(objectEtag);
 			} else {
 				builder.append(NULL);
 			}
+			if (ObjectType.ENTITY_VIEW.equals(type)) {
+				/*
+				 * View query results vary with the permissions of the caller on the
+				 * benefactors within the view's scope (PLFM-4231). Including the
+				 * caller's accessible benefactors in the hash means any ACL or
+				 * benefactor change that alters what the caller can see will
+				 * produce a new hash, so a stale result is never returned.
+				 */
+				builder.append(getBenefactorFingerprint(user, idAndVersion));
+			}
 			byte[] md5Bytes = Md5Utils.computeMD5Hash(builder.toString()
 					.getBytes("UTF-8"));
 			return new String(Hex.encodeHex(md5Bytes));
@@ -63,16 +69,35 @@ public class JobHashProviderImpl implements JobHashProvider {
 	/**
 	 * Get an Etag for a table. The etag used here is the concatenation of:
 	 * TableStatus.lastTableChangeEtag + TableStatus.resetToken This ensure any
-	 * change to the table or its status will produce a different etag.
+	 * change to the table or its status will produce a different etag. Since
+	 * the lastTableChangeEtag of a view does not change when its rows are
+	 * updated, the changedOn of a view's status is also included.
 	 * 
-	 * @param body
+	 * @param idAndVersion
+	 * @param type
 	 * @return
 	 */
-	private String getTableEtag(String tableId) {
+	private String getTableEtag(IdAndVersion idAndVersion, ObjectType type) {
 		// Base the etag on the table status
-		IdAndVersion idAndVersion = IdAndVersion.parse(tableId);
 		TableStatus status = tableManagerSupport
 				.getTableStatusOrCreateIfNotExists(idAndVersion);
-		return status.getLastTableChangeEtag() + status.getResetToken();
+		String etag = status.getLastTableChangeEtag() + status.getResetToken();
+		if (ObjectType.ENTITY_VIEW.equals(type) && status.getChangedOn() != null) {
+			etag += status.getChangedOn().getTime();
+		}
+		return etag;
+	}
+
+	/**
+	 * Get a stable string representation of the sorted benefactors of the given
+	 * view that the given user can read.
+	 * 
+	 * @param user
+	 * @param viewId
+	 * @return
+	 */
+	String getBenefactorFingerprint(UserInfo user, IdAndVersion viewId) {
+		Set<Long> accessible = tableManagerSupport.getAccessibleBenefactors(user, viewId);
+		return new TreeSet<>(accessible).toString();
 	}
 }
@@ -3,10 +3,12 @@ package org.sagebionetworks.repo.manager.audit;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.sagebionetworks.repo.manager.collector.BoundedRecordCollector;
+import org.sagebionetworks.repo.manager.collector.RecordCollectorFactory;
+import org.sagebionetworks.repo.manager.collector.RecordSpillCodec;
 import org.sagebionetworks.repo.model.audit.AccessRecord;
 import org.sagebionetworks.repo.model.audit.AccessRecorder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,18 +21,24 @@ import org.springframework.beans.factory.annotation.Autowired;
  */
 public class S3AccessRecorder implements AccessRecorder {
 
+	public static final String COLLECTOR_NAME = "AccessRecords";
+
 	static private Log log = LogFactory.getLog(S3AccessRecorder.class);
 
 	/**
 	 * At any given time, there are multiple threads creating new AccessRecords
 	 * as new web services request come in. These AccessRecords are added to
-	 * this batch from the threads where they originated. The batch is then
-	 * processed from a separate timer thread.
+	 * this bounded collector from the threads where they originated. The
+	 * collector is flushed from a separate timer thread, or as soon as a full
+	 * batch is queued.
 	 */
-	private ConcurrentLinkedQueue<AccessRecord> recordBatch = new ConcurrentLinkedQueue<AccessRecord>();
+	private BoundedRecordCollector<AccessRecord> recordCollector;
 	
 	@Autowired
 	AccessRecordManager accessRecordManager;
+	
+	@Autowired
+	RecordCollectorFactory recordCollectorFactory;
 
 	boolean shouldAccessRecordsBePushedToS3 = true;
 
@@ -45,54 +53,61 @@ public class S3AccessRecorder implements AccessRecorder {
 		this.shouldAccessRecordsBePushedToS3 = shouldAccessMessagesBePushedToS3;
 	}
 
+	/**
+	 * Called by Spring when this bean is created.
+	 */
+	public void initialize() {
+		recordCollector = recordCollectorFactory.createCollector(COLLECTOR_NAME, this::saveBatch,
+				RecordSpillCodec.forJSONEntity(AccessRecord.class));
+	}
+
 	/**
 	 * New AccessRecords will come in from 
 	 */
 	@Override
 	public void save(AccessRecord record) {
-		// add the messages to the queue;
-		recordBatch.add(record);
+		// add the record to the collector;
+		recordCollector.add(record);
 	}
 
 	/**
-	 * When the timer fires we send the messages to S3.
+	 * When the timer fires we send the records to S3.
+	 * @return The names of the files written by this flush, one for each batch.
 	 * @throws IOException 
 	 * 
 	 */
-	public String timerFired() throws IOException {
-		// Poll all data currently on the queue.
-		List<AccessRecord> currentBatch = pollListFromQueue();
-		// There is nothing to do if the batch is empty.
-		if(currentBatch.isEmpty()) return null;
+	public List<String> timerFired() throws IOException {
+		List<String> fileNames = new LinkedList<String>();
+		recordCollector.flush((List<AccessRecord> batch) -> {
+			String fileName = saveBatch(batch);
+			if(fileName != null){
+				fileNames.add(fileName);
+			}
+		});
+		return fileNames;
+	}
+	
+	/**
+	 * Write a single batch flushed from the collector to S3. A batch that cannot
+	 * be written is counted as dropped by the collector.
+	 * 
+	 * @param batch
+	 * @return The name of the file the batch was written to, or null if the
+	 *         batch was thrown away.
+	 */
+	String saveBatch(List<AccessRecord> batch) {
 		// Check to see if the data should be sent to S3
 		if(!shouldAccessRecordsBePushedToS3){
-			if(log.isDebugEnabled() && currentBatch.size() > 0){
-				log.debug("S3AccessRecorder.shouldAccessMessagesBePushedToS3 = false.  So "+currentBatch.size()+" AccessRecords will be thrown away.");
+			if(log.isDebugEnabled()){
+				log.debug("S3AccessRecorder.shouldAccessMessagesBePushedToS3 = false.  So "+batch.size()+" AccessRecords will be thrown away.");
 			}
 			return null;
 		}
 		try{
-			// We are now free to process the current batch with out synchronization or data loss
-			return accessRecordManager.saveBatch(currentBatch);
-		}catch(Exception e){
-			log.error("Failed to write batch", e);
-			return null;
-		}
-	}
-	
-	/**
-	 * Poll all data currently on the queue and add it to a list.
-	 * @return
-	 */
-	private List<AccessRecord> pollListFromQueue(){
-		List<AccessRecord> list = new LinkedList<AccessRecord>();
-		for(AccessRecord ac = this.recordBatch.poll(); ac != null; ac = this.recordBatch.poll()){
-			// Add to the list
-			list.add(ac);
+			return accessRecordManager.saveBatch(batch);
+		}catch(IOException e){
+			throw new RuntimeException("Failed to write batch", e);
 		}
-		return list;
 	}
 	
-	
-	
 }
@@ -0,0 +1,22 @@
+package org.sagebionetworks.repo.manager.collector;
+
+import java.util.List;
+
+/**
+ * Receives the batches of records flushed from a
+ * {@link BoundedRecordCollector}.
+ *
+ * @param <T>
+ */
+@FunctionalInterface
+public interface BatchHandler<T> {
+
+	/**
+	 * Handle a single batch of records. A batch is never empty and never
+	 * larger than the batch size of the collector.
+	 * 
+	 * @param batch
+	 */
+	void handle(List<T> batch);
+
+}
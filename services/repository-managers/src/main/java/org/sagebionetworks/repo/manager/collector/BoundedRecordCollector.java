@@ -0,0 +1,496 @@
+package org.sagebionetworks.repo.manager.collector;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.util.ValidateArgument;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * A bounded, thread safe buffer of records that are collected by many threads
+ * and flushed in batches to a {@link BatchHandler}.
+ * <p>
+ * Records are held in a fixed size ring so adding a record does not allocate.
+ * When the ring is full the {@link OverflowPolicy} of the collector decides
+ * what happens to new records. A flush is triggered on the flush executor as
+ * soon as a full batch is queued, in addition to any timer that calls
+ * {@link #flush()}.
+ * <p>
+ * Every record that is discarded, either by the overflow policy or because
+ * its batch could not be handled, is counted and reported with the number of
+ * queued and spilled records on each flush.
+ *
+ * @param <T>
+ */
+public class BoundedRecordCollector<T> {
+
+	public static final String METRIC_NAMESPACE_PREFIX = "Record-Collector-";
+	public static final String METRIC_QUEUED_COUNT = "Queued record count";
+	public static final String METRIC_DROPPED_COUNT = "Dropped record count";
+	public static final String METRIC_SPILLED_COUNT = "Spilled record count";
+	public static final String DIMENSION_COLLECTOR = "Collector";
+
+	public static final int DEFAULT_CAPACITY = 100_000;
+	public static final int DEFAULT_BATCH_SIZE = 2000;
+	public static final long DEFAULT_MAX_BLOCK_MS = 100L;
+
+	private static final Log log = LogFactory.getLog(BoundedRecordCollector.class);
+
+	private final String name;
+	private final Object[] ring;
+	private final int batchSize;
+	private final OverflowPolicy overflowPolicy;
+	private final long maxBlockNanos;
+	private final RecordSpillFile<T> spillFile;
+	private final BatchHandler<T> handler;
+	private final Executor flushExecutor;
+	private final Consumer consumer;
+	private final String metricNamespace;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	// serializes flushes from the timer and the flush executor.
+	private final ReentrantLock flushLock = new ReentrantLock();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+	private final AtomicLong droppedCount = new AtomicLong(0L);
+	private final AtomicLong spilledCount = new AtomicLong(0L);
+
+	// index of the oldest record in the ring, guarded by lock.
+	private int head;
+	// number of records in the ring, guarded by lock.
+	private int count;
+
+	private BoundedRecordCollector(Builder<T> builder) {
+		this.name = builder.name;
+		this.ring = new Object[builder.capacity];
+		this.batchSize = builder.batchSize;
+		this.maxBlockNanos = TimeUnit.MILLISECONDS.toNanos(builder.maxBlockMS);
+		this.handler = builder.handler;
+		this.flushExecutor = builder.flushExecutor;
+		this.consumer = builder.consumer;
+		this.metricNamespace = builder.metricNamespace;
+		if (OverflowPolicy.SPILL_TO_DISK.equals(builder.overflowPolicy) && builder.spillCodec == null) {
+			log.warn("Collector " + name + " cannot spill records to disk without a codec, the oldest records will be dropped instead.");
+			this.overflowPolicy = OverflowPolicy.DROP_OLDEST;
+		} else {
+			this.overflowPolicy = builder.overflowPolicy;
+		}
+		if (OverflowPolicy.SPILL_TO_DISK.equals(this.overflowPolicy)) {
+			this.spillFile = new RecordSpillFile<>(builder.spillDirectory, name, builder.spillCodec);
+		} else {
+			this.spillFile = null;
+		}
+		this.head = 0;
+		this.count = 0;
+	}
+
+	/**
+	 * Add a record to this collector. This never throws because the collector
+	 * is full; the record is handled according to the overflow policy instead.
+	 *
+	 * @param record
+	 */
+	public void add(T record) {
+		ValidateArgument.required(record, "record");
+		boolean spill = false;
+		boolean batchReady;
+		lock.lock();
+		try {
+			if (count == ring.length) {
+				switch (overflowPolicy) {
+				case SPILL_TO_DISK:
+					spill = true;
+					break;
+				case BLOCK:
+					if (!awaitNotFull()) {
+						droppedCount.incrementAndGet();
+						return;
+					}
+					break;
+				default:
+					// overwrite the oldest record.
+					ring[head] = null;
+					head = (head + 1) % ring.length;
+					count--;
+					droppedCount.incrementAndGet();
+				}
+			}
+			if (!spill) {
+				ring[(head + count) % ring.length] = record;
+				count++;
+			}
+			batchReady = count >= batchSize;
+		} finally {
+			lock.unlock();
+		}
+		if (spill) {
+			spillRecord(record);
+		}
+		if (batchReady) {
+			scheduleFlush();
+		}
+	}
+
+	/**
+	 * Add all of the given records to this collector.
+	 *
+	 * @param records
+	 */
+	public void addAll(Iterable<? extends T> records) {
+		ValidateArgument.required(records, "records");
+		for (T record : records) {
+			add(record);
+		}
+	}
+
+	/**
+	 * Pass all of the records currently in this collector to the handler in
+	 * batches. Records added while the flush is running are left for the next
+	 * flush. A batch that fails is logged and counted as dropped.
+	 *
+	 * @return The number of records that were successfully handled.
+	 */
+	public int flush() {
+		return flush(handler);
+	}
+
+	/**
+	 * Pass all of the records currently in this collector to the given handler
+	 * in batches, in place of the handler of this collector. Used by callers
+	 * that need the outcome of each batch of a single flush.
+	 *
+	 * @param handler Receives the batches of this flush.
+	 * @return The number of records that were successfully handled.
+	 */
+	public int flush(BatchHandler<T> handler) {
+		ValidateArgument.required(handler, "handler");
+		flushLock.lock();
+		try {
+			int queued = size();
+			int handledCount = 0;
+			for (int remaining = queued; remaining > 0;) {
+				List<T> batch = pollBatch(Math.min(remaining, batchSize));
+				if (batch.isEmpty()) {
+					break;
+				}
+				remaining -= batch.size();
+				handledCount += handleBatch(handler, batch);
+			}
+			handledCount += drainSpillFile(handler);
+			pushMetrics(queued);
+			return handledCount;
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * @return The number of records currently held in memory.
+	 */
+	public int size() {
+		lock.lock();
+		try {
+			return count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return The name of this collector.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The policy applied when this collector is full.
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * Wait for a flush to make room in the ring. Must be called while holding
+	 * the lock.
+	 *
+	 * @return True if there is room, false if the wait timed out.
+	 */
+	private boolean awaitNotFull() {
+		scheduleFlush();
+		long nanos = maxBlockNanos;
+		try {
+			while (count == ring.length) {
+				if (nanos <= 0L) {
+					return false;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Remove up to the given number of the oldest records from the ring.
+	 *
+	 * @param max
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private List<T> pollBatch(int max) {
+		lock.lock();
+		try {
+			int size = Math.min(max, count);
+			List<T> batch = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				batch.add((T) ring[head]);
+				ring[head] = null;
+				head = (head + 1) % ring.length;
+			}
+			count -= size;
+			if (size > 0) {
+				notFull.signalAll();
+			}
+			return batch;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private int handleBatch(BatchHandler<T> handler, List<T> batch) {
+		try {
+			handler.handle(batch);
+			return batch.size();
+		} catch (RuntimeException e) {
+			log.error("Collector " + name + " failed to handle a batch of " + batch.size() + " records", e);
+			droppedCount.addAndGet(batch.size());
+			return 0;
+		}
+	}
+
+	private void spillRecord(T record) {
+		try {
+			spillFile.append(record);
+			spilledCount.incrementAndGet();
+		} catch (IOException e) {
+			log.error("Collector " + name + " failed to spill a record", e);
+			droppedCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Pass any records that were spilled to disk to the given handler.
+	 *
+	 * @param handler
+	 * @return The number of records that were successfully handled.
+	 */
+	private int drainSpillFile(BatchHandler<T> handler) {
+		if (spillFile == null) {
+			return 0;
+		}
+		int[] handledCount = new int[1];
+		try {
+			File toDrain = spillFile.rotate();
+			if (toDrain != null) {
+				int failedCount = spillFile.drain(toDrain, batchSize, (List<T> batch) -> {
+					handledCount[0] += handleBatch(handler, batch);
+				});
+				droppedCount.addAndGet(failedCount);
+			}
+		} catch (IOException e) {
+			log.error("Collector " + name + " failed to drain its spill file", e);
+		}
+		return handledCount[0];
+	}
+
+	/**
+	 * Flush on the flush executor unless a flush is already scheduled.
+	 */
+	private void scheduleFlush() {
+		if (flushExecutor == null || !flushScheduled.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			flushExecutor.execute(() -> {
+				// records added from now on may schedule the next flush.
+				flushScheduled.set(false);
+				flush();
+			});
+		} catch (RejectedExecutionException e) {
+			flushScheduled.set(false);
+			log.warn("Collector " + name + " could not schedule a flush", e);
+		}
+	}
+
+	/**
+	 * Report the number of queued, dropped and spilled records since the last
+	 * flush.
+	 *
+	 * @param queued
+	 */
+	private void pushMetrics(int queued) {
+		long dropped = droppedCount.getAndSet(0L);
+		long spilled = spilledCount.getAndSet(0L);
+		if (dropped > 0L) {
+			log.warn("Collector " + name + " dropped " + dropped + " records");
+		}
+		if (consumer == null || (queued < 1 && dropped < 1L && spilled < 1L)) {
+			return;
+		}
+		Date now = new Date();
+		List<ProfileData> metrics = new ArrayList<>(3);
+		metrics.add(createMetric(now, METRIC_QUEUED_COUNT, queued));
+		metrics.add(createMetric(now, METRIC_DROPPED_COUNT, dropped));
+		if (spillFile != null) {
+			metrics.add(createMetric(now, METRIC_SPILLED_COUNT, spilled));
+		}
+		consumer.addProfileData(metrics);
+	}
+
+	private ProfileData createMetric(Date timestamp, String metricName, double value) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(metricNamespace);
+		profileData.setName(metricName);
+		profileData.setValue(value);
+		profileData.setUnit(StandardUnit.Count.name());
+		profileData.setTimestamp(timestamp);
+		profileData.setDimension(Collections.singletonMap(DIMENSION_COLLECTOR, name));
+		return profileData;
+	}
+
+	/**
+	 * @param name    The name of the collector, used in metrics and to name its
+	 *                spill file.
+	 * @param handler Receives the flushed batches.
+	 * @return
+	 */
+	public static <T> Builder<T> builder(String name, BatchHandler<T> handler) {
+		return new Builder<>(name, handler);
+	}
+
+	public static class Builder<T> {
+
+		private final String name;
+		private final BatchHandler<T> handler;
+		private int capacity = DEFAULT_CAPACITY;
+		private int batchSize = DEFAULT_BATCH_SIZE;
+		private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+		private long maxBlockMS = DEFAULT_MAX_BLOCK_MS;
+		private File spillDirectory;
+		private RecordSpillCodec<T> spillCodec;
+		private Executor flushExecutor;
+		private Consumer consumer;
+		private String metricNamespace;
+
+		private Builder(String name, BatchHandler<T> handler) {
+			this.name = name;
+			this.handler = handler;
+		}
+
+		/**
+		 * @param capacity The maximum number of records held in memory.
+		 * @return
+		 */
+		public Builder<T> withCapacity(int capacity) {
+			this.capacity = capacity;
+			return this;
+		}
+
+		/**
+		 * @param batchSize The maximum number of records passed to the handler
+		 *                  at a time. A flush is scheduled as soon as this many
+		 *                  records are queued.
+		 * @return
+		 */
+		public Builder<T> withBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		public Builder<T> withOverflowPolicy(OverflowPolicy overflowPolicy) {
+			this.overflowPolicy = overflowPolicy;
+			return this;
+		}
+
+		/**
+		 * @param maxBlockMS The maximum time a caller waits for room when the
+		 *                   policy is {@link OverflowPolicy#BLOCK}.
+		 * @return
+		 */
+		public Builder<T> withMaxBlockMS(long maxBlockMS) {
+			this.maxBlockMS = maxBlockMS;
+			return this;
+		}
+
+		/**
+		 * Required to use {@link OverflowPolicy#SPILL_TO_DISK}.
+		 *
+		 * @param spillDirectory
+		 * @param spillCodec
+		 * @return
+		 */
+		public Builder<T> withSpill(File spillDirectory, RecordSpillCodec<T> spillCodec) {
+			this.spillDirectory = spillDirectory;
+			this.spillCodec = spillCodec;
+			return this;
+		}
+
+		/**
+		 * @param flushExecutor Runs the size triggered flushes. Without an
+		 *                      executor records are only flushed by calls to
+		 *                      {@link BoundedRecordCollector#flush()}.
+		 * @return
+		 */
+		public Builder<T> withFlushExecutor(Executor flushExecutor) {
+			this.flushExecutor = flushExecutor;
+			return this;
+		}
+
+		/**
+		 * @param consumer        Receives the metrics of each flush.
+		 * @param metricNamespace
+		 * @return
+		 */
+		public Builder<T> withMetrics(Consumer consumer, String metricNamespace) {
+			this.consumer = consumer;
+			this.metricNamespace = metricNamespace;
+			return this;
+		}
+
+		public BoundedRecordCollector<T> build() {
+			ValidateArgument.requiredNotEmpty(name, "The name");
+			ValidateArgument.required(handler, "The handler");
+			ValidateArgument.required(overflowPolicy, "The overflow policy");
+			ValidateArgument.requirement(batchSize > 0, "The batch size must be greater than zero");
+			ValidateArgument.requirement(capacity >= batchSize, "The capacity must be at least the batch size");
+			ValidateArgument.requirement(maxBlockMS >= 0L, "The max block MS cannot be negative");
+			if (spillCodec != null) {
+				ValidateArgument.required(spillDirectory, "The spill directory");
+			}
+			if (consumer != null) {
+				ValidateArgument.requiredNotEmpty(metricNamespace, "The metric namespace");
+			}
+			return new BoundedRecordCollector<>(this);
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package org.sagebionetworks.repo.manager.collector;
+
+/**
+ * What a {@link BoundedRecordCollector} does with a new record when it is
+ * full.
+ *
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * The oldest record in the collector is discarded to make room for the new
+	 * record.
+	 */
+	DROP_OLDEST,
+	/**
+	 * The new record is appended to a local file that is drained on the next
+	 * flush. Collectors without a {@link RecordSpillCodec} fall back to
+	 * {@link #DROP_OLDEST}.
+	 */
+	SPILL_TO_DISK,
+	/**
+	 * The caller waits for a flush to make room. If no room is made within the
+	 * maximum wait the new record is discarded.
+	 */
+	BLOCK;
+
+}
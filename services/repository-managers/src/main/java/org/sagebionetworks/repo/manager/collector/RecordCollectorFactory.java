@@ -0,0 +1,32 @@
+package org.sagebionetworks.repo.manager.collector;
+
+/**
+ * Creates the {@link BoundedRecordCollector}s used to buffer records between
+ * the threads that produce them and the timers that flush them, configured
+ * from the stack.
+ *
+ */
+public interface RecordCollectorFactory {
+
+	/**
+	 * Create a collector that cannot spill records to disk. If the stack is
+	 * configured to spill, the oldest records are dropped instead.
+	 * 
+	 * @param name    The name of the collector, used in metrics.
+	 * @param handler Receives the flushed batches.
+	 * @return
+	 */
+	<T> BoundedRecordCollector<T> createCollector(String name, BatchHandler<T> handler);
+
+	/**
+	 * Create a collector that can spill records to disk using the given codec.
+	 * 
+	 * @param name       The name of the collector, used in metrics and to name
+	 *                   its spill file.
+	 * @param handler    Receives the flushed batches.
+	 * @param spillCodec
+	 * @return
+	 */
+	<T> BoundedRecordCollector<T> createCollector(String name, BatchHandler<T> handler, RecordSpillCodec<T> spillCodec);
+
+}
@@ -0,0 +1,54 @@
+package org.sagebionetworks.repo.manager.collector;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class RecordCollectorFactoryImpl implements RecordCollectorFactory {
+
+	public static final String SPILL_DIRECTORY_NAME = "record-collector";
+
+	private final StackConfiguration stackConfiguration;
+	private final Consumer consumer;
+	/*
+	 * Runs the size triggered flushes of all collectors. Each collector has at
+	 * most one flush scheduled at a time so the number of threads is bounded by
+	 * the number of collectors.
+	 */
+	private final ExecutorService flushExecutor;
+
+	@Autowired
+	public RecordCollectorFactoryImpl(StackConfiguration stackConfiguration, Consumer consumer,
+			ExecutorService recordCollectorExecutorService) {
+		this.stackConfiguration = stackConfiguration;
+		this.consumer = consumer;
+		this.flushExecutor = recordCollectorExecutorService;
+	}
+
+	@Override
+	public <T> BoundedRecordCollector<T> createCollector(String name, BatchHandler<T> handler) {
+		return createBuilder(name, handler).build();
+	}
+
+	@Override
+	public <T> BoundedRecordCollector<T> createCollector(String name, BatchHandler<T> handler,
+			RecordSpillCodec<T> spillCodec) {
+		File spillDirectory = new File(System.getProperty("java.io.tmpdir"), SPILL_DIRECTORY_NAME);
+		return createBuilder(name, handler).withSpill(spillDirectory, spillCodec).build();
+	}
+
+	private <T> BoundedRecordCollector.Builder<T> createBuilder(String name, BatchHandler<T> handler) {
+		return BoundedRecordCollector.builder(name, handler)
+				.withCapacity(stackConfiguration.getRecordCollectorCapacity())
+				.withBatchSize(stackConfiguration.getRecordCollectorBatchSize())
+				.withOverflowPolicy(OverflowPolicy.valueOf(stackConfiguration.getRecordCollectorOverflowPolicy()))
+				.withFlushExecutor(flushExecutor)
+				.withMetrics(consumer, BoundedRecordCollector.METRIC_NAMESPACE_PREFIX + stackConfiguration.getStackInstance());
+	}
+
+}
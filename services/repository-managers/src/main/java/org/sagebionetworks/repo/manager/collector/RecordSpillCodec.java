@@ -0,0 +1,59 @@
+package org.sagebionetworks.repo.manager.collector;
+
+import java.io.IOException;
+
+import org.sagebionetworks.schema.adapter.JSONEntity;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
+
+/**
+ * Converts a record to and from a single line of text so that it can be
+ * spilled to a local file.
+ *
+ * @param <T>
+ */
+public interface RecordSpillCodec<T> {
+
+	/**
+	 * @param record
+	 * @return A single line of text. The result must not contain a line break.
+	 * @throws IOException
+	 */
+	String encode(T record) throws IOException;
+
+	/**
+	 * @param line A line created by {@link #encode(Object)}
+	 * @return
+	 * @throws IOException
+	 */
+	T decode(String line) throws IOException;
+
+	/**
+	 * A codec that writes each record as a single line of JSON.
+	 * 
+	 * @param clazz
+	 * @return
+	 */
+	static <T extends JSONEntity> RecordSpillCodec<T> forJSONEntity(Class<T> clazz) {
+		return new RecordSpillCodec<T>() {
+
+			@Override
+			public String encode(T record) throws IOException {
+				try {
+					return EntityFactory.createJSONStringForEntity(record);
+				} catch (JSONObjectAdapterException e) {
+					throw new IOException(e);
+				}
+			}
+
+			@Override
+			public T decode(String line) throws IOException {
+				try {
+					return EntityFactory.createEntityFromJSONString(line, clazz);
+				} catch (JSONObjectAdapterException e) {
+					throw new IOException(e);
+				}
+			}
+		};
+	}
+}
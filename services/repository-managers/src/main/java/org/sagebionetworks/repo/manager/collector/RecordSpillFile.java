@@ -0,0 +1,132 @@
+package org.sagebionetworks.repo.manager.collector;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * A local file that records are appended to when a collector is full. Records
+ * are written one per line using a {@link RecordSpillCodec}.
+ * <p>
+ * Appending and draining can happen at the same time: {@link #rotate()} moves
+ * the current file aside so that new records go to a fresh file while the
+ * rotated file is read back.
+ *
+ * @param <T>
+ */
+public class RecordSpillFile<T> {
+
+	public static final String SPILL_SUFFIX = ".spill";
+	public static final String DRAINING_SUFFIX = ".draining";
+
+	private final File directory;
+	private final String name;
+	private final File activeFile;
+	private final RecordSpillCodec<T> codec;
+	private BufferedWriter writer;
+	private long rotationCount;
+
+	/**
+	 *
+	 * @param directory The directory of the spill files. Created if needed.
+	 * @param name      The name of the collector, used to name the files.
+	 * @param codec
+	 */
+	public RecordSpillFile(File directory, String name, RecordSpillCodec<T> codec) {
+		ValidateArgument.required(directory, "The directory");
+		ValidateArgument.requiredNotEmpty(name, "The name");
+		ValidateArgument.required(codec, "The codec");
+		this.directory = directory;
+		this.name = name;
+		this.activeFile = new File(directory, name + SPILL_SUFFIX);
+		this.codec = codec;
+		this.rotationCount = 0L;
+	}
+
+	/**
+	 * Append a record to the end of the active file.
+	 *
+	 * @param record
+	 * @throws IOException
+	 */
+	public synchronized void append(T record) throws IOException {
+		String line = codec.encode(record);
+		if (writer == null) {
+			Files.createDirectories(directory.toPath());
+			writer = Files.newBufferedWriter(activeFile.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+		}
+		writer.write(line);
+		writer.newLine();
+	}
+
+	/**
+	 * Close the active file and move it aside so that it can be drained.
+	 *
+	 * @return The file to drain or null if nothing has been spilled.
+	 * @throws IOException
+	 */
+	public synchronized File rotate() throws IOException {
+		if (writer != null) {
+			writer.close();
+			writer = null;
+		}
+		if (!activeFile.exists()) {
+			return null;
+		}
+		if (activeFile.length() < 1) {
+			Files.delete(activeFile.toPath());
+			return null;
+		}
+		File toDrain = new File(directory, name + "." + (rotationCount++) + DRAINING_SUFFIX);
+		Files.move(activeFile.toPath(), toDrain.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		return toDrain;
+	}
+
+	/**
+	 * Read the records of a rotated file back in batches then delete the file.
+	 *
+	 * @param toDrain   A file returned by {@link #rotate()}
+	 * @param batchSize The maximum number of records passed to the handler at a
+	 *                  time.
+	 * @param handler
+	 * @return The number of lines that could not be decoded.
+	 * @throws IOException
+	 */
+	public int drain(File toDrain, int batchSize, BatchHandler<T> handler) throws IOException {
+		ValidateArgument.required(toDrain, "The file");
+		ValidateArgument.required(handler, "The handler");
+		int failedCount = 0;
+		try (BufferedReader reader = Files.newBufferedReader(toDrain.toPath(), StandardCharsets.UTF_8)) {
+			List<T> batch = new ArrayList<>(batchSize);
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				try {
+					batch.add(codec.decode(line));
+				} catch (IOException e) {
+					failedCount++;
+					continue;
+				}
+				if (batch.size() == batchSize) {
+					handler.handle(batch);
+					batch = new ArrayList<>(batchSize);
+				}
+			}
+			if (!batch.isEmpty()) {
+				handler.handle(batch);
+			}
+		} finally {
+			Files.deleteIfExists(toDrain.toPath());
+		}
+		return failedCount;
+	}
+
+}
@@ -0,0 +1,64 @@
+package org.sagebionetworks.repo.manager.content;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.repo.manager.metric.PeriodicMetricPublisher;
+import org.sagebionetworks.repo.model.content.ImmutableContentCache;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Publishes the hit rates and sizes of the {@link ImmutableContentCache} to
+ * cloud watch. The hit rates are calculated over the calls made since the
+ * previous publish.
+ *
+ */
+public class ImmutableContentCacheMetricPublisher extends PeriodicMetricPublisher {
+
+	public static final String METRIC_HEAP_HIT_RATE = "Heap hit rate";
+	public static final String METRIC_DISK_HIT_RATE = "Disk hit rate";
+	public static final String METRIC_REQUESTS = "Requests";
+	public static final String METRIC_HEAP_BYTES = "Heap bytes";
+	public static final String METRIC_DISK_BYTES = "Disk bytes";
+
+	@Autowired
+	ImmutableContentCache contentCache;
+
+	public ImmutableContentCacheMetricPublisher(String nameSpacePrefix) {
+		super(nameSpacePrefix, "Content-Cache");
+	}
+
+	@Override
+	protected List<ProfileData> createMetrics(Date timestamp) {
+		return createMetrics(countSince("heapHits", contentCache.getHeapHitCount()),
+				countSince("diskHits", contentCache.getDiskHitCount()), countSince("misses", contentCache.getMissCount()),
+				contentCache.getHeapBytes(), contentCache.getDiskBytes(), timestamp);
+	}
+
+	/**
+	 * Create the metrics for a single period.
+	 *
+	 * @param heapHits  The calls served from the heap during the period.
+	 * @param diskHits  The calls served from the disk during the period.
+	 * @param misses    The calls that required a load during the period.
+	 * @param heapBytes
+	 * @param diskBytes
+	 * @param timestamp
+	 * @return
+	 */
+	List<ProfileData> createMetrics(long heapHits, long diskHits, long misses, long heapBytes, long diskBytes,
+			Date timestamp) {
+		long requests = heapHits + diskHits + misses;
+		return Arrays.asList(
+				createMetric(METRIC_HEAP_HIT_RATE, percent(heapHits, requests), StandardUnit.Percent, timestamp),
+				createMetric(METRIC_DISK_HIT_RATE, percent(diskHits, requests), StandardUnit.Percent, timestamp),
+				createMetric(METRIC_REQUESTS, requests, StandardUnit.Count, timestamp),
+				createMetric(METRIC_HEAP_BYTES, heapBytes, StandardUnit.Bytes, timestamp),
+				createMetric(METRIC_DISK_BYTES, diskBytes, StandardUnit.Bytes, timestamp));
+	}
+
+}
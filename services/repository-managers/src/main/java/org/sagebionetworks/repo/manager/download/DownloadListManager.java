@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.manager.download;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.model.UserInfo;
@@ -16,6 +17,7 @@ import org.sagebionetworks.repo.model.download.DownloadListQueryRequest;
 import org.sagebionetworks.repo.model.download.DownloadListQueryResponse;
 import org.sagebionetworks.repo.model.download.RemoveBatchOfFilesFromDownloadListRequest;
 import org.sagebionetworks.repo.model.download.RemoveBatchOfFilesFromDownloadListResponse;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
 
 public interface DownloadListManager {
 
@@ -90,4 +92,13 @@ public interface DownloadListManager {
 	DownloadListManifestResponse createManifest(ProgressCallback progressCallback, UserInfo userInfo,
 			DownloadListManifestRequest requestBody) throws IOException;
 
+	/**
+	 * Invalidate the snapshots of any download list that includes one of the
+	 * entities from the given entity or entity container change messages. All
+	 * other messages are ignored.
+	 * 
+	 * @param messages
+	 */
+	void invalidateSnapshots(List<ChangeMessage> messages);
+
 }
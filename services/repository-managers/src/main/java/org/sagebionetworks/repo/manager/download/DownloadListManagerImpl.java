@@ -29,6 +29,7 @@ import org.sagebionetworks.repo.model.DatastoreException;
 import org.sagebionetworks.repo.model.EntityType;
 import org.sagebionetworks.repo.model.NextPageToken;
 import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.UnauthorizedException;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.ar.UsersRequirementStatus;
@@ -71,6 +72,7 @@ import org.sagebionetworks.repo.model.file.FileHandleAssociateType;
 import org.sagebionetworks.repo.model.file.FileHandleAssociation;
 import org.sagebionetworks.repo.model.file.ZipFileFormat;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.table.CsvTableDescriptor;
 import org.sagebionetworks.repo.model.table.DatasetItem;
 import org.sagebionetworks.repo.model.table.Query;
@@ -717,5 +719,15 @@ public class DownloadListManagerImpl implements DownloadListManager {
 			writer.writeNext(row);
 		}
 	}
+
+	@Override
+	public void invalidateSnapshots(List<ChangeMessage> messages) {
+		ValidateArgument.required(messages, "messages");
+		Set<Long> entityIds = messages.stream()
+				.filter(m -> ObjectType.ENTITY.equals(m.getObjectType())
+						|| ObjectType.ENTITY_CONTAINER.equals(m.getObjectType()))
+				.map(m -> KeyFactory.stringToKey(m.getObjectId())).collect(Collectors.toSet());
+		downloadListDao.invalidateSnapshots(entityIds);
+	}
 	
 }
@@ -0,0 +1,54 @@
+package org.sagebionetworks.repo.manager.entity;
+
+import java.util.List;
+
+import org.sagebionetworks.repo.model.UserInfo;
+import org.sagebionetworks.repo.model.ar.AccessRestrictionStatusDao;
+import org.sagebionetworks.repo.model.ar.UsersRestrictionStatus;
+import org.sagebionetworks.repo.model.dbo.entity.UserEntityPermissionsState;
+import org.sagebionetworks.repo.model.dbo.entity.UsersEntityPermissionsDao;
+
+/**
+ * An EntityStateProvider backed by an {@link EntityStateCache} that is shared
+ * with other providers for the same user request. Data is only loaded from the
+ * database for entities that are not already in the shared cache.
+ *
+ */
+public class CachedEntityStateProvider implements EntityStateProvider {
+
+	private EntityStateCache cache;
+	private AccessRestrictionStatusDao accessRestrictionStatusDao;
+	private UsersEntityPermissionsDao usersEntityPermissionsDao;
+	private List<Long> entityIds;
+	private UserInfo userInfo;
+
+	public CachedEntityStateProvider(EntityStateCache cache, AccessRestrictionStatusDao accessRestrictionStatusDao,
+			UsersEntityPermissionsDao usersEntityPermissionsDao, UserInfo userInfo, List<Long> entityIds) {
+		super();
+		this.cache = cache;
+		this.accessRestrictionStatusDao = accessRestrictionStatusDao;
+		this.usersEntityPermissionsDao = usersEntityPermissionsDao;
+		this.entityIds = entityIds;
+		this.userInfo = userInfo;
+	}
+
+	@Override
+	public UserEntityPermissionsState getPermissionsState(Long entityId) {
+		return cache.getPermissionsState(entityIds,
+				(List<Long> missing) -> usersEntityPermissionsDao.getEntityPermissionsAsMap(userInfo.getGroups(), missing))
+				.get(entityId);
+	}
+
+	@Override
+	public UsersRestrictionStatus getRestrictionStatus(Long entityId) {
+		return cache.getRestrictionStatus(entityIds,
+				(List<Long> missing) -> accessRestrictionStatusDao.getEntityStatusAsMap(missing, userInfo.getId()))
+				.get(entityId);
+	}
+
+	@Override
+	public List<Long> getEntityIds() {
+		return entityIds;
+	}
+
+}
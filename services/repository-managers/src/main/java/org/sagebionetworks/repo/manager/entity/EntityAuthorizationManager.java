@@ -88,6 +88,17 @@ public interface EntityAuthorizationManager {
 	 */
 	public AuthorizationStatus canCreateWiki(String entityId, UserInfo userInfo);
 
+	/**
+	 * Create a cache of the user's permission state that can be shared by every
+	 * authorization check made while building a single response. The permission
+	 * state of the given entities is loaded up front. The cache is only used by
+	 * calls made from a callable bound with {@link EntityStateCache#bind}.
+	 * 
+	 * @param userInfo
+	 * @param entityIds
+	 * @return
+	 */
+	public EntityStateCache createEntityStateCache(UserInfo userInfo, List<Long> entityIds);
 
 
 }
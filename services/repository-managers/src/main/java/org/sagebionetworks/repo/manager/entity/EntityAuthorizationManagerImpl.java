@@ -30,6 +30,7 @@ import static org.sagebionetworks.repo.model.ACCESS_TYPE.READ;
 import static org.sagebionetworks.repo.model.ACCESS_TYPE.UPDATE;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.sagebionetworks.repo.manager.entity.decider.AccessContext;
@@ -76,8 +77,7 @@ public class EntityAuthorizationManagerImpl implements EntityAuthorizationManage
 		if (accessTypes.length < 1) {
 			throw new IllegalArgumentException("At least one ACCESS_TYPE must be provided");
 		}
-		EntityStateProvider stateProvider = new LazyEntityStateProvider(accessRestrictionStatusDao,
-				usersEntityPermissionsDao, userInfo, KeyFactory.stringToKeySingletonList(entityId));
+		EntityStateProvider stateProvider = createStateProvider(userInfo, KeyFactory.stringToKeySingletonList(entityId));
 		AuthorizationStatus lastResult = null;
 		for (ACCESS_TYPE accessType : accessTypes) {
 			lastResult = determineAccess(userInfo, KeyFactory.stringToKey(entityId), stateProvider, accessType)
@@ -89,6 +89,36 @@ public class EntityAuthorizationManagerImpl implements EntityAuthorizationManage
 		return lastResult;
 	}
 
+	@Override
+	public EntityStateCache createEntityStateCache(UserInfo userInfo, List<Long> entityIds) {
+		ValidateArgument.required(userInfo, "UserInfo");
+		ValidateArgument.required(entityIds, "entityIds");
+		EntityStateCache cache = new EntityStateCache(userInfo);
+		// load the permission state of all of the entities with a single query.
+		cache.getPermissionsState(entityIds,
+				(List<Long> missing) -> usersEntityPermissionsDao.getEntityPermissionsAsMap(userInfo.getGroups(), missing));
+		return cache;
+	}
+
+	/**
+	 * Create a provider of the state of the given entities. When called from a
+	 * callable bound to an {@link EntityStateCache} for the same user the state is
+	 * shared with all other calls bound to that cache.
+	 * 
+	 * @param userInfo
+	 * @param entityIds
+	 * @return
+	 */
+	EntityStateProvider createStateProvider(UserInfo userInfo, List<Long> entityIds) {
+		Optional<EntityStateCache> cache = EntityStateCache.getCurrent()
+				.filter((EntityStateCache current) -> current.isForUser(userInfo));
+		if (cache.isPresent()) {
+			return new CachedEntityStateProvider(cache.get(), accessRestrictionStatusDao, usersEntityPermissionsDao,
+					userInfo, entityIds);
+		}
+		return new LazyEntityStateProvider(accessRestrictionStatusDao, usersEntityPermissionsDao, userInfo, entityIds);
+	}
+
 	@Override
 	public AuthorizationStatus canCreate(String parentId, EntityType entityCreateType, UserInfo userInfo)
 			throws DatastoreException, NotFoundException {
@@ -114,8 +144,7 @@ public class EntityAuthorizationManagerImpl implements EntityAuthorizationManage
 	@Override
 	public UserEntityPermissions getUserPermissionsForEntity(UserInfo userInfo, String entityId)
 			throws NotFoundException, DatastoreException {
-		EntityStateProvider stateProvider = new LazyEntityStateProvider(accessRestrictionStatusDao,
-				usersEntityPermissionsDao, userInfo, KeyFactory.stringToKeySingletonList(entityId));
+		EntityStateProvider stateProvider = createStateProvider(userInfo, KeyFactory.stringToKeySingletonList(entityId));
 		Long entityIdLong = KeyFactory.stringToKey(entityId);
 		UserEntityPermissionsState permissionsState = stateProvider.getPermissionsState(entityIdLong);
 		UserEntityPermissions permissions = new UserEntityPermissions();
@@ -167,8 +196,7 @@ public class EntityAuthorizationManagerImpl implements EntityAuthorizationManage
 		ValidateArgument.required(entityIds, "entityId");
 		ValidateArgument.required(accessType, "accessType");
 
-		EntityStateProvider stateProvider = new LazyEntityStateProvider(accessRestrictionStatusDao,
-				usersEntityPermissionsDao, userInfo, entityIds);
+		EntityStateProvider stateProvider = createStateProvider(userInfo, entityIds);
 		return entityIds.stream().map(id -> determineAccess(userInfo, id, stateProvider, accessType))
 				.collect(Collectors.toList());
 	}
@@ -333,8 +361,7 @@ public class EntityAuthorizationManagerImpl implements EntityAuthorizationManage
 
 	@Override
 	public AuthorizationStatus canDeleteACL(UserInfo userInfo, String entityId) {
-		EntityStateProvider stateProvider = new LazyEntityStateProvider(accessRestrictionStatusDao,
-				usersEntityPermissionsDao, userInfo, KeyFactory.stringToKeySingletonList(entityId));
+		EntityStateProvider stateProvider = createStateProvider(userInfo, KeyFactory.stringToKeySingletonList(entityId));
 		return determineCanDeleteACL(userInfo, stateProvider.getPermissionsState(KeyFactory.stringToKey(entityId)))
 				.getAuthorizationStatus();
 	}
@@ -0,0 +1,132 @@
+package org.sagebionetworks.repo.manager.entity;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.sagebionetworks.repo.model.UserInfo;
+import org.sagebionetworks.repo.model.ar.UsersRestrictionStatus;
+import org.sagebionetworks.repo.model.dbo.entity.UserEntityPermissionsState;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * A cache of a single user's entity permission and access restriction state
+ * that can be shared by every authorization check made while building a single
+ * response, such as an entity bundle. Each entity's state is loaded from the
+ * database at most once.
+ * <p>
+ * The cache is used by the {@link EntityAuthorizationManager} for any call made
+ * from a {@link Callable} that was bound to the cache with
+ * {@link #bind(Callable)}, on any thread. Note: The cached state is never
+ * refreshed so a cache should be discarded at the end of the request.
+ *
+ */
+public class EntityStateCache {
+
+	private static final ThreadLocal<EntityStateCache> CURRENT = new ThreadLocal<>();
+
+	private final Long userId;
+	private final Set<Long> groups;
+	private final Map<Long, UserEntityPermissionsState> permissionsState;
+	private final Map<Long, UsersRestrictionStatus> restrictionStatus;
+
+	public EntityStateCache(UserInfo userInfo) {
+		ValidateArgument.required(userInfo, "UserInfo");
+		ValidateArgument.required(userInfo.getId(), "UserInfo.id");
+		ValidateArgument.required(userInfo.getGroups(), "UserInfo.groups");
+		this.userId = userInfo.getId();
+		this.groups = new HashSet<>(userInfo.getGroups());
+		this.permissionsState = new ConcurrentHashMap<>();
+		this.restrictionStatus = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Get the cache bound to the current thread.
+	 *
+	 * @return Empty if the current thread is not running a callable bound to a
+	 *         cache.
+	 */
+	public static Optional<EntityStateCache> getCurrent() {
+		return Optional.ofNullable(CURRENT.get());
+	}
+
+	/**
+	 * Bind the given callable to this cache. Each call to the returned callable
+	 * will use this cache for the duration of the call, on whichever thread it
+	 * runs.
+	 *
+	 * @param callable
+	 * @return
+	 */
+	public <T> Callable<T> bind(Callable<T> callable) {
+		ValidateArgument.required(callable, "callable");
+		return () -> {
+			EntityStateCache previous = CURRENT.get();
+			CURRENT.set(this);
+			try {
+				return callable.call();
+			} finally {
+				if (previous == null) {
+					CURRENT.remove();
+				} else {
+					CURRENT.set(previous);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Is this cache for the given user? The state of one user must never be used
+	 * to authorize another.
+	 *
+	 * @param userInfo
+	 * @return
+	 */
+	public boolean isForUser(UserInfo userInfo) {
+		return userInfo != null && userId.equals(userInfo.getId()) && groups.equals(userInfo.getGroups());
+	}
+
+	/**
+	 * Get the permission state of the given entities, loading the state of any
+	 * entity that is not already cached with a single call to the given loader.
+	 *
+	 * @param entityIds
+	 * @param loader
+	 * @return
+	 */
+	public Map<Long, UserEntityPermissionsState> getPermissionsState(List<Long> entityIds,
+			Function<List<Long>, Map<Long, UserEntityPermissionsState>> loader) {
+		return getOrLoad(permissionsState, entityIds, loader);
+	}
+
+	/**
+	 * Get the restriction status of the given entities, loading the status of any
+	 * entity that is not already cached with a single call to the given loader.
+	 *
+	 * @param entityIds
+	 * @param loader
+	 * @return
+	 */
+	public Map<Long, UsersRestrictionStatus> getRestrictionStatus(List<Long> entityIds,
+			Function<List<Long>, Map<Long, UsersRestrictionStatus>> loader) {
+		return getOrLoad(restrictionStatus, entityIds, loader);
+	}
+
+	private static <V> Map<Long, V> getOrLoad(Map<Long, V> cache, List<Long> entityIds,
+			Function<List<Long>, Map<Long, V>> loader) {
+		ValidateArgument.required(entityIds, "entityIds");
+		ValidateArgument.required(loader, "loader");
+		List<Long> missing = entityIds.stream().filter(id -> !cache.containsKey(id)).distinct()
+				.collect(Collectors.toList());
+		if (!missing.isEmpty()) {
+			cache.putAll(loader.apply(missing));
+		}
+		return cache;
+	}
+}
@@ -3,13 +3,13 @@ package org.sagebionetworks.repo.manager.events;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.sagebionetworks.kinesis.AwsKinesisFirehoseLogger;
 import org.sagebionetworks.kinesis.AwsKinesisLogRecord;
+import org.sagebionetworks.repo.manager.collector.BoundedRecordCollector;
+import org.sagebionetworks.repo.manager.collector.RecordCollectorFactory;
 import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +19,8 @@ import org.springframework.transaction.support.TransactionSynchronization;
 @Service
 public class EventsCollectorImpl implements EventsCollector, EventsQueue {
 
+	public static final String COLLECTOR_NAME = "SynapseEvents";
+
 	@FunctionalInterface
 	private static interface Action {
 		void proceed();
@@ -30,45 +32,35 @@ public class EventsCollectorImpl implements EventsCollector, EventsQueue {
 
 	private TransactionSynchronizationProxy transactionSynchronization;
 
-	private ConcurrentLinkedQueue<SynapseEvent> queue = new ConcurrentLinkedQueue<SynapseEvent>();
+	private BoundedRecordCollector<SynapseEvent> collector;
 
 	@Autowired
 	public EventsCollectorImpl(AwsKinesisFirehoseLogger firehoseLogger,
-			EventLogRecordProviderFactory logRecordProviderFactory, TransactionSynchronizationProxy transactionSynchronization) {
+			EventLogRecordProviderFactory logRecordProviderFactory, TransactionSynchronizationProxy transactionSynchronization,
+			RecordCollectorFactory recordCollectorFactory) {
 		this.firehoseLogger = firehoseLogger;
 		this.logRecordProviderFactory = logRecordProviderFactory;
 		this.transactionSynchronization = transactionSynchronization;
+		this.collector = recordCollectorFactory.createCollector(COLLECTOR_NAME, this::log);
 	}
 
 	@Override
 	public <E extends SynapseEvent> void collectEvent(final E event) {
 		ValidateArgument.required(event, "event");
 
-		afterCommit(() -> queue.add(event));
+		afterCommit(() -> collector.add(event));
 	}
 
 	@Override
 	public <E extends SynapseEvent> void collectEvents(List<E> events) {
 		ValidateArgument.required(events, "events");
 
-		afterCommit(() -> queue.addAll(events));
+		afterCommit(() -> collector.addAll(events));
 	}
 
 	@Override
 	public void flush() {
-
-		if (queue.isEmpty()) {
-			return;
-		}
-
-		List<SynapseEvent> eventsBatch = new LinkedList<>();
-
-		for (SynapseEvent event = queue.poll(); event != null; event = queue.poll()) {
-			eventsBatch.add(event);
-		}
-
-		log(eventsBatch);
-
+		collector.flush();
 	}
 
 	private void afterCommit(Action action) {
@@ -172,6 +172,19 @@ public interface FileHandleManager {
 	 */
 	S3FileHandle uploadLocalFile(LocalFileUploadRequest request);
 
+	/**
+	 * Stream content to the standard Synapse S3 bucket using a multipart upload
+	 * and create a file handle for the result. Unlike
+	 * {@link #uploadLocalFile(LocalFileUploadRequest)} the content is never
+	 * written to a local file. The file name of the request is required and its
+	 * file to upload is ignored. This is used by workers.
+	 * 
+	 * @param request
+	 * @param writer  Writes the content of the file.
+	 * @return The new file handle or null if the writer discarded the content.
+	 */
+	S3FileHandle uploadLocalStream(LocalFileUploadRequest request, UploadStreamWriter writer);
+
 	/**
 	 * Get the list of upload destinations for this parent
 	 * 
@@ -158,6 +158,12 @@ public class FileHandleManagerImpl implements FileHandleManager {
 
 	public static final String DUPLICATED_REQUEST_MESSAGE = "Request contains duplicated FileHandleId.";
 
+	/**
+	 * The size of each part of a streamed upload, which is also the amount of
+	 * memory buffered per upload.
+	 */
+	public static final int STREAM_UPLOAD_PART_SIZE_BYTES = 8 * 1024 * 1024;
+
 	static private Log log = LogFactory.getLog(FileHandleManagerImpl.class);
 
 	public static final String NOT_SET = "NOT_SET";
@@ -696,6 +702,53 @@ public class FileHandleManagerImpl implements FileHandleManager {
 		} 
 	}
 	
+	@Override
+	public S3FileHandle uploadLocalStream(LocalFileUploadRequest request, UploadStreamWriter writer) {
+		ValidateArgument.required(request, "The request");
+		ValidateArgument.required(request.getUserId(), "The request.userId");
+		ValidateArgument.required(request.getFileName(), "The request.fileName");
+		ValidateArgument.required(writer, "The writer");
+		if (AuthorizationUtils.isUserAnonymous(Long.parseLong(request.getUserId()))) {
+			throw new UnauthorizedException("Anonymous cannot upload files.");
+		}
+		// This will return the default storage location if the input is null
+		StorageLocationSetting storageLocationSetting = storageLocationDAO.get(request.getStorageLocationId());
+		String bucket = MultipartUtils.getBucket(storageLocationSetting);
+		String key = MultipartUtils.createNewKey(request.getUserId(), request.getFileName(), storageLocationSetting);
+
+		S3FileHandle handle = new S3FileHandle();
+		handle.setBucketName(bucket);
+		handle.setKey(key);
+		handle.setContentType(request.getContentType());
+		handle.setCreatedBy(request.getUserId());
+		handle.setCreatedOn(new Date(System.currentTimeMillis()));
+		handle.setEtag(UUID.randomUUID().toString());
+		handle.setFileName(request.getFileName());
+		handle.setStorageLocationId(request.getStorageLocationId());
+
+		// The MD5 is not known until all of the content is written.
+		S3MultipartOutputStream out = new S3MultipartOutputStream(s3Client, bucket, key,
+				TransferUtils.prepareObjectMetadata(handle), MultipartUtils.getS3StorageClass(storageLocationSetting),
+				STREAM_UPLOAD_PART_SIZE_BYTES);
+		try {
+			if (!writer.write(out)) {
+				out.abort();
+				return null;
+			}
+			out.close();
+		} catch (IOException e) {
+			out.abort();
+			throw new DatastoreException(e);
+		} catch (RuntimeException e) {
+			out.abort();
+			throw e;
+		}
+		handle.setContentMd5(out.getContentMD5Hex());
+		handle.setContentSize(out.getBytesWritten());
+		handle.setId(idGenerator.generateNewId(IdType.FILE_IDS).toString());
+		return (S3FileHandle) fileHandleDao.createFile(handle);
+	}
+	
 	@Override
 	@Deprecated
 	public List<UploadDestination> getUploadDestinations(UserInfo userInfo, String parentId) throws DatastoreException,
@@ -2,7 +2,6 @@ package org.sagebionetworks.repo.manager.file;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.zip.ZipOutputStream;
 
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.file.BulkFileDownloadRequest;
@@ -11,25 +10,6 @@ import org.sagebionetworks.repo.model.file.S3FileHandle;
 
 public interface FileHandlePackageManager {
 
-	/**
-	 * Create a temporary file on the local machine.
-	 * 
-	 * @param prefix
-	 * @param suffix
-	 * @return
-	 * @throws IOException
-	 */
-	public File createTempFile(String prefix, String suffix) throws IOException;
-
-	/**
-	 * Create a ZipOutputStream using the given file.
-	 * 
-	 * @param outFile
-	 * @return
-	 * @throws IOException
-	 */
-	public ZipOutputStream createZipOutputStream(File outFile) throws IOException;
-
 	/**
 	 * Get the S3FileHandle for the given FileHandle.id.
 	 * 
@@ -49,16 +29,6 @@ public interface FileHandlePackageManager {
 	 */
 	public File downloadToTempFile(S3FileHandle fileHandle) throws IOException;
 
-	/**
-	 * Add the given file to
-	 * 
-	 * @param zipOut
-	 * @param toAdd
-	 * @param entryName
-	 * @throws IOException
-	 */
-	public void addFileToZip(ZipOutputStream zipOut, File toAdd, String entryName) throws IOException;
-
 	/**
 	 * Packaged the requested files into a zip file and upload the file to S3 as a
 	 * FileHandle.
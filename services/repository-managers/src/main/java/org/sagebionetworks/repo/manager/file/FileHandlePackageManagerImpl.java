@@ -1,19 +1,25 @@
 package org.sagebionetworks.repo.manager.file;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sagebionetworks.aws.SynapseS3Client;
@@ -49,40 +55,45 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 	public static final String FILE_EXCEEDS_THE_MAXIMUM_SIZE_LIMIT = "File exceeds the maximum size limit.";
 	public static final String RESULT_FILE_HAS_REACHED_THE_MAXIMUM_SIZE = "Result file has reached the maximum size.";
 	public static final String FILE_ALREADY_ADDED = "File already added.";
+	/**
+	 * The maximum number of files that are fetched ahead of the file currently
+	 * being written to the zip.
+	 */
+	public static final int MAX_PREFETCHED_FILES = 8;
+	/**
+	 * Files up to this size are fetched into memory ahead of time. Larger files
+	 * are streamed directly from S3 into the zip. Together with
+	 * MAX_PREFETCHED_FILES this bounds the memory used by a single zip.
+	 */
+	public static final long MAX_PREFETCH_FILE_SIZE_BYTES = 8 * 1024 * 1024;
 
 	private FileHandleDao fileHandleDao;
 	private SynapseS3Client s3client;
 	private FileHandleAuthorizationManager fileHandleAuthorizationManager;
 	private FileHandleManager fileHandleManager;
 	private EventsCollector statisticsCollector;
+	private ExecutorService downloadExecutor;
 
 	@Autowired
 	public FileHandlePackageManagerImpl(FileHandleDao fileHandleDao, SynapseS3Client s3client,
 			FileHandleAuthorizationManager fileHandleAuthorizationManager, FileHandleManager fileHandleManager,
-			EventsCollector statisticsCollector) {
+			EventsCollector statisticsCollector, ExecutorService bulkDownloadExecutorService) {
 		super();
 		this.fileHandleDao = fileHandleDao;
 		this.s3client = s3client;
 		this.fileHandleAuthorizationManager = fileHandleAuthorizationManager;
 		this.fileHandleManager = fileHandleManager;
 		this.statisticsCollector = statisticsCollector;
+		this.downloadExecutor = bulkDownloadExecutorService;
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Used by tests to run the downloads on the calling thread.
 	 * 
-	 * @see
-	 * org.sagebionetworks.file.worker.BulkDownloadDao#createTempFile(java.lang.
-	 * String, java.lang.String)
+	 * @param downloadExecutor
 	 */
-	@Override
-	public File createTempFile(String prefix, String suffix) throws IOException {
-		return File.createTempFile(prefix, suffix);
-	}
-
-	@Override
-	public ZipOutputStream createZipOutputStream(File outFile) throws IOException {
-		return new ZipOutputStream(new FileOutputStream(outFile));
+	void setDownloadExecutor(ExecutorService downloadExecutor) {
+		this.downloadExecutor = downloadExecutor;
 	}
 
 	/*
@@ -115,22 +126,32 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 		return tempFile;
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Open a stream of the content of the given file directly from S3. The caller
+	 * must close the stream.
 	 * 
-	 * @see
-	 * org.sagebionetworks.file.worker.BulkDownloadDao#addFileToZip(java.util.zip.
-	 * ZipOutputStream, java.io.File, java.lang.String)
+	 * @param fileHandle
+	 * @return
 	 */
-	@Override
-	public void addFileToZip(ZipOutputStream zipOut, File toAdd, String zipEntryName) throws IOException {
-		try (InputStream in = new FileInputStream(toAdd)) {
-			ZipEntry entry = new ZipEntry(zipEntryName);
-			zipOut.putNextEntry(entry);
-			// Write the file the zip
-			IOUtils.copy(in, zipOut);
-			zipOut.closeEntry();
-		}
+	InputStream openObjectStream(S3FileHandle fileHandle) {
+		return s3client.getObject(new GetObjectRequest(fileHandle.getBucketName(), fileHandle.getKey()))
+				.getObjectContent();
+	}
+
+	/**
+	 * Add the content of the given stream to the zip as a new entry.
+	 * 
+	 * @param zipOut
+	 * @param toAdd
+	 * @param zipEntryName
+	 * @throws IOException
+	 */
+	void addStreamToZip(ZipOutputStream zipOut, InputStream toAdd, String zipEntryName) throws IOException {
+		ZipEntry entry = new ZipEntry(zipEntryName);
+		zipOut.putNextEntry(entry);
+		// Write the file the zip
+		IOUtils.copy(toAdd, zipOut);
+		zipOut.closeEntry();
 	}
 	
 	@Override
@@ -146,55 +167,77 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 		if (request.getZipFileName() != null) {
 			NameValidation.validateName(request.getZipFileName());
 		}
-		// The generated zip will be written to this temp file.
-		File tempResultFile = createTempFile("Job", ".zip");
-		try {
-			List<FileDownloadSummary> results = addFilesToZip(user, request, tempResultFile, skipFileSizeCheck);
-			String resultFileHandleId = null;
-			// must have at least one file.
-			if (results.stream().filter(f-> FileDownloadStatus.SUCCESS.equals(f.getStatus())).findFirst().isPresent()) {
-				// upload the result file to S3
-				S3FileHandle resultHandle = fileHandleManager
-						.uploadLocalFile(new LocalFileUploadRequest().withFileName(request.getZipFileName())
-								.withUserId(user.getId().toString()).withFileToUpload(tempResultFile)
-								.withContentType(APPLICATION_ZIP));
-				resultFileHandleId = resultHandle.getId();
-			}
+		String zipFileName = request.getZipFileName();
+		if (zipFileName == null) {
+			zipFileName = "Job" + System.currentTimeMillis() + ".zip";
+		}
+		List<FileDownloadSummary> results = new ArrayList<>();
+		// The zip is streamed directly to S3 as it is built.
+		S3FileHandle resultHandle = fileHandleManager.uploadLocalStream(
+				new LocalFileUploadRequest().withFileName(zipFileName).withUserId(user.getId().toString())
+						.withContentType(APPLICATION_ZIP),
+				(out) -> {
+					results.addAll(addFilesToZip(user, request, out, skipFileSizeCheck));
+					// must have at least one file.
+					return results.stream().anyMatch(f -> FileDownloadStatus.SUCCESS.equals(f.getStatus()));
+				});
+		String resultFileHandleId = resultHandle != null ? resultHandle.getId() : null;
 
-			collectDownloadStatistics(user.getId(), results);
+		collectDownloadStatistics(user.getId(), results);
 
-			// All of the parts are ready.
-			BulkFileDownloadResponse response = new BulkFileDownloadResponse();
-			response.setFileSummary(results);
-			// added for PLFM-3629
-			response.setUserId("" + user.getId());
-			response.setResultZipFileHandleId(resultFileHandleId);
-			return response;
-		} finally {
-			tempResultFile.delete();
-		}
+		// All of the parts are ready.
+		BulkFileDownloadResponse response = new BulkFileDownloadResponse();
+		response.setFileSummary(results);
+		// added for PLFM-3629
+		response.setUserId("" + user.getId());
+		response.setResultZipFileHandleId(resultFileHandleId);
+		return response;
 	}
 
 	/**
+	 * Write the requested files to a zip on the given stream. The files are
+	 * fetched from S3 on the download executor, up to
+	 * {@link #MAX_PREFETCHED_FILES} ahead of the file being written, while the
+	 * entries are always written in the order of the request. Once the zip
+	 * reaches its maximum size nothing more is fetched.
 	 * 
-	 * @param progressCallback
-	 * @param message
-	 * @param authResults
-	 * @param tempResultFile
-	 * @param zipOut
+	 * @param user
+	 * @param request
+	 * @param out               The zip is written to this stream. The stream is
+	 *                          not closed.
+	 * @param skipFileSizeCheck
+	 * @return The summary of each requested file.
 	 * @throws IOException
 	 */
-	List<FileDownloadSummary> addFilesToZip(UserInfo user, BulkFileDownloadRequest request, File tempResultFile, boolean skipFileSizeCheck) throws IOException {
-
-		try (ZipOutputStream zipOut = createZipOutputStream(tempResultFile)) {
-			List<FileHandleAssociationAuthorizationStatus> authResults = fileHandleAuthorizationManager
-					.canDownLoadFile(user, request.getRequestedFiles());
-			ZipEntryNameProvider zipEntryNameProvider = createZipEntryNameProvider(request.getZipFileFormat());
-			Set<String> fileIdsInZip = new HashSet<>(authResults.size());
-			// This will be the final summary of results..
-			List<FileDownloadSummary> fileSummaries = new ArrayList<>(authResults.size());
+	List<FileDownloadSummary> addFilesToZip(UserInfo user, BulkFileDownloadRequest request, OutputStream out, boolean skipFileSizeCheck) throws IOException {
+		List<FileHandleAssociationAuthorizationStatus> authResults = fileHandleAuthorizationManager
+				.canDownLoadFile(user, request.getRequestedFiles());
+		ZipEntryNameProvider zipEntryNameProvider = createZipEntryNameProvider(request.getZipFileFormat());
+		Set<String> fileIdsInZip = new HashSet<>(authResults.size());
+		// This will be the final summary of results..
+		List<FileDownloadSummary> fileSummaries = new ArrayList<>(authResults.size());
+		List<Future<PrefetchedFile>> prefetched = new ArrayList<>(Collections.nCopies(authResults.size(), null));
+		Set<String> prefetchedIds = new HashSet<>(authResults.size());
+		int nextToPrefetch = 0;
+		// The counter tracks the size of the zip written so far.
+		CountingOutputStream counter = new CountingOutputStream(new CloseShieldOutputStream(out));
+		try (ZipOutputStream zipOut = new ZipOutputStream(counter)) {
 			// process each request in order.
-			for (FileHandleAssociationAuthorizationStatus fhas : authResults) {
+			for (int i = 0; i < authResults.size(); i++) {
+				if (isZipFull(counter.getByteCount(), skipFileSizeCheck)) {
+					// all of the remaining files will be skipped so none of them are fetched.
+					cancelPrefetches(prefetched);
+				} else {
+					// keep the prefetch window full.
+					for (; nextToPrefetch < authResults.size() && nextToPrefetch < i + MAX_PREFETCHED_FILES; nextToPrefetch++) {
+						FileHandleAssociationAuthorizationStatus toFetch = authResults.get(nextToPrefetch);
+						String toFetchId = toFetch.getAssociation().getFileHandleId();
+						if (toFetch.getStatus().isAuthorized() && prefetchedIds.add(toFetchId)) {
+							prefetched.set(nextToPrefetch, downloadExecutor.submit(() -> prefetchFile(toFetchId)));
+						}
+					}
+				}
+				FileHandleAssociationAuthorizationStatus fhas = authResults.get(i);
 				String fileHandleId = fhas.getAssociation().getFileHandleId();
 				FileDownloadSummary summary = new FileDownloadSummary();
 				summary.setFileHandleId(fileHandleId);
@@ -202,9 +245,8 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 				summary.setAssociateObjectType(fhas.getAssociation().getAssociateObjectType());
 				fileSummaries.add(summary);
 				try {
-					String zipEntryName = writeOneFileToZip(zipOut, tempResultFile.length(), fhas, fileIdsInZip,
-							zipEntryNameProvider, skipFileSizeCheck);
-					// download this file from S3
+					String zipEntryName = writeOneFileToZip(zipOut, counter.getByteCount(), fhas, fileIdsInZip,
+							zipEntryNameProvider, skipFileSizeCheck, prefetched.get(i));
 					fileIdsInZip.add(fileHandleId);
 					summary.setStatus(FileDownloadStatus.SUCCESS);
 					summary.setZipEntryName(zipEntryName);
@@ -224,11 +266,45 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 					summary.setFailureMessage(e.getMessage());
 					summary.setFailureCode(FileDownloadCode.UNKNOWN_ERROR);
 					log.error("Failed on: " + fhas.getAssociation(), e);
+				} finally {
+					// release the prefetched content.
+					Future<PrefetchedFile> done = prefetched.set(i, null);
+					if (done != null) {
+						done.cancel(true);
+					}
 				}
 			}
 			return fileSummaries;
+		} finally {
+			// Nothing that is still being fetched will be used.
+			cancelPrefetches(prefetched);
 		}
+	}
 
+	/**
+	 * Cancel and release each of the given prefetches.
+	 * 
+	 * @param prefetched
+	 */
+	static void cancelPrefetches(List<Future<PrefetchedFile>> prefetched) {
+		for (int i = 0; i < prefetched.size(); i++) {
+			Future<PrefetchedFile> future = prefetched.set(i, null);
+			if (future != null) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Has the zip reached its maximum size? No more files can be added to a full
+	 * zip.
+	 * 
+	 * @param zipFileSize
+	 * @param skipFileSizeCheck
+	 * @return
+	 */
+	boolean isZipFull(long zipFileSize, boolean skipFileSizeCheck) {
+		return !skipFileSizeCheck && zipFileSize > FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES;
 	}
 
 	/**
@@ -238,11 +314,17 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 	 * @param zipFileSize
 	 * @param fhas
 	 * @param fileIdsInZip
+	 * @param zipEntryNameProvider
+	 * @param skipFileSizeCheck
+	 * @param prefetched           The file fetched ahead of time for this request.
+	 *                             When null, the file will be fetched on the
+	 *                             calling thread.
 	 * @throws IOException
 	 * @return The zip entry name used for this file.
 	 */
 	String writeOneFileToZip(ZipOutputStream zipOut, long zipFileSize, FileHandleAssociationAuthorizationStatus fhas,
-			Set<String> fileIdsInZip, ZipEntryNameProvider zipEntryNameProvider, boolean skipFileSizeCheck) throws IOException {
+			Set<String> fileIdsInZip, ZipEntryNameProvider zipEntryNameProvider, boolean skipFileSizeCheck,
+			Future<PrefetchedFile> prefetched) throws IOException {
 		String fileHandleId = fhas.getAssociation().getFileHandleId();
 		// Is the user authorized to download this file?
 		if (!fhas.getStatus().isAuthorized()) {
@@ -253,26 +335,71 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 			throw new BulkFileException(FILE_ALREADY_ADDED, FileDownloadCode.DUPLICATE);
 		}
 		// Each file must be less than the max.
-		if (!skipFileSizeCheck && zipFileSize > FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES) {
+		if (isZipFull(zipFileSize, skipFileSizeCheck)) {
 			throw new BulkFileException(RESULT_FILE_HAS_REACHED_THE_MAXIMUM_SIZE, FileDownloadCode.EXCEEDS_SIZE_LIMIT);
 		}
 		// Get this filehandle.
-		S3FileHandle s3Handle = getS3FileHandle(fileHandleId);
+		PrefetchedFile file = prefetched != null ? getPrefetchedFile(prefetched)
+				: new PrefetchedFile(getS3FileHandle(fileHandleId), null);
+		S3FileHandle s3Handle = file.getFileHandle();
 		// Each file must be under the max.s
 		if (!skipFileSizeCheck && s3Handle.getContentSize() > FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES) {
 			throw new BulkFileException(FILE_EXCEEDS_THE_MAXIMUM_SIZE_LIMIT, FileDownloadCode.EXCEEDS_SIZE_LIMIT);
 		}
-		// This file will be downloaded to this temp.
-		File downloadTemp = downloadToTempFile(s3Handle);
-		try {
-			// The entry name is the path plus file name.
-			String zipEntryName = zipEntryNameProvider.createZipEntryName(s3Handle.getFileName(),
-					Long.parseLong(s3Handle.getId()));
+		// The entry name is the path plus file name.
+		String zipEntryName = zipEntryNameProvider.createZipEntryName(s3Handle.getFileName(),
+				Long.parseLong(s3Handle.getId()));
+		// Files that were not fetched ahead of time are streamed from S3.
+		try (InputStream in = file.getContent() != null ? new ByteArrayInputStream(file.getContent())
+				: openObjectStream(s3Handle)) {
 			// write the file to the zip.
-			addFileToZip(zipOut, downloadTemp, zipEntryName);
-			return zipEntryName;
-		} finally {
-			downloadTemp.delete();
+			addStreamToZip(zipOut, in, zipEntryName);
+		}
+		return zipEntryName;
+	}
+
+	/**
+	 * Fetch the S3FileHandle for the given id. The content of the file is also
+	 * fetched into memory if the file is small enough.
+	 * 
+	 * @param fileHandleId
+	 * @return
+	 * @throws IOException
+	 */
+	PrefetchedFile prefetchFile(String fileHandleId) throws IOException {
+		S3FileHandle s3Handle = getS3FileHandle(fileHandleId);
+		if (s3Handle.getContentSize() == null || s3Handle.getContentSize() > MAX_PREFETCH_FILE_SIZE_BYTES) {
+			// too large to hold in memory.
+			return new PrefetchedFile(s3Handle, null);
+		}
+		try (InputStream in = openObjectStream(s3Handle)) {
+			return new PrefetchedFile(s3Handle, IOUtils.toByteArray(in));
+		}
+	}
+
+	/**
+	 * Wait for the given prefetch to finish. Any exception thrown while fetching
+	 * the file is re-thrown on the calling thread.
+	 * 
+	 * @param future
+	 * @return
+	 * @throws IOException
+	 */
+	static PrefetchedFile getPrefetchedFile(Future<PrefetchedFile> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(cause);
 		}
 	}
 
@@ -310,4 +437,31 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 		}
 	}
 
+	/**
+	 * A file handle and, when small enough, its content fetched ahead of time.
+	 *
+	 */
+	static class PrefetchedFile {
+
+		private final S3FileHandle fileHandle;
+		private final byte[] content;
+
+		PrefetchedFile(S3FileHandle fileHandle, byte[] content) {
+			this.fileHandle = fileHandle;
+			this.content = content;
+		}
+
+		S3FileHandle getFileHandle() {
+			return fileHandle;
+		}
+
+		/**
+		 * @return The content of the file or null if the file must be streamed
+		 *         from S3.
+		 */
+		byte[] getContent() {
+			return content;
+		}
+	}
+
 }
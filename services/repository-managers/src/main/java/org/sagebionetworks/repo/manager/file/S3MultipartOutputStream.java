@@ -0,0 +1,213 @@
+package org.sagebionetworks.repo.manager.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.repo.manager.file.transfer.TransferUtils;
+import org.sagebionetworks.util.ValidateArgument;
+
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.StorageClass;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.util.BinaryUtils;
+
+/**
+ * An OutputStream that uploads everything written to it to a single S3 object
+ * using a multipart upload. Only the current part is held in memory, so
+ * content of any size can be uploaded without a local file. When the content
+ * fits in a single part it is uploaded with a single put when the stream is
+ * closed.
+ * <p>
+ * The object is only created when the stream is closed. Call {@link #abort()}
+ * to discard any parts that have already been uploaded.
+ *
+ */
+public class S3MultipartOutputStream extends OutputStream {
+
+	/**
+	 * S3 requires all parts but the last to be at least 5 MB.
+	 */
+	public static final int MIN_PART_SIZE_BYTES = 5 * 1024 * 1024;
+
+	private final SynapseS3Client s3Client;
+	private final String bucket;
+	private final String key;
+	private final ObjectMetadata metadata;
+	private final StorageClass storageClass;
+	private final byte[] buffer;
+	private final MessageDigest md5Digest;
+	private final List<PartETag> partETags;
+
+	private int bufferCount;
+	private long bytesWritten;
+	private String uploadId;
+	private String contentMD5Hex;
+	private boolean closed;
+	private boolean completed;
+
+	/**
+	 *
+	 * @param s3Client
+	 * @param bucket        The bucket of the object to create.
+	 * @param key           The key of the object to create.
+	 * @param metadata      The metadata of the object to create.
+	 * @param storageClass  Optional storage class of the object.
+	 * @param partSizeBytes The number of bytes in each part. This is also the
+	 *                      number of bytes buffered in memory.
+	 */
+	public S3MultipartOutputStream(SynapseS3Client s3Client, String bucket, String key, ObjectMetadata metadata,
+			StorageClass storageClass, int partSizeBytes) {
+		ValidateArgument.required(s3Client, "The s3Client");
+		ValidateArgument.required(bucket, "The bucket");
+		ValidateArgument.required(key, "The key");
+		ValidateArgument.required(metadata, "The metadata");
+		ValidateArgument.requirement(partSizeBytes >= MIN_PART_SIZE_BYTES,
+				"The part size must be at least " + MIN_PART_SIZE_BYTES + " bytes");
+		this.s3Client = s3Client;
+		this.bucket = bucket;
+		this.key = key;
+		this.metadata = metadata;
+		this.storageClass = storageClass;
+		this.buffer = new byte[partSizeBytes];
+		this.md5Digest = TransferUtils.createMD5Digest();
+		this.partETags = new ArrayList<>();
+		this.bufferCount = 0;
+		this.bytesWritten = 0L;
+		this.closed = false;
+		this.completed = false;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		buffer[bufferCount++] = (byte) b;
+		md5Digest.update((byte) b);
+		bytesWritten++;
+		if (bufferCount == buffer.length) {
+			uploadBufferedPart();
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		if (off < 0 || len < 0 || off + len > b.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		while (len > 0) {
+			int toCopy = Math.min(len, buffer.length - bufferCount);
+			System.arraycopy(b, off, buffer, bufferCount, toCopy);
+			md5Digest.update(b, off, toCopy);
+			bufferCount += toCopy;
+			bytesWritten += toCopy;
+			off += toCopy;
+			len -= toCopy;
+			if (bufferCount == buffer.length) {
+				uploadBufferedPart();
+			}
+		}
+	}
+
+	/**
+	 * Upload any buffered data and create the S3 object. If the upload fails for
+	 * any reason it is aborted. Closing a closed stream has no effect.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (uploadId == null) {
+				// everything fit in a single part.
+				metadata.setContentLength(bufferCount);
+				PutObjectRequest putRequest = new PutObjectRequest(bucket, key,
+						new ByteArrayInputStream(buffer, 0, bufferCount), metadata);
+				if (storageClass != null) {
+					putRequest.withStorageClass(storageClass);
+				}
+				s3Client.putObject(putRequest);
+			} else {
+				if (bufferCount > 0) {
+					uploadBufferedPart();
+				}
+				s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, partETags));
+			}
+			contentMD5Hex = BinaryUtils.toHex(md5Digest.digest());
+			completed = true;
+		} catch (RuntimeException e) {
+			abort();
+			throw e;
+		}
+	}
+
+	/**
+	 * Abort the upload, discarding any parts that have already been uploaded.
+	 * This has no effect once the upload has completed.
+	 */
+	public void abort() {
+		closed = true;
+		if (completed || uploadId == null) {
+			return;
+		}
+		String toAbort = uploadId;
+		uploadId = null;
+		s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, toAbort));
+	}
+
+	/**
+	 * @return The total number of bytes written to this stream.
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	/**
+	 * @return The hex encoded MD5 of the uploaded content. Only available once
+	 *         the upload has completed.
+	 */
+	public String getContentMD5Hex() {
+		if (!completed) {
+			throw new IllegalStateException("The upload has not completed");
+		}
+		return contentMD5Hex;
+	}
+
+	/**
+	 * Upload the buffered bytes as the next part, starting the multipart upload
+	 * if needed.
+	 */
+	void uploadBufferedPart() {
+		if (uploadId == null) {
+			InitiateMultipartUploadRequest initRequest = new InitiateMultipartUploadRequest(bucket, key, metadata);
+			if (storageClass != null) {
+				initRequest.withStorageClass(storageClass);
+			}
+			uploadId = s3Client.initiateMultipartUpload(initRequest).getUploadId();
+		}
+		int partNumber = partETags.size() + 1;
+		UploadPartRequest partRequest = new UploadPartRequest().withBucketName(bucket).withKey(key)
+				.withUploadId(uploadId).withPartNumber(partNumber)
+				.withInputStream(new ByteArrayInputStream(buffer, 0, bufferCount)).withPartSize(bufferCount);
+		partETags.add(s3Client.uploadPart(partRequest).getPartETag());
+		bufferCount = 0;
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+}
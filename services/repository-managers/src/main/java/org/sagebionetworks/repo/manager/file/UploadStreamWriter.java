@@ -0,0 +1,24 @@
+package org.sagebionetworks.repo.manager.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Abstraction for writing the content of a file that is streamed directly to
+ * S3.
+ *
+ */
+@FunctionalInterface
+public interface UploadStreamWriter {
+
+	/**
+	 * Write the content of the file to the given stream. The writer must not
+	 * close the stream.
+	 * 
+	 * @param out
+	 * @return True if the written content should be kept. When false the upload
+	 *         is aborted.
+	 * @throws IOException
+	 */
+	boolean write(OutputStream out) throws IOException;
+}
@@ -1,18 +1,28 @@
 package org.sagebionetworks.repo.manager.message;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.repo.manager.collector.BoundedRecordCollector;
+import org.sagebionetworks.repo.manager.collector.RecordCollectorFactory;
+import org.sagebionetworks.repo.manager.collector.RecordSpillCodec;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.message.ChangeMessages;
-import org.sagebionetworks.repo.model.message.Message;
 import org.sagebionetworks.repo.model.message.TransactionalMessenger;
 import org.sagebionetworks.repo.transactions.NewWriteTransaction;
 import org.sagebionetworks.schema.adapter.JSONEntity;
@@ -20,6 +30,7 @@ import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
 import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
 import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.model.CreateTopicRequest;
 import com.amazonaws.services.sns.model.CreateTopicResult;
@@ -36,6 +47,12 @@ import com.google.common.collect.Lists;
 public class RepositoryMessagePublisherImpl implements RepositoryMessagePublisher {
 	
 	public static final String SEMAPHORE_KEY = "UNSENT_MESSAGE_WORKER";
+	public static final String METRIC_NAMESPACE_PREFIX = "Repository-Message-Publisher-";
+	public static final String METRIC_PUBLISH_LATENCY = "Publish batch latency";
+	public static final String METRIC_PUBLISHED_COUNT = "Published message count";
+	public static final String METRIC_FAILED_COUNT = "Failed message count";
+	public static final String DIMENSION_TOPIC = "Topic";
+	public static final String COLLECTOR_NAME = "ChangeMessages";
 	static private Log log = LogFactory.getLog(RepositoryMessagePublisherImpl.class);
 
 	@Autowired
@@ -46,11 +63,19 @@ public class RepositoryMessagePublisherImpl implements RepositoryMessagePublishe
 
 	@Autowired
 	StackConfiguration stackConfiguration;
+	
+	@Autowired
+	Consumer consumer;
+	
+	@Autowired
+	RecordCollectorFactory recordCollectorFactory;
 
 	// Maps each object type to its topic
-	Map<ObjectType, TopicInfo> typeToTopicMap = new HashMap<ObjectType, TopicInfo>();;
+	Map<ObjectType, TopicInfo> typeToTopicMap = new ConcurrentHashMap<ObjectType, TopicInfo>();
 
-	private ConcurrentLinkedQueue<Message> messageQueue = new ConcurrentLinkedQueue<Message>();
+	private BoundedRecordCollector<ChangeMessage> messageCollector;
+	
+	private ExecutorService publishExecutor;
 
 
 	/**
@@ -61,12 +86,24 @@ public class RepositoryMessagePublisherImpl implements RepositoryMessagePublishe
 		this.awsSNSClient = awsSNSClient;
 	}
 
+	/**
+	 * Injected. The pool that limits the number of batches published to SNS at
+	 * the same time.
+	 * 
+	 * @param publishExecutor
+	 */
+	public void setPublishExecutor(ExecutorService publishExecutor) {
+		this.publishExecutor = publishExecutor;
+	}
+
 	/**
 	 *
 	 * This is called by Spring when this bean is created.  This is where we register this class as
 	 * an observer of the TransactionalMessenger
 	 */
 	public void initialize(){
+		messageCollector = recordCollectorFactory.createCollector(COLLECTOR_NAME, this::publishMessages,
+				RecordSpillCodec.forJSONEntity(ChangeMessage.class));
 		// We only want to be in the list once
 		transactionalMessanger.removeObserver(this);
 		transactionalMessanger.registerObserver(this);
@@ -83,8 +120,8 @@ public class RepositoryMessagePublisherImpl implements RepositoryMessagePublishe
 		if(message.getObjectId()  == null) throw new IllegalArgumentException("ChangeMessage.getObjectId() cannot be null");
 		if(message.getObjectType()  == null) throw new IllegalArgumentException("ChangeMessage.getObjectType() cannot be null");
 		if(message.getTimestamp()  == null) throw new IllegalArgumentException("ChangeMessage.getTimestamp() cannot be null");
-		// Add the message to a queue
-		messageQueue.add(message);
+		// Add the message to the collector
+		messageCollector.add(message);
 	}
 
 	@Override
@@ -99,11 +136,22 @@ public class RepositoryMessagePublisherImpl implements RepositoryMessagePublishe
 
 	/**
 	 * Quartz will fire this method on a timer.  This is where we actually publish the data. 
+	 * The collector also publishes on its own as soon as a full batch of messages is queued.
 	 */
 	@Override
 	public void timerFired(){
-		// Poll all data from the queue.
-		List<Message> currentQueue = pollListFromQueue();
+		messageCollector.flush();
+	}
+	
+	/**
+	 * Publish a batch of messages flushed from the collector.
+	 * The messages are grouped by object type and published in batches of up to
+	 * {@link ChangeMessageUtils#MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE} with
+	 * one batch sent at a time by each thread of the publish executor.
+	 * 
+	 * @param currentQueue
+	 */
+	void publishMessages(List<ChangeMessage> currentQueue){
 		if(!stackConfiguration.getShouldMessagesBePublishedToTopic()){
 			// The messages should not be broadcast
 			if(log.isDebugEnabled() && currentQueue.size() > 0){
@@ -111,35 +159,102 @@ public class RepositoryMessagePublisherImpl implements RepositoryMessagePublishe
 			}
 			return;
 		}
-		// Publish each message to the topic
-		for (Message queueItem : currentQueue) {
+		Map<ObjectType, List<ChangeMessage>> messagesByType = groupByObjectType(currentQueue);
+		// Publish each batch to the topic of its type
+		List<Future<BatchResult>> futures = new ArrayList<>();
+		for (Map.Entry<ObjectType, List<ChangeMessage>> entry : messagesByType.entrySet()) {
+			for (List<ChangeMessage> batch : Lists.partition(entry.getValue(), ChangeMessageUtils.MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE)) {
+				futures.add(publishExecutor.submit(() -> publishBatch(entry.getKey(), batch)));
+			}
+		}
+		// Wait for all batches so that at most one timer's worth of batches are in flight.
+		List<BatchResult> results = new ArrayList<>(futures.size());
+		for (Future<BatchResult> future : futures) {
 			try {
-				if (queueItem instanceof ChangeMessage) {
-					ChangeMessage message = (ChangeMessage) queueItem;
-					publishToTopic(message);
-				} else {
-					throw new IllegalArgumentException("Unknown message type " + queueItem.getClass().getName());
-				}
-			} catch (Throwable e) {
-				// If one messages fails, we must send the rest.
-				log.error("Failed to publish message.", e);
+				results.add(future.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				log.error("Interrupted while publishing messages.", e);
+				return;
+			} catch (ExecutionException e) {
+				log.error("Failed to publish message batch.", e.getCause());
 			}
 		}
+		pushMetrics(results);
 	}
 	
 	/**
-	 * Poll all data currently on the queue and add it to a list.
+	 * Group the given messages by object type, preserving the order of the messages within each type.
+	 * 
+	 * @param messages
 	 * @return
 	 */
-	private List<Message> pollListFromQueue() {
-		List<Message> list = Lists.newLinkedList();
-		for (Message cm = this.messageQueue.poll(); cm != null; cm = this.messageQueue.poll()) {
-			// Add to the list
-			list.add(cm);
+	static Map<ObjectType, List<ChangeMessage>> groupByObjectType(List<ChangeMessage> messages) {
+		Map<ObjectType, List<ChangeMessage>> messagesByType = new LinkedHashMap<>();
+		for (ChangeMessage message : messages) {
+			messagesByType.computeIfAbsent(message.getObjectType(), (ObjectType type) -> new ArrayList<>()).add(message);
 		}
-		return list;
+		return messagesByType;
 	}
-
+	
+	/**
+	 * Publish a single batch, capturing the outcome.
+	 * 
+	 * @param type
+	 * @param batch
+	 * @return
+	 */
+	BatchResult publishBatch(ObjectType type, List<ChangeMessage> batch) {
+		long start = System.currentTimeMillis();
+		boolean success = true;
+		try {
+			publishBatchToTopic(type, batch);
+		} catch (Throwable e) {
+			// If one batch fails, we must send the rest. Unsent messages will be picked up by the synchronization worker.
+			log.error("Failed to publish message batch of type: " + type, e);
+			success = false;
+		}
+		return new BatchResult(type, batch.size(), System.currentTimeMillis() - start, success);
+	}
+	
+	/**
+	 * Push the latency and throughput of each topic to CloudWatch.
+	 * 
+	 * @param results
+	 */
+	void pushMetrics(List<BatchResult> results) {
+		if (results.isEmpty()) {
+			return;
+		}
+		String namespace = METRIC_NAMESPACE_PREFIX + stackConfiguration.getStackInstance();
+		Date now = new Date();
+		Map<ObjectType, long[]> countsByType = new LinkedHashMap<>();
+		List<ProfileData> metrics = new ArrayList<>();
+		for (BatchResult result : results) {
+			metrics.add(createMetric(namespace, now, result.getType(), METRIC_PUBLISH_LATENCY, result.getElapsedMS(), StandardUnit.Milliseconds));
+			long[] counts = countsByType.computeIfAbsent(result.getType(), (ObjectType type) -> new long[2]);
+			counts[result.isSuccess() ? 0 : 1] += result.getMessageCount();
+		}
+		countsByType.forEach((ObjectType type, long[] counts) -> {
+			metrics.add(createMetric(namespace, now, type, METRIC_PUBLISHED_COUNT, counts[0], StandardUnit.Count));
+			if (counts[1] > 0) {
+				metrics.add(createMetric(namespace, now, type, METRIC_FAILED_COUNT, counts[1], StandardUnit.Count));
+			}
+		});
+		consumer.addProfileData(metrics);
+	}
+	
+	private ProfileData createMetric(String namespace, Date timestamp, ObjectType type, String name, double value, StandardUnit unit) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(namespace);
+		profileData.setName(name);
+		profileData.setValue(value);
+		profileData.setUnit(unit.name());
+		profileData.setTimestamp(timestamp);
+		profileData.setDimension(Collections.singletonMap(DIMENSION_TOPIC, getTopicName(type)));
+		return profileData;
+	}
+	
 	/**
 	 * Get the topic info for a given type (lazy loaded).
 	 * 
@@ -150,16 +265,13 @@ public class RepositoryMessagePublisherImpl implements RepositoryMessagePublishe
 		if(type == null){
 			throw new IllegalArgumentException("ObjectType cannot be null");
 		}
-		TopicInfo info = this.typeToTopicMap.get(type);
-		if(info == null){
+		return this.typeToTopicMap.computeIfAbsent(type, (ObjectType key) -> {
 			// Create the topic
-			String name = stackConfiguration.getRepositoryChangeTopic(type.name());
+			String name = stackConfiguration.getRepositoryChangeTopic(key.name());
 			CreateTopicResult result = awsSNSClient.createTopic(new CreateTopicRequest(name));
 			String arn = result.getTopicArn();
-			info = new TopicInfo(name, arn);
-			this.typeToTopicMap.put(type, info);
-		}
-		return info;
+			return new TopicInfo(name, arn);
+		});
 	}
 
 	/**
@@ -214,6 +326,36 @@ public class RepositoryMessagePublisherImpl implements RepositoryMessagePublishe
 		awsSNSClient.publish(new PublishRequest(topicArn, json));
 	}
 	
+	/**
+	 * The outcome of publishing a single batch.
+	 *
+	 */
+	static class BatchResult {
+		private final ObjectType type;
+		private final int messageCount;
+		private final long elapsedMS;
+		private final boolean success;
+
+		BatchResult(ObjectType type, int messageCount, long elapsedMS, boolean success) {
+			this.type = type;
+			this.messageCount = messageCount;
+			this.elapsedMS = elapsedMS;
+			this.success = success;
+		}
+		public ObjectType getType() {
+			return type;
+		}
+		public int getMessageCount() {
+			return messageCount;
+		}
+		public long getElapsedMS() {
+			return elapsedMS;
+		}
+		public boolean isSuccess() {
+			return success;
+		}
+	}
+	
 	/**
 	 * Information about a topic.
 	 *
@@ -0,0 +1,106 @@
+package org.sagebionetworks.repo.manager.metric;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Base for the publishers that push a set of metrics to cloud watch each time
+ * a timer fires. Counters that only grow are reported as the change since the
+ * previous publish.
+ *
+ */
+public abstract class PeriodicMetricPublisher {
+
+	@Autowired
+	Consumer consumer;
+	@Autowired
+	Clock clock;
+	@Autowired
+	StackConfiguration stackConfig;
+
+	private final String nameSpacePrefix;
+	private final String nameSpaceName;
+	private String nameSpace;
+
+	private final Map<String, Long> lastCounts = new HashMap<>();
+
+	/**
+	 * @param nameSpacePrefix The prefix of the metric name space.
+	 * @param nameSpaceName   The name of the metrics within the name space,
+	 *                        for example: 'Content-Cache'.
+	 */
+	protected PeriodicMetricPublisher(String nameSpacePrefix, String nameSpaceName) {
+		ValidateArgument.required(nameSpacePrefix, "nameSpacePrefix");
+		ValidateArgument.required(nameSpaceName, "nameSpaceName");
+		this.nameSpacePrefix = nameSpacePrefix;
+		this.nameSpaceName = nameSpaceName;
+	}
+
+	/**
+	 * Call from a timer.
+	 */
+	public void onTimerFired() {
+		consumer.addProfileData(createMetrics(new Date(clock.currentTimeMillis())));
+	}
+
+	/**
+	 * Create the metrics of the period that ends with the given timestamp.
+	 *
+	 * @param timestamp
+	 * @return
+	 */
+	protected abstract List<ProfileData> createMetrics(Date timestamp);
+
+	/**
+	 * The change of the given counter since the previous call for the same key.
+	 *
+	 * @param key   Identifies the counter.
+	 * @param count The current value of the counter.
+	 * @return
+	 */
+	protected long countSince(String key, long count) {
+		Long lastCount = lastCounts.put(key, count);
+		return count - (lastCount == null ? 0L : lastCount);
+	}
+
+	public static double percent(long count, long total) {
+		if (total < 1L) {
+			return 0.0;
+		}
+		return 100.0 * count / total;
+	}
+
+	protected ProfileData createMetric(String name, double value, StandardUnit unit, Date timestamp) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(getNamespace());
+		profileData.setName(name);
+		profileData.setValue(value);
+		profileData.setUnit(unit.name());
+		profileData.setTimestamp(timestamp);
+		return profileData;
+	}
+
+	/**
+	 * The metric name space.
+	 *
+	 * @return
+	 */
+	public String getNamespace() {
+		if (nameSpace == null) {
+			nameSpace = nameSpacePrefix + "-" + nameSpaceName + "-" + stackConfig.getStackInstance();
+		}
+		return nameSpace;
+	}
+
+}
@@ -9,9 +9,11 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -39,6 +41,8 @@ public class BackupFileStreamImpl implements BackupFileStream {
 	private static final String INPUT_CONTAINED_NO_DATA = "input contained no data";
 	private static final String DOT = ".";
 	private static final String FILE_NAME_TEMPLATE = "%1$s.%2$d.xml";
+	private static final String BINARY_FILE_SUFFIX = ".bin";
+	private static final String BINARY_FILE_NAME_TEMPLATE = "%1$s.%2$d" + BINARY_FILE_SUFFIX;
 
 	@Autowired
 	MigrationTypeProvider typeProvider;
@@ -137,6 +141,33 @@ public class BackupFileStreamImpl implements BackupFileStream {
 		return String.format(FILE_NAME_TEMPLATE, type.name(), index);
 	}
 
+	/**
+	 * Create a FileName for a zip entry written in the columnar binary format.
+	 * 
+	 * @param type
+	 * @param index
+	 * @return
+	 */
+	public static String createBinaryFileName(MigrationType type, int index) {
+		ValidateArgument.required(type, "MigrationType");
+		return String.format(BINARY_FILE_NAME_TEMPLATE, type.name(), index);
+	}
+
+	/**
+	 * The alias type used for XML sub-files. Types that cannot be written in the
+	 * columnar binary format are written as XML with the migration type name
+	 * alias.
+	 * 
+	 * @param backupAliasType
+	 * @return
+	 */
+	public static BackupAliasType getXmlAliasType(BackupAliasType backupAliasType) {
+		if (BackupAliasType.COLUMNAR_BINARY.equals(backupAliasType)) {
+			return BackupAliasType.MIGRATION_TYPE_NAME;
+		}
+		return backupAliasType;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.sagebionetworks.repo.manager.migration.BackupFileStream#writeBackupFile(java.io.OutputStream, java.lang.Iterable, org.sagebionetworks.repo.model.daemon.BackupAliasType, int)
@@ -197,14 +228,35 @@ public class BackupFileStreamImpl implements BackupFileStream {
 	public<D extends DatabaseObject<D>, B> void writeBatchToZip(ZipOutputStream zos, List<MigratableDatabaseObject<?,?>> currentBatch, int index, MigrationType currentType,
 			BackupAliasType backupAliasType) throws IOException {
 		if(currentType != null && currentBatch != null && !currentBatch.isEmpty()) {
+			Optional<ColumnarBackupSchema> schema = getColumnarSchema(currentType, backupAliasType);
+			if (schema.isPresent()) {
+				// Write the current batch as a binary sub-file to the zip
+				zos.putNextEntry(new ZipEntry(createBinaryFileName(currentType, index)));
+				writeBatchToBinaryStream(currentBatch, currentType, schema.get(), zos);
+				return;
+			}
 			// Write the current batch as a sub-file to the zip
 			String fileName = createFileName(currentType, index);
 			ZipEntry entry = new ZipEntry(fileName);
 			zos.putNextEntry(entry);
 			Writer zipWriter = new OutputStreamWriter(zos, UTF_8);
 
-			writeBatchToStream(currentBatch, currentType, backupAliasType, zipWriter);
+			writeBatchToStream(currentBatch, currentType, getXmlAliasType(backupAliasType), zipWriter);
+		}
+	}
+
+	/**
+	 * Get the columnar schema to use for the given type.
+	 * 
+	 * @param type
+	 * @param backupAliasType
+	 * @return Empty if the batch should be written as XML.
+	 */
+	Optional<ColumnarBackupSchema> getColumnarSchema(MigrationType type, BackupAliasType backupAliasType) {
+		if (!BackupAliasType.COLUMNAR_BINARY.equals(backupAliasType)) {
+			return Optional.empty();
 		}
+		return ColumnarBackupSchema.forType(typeProvider.getObjectForType(type));
 	}
 
 	/**
@@ -217,18 +269,46 @@ public class BackupFileStreamImpl implements BackupFileStream {
 	 */
 	<D extends DatabaseObject<D>, B> void writeBatchToStream(List<MigratableDatabaseObject<?, ?>> currentBatch,
 			MigrationType currentType, BackupAliasType backupAliasType, Writer writer) throws IOException {
+		List<B> backupObjects = translateToBackupObjects(currentBatch, currentType);
+		typeProvider.getXStream(backupAliasType).toXML(backupObjects, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Write the given batch of objects to the passed stream in the columnar binary
+	 * format.
+	 * 
+	 * @param currentBatch
+	 * @param currentType
+	 * @param schema
+	 * @param out
+	 * @throws IOException
+	 */
+	<D extends DatabaseObject<D>, B> void writeBatchToBinaryStream(List<MigratableDatabaseObject<?, ?>> currentBatch,
+			MigrationType currentType, ColumnarBackupSchema schema, OutputStream out) throws IOException {
+		List<B> backupObjects = translateToBackupObjects(currentBatch, currentType);
+		ColumnarBackupCodec.writeBatch(schema, backupObjects, out);
+	}
+
+	/**
+	 * Translate the given batch to backup objects.
+	 * 
+	 * @param currentBatch
+	 * @param currentType
+	 * @return
+	 */
+	<D extends DatabaseObject<D>, B> List<B> translateToBackupObjects(List<MigratableDatabaseObject<?, ?>> currentBatch,
+			MigrationType currentType) {
 		MigratableDatabaseObject<D, B> mdo = typeProvider.getObjectForType(currentType);
 		MigratableTableTranslation<D,B> translator = mdo.getTranslator();
 		
 		// translate to the backup objects
-		List<B> backupObjects = new LinkedList<>();
+		List<B> backupObjects = new ArrayList<>(currentBatch.size());
 		for(MigratableDatabaseObject<?,?> migrationOjbect: currentBatch) {
 			B backupObject = translator.createBackupFromDatabaseObject((D) migrationOjbect);
 			backupObjects.add(backupObject);
 		}
-
-		typeProvider.getXStream(backupAliasType).toXML(backupObjects, writer);
-		writer.flush();
+		return backupObjects;
 	}
 
 	/**
@@ -282,14 +362,18 @@ public class BackupFileStreamImpl implements BackupFileStream {
 		MigratableTableTranslation<D, B> translator = mdo.getTranslator();
 
 		List<B> backupObjects;
-		try {
-			backupObjects = (List<B>) typeProvider.getXStream(backupAliasType).fromXML(input);
-		} catch (StreamException e) {
-			if (!(e.getCause() instanceof EOFException && e.getCause().getMessage().contains(INPUT_CONTAINED_NO_DATA))) {
-				throw new RuntimeException(e);
+		if (fileName.endsWith(BINARY_FILE_SUFFIX)) {
+			backupObjects = readBinaryBackupObjects(input, mdo, type);
+		} else {
+			try {
+				backupObjects = (List<B>) typeProvider.getXStream(getXmlAliasType(backupAliasType)).fromXML(input);
+			} catch (StreamException e) {
+				if (!(e.getCause() instanceof EOFException && e.getCause().getMessage().contains(INPUT_CONTAINED_NO_DATA))) {
+					throw new RuntimeException(e);
+				}
+				// This file is empty so move to the next file...
+				throw new EmptyFileException();
 			}
-			// This file is empty so move to the next file...
-			throw new EmptyFileException();
 		}
 		// Translate the results
 		List<MigratableDatabaseObject<?, ?>> translated = new LinkedList<>();
@@ -300,4 +384,30 @@ public class BackupFileStreamImpl implements BackupFileStream {
 		return translated;
 	}
 
+	/**
+	 * Read the backup objects of a sub-file written in the columnar binary format.
+	 * 
+	 * @param input
+	 * @param mdo
+	 * @param type
+	 * @return
+	 * @throws EmptyFileException if the given file contains no data.
+	 */
+	@SuppressWarnings("unchecked")
+	<B> List<B> readBinaryBackupObjects(InputStream input, MigratableDatabaseObject<?, B> mdo, MigrationType type)
+			throws EmptyFileException {
+		ColumnarBackupSchema schema = ColumnarBackupSchema.forType(mdo).orElseThrow(() -> new IllegalStateException(
+				"The backup objects of type " + type + " cannot be read from the columnar binary format"));
+		List<?> backupObjects;
+		try {
+			backupObjects = ColumnarBackupCodec.readBatch(schema, input);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		if (backupObjects.isEmpty()) {
+			throw new EmptyFileException();
+		}
+		return (List<B>) backupObjects;
+	}
+
 }
@@ -0,0 +1,319 @@
+package org.sagebionetworks.repo.manager.migration;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.sagebionetworks.repo.manager.migration.ColumnarBackupSchema.Column;
+import org.sagebionetworks.repo.manager.migration.ColumnarBackupSchema.ColumnType;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * Reads and writes batches of backup objects in a compact, typed, columnar
+ * binary format.
+ * <p>
+ * Each batch starts with a header naming each column and its
+ * {@link ColumnType}, followed by the number of rows. The values of each
+ * column are then written together: a bitmap of the rows with a value followed
+ * by the values themselves. Numbers are written as variable length integers and
+ * long and date columns as the difference from the previous value, so
+ * sequential IDs and timestamps take one or two bytes each. Strings and bytes
+ * are length prefixed.
+ * <p>
+ * Columns are matched by name when reading, so a batch can be read by a backup
+ * class that has gained or lost fields since the batch was written.
+ *
+ */
+public class ColumnarBackupCodec {
+
+	/**
+	 * "SYNB"
+	 */
+	public static final int MAGIC = 0x53594E42;
+	public static final byte VERSION = 1;
+
+	/**
+	 * Write a batch of backup objects to the given stream. The stream is flushed
+	 * but not closed.
+	 *
+	 * @param schema
+	 * @param backupObjects
+	 * @param out
+	 * @throws IOException
+	 */
+	public static void writeBatch(ColumnarBackupSchema schema, List<?> backupObjects, OutputStream out) throws IOException {
+		ValidateArgument.required(schema, "schema");
+		ValidateArgument.required(backupObjects, "backupObjects");
+		ValidateArgument.required(out, "out");
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeByte(VERSION);
+		writeVarLong(data, schema.getColumns().size());
+		for (Column column : schema.getColumns()) {
+			writeString(data, column.getName());
+			data.writeByte(column.getType().getCode());
+		}
+		int rowCount = backupObjects.size();
+		writeVarLong(data, rowCount);
+		Object[] values = new Object[rowCount];
+		for (Column column : schema.getColumns()) {
+			byte[] presence = new byte[(rowCount + 7) / 8];
+			for (int row = 0; row < rowCount; row++) {
+				values[row] = column.getValue(backupObjects.get(row));
+				if (values[row] != null) {
+					presence[row / 8] |= (byte) (1 << (row % 8));
+				}
+			}
+			data.write(presence);
+			ColumnWriter writer = new ColumnWriter(column.getType(), data);
+			for (int row = 0; row < rowCount; row++) {
+				if (values[row] != null) {
+					writer.write(values[row]);
+				}
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Read a single batch of backup objects from the given stream. Columns of the
+	 * batch that are not in the schema are skipped. The stream is not closed.
+	 *
+	 * @param schema The schema of the backup objects to create.
+	 * @param in
+	 * @return
+	 * @throws IOException If the stream does not contain a batch or a column has
+	 *                     changed type.
+	 */
+	public static List<Object> readBatch(ColumnarBackupSchema schema, InputStream in) throws IOException {
+		ValidateArgument.required(schema, "schema");
+		ValidateArgument.required(in, "in");
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a columnar backup file");
+		}
+		byte version = data.readByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported columnar backup version: " + version);
+		}
+		int columnCount = readCount(data);
+		List<String> names = new ArrayList<>(columnCount);
+		List<ColumnType> types = new ArrayList<>(columnCount);
+		for (int i = 0; i < columnCount; i++) {
+			names.add(readString(data));
+			types.add(ColumnType.fromCode(data.readByte()));
+		}
+		int rowCount = readCount(data);
+		List<Object> backupObjects = new ArrayList<>(rowCount);
+		for (int row = 0; row < rowCount; row++) {
+			backupObjects.add(schema.newBackupObject());
+		}
+		for (int i = 0; i < columnCount; i++) {
+			Column column = schema.getColumn(names.get(i));
+			ColumnType type = types.get(i);
+			if (column != null && !column.getType().equals(type)) {
+				throw new IOException("Column " + names.get(i) + " was written as " + type + " but is now "
+						+ column.getType());
+			}
+			byte[] presence = new byte[(rowCount + 7) / 8];
+			data.readFully(presence);
+			ColumnReader reader = new ColumnReader(type, data, column == null ? null : column.getJavaType());
+			for (int row = 0; row < rowCount; row++) {
+				if ((presence[row / 8] & (1 << (row % 8))) == 0) {
+					continue;
+				}
+				Object value = reader.read();
+				if (column != null) {
+					column.setValue(backupObjects.get(row), value);
+				}
+			}
+		}
+		return backupObjects;
+	}
+
+	/**
+	 * Writes the values of a single column, tracking the previous value for
+	 * delta encoded types.
+	 */
+	private static class ColumnWriter {
+
+		private final ColumnType type;
+		private final DataOutputStream data;
+		private long previous;
+
+		ColumnWriter(ColumnType type, DataOutputStream data) {
+			this.type = type;
+			this.data = data;
+			this.previous = 0L;
+		}
+
+		void write(Object value) throws IOException {
+			switch (type) {
+			case LONG:
+				writeDelta(((Number) value).longValue());
+				break;
+			case INTEGER:
+				writeVarLong(data, zigZag(((Number) value).intValue()));
+				break;
+			case DOUBLE:
+				data.writeDouble(((Number) value).doubleValue());
+				break;
+			case BOOLEAN:
+				data.writeBoolean((Boolean) value);
+				break;
+			case STRING:
+				writeString(data, (String) value);
+				break;
+			case BYTES:
+				byte[] bytes = (byte[]) value;
+				writeVarLong(data, bytes.length);
+				data.write(bytes);
+				break;
+			case TIMESTAMP:
+				Timestamp timestamp = (Timestamp) value;
+				writeDelta(timestamp.getTime());
+				writeVarLong(data, timestamp.getNanos());
+				break;
+			case DATE:
+				writeDelta(((Date) value).getTime());
+				break;
+			case ENUM:
+				writeString(data, ((Enum<?>) value).name());
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown type: " + type);
+			}
+		}
+
+		private void writeDelta(long value) throws IOException {
+			writeVarLong(data, zigZag(value - previous));
+			previous = value;
+		}
+	}
+
+	/**
+	 * Reads the values of a single column.
+	 */
+	private static class ColumnReader {
+
+		private final ColumnType type;
+		private final DataInputStream data;
+		private final Class<?> javaType;
+		private long previous;
+
+		/**
+		 * @param type
+		 * @param data
+		 * @param javaType The type of the property the values are read into, null if
+		 *                 the values are skipped.
+		 */
+		ColumnReader(ColumnType type, DataInputStream data, Class<?> javaType) {
+			this.type = type;
+			this.data = data;
+			this.javaType = javaType;
+			this.previous = 0L;
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Object read() throws IOException {
+			switch (type) {
+			case LONG:
+				return readDelta();
+			case INTEGER:
+				return (int) unZigZag(readVarLong(data));
+			case DOUBLE:
+				return data.readDouble();
+			case BOOLEAN:
+				return data.readBoolean();
+			case STRING:
+				return readString(data);
+			case BYTES:
+				byte[] bytes = new byte[readCount(data)];
+				data.readFully(bytes);
+				return bytes;
+			case TIMESTAMP:
+				Timestamp timestamp = new Timestamp(readDelta());
+				timestamp.setNanos(readCount(data));
+				return timestamp;
+			case DATE:
+				return new Date(readDelta());
+			case ENUM:
+				String name = readString(data);
+				if (javaType == null) {
+					return null;
+				}
+				return Enum.valueOf((Class<? extends Enum>) javaType, name);
+			default:
+				throw new IllegalArgumentException("Unknown type: " + type);
+			}
+		}
+
+		private long readDelta() throws IOException {
+			previous += unZigZag(readVarLong(data));
+			return previous;
+		}
+	}
+
+	static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1L);
+	}
+
+	/**
+	 * Write an unsigned variable length long, seven bits per byte.
+	 *
+	 * @param out
+	 * @param value
+	 * @throws IOException
+	 */
+	static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0L) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0L;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length long");
+	}
+
+	private static int readCount(DataInputStream in) throws IOException {
+		long count = readVarLong(in);
+		if (count < 0 || count > Integer.MAX_VALUE) {
+			throw new IOException("Invalid count: " + count);
+		}
+		return (int) count;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(out, bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readCount(in)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
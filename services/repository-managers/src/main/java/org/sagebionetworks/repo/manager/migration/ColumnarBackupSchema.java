@@ -0,0 +1,291 @@
+package org.sagebionetworks.repo.manager.migration;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.MigratableDatabaseObject;
+import org.sagebionetworks.util.ValidateArgument;
+import org.springframework.beans.BeanUtils;
+
+/**
+ * The columns of a backup object as written by {@link ColumnarBackupCodec}.
+ * <p>
+ * There is one column for each field of the backup class. Columns that map to
+ * the table of the migration type come first, in the order of the
+ * {@link org.sagebionetworks.repo.model.dbo.TableMapping}, followed by any
+ * other fields in name order. A backup class can only be written in the
+ * columnar format if every field has a getter and setter of the same type and
+ * that type is one of the {@link ColumnType}s. Getters and setters are matched
+ * to fields ignoring case.
+ *
+ */
+public class ColumnarBackupSchema {
+
+	private static final Map<Class<?>, Optional<ColumnarBackupSchema>> SCHEMA_CACHE = new ConcurrentHashMap<>();
+
+	/**
+	 * The supported column types. The code of each type is written to the
+	 * header of each file so it must never change.
+	 *
+	 */
+	public enum ColumnType {
+		LONG(1),
+		INTEGER(2),
+		DOUBLE(3),
+		BOOLEAN(4),
+		STRING(5),
+		BYTES(6),
+		TIMESTAMP(7),
+		DATE(8),
+		ENUM(9);
+
+		private final byte code;
+
+		ColumnType(int code) {
+			this.code = (byte) code;
+		}
+
+		public byte getCode() {
+			return code;
+		}
+
+		/**
+		 * @param code
+		 * @return
+		 * @throws IllegalArgumentException if the code is unknown.
+		 */
+		public static ColumnType fromCode(byte code) {
+			for (ColumnType type : values()) {
+				if (type.code == code) {
+					return type;
+				}
+			}
+			throw new IllegalArgumentException("Unknown column type code: " + code);
+		}
+
+		/**
+		 * @param javaType
+		 * @return The column type for the given java type or null if the type is not
+		 *         supported.
+		 */
+		public static ColumnType forJavaType(Class<?> javaType) {
+			if (Long.class.equals(javaType) || long.class.equals(javaType)) {
+				return LONG;
+			} else if (Integer.class.equals(javaType) || int.class.equals(javaType)) {
+				return INTEGER;
+			} else if (Double.class.equals(javaType) || double.class.equals(javaType)) {
+				return DOUBLE;
+			} else if (Boolean.class.equals(javaType) || boolean.class.equals(javaType)) {
+				return BOOLEAN;
+			} else if (String.class.equals(javaType)) {
+				return STRING;
+			} else if (byte[].class.equals(javaType)) {
+				return BYTES;
+			} else if (Timestamp.class.equals(javaType)) {
+				return TIMESTAMP;
+			} else if (Date.class.equals(javaType)) {
+				return DATE;
+			} else if (javaType.isEnum()) {
+				return ENUM;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * A single column of the schema.
+	 *
+	 */
+	public static class Column {
+
+		private final String name;
+		private final ColumnType type;
+		private final Method readMethod;
+		private final Method writeMethod;
+
+		Column(String name, ColumnType type, Method readMethod, Method writeMethod) {
+			this.name = name;
+			this.type = type;
+			this.readMethod = readMethod;
+			this.writeMethod = writeMethod;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public ColumnType getType() {
+			return type;
+		}
+
+		public Class<?> getJavaType() {
+			return readMethod.getReturnType();
+		}
+
+		/**
+		 * Read the value of this column from the given backup object.
+		 *
+		 * @param backupObject
+		 * @return
+		 */
+		public Object getValue(Object backupObject) {
+			try {
+				return readMethod.invoke(backupObject);
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				throw new IllegalStateException("Cannot read " + name, e);
+			}
+		}
+
+		/**
+		 * Set the value of this column on the given backup object. Null values are
+		 * ignored for primitive columns.
+		 *
+		 * @param backupObject
+		 * @param value
+		 */
+		public void setValue(Object backupObject, Object value) {
+			if (value == null && getJavaType().isPrimitive()) {
+				return;
+			}
+			try {
+				writeMethod.invoke(backupObject, value);
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				throw new IllegalStateException("Cannot write " + name, e);
+			}
+		}
+	}
+
+	private final Class<?> backupClass;
+	private final Constructor<?> constructor;
+	private final List<Column> columns;
+	private final Map<String, Column> columnsByName;
+
+	private ColumnarBackupSchema(Class<?> backupClass, Constructor<?> constructor, List<Column> columns) {
+		this.backupClass = backupClass;
+		this.constructor = constructor;
+		this.columns = Collections.unmodifiableList(columns);
+		this.columnsByName = new LinkedHashMap<>(columns.size());
+		for (Column column : columns) {
+			this.columnsByName.put(column.getName(), column);
+		}
+	}
+
+	/**
+	 * Get the schema of the backup objects of the given type.
+	 *
+	 * @param mdo
+	 * @return Empty if the backup objects of the type cannot be written in the
+	 *         columnar format.
+	 */
+	public static Optional<ColumnarBackupSchema> forType(MigratableDatabaseObject<?, ?> mdo) {
+		ValidateArgument.required(mdo, "MigratableDatabaseObject");
+		return SCHEMA_CACHE.computeIfAbsent(mdo.getBackupClass(),
+				(Class<?> backupClass) -> createSchema(backupClass, mdo.getTableMapping().getFieldColumns()));
+	}
+
+	/**
+	 * Create the schema of the given backup class.
+	 *
+	 * @param backupClass
+	 * @param fieldColumns The columns of the table of the type, used to order the
+	 *                     columns.
+	 * @return Empty if the class cannot be written in the columnar format.
+	 */
+	static Optional<ColumnarBackupSchema> createSchema(Class<?> backupClass, FieldColumn[] fieldColumns) {
+		Constructor<?> constructor;
+		try {
+			constructor = backupClass.getConstructor();
+		} catch (NoSuchMethodException e) {
+			return Optional.empty();
+		}
+		// getters and setters of fields such as 'eTag' are often named 'getEtag' and
+		// 'seteTag' so they are matched to the fields ignoring case.
+		Map<String, Method> readMethods = new HashMap<>();
+		Map<String, Method> writeMethods = new HashMap<>();
+		for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(backupClass)) {
+			String key = property.getName().toLowerCase();
+			if (property.getReadMethod() != null) {
+				readMethods.put(key, property.getReadMethod());
+			}
+			if (property.getWriteMethod() != null) {
+				writeMethods.put(key, property.getWriteMethod());
+			}
+		}
+		List<Column> columns = new ArrayList<>();
+		for (Class<?> current = backupClass; current != null && !Object.class.equals(current); current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+					continue;
+				}
+				Method readMethod = readMethods.get(field.getName().toLowerCase());
+				Method writeMethod = writeMethods.get(field.getName().toLowerCase());
+				if (readMethod == null || writeMethod == null || !field.getType().equals(readMethod.getReturnType())
+						|| !field.getType().equals(writeMethod.getParameterTypes()[0])) {
+					// the value of this field cannot be copied.
+					return Optional.empty();
+				}
+				ColumnType type = ColumnType.forJavaType(field.getType());
+				if (type == null) {
+					return Optional.empty();
+				}
+				columns.add(new Column(field.getName(), type, readMethod, writeMethod));
+			}
+		}
+		Map<String, Integer> tableOrder = new LinkedHashMap<>();
+		if (fieldColumns != null) {
+			for (FieldColumn fieldColumn : fieldColumns) {
+				tableOrder.putIfAbsent(fieldColumn.getFieldName(), tableOrder.size());
+			}
+		}
+		columns.sort(Comparator.comparing((Column column) -> tableOrder.getOrDefault(column.getName(), Integer.MAX_VALUE))
+				.thenComparing(Column::getName));
+		return Optional.of(new ColumnarBackupSchema(backupClass, constructor, columns));
+	}
+
+	public Class<?> getBackupClass() {
+		return backupClass;
+	}
+
+	public List<Column> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @param name
+	 * @return The column with the given name or null if there is no such column.
+	 */
+	public Column getColumn(String name) {
+		return columnsByName.get(name);
+	}
+
+	/**
+	 * Create a new, empty backup object.
+	 *
+	 * @return
+	 */
+	public Object newBackupObject() {
+		try {
+			return constructor.newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot create " + backupClass.getName(), e);
+		}
+	}
+
+}
@@ -7,6 +7,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.sagebionetworks.StackConfiguration;
@@ -23,6 +24,7 @@ import org.sagebionetworks.repo.web.OAuthErrorCode;
 import org.sagebionetworks.repo.web.OAuthUnauthenticatedException;
 import org.sagebionetworks.util.Clock;
 import org.sagebionetworks.util.EnumKeyedJsonMapUtil;
+import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -42,6 +44,7 @@ public class OIDCTokenHelperImpl implements InitializingBean, OIDCTokenHelper {
 	private String oidcSignatureKeyId;
 	private PrivateKey oidcSignaturePrivateKey;
 	private JsonWebKeySet jsonWebKeySet;
+	private VerifiedTokenCache verifiedTokenCache;
 
 	@Autowired
 	private StackConfiguration stackConfiguration;
@@ -58,6 +61,8 @@ public class OIDCTokenHelperImpl implements InitializingBean, OIDCTokenHelper {
 		KeyPair keyPair = KeyPairUtil.getRSAKeyPairFromPrivateKey(pemEncodedRsaPrivateKeys.get(pemEncodedRsaPrivateKeys.size()-1));
 		this.oidcSignaturePrivateKey=keyPair.getPrivate();
 		this.oidcSignatureKeyId = KeyPairUtil.computeKeyId(keyPair.getPublic());
+		this.verifiedTokenCache = new VerifiedTokenCache(stackConfiguration.getVerifiedTokenCacheMaxSize(),
+				stackConfiguration.getVerifiedTokenCacheTimeToLiveSeconds(), clock);
 	}
 
 	@Override
@@ -179,11 +184,19 @@ public class OIDCTokenHelperImpl implements InitializingBean, OIDCTokenHelper {
 	
 	@Override
 	public Jwt<JwsHeader,Claims> parseJWT(String token) {
-		return JSONWebTokenHelper.parseJWT(token, jsonWebKeySet);
+		ValidateArgument.required(token, "JSON Web Token");
+		// A single request can read the same token in several places, so each token is only verified once per request.
+		Optional<Jwt<JwsHeader,Claims>> verified = VerifiedTokenContext.get(token);
+		if (verified.isPresent()) {
+			return verified.get();
+		}
+		Jwt<JwsHeader,Claims> jwt = verifiedTokenCache.getOrVerify(token, t -> JSONWebTokenHelper.parseJWT(t, jsonWebKeySet));
+		VerifiedTokenContext.put(token, jwt);
+		return jwt;
 	}
 	
 	@Override
 	public void validateJWT(String token) {
-		JSONWebTokenHelper.parseJWT(token, jsonWebKeySet);
+		parseJWT(token);
 	}
 }
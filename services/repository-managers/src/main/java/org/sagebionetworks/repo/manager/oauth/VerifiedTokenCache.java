@@ -0,0 +1,99 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwt;
+
+/**
+ * A bounded cache of recently verified JSON Web Tokens keyed by the SHA-256
+ * hash of the token, so the raw tokens are never held. Each entry is kept for
+ * at most the configured time to live and is never returned after the token
+ * expires.
+ * <p>
+ * Only the signature and expiration checks are cached. Revocation checks, such
+ * as for refresh tokens and personal access tokens, are made by the callers on
+ * every use of a token.
+ *
+ */
+public class VerifiedTokenCache {
+
+	private final Cache<String, Jwt<JwsHeader, Claims>> cache;
+	private final Clock clock;
+
+	/**
+	 *
+	 * @param maxSize    The maximum number of tokens to hold. Zero disables the
+	 *                   cache.
+	 * @param ttlSeconds The maximum number of seconds a token is held. Zero
+	 *                   disables the cache.
+	 * @param clock
+	 */
+	public VerifiedTokenCache(long maxSize, long ttlSeconds, Clock clock) {
+		ValidateArgument.requirement(maxSize >= 0, "maxSize cannot be negative");
+		ValidateArgument.requirement(ttlSeconds >= 0, "ttlSeconds cannot be negative");
+		ValidateArgument.required(clock, "clock");
+		if (maxSize > 0 && ttlSeconds > 0) {
+			this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+					.build();
+		} else {
+			this.cache = null;
+		}
+		this.clock = clock;
+	}
+
+	/**
+	 * Get the verified token from the cache, or verify it with the given verifier
+	 * and add it to the cache.
+	 *
+	 * @param token
+	 * @param verifier Parses the token and verifies its signature. Any exception
+	 *                 thrown by the verifier is passed to the caller and nothing
+	 *                 is cached.
+	 * @return
+	 */
+	public Jwt<JwsHeader, Claims> getOrVerify(String token, Function<String, Jwt<JwsHeader, Claims>> verifier) {
+		ValidateArgument.required(token, "token");
+		ValidateArgument.required(verifier, "verifier");
+		if (cache == null) {
+			return verifier.apply(token);
+		}
+		String key = hash(token);
+		Jwt<JwsHeader, Claims> jwt = cache.getIfPresent(key);
+		if (jwt != null && !isExpired(jwt)) {
+			return jwt;
+		}
+		// the verifier will reject a token that has expired.
+		cache.invalidate(key);
+		jwt = verifier.apply(token);
+		cache.put(key, jwt);
+		return jwt;
+	}
+
+	boolean isExpired(Jwt<JwsHeader, Claims> jwt) {
+		Date expiration = jwt.getBody().getExpiration();
+		return expiration != null && expiration.getTime() <= clock.currentTimeMillis();
+	}
+
+	static String hash(String token) {
+		return Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+	}
+
+	/**
+	 * @return The number of tokens currently held.
+	 */
+	public long size() {
+		return cache == null ? 0L : cache.size();
+	}
+}
@@ -0,0 +1,67 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwt;
+
+/**
+ * Holds the JSON Web Tokens that were verified while handling the current
+ * request, so that the filters, interceptors and managers that read the same
+ * bearer token during a single call share one signature verification.
+ * <p>
+ * A context is only active between {@link #begin()} and {@link #end()} on the
+ * same thread. Outside of an active context nothing is held.
+ *
+ */
+public class VerifiedTokenContext {
+
+	private static final ThreadLocal<Map<String, Jwt<JwsHeader, Claims>>> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Start a context for the current thread. Must be followed by a call to
+	 * {@link #end()} on the same thread.
+	 */
+	public static void begin() {
+		CURRENT.set(new HashMap<>());
+	}
+
+	/**
+	 * End the context of the current thread, discarding all of its tokens.
+	 */
+	public static void end() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Get a token that was verified in the context of the current thread.
+	 *
+	 * @param token
+	 * @return Empty if the token has not been verified in the current context or
+	 *         there is no context.
+	 */
+	public static Optional<Jwt<JwsHeader, Claims>> get(String token) {
+		Map<String, Jwt<JwsHeader, Claims>> verified = CURRENT.get();
+		if (verified == null) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(verified.get(token));
+	}
+
+	/**
+	 * Add a verified token to the context of the current thread. Ignored if there
+	 * is no context.
+	 *
+	 * @param token
+	 * @param jwt
+	 */
+	public static void put(String token, Jwt<JwsHeader, Claims> jwt) {
+		Map<String, Jwt<JwsHeader, Claims>> verified = CURRENT.get();
+		if (verified != null) {
+			verified.put(token, jwt);
+		}
+	}
+}
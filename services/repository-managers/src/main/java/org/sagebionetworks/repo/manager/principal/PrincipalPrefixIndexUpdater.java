@@ -0,0 +1,176 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.TeamDAO;
+import org.sagebionetworks.repo.model.UserGroup;
+import org.sagebionetworks.repo.model.UserGroupDAO;
+import org.sagebionetworks.repo.model.UserProfile;
+import org.sagebionetworks.repo.model.UserProfileDAO;
+import org.sagebionetworks.repo.model.dbo.dao.DBOChangeDAO;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixDAO;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixDAOImpl;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex.PrincipalType;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.TransactionalMessenger;
+import org.sagebionetworks.repo.model.message.TransactionalMessengerObserver;
+import org.sagebionetworks.repo.model.principal.AliasType;
+import org.sagebionetworks.repo.model.principal.PrincipalAlias;
+import org.sagebionetworks.repo.model.principal.PrincipalAliasDAO;
+import org.sagebionetworks.repo.web.NotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Loads the {@link PrincipalPrefixIndex} from the principal prefix table and
+ * keeps it current from principal change messages. Until the index is loaded
+ * the prefix queries are answered by the database.
+ * <p>
+ * The tokens of a changed principal are built from the same sources used by
+ * the prefix worker, so the index does not wait for the worker to update the
+ * table. Changes made by this machine are queued as soon as their transaction
+ * commits. Changes made by other machines are read from the changes table. Both
+ * are applied each time {@link #onTimerFired()} is called.
+ *
+ */
+public class PrincipalPrefixIndexUpdater implements TransactionalMessengerObserver {
+
+	static private Logger log = LogManager.getLogger(PrincipalPrefixIndexUpdater.class);
+
+	public static final long MAX_CHANGES_PER_POLL = 1000L;
+	/**
+	 * The table is written by a worker some time after a principal changes, so
+	 * the changes made shortly before a load are applied again after it.
+	 */
+	public static final long LOAD_REPLAY_CHANGE_COUNT = 10000L;
+
+	@Autowired
+	PrincipalPrefixIndex prefixIndex;
+	@Autowired
+	PrincipalPrefixDAO principalPrefixDAO;
+	@Autowired
+	UserGroupDAO userGroupDAO;
+	@Autowired
+	UserProfileDAO userProfileDAO;
+	@Autowired
+	PrincipalAliasDAO principalAliasDAO;
+	@Autowired
+	TeamDAO teamDAO;
+	@Autowired
+	DBOChangeDAO changeDAO;
+	@Autowired
+	TransactionalMessenger transactionalMessenger;
+
+	private final Set<Long> pendingPrincipalIds = ConcurrentHashMap.newKeySet();
+	private Long lastChangeNumber;
+
+	/**
+	 * Called by Spring when this bean is created.
+	 */
+	public void initialize() {
+		// We only want to be in the list once
+		transactionalMessenger.removeObserver(this);
+		transactionalMessenger.registerObserver(this);
+	}
+
+	@Override
+	public void fireChangeMessage(ChangeMessage message) {
+		// Changes made before the load are picked up from the changes table.
+		if (ObjectType.PRINCIPAL == message.getObjectType() && prefixIndex.isLoaded()) {
+			pendingPrincipalIds.add(Long.parseLong(message.getObjectId()));
+		}
+	}
+
+	/**
+	 * Call from a timer. Loads the index on the first call, then applies the
+	 * principal changes made since the previous call.
+	 */
+	public void onTimerFired() {
+		if (!prefixIndex.isLoaded()) {
+			loadIndex();
+		}
+		List<ChangeMessage> changes;
+		do {
+			changes = changeDAO.listChanges(lastChangeNumber + 1, ObjectType.PRINCIPAL, MAX_CHANGES_PER_POLL);
+			for (ChangeMessage change : changes) {
+				pendingPrincipalIds.add(Long.parseLong(change.getObjectId()));
+				lastChangeNumber = Math.max(lastChangeNumber, change.getChangeNumber());
+			}
+		} while (changes.size() >= MAX_CHANGES_PER_POLL);
+		for (Long principalId : new ArrayList<>(pendingPrincipalIds)) {
+			try {
+				refreshPrincipal(principalId);
+				pendingPrincipalIds.remove(principalId);
+			} catch (RuntimeException e) {
+				// The principal stays pending and is tried again on the next call.
+				log.warn("Failed to update the prefix index for principal: " + principalId, e);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Read the entire prefix table into the index.
+	 */
+	void loadIndex() {
+		long currentChangeNumber = changeDAO.getCurrentChangeNumber();
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder();
+		principalPrefixDAO.loadIndex(builder);
+		prefixIndex.load(builder);
+		lastChangeNumber = Math.max(0L, currentChangeNumber - LOAD_REPLAY_CHANGE_COUNT);
+		log.info("Loaded the principal prefix index with " + builder.getPostingCount() + " tokens");
+	}
+
+	/**
+	 * Replace the tokens of the given principal with its current tokens.
+	 *
+	 * @param principalId
+	 */
+	void refreshPrincipal(Long principalId) {
+		UserGroup principal;
+		try {
+			principal = userGroupDAO.get(principalId);
+		} catch (NotFoundException e) {
+			prefixIndex.removePrincipal(principalId);
+			return;
+		}
+		Set<String> tokens = new HashSet<>();
+		PrincipalType type;
+		if (principal.getIsIndividual()) {
+			type = PrincipalType.USER;
+			try {
+				UserProfile profile = userProfileDAO.get(principalId.toString());
+				tokens.addAll(PrincipalPrefixDAOImpl.getNameTokens(profile.getFirstName(), profile.getLastName()));
+			} catch (NotFoundException e) {
+				// a user without a profile only has a user name
+			}
+			try {
+				tokens.add(PrincipalPrefixDAOImpl.preProcessToken(principalAliasDAO.getUserName(principalId)));
+			} catch (NotFoundException e) {
+				// a user without a user name only has a name
+			}
+		} else {
+			type = isTeam(principalId) ? PrincipalType.TEAM : PrincipalType.GROUP;
+			for (PrincipalAlias alias : principalAliasDAO.listPrincipalAliases(principalId, AliasType.TEAM_NAME)) {
+				tokens.add(PrincipalPrefixDAOImpl.preProcessToken(alias.getAlias()));
+			}
+		}
+		prefixIndex.setPrincipal(principalId, type, tokens);
+	}
+
+	private boolean isTeam(Long principalId) {
+		try {
+			teamDAO.validateTeamExists(principalId.toString());
+			return true;
+		} catch (NotFoundException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.sagebionetworks.repo.model.UserGroup;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A bounded, short lived cache of each user's principal and the groups the
+ * user belongs to, used to build the UserInfo of each call. Entries are removed
+ * by {@link UserMembershipCacheInvalidator} when a principal changes and are
+ * never held longer than the configured time to live.
+ *
+ */
+public class UserMembershipCache {
+
+	/**
+	 * The cached principal of a user and the IDs of the groups the user belongs
+	 * to.
+	 *
+	 */
+	public static class UserMembership {
+
+		private final UserGroup principal;
+		private final Set<Long> groupIds;
+		private final long loadedOn;
+
+		public UserMembership(UserGroup principal, Set<Long> groupIds, long loadedOn) {
+			this.principal = principal;
+			this.groupIds = Collections.unmodifiableSet(groupIds);
+			this.loadedOn = loadedOn;
+		}
+
+		public UserGroup getPrincipal() {
+			return principal;
+		}
+
+		/**
+		 * @return The groups the user belongs to. Does not include the implicit
+		 *         groups.
+		 */
+		public Set<Long> getGroupIds() {
+			return groupIds;
+		}
+
+		/**
+		 * @return The time in MS when the membership was read from the database.
+		 */
+		public long getLoadedOn() {
+			return loadedOn;
+		}
+	}
+
+	private final Cache<Long, UserMembership> cache;
+	private final Clock clock;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong maxServedAgeMS = new AtomicLong();
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	/**
+	 *
+	 * @param maxSize    The maximum number of users to hold. Zero disables the
+	 *                   cache.
+	 * @param ttlSeconds The maximum number of seconds a user is held. Zero
+	 *                   disables the cache.
+	 * @param clock
+	 */
+	public UserMembershipCache(long maxSize, long ttlSeconds, Clock clock) {
+		ValidateArgument.requirement(maxSize >= 0, "maxSize cannot be negative");
+		ValidateArgument.requirement(ttlSeconds >= 0, "ttlSeconds cannot be negative");
+		ValidateArgument.required(clock, "clock");
+		if (maxSize > 0 && ttlSeconds > 0) {
+			this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+					.ticker(new Ticker() {
+						@Override
+						public long read() {
+							return TimeUnit.MILLISECONDS.toNanos(clock.currentTimeMillis());
+						}
+					}).build();
+		} else {
+			this.cache = null;
+		}
+		this.clock = clock;
+	}
+
+	/**
+	 * Get the membership of the given user from the cache, or load it with the
+	 * given loader and add it to the cache. A membership loaded within a
+	 * transaction is not added, since it was read from the snapshot of the
+	 * transaction and might include changes that are rolled back.
+	 *
+	 * @param principalId
+	 * @param loader      Any exception thrown by the loader is passed to the
+	 *                    caller and nothing is cached.
+	 * @return
+	 */
+	public UserMembership getOrLoad(Long principalId, Function<Long, UserMembership> loader) {
+		ValidateArgument.required(principalId, "principalId");
+		ValidateArgument.required(loader, "loader");
+		if (cache == null) {
+			missCount.incrementAndGet();
+			return loader.apply(principalId);
+		}
+		UserMembership membership = cache.getIfPresent(principalId);
+		if (membership != null) {
+			hitCount.incrementAndGet();
+			maxServedAgeMS.accumulateAndGet(clock.currentTimeMillis() - membership.getLoadedOn(), Math::max);
+			return membership;
+		}
+		missCount.incrementAndGet();
+		long generation = invalidationCount.get();
+		membership = loader.apply(principalId);
+		// A membership loaded while an invalidation was running might already be stale.
+		if (invalidationCount.get() == generation && !TransactionSynchronizationManager.isActualTransactionActive()) {
+			cache.put(principalId, membership);
+		}
+		return membership;
+	}
+
+	/**
+	 * Remove the given principals and every user that belongs to one of the given
+	 * principals.
+	 *
+	 * @param principalIds
+	 */
+	public void invalidate(Collection<Long> principalIds) {
+		ValidateArgument.required(principalIds, "principalIds");
+		if (cache == null || principalIds.isEmpty()) {
+			return;
+		}
+		invalidationCount.incrementAndGet();
+		Set<Long> toRemove = new HashSet<>(principalIds);
+		cache.invalidateAll(toRemove);
+		cache.asMap().values().removeIf(membership -> !Collections.disjoint(membership.getGroupIds(), toRemove));
+	}
+
+	/**
+	 * @param principalId
+	 * @return True if the given principal is a user that is currently held.
+	 */
+	public boolean contains(Long principalId) {
+		return cache != null && cache.getIfPresent(principalId) != null;
+	}
+
+	/**
+	 * @return The number of calls that were served from the cache.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return The number of calls that read the membership from the database.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Get the age of the oldest entry served since the last call and reset it.
+	 *
+	 * @return MS
+	 */
+	public long getAndResetMaxServedAgeMS() {
+		return maxServedAgeMS.getAndSet(0L);
+	}
+
+	/**
+	 * @return The number of users currently held.
+	 */
+	public long size() {
+		return cache == null ? 0L : cache.size();
+	}
+}
@@ -0,0 +1,110 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagebionetworks.repo.model.GroupMembersDAO;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.dbo.dao.DBOChangeDAO;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.TransactionalMessenger;
+import org.sagebionetworks.repo.model.message.TransactionalMessengerObserver;
+import org.sagebionetworks.util.Clock;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Removes users from the {@link UserMembershipCache} when a principal changes.
+ * Teams and groups send a principal change message when their members change.
+ * <p>
+ * Changes made by this machine are applied as soon as their transaction
+ * commits. Changes made by other machines are read from the changes table each
+ * time {@link #onTimerFired()} is called.
+ *
+ */
+public class UserMembershipCacheInvalidator implements TransactionalMessengerObserver {
+
+	public static final long MAX_CHANGES_PER_POLL = 1000L;
+
+	@Autowired
+	UserMembershipCache membershipCache;
+	@Autowired
+	GroupMembersDAO groupMembersDAO;
+	@Autowired
+	DBOChangeDAO changeDAO;
+	@Autowired
+	TransactionalMessenger transactionalMessenger;
+	@Autowired
+	Clock clock;
+
+	private Long lastChangeNumber;
+	private final AtomicLong maxInvalidationLagMS = new AtomicLong();
+
+	/**
+	 * Called by Spring when this bean is created.
+	 */
+	public void initialize() {
+		// The cache starts empty so older changes can be ignored.
+		lastChangeNumber = changeDAO.getCurrentChangeNumber();
+		// We only want to be in the list once
+		transactionalMessenger.removeObserver(this);
+		transactionalMessenger.registerObserver(this);
+	}
+
+	@Override
+	public void fireChangeMessage(ChangeMessage message) {
+		if (ObjectType.PRINCIPAL == message.getObjectType()) {
+			invalidate(Long.parseLong(message.getObjectId()));
+		}
+	}
+
+	/**
+	 * Call from a timer. Applies the principal changes made since the previous
+	 * call.
+	 */
+	public void onTimerFired() {
+		if (lastChangeNumber == null) {
+			lastChangeNumber = changeDAO.getCurrentChangeNumber();
+			return;
+		}
+		List<ChangeMessage> changes;
+		do {
+			changes = changeDAO.listChanges(lastChangeNumber + 1, ObjectType.PRINCIPAL, MAX_CHANGES_PER_POLL);
+			long now = clock.currentTimeMillis();
+			for (ChangeMessage change : changes) {
+				invalidate(Long.parseLong(change.getObjectId()));
+				if (change.getTimestamp() != null) {
+					maxInvalidationLagMS.accumulateAndGet(now - change.getTimestamp().getTime(), Math::max);
+				}
+				lastChangeNumber = Math.max(lastChangeNumber, change.getChangeNumber());
+			}
+		} while (changes.size() >= MAX_CHANGES_PER_POLL);
+	}
+
+	/**
+	 * Remove the given principal and every user that was or is now a member of
+	 * the principal.
+	 *
+	 * @param principalId
+	 */
+	void invalidate(Long principalId) {
+		Set<Long> toInvalidate = new HashSet<>();
+		toInvalidate.add(principalId);
+		// A user that was added to a group does not have the group in the cache.
+		if (!membershipCache.contains(principalId)) {
+			toInvalidate.addAll(groupMembersDAO.getMemberIds(principalId));
+		}
+		membershipCache.invalidate(toInvalidate);
+	}
+
+	/**
+	 * Get the longest time between a change from another machine and its removal
+	 * from the cache since the last call, and reset it.
+	 *
+	 * @return MS
+	 */
+	public long getAndResetMaxInvalidationLagMS() {
+		return maxInvalidationLagMS.getAndSet(0L);
+	}
+}
@@ -0,0 +1,68 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.repo.manager.metric.PeriodicMetricPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Publishes the hit rate and staleness of the {@link UserMembershipCache} to
+ * cloud watch. The values are calculated over the calls made since the previous
+ * publish.
+ *
+ */
+public class UserMembershipCacheMetricPublisher extends PeriodicMetricPublisher {
+
+	public static final String METRIC_HIT_RATE = "Hit rate";
+	public static final String METRIC_REQUESTS = "Requests";
+	public static final String METRIC_ENTRIES = "Entries";
+	public static final String METRIC_MAX_SERVED_AGE = "Max served age";
+	public static final String METRIC_MAX_INVALIDATION_LAG = "Max invalidation lag";
+
+	@Autowired
+	UserMembershipCache membershipCache;
+	@Autowired
+	UserMembershipCacheInvalidator invalidator;
+
+	public UserMembershipCacheMetricPublisher(String nameSpacePrefix) {
+		super(nameSpacePrefix, "Membership-Cache");
+	}
+
+	@Override
+	protected List<ProfileData> createMetrics(Date timestamp) {
+		return createMetrics(countSince("hits", membershipCache.getHitCount()),
+				countSince("misses", membershipCache.getMissCount()), membershipCache.size(),
+				membershipCache.getAndResetMaxServedAgeMS(), invalidator.getAndResetMaxInvalidationLagMS(), timestamp);
+	}
+
+	/**
+	 * Create the metrics for a single period.
+	 *
+	 * @param hits                 The calls served from the cache during the
+	 *                             period.
+	 * @param misses               The calls that read from the database during
+	 *                             the period.
+	 * @param entries
+	 * @param maxServedAgeMS       The age of the oldest entry served during the
+	 *                             period.
+	 * @param maxInvalidationLagMS The longest time a change from another machine
+	 *                             took to reach the cache during the period.
+	 * @param timestamp
+	 * @return
+	 */
+	List<ProfileData> createMetrics(long hits, long misses, long entries, long maxServedAgeMS,
+			long maxInvalidationLagMS, Date timestamp) {
+		long requests = hits + misses;
+		return Arrays.asList(createMetric(METRIC_HIT_RATE, percent(hits, requests), StandardUnit.Percent, timestamp),
+				createMetric(METRIC_REQUESTS, requests, StandardUnit.Count, timestamp),
+				createMetric(METRIC_ENTRIES, entries, StandardUnit.Count, timestamp),
+				createMetric(METRIC_MAX_SERVED_AGE, maxServedAgeMS, StandardUnit.Milliseconds, timestamp),
+				createMetric(METRIC_MAX_INVALIDATION_LAG, maxInvalidationLagMS, StandardUnit.Milliseconds, timestamp));
+	}
+
+}
@@ -0,0 +1,148 @@
+package org.sagebionetworks.repo.manager.replication;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.sagebionetworks.cloudwatch.ProfileData;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Scan volume statistics gathered while reconciling a single view. Used to
+ * show how much of the 'truth' and 'replication' data each reconciliation
+ * actually had to read.
+ *
+ */
+public class ReconcileStatistics {
+
+	public static final String DIMENSION_MODE = "Mode";
+	public static final String MODE_TIERED = "tiered";
+	public static final String MODE_FULL = "full";
+
+	public static final String METRIC_TRUTH_ROWS_SCANNED = "Reconcile truth rows scanned";
+	public static final String METRIC_REPLICATION_ROWS_SCANNED = "Reconcile replication rows scanned";
+	public static final String METRIC_RANGES_COMPARED = "Reconcile ranges compared";
+	public static final String METRIC_BUCKETS_COMPARED = "Reconcile buckets compared";
+	public static final String METRIC_BUCKETS_DESCENDED = "Reconcile buckets descended";
+	public static final String METRIC_CHANGES_FOUND = "Reconcile changes found";
+
+	private final String mode;
+	private long truthRowsScanned;
+	private long replicationRowsScanned;
+	private long rangesCompared;
+	private long bucketsCompared;
+	private long bucketsDescended;
+	private long changesFound;
+
+	/**
+	 * @param mode Either {@link #MODE_TIERED} or {@link #MODE_FULL}.
+	 */
+	public ReconcileStatistics(String mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * Called for each row read from the 'truth'.
+	 *
+	 * @param count
+	 */
+	public void truthRowsScanned(long count) {
+		truthRowsScanned += count;
+	}
+
+	/**
+	 * Called for each row read from the 'replication'.
+	 *
+	 * @param count
+	 */
+	public void replicationRowsScanned(long count) {
+		replicationRowsScanned += count;
+	}
+
+	/**
+	 * Called after the buckets of a single ID range were compared.
+	 *
+	 * @param bucketCount    The number of distinct buckets that were compared.
+	 * @param descendedCount The number of buckets that did not match.
+	 */
+	public void rangeCompared(long bucketCount, long descendedCount) {
+		rangesCompared++;
+		bucketsCompared += bucketCount;
+		bucketsDescended += descendedCount;
+	}
+
+	/**
+	 * Called for each change found between the 'truth' and 'replication'.
+	 *
+	 * @param count
+	 */
+	public void changesFound(long count) {
+		changesFound += count;
+	}
+
+	public String getMode() {
+		return mode;
+	}
+
+	public long getTruthRowsScanned() {
+		return truthRowsScanned;
+	}
+
+	public long getReplicationRowsScanned() {
+		return replicationRowsScanned;
+	}
+
+	public long getRangesCompared() {
+		return rangesCompared;
+	}
+
+	public long getBucketsCompared() {
+		return bucketsCompared;
+	}
+
+	public long getBucketsDescended() {
+		return bucketsDescended;
+	}
+
+	public long getChangesFound() {
+		return changesFound;
+	}
+
+	/**
+	 * Create the metrics for this reconciliation.
+	 *
+	 * @param namespace
+	 * @param timestamp
+	 * @return
+	 */
+	public List<ProfileData> toProfileData(String namespace, Date timestamp) {
+		return Arrays.asList(createProfileData(namespace, timestamp, METRIC_TRUTH_ROWS_SCANNED, truthRowsScanned),
+				createProfileData(namespace, timestamp, METRIC_REPLICATION_ROWS_SCANNED, replicationRowsScanned),
+				createProfileData(namespace, timestamp, METRIC_RANGES_COMPARED, rangesCompared),
+				createProfileData(namespace, timestamp, METRIC_BUCKETS_COMPARED, bucketsCompared),
+				createProfileData(namespace, timestamp, METRIC_BUCKETS_DESCENDED, bucketsDescended),
+				createProfileData(namespace, timestamp, METRIC_CHANGES_FOUND, changesFound));
+	}
+
+	private ProfileData createProfileData(String namespace, Date timestamp, String name, double value) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(namespace);
+		profileData.setName(name);
+		profileData.setValue(value);
+		profileData.setUnit(StandardUnit.Count.name());
+		profileData.setTimestamp(timestamp);
+		profileData.setDimension(Collections.singletonMap(DIMENSION_MODE, mode));
+		return profileData;
+	}
+
+	@Override
+	public String toString() {
+		return "ReconcileStatistics [mode=" + mode + ", truthRowsScanned=" + truthRowsScanned
+				+ ", replicationRowsScanned=" + replicationRowsScanned + ", rangesCompared=" + rangesCompared
+				+ ", bucketsCompared=" + bucketsCompared + ", bucketsDescended=" + bucketsDescended
+				+ ", changesFound=" + changesFound + "]";
+	}
+
+}
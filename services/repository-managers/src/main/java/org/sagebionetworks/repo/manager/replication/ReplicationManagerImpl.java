@@ -1,21 +1,32 @@
 package org.sagebionetworks.repo.manager.replication;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 
 import org.apache.logging.log4j.Logger;
 import org.sagebionetworks.LoggerProvider;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.repo.manager.replication.TieredReconcileIterator.IdRangeChecksumProvider;
 import org.sagebionetworks.repo.manager.table.TableIndexConnectionFactory;
 import org.sagebionetworks.repo.manager.table.TableIndexManager;
+import org.sagebionetworks.repo.manager.table.TableIndexManagerImpl;
 import org.sagebionetworks.repo.manager.table.TableManagerSupport;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProvider;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProviderFactory;
 import org.sagebionetworks.repo.manager.table.metadata.ObjectDataProvider;
 import org.sagebionetworks.repo.manager.table.metadata.ObjectDataProviderFactory;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.dbo.dao.table.ViewScopeDao;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
@@ -56,6 +67,14 @@ public class ReplicationManagerImpl implements ReplicationManager {
 	final private ReplicationMessageManager replicationMessageManager;
 	
 	final private TableIndexConnectionFactory indexConnectionFactory;
+	
+	final private Consumer consumer;
+	
+	final private ViewScopeDao viewScopeDao;
+	
+	final private boolean tieredReconcileEnabled;
+	
+	final private long[] reconcileBucketSizes;
 
 	@Autowired
 	public ReplicationManagerImpl(
@@ -63,13 +82,20 @@ public class ReplicationManagerImpl implements ReplicationManager {
 			TableManagerSupport tableManagerSupport,
 			ReplicationMessageManager replicationMessageManager, 
 			TableIndexConnectionFactory indexConnectionFactory,
-			MetadataIndexProviderFactory indexProviderFactory, LoggerProvider logProvider) {
+			MetadataIndexProviderFactory indexProviderFactory, LoggerProvider logProvider,
+			StackConfiguration stackConfiguration, Consumer consumer, ViewScopeDao viewScopeDao) {
 		this.objectDataProviderFactory = objectDataProviderFactory;
 		this.tableManagerSupport = tableManagerSupport;
 		this.replicationMessageManager = replicationMessageManager;
 		this.indexConnectionFactory = indexConnectionFactory;
 		this.indexProviderFactory = indexProviderFactory;
 		this.log = logProvider.getLogger(ReplicationManagerImpl.class.getName());
+		this.consumer = consumer;
+		this.viewScopeDao = viewScopeDao;
+		this.tieredReconcileEnabled = stackConfiguration.getReplicationReconcileTieredEnabled();
+		this.reconcileBucketSizes = TieredReconcileIterator.createBucketSizes(
+				stackConfiguration.getReplicationReconcileTopBucketSize(),
+				stackConfiguration.getReplicationReconcileBucketFanout());
 	}
 
 	/**
@@ -92,22 +118,94 @@ public class ReplicationManagerImpl implements ReplicationManager {
 
 	/**
 	 * Update the replication tables within a single transaction that removes rows to be deleted
-	 * and creates or updates rows from the provided group.
+	 * and creates or updates rows from the provided group. Every database in the cluster has
+	 * its own copy of the replication tables, since a view can be assigned to any of them. The
+	 * object data is read once, a page at a time, and each page is written to every database.
 	 * 
 	 * @param replicationType
 	 * @param toDelete
 	 * @param objectData
 	 */
 	void updateReplicationTables(ReplicationDataGroup group) {
-		TableIndexManager indexManager = indexConnectionFactory.connectToFirstIndex();
+		ObjectDataProvider provider = objectDataProviderFactory.getObjectDataProvider(group.getObjectType());
+		List<TableIndexManager> indexManagers = indexConnectionFactory.connectToAllIndices();
 		
-		indexManager.deleteObjectData(group.getObjectType(), group.getToDeleteIds());
+		Set<Long> changedIds = new LinkedHashSet<>(group.getCreateOrUpdateIds());
+		changedIds.addAll(group.getToDeleteIds());
+		// The parents before the change identify the views that objects were removed from.
+		Map<Long, Long> previousParentIds = indexManagers.get(0).getParentIds(group.getObjectType(), changedIds);
+		
+		for (TableIndexManager indexManager : indexManagers) {
+			indexManager.deleteObjectData(group.getObjectType(), group.getToDeleteIds());
+		}
 		
-		ObjectDataProvider provider = objectDataProviderFactory.getObjectDataProvider(group.getObjectType());
 		Iterator<ObjectDataDTO> objectData = provider.getObjectData(group.getCreateOrUpdateIds(),
 				MAX_ANNOTATION_CHARS);
 		
-		indexManager.updateObjectReplication(group.getObjectType(), objectData);
+		Iterators.partition(objectData, TableIndexManagerImpl.BATCH_SIZE).forEachRemaining((List<ObjectDataDTO> page) -> {
+			for (TableIndexManager indexManager : indexManagers) {
+				indexManager.updateObjectReplication(group.getObjectType(), page.iterator());
+			}
+		});
+		
+		Map<Long, Long> currentParentIds = indexManagers.get(0).getParentIds(group.getObjectType(), changedIds);
+		addPendingViewDeltas(group.getObjectType(), provider, changedIds, previousParentIds, currentParentIds);
+	}
+	
+	/**
+	 * Queue the changed objects for each view that includes them, either before
+	 * or after the change, so the view updates only need to apply these objects.
+	 * The views are found by matching the parents of the objects (and their
+	 * ancestors) and the objects themselves against the scope of each view. A
+	 * view might be given objects that do not match its type mask, which are
+	 * simply not copied into the view.
+	 * <p>
+	 * Datasets are defined by their items rather than a scope so their changes
+	 * are not queued. Changes that are missed are still found by the periodic
+	 * full scan of each view.
+	 * 
+	 * @param replicationType
+	 * @param provider
+	 * @param changedIds
+	 * @param previousParentIds
+	 * @param currentParentIds
+	 */
+	void addPendingViewDeltas(ReplicationType replicationType, ObjectDataProvider provider, Set<Long> changedIds,
+			Map<Long, Long> previousParentIds, Map<Long, Long> currentParentIds) {
+		Map<Long, Set<Long>> scopeContainerIdsForParent = new HashMap<>();
+		Map<Long, Set<Long>> containerIdsForObject = new HashMap<>(changedIds.size());
+		Set<Long> allContainerIds = new HashSet<>();
+		for (Long objectId : changedIds) {
+			Set<Long> containerIds = new HashSet<>();
+			// project views are scoped by the objects themselves.
+			containerIds.add(objectId);
+			for (Long parentId : Arrays.asList(previousParentIds.get(objectId), currentParentIds.get(objectId))) {
+				if (parentId != null) {
+					containerIds.addAll(
+							scopeContainerIdsForParent.computeIfAbsent(parentId, provider::getScopeContainerIds));
+				}
+			}
+			containerIdsForObject.put(objectId, containerIds);
+			allContainerIds.addAll(containerIds);
+		}
+		
+		// Only the view type with the same name as the replication type has a scope.
+		ViewObjectType viewObjectType = ViewObjectType.valueOf(replicationType.name());
+		Map<Long, Set<Long>> viewIdsForContainer = viewScopeDao.getViewIdsForContainers(viewObjectType, allContainerIds);
+		
+		Map<Long, Set<Long>> objectIdsForView = new HashMap<>();
+		containerIdsForObject.forEach((objectId, containerIds) -> {
+			for (Long containerId : containerIds) {
+				for (Long viewId : viewIdsForContainer.getOrDefault(containerId, Collections.emptySet())) {
+					objectIdsForView.computeIfAbsent(viewId, (Long key) -> new HashSet<>()).add(objectId);
+				}
+			}
+		});
+		
+		objectIdsForView.forEach((viewId, objectIds) -> {
+			IdAndVersion idAndVersion = IdAndVersion.newBuilder().setId(viewId).build();
+			indexConnectionFactory.connectToTableIndex(idAndVersion).addPendingViewDeltas(idAndVersion, objectIds);
+		});
 	}
 
 	/**
@@ -170,6 +268,10 @@ public class ReplicationManagerImpl implements ReplicationManager {
 	 * 'truth' and 'replication' tables. For each delta found, a ChangeMessage will
 	 * be pushed to the replication worker queue. Each batch of change messages will
 	 * ultimately result in a call to {@link #replicate(List)}.
+	 * <p>
+	 * When tiered reconciliation is enabled, the checksums of ID ranges are
+	 * compared first and only the objects in ranges that differ are compared. The
+	 * scan volume of each reconciliation is logged and pushed as metrics.
 	 * 
 	 * @param idAndVersion
 	 * @param salt
@@ -190,7 +292,9 @@ public class ReplicationManagerImpl implements ReplicationManager {
 			return;
 		}
 
-		Iterator<ChangeMessage> it = createReconcileIterator(indexManager, viewObjectType, idAndVersion.getId());
+		ReconcileStatistics statistics = createReconcileStatistics();
+		Iterator<ChangeMessage> it = createReconcileIterator(indexManager, viewObjectType, idAndVersion.getId(),
+				statistics);
 
 		Iterators.partition(it, MAX_MESSAGE_PAGE_SIZE).forEachRemaining(page -> {
 			log.info(String.format("Found %d objects out-of-synch between truth and replication for view: '%s'.",
@@ -199,7 +303,8 @@ public class ReplicationManagerImpl implements ReplicationManager {
 		});
 
 		indexManager.resetViewSynchronizeLock(replicationType, idAndVersion);
-		log.info(String.format("Finished reconcile for view: '%s'.", idAndVersion.toString()));
+		log.info(String.format("Finished reconcile for view: '%s'. %s", idAndVersion.toString(), statistics));
+		consumer.addProfileData(statistics.toProfileData(ReplicationManagerImpl.class.getName(), new Date()));
 	}
 
 	/**
@@ -228,30 +333,87 @@ public class ReplicationManagerImpl implements ReplicationManager {
 	}
 	
 	/**
-	 * Abstraction of the ReconcileIterator.
-	 * @param objectType
-	 * @param truth
-	 * @param replication
+	 * Create a provider of 'truth' IdRangeChecksum for the provided filter.
+	 * 
+	 * @param salt
+	 * @param filter
+	 * @return
+	 */
+	IdRangeChecksumProvider createTruthChecksumProvider(Long salt, ViewFilter filter) {
+		ValidateArgument.required(salt, "salt");
+		ValidateArgument.required(filter, "filter");
+		ObjectDataProvider provider = objectDataProviderFactory.getObjectDataProvider(filter.getReplicationType());
+		if (filter instanceof HierarchicaFilter) {
+			HierarchicaFilter hierarchy = (HierarchicaFilter) filter;
+			return (Long minId, Long maxId, Long bucketSize) -> provider.getIdRangeChecksumsForChildren(salt,
+					hierarchy.getParentIds(), filter.getSubTypes(), minId, maxId, bucketSize);
+		} else if (filter instanceof FlatIdsFilter) {
+			FlatIdsFilter flat = (FlatIdsFilter) filter;
+			return (Long minId, Long maxId, Long bucketSize) -> provider.getIdRangeChecksumsForObjects(salt,
+					flat.getScope(), minId, maxId, bucketSize);
+		} else if (filter instanceof FlatIdAndVersionFilter) {
+			FlatIdAndVersionFilter flatVersion = (FlatIdAndVersionFilter) filter;
+			return (Long minId, Long maxId, Long bucketSize) -> provider.getIdRangeChecksumsForObjects(salt,
+					flatVersion.getObjectIds(), minId, maxId, bucketSize);
+		} else {
+			throw new IllegalStateException("Unknown filter types: " + filter.getClass().getName());
+		}
+	}
+	
+	/**
+	 * Abstraction of the ReconcileIterator. When tiered reconciliation is enabled
+	 * a {@link TieredReconcileIterator} is used, otherwise every object is compared
+	 * with a {@link ReconcileIterator}.
+	 * 
+	 * @param indexManager
+	 * @param viewObjectType
+	 * @param viewId
+	 * @param statistics     Gathers the scan volume of the returned iterator.
 	 * @return
 	 */
 	Iterator<ChangeMessage> createReconcileIterator(TableIndexManager indexManager, ViewObjectType viewObjectType,
-			Long viewId) {
+			Long viewId, ReconcileStatistics statistics) {
 		ValidateArgument.required(indexManager, "indexManager");
 		ValidateArgument.required(viewObjectType, "viewObjectType");
 		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(statistics, "statistics");
 		long salt = RANDOM.nextLong();
 		MetadataIndexProvider metadataProvider = indexProviderFactory.getMetadataIndexProvider(viewObjectType);
 		ViewFilter filter = metadataProvider.getViewFilter(viewId);
-		Iterator<IdAndChecksum> truthStream = createTruthStream(salt, filter);
-		Iterator<IdAndChecksum> replicationStream = indexManager.streamOverIdsAndChecksums(salt, filter);
-		return new ReconcileIterator(viewObjectType.getObjectType(), truthStream, replicationStream);
+		if (tieredReconcileEnabled) {
+			IdRangeChecksumProvider truth = createTruthChecksumProvider(salt, filter);
+			IdRangeChecksumProvider replication = (Long minId, Long maxId, Long bucketSize) -> indexManager
+					.getIdRangeChecksums(salt, filter, minId, maxId, bucketSize);
+			return new TieredReconcileIterator(viewObjectType.getObjectType(), truth, replication,
+					reconcileBucketSizes, statistics);
+		}
+		Iterator<IdAndChecksum> truthStream = Iterators.transform(createTruthStream(salt, filter), i -> {
+			statistics.truthRowsScanned(1);
+			return i;
+		});
+		Iterator<IdAndChecksum> replicationStream = Iterators
+				.transform(indexManager.streamOverIdsAndChecksums(salt, filter), i -> {
+					statistics.replicationRowsScanned(1);
+					return i;
+				});
+		return Iterators.transform(
+				new ReconcileIterator(viewObjectType.getObjectType(), truthStream, replicationStream), c -> {
+					statistics.changesFound(1);
+					return c;
+				});
 	}
 	
 	@Override
 	public boolean isReplicationSynchronizedForView(ViewObjectType viewObjectType, IdAndVersion viewId) {
 		TableIndexManager indexManager = indexConnectionFactory.connectToTableIndex(viewId);
-		Iterator<ChangeMessage> it = createReconcileIterator(indexManager, viewObjectType, viewId.getId());
+		Iterator<ChangeMessage> it = createReconcileIterator(indexManager, viewObjectType, viewId.getId(),
+				createReconcileStatistics());
 		return !it.hasNext();
 	}
+	
+	ReconcileStatistics createReconcileStatistics() {
+		return new ReconcileStatistics(
+				tieredReconcileEnabled ? ReconcileStatistics.MODE_TIERED : ReconcileStatistics.MODE_FULL);
+	}
 
 }
@@ -0,0 +1,250 @@
+package org.sagebionetworks.repo.manager.replication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * An Iterator to find changes between the 'truth' and 'replication' by
+ * comparing the aggregated checksums of ID ranges rather than the checksum of
+ * every object.
+ * <p>
+ * The full ID range is first split into buckets of the first (largest) bucket
+ * size and the checksum of each bucket is compared. Only the buckets that do
+ * not match are split into buckets of the next bucket size, and so on. At the
+ * last tier the bucket size is one, so each bucket is a single object and the
+ * changes are found with a {@link ReconcileIterator}. When nothing has changed
+ * only the first tier is read from each side.
+ * <p>
+ * Ranges are compared lazily, in ID order, as changes are requested.
+ *
+ */
+public class TieredReconcileIterator implements Iterator<ChangeMessage> {
+
+	/**
+	 * Abstraction for reading the bucket checksums from either the 'truth' or the
+	 * 'replication'.
+	 *
+	 */
+	@FunctionalInterface
+	public interface IdRangeChecksumProvider {
+
+		/**
+		 * Get the checksum of each non-empty bucket in the given range ordered by
+		 * bucket ascending.
+		 *
+		 * @param minId      The minimum ID (inclusive).
+		 * @param maxId      The maximum ID (exclusive).
+		 * @param bucketSize
+		 * @return
+		 */
+		List<IdRangeChecksum> getIdRangeChecksums(Long minId, Long maxId, Long bucketSize);
+	}
+
+	private final ObjectType objectType;
+	private final IdRangeChecksumProvider truth;
+	private final IdRangeChecksumProvider replication;
+	private final long[] bucketSizes;
+	private final ReconcileStatistics statistics;
+	private final Deque<IdRange> pending;
+	private Iterator<ChangeMessage> current;
+
+	/**
+	 *
+	 * @param objectType
+	 * @param truth
+	 * @param replication
+	 * @param bucketSizes The bucket size of each tier in descending order. The
+	 *                    last bucket size must be one. Each bucket size must
+	 *                    evenly divide the bucket size of the previous tier.
+	 * @param statistics
+	 */
+	public TieredReconcileIterator(ObjectType objectType, IdRangeChecksumProvider truth,
+			IdRangeChecksumProvider replication, long[] bucketSizes, ReconcileStatistics statistics) {
+		ValidateArgument.required(objectType, "objectType");
+		ValidateArgument.required(truth, "truth");
+		ValidateArgument.required(replication, "replication");
+		ValidateArgument.required(bucketSizes, "bucketSizes");
+		ValidateArgument.required(statistics, "statistics");
+		ValidateArgument.requirement(bucketSizes.length > 0 && bucketSizes[bucketSizes.length - 1] == 1L,
+				"The last bucket size must be one");
+		for (int i = 1; i < bucketSizes.length; i++) {
+			ValidateArgument.requirement(bucketSizes[i] < bucketSizes[i - 1] && bucketSizes[i - 1] % bucketSizes[i] == 0,
+					"Each bucket size must evenly divide the previous bucket size");
+		}
+		this.objectType = objectType;
+		this.truth = truth;
+		this.replication = replication;
+		this.bucketSizes = bucketSizes;
+		this.statistics = statistics;
+		this.pending = new LinkedList<>();
+		this.pending.push(new IdRange(0L, Long.MAX_VALUE, 0));
+		this.current = Collections.emptyIterator();
+	}
+
+	/**
+	 * Create the bucket sizes starting with the given top bucket size and dividing
+	 * by the given fanout at each tier until the bucket size is one.
+	 *
+	 * @param topBucketSize
+	 * @param fanout
+	 * @return
+	 */
+	public static long[] createBucketSizes(long topBucketSize, int fanout) {
+		ValidateArgument.requirement(topBucketSize > 0, "The top bucket size must be greater than zero");
+		ValidateArgument.requirement(fanout > 1, "The fanout must be greater than one");
+		List<Long> sizes = new ArrayList<>();
+		long size = topBucketSize;
+		while (size > 1) {
+			sizes.add(size);
+			long next = size / fanout;
+			// each size must evenly divide the previous size.
+			while (next > 1 && size % next != 0) {
+				next--;
+			}
+			size = Math.max(1L, next);
+		}
+		sizes.add(1L);
+		return sizes.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!current.hasNext()) {
+			if (pending.isEmpty()) {
+				return false;
+			}
+			current = compareRange(pending.pop());
+		}
+		return true;
+	}
+
+	@Override
+	public ChangeMessage next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		statistics.changesFound(1);
+		return current.next();
+	}
+
+	/**
+	 * Compare the buckets of the given range. For the last tier the changes are
+	 * returned. For all other tiers a sub-range is added to the pending ranges
+	 * for each bucket that does not match.
+	 *
+	 * @param range
+	 * @return
+	 */
+	Iterator<ChangeMessage> compareRange(IdRange range) {
+		long bucketSize = bucketSizes[range.tier];
+		List<IdRangeChecksum> truthBuckets = truth.getIdRangeChecksums(range.minId, range.maxId, bucketSize);
+		List<IdRangeChecksum> replicationBuckets = replication.getIdRangeChecksums(range.minId, range.maxId,
+				bucketSize);
+		statistics.truthRowsScanned(sumCounts(truthBuckets));
+		statistics.replicationRowsScanned(sumCounts(replicationBuckets));
+
+		List<Long> mismatched = new ArrayList<>();
+		long bucketCount = findMismatchedBuckets(truthBuckets, replicationBuckets, mismatched);
+
+		if (range.tier == bucketSizes.length - 1) {
+			// each mismatched bucket is a change rather than a descent.
+			statistics.rangeCompared(bucketCount, 0);
+			return new ReconcileIterator(objectType, toIdAndChecksum(truthBuckets).iterator(),
+					toIdAndChecksum(replicationBuckets).iterator());
+		}
+		statistics.rangeCompared(bucketCount, mismatched.size());
+		// push in reverse so the ranges are compared in ID order.
+		ListIterator<Long> reverse = mismatched.listIterator(mismatched.size());
+		while (reverse.hasPrevious()) {
+			long bucket = reverse.previous();
+			long minId = Math.max(range.minId, bucket * bucketSize);
+			long maxId = Math.min(range.maxId, (bucket + 1) * bucketSize);
+			pending.push(new IdRange(minId, maxId, range.tier + 1));
+		}
+		return Collections.emptyIterator();
+	}
+
+	/**
+	 * Find the buckets that do not match between the two ordered lists.
+	 *
+	 * @param truthBuckets
+	 * @param replicationBuckets
+	 * @param mismatched         Each bucket that does not match will be added to
+	 *                           this list in order.
+	 * @return The number of distinct buckets that were compared.
+	 */
+	static long findMismatchedBuckets(List<IdRangeChecksum> truthBuckets, List<IdRangeChecksum> replicationBuckets,
+			List<Long> mismatched) {
+		long count = 0;
+		int t = 0;
+		int r = 0;
+		while (t < truthBuckets.size() || r < replicationBuckets.size()) {
+			count++;
+			IdRangeChecksum truthBucket = t < truthBuckets.size() ? truthBuckets.get(t) : null;
+			IdRangeChecksum replicationBucket = r < replicationBuckets.size() ? replicationBuckets.get(r) : null;
+			if (replicationBucket == null
+					|| (truthBucket != null && truthBucket.getBucket() < replicationBucket.getBucket())) {
+				// bucket missing from replication
+				mismatched.add(truthBucket.getBucket());
+				t++;
+			} else if (truthBucket == null || replicationBucket.getBucket() < truthBucket.getBucket()) {
+				// bucket missing from truth
+				mismatched.add(replicationBucket.getBucket());
+				r++;
+			} else {
+				if (!truthBucket.equals(replicationBucket)) {
+					mismatched.add(truthBucket.getBucket());
+				}
+				t++;
+				r++;
+			}
+		}
+		return count;
+	}
+
+	static long sumCounts(List<IdRangeChecksum> buckets) {
+		return buckets.stream().mapToLong(IdRangeChecksum::getCount).sum();
+	}
+
+	/**
+	 * At the last tier each bucket is a single ID.
+	 *
+	 * @param buckets
+	 * @return
+	 */
+	static List<IdAndChecksum> toIdAndChecksum(List<IdRangeChecksum> buckets) {
+		return buckets.stream().map(b -> new IdAndChecksum().withId(b.getBucket()).withChecksum(b.getChecksum()))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * A range of IDs to compare at a single tier.
+	 *
+	 */
+	static class IdRange {
+
+		private final long minId;
+		private final long maxId;
+		private final int tier;
+
+		IdRange(long minId, long maxId, int tier) {
+			this.minId = minId;
+			this.maxId = maxId;
+			this.tier = tier;
+		}
+	}
+
+}
@@ -1,5 +1,11 @@
 package org.sagebionetworks.repo.manager.schema;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.sagebionetworks.repo.manager.EntityManager;
 import org.sagebionetworks.repo.model.dbo.schema.SchemaValidationResultDao;
 import org.sagebionetworks.repo.model.schema.JsonSchema;
@@ -35,15 +41,46 @@ public class EntitySchemaValidator implements ObjectSchemaValidator {
 	@Override
 	public void validateObject(String entityId) {
 		ValidateArgument.required(entityId, "entityId");
+		validateObjects(Collections.singletonList(entityId));
+	}
+
+	@WriteTransaction
+	@Override
+	public void validateObjects(List<String> entityIds) {
+		ValidateArgument.required(entityIds, "entityIds");
+		// The subject of each entity grouped by the $id of the bound schema.
+		Map<String, Map<String, JsonSubject>> subjectsBySchema = new LinkedHashMap<>();
+		for (String entityId : entityIds) {
+			ValidateArgument.required(entityId, "entityId");
+			try {
+				JsonSchemaObjectBinding binding = entityManger.getBoundSchema(entityId);
+				JsonSubject entitySubject = entityManger.getEntityJsonSubject(entityId);
+				subjectsBySchema.computeIfAbsent(binding.getJsonSchemaVersionInfo().get$id(), k -> new LinkedHashMap<>())
+						.put(entityId, entitySubject);
+			} catch (NotFoundException e) {
+				schemaValidationResultDao.clearResults(entityId, ObjectType.entity);
+			}
+		}
+		subjectsBySchema.forEach((schema$id, subjects) -> {
+			validateAgainstSchema(schema$id, subjects);
+		});
+	}
+
+	/**
+	 * Validate the given subjects against a single schema.
+	 * 
+	 * @param schema$id
+	 * @param subjects  The subjects keyed by entity ID.
+	 */
+	void validateAgainstSchema(String schema$id, Map<String, JsonSubject> subjects) {
 		try {
-			JsonSchemaObjectBinding binding = entityManger.getBoundSchema(entityId);
-			JsonSubject entitySubject = entityManger.getEntityJsonSubject(entityId);
-			JsonSchema validationSchema = jsonSchemaManager
-					.getValidationSchema(binding.getJsonSchemaVersionInfo().get$id());
-			ValidationResults results = jsonSchemaValidationManager.validate(validationSchema, entitySubject);
-			schemaValidationResultDao.createOrUpdateResults(results);
+			String versionId = jsonSchemaManager.getSchemaVersionId(schema$id);
+			JsonSchema validationSchema = jsonSchemaManager.getValidationSchema(schema$id);
+			List<ValidationResults> results = jsonSchemaValidationManager.validate(versionId, validationSchema,
+					new ArrayList<>(subjects.values()));
+			results.forEach(schemaValidationResultDao::createOrUpdateResults);
 		} catch (NotFoundException e) {
-			schemaValidationResultDao.clearResults(entityId, ObjectType.entity);
+			subjects.keySet().forEach(entityId -> schemaValidationResultDao.clearResults(entityId, ObjectType.entity));
 		}
 	}
 
@@ -167,6 +167,15 @@ public interface JsonSchemaManager {
 	 */
 	JsonSchema createOrUpdateValidationSchemaIndex(String versionId);
 
+	/**
+	 * Get the version ID of the given $id. When the $id does not include a
+	 * semantic version this is the ID of the latest version.
+	 * 
+	 * @param $id
+	 * @return
+	 */
+	String getSchemaVersionId(String $id);
+
 	/**
 	 * Gets the validation schema for the given $id
 	 * @param versionId
@@ -327,6 +327,7 @@ public class JsonSchemaManagerImpl implements JsonSchemaManager {
 	 * @param $id
 	 * @return
 	 */
+	@Override
 	public String getSchemaVersionId(String $id) {
 		ValidateArgument.required($id, "id");
 		SchemaId schemaId = SchemaIdParser.parseSchemaId($id);
@@ -1,5 +1,7 @@
 package org.sagebionetworks.repo.manager.schema;
 
+import java.util.List;
+
 import org.sagebionetworks.repo.model.schema.JsonSchema;
 import org.sagebionetworks.repo.model.schema.ValidationResults;
 
@@ -14,4 +16,25 @@ public interface JsonSchemaValidationManager {
 	 */
 	public ValidationResults validate(JsonSchema schema, JsonSubject subject);
 
+	/**
+	 * Validate each of the given subjects against the given validation schema of
+	 * the given schema version. The schema is compiled once and the compiled
+	 * schema is cached by version ID, so it is only compiled again when the
+	 * validation schema of the version changes.
+	 * 
+	 * @param versionId
+	 * @param schema
+	 * @param subjects
+	 * @return The results of each subject, in the order of the subjects.
+	 */
+	public List<ValidationResults> validate(String versionId, JsonSchema schema, List<JsonSubject> subjects);
+
+	/**
+	 * Remove the compiled schema of the given version from the cache of this
+	 * machine. Called when the validation schema of the version changes.
+	 * 
+	 * @param versionId
+	 */
+	public void evictCompiledSchema(String versionId);
+
 }
@@ -1,6 +1,8 @@
 package org.sagebionetworks.repo.manager.schema;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 import org.everit.json.schema.Schema;
@@ -15,23 +17,123 @@ import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.stereotype.Service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 @Service
 public class JsonSchemaValidationManagerImpl implements JsonSchemaValidationManager {
 
 	public static final String DRAFT_07 = "http://json-schema.org/draft-07/schema";
 
+	/**
+	 * The maximum number of compiled schemas held by each machine.
+	 */
+	public static final long MAX_COMPILED_SCHEMAS = 100L;
+
+	/**
+	 * A validation schema compiled by the validation library and the schema it
+	 * was compiled from.
+	 *
+	 */
+	static class CompiledSchema {
+
+		private final JsonSchema source;
+		private final Schema validator;
+
+		CompiledSchema(JsonSchema source, Schema validator) {
+			this.source = source;
+			this.validator = validator;
+		}
+
+		JsonSchema getSource() {
+			return source;
+		}
+
+		Schema getValidator() {
+			return validator;
+		}
+	}
+
+	/**
+	 * Compiled schemas keyed by schema version ID. Since the validation schema of
+	 * a version changes when one of its references changes, an entry is only used
+	 * while it was compiled from a schema equal to the current one.
+	 */
+	private final Cache<String, CompiledSchema> compiledSchemas = CacheBuilder.newBuilder()
+			.maximumSize(MAX_COMPILED_SCHEMAS).build();
+
 	@Override
 	public ValidationResults validate(JsonSchema jsonSchema, JsonSubject subject) {
+		ValidateArgument.required(jsonSchema, "jsonSchema");
+		ValidateArgument.required(subject, "subject");
 		try {
-			return doValidate(jsonSchema, subject);
+			return doValidate(compile(jsonSchema), subject);
 		} catch (JSONObjectAdapterException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
-	ValidationResults doValidate(JsonSchema jsonSchema, JsonSubject subject) throws JSONObjectAdapterException {
+	@Override
+	public List<ValidationResults> validate(String versionId, JsonSchema jsonSchema, List<JsonSubject> subjects) {
+		ValidateArgument.required(versionId, "versionId");
 		ValidateArgument.required(jsonSchema, "jsonSchema");
-		ValidateArgument.required(subject, "subject");
+		ValidateArgument.required(subjects, "subjects");
+		CompiledSchema compiled = getOrCompile(versionId, jsonSchema);
+		List<ValidationResults> results = new ArrayList<>(subjects.size());
+		try {
+			for (JsonSubject subject : subjects) {
+				ValidateArgument.required(subject, "subject");
+				results.add(doValidate(compiled, subject));
+			}
+		} catch (JSONObjectAdapterException e) {
+			throw new RuntimeException(e);
+		}
+		return results;
+	}
+
+	@Override
+	public void evictCompiledSchema(String versionId) {
+		ValidateArgument.required(versionId, "versionId");
+		compiledSchemas.invalidate(versionId);
+	}
+
+	/**
+	 * Get the compiled schema of the given version from the cache, or compile the
+	 * given schema and add it to the cache.
+	 * 
+	 * @param versionId
+	 * @param jsonSchema
+	 * @return
+	 */
+	CompiledSchema getOrCompile(String versionId, JsonSchema jsonSchema) {
+		setDefaultSchema(jsonSchema);
+		CompiledSchema compiled = compiledSchemas.getIfPresent(versionId);
+		if (compiled == null || !compiled.getSource().equals(jsonSchema)) {
+			compiled = compile(jsonSchema);
+			compiledSchemas.put(versionId, compiled);
+		}
+		return compiled;
+	}
+
+	/**
+	 * @param versionId
+	 * @return True if a compiled schema is held for the given version.
+	 */
+	boolean isCompiledSchemaCached(String versionId) {
+		return compiledSchemas.getIfPresent(versionId) != null;
+	}
+
+	CompiledSchema compile(JsonSchema jsonSchema) {
+		setDefaultSchema(jsonSchema);
+		try {
+			String validationSchemaJson = EntityFactory.createJSONStringForEntity(jsonSchema);
+			return new CompiledSchema(jsonSchema, SchemaLoader.load(new JSONObject(validationSchemaJson)));
+		} catch (JSONObjectAdapterException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	static void setDefaultSchema(JsonSchema jsonSchema) {
 		if (StringUtils.isBlank(jsonSchema.get$schema())) {
 			/**
 			 * The validation library silently ignores all JSON schema features added after
@@ -41,16 +143,17 @@ public class JsonSchemaValidationManagerImpl implements JsonSchemaValidationMana
 			 */
 			jsonSchema.set$schema(DRAFT_07);
 		}
+	}
+
+	ValidationResults doValidate(CompiledSchema compiled, JsonSubject subject) throws JSONObjectAdapterException {
 		ValidationResults result = new ValidationResults();
 		result.setObjectId(subject.getObjectId());
 		result.setObjectType(subject.getObjectType());
 		result.setObjectEtag(subject.getObjectEtag());
-		result.setSchema$id(jsonSchema.get$id());
+		result.setSchema$id(compiled.getSource().get$id());
 		result.setValidatedOn(new Date());
-		String validationSchemaJson = EntityFactory.createJSONStringForEntity(jsonSchema);
-		Schema schemaValidator = SchemaLoader.load(new JSONObject(validationSchemaJson));
 		try {
-			schemaValidator.validate(subject.toJson());
+			compiled.getValidator().validate(subject.toJson());
 			result.setIsValid(true);
 		} catch (org.everit.json.schema.ValidationException e) {
 			result.setIsValid(false);
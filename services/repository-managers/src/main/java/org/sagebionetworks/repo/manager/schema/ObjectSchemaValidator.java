@@ -1,5 +1,7 @@
 package org.sagebionetworks.repo.manager.schema;
 
+import java.util.List;
+
 public interface ObjectSchemaValidator {
 
 	/**
@@ -9,4 +11,13 @@ public interface ObjectSchemaValidator {
 	 */
 	public void validateObject(String objectId);
 
+	/**
+	 * Validate each of the given objects against its JSON schema. The objects
+	 * bound to the same schema are validated together against a single compiled
+	 * schema.
+	 * 
+	 * @param objectIds
+	 */
+	public void validateObjects(List<String> objectIds);
+
 }
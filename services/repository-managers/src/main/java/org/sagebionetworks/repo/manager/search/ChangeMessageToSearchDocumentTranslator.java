@@ -1,5 +1,14 @@
 package org.sagebionetworks.repo.manager.search;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sagebionetworks.repo.model.ObjectType;
@@ -30,58 +39,71 @@ public class ChangeMessageToSearchDocumentTranslator {
 	@Autowired
 	CloudSearchLogger recordLogger;
 
-	Document generateSearchDocumentIfNecessary(ChangeMessage change) {
-		// start a log record for this message.
-		CloudSearchDocumentLogRecord record = recordLogger.startRecordForChangeMessage(change);
-		switch (change.getObjectType()) {
-		case ENTITY:
-			return entityChange(change.getObjectId(), record);
-		case WIKI:
-			return wikiChange(change.getObjectId(), record);
-		default:
-			throw new IllegalArgumentException("Unknown change type: " + change.getChangeType());
-		}
-	}
-
 	/**
-	 * Wiki changes are converted into entity changes.
-	 * @param wikiId
-	 * @param record
+	 * Create the search documents for a batch of changes. Each entity is only
+	 * documented once per batch and the documents of all existing entities are
+	 * built with a single call to the driver.
+	 * 
+	 * @param changes
 	 * @return
 	 */
-	Document wikiChange(String wikiId, CloudSearchDocumentLogRecord record) {
-		// Lookup the owner of the page
-		try {
-			WikiPageKey key = wikiPageDao.lookupWikiKey(wikiId);
-			// If the owner of the wiki is a an entity then pass along the
-			// message.
-			if (ObjectType.ENTITY == key.getOwnerObjectType()) {
-				record.withWikiOwner(key.getOwnerObjectId());
-				return entityChange(key.getOwnerObjectId(), record);
+	List<Document> generateSearchDocuments(List<ChangeMessage> changes) {
+		Map<String, List<CloudSearchDocumentLogRecord>> recordsByEntityId = new LinkedHashMap<>();
+		for (ChangeMessage change : changes) {
+			// start a log record for this message.
+			CloudSearchDocumentLogRecord record = recordLogger.startRecordForChangeMessage(change);
+			String entityId = getEntityId(change, record);
+			if (entityId != null) {
+				recordsByEntityId.computeIfAbsent(entityId, (String key) -> new LinkedList<>()).add(record);
 			}
-		} catch (NotFoundException e) {
-			// Nothing to do if the wiki does not exist
-			log.info("Wiki not found for id: " + wikiId + " Message: " + e.getMessage());
 		}
-		// this change will be ignored.
-		record.withAction(DocumentAction.IGNORE);
-		return null;
+		if (recordsByEntityId.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<String> entityIds = new ArrayList<>(recordsByEntityId.keySet());
+		Set<String> existing = searchDocumentDriver.getEntitiesExistingInRepository(entityIds);
+		List<Document> documents = new ArrayList<>(entityIds.size());
+		documents.addAll(searchDocumentDriver.formulateSearchDocuments(
+				entityIds.stream().filter(existing::contains).collect(Collectors.toList())));
+		for (String entityId : entityIds) {
+			if (existing.contains(entityId)) {
+				recordsByEntityId.get(entityId).forEach(record -> record.withAction(DocumentAction.CREATE_OR_UPDATE));
+			} else {
+				recordsByEntityId.get(entityId).forEach(record -> record.withAction(DocumentAction.DELETE));
+				documents.add(createDeleteDocument(entityId));
+			}
+		}
+		return documents;
 	}
 
 	/**
-	 * Create a change document for the given wiki.
+	 * Get the ID of the entity to document for the given change.
 	 * 
-	 * @param entityId
+	 * @param change
 	 * @param record
-	 * @return
+	 * @return The ID of the entity or null if the change should be ignored.
 	 */
-	Document entityChange(String entityId, CloudSearchDocumentLogRecord record) {
-		if(!searchDocumentDriver.doesEntityExistInRepository(entityId)) {
-			record.withAction(DocumentAction.DELETE);
-			return createDeleteDocument(entityId);
-		}else {
-			record.withAction(DocumentAction.CREATE_OR_UPDATE);
-			return searchDocumentDriver.formulateSearchDocument(entityId);
+	String getEntityId(ChangeMessage change, CloudSearchDocumentLogRecord record) {
+		switch (change.getObjectType()) {
+		case ENTITY:
+			return change.getObjectId();
+		case WIKI:
+			try {
+				WikiPageKey key = wikiPageDao.lookupWikiKey(change.getObjectId());
+				// Wiki changes are converted into entity changes.
+				if (ObjectType.ENTITY == key.getOwnerObjectType()) {
+					record.withWikiOwner(key.getOwnerObjectId());
+					return key.getOwnerObjectId();
+				}
+			} catch (NotFoundException e) {
+				// Nothing to do if the wiki does not exist
+				log.info("Wiki not found for id: " + change.getObjectId() + " Message: " + e.getMessage());
+			}
+			// this change will be ignored.
+			record.withAction(DocumentAction.IGNORE);
+			return null;
+		default:
+			throw new IllegalArgumentException("Unknown change type: " + change.getChangeType());
 		}
 	}
 
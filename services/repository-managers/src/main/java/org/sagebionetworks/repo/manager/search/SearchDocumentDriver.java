@@ -26,6 +26,15 @@ public interface SearchDocumentDriver {
 	 */
 	boolean doesEntityExistInRepository(String entityId);
 
+	/**
+	 * Get the sub-set of the given entities that exist in the repository with a
+	 * single query.
+	 * 
+	 * @param entityIds
+	 * @return
+	 */
+	Set<String> getEntitiesExistingInRepository(List<String> entityIds);
+
 	/**
 	 * Create a search document for a given NodeId.
 	 * @param nodeId
@@ -35,6 +44,16 @@ public interface SearchDocumentDriver {
 	 * @throws IOException TODO
 	 */
 	public Document formulateSearchDocument(String nodeId) throws DatastoreException, NotFoundException;
+	
+	/**
+	 * Create a search document for each of the given nodes. The nodes,
+	 * annotations and ACLs are read with set-based queries and the wiki text of
+	 * each node is read in parallel. Nodes that no longer exist are skipped.
+	 * 
+	 * @param nodeIds
+	 * @return
+	 */
+	public List<Document> formulateSearchDocuments(List<String> nodeIds);
 	/**
 	 * Create a search document and return it.
 	 *
@@ -10,8 +10,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,6 +41,7 @@ import org.sagebionetworks.repo.model.annotation.v2.AnnotationsValue;
 import org.sagebionetworks.repo.model.dao.WikiPageKey;
 import org.sagebionetworks.repo.model.dao.WikiPageKeyHelper;
 import org.sagebionetworks.repo.model.entity.NameIdType;
+import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.model.search.Document;
 import org.sagebionetworks.repo.model.search.DocumentFields;
 import org.sagebionetworks.repo.model.search.DocumentTypeNames;
@@ -41,8 +50,10 @@ import org.sagebionetworks.repo.model.v2.wiki.V2WikiHeader;
 import org.sagebionetworks.repo.model.v2.wiki.V2WikiPage;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.search.SearchUtil;
+import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 
+
 /**
  * This class writes out search documents in batch.
  * 
@@ -70,6 +81,8 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 	private AccessControlListDAO aclDAO;
 	@Autowired
 	V2WikiPageDao wikiPageDao;
+	
+	private ExecutorService wikiExecutor;
 
 	static { // initialize SEARCHABLE_NODE_ANNOTATIONS
 		// NOTE: ORDER MATTERS. Earlier annotation key names will be preferred over later ones if both keys are present.
@@ -88,6 +101,16 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 	 */
 	public SearchDocumentDriverImpl() {
 	}
+	
+	/**
+	 * Injected. The pool that limits the number of nodes with wiki text being
+	 * read at the same time.
+	 * 
+	 * @param wikiExecutor
+	 */
+	public void setWikiExecutor(ExecutorService wikiExecutor) {
+		this.wikiExecutor = wikiExecutor;
+	}
 
 	/**
 	 * @param node
@@ -268,6 +291,62 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 		return formulateFromBackup(node);
 	}
 
+	@Override
+	public List<Document> formulateSearchDocuments(List<String> nodeIds) {
+		ValidateArgument.required(nodeIds, "nodeIds");
+		if (nodeIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Long> ids = KeyFactory.stringToKey(nodeIds);
+		// The wiki text is read from S3 while the rest of the data is read from the database.
+		Map<Long, Future<String>> wikiText = new LinkedHashMap<>(ids.size());
+		for (Long id : ids) {
+			wikiText.computeIfAbsent(id, (Long key) -> wikiExecutor.submit(() -> getAllWikiPageText(KeyFactory.keyToString(key))));
+		}
+		Map<Long, Node> nodes = nodeDao.getNodes(ids).stream()
+				.collect(Collectors.toMap((Node node) -> KeyFactory.stringToKey(node.getId()), Function.identity()));
+		Map<Long, Annotations> annotations = nodeDao.getUserAnnotationsForCurrentVersions(ids).stream()
+				.collect(Collectors.toMap((Annotations annos) -> KeyFactory.stringToKey(annos.getId()), Function.identity()));
+		Map<Long, Long> benefactors = nodeDao.getBenefactors(ids);
+		Map<Long, AccessControlList> acls = aclDAO.getAcls(new HashSet<>(benefactors.values()), ObjectType.ENTITY);
+
+		List<Document> documents = new ArrayList<>(nodes.size());
+		for (Map.Entry<Long, Future<String>> entry : wikiText.entrySet()) {
+			Long id = entry.getKey();
+			String text = getWikiText(entry.getValue());
+			Node node = nodes.get(id);
+			Annotations annos = annotations.get(id);
+			AccessControlList acl = acls.get(benefactors.get(id));
+			if (node == null || annos == null || acl == null) {
+				// The node was deleted while the batch was being processed.
+				log.warn("Skipping the search document for node that no longer exists: " + id);
+				continue;
+			}
+			documents.add(formulateSearchDocument(node, annos, acl, text));
+		}
+		return documents;
+	}
+
+	/**
+	 * Wait for the wiki text of a single node.
+	 * 
+	 * @param future
+	 * @return
+	 */
+	static String getWikiText(Future<String> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
 	/**
 	 * Get all wiki text for an entity.
 	 * 
@@ -313,4 +392,12 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 		return nodeDao.isNodeAvailable(entityId);
 	}
 
+	@Override
+	public Set<String> getEntitiesExistingInRepository(List<String> entityIds) {
+		ValidateArgument.required(entityIds, "entityIds");
+		Set<Long> available = nodeDao.getAvailableNodes(KeyFactory.stringToKey(entityIds));
+		return entityIds.stream().filter((String entityId) -> available.contains(KeyFactory.stringToKey(entityId)))
+				.collect(Collectors.toSet());
+	}
+
 }
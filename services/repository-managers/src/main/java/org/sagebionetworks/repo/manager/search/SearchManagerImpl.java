@@ -1,15 +1,17 @@
 package org.sagebionetworks.repo.manager.search;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
 import org.sagebionetworks.repo.model.EntityPath;
 import org.sagebionetworks.repo.model.IdAndAlias;
 import org.sagebionetworks.repo.model.UserInfo;
@@ -27,10 +29,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import com.amazonaws.services.cloudsearchdomain.model.SearchRequest;
 import com.amazonaws.services.cloudsearchdomain.model.SearchResult;
-import com.google.common.collect.Iterators;
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
 
 public class SearchManagerImpl implements SearchManager{
 	private static final Logger log = LogManager.getLogger(SearchManagerImpl.class.getName());
+	
+	public static final String METRIC_DOCUMENTS_BUILT = "Search documents built";
+	public static final String METRIC_DOCUMENT_BUILD_TIME = "Search document build time";
+	public static final String METRIC_DOCUMENT_BUILD_RATE = "Search document build rate";
 
 
 	@Autowired
@@ -44,6 +50,9 @@ public class SearchManagerImpl implements SearchManager{
 	
 	@Autowired
 	CloudSearchLogger recordLogger;
+	
+	@Autowired
+	Consumer consumer;
 
 	@Override
 	public SearchResults proxySearch(UserInfo userInfo, SearchQuery searchQuery) {
@@ -143,12 +152,38 @@ public class SearchManagerImpl implements SearchManager{
 	@Override
 	public void documentChangeMessages(List<ChangeMessage> messages){
 		try {
-			Iterator<Document> documentIterator = Iterators.filter(
-					Iterators.transform(messages.iterator(), translator::generateSearchDocumentIfNecessary),
-					Objects::nonNull);
-			searchDao.sendDocuments(documentIterator);
+			long start = System.currentTimeMillis();
+			List<Document> documents = translator.generateSearchDocuments(messages);
+			long elapsedMS = System.currentTimeMillis() - start;
+			consumer.addProfileData(createBuildMetrics(documents.size(), elapsedMS, new Date()));
+			searchDao.sendDocuments(documents.iterator());
 		}finally {
 			recordLogger.pushAllRecordsAndReset();
 		}
 	}
+
+	/**
+	 * Metrics used to size the search workers.
+	 * 
+	 * @param documentCount The number of documents built for a batch.
+	 * @param elapsedMS     The time taken to build the documents.
+	 * @param timestamp
+	 * @return
+	 */
+	static List<ProfileData> createBuildMetrics(long documentCount, long elapsedMS, Date timestamp) {
+		double perSecond = elapsedMS > 0 ? documentCount * 1000.0 / elapsedMS : documentCount;
+		return Arrays.asList(createProfileData(METRIC_DOCUMENTS_BUILT, documentCount, StandardUnit.Count, timestamp),
+				createProfileData(METRIC_DOCUMENT_BUILD_TIME, elapsedMS, StandardUnit.Milliseconds, timestamp),
+				createProfileData(METRIC_DOCUMENT_BUILD_RATE, perSecond, StandardUnit.CountSecond, timestamp));
+	}
+
+	private static ProfileData createProfileData(String name, double value, StandardUnit unit, Date timestamp) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(SearchManagerImpl.class.getName());
+		profileData.setName(name);
+		profileData.setValue(value);
+		profileData.setUnit(unit.name());
+		profileData.setTimestamp(timestamp);
+		return profileData;
+	}
 }
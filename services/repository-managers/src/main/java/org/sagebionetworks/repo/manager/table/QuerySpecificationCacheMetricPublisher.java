@@ -0,0 +1,53 @@
+package org.sagebionetworks.repo.manager.table;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.repo.manager.metric.PeriodicMetricPublisher;
+import org.sagebionetworks.table.query.util.QuerySpecificationCache;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Publishes the hit rate and size of the shared
+ * {@link QuerySpecificationCache} to cloud watch. The hit rate is calculated
+ * over the queries parsed since the previous publish.
+ *
+ */
+public class QuerySpecificationCacheMetricPublisher extends PeriodicMetricPublisher {
+
+	public static final String METRIC_HIT_RATE = "Hit rate";
+	public static final String METRIC_REQUESTS = "Requests";
+	public static final String METRIC_SIZE = "Size";
+
+	QuerySpecificationCache queryCache = QuerySpecificationCache.getShared();
+
+	public QuerySpecificationCacheMetricPublisher(String nameSpacePrefix) {
+		super(nameSpacePrefix, "Query-Cache");
+	}
+
+	@Override
+	protected List<ProfileData> createMetrics(Date timestamp) {
+		return createMetrics(countSince("hits", queryCache.getHitCount()),
+				countSince("misses", queryCache.getMissCount()), queryCache.size(), timestamp);
+	}
+
+	/**
+	 * Create the metrics for a single period.
+	 *
+	 * @param hits      The queries served from the cache during the period.
+	 * @param misses    The queries that required a parse during the period.
+	 * @param size
+	 * @param timestamp
+	 * @return
+	 */
+	List<ProfileData> createMetrics(long hits, long misses, int size, Date timestamp) {
+		long requests = hits + misses;
+		return Arrays.asList(createMetric(METRIC_HIT_RATE, percent(hits, requests), StandardUnit.Percent, timestamp),
+				createMetric(METRIC_REQUESTS, requests, StandardUnit.Count, timestamp),
+				createMetric(METRIC_SIZE, size, StandardUnit.Count, timestamp));
+	}
+
+}
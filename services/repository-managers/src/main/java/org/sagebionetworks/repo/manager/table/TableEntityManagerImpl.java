@@ -434,8 +434,8 @@ public class TableEntityManagerImpl implements TableEntityManager {
 		}
 		final Set<Long> deltaRowIds = rowIdToRowVersionNumberFromUpdate.keySet();
 		if(!deltaRowIds.isEmpty()){
-			// Need to check all changes that have been applied since the version of the delta?
-			List<TableRowChange> rowChanges = tableRowTruthDao.listRowSetsKeysForTableGreaterThanVersion(tableIdString, versionOfDelta);
+			// Only the changes applied since the version of the delta that might include one of the rows need to be read from S3.
+			List<TableRowChange> rowChanges = tableRowTruthDao.listRowChangesThatMightContainRowIds(tableIdString, versionOfDelta, deltaRowIds);
 			// scan all changes greater than this row.
 			for (final TableRowChange rowChange : rowChanges) {
 				if(TableChangeType.ROW.equals(rowChange.getChangeType())){
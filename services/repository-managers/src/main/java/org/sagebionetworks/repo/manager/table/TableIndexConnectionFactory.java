@@ -1,5 +1,8 @@
 package org.sagebionetworks.repo.manager.table;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 
 /**
@@ -43,4 +46,21 @@ public interface TableIndexConnectionFactory {
 	 */
 	TableIndexManager connectToFirstIndex();
 
+	/**
+	 * Acquire an index manager for each database in the cluster.
+	 * 
+	 * @return
+	 */
+	List<TableIndexManager> connectToAllIndices();
+
+	/**
+	 * Acquire an index manager that wraps a connection to the instance that the
+	 * given table's index is moving to. The index should be built there before
+	 * the table is switched over to that instance.
+	 * 
+	 * @param tableId
+	 * @return Empty if the table's index is not moving.
+	 */
+	Optional<TableIndexManager> connectToRebalanceTarget(IdAndVersion tableId);
+
 }
@@ -1,5 +1,12 @@
 package org.sagebionetworks.repo.manager.table;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProviderFactory;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.table.cluster.ConnectionFactory;
@@ -21,16 +28,25 @@ public class TableIndexConnectionFactoryImpl implements TableIndexConnectionFact
 	private ObjectFieldModelResolverFactory objectFieldModelResolverFactory;
 	
 	private RowSearchProcessor searchProcessor;
+	
+	private ExecutorService tableSupportExecutorService;
+	
+	private StackConfiguration stackConfig;
+	
+	private Consumer consumer;
 
 	@Autowired
 	public TableIndexConnectionFactoryImpl(ConnectionFactory connectionFactory, TableManagerSupport tableManagerSupport,
 			MetadataIndexProviderFactory metaDataIndexProviderFactory, ObjectFieldModelResolverFactory objectFieldModelResolverFactory,
-			RowSearchProcessor searchProcessor) {
+			RowSearchProcessor searchProcessor, ExecutorService tableSupportExecutorService, StackConfiguration stackConfig, Consumer consumer) {
 		this.connectionFactory = connectionFactory;
 		this.tableManagerSupport = tableManagerSupport;
 		this.metaDataIndexProviderFactory = metaDataIndexProviderFactory;
 		this.objectFieldModelResolverFactory = objectFieldModelResolverFactory;
 		this.searchProcessor = searchProcessor;
+		this.tableSupportExecutorService = tableSupportExecutorService;
+		this.stackConfig = stackConfig;
+		this.consumer = consumer;
 	}
 
 	@Override
@@ -42,13 +58,31 @@ public class TableIndexConnectionFactoryImpl implements TableIndexConnectionFact
 		if(dao == null){
 			throw new TableIndexConnectionUnavailableException("Cannot connect to table: "+tableId);
 		}
-		return new TableIndexManagerImpl(dao, tableManagerSupport, metaDataIndexProviderFactory, objectFieldModelResolverFactory, searchProcessor);
+		return createManager(dao);
 	}
 	
 	@Override
 	public TableIndexManager connectToFirstIndex(){
 		TableIndexDAO dao = connectionFactory.getFirstConnection();
-		return new TableIndexManagerImpl(dao, tableManagerSupport, metaDataIndexProviderFactory, objectFieldModelResolverFactory, searchProcessor);
+		return createManager(dao);
+	}
+	
+	@Override
+	public List<TableIndexManager> connectToAllIndices() {
+		return connectionFactory.getAllConnections().stream().map(this::createManager).collect(Collectors.toList());
+	}
+	
+	@Override
+	public Optional<TableIndexManager> connectToRebalanceTarget(IdAndVersion tableId) {
+		if(tableId == null){
+			throw new IllegalArgumentException("TableId cannot be null");
+		}
+		return connectionFactory.getRebalanceConnection(tableId).map(this::createManager);
+	}
+	
+	TableIndexManager createManager(TableIndexDAO dao) {
+		return new TableIndexManagerImpl(dao, tableManagerSupport, metaDataIndexProviderFactory, objectFieldModelResolverFactory, searchProcessor,
+				tableSupportExecutorService, stackConfig.getTableIndexReplayPrefetchCount(), consumer);
 	}
 
 }
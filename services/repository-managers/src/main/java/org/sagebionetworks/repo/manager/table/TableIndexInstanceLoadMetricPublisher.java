@@ -0,0 +1,71 @@
+package org.sagebionetworks.repo.manager.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.repo.manager.metric.PeriodicMetricPublisher;
+import org.sagebionetworks.table.cluster.ConnectionFactory;
+import org.sagebionetworks.table.cluster.InstanceLoad;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Publishes the load on each database of the table's cluster to cloud watch,
+ * so the spread of the tables across the databases can be watched while
+ * databases are added. The request counts are the connections routed to each
+ * database since the previous publish.
+ *
+ */
+public class TableIndexInstanceLoadMetricPublisher extends PeriodicMetricPublisher {
+
+	public static final String DIMENSION_INSTANCE = "Instance";
+	public static final String METRIC_CONNECTION_REQUESTS = "Connection requests";
+	public static final String METRIC_ACTIVE_CONNECTIONS = "Active connections";
+	public static final String METRIC_IDLE_CONNECTIONS = "Idle connections";
+
+	@Autowired
+	ConnectionFactory connectionFactory;
+
+	public TableIndexInstanceLoadMetricPublisher(String nameSpacePrefix) {
+		super(nameSpacePrefix, "Table-Cluster");
+	}
+
+	@Override
+	protected List<ProfileData> createMetrics(Date timestamp) {
+		return createMetrics(connectionFactory.getInstanceLoads(), timestamp);
+	}
+
+	/**
+	 * Create the metrics of each database for a single period.
+	 *
+	 * @param loads
+	 * @param timestamp
+	 * @return
+	 */
+	List<ProfileData> createMetrics(List<InstanceLoad> loads, Date timestamp) {
+		List<ProfileData> metrics = new ArrayList<>(loads.size() * 3);
+		for (InstanceLoad load : loads) {
+			String instance = getInstanceName(load);
+			long requests = countSince(instance, load.getConnectionRequestCount());
+			metrics.add(createMetric(instance, METRIC_CONNECTION_REQUESTS, requests, timestamp));
+			metrics.add(createMetric(instance, METRIC_ACTIVE_CONNECTIONS, load.getActiveConnectionCount(), timestamp));
+			metrics.add(createMetric(instance, METRIC_IDLE_CONNECTIONS, load.getIdleConnectionCount(), timestamp));
+		}
+		return metrics;
+	}
+
+	static String getInstanceName(InstanceLoad load) {
+		return load.getEndpoint() + "/" + load.getSchema();
+	}
+
+	private ProfileData createMetric(String instance, String name, double value, Date timestamp) {
+		ProfileData profileData = createMetric(name, value, StandardUnit.Count, timestamp);
+		profileData.setDimension(Collections.singletonMap(DIMENSION_INSTANCE, instance));
+		return profileData;
+	}
+
+}
@@ -2,11 +2,13 @@ package org.sagebionetworks.repo.manager.table;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.manager.table.change.TableChangeMetaData;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.repo.model.table.ColumnModel;
 import org.sagebionetworks.repo.model.table.ColumnModelPage;
@@ -303,6 +305,21 @@ public interface TableIndexManager {
 	 */
 	Iterator<IdAndChecksum> streamOverIdsAndChecksums(Long salt, ViewFilter filter);
 
+	/**
+	 * Get the aggregated checksum of each bucket of objects defined by the provided
+	 * filter with an ID within the given range. See the following pusdo-sql:
+	 * </p>
+	 * <code>SELECT ID DIV bucketSize AS BUCKET, COUNT(*), SUM(CRC32(CONCAT(salt','-',ETAG,'-',VERSION,'-',BENEFACTOR_ID))) AS CHECK_SUM ... WHERE ID >= minId AND ID < maxId GROUP BY BUCKET ORDER BY BUCKET ASC</code>
+	 * 
+	 * @param salt
+	 * @param filter
+	 * @param minId      The minimum ID (inclusive).
+	 * @param maxId      The maximum ID (exclusive).
+	 * @param bucketSize
+	 * @return
+	 */
+	List<IdRangeChecksum> getIdRangeChecksums(Long salt, ViewFilter filter, Long minId, Long maxId, Long bucketSize);
+
 	/**
 	 * Is the synchronization lock for the given view expires?
 	 * 
@@ -316,5 +333,56 @@ public interface TableIndexManager {
 	 * @param idAndVersion
 	 */
 	void resetViewSynchronizeLock(ReplicationType type, IdAndVersion idAndVersion);
+	
+	/**
+	 * Get the parent of the current version of each of the given objects from
+	 * the replication.
+	 * 
+	 * @param type
+	 * @param objectIds
+	 * @return Map of object id to parent id.
+	 */
+	Map<Long, Long> getParentIds(ReplicationType type, Set<Long> objectIds);
+	
+	/**
+	 * Queue the given objects as changed for the given view.
+	 * 
+	 * @param viewId
+	 * @param objectIds
+	 */
+	void addPendingViewDeltas(IdAndVersion viewId, Set<Long> objectIds);
+	
+	/**
+	 * Get a page of the objects queued as changed for the given view.
+	 * 
+	 * @param viewId
+	 * @param limit
+	 * @return
+	 */
+	Set<Long> getPendingViewDeltas(IdAndVersion viewId, long limit);
+	
+	/**
+	 * Remove the given objects from the changes queued for the given view.
+	 * 
+	 * @param viewId
+	 * @param objectIds
+	 */
+	void removePendingViewDeltas(IdAndVersion viewId, Set<Long> objectIds);
+	
+	/**
+	 * Is the full scan for out-of-date rows of the given view due?
+	 * 
+	 * @param viewId
+	 * @return
+	 */
+	boolean isViewDeltaScanExpired(IdAndVersion viewId);
+	
+	/**
+	 * Reset the expiration of the full scan for out-of-date rows of the given
+	 * view.
+	 * 
+	 * @param viewId
+	 */
+	void resetViewDeltaScanExpiration(IdAndVersion viewId);
 
 }
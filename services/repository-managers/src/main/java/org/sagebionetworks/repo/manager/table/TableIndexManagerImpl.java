@@ -3,24 +3,32 @@ package org.sagebionetworks.repo.manager.table;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.cloudwatch.Consumer;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.manager.table.change.ListColumnIndexTableChange;
 import org.sagebionetworks.repo.manager.table.change.TableChangeMetaData;
+import org.sagebionetworks.repo.manager.table.change.TableChangeReplayStatistics;
 import org.sagebionetworks.repo.manager.table.metadata.DefaultColumnModel;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProvider;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProviderFactory;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.NextPageToken;
 import org.sagebionetworks.repo.model.dbo.dao.table.InvalidStatusTokenException;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
@@ -30,6 +38,7 @@ import org.sagebionetworks.repo.model.table.ColumnModelPage;
 import org.sagebionetworks.repo.model.table.ColumnType;
 import org.sagebionetworks.repo.model.table.ObjectDataDTO;
 import org.sagebionetworks.repo.model.table.ReplicationType;
+import org.sagebionetworks.repo.model.table.TableChangeType;
 import org.sagebionetworks.repo.model.table.TableConstants;
 import org.sagebionetworks.repo.model.table.TableUnavailableException;
 import org.sagebionetworks.repo.model.table.ViewEntityType;
@@ -55,6 +64,7 @@ import org.sagebionetworks.table.model.ListColumnRowChanges;
 import org.sagebionetworks.table.model.SchemaChange;
 import org.sagebionetworks.table.model.SearchChange;
 import org.sagebionetworks.table.model.SparseChangeSet;
+import org.sagebionetworks.table.model.TableChange;
 import org.sagebionetworks.table.query.util.ColumnTypeListMappings;
 import org.sagebionetworks.util.PaginationIterator;
 import org.sagebionetworks.util.PaginationProvider;
@@ -80,13 +90,33 @@ public class TableIndexManagerImpl implements TableIndexManager {
 	 */
 	public static final long SYNCHRONIZATION_FEQUENCY_MS = 1000 * 60 * 1000; // 1000 minutes.
 	
+	/**
+	 * Each view is scanned for out-of-date rows that were not queued by the
+	 * replication at this frequency.
+	 */
+	public static final long VIEW_DELTA_SCAN_FREQUENCY_MS = 1000 * 60 * 60; // 60 minutes.
+	
 	private final TableIndexDAO tableIndexDao;
 	private final TableManagerSupport tableManagerSupport;
 	private final MetadataIndexProviderFactory metadataIndexProviderFactory;
 	private final ObjectFieldModelResolverFactory objectFieldModelResolverFactory;
 	private final RowSearchProcessor searchProcessor;
+	private final ExecutorService replayExecutor;
+	private final int replayPrefetchCount;
+	private final Consumer consumer;
 
 	public TableIndexManagerImpl(TableIndexDAO dao, TableManagerSupport tableManagerSupport, MetadataIndexProviderFactory metadataIndexProviderFactory, ObjectFieldModelResolverFactory objectFieldModelResolverFactory, RowSearchProcessor searchProcessor){
+		this(dao, tableManagerSupport, metadataIndexProviderFactory, objectFieldModelResolverFactory, searchProcessor, null, 0, null);
+	}
+
+	/**
+	 * @param replayExecutor      Optional executor used to load table changes ahead of the change being applied. When
+	 *                            null, changes are loaded and applied one at a time.
+	 * @param replayPrefetchCount The maximum number of changes to load ahead of the change being applied.
+	 * @param consumer            Optional consumer for the replay metrics.
+	 */
+	public TableIndexManagerImpl(TableIndexDAO dao, TableManagerSupport tableManagerSupport, MetadataIndexProviderFactory metadataIndexProviderFactory, ObjectFieldModelResolverFactory objectFieldModelResolverFactory, RowSearchProcessor searchProcessor,
+			ExecutorService replayExecutor, int replayPrefetchCount, Consumer consumer){
 		ValidateArgument.required(dao, "TableIndexDao");
 		ValidateArgument.required(tableManagerSupport, "TableManagerSupport");
 		ValidateArgument.required(metadataIndexProviderFactory, "MetadataIndexProviderFactory");
@@ -97,6 +127,9 @@ public class TableIndexManagerImpl implements TableIndexManager {
 		this.metadataIndexProviderFactory = metadataIndexProviderFactory;
 		this.objectFieldModelResolverFactory = objectFieldModelResolverFactory;
 		this.searchProcessor = searchProcessor;
+		this.replayExecutor = replayExecutor;
+		this.replayPrefetchCount = replayPrefetchCount;
+		this.consumer = consumer;
 	}
 	/*
 	 * (non-Javadoc)
@@ -122,6 +155,19 @@ public class TableIndexManagerImpl implements TableIndexManager {
 	 */
 	@Override
 	public void applyChangeSetToIndex(final IdAndVersion tableId, final SparseChangeSet rowset, final long changeSetVersionNumber) {
+		applyChangeSetToIndex(tableId, rowset, rowset.getFileHandleIdsInSparseChangeSet(), changeSetVersionNumber);
+	}
+	
+	/**
+	 * Apply the given change set to the index, associating the given file handle ids with the table.
+	 * 
+	 * @param tableId
+	 * @param rowset
+	 * @param fileHandleIds All of the file handle ids referenced by the change set. When multiple change sets are coalesced
+	 *                      this includes the ids of values that were replaced by a later change.
+	 * @param changeSetVersionNumber
+	 */
+	void applyChangeSetToIndex(final IdAndVersion tableId, final SparseChangeSet rowset, final Set<Long> fileHandleIds, final long changeSetVersionNumber) {
 		// Validate all rows have the same version number
 		// Has this version already been applied to the table index?
 		final long currentVersion = tableIndexDao.getMaxCurrentCompleteVersionForTable(tableId);
@@ -136,8 +182,6 @@ public class TableIndexManagerImpl implements TableIndexManager {
 				for(Grouping grouping: rowset.groupByValidValues()) {
 					tableIndexDao.createOrUpdateOrDeleteRows(tableId, grouping);
 				}
-				// Extract all file handle IDs from this set
-				Set<Long> fileHandleIds = rowset.getFileHandleIdsInSparseChangeSet();
 				if (!fileHandleIds.isEmpty()) {
 					tableIndexDao.applyFileHandleIdsToTable(tableId, fileHandleIds);
 				}
@@ -207,6 +251,10 @@ public class TableIndexManagerImpl implements TableIndexManager {
 	public void deleteTableIndex(final IdAndVersion tableId) {
 		// delete all tables for this index.
 		tableIndexDao.deleteTable(tableId);
+		if (!tableId.getVersion().isPresent()) {
+			// changes queued for a view are applied by the rebuild.
+			tableIndexDao.clearPendingViewDeltas(tableId.getId());
+		}
 	}
 
 	@Override
@@ -636,6 +684,38 @@ public class TableIndexManagerImpl implements TableIndexManager {
 	 */
 	String buildIndexToLatestChange(final IdAndVersion idAndVersion, final Iterator<TableChangeMetaData> iterator,
 			final long targetChangeNumber, final String tableResetToken) throws NotFoundException, IOException {
+		String lastEtag;
+		if (replayExecutor != null && replayPrefetchCount > 1) {
+			lastEtag = applyChangesPipelined(idAndVersion, iterator, targetChangeNumber, tableResetToken);
+		} else {
+			lastEtag = applyChangesSequentially(idAndVersion, iterator, targetChangeNumber, tableResetToken);
+		}
+
+		/*
+		 * When building a table to the current version, we unconditionally apply the
+		 * current table schema to the index as a workaround for PLFM-5639. This is a
+		 * fix for tables with schema changes that were not captured in the table's
+		 * history.
+		 */
+		List<ColumnModel> boundSchema = tableManagerSupport.getTableSchema(idAndVersion);
+		boolean isTableView = false;
+		List<ColumnChangeDetails> changes = setIndexSchema(idAndVersion, isTableView, boundSchema);
+		if(changes != null && !changes.isEmpty()) {
+			log.warn("PLFM-5639: table: "+idAndVersion.toString()+" required the following schema changes: "+changes);
+		}
+		// now that table is created and populated the indices on the table can be optimized.
+		optimizeTableIndices(idAndVersion);
+		return lastEtag;
+	}
+	
+	/**
+	 * Load and apply each change that has not been applied to the index, one at a
+	 * time, up to the target change number.
+	 * 
+	 * @return The etag of the last change applied or null if no changes were applied.
+	 */
+	String applyChangesSequentially(final IdAndVersion idAndVersion, final Iterator<TableChangeMetaData> iterator,
+			final long targetChangeNumber, final String tableResetToken) throws NotFoundException, IOException {
 		String lastEtag = null;
 		// Inspect each change.
 		while(iterator.hasNext()) {
@@ -653,24 +733,268 @@ public class TableIndexManagerImpl implements TableIndexManager {
 				lastEtag = changeMetadata.getETag();
 			}
 		}
-
-		/*
-		 * When building a table to the current version, we unconditionally apply the
-		 * current table schema to the index as a workaround for PLFM-5639. This is a
-		 * fix for tables with schema changes that were not captured in the table's
-		 * history.
-		 */
-		List<ColumnModel> boundSchema = tableManagerSupport.getTableSchema(idAndVersion);
-		boolean isTableView = false;
-		List<ColumnChangeDetails> changes = setIndexSchema(idAndVersion, isTableView, boundSchema);
-		if(changes != null && !changes.isEmpty()) {
-			log.warn("PLFM-5639: table: "+idAndVersion.toString()+" required the following schema changes: "+changes);
+		return lastEtag;
+	}
+	
+	/**
+	 * Apply each change that has not been applied to the index up to the target
+	 * change number. Up to {@link #replayPrefetchCount} changes are loaded in
+	 * parallel ahead of the change being applied. Consecutive row changes that
+	 * share the same schema are coalesced (up to {@link #BATCH_SIZE} rows) and
+	 * applied in a single transaction, so a row that was changed many times is
+	 * only written once.
+	 * 
+	 * @return The etag of the last change applied or null if no changes were applied.
+	 */
+	String applyChangesPipelined(final IdAndVersion idAndVersion, final Iterator<TableChangeMetaData> iterator,
+			final long targetChangeNumber, final String tableResetToken) throws NotFoundException, IOException {
+		// The caller holds the exclusive lock so the version of the index cannot change while we work.
+		final long startingVersion = getCurrentVersionOfIndex(idAndVersion);
+		TableChangeReplayStatistics statistics = new TableChangeReplayStatistics();
+		ChangePrefetcher prefetcher = new ChangePrefetcher(iterator, startingVersion, targetChangeNumber, statistics);
+		String lastEtag = null;
+		try {
+			PrefetchedChange next = prefetcher.next();
+			while (next != null) {
+				List<PrefetchedChange> batch = new LinkedList<>();
+				batch.add(next);
+				if (TableChangeType.ROW.equals(next.getMetadata().getChangeType())) {
+					List<ColumnModel> batchSchema = next.<SparseChangeSet>getChangeData().getChange().getSchema();
+					int rowCount = next.<SparseChangeSet>getChangeData().getChange().getRowCount();
+					next = prefetcher.next();
+					while (next != null && TableChangeType.ROW.equals(next.getMetadata().getChangeType())) {
+						SparseChangeSet nextChange = next.<SparseChangeSet>getChangeData().getChange();
+						if (rowCount + nextChange.getRowCount() > BATCH_SIZE || !batchSchema.equals(nextChange.getSchema())) {
+							break;
+						}
+						rowCount += nextChange.getRowCount();
+						batch.add(next);
+						next = prefetcher.next();
+					}
+				} else {
+					next = prefetcher.next();
+				}
+				TableChangeMetaData lastInBatch = batch.get(batch.size() - 1).getMetadata();
+				tableManagerSupport.attemptToUpdateTableProgress(idAndVersion, tableResetToken,
+						"Applying change: " + lastInBatch.getChangeNumber(), lastInBatch.getChangeNumber(), targetChangeNumber);
+				applyPrefetchedChangesToIndex(idAndVersion, batch, statistics);
+				lastEtag = lastInBatch.getETag();
+			}
+		} finally {
+			prefetcher.cancel();
+		}
+		log.info("Replayed changes for: " + idAndVersion + " " + statistics);
+		if (consumer != null && statistics.getChangesLoaded() > 0) {
+			consumer.addProfileData(statistics.toProfileData(TableIndexManagerImpl.class.getName(), new Date()));
 		}
-		// now that table is created and populated the indices on the table can be optimized.
-		optimizeTableIndices(idAndVersion);
 		return lastEtag;
 	}
 	
+	/**
+	 * Apply a batch of loaded changes to the index. A batch is either a single
+	 * change of any type, or one or more row changes with the same schema.
+	 * 
+	 * @param idAndVersion
+	 * @param batch
+	 * @param statistics
+	 * @throws IOException 
+	 */
+	void applyPrefetchedChangesToIndex(IdAndVersion idAndVersion, List<PrefetchedChange> batch, TableChangeReplayStatistics statistics) throws IOException {
+		long start = System.nanoTime();
+		long rowsRead = 0L;
+		long rowsWritten = 0L;
+		PrefetchedChange first = batch.get(0);
+		switch (first.getMetadata().getChangeType()) {
+		case ROW:
+			List<ChangeData<SparseChangeSet>> rowChanges = new ArrayList<>(batch.size());
+			for (PrefetchedChange change : batch) {
+				ChangeData<SparseChangeSet> rowChange = change.getChangeData();
+				rowsRead += rowChange.getChange().getRowCount();
+				rowChanges.add(rowChange);
+			}
+			rowsWritten = applyRowChangesToIndex(idAndVersion, rowChanges);
+			break;
+		case COLUMN:
+			applySchemaChangeToIndex(idAndVersion, first.getChangeData());
+			break;
+		case SEARCH:
+			applySearchChangeToIndex(idAndVersion, first.getChangeData());
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown type: "+first.getMetadata().getChangeType());
+		}
+		statistics.changesApplied(System.nanoTime() - start, rowsRead, rowsWritten);
+	}
+	
+	/**
+	 * Coalesce the provided row changes and apply the result to the index in a
+	 * single transaction.
+	 * 
+	 * @param idAndVersion
+	 * @param rowChanges Row changes in change number order that all share the same schema.
+	 * @return The number of rows written to the index.
+	 */
+	long applyRowChangesToIndex(IdAndVersion idAndVersion, List<ChangeData<SparseChangeSet>> rowChanges) {
+		if (rowChanges.size() == 1) {
+			applyRowChangeToIndex(idAndVersion, rowChanges.get(0));
+			return rowChanges.get(0).getChange().getRowCount();
+		}
+		List<SparseChangeSet> changeSets = new ArrayList<>(rowChanges.size());
+		// File handles replaced by a later change must still be associated with the table.
+		Set<Long> fileHandleIds = new HashSet<>();
+		for (ChangeData<SparseChangeSet> rowChange : rowChanges) {
+			changeSets.add(rowChange.getChange());
+			fileHandleIds.addAll(rowChange.getChange().getFileHandleIdsInSparseChangeSet());
+		}
+		SparseChangeSet coalesced = SparseChangeSet.coalesce(changeSets);
+		long lastChangeNumber = rowChanges.get(rowChanges.size() - 1).getChangeNumber();
+		boolean isTableView = false;
+		setIndexSchema(idAndVersion, isTableView, coalesced.getSchema());
+		applyChangeSetToIndex(idAndVersion, coalesced, fileHandleIds, lastChangeNumber);
+		return coalesced.getRowCount();
+	}
+	
+	/**
+	 * The class of the change data for the given type of change.
+	 * 
+	 * @param type
+	 * @return
+	 */
+	static Class<? extends TableChange> getChangeClass(TableChangeType type) {
+		switch (type) {
+		case ROW:
+			return SparseChangeSet.class;
+		case COLUMN:
+			return SchemaChange.class;
+		case SEARCH:
+			return SearchChange.class;
+		default:
+			throw new IllegalArgumentException("Unknown type: " + type);
+		}
+	}
+	
+	/**
+	 * A table change that is being loaded on the replay executor.
+	 */
+	static class PrefetchedChange {
+		
+		private final TableChangeMetaData metadata;
+		private final Future<ChangeData<? extends TableChange>> future;
+		private final TableChangeReplayStatistics statistics;
+		
+		PrefetchedChange(TableChangeMetaData metadata, Future<ChangeData<? extends TableChange>> future, TableChangeReplayStatistics statistics) {
+			this.metadata = metadata;
+			this.future = future;
+			this.statistics = statistics;
+		}
+		
+		TableChangeMetaData getMetadata() {
+			return metadata;
+		}
+		
+		/**
+		 * Wait for the change data to be loaded.
+		 * 
+		 * @return
+		 * @throws IOException
+		 */
+		@SuppressWarnings("unchecked")
+		<T extends TableChange> ChangeData<T> getChangeData() throws IOException {
+			long start = System.nanoTime();
+			try {
+				return (ChangeData<T>) future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new RuntimeException(cause);
+			} finally {
+				statistics.waitedForChange(System.nanoTime() - start);
+			}
+		}
+		
+		void cancel() {
+			future.cancel(true);
+		}
+	}
+	
+	/**
+	 * Reads the changes that need to be applied to the index from the change
+	 * iterator and keeps up to {@link #replayPrefetchCount} of them loading on the
+	 * replay executor.
+	 */
+	class ChangePrefetcher {
+		
+		private final Iterator<TableChangeMetaData> iterator;
+		private final long startingVersion;
+		private final long targetChangeNumber;
+		private final TableChangeReplayStatistics statistics;
+		private final LinkedList<PrefetchedChange> window;
+		private boolean done;
+		
+		ChangePrefetcher(Iterator<TableChangeMetaData> iterator, long startingVersion, long targetChangeNumber, TableChangeReplayStatistics statistics) {
+			this.iterator = iterator;
+			this.startingVersion = startingVersion;
+			this.targetChangeNumber = targetChangeNumber;
+			this.statistics = statistics;
+			this.window = new LinkedList<>();
+			this.done = false;
+		}
+		
+		/**
+		 * @return The next change to apply or null if there are no more changes to apply.
+		 */
+		PrefetchedChange next() {
+			fill();
+			PrefetchedChange next = window.poll();
+			// Start loading the change that replaces the one taken from the window.
+			fill();
+			return next;
+		}
+		
+		private void fill() {
+			while (!done && window.size() < replayPrefetchCount) {
+				if (!iterator.hasNext()) {
+					done = true;
+					break;
+				}
+				TableChangeMetaData metadata = iterator.next();
+				if (metadata.getChangeNumber() > targetChangeNumber) {
+					// all changes up to the target have been read.
+					done = true;
+					break;
+				}
+				if (metadata.getChangeNumber() <= startingVersion) {
+					// already applied to the index.
+					continue;
+				}
+				Class<? extends TableChange> changeClass = getChangeClass(metadata.getChangeType());
+				Future<ChangeData<? extends TableChange>> future = replayExecutor.submit(() -> {
+					long start = System.nanoTime();
+					ChangeData<? extends TableChange> data = metadata.loadChangeData(changeClass);
+					statistics.changeLoaded(System.nanoTime() - start);
+					return data;
+				});
+				window.add(new PrefetchedChange(metadata, future, statistics));
+			}
+		}
+		
+		/**
+		 * Cancel any change that is still loading.
+		 */
+		void cancel() {
+			window.forEach(PrefetchedChange::cancel);
+			window.clear();
+		}
+	}
+	
 	/**
 	 * Apply the provided change to the provided index.
 	 * 
@@ -910,6 +1234,12 @@ public class TableIndexManagerImpl implements TableIndexManager {
 		}, BATCH_SIZE);
 	}
 	
+	@Override
+	public List<IdRangeChecksum> getIdRangeChecksums(Long salt, ViewFilter filter, Long minId, Long maxId,
+			Long bucketSize) {
+		return tableIndexDao.getIdRangeChecksumsForFilter(salt, filter, minId, maxId, bucketSize);
+	}
+	
 	@Override
 	public boolean isViewSynchronizeLockExpired(ReplicationType type, IdAndVersion idAndVersion) {
 		return tableIndexDao.isSynchronizationLockExpiredForObject(type,idAndVersion.getId());
@@ -922,6 +1252,50 @@ public class TableIndexManagerImpl implements TableIndexManager {
 		tableIndexDao.setSynchronizationLockExpiredForObject(type, idAndVersion.getId(), newExpirationDateMs);
 	}
 	
+	@Override
+	public Map<Long, Long> getParentIds(ReplicationType type, Set<Long> objectIds) {
+		return tableIndexDao.getParentIds(type, objectIds);
+	}
+	
+	@Override
+	public void addPendingViewDeltas(IdAndVersion viewId, Set<Long> objectIds) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(objectIds, "objectIds");
+		if (objectIds.isEmpty()) {
+			return;
+		}
+		tableIndexDao.addPendingViewDeltas(viewId.getId(), objectIds);
+	}
+	
+	@Override
+	public Set<Long> getPendingViewDeltas(IdAndVersion viewId, long limit) {
+		ValidateArgument.required(viewId, "viewId");
+		return tableIndexDao.getPendingViewDeltas(viewId.getId(), limit);
+	}
+	
+	@Override
+	public void removePendingViewDeltas(IdAndVersion viewId, Set<Long> objectIds) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(objectIds, "objectIds");
+		if (objectIds.isEmpty()) {
+			return;
+		}
+		tableIndexDao.removePendingViewDeltas(viewId.getId(), objectIds);
+	}
+	
+	@Override
+	public boolean isViewDeltaScanExpired(IdAndVersion viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		return tableIndexDao.isViewDeltaScanExpired(viewId.getId());
+	}
+	
+	@Override
+	public void resetViewDeltaScanExpiration(IdAndVersion viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		long newExpirationDateMs = System.currentTimeMillis() + VIEW_DELTA_SCAN_FREQUENCY_MS;
+		tableIndexDao.setViewDeltaScanExpiration(viewId.getId(), newExpirationDateMs);
+	}
+	
 	/**
 	 * @param tableId The id of the table
 	 * @return The schema currently used by the table in the index
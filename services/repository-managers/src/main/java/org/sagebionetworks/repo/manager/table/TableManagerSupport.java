@@ -304,6 +304,17 @@ public interface TableManagerSupport {
 	 */
 	Set<Long> getAccessibleBenefactors(UserInfo user, ViewScopeType scopeType, Set<Long> benefactorIds);
 
+	/**
+	 * Get the sub-set of the benefactors currently applied to the rows of the
+	 * given view for which the given user has read access. If the view's index
+	 * does not exist yet an empty set is returned.
+	 *
+	 * @param user
+	 * @param viewId
+	 * @return
+	 */
+	Set<Long> getAccessibleBenefactors(UserInfo user, IdAndVersion viewId);
+
 	/**
 	 * Get the default ColumnModels for a view based on the object type and the
 	 * viewTypeMask.
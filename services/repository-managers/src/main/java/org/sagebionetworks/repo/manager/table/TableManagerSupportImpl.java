@@ -2,6 +2,7 @@ package org.sagebionetworks.repo.manager.table;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -49,6 +50,7 @@ import org.sagebionetworks.util.TimeoutUtils;
 import org.sagebionetworks.util.ValidateArgument;
 import org.sagebionetworks.workers.util.semaphore.WriteReadSemaphoreRunner;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -422,6 +424,21 @@ public class TableManagerSupportImpl implements TableManagerSupport {
 		return authorizationManager.getAccessibleBenefactors(user, benefactorType, benefactorIds);
 	}
 
+	@Override
+	public Set<Long> getAccessibleBenefactors(UserInfo user, IdAndVersion viewId) {
+		ValidateArgument.required(user, "user");
+		ValidateArgument.required(viewId, "viewId");
+		TableIndexDAO indexDao = tableConnectionFactory.getConnection(viewId);
+		Set<Long> viewBenefactors = null;
+		try {
+			viewBenefactors = indexDao.getDistinctLongValues(viewId, TableConstants.ROW_BENEFACTOR);
+		} catch (BadSqlGrammarException e) { // view has not been created yet
+			viewBenefactors = Collections.emptySet();
+		}
+		ViewScopeType scopeType = getViewScopeType(viewId);
+		return getAccessibleBenefactors(user, scopeType, viewBenefactors);
+	}
+
 	@Override
 	public EntityType getTableEntityType(IdAndVersion idAndVersion) {
 		return nodeDao.getNodeTypeById(idAndVersion.getId().toString());
@@ -6,6 +6,10 @@ import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.common.util.progress.ProgressingCallable;
@@ -23,6 +27,7 @@ import org.sagebionetworks.repo.model.table.Query;
 import org.sagebionetworks.repo.model.table.QueryBundleRequest;
 import org.sagebionetworks.repo.model.table.QueryNextPageToken;
 import org.sagebionetworks.repo.model.table.QueryOptions;
+import org.sagebionetworks.repo.model.table.QueryPartTiming;
 import org.sagebionetworks.repo.model.table.QueryResult;
 import org.sagebionetworks.repo.model.table.QueryResultBundle;
 import org.sagebionetworks.repo.model.table.Row;
@@ -47,6 +52,7 @@ import org.sagebionetworks.table.query.model.Pagination;
 import org.sagebionetworks.table.query.model.QuerySpecification;
 import org.sagebionetworks.table.query.model.TextMatchesPredicate;
 import org.sagebionetworks.table.query.model.WhereClause;
+import org.sagebionetworks.table.query.util.QuerySpecificationCache;
 import org.sagebionetworks.table.query.util.SimpleAggregateQueryException;
 import org.sagebionetworks.table.query.util.SqlElementUntils;
 import org.sagebionetworks.util.ValidateArgument;
@@ -58,6 +64,11 @@ import org.springframework.jdbc.BadSqlGrammarException;
 public class TableQueryManagerImpl implements TableQueryManager {
 
 	public static final long MAX_ROWS_PER_CALL = 100;
+	
+	public static final String PART_QUERY = "query";
+	public static final String PART_COUNT = "count";
+	public static final String PART_SUM_FILE_SIZES = "sumFileSizes";
+	public static final String PART_FACET_PREFIX = "facet:";
 
 	@Autowired
 	TableManagerSupport tableManagerSupport;
@@ -72,6 +83,26 @@ public class TableQueryManagerImpl implements TableQueryManager {
 	public void setMaxBytesPerRequest(long maxBytesPerRequest) {
 		this.maxBytesPerRequest = maxBytesPerRequest;
 	}
+	
+	/**
+	 * Injected via spring
+	 */
+	boolean concurrentQueryPartsEnabled;
+	ExecutorService queryPartExecutor;
+
+	/**
+	 * When true, the count, facet and sum-file-size queries will be run
+	 * concurrently with the main query using the query part executor.
+	 * 
+	 * @param concurrentQueryPartsEnabled
+	 */
+	public void setConcurrentQueryPartsEnabled(boolean concurrentQueryPartsEnabled) {
+		this.concurrentQueryPartsEnabled = concurrentQueryPartsEnabled;
+	}
+
+	public void setQueryPartExecutor(ExecutorService queryPartExecutor) {
+		this.queryPartExecutor = queryPartExecutor;
+	}
 
 	/*
 	 * (non-Javadoc)
@@ -286,33 +317,37 @@ public class TableQueryManagerImpl implements TableQueryManager {
 			queryToRun = query;
 		}
 
-		// run the actual query if needed.
-		if (rowHandler != null) {
-			// run the query
-			RowSet rowSet = runQueryAsStream(progressCallback, queryToRun, rowHandler, indexDao);
-			QueryResult queryResult = new QueryResult();
-			queryResult.setQueryResults(rowSet);
-			bundle.setQueryResult(queryResult);
-		}
+		if (concurrentQueryPartsEnabled && queryPartExecutor != null) {
+			runQueryPartsConcurrently(progressCallback, queryToRun, rowHandler, facetModel, indexDao, options, bundle);
+		} else {
+			// run the actual query if needed.
+			if (rowHandler != null) {
+				// run the query
+				RowSet rowSet = runQueryAsStream(progressCallback, queryToRun, rowHandler, indexDao);
+				QueryResult queryResult = new QueryResult();
+				queryResult.setQueryResults(rowSet);
+				bundle.setQueryResult(queryResult);
+			}
 
-		// run the count query if needed.
-		if (options.runCount()) {
-			// count requested.
-			Long count = runCountQuery(queryToRun, indexDao);
-			bundle.setQueryCount(count);
-		}
+			// run the count query if needed.
+			if (options.runCount()) {
+				// count requested.
+				Long count = runCountQuery(queryToRun, indexDao);
+				bundle.setQueryCount(count);
+			}
 
-		// run the facet counts if needed
-		if (options.returnFacets()) {
-			// use original query instead of queryToRun because need the where clause that
-			// was not modified by any facets
-			List<FacetColumnResult> facetResults = runFacetQueries(facetModel, indexDao);
-			bundle.setFacets(facetResults);
-		}
-		
-		if(options.runSumFileSizes()) {
-			SumFileSizes sumFileSizes = runSumFileSize(queryToRun, indexDao);
-			bundle.setSumFileSizes(sumFileSizes);
+			// run the facet counts if needed
+			if (options.returnFacets()) {
+				// use original query instead of queryToRun because need the where clause that
+				// was not modified by any facets
+				List<FacetColumnResult> facetResults = runFacetQueries(facetModel, indexDao);
+				bundle.setFacets(facetResults);
+			}
+
+			if (options.runSumFileSizes()) {
+				SumFileSizes sumFileSizes = runSumFileSize(queryToRun, indexDao);
+				bundle.setSumFileSizes(sumFileSizes);
+			}
 		}
 		
 		if(options.returnLastUpdatedOn()) {
@@ -339,12 +374,168 @@ public class TableQueryManagerImpl implements TableQueryManager {
 
 		List<FacetColumnResult> facetResults = new ArrayList<>();
 		for (FacetTransformer facetQueryTransformer : facetModel.getFacetInformationQueries()) {
-			RowSet rowSet = indexDao.query(null, facetQueryTransformer.getFacetSqlQuery());
-			facetResults.add(facetQueryTransformer.translateToResult(rowSet));
+			facetResults.add(runFacetQuery(facetQueryTransformer, indexDao));
 		}
 		return facetResults;
 	}
 
+	/**
+	 * Run the query for a single facet column.
+	 * 
+	 * @param facetQueryTransformer
+	 * @param indexDao
+	 * @return
+	 */
+	FacetColumnResult runFacetQuery(FacetTransformer facetQueryTransformer, TableIndexDAO indexDao) {
+		RowSet rowSet = indexDao.query(null, facetQueryTransformer.getFacetSqlQuery());
+		return facetQueryTransformer.translateToResult(rowSet);
+	}
+
+	/**
+	 * Run the count, facet and sum-file-size queries on the query part executor
+	 * while the main query runs on the calling thread. Each part is an
+	 * independent read against the table index, so the end-to-end time is that
+	 * of the slowest part rather than the sum of all parts. The page size of the
+	 * main query is still bounded by the max bytes per request. The time spent
+	 * on each part is added to the bundle.
+	 * 
+	 * @param progressCallback
+	 * @param queryToRun
+	 * @param rowHandler
+	 * @param facetModel
+	 * @param indexDao
+	 * @param options
+	 * @param bundle
+	 */
+	void runQueryPartsConcurrently(ProgressCallback progressCallback, SqlQuery queryToRun, RowHandler rowHandler,
+			FacetModel facetModel, TableIndexDAO indexDao, QueryOptions options, QueryResultBundle bundle) {
+		// All parts only read the query so they can share it.
+		List<Future<?>> pending = new ArrayList<>();
+		Future<TimedPart<Long>> countFuture = null;
+		if (options.runCount()) {
+			countFuture = submitPart(PART_COUNT, () -> runCountQuery(queryToRun, indexDao));
+			pending.add(countFuture);
+		}
+		List<Future<TimedPart<FacetColumnResult>>> facetFutures = new ArrayList<>();
+		if (options.returnFacets()) {
+			// use original query instead of queryToRun because need the where clause that
+			// was not modified by any facets
+			for (FacetTransformer transformer : facetModel.getFacetInformationQueries()) {
+				facetFutures.add(submitPart(PART_FACET_PREFIX + transformer.getColumnName(),
+						() -> runFacetQuery(transformer, indexDao)));
+			}
+			pending.addAll(facetFutures);
+		}
+		Future<TimedPart<SumFileSizes>> sumFuture = null;
+		if (options.runSumFileSizes()) {
+			sumFuture = submitPart(PART_SUM_FILE_SIZES, () -> runSumFileSize(queryToRun, indexDao));
+			pending.add(sumFuture);
+		}
+		try {
+			List<QueryPartTiming> timings = new ArrayList<>();
+			// the main query runs on this thread.
+			if (rowHandler != null) {
+				long start = System.currentTimeMillis();
+				RowSet rowSet = runQueryAsStream(progressCallback, queryToRun, rowHandler, indexDao);
+				timings.add(createPartTiming(PART_QUERY, System.currentTimeMillis() - start));
+				QueryResult queryResult = new QueryResult();
+				queryResult.setQueryResults(rowSet);
+				bundle.setQueryResult(queryResult);
+			}
+			if (countFuture != null) {
+				TimedPart<Long> count = getPart(countFuture);
+				bundle.setQueryCount(count.result);
+				timings.add(count.toTiming());
+			}
+			if (options.returnFacets()) {
+				List<FacetColumnResult> facetResults = new ArrayList<>(facetFutures.size());
+				for (Future<TimedPart<FacetColumnResult>> facetFuture : facetFutures) {
+					TimedPart<FacetColumnResult> facet = getPart(facetFuture);
+					facetResults.add(facet.result);
+					timings.add(facet.toTiming());
+				}
+				bundle.setFacets(facetResults);
+			}
+			if (sumFuture != null) {
+				TimedPart<SumFileSizes> sum = getPart(sumFuture);
+				bundle.setSumFileSizes(sum.result);
+				timings.add(sum.toTiming());
+			}
+			bundle.setPartTimings(timings);
+		} finally {
+			// If any part failed there is no reason to let the others finish.
+			for (Future<?> future : pending) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Submit a single part of a query to the query part executor.
+	 * 
+	 * @param partName
+	 * @param part
+	 * @return
+	 */
+	<T> Future<TimedPart<T>> submitPart(String partName, Callable<T> part) {
+		return queryPartExecutor.submit(() -> {
+			long start = System.currentTimeMillis();
+			T result = part.call();
+			return new TimedPart<T>(partName, result, System.currentTimeMillis() - start);
+		});
+	}
+
+	/**
+	 * Wait for the given part to finish. Any exception thrown by the part is
+	 * re-thrown on the calling thread.
+	 * 
+	 * @param future
+	 * @return
+	 */
+	static <T> TimedPart<T> getPart(Future<TimedPart<T>> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	static QueryPartTiming createPartTiming(String partName, long elapsedMS) {
+		QueryPartTiming timing = new QueryPartTiming();
+		timing.setPartName(partName);
+		timing.setElapsedMS(elapsedMS);
+		return timing;
+	}
+
+	/**
+	 * The result of a single query part and the time it took to run.
+	 *
+	 * @param <T>
+	 */
+	static class TimedPart<T> {
+
+		final String partName;
+		final T result;
+		final long elapsedMS;
+
+		TimedPart(String partName, T result, long elapsedMS) {
+			this.partName = partName;
+			this.result = result;
+			this.elapsedMS = elapsedMS;
+		}
+
+		QueryPartTiming toTiming() {
+			return createPartTiming(partName, elapsedMS);
+		}
+	}
+
 	/**
 	 * For the given bundle, is the number of rows equal to the maximum rows per
 	 * page? This is used to determine if a next page token should be included with
@@ -568,7 +759,7 @@ public class TableQueryManagerImpl implements TableQueryManager {
 	 */
 	private QuerySpecification parserQuery(String sql) {
 		try {
-			return TableQueryParser.parserQuery(sql);
+			return QuerySpecificationCache.getShared().parseQuery(sql);
 		} catch (ParseException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -696,7 +887,7 @@ public class TableQueryManagerImpl implements TableQueryManager {
 		}
 		// copy the original model
 		try {
-			QuerySpecification modelCopy = new TableQueryParser(originalQuery.toSql()).querySpecification();
+			QuerySpecification modelCopy = originalQuery.deepCopy();
 			WhereClause where = originalQuery.getTableExpression().getWhereClause();
 			StringBuilder filterBuilder = new StringBuilder();
 			filterBuilder.append("WHERE ");
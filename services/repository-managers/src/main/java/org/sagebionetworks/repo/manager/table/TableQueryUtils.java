@@ -12,8 +12,8 @@ import org.sagebionetworks.repo.model.table.QueryNextPageToken;
 import org.sagebionetworks.repo.model.table.SortItem;
 import org.sagebionetworks.repo.model.table.TableConstants;
 import org.sagebionetworks.table.query.ParseException;
-import org.sagebionetworks.table.query.TableQueryParser;
 import org.sagebionetworks.table.query.TokenMgrError;
+import org.sagebionetworks.table.query.util.QuerySpecificationCache;
 import org.sagebionetworks.util.ValidateArgument;
 
 import java.io.StringWriter;
@@ -128,7 +128,7 @@ public class TableQueryUtils {
 	public static String extractTableIdFromSql(String sql){
 		ValidateArgument.required(sql, "SQL string");
 		try {
-			return new TableQueryParser(sql).querySpecification().getSingleTableName().orElseThrow(TableConstants.JOIN_NOT_SUPPORTED_IN_THIS_CONTEXT);
+			return QuerySpecificationCache.getShared().parseQuery(sql).getSingleTableName().orElseThrow(TableConstants.JOIN_NOT_SUPPORTED_IN_THIS_CONTEXT);
 		} catch (TokenMgrError e) {
 			throw new IllegalArgumentException("The provided SQL query could not be parsed.",e);
 		}catch (ParseException e) {
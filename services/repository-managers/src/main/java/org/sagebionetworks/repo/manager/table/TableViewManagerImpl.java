@@ -338,6 +338,10 @@ public class TableViewManagerImpl implements TableViewManager {
 	public void deleteViewIndex(IdAndVersion idAndVersion) {
 		TableIndexManager indexManager = connectionFactory.connectToTableIndex(idAndVersion);
 		indexManager.deleteTableIndex(idAndVersion);
+		Optional<TableIndexManager> rebalanceManager = connectionFactory.connectToRebalanceTarget(idAndVersion);
+		if (rebalanceManager.isPresent()) {
+			rebalanceManager.get().deleteTableIndex(idAndVersion);
+		}
 	}
 
 	@Override
@@ -389,6 +393,7 @@ public class TableViewManagerImpl implements TableViewManager {
 								(ProgressCallback innerCallback) -> {
 									// while holding both locks do the work.
 									applyChangesToAvailableViewOrSnapshot(idAndVersion);
+									copyViewToRebalanceTarget(idAndVersion);
 									return null;
 								});
 						return null;
@@ -409,6 +414,45 @@ public class TableViewManagerImpl implements TableViewManager {
 		}
 	}
 	
+	/**
+	 * When the view is moving to another database, build a copy of its index on
+	 * that database while the view remains available on its current database.
+	 * The copy is given the version of the current index, so it is only built
+	 * again after the current index is rebuilt. Rows that change after the copy
+	 * is built are applied by the view updates once the view is switched over.
+	 * The caller must hold the same locks as
+	 * {@link #applyChangesToAvailableViewOrSnapshot(IdAndVersion)}.
+	 * 
+	 * @param viewId
+	 */
+	void copyViewToRebalanceTarget(IdAndVersion viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		Optional<TableIndexManager> optionalTarget = connectionFactory.connectToRebalanceTarget(viewId);
+		if (!optionalTarget.isPresent()) {
+			return;
+		}
+		TableIndexManager targetManager = optionalTarget.get();
+		long currentVersion = connectionFactory.connectToTableIndex(viewId).getCurrentVersionOfIndex(viewId);
+		if (currentVersion < 0 || currentVersion == targetManager.getCurrentVersionOfIndex(viewId)) {
+			// nothing to copy or the copy is already built.
+			return;
+		}
+		String schemaMD5Hex = tableManagerSupport.getSchemaMD5Hex(viewId);
+		List<ColumnModel> viewSchema = getViewSchema(viewId);
+		targetManager.deleteTableIndex(viewId);
+		boolean isTableView = true;
+		targetManager.setIndexSchema(viewId, isTableView, viewSchema);
+		if (viewId.getVersion().isPresent()) {
+			populateViewFromSnapshot(viewId, targetManager);
+		} else {
+			populateViewIndexFromReplication(viewId, targetManager, viewSchema);
+		}
+		targetManager.optimizeTableIndices(viewId);
+		targetManager.populateListColumnIndexTables(viewId, viewSchema);
+		targetManager.setIndexVersionAndSchemaMD5Hex(viewId, currentVersion, schemaMD5Hex);
+		log.info("Copied the index of view " + viewId + " to its rebalance target");
+	}
+	
 	/**
 	 * Ensure the benefactor ID for the given view match the benefactors from the 
 	 * object replication.
@@ -424,6 +468,11 @@ public class TableViewManagerImpl implements TableViewManager {
 	/**
 	 * Attempt to apply any changes to a view that will remain available for query during this operation.
 	 * The caller must hold an exclusive lock on the view-change during this operation.
+	 * <p>
+	 * The changes queued for the view by the replication are applied first. The
+	 * full scan of the view for out-of-date rows only runs when its expiration
+	 * has passed, to catch any change that was not queued. Datasets are always
+	 * scanned since changes are not queued for them.
 	 * @param viewId
 	 */
 	void applyChangesToAvailableView(IdAndVersion viewId) {
@@ -438,6 +487,14 @@ public class TableViewManagerImpl implements TableViewManager {
 			ViewFilter originalFilter = provider.getViewFilter(viewId.getId());
 			
 			List<ColumnModel> currentSchema = tableManagerSupport.getTableSchema(viewId);
+			if (!ViewObjectType.DATASET.equals(scopeType.getObjectType())) {
+				if (!applyPendingChangesToAvailableView(indexManager, viewId, scopeType, originalFilter, currentSchema)) {
+					return;
+				}
+				if (!indexManager.isViewDeltaScanExpired(viewId)) {
+					return;
+				}
+			}
 			Set<Long> rowsIdsWithChanges = null;
 			Set<Long> previousPageRowIdsWithChanges = Collections.emptySet();
 			// Continue applying change to the view until none remain.
@@ -466,12 +523,48 @@ public class TableViewManagerImpl implements TableViewManager {
 					tableManagerSupport.updateChangedOnIfAvailable(viewId);
 				}
 			} while (!rowsIdsWithChanges.isEmpty());
+			indexManager.resetViewDeltaScanExpiration(viewId);
 		} catch (Exception e) {
 			// failed.
 			tableManagerSupport.attemptToSetTableStatusToFailed(viewId, e);
 			throw e;
 		}
 	}
+	
+	/**
+	 * Apply the changes queued for the given view by the replication, one page
+	 * at a time, until none remain.
+	 * 
+	 * @param indexManager
+	 * @param viewId
+	 * @param scopeType
+	 * @param originalFilter
+	 * @param currentSchema
+	 * @return False if the view is no longer available.
+	 */
+	boolean applyPendingChangesToAvailableView(TableIndexManager indexManager, IdAndVersion viewId,
+			ViewScopeType scopeType, ViewFilter originalFilter, List<ColumnModel> currentSchema) {
+		Set<Long> pendingIds = null;
+		do {
+			Optional<TableState> optionalState = tableManagerSupport.getTableStatusState(viewId);
+			if (!optionalState.isPresent() || optionalState.get() != TableState.AVAILABLE) {
+				// no point in continuing if the table is no longer available.
+				return false;
+			}
+			pendingIds = indexManager.getPendingViewDeltas(viewId, MAX_ROWS_PER_TRANSACTION);
+			if (!pendingIds.isEmpty()) {
+				/*
+				 * The page is removed before it is applied, so an object that is replicated
+				 * again during the update is queued again rather than lost.
+				 */
+				indexManager.removePendingViewDeltas(viewId, pendingIds);
+				ViewFilter deltaFilter = originalFilter.newBuilder().addLimitObjectids(pendingIds).build();
+				indexManager.updateViewRowsInTransaction(viewId, scopeType, currentSchema, deltaFilter);
+				tableManagerSupport.updateChangedOnIfAvailable(viewId);
+			}
+		} while (!pendingIds.isEmpty());
+		return true;
+	}
 
 	/**
 	 * Create or rebuild a view from scratch. Users will not be able to query the
@@ -0,0 +1,139 @@
+package org.sagebionetworks.repo.manager.table.change;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagebionetworks.cloudwatch.ProfileData;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Throughput statistics gathered while replaying table changes to build a table
+ * index. Each stage of the replay (loading a change from S3, waiting for a
+ * loaded change, and applying changes to the index) is tracked separately.
+ * Loading happens on multiple threads so the counters are thread safe.
+ *
+ */
+public class TableChangeReplayStatistics {
+
+	public static final String DIMENSION_STAGE = "Stage";
+	public static final String METRIC_STAGE_TIME = "Replay stage time";
+	public static final String METRIC_ROWS_PER_SECOND = "Replay rows per second";
+	public static final String METRIC_ROWS_COALESCED = "Replay rows coalesced";
+
+	public static final String STAGE_LOAD = "load";
+	public static final String STAGE_WAIT = "wait";
+	public static final String STAGE_APPLY = "apply";
+
+	private final AtomicLong loadNanos = new AtomicLong();
+	private final AtomicLong waitNanos = new AtomicLong();
+	private final AtomicLong applyNanos = new AtomicLong();
+	private final AtomicLong changesLoaded = new AtomicLong();
+	private final AtomicLong transactions = new AtomicLong();
+	private final AtomicLong rowsRead = new AtomicLong();
+	private final AtomicLong rowsWritten = new AtomicLong();
+	private final long startNanos = System.nanoTime();
+
+	/**
+	 * Called after a single change was loaded.
+	 * 
+	 * @param nanos
+	 */
+	public void changeLoaded(long nanos) {
+		loadNanos.addAndGet(nanos);
+		changesLoaded.incrementAndGet();
+	}
+
+	/**
+	 * Called after the applying thread waited for a loaded change.
+	 * 
+	 * @param nanos
+	 */
+	public void waitedForChange(long nanos) {
+		waitNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * Called after one or more coalesced changes were applied to the index.
+	 * 
+	 * @param nanos
+	 * @param rowsRead    The number of rows in all of the applied change sets.
+	 * @param rowsWritten The number of rows written to the index after coalescing.
+	 */
+	public void changesApplied(long nanos, long rowsRead, long rowsWritten) {
+		applyNanos.addAndGet(nanos);
+		transactions.incrementAndGet();
+		this.rowsRead.addAndGet(rowsRead);
+		this.rowsWritten.addAndGet(rowsWritten);
+	}
+
+	public long getChangesLoaded() {
+		return changesLoaded.get();
+	}
+
+	public long getTransactions() {
+		return transactions.get();
+	}
+
+	public long getRowsRead() {
+		return rowsRead.get();
+	}
+
+	public long getRowsWritten() {
+		return rowsWritten.get();
+	}
+
+	/**
+	 * The number of rows that were read from the change sets per second of elapsed
+	 * time.
+	 * 
+	 * @return
+	 */
+	public double getRowsPerSecond() {
+		long elapsedMS = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+		return rowsRead.get() * 1000.0 / elapsedMS;
+	}
+
+	/**
+	 * Create the metrics for this replay.
+	 * 
+	 * @param namespace
+	 * @param timestamp
+	 * @return
+	 */
+	public List<ProfileData> toProfileData(String namespace, Date timestamp) {
+		return Arrays.asList(
+				createProfileData(namespace, timestamp, METRIC_STAGE_TIME, STAGE_LOAD, TimeUnit.NANOSECONDS.toMillis(loadNanos.get()), StandardUnit.Milliseconds),
+				createProfileData(namespace, timestamp, METRIC_STAGE_TIME, STAGE_WAIT, TimeUnit.NANOSECONDS.toMillis(waitNanos.get()), StandardUnit.Milliseconds),
+				createProfileData(namespace, timestamp, METRIC_STAGE_TIME, STAGE_APPLY, TimeUnit.NANOSECONDS.toMillis(applyNanos.get()), StandardUnit.Milliseconds),
+				createProfileData(namespace, timestamp, METRIC_ROWS_PER_SECOND, null, getRowsPerSecond(), StandardUnit.CountSecond),
+				createProfileData(namespace, timestamp, METRIC_ROWS_COALESCED, null, rowsRead.get() - rowsWritten.get(), StandardUnit.Count));
+	}
+
+	private static ProfileData createProfileData(String namespace, Date timestamp, String name, String stage, double value, StandardUnit unit) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(namespace);
+		profileData.setName(name);
+		profileData.setValue(value);
+		profileData.setUnit(unit.name());
+		profileData.setTimestamp(timestamp);
+		if (stage != null) {
+			profileData.setDimension(Collections.singletonMap(DIMENSION_STAGE, stage));
+		}
+		return profileData;
+	}
+
+	@Override
+	public String toString() {
+		return "TableChangeReplayStatistics [changesLoaded=" + changesLoaded + ", transactions=" + transactions
+				+ ", rowsRead=" + rowsRead + ", rowsWritten=" + rowsWritten + ", loadMS="
+				+ TimeUnit.NANOSECONDS.toMillis(loadNanos.get()) + ", waitMS="
+				+ TimeUnit.NANOSECONDS.toMillis(waitNanos.get()) + ", applyMS="
+				+ TimeUnit.NANOSECONDS.toMillis(applyNanos.get()) + ", rowsPerSecond=" + getRowsPerSecond() + "]";
+	}
+
+}
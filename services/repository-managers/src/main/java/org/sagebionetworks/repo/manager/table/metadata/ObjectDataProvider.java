@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.table.ObjectDataDTO;
 import org.sagebionetworks.repo.model.table.ReplicationType;
 import org.sagebionetworks.repo.model.table.SubType;
@@ -33,6 +34,16 @@ public interface ObjectDataProvider {
 	 */
 	ReplicationType getReplicationType();
 
+	/**
+	 * Get the ids of the containers that include the children of the given
+	 * parent when used as the scope of a view. This is the parent itself and,
+	 * for objects in a hierarchy, all of the ancestors of the parent.
+	 * 
+	 * @param parentId
+	 * @return
+	 */
+	Set<Long> getScopeContainerIds(Long parentId);
+
 
 	/**
 	 * Provide a stream of IdAndChecksum data for the given parentIds and subTypes
@@ -64,4 +75,39 @@ public interface ObjectDataProvider {
 	 */
 	public Iterator<IdAndChecksum> streamOverIdsAndChecksumsForObjects(Long salt, Set<Long> objectIds);
 
+	/**
+	 * Get the aggregated checksum of each bucket of children of the given parents
+	 * and subTypes with an ID within the given range. The checksum of a bucket is
+	 * the sum of the checksum of each object in the bucket, so it will match the
+	 * replication when each object in the bucket matches. See the following
+	 * pusdo-sql:
+	 * </p>
+	 * <code>SELECT ID DIV bucketSize AS BUCKET, COUNT(*), SUM(CRC32(CONCAT(salt','-',ETAG,'-',VERSION,'-',BENEFACTOR_ID))) AS CHECK_SUM ... WHERE ID >= minId AND ID < maxId GROUP BY BUCKET ORDER BY BUCKET ASC</code>
+	 * 
+	 * @param salt
+	 * @param parentIds
+	 * @param subTypes
+	 * @param minId      The minimum ID (inclusive).
+	 * @param maxId      The maximum ID (exclusive).
+	 * @param bucketSize
+	 * @return
+	 */
+	public List<IdRangeChecksum> getIdRangeChecksumsForChildren(Long salt, Set<Long> parentIds, Set<SubType> subTypes,
+			Long minId, Long maxId, Long bucketSize);
+
+	/**
+	 * Get the aggregated checksum of each bucket of the given objectIds with an ID
+	 * within the given range. See
+	 * {@link #getIdRangeChecksumsForChildren(Long, Set, Set, Long, Long, Long)}.
+	 * 
+	 * @param salt
+	 * @param objectIds
+	 * @param minId      The minimum ID (inclusive).
+	 * @param maxId      The maximum ID (exclusive).
+	 * @param bucketSize
+	 * @return
+	 */
+	public List<IdRangeChecksum> getIdRangeChecksumsForObjects(Long salt, Set<Long> objectIds, Long minId, Long maxId,
+			Long bucketSize);
+
 }
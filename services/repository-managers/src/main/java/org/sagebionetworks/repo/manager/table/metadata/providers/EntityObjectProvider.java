@@ -1,16 +1,22 @@
 package org.sagebionetworks.repo.manager.table.metadata.providers;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
 import org.sagebionetworks.repo.manager.table.metadata.ObjectDataProvider;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.model.table.ObjectDataDTO;
 import org.sagebionetworks.repo.model.table.ReplicationType;
 import org.sagebionetworks.repo.model.table.SubType;
+import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.util.PaginationIterator;
+import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -38,6 +44,17 @@ public class EntityObjectProvider implements ObjectDataProvider {
 		return ReplicationType.ENTITY;
 	}
 
+	@Override
+	public Set<Long> getScopeContainerIds(Long parentId) {
+		ValidateArgument.required(parentId, "parentId");
+		try {
+			return new HashSet<>(nodeDao.getEntityPathIds(KeyFactory.keyToString(parentId)));
+		} catch (NotFoundException e) {
+			// The parent was deleted along with its children.
+			return Collections.singleton(parentId);
+		}
+	}
+
 	@Override
 	public Iterator<IdAndChecksum> streamOverIdsAndChecksumsForChildren(Long salt, Set<Long> parentIds,
 			Set<SubType> subTypes) {
@@ -53,4 +70,16 @@ public class EntityObjectProvider implements ObjectDataProvider {
 		}, PAGE_SIZE);
 	}
 
+	@Override
+	public List<IdRangeChecksum> getIdRangeChecksumsForChildren(Long salt, Set<Long> parentIds,
+			Set<SubType> subTypes, Long minId, Long maxId, Long bucketSize) {
+		return nodeDao.getIdRangeChecksumsForChildren(salt, parentIds, subTypes, minId, maxId, bucketSize);
+	}
+
+	@Override
+	public List<IdRangeChecksum> getIdRangeChecksumsForObjects(Long salt, Set<Long> objectIds, Long minId,
+			Long maxId, Long bucketSize) {
+		return nodeDao.getIdRangeChecksumsForObjects(salt, objectIds, minId, maxId, bucketSize);
+	}
+
 }
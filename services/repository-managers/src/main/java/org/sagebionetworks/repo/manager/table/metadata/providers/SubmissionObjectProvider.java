@@ -1,5 +1,6 @@
 package org.sagebionetworks.repo.manager.table.metadata.providers;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -7,10 +8,12 @@ import java.util.Set;
 import org.sagebionetworks.evaluation.dao.SubmissionDAO;
 import org.sagebionetworks.repo.manager.table.metadata.ObjectDataProvider;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.table.ObjectDataDTO;
 import org.sagebionetworks.repo.model.table.ReplicationType;
 import org.sagebionetworks.repo.model.table.SubType;
 import org.sagebionetworks.util.PaginationIterator;
+import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -37,6 +40,13 @@ public class SubmissionObjectProvider implements ObjectDataProvider {
 		return ReplicationType.SUBMISSION;
 	}
 
+	@Override
+	public Set<Long> getScopeContainerIds(Long parentId) {
+		ValidateArgument.required(parentId, "parentId");
+		// The parent of a submission is its evaluation, which is not nested.
+		return Collections.singleton(parentId);
+	}
+
 	@Override
 	public Iterator<IdAndChecksum> streamOverIdsAndChecksumsForChildren(Long salt, Set<Long> parentIds,
 			Set<SubType> subTypes) {
@@ -50,4 +60,16 @@ public class SubmissionObjectProvider implements ObjectDataProvider {
 		throw new UnsupportedOperationException("All submission views are hierarchical");
 	}
 
+	@Override
+	public List<IdRangeChecksum> getIdRangeChecksumsForChildren(Long salt, Set<Long> parentIds,
+			Set<SubType> subTypes, Long minId, Long maxId, Long bucketSize) {
+		return submissionDao.getIdRangeChecksums(salt, parentIds, minId, maxId, bucketSize);
+	}
+
+	@Override
+	public List<IdRangeChecksum> getIdRangeChecksumsForObjects(Long salt, Set<Long> objectIds, Long minId,
+			Long maxId, Long bucketSize) {
+		throw new UnsupportedOperationException("All submission views are hierarchical");
+	}
+
 }
@@ -8,12 +8,17 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.sagebionetworks.repo.model.GroupMembersDAO;
@@ -21,9 +26,11 @@ import org.sagebionetworks.repo.model.NodeDAO;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.ProjectStat;
 import org.sagebionetworks.repo.model.ProjectStatsDAO;
+import org.sagebionetworks.repo.model.UserGroup;
 import org.sagebionetworks.repo.model.UserGroupDAO;
 import org.sagebionetworks.repo.model.dao.WikiPageKeyHelper;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.v2.dao.V2WikiPageDao;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -179,6 +186,91 @@ public class ProjectStatsManagerImplTest {
 		verify(mockProjectStatDao, never()).updateProjectStat(any(ProjectStat.class));
 	}
 	
+	@Test
+	public void testUpdateProjectStatsBatch(){
+		Long userId = 707L;
+		Long teamId = 800L;
+		Long memberId = 111L;
+		Long otherProjectId = 457L;
+		String otherEntityId = "syn124";
+		UserGroup user = new UserGroup();
+		user.setId(userId.toString());
+		user.setIsIndividual(true);
+		UserGroup team = new UserGroup();
+		team.setId(teamId.toString());
+		team.setIsIndividual(false);
+		Map<Long, Long> projectIds = new HashMap<>();
+		projectIds.put(123L, projectId);
+		projectIds.put(124L, otherProjectId);
+		when(mockNodeDao.getProjectIds(Sets.newHashSet(123L, 124L))).thenReturn(projectIds);
+		when(mockUserGroupDao.get(any())).thenReturn(Arrays.asList(user, team));
+		when(mockGroupMemberDao.getMemberIds(teamId)).thenReturn(Sets.newHashSet(memberId, userId));
+
+		List<ChangeMessage> changes = Arrays.asList(
+				createChange(userId, entityId, ObjectType.ENTITY, new Date(1)),
+				createChange(userId, entityId, ObjectType.ENTITY, new Date(3)),
+				createChange(userId, wikiId, ObjectType.WIKI, new Date(2)),
+				createChange(teamId, otherEntityId, ObjectType.TABLE, new Date(5)),
+				createChange(userId, "123", ObjectType.FAVORITE, new Date(6)));
+		// call under test
+		manager.updateProjectStats(changes);
+		// each user and project is written once with the newest date.
+		ArgumentCaptor<ProjectStat> captor = ArgumentCaptor.forClass(ProjectStat.class);
+		verify(mockProjectStatDao).updateProjectStat(captor.capture());
+		Set<ProjectStat> expected = Sets.newHashSet(
+				new ProjectStat(projectId, userId, new Date(3)),
+				new ProjectStat(otherProjectId, memberId, new Date(5)),
+				new ProjectStat(otherProjectId, userId, new Date(5)));
+		assertEquals(expected, new HashSet<>(captor.getAllValues()));
+		verify(mockNodeDao, never()).getProjectId(any());
+		verify(mockUserGroupDao, never()).isIndividual(any());
+	}
+
+	@Test
+	public void testUpdateProjectStatsBatchNoProjects(){
+		Long userId = 707L;
+		when(mockNodeDao.getProjectIds(Sets.newHashSet(123L))).thenReturn(new HashMap<>());
+		// call under test
+		manager.updateProjectStats(Arrays.asList(createChange(userId, entityId, ObjectType.ENTITY, new Date(1))));
+		verify(mockUserGroupDao, never()).get(any());
+		verify(mockProjectStatDao, never()).updateProjectStat(any());
+	}
+
+	@Test
+	public void testUpdateProjectStatsBatchPrincipalNotFound(){
+		Long userId = 707L;
+		when(mockNodeDao.getProjectIds(Sets.newHashSet(123L))).thenReturn(Collections.singletonMap(123L, projectId));
+		when(mockUserGroupDao.get(Arrays.asList(userId.toString()))).thenReturn(Collections.emptyList());
+		// call under test
+		manager.updateProjectStats(Arrays.asList(createChange(userId, entityId, ObjectType.ENTITY, new Date(1))));
+		verify(mockProjectStatDao, never()).updateProjectStat(any());
+	}
+
+	@Test
+	public void testUpdateProjectStatsBatchWikiNotFound(){
+		when(mockV2wikiPageDao.lookupWikiKey(wikiId)).thenThrow(new NotFoundException("Does not exist"));
+		// call under test
+		manager.updateProjectStats(Arrays.asList(createChange(707L, wikiId, ObjectType.WIKI, new Date(1))));
+		verify(mockNodeDao, never()).getProjectIds(any());
+		verify(mockProjectStatDao, never()).updateProjectStat(any());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUpdateProjectStatsBatchNullChanges(){
+		List<ChangeMessage> changes = null;
+		// call under test
+		manager.updateProjectStats(changes);
+	}
+
+	private static ChangeMessage createChange(Long userId, String objectId, ObjectType objectType, Date timestamp) {
+		ChangeMessage change = new ChangeMessage();
+		change.setUserId(userId);
+		change.setObjectId(objectId);
+		change.setObjectType(objectType);
+		change.setTimestamp(timestamp);
+		return change;
+	}
+	
 	@Test
 	public void testMemberAddedToTeam() {
 		Long teamId = 99L;
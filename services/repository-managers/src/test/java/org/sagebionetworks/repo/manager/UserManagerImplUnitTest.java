@@ -12,6 +12,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +27,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.sagebionetworks.repo.manager.principal.UserMembershipCache;
 import org.sagebionetworks.repo.manager.team.TeamConstants;
 import org.sagebionetworks.repo.model.AuthorizationConstants;
 import org.sagebionetworks.repo.model.GroupMembersDAO;
@@ -42,6 +44,7 @@ import org.sagebionetworks.repo.model.principal.AliasType;
 import org.sagebionetworks.repo.model.principal.PrincipalAlias;
 import org.sagebionetworks.repo.model.principal.PrincipalAliasDAO;
 import org.sagebionetworks.repo.web.NotFoundException;
+import org.sagebionetworks.util.Clock;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.google.common.collect.Lists;
@@ -65,6 +68,10 @@ public class UserManagerImplUnitTest {
 	private PrincipalAliasDAO mockPrincipalAliasDAO;
 	@Mock
 	private NotificationEmailDAO notificationEmailDao;
+	@Mock
+	private Clock mockClock;
+	
+	private UserMembershipCache membershipCache;
 	
 	private UserInfo admin;
 	private UserInfo notAdmin;
@@ -90,6 +97,8 @@ public class UserManagerImplUnitTest {
 		when(mockUserGroupDAO.get(anyLong())).thenReturn(mockUserGroup);
 				
 		notificationEmailDao = Mockito.mock(NotificationEmailDAO.class);
+		mockClock = mock(Clock.class);
+		membershipCache = new UserMembershipCache(10L, 60L, mockClock);
 		
 		userManager = new UserManagerImpl();
 		ReflectionTestUtils.setField(userManager, "principalAliasDAO", mockPrincipalAliasDAO);
@@ -99,6 +108,8 @@ public class UserManagerImplUnitTest {
 		ReflectionTestUtils.setField(userManager, "notificationEmailDao", notificationEmailDao);
 		ReflectionTestUtils.setField(userManager, "basicDAO", basicDAO);
 		ReflectionTestUtils.setField(userManager, "groupMembersDAO", mockGroupMembersDAO);
+		ReflectionTestUtils.setField(userManager, "membershipCache", membershipCache);
+		ReflectionTestUtils.setField(userManager, "clock", mockClock);
 		
 		admin = new UserInfo(true);
 		notAdmin = new UserInfo(false);
@@ -167,6 +178,53 @@ public class UserManagerImplUnitTest {
 		assertEquals(principalId, userInfo.getId());
 	}
 	
+	@Test
+	public void testGetUserInfoCached() {
+		Long principalId = 111L;
+		UserGroup principal = new UserGroup();
+		principal.setId(principalId.toString());
+		principal.setIsIndividual(true);
+		when(mockUserGroupDAO.get(principalId)).thenReturn(principal);
+		
+		UserGroup someGroup = new UserGroup();
+		someGroup.setIsIndividual(false);
+		someGroup.setId("222");
+		when(mockGroupMembersDAO.getUsersGroups(principalId.toString())).thenReturn(Collections.singletonList(someGroup));
+		when(mockAuthDAO.hasUserAcceptedToU(principalId)).thenReturn(false, true);
+		
+		UserInfo first = userManager.getUserInfo(principalId);
+		// method under test
+		UserInfo second = userManager.getUserInfo(principalId);
+		
+		assertEquals(first.getGroups(), second.getGroups());
+		// the terms of use are not cached.
+		assertTrue(second.acceptsTermsOfUse());
+		verify(mockUserGroupDAO, times(1)).get(principalId);
+		verify(mockGroupMembersDAO, times(1)).getUsersGroups(principalId.toString());
+		
+		// a change to the group removes the user from the cache
+		membershipCache.invalidate(Collections.singleton(222L));
+		userManager.getUserInfo(principalId);
+		verify(mockGroupMembersDAO, times(2)).getUsersGroups(principalId.toString());
+	}
+	
+	@Test
+	public void testDeletePrincipalInvalidatesCache() {
+		Long principalId = 111L;
+		UserGroup principal = new UserGroup();
+		principal.setId(principalId.toString());
+		principal.setIsIndividual(true);
+		when(mockUserGroupDAO.get(principalId)).thenReturn(principal);
+		userManager.getUserInfo(principalId);
+		
+		// method under test
+		userManager.deletePrincipal(admin, principalId);
+		
+		verify(mockUserGroupDAO).delete(principalId.toString());
+		userManager.getUserInfo(principalId);
+		verify(mockUserGroupDAO, times(2)).get(principalId);
+	}
+	
 	@Test
 	public void testCreateUserAdmin() throws Exception {
 		// Call with an admin
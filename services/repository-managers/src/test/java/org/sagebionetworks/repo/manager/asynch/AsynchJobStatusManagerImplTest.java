@@ -40,6 +40,7 @@ import org.sagebionetworks.repo.model.asynch.AsynchJobState;
 import org.sagebionetworks.repo.model.asynch.AsynchronousJobStatus;
 import org.sagebionetworks.repo.model.asynch.AsynchronousRequestBody;
 import org.sagebionetworks.repo.model.asynch.AsynchronousResponseBody;
+import org.sagebionetworks.repo.model.asynch.CacheableRequestBody;
 import org.sagebionetworks.repo.model.asynch.ReadOnlyRequestBody;
 import org.sagebionetworks.repo.model.dao.asynch.AsynchronousJobStatusDAO;
 import org.sagebionetworks.repo.model.dbo.asynch.AsynchJobType;
@@ -93,7 +94,7 @@ public class AsynchJobStatusManagerImplTest {
 	@Before
 	public void before() throws DatastoreException, NotFoundException{
 		startedJobId = "99999";
-		when(mockAsynchJobStatusDao.startJob(anyLong(), any(AsynchronousRequestBody.class))).thenAnswer(new Answer<AsynchronousJobStatus>() {
+		when(mockAsynchJobStatusDao.startJob(anyLong(), any(AsynchronousRequestBody.class), any())).thenAnswer(new Answer<AsynchronousJobStatus>() {
 			@Override
 			public AsynchronousJobStatus answer(InvocationOnMock invocation)
 					throws Throwable {
@@ -125,7 +126,7 @@ public class AsynchJobStatusManagerImplTest {
 		when(mockStackConfig.getStackInstance()).thenReturn(instance);
 		
 		runtimeMS = 567L;
-		when(mockAsynchJobStatusDao.setComplete(any(String.class), any(AsynchronousResponseBody.class),  any(String.class))).thenReturn(runtimeMS);
+		when(mockAsynchJobStatusDao.setComplete(any(String.class), any(AsynchronousResponseBody.class))).thenReturn(runtimeMS);
 	}
 	
 	@Test (expected=IllegalArgumentException.class)
@@ -371,8 +372,7 @@ public class AsynchJobStatusManagerImplTest {
 		body.setEtag("etag");
 		// call under test
 		manager.setComplete("456", body);
-		String requestHash = null;
-		verify(mockAsynchJobStatusDao).setComplete("456", body, requestHash);
+		verify(mockAsynchJobStatusDao).setComplete("456", body);
 		verify(mockConsumer).addProfileData(profileCaptor.capture());
 		ProfileData profile = profileCaptor.getValue();
 		assertNotNull(profile);
@@ -392,14 +392,14 @@ public class AsynchJobStatusManagerImplTest {
 		DownloadFromTableRequest requestbody = new DownloadFromTableRequest();
 		requestbody.setSql("select * from syn123");
 		status.setRequestBody(requestbody);
-		String requestHash = "aRequestHash";
 		when(mockAsynchJobStatusDao.getJobStatus(anyString())).thenReturn(status);
-		when(mockJobHashProvider.getJobHash(requestbody)).thenReturn(requestHash);
 		
 		DownloadFromTableResult resultBody = new DownloadFromTableResult();
 		resultBody.setTableId("syn123");
 		manager.setComplete("456", resultBody);
-		verify(mockAsynchJobStatusDao).setComplete("456", resultBody, requestHash);
+		verify(mockAsynchJobStatusDao).setComplete("456", resultBody);
+		// The hash recorded when the job started is kept.
+		verify(mockJobHashProvider, never()).getJobHash(any(CacheableRequestBody.class), any(UserInfo.class));
 		verify(mockConsumer).addProfileData(any(ProfileData.class));
 	}
 	
@@ -424,7 +424,7 @@ public class AsynchJobStatusManagerImplTest {
 		body.setSql("select * from syn123");
 		// setup hash and etag.
 		String bodyHash = "aBodyHash";
-		when(mockJobHashProvider.getJobHash(body)).thenReturn(bodyHash);
+		when(mockJobHashProvider.getJobHash(body, user)).thenReturn(bodyHash);
 		// Match request to existing job
 		AsynchronousJobStatus existingJob = new AsynchronousJobStatus();
 		existingJob.setStartedByUserId(user.getId());
@@ -437,7 +437,12 @@ public class AsynchJobStatusManagerImplTest {
 		// The status should match the exiting job
 		assertEquals(existingJob, status);
 		// The job should not be started.
-		verify(mockAsynchJobStatusDao, never()).startJob(anyLong(), any(AsynchronousRequestBody.class));
+		verify(mockAsynchJobStatusDao, never()).startJob(anyLong(), any(AsynchronousRequestBody.class), any());
+		verify(mockConsumer).addProfileData(profileCaptor.capture());
+		ProfileData profileData = profileCaptor.getValue();
+		assertEquals(AsynchJobStatusManagerImpl.METRIC_NAME_CACHE_HIT, profileData.getName());
+		assertEquals(StandardUnit.Count.name(), profileData.getUnit());
+		assertEquals(AsynchJobType.DOWNLOAD_CSV_FROM_TABLE.name(), profileData.getDimension().get(AsynchJobStatusManagerImpl.JOB_TYPE));
 	}
 	
 	@Test
@@ -453,7 +458,7 @@ public class AsynchJobStatusManagerImplTest {
 		
 		// setup hash and etag.
 		String bodyHash = "aBodyHash";
-		when(mockJobHashProvider.getJobHash(body)).thenReturn(bodyHash);
+		when(mockJobHashProvider.getJobHash(body, user)).thenReturn(bodyHash);
 		// Match request to existing job
 		List<AsynchronousJobStatus> hits = new LinkedList<AsynchronousJobStatus>();
 		// First hit is not a match.
@@ -477,7 +482,7 @@ public class AsynchJobStatusManagerImplTest {
 		// The status should match the exiting job
 		assertEquals(hitTwo, status);
 		// The job should not be started.
-		verify(mockAsynchJobStatusDao, never()).startJob(anyLong(), any(AsynchronousRequestBody.class));
+		verify(mockAsynchJobStatusDao, never()).startJob(anyLong(), any(AsynchronousRequestBody.class), any());
 	}
 	
 	@Test
@@ -488,7 +493,7 @@ public class AsynchJobStatusManagerImplTest {
 		body.setSql("select * from syn123");
 		// setup hash and etag.
 		String bodyHash = "aBodyHash";
-		when(mockJobHashProvider.getJobHash(body)).thenReturn(bodyHash);
+		when(mockJobHashProvider.getJobHash(body, user)).thenReturn(bodyHash);
 		// For this case, no job exists
 		List<AsynchronousJobStatus> existingJob = new LinkedList<AsynchronousJobStatus>();
 		when(mockAsynchJobStatusDao.findCompletedJobStatus(bodyHash, user.getId())).thenReturn(existingJob);
@@ -496,9 +501,11 @@ public class AsynchJobStatusManagerImplTest {
 		AsynchronousJobStatus status = manager.startJob(user, body);
 		assertNotNull(status);
 		assertEquals(startedJobId, status.getJobId());
-		// The job should be started and published.
-		verify(mockAsynchJobStatusDao, times(1)).startJob(anyLong(), any(AsynchronousRequestBody.class));
+		// The job should be started with its hash and published.
+		verify(mockAsynchJobStatusDao, times(1)).startJob(user.getId(), body, bodyHash);
 		verify(mockAsynchJobQueuePublisher, times(1)).publishMessage(status);
+		verify(mockConsumer).addProfileData(profileCaptor.capture());
+		assertEquals(AsynchJobStatusManagerImpl.METRIC_NAME_CACHE_MISS, profileCaptor.getValue().getName());
 	}
 	
 	/**
@@ -512,7 +519,7 @@ public class AsynchJobStatusManagerImplTest {
 		body.setSql("select * from syn123");
 		// setup hash and etag.
 		String bodyHash = "aBodyHash";
-		when(mockJobHashProvider.getJobHash(body)).thenReturn(bodyHash);
+		when(mockJobHashProvider.getJobHash(body, user)).thenReturn(bodyHash);
 		// The cached request body does not equal the body for this request. 
 		DownloadFromTableRequest cachedBody = new DownloadFromTableRequest();
 		cachedBody.setEntityId("syn123");
@@ -528,7 +535,7 @@ public class AsynchJobStatusManagerImplTest {
 		assertNotNull(status);
 		assertEquals(startedJobId, status.getJobId());
 		// The job should be started and published.
-		verify(mockAsynchJobStatusDao, times(1)).startJob(anyLong(), any(AsynchronousRequestBody.class));
+		verify(mockAsynchJobStatusDao, times(1)).startJob(anyLong(), any(AsynchronousRequestBody.class), any());
 		verify(mockAsynchJobQueuePublisher, times(1)).publishMessage(status);
 	}
 	
@@ -544,15 +551,16 @@ public class AsynchJobStatusManagerImplTest {
 		body.setSql("select * from syn123");
 		// return null hash
 		String bodyHash = null;
-		when(mockJobHashProvider.getJobHash(body)).thenReturn(bodyHash);
+		when(mockJobHashProvider.getJobHash(body, user)).thenReturn(bodyHash);
 		// call under test.
 		AsynchronousJobStatus status = manager.startJob(user, body);
 		assertNotNull(status);
 		assertEquals(startedJobId, status.getJobId());
-		// The job should be started and published.
-		verify(mockAsynchJobStatusDao, times(1)).startJob(anyLong(), any(AsynchronousRequestBody.class));
+		// The job should be started without a hash and published.
+		verify(mockAsynchJobStatusDao, times(1)).startJob(user.getId(), body, null);
 		verify(mockAsynchJobQueuePublisher, times(1)).publishMessage(status);
 		verify(mockAsynchJobStatusDao, never()).findCompletedJobStatus(anyString(), anyLong());
+		verify(mockConsumer, never()).addProfileData(any(ProfileData.class));
 	}
 
 }
@@ -2,10 +2,17 @@ package org.sagebionetworks.repo.manager.asynch;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -16,6 +23,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.sagebionetworks.repo.manager.table.TableManagerSupport;
 import org.sagebionetworks.repo.manager.table.TableQueryUtils;
 import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.repo.model.table.DownloadFromTableRequest;
 import org.sagebionetworks.repo.model.table.Query;
@@ -24,6 +32,8 @@ import org.sagebionetworks.repo.model.table.QueryNextPageToken;
 import org.sagebionetworks.repo.model.table.TableStatus;
 import org.sagebionetworks.repo.web.NotFoundException;
 
+import com.google.common.collect.Sets;
+
 @RunWith(MockitoJUnitRunner.class)
 public class JobHashProviderImplTest {
 	
@@ -34,9 +44,11 @@ public class JobHashProviderImplTest {
 	
 
 	TableStatus tableStatus;
+	UserInfo user;
 	
 	@Before
 	public void before() throws NotFoundException, IOException{
+		user = new UserInfo(false, 444L);
 		tableStatus = new TableStatus();
 		tableStatus.setLastTableChangeEtag("someEtag");
 		tableStatus.setResetToken("someResetToken");
@@ -49,7 +61,7 @@ public class JobHashProviderImplTest {
 		DownloadFromTableRequest body = new DownloadFromTableRequest();
 		body.setEntityId("syn123");
 		body.setSql("select * from syn123");
-		String hash = provider.getJobHash(body);
+		String hash = provider.getJobHash(body, user);
 		assertEquals("104e5a592b453d31a58da6f9e4ec998a", hash);
 	}
 	
@@ -58,12 +70,12 @@ public class JobHashProviderImplTest {
 		DownloadFromTableRequest body1 = new DownloadFromTableRequest();
 		body1.setEntityId("syn123");
 		body1.setSql("select * from syn123");
-		String hash1 = provider.getJobHash(body1);
+		String hash1 = provider.getJobHash(body1, user);
 		
 		DownloadFromTableRequest body2 = new DownloadFromTableRequest();
 		body2.setEntityId("syn123");
 		body2.setSql("select * from syn123 limit 1");
-		String hash2 = provider.getJobHash(body2);
+		String hash2 = provider.getJobHash(body2, user);
 		assertFalse(hash1.equals(hash2));
 	}
 	
@@ -75,12 +87,12 @@ public class JobHashProviderImplTest {
 		DownloadFromTableRequest body1 = new DownloadFromTableRequest();
 		body1.setEntityId("syn123");
 		body1.setSql("select * from syn123");
-		String hash1 = provider.getJobHash(body1);
+		String hash1 = provider.getJobHash(body1, user);
 		
 		DownloadFromTableRequest body2 = new DownloadFromTableRequest();
 		body2.setEntityId("syn123");
 		body2.setSql(body1.getSql().toUpperCase());
-		String hash2 = provider.getJobHash(body2);
+		String hash2 = provider.getJobHash(body2, user);
 		assertFalse(hash1.equals(hash2));
 	}
 
@@ -95,7 +107,7 @@ public class JobHashProviderImplTest {
 		IdAndVersion idAndVersion = IdAndVersion.parse(body1.getEntityId());
 		when(mockTableManagerSupport.getTableStatusOrCreateIfNotExists(idAndVersion)).thenReturn(tableStatus);
 		// call under test
-		String etag = provider.getJobHash(body1);
+		String etag = provider.getJobHash(body1, user);
 		assertEquals("172bcd947ddd904155e4cc35e06a410d", etag);
 	}
 
@@ -105,7 +117,7 @@ public class JobHashProviderImplTest {
 		body1.setEntityId("syn123");
 		body1.setSql("select * from syn123");
 		// call under test
-		String hash = provider.getJobHash(body1);
+		String hash = provider.getJobHash(body1, user);
 		assertEquals("104e5a592b453d31a58da6f9e4ec998a", hash);
 	}
 
@@ -117,7 +129,7 @@ public class JobHashProviderImplTest {
 		query.setSql("select * from syn123");
 		body1.setQuery(query);
 		// call under test
-		String hash = provider.getJobHash(body1);
+		String hash = provider.getJobHash(body1, user);
 		assertEquals("783a9c542fff9a43542046eed61a15df", hash);
 	}
 
@@ -125,8 +137,69 @@ public class JobHashProviderImplTest {
 	public void testGetRequestObjectEtagQueryNextPageToken() throws NotFoundException, IOException{
 		QueryNextPageToken body1 = TableQueryUtils.createNextPageToken("SELECT * FROM SYN123", null, 100L, 10L,  null);
 		// call under test
-		String hash = provider.getJobHash(body1);
+		String hash = provider.getJobHash(body1, user);
 		assertEquals("8acd1d8b465c43c34196a6f3026c08ba", hash);
 	}
 	
+	@Test
+	public void testHashTableDoesNotLookupBenefactors() {
+		DownloadFromTableRequest body = new DownloadFromTableRequest();
+		body.setEntityId("syn123");
+		body.setSql("select * from syn123");
+		// call under test
+		provider.getJobHash(body, user);
+		verify(mockTableManagerSupport, never()).getAccessibleBenefactors(any(UserInfo.class), any(IdAndVersion.class));
+	}
+	
+	@Test
+	public void testHashView() {
+		IdAndVersion viewId = IdAndVersion.parse("syn123");
+		when(mockTableManagerSupport.getTableType(viewId)).thenReturn(ObjectType.ENTITY_VIEW);
+		when(mockTableManagerSupport.getAccessibleBenefactors(user, viewId)).thenReturn(Sets.newHashSet(3L, 1L, 2L));
+		tableStatus.setChangedOn(new Date(1000L));
+		DownloadFromTableRequest body = new DownloadFromTableRequest();
+		body.setEntityId("syn123");
+		body.setSql("select * from syn123");
+		// call under test
+		String hash = provider.getJobHash(body, user);
+		// views are now cacheable.
+		assertNotNull(hash);
+		// the order of the benefactors must not matter.
+		when(mockTableManagerSupport.getAccessibleBenefactors(user, viewId)).thenReturn(Sets.newLinkedHashSet(Arrays.asList(2L, 3L, 1L)));
+		assertEquals(hash, provider.getJobHash(body, user));
+	}
+	
+	@Test
+	public void testHashViewBenefactorsChanged() {
+		IdAndVersion viewId = IdAndVersion.parse("syn123");
+		when(mockTableManagerSupport.getTableType(viewId)).thenReturn(ObjectType.ENTITY_VIEW);
+		tableStatus.setChangedOn(new Date(1000L));
+		DownloadFromTableRequest body = new DownloadFromTableRequest();
+		body.setEntityId("syn123");
+		body.setSql("select * from syn123");
+		Set<Long> before = Sets.newHashSet(1L, 2L);
+		Set<Long> after = Sets.newHashSet(1L);
+		when(mockTableManagerSupport.getAccessibleBenefactors(user, viewId)).thenReturn(before, after);
+		String hashBefore = provider.getJobHash(body, user);
+		// The user lost access to a benefactor so the hash must change.
+		String hashAfter = provider.getJobHash(body, user);
+		assertNotEquals(hashBefore, hashAfter);
+	}
+	
+	@Test
+	public void testHashViewChangedOn() {
+		IdAndVersion viewId = IdAndVersion.parse("syn123");
+		when(mockTableManagerSupport.getTableType(viewId)).thenReturn(ObjectType.ENTITY_VIEW);
+		when(mockTableManagerSupport.getAccessibleBenefactors(user, viewId)).thenReturn(Sets.newHashSet(1L));
+		DownloadFromTableRequest body = new DownloadFromTableRequest();
+		body.setEntityId("syn123");
+		body.setSql("select * from syn123");
+		tableStatus.setChangedOn(new Date(1000L));
+		String hashBefore = provider.getJobHash(body, user);
+		// The rows of the view were updated.
+		tableStatus.setChangedOn(new Date(2000L));
+		String hashAfter = provider.getJobHash(body, user);
+		assertNotEquals(hashBefore, hashAfter);
+	}
+	
 }
@@ -35,10 +35,11 @@ public class S3AccessRecorderTest {
 			recorder.save(ar);
 		}
 		// Now fire the timer
-		String fileName = recorder.timerFired();
-		assertNotNull(fileName);
+		List<String> fileNames = recorder.timerFired();
+		// all of the records fit in a single batch.
+		assertEquals(1, fileNames.size());
 		// Get the saved record and check it
-		List<AccessRecord> fetched = accessManager.getBatch(fileName);
+		List<AccessRecord> fetched = accessManager.getBatch(fileNames.get(0));
 		assertNotNull(fetched);
 		// The fetched list should match the input sorted on time stamp
 		AccessRecordUtils.sortByTimestamp(toTest);
@@ -0,0 +1,267 @@
+package org.sagebionetworks.repo.manager.collector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+
+@ExtendWith(MockitoExtension.class)
+public class BoundedRecordCollectorTest {
+
+	@Mock
+	private Consumer mockConsumer;
+	@Mock
+	private BatchHandler<String> mockHandler;
+	@Captor
+	private ArgumentCaptor<List<ProfileData>> metricCaptor;
+
+	private String name;
+	private String namespace;
+	private List<List<String>> batches;
+	private BatchHandler<String> handler;
+	private RecordSpillCodec<String> codec;
+	private File spillDirectory;
+	// runs flushes on the calling thread.
+	private Executor directExecutor;
+
+	@BeforeEach
+	public void before() throws IOException {
+		name = "TestRecords";
+		namespace = "Record-Collector-test";
+		batches = new ArrayList<>();
+		handler = (List<String> batch) -> {
+			batches.add(batch);
+		};
+		codec = new RecordSpillCodec<String>() {
+
+			@Override
+			public String encode(String record) throws IOException {
+				return record;
+			}
+
+			@Override
+			public String decode(String line) throws IOException {
+				return line;
+			}
+		};
+		spillDirectory = Files.createTempDirectory("BoundedRecordCollectorTest").toFile();
+		directExecutor = (Runnable command) -> command.run();
+	}
+
+	@AfterEach
+	public void after() throws IOException {
+		FileUtils.deleteDirectory(spillDirectory);
+	}
+
+	void addRecords(BoundedRecordCollector<String> collector, String... records) {
+		for (String record : records) {
+			collector.add(record);
+		}
+	}
+
+	Map<String, Double> captureMetrics() {
+		verify(mockConsumer).addProfileData(metricCaptor.capture());
+		Map<String, Double> values = new HashMap<>();
+		for (ProfileData data : metricCaptor.getValue()) {
+			assertEquals(namespace, data.getNamespace());
+			assertEquals(name, data.getDimension().get(BoundedRecordCollector.DIMENSION_COLLECTOR));
+			values.put(data.getName(), data.getValue());
+		}
+		return values;
+	}
+
+	@Test
+	public void testFlushInBatches() {
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, handler).withCapacity(10)
+				.withBatchSize(3).withMetrics(mockConsumer, namespace).build();
+		addRecords(collector, "a", "b", "c", "d", "e", "f", "g");
+		assertEquals(7, collector.size());
+		// call under test
+		int handled = collector.flush();
+		assertEquals(7, handled);
+		assertEquals(0, collector.size());
+		assertEquals(Arrays.asList(Arrays.asList("a", "b", "c"), Arrays.asList("d", "e", "f"), Arrays.asList("g")),
+				batches);
+		Map<String, Double> metrics = captureMetrics();
+		assertEquals(Double.valueOf(7), metrics.get(BoundedRecordCollector.METRIC_QUEUED_COUNT));
+		assertEquals(Double.valueOf(0), metrics.get(BoundedRecordCollector.METRIC_DROPPED_COUNT));
+		assertFalse(metrics.containsKey(BoundedRecordCollector.METRIC_SPILLED_COUNT));
+	}
+
+	@Test
+	public void testFlushWithHandler() {
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, mockHandler).withCapacity(10)
+				.withBatchSize(2).withMetrics(mockConsumer, namespace).build();
+		addRecords(collector, "a", "b", "c");
+		// call under test
+		int handled = collector.flush(handler);
+		assertEquals(3, handled);
+		assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c")), batches);
+		// the handler of the collector is not used for this flush.
+		verify(mockHandler, never()).handle(any());
+	}
+
+	@Test
+	public void testFlushEmpty() {
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, handler)
+				.withMetrics(mockConsumer, namespace).build();
+		// call under test
+		assertEquals(0, collector.flush());
+		assertTrue(batches.isEmpty());
+		verify(mockConsumer, never()).addProfileData(anyList());
+	}
+
+	@Test
+	public void testDropOldest() {
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, handler).withCapacity(3)
+				.withBatchSize(3).withOverflowPolicy(OverflowPolicy.DROP_OLDEST).withMetrics(mockConsumer, namespace)
+				.build();
+		// call under test
+		addRecords(collector, "a", "b", "c", "d", "e");
+		assertEquals(3, collector.size());
+		collector.flush();
+		assertEquals(Arrays.asList(Arrays.asList("c", "d", "e")), batches);
+		Map<String, Double> metrics = captureMetrics();
+		assertEquals(Double.valueOf(3), metrics.get(BoundedRecordCollector.METRIC_QUEUED_COUNT));
+		assertEquals(Double.valueOf(2), metrics.get(BoundedRecordCollector.METRIC_DROPPED_COUNT));
+	}
+
+	@Test
+	public void testBlockWithTimeout() {
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, handler).withCapacity(2)
+				.withBatchSize(2).withOverflowPolicy(OverflowPolicy.BLOCK).withMaxBlockMS(0L)
+				.withMetrics(mockConsumer, namespace).build();
+		// call under test
+		addRecords(collector, "a", "b", "c");
+		collector.flush();
+		// the record that did not fit is dropped rather than the oldest.
+		assertEquals(Arrays.asList(Arrays.asList("a", "b")), batches);
+		Map<String, Double> metrics = captureMetrics();
+		assertEquals(Double.valueOf(1), metrics.get(BoundedRecordCollector.METRIC_DROPPED_COUNT));
+	}
+
+	@Test
+	public void testBlockWithSizeTriggeredFlush() {
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, handler).withCapacity(4)
+				.withBatchSize(2).withOverflowPolicy(OverflowPolicy.BLOCK).withFlushExecutor(directExecutor).build();
+		// call under test
+		addRecords(collector, "a", "b", "c");
+		collector.flush();
+		// nothing is dropped since a flush is triggered for each full batch.
+		assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c")), batches);
+	}
+
+	@Test
+	public void testSizeTriggeredFlush() {
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, handler).withCapacity(10)
+				.withBatchSize(2).withFlushExecutor(directExecutor).build();
+		// call under test
+		addRecords(collector, "a");
+		assertTrue(batches.isEmpty());
+		addRecords(collector, "b");
+		assertEquals(Arrays.asList(Arrays.asList("a", "b")), batches);
+		assertEquals(0, collector.size());
+	}
+
+	@Test
+	public void testSpillToDisk() {
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, handler).withCapacity(2)
+				.withBatchSize(2).withOverflowPolicy(OverflowPolicy.SPILL_TO_DISK).withSpill(spillDirectory, codec)
+				.withMetrics(mockConsumer, namespace).build();
+		assertEquals(OverflowPolicy.SPILL_TO_DISK, collector.getOverflowPolicy());
+		// call under test
+		addRecords(collector, "a", "b", "c", "d", "e");
+		assertEquals(2, collector.size());
+		int handled = collector.flush();
+		assertEquals(5, handled);
+		assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d"), Arrays.asList("e")), batches);
+		Map<String, Double> metrics = captureMetrics();
+		assertEquals(Double.valueOf(2), metrics.get(BoundedRecordCollector.METRIC_QUEUED_COUNT));
+		assertEquals(Double.valueOf(0), metrics.get(BoundedRecordCollector.METRIC_DROPPED_COUNT));
+		assertEquals(Double.valueOf(3), metrics.get(BoundedRecordCollector.METRIC_SPILLED_COUNT));
+		// the drained file is removed.
+		assertEquals(0, spillDirectory.listFiles().length);
+		// spilling resumes after the drain.
+		addRecords(collector, "f", "g", "h");
+		batches.clear();
+		collector.flush();
+		assertEquals(Arrays.asList(Arrays.asList("f", "g"), Arrays.asList("h")), batches);
+	}
+
+	@Test
+	public void testSpillToDiskWithoutCodec() {
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, handler).withCapacity(2)
+				.withBatchSize(2).withOverflowPolicy(OverflowPolicy.SPILL_TO_DISK).build();
+		// call under test
+		assertEquals(OverflowPolicy.DROP_OLDEST, collector.getOverflowPolicy());
+		addRecords(collector, "a", "b", "c");
+		collector.flush();
+		assertEquals(Arrays.asList(Arrays.asList("b", "c")), batches);
+	}
+
+	@Test
+	public void testFlushWithHandlerFailure() {
+		doThrow(new IllegalStateException("failed")).when(mockHandler).handle(any());
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, mockHandler)
+				.withCapacity(10).withBatchSize(2).withMetrics(mockConsumer, namespace).build();
+		addRecords(collector, "a", "b", "c");
+		// call under test
+		int handled = collector.flush();
+		assertEquals(0, handled);
+		assertEquals(0, collector.size());
+		Map<String, Double> metrics = captureMetrics();
+		assertEquals(Double.valueOf(3), metrics.get(BoundedRecordCollector.METRIC_DROPPED_COUNT));
+	}
+
+	@Test
+	public void testAddNull() {
+		BoundedRecordCollector<String> collector = BoundedRecordCollector.builder(name, handler).build();
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			collector.add(null);
+		});
+	}
+
+	@Test
+	public void testBuildWithCapacityLessThanBatchSize() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			BoundedRecordCollector.builder(name, handler).withCapacity(1).withBatchSize(2).build();
+		});
+	}
+
+	@Test
+	public void testBuildWithNullHandler() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			BoundedRecordCollector.builder(name, (BatchHandler<String>) null).build();
+		});
+	}
+}
@@ -0,0 +1,95 @@
+package org.sagebionetworks.repo.manager.content;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.repo.model.content.ImmutableContentCache;
+import org.sagebionetworks.util.Clock;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+@ExtendWith(MockitoExtension.class)
+public class ImmutableContentCacheMetricPublisherTest {
+
+	@Mock
+	private ImmutableContentCache mockContentCache;
+	@Mock
+	private Consumer mockConsumer;
+	@Mock
+	private Clock mockClock;
+	@Mock
+	private StackConfiguration mockStackConfig;
+	@InjectMocks
+	private ImmutableContentCacheMetricPublisher publisher = new ImmutableContentCacheMetricPublisher("Repository");
+	@Captor
+	private ArgumentCaptor<List<ProfileData>> profileDataCaptor;
+
+	@BeforeEach
+	public void before() {
+		when(mockStackConfig.getStackInstance()).thenReturn("instance1");
+	}
+
+	static Map<String, ProfileData> byName(List<ProfileData> metrics) {
+		return metrics.stream().collect(Collectors.toMap(ProfileData::getName, p -> p));
+	}
+
+	static double value(Map<String, ProfileData> metrics, String name) {
+		return metrics.get(name).getValue();
+	}
+
+	@Test
+	public void testOnTimerFired() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L, 2000L);
+		when(mockContentCache.getHeapHitCount()).thenReturn(6L, 16L);
+		when(mockContentCache.getDiskHitCount()).thenReturn(2L, 2L);
+		when(mockContentCache.getMissCount()).thenReturn(2L, 12L);
+		when(mockContentCache.getHeapBytes()).thenReturn(100L, 200L);
+		when(mockContentCache.getDiskBytes()).thenReturn(300L, 400L);
+		publisher.onTimerFired();
+		// call under test
+		publisher.onTimerFired();
+		verify(mockConsumer, times(2)).addProfileData(profileDataCaptor.capture());
+		Map<String, ProfileData> first = byName(profileDataCaptor.getAllValues().get(0));
+		assertEquals(60.0, value(first, ImmutableContentCacheMetricPublisher.METRIC_HEAP_HIT_RATE));
+		assertEquals(20.0, value(first, ImmutableContentCacheMetricPublisher.METRIC_DISK_HIT_RATE));
+		assertEquals(10.0, value(first, ImmutableContentCacheMetricPublisher.METRIC_REQUESTS));
+		// the second period only includes the calls since the first.
+		Map<String, ProfileData> second = byName(profileDataCaptor.getAllValues().get(1));
+		assertEquals(50.0, value(second, ImmutableContentCacheMetricPublisher.METRIC_HEAP_HIT_RATE));
+		assertEquals(0.0, value(second, ImmutableContentCacheMetricPublisher.METRIC_DISK_HIT_RATE));
+		assertEquals(20.0, value(second, ImmutableContentCacheMetricPublisher.METRIC_REQUESTS));
+		assertEquals(200.0, value(second, ImmutableContentCacheMetricPublisher.METRIC_HEAP_BYTES));
+		assertEquals(400.0, value(second, ImmutableContentCacheMetricPublisher.METRIC_DISK_BYTES));
+		ProfileData heapBytes = second.get(ImmutableContentCacheMetricPublisher.METRIC_HEAP_BYTES);
+		assertEquals(StandardUnit.Bytes.name(), heapBytes.getUnit());
+		assertEquals("Repository-Content-Cache-instance1", heapBytes.getNamespace());
+		assertEquals(new Date(2000L), heapBytes.getTimestamp());
+	}
+
+	@Test
+	public void testCreateMetricsWithNoRequests() {
+		// call under test
+		Map<String, ProfileData> metrics = byName(publisher.createMetrics(0L, 0L, 0L, 0L, 0L, new Date(1L)));
+		assertEquals(0.0, value(metrics, ImmutableContentCacheMetricPublisher.METRIC_HEAP_HIT_RATE));
+		assertEquals(StandardUnit.Percent.name(),
+				metrics.get(ImmutableContentCacheMetricPublisher.METRIC_HEAP_HIT_RATE).getUnit());
+	}
+}
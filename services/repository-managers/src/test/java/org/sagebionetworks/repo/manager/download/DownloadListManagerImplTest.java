@@ -61,9 +61,11 @@ import org.sagebionetworks.repo.model.DatastoreException;
 import org.sagebionetworks.repo.model.EntityType;
 import org.sagebionetworks.repo.model.NextPageToken;
 import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.UnauthorizedException;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.ar.UsersRequirementStatus;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.ar.UsersRestrictionStatus;
 import org.sagebionetworks.repo.model.auth.AuthorizationStatus;
 import org.sagebionetworks.repo.model.dbo.entity.UserEntityPermissionsState;
@@ -2156,4 +2158,24 @@ public class DownloadListManagerImplTest {
 		}
 		return itemOne;
 	}
+
+	@Test
+	public void testInvalidateSnapshots() {
+		List<ChangeMessage> messages = Arrays.asList(
+				new ChangeMessage().setObjectType(ObjectType.ENTITY).setObjectId("syn123"),
+				new ChangeMessage().setObjectType(ObjectType.ENTITY_CONTAINER).setObjectId("456"),
+				new ChangeMessage().setObjectType(ObjectType.ACCESS_REQUIREMENT).setObjectId("789"));
+		// call under test
+		manager.invalidateSnapshots(messages);
+		verify(mockDownloadListDao).invalidateSnapshots(Sets.newHashSet(123L, 456L));
+	}
+
+	@Test
+	public void testInvalidateSnapshotsWithNullMessages() {
+		String message = assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			manager.invalidateSnapshots(null);
+		}).getMessage();
+		assertEquals("messages is required.", message);
+	}
 }
@@ -0,0 +1,90 @@
+package org.sagebionetworks.repo.manager.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.UserInfo;
+import org.sagebionetworks.repo.model.dbo.entity.UserEntityPermissionsState;
+
+public class EntityStateCacheTest {
+
+	private UserInfo userInfo;
+	private EntityStateCache cache;
+	private List<List<Long>> loadedIds;
+
+	@BeforeEach
+	public void before() {
+		userInfo = new UserInfo(false, 123L);
+		userInfo.getGroups().add(789L);
+		cache = new EntityStateCache(userInfo);
+		loadedIds = new ArrayList<>();
+	}
+
+	Map<Long, UserEntityPermissionsState> load(List<Long> entityIds) {
+		loadedIds.add(entityIds);
+		Map<Long, UserEntityPermissionsState> results = new HashMap<>();
+		for (Long entityId : entityIds) {
+			results.put(entityId, new UserEntityPermissionsState(entityId));
+		}
+		return results;
+	}
+
+	@Test
+	public void testGetPermissionsStateLoadsOnlyMissing() {
+		// call under test
+		Map<Long, UserEntityPermissionsState> results = cache.getPermissionsState(Arrays.asList(1L, 2L), this::load);
+		assertEquals(2, results.size());
+		results = cache.getPermissionsState(Arrays.asList(2L, 3L, 3L), this::load);
+		assertEquals(3, results.size());
+		results = cache.getPermissionsState(Arrays.asList(1L, 3L), this::load);
+		assertEquals(Arrays.asList(Arrays.asList(1L, 2L), Arrays.asList(3L)), loadedIds);
+	}
+
+	@Test
+	public void testIsForUser() {
+		assertTrue(cache.isForUser(userInfo));
+		// not in group 789
+		UserInfo sameUserOtherGroups = new UserInfo(false, 123L);
+		assertFalse(cache.isForUser(sameUserOtherGroups));
+		assertFalse(cache.isForUser(new UserInfo(false, 456L)));
+		assertFalse(cache.isForUser(null));
+	}
+
+	@Test
+	public void testBind() throws Exception {
+		assertFalse(EntityStateCache.getCurrent().isPresent());
+		EntityStateCache other = new EntityStateCache(new UserInfo(false, 456L));
+		// call under test
+		EntityStateCache inner = other.bind(() -> {
+			assertSame(other, EntityStateCache.getCurrent().get());
+			// nested binds restore the outer cache.
+			cache.bind(() -> EntityStateCache.getCurrent().get()).call();
+			return EntityStateCache.getCurrent().get();
+		}).call();
+		assertSame(other, inner);
+		assertFalse(EntityStateCache.getCurrent().isPresent());
+	}
+
+	@Test
+	public void testBindWithException() {
+		IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
+			// call under test
+			cache.bind(() -> {
+				throw new IllegalStateException("failed");
+			}).call();
+		});
+		assertEquals("failed", exception.getMessage());
+		assertFalse(EntityStateCache.getCurrent().isPresent());
+	}
+}
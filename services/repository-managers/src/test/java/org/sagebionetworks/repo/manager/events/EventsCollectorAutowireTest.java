@@ -17,6 +17,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.sagebionetworks.kinesis.AwsKinesisFirehoseLogger;
+import org.sagebionetworks.repo.manager.collector.RecordCollectorFactory;
 import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
@@ -37,6 +38,9 @@ public class EventsCollectorAutowireTest {
 	@Autowired
 	private TransactionSynchronizationProxy transactionSynchronization;
 
+	@Autowired
+	private RecordCollectorFactory recordCollectorFactory;
+
 	@Mock
 	private AwsKinesisFirehoseLogger firehoseLogger;
 
@@ -51,7 +55,7 @@ public class EventsCollectorAutowireTest {
 		// Spies on the transaction synchronization so that we can verify calls on it
 		transactionSynchronization = Mockito.spy(transactionSynchronization);
 		// We mock the firehose logger
-		statsEventsCollector = new EventsCollectorImpl(firehoseLogger, logRecordProviderFactory, transactionSynchronization);
+		statsEventsCollector = new EventsCollectorImpl(firehoseLogger, logRecordProviderFactory, transactionSynchronization, recordCollectorFactory);
 		// Replace the autowired collector with ours so that we do not use firehose
 		collectorClient.setEventsCollector(statsEventsCollector);
 	}
@@ -2638,4 +2638,101 @@ public class FileHandleManagerImplTest {
 		}
 		
 	}
+	
+	@Test
+	public void testUploadLocalStream() {
+		S3StorageLocationSetting storageLocationSetting = new S3StorageLocationSetting();
+		when(mockStorageLocationDao.get(any())).thenReturn(storageLocationSetting);
+		when(mockIdGenerator.generateNewId(IdType.FILE_IDS)).thenReturn(987L);
+		when(mockFileHandleDao.createFile(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		byte[] content = "Some data".getBytes(StandardCharsets.UTF_8);
+		LocalFileUploadRequest request = new LocalFileUploadRequest()
+				.withContentType("application/zip")
+				.withFileName("result.zip")
+				.withUserId("123");
+		
+		// Call under test
+		S3FileHandle result = manager.uploadLocalStream(request, (out) -> {
+			out.write(content);
+			return true;
+		});
+		
+		ArgumentCaptor<PutObjectRequest> putCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+		verify(mockS3Client).putObject(putCaptor.capture());
+		PutObjectRequest putRequest = putCaptor.getValue();
+		assertEquals(MultipartUtils.getBucket(storageLocationSetting), putRequest.getBucketName());
+		assertEquals(result.getKey(), putRequest.getKey());
+		assertEquals(StorageClass.IntelligentTiering.toString(), putRequest.getStorageClass());
+		assertEquals(MultipartUtils.getBucket(storageLocationSetting), result.getBucketName());
+		assertEquals("987", result.getId());
+		assertEquals("result.zip", result.getFileName());
+		assertEquals("application/zip", result.getContentType());
+		assertEquals("123", result.getCreatedBy());
+		assertEquals(TransferUtils.createMD5(content), result.getContentMd5());
+		assertEquals(Long.valueOf(content.length), result.getContentSize());
+		verify(mockFileHandleDao).createFile(result);
+	}
+	
+	@Test
+	public void testUploadLocalStreamWithContentDiscarded() {
+		S3StorageLocationSetting storageLocationSetting = new S3StorageLocationSetting();
+		when(mockStorageLocationDao.get(any())).thenReturn(storageLocationSetting);
+		LocalFileUploadRequest request = new LocalFileUploadRequest()
+				.withContentType("application/zip")
+				.withFileName("result.zip")
+				.withUserId("123");
+		
+		// Call under test
+		S3FileHandle result = manager.uploadLocalStream(request, (out) -> {
+			out.write(1);
+			return false;
+		});
+		
+		assertNull(result);
+		verify(mockS3Client, never()).putObject(any(PutObjectRequest.class));
+		verify(mockFileHandleDao, never()).createFile(any());
+	}
+	
+	@Test
+	public void testUploadLocalStreamWithIOException() {
+		S3StorageLocationSetting storageLocationSetting = new S3StorageLocationSetting();
+		when(mockStorageLocationDao.get(any())).thenReturn(storageLocationSetting);
+		LocalFileUploadRequest request = new LocalFileUploadRequest()
+				.withFileName("result.zip")
+				.withUserId("123");
+		IOException exception = new IOException("failed");
+		
+		DatastoreException thrown = assertThrows(DatastoreException.class, () -> {
+			// Call under test
+			manager.uploadLocalStream(request, (out) -> {
+				throw exception;
+			});
+		});
+		
+		assertEquals(exception, thrown.getCause());
+		verify(mockFileHandleDao, never()).createFile(any());
+	}
+	
+	@Test
+	public void testUploadLocalStreamAnonymous() {
+		LocalFileUploadRequest request = new LocalFileUploadRequest()
+				.withFileName("result.zip")
+				.withUserId(anonymousUser.getId().toString());
+		
+		assertThrows(UnauthorizedException.class, () -> {
+			// method under test
+			manager.uploadLocalStream(request, (out) -> true);
+		});
+	}
+	
+	@Test
+	public void testUploadLocalStreamWithNullFileName() {
+		LocalFileUploadRequest request = new LocalFileUploadRequest()
+				.withUserId("123");
+		
+		assertThrows(IllegalArgumentException.class, () -> {
+			// method under test
+			manager.uploadLocalStream(request, (out) -> true);
+		});
+	}
 }
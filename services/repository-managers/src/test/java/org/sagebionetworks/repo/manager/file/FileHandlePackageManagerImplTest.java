@@ -1,19 +1,22 @@
 package org.sagebionetworks.repo.manager.file;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.sagebionetworks.repo.manager.file.FileHandlePackageManagerImpl.FILE_ALREADY_ADDED;
 import static org.sagebionetworks.repo.manager.file.FileHandlePackageManagerImpl.FILE_EXCEEDS_THE_MAXIMUM_SIZE_LIMIT;
@@ -21,14 +24,19 @@ import static org.sagebionetworks.repo.manager.file.FileHandlePackageManagerImpl
 import static org.sagebionetworks.repo.model.file.FileHandleAssociateType.FileEntity;
 import static org.sagebionetworks.repo.model.file.FileHandleAssociateType.TableEntity;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -42,8 +50,10 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.repo.manager.file.FileHandlePackageManagerImpl.PrefetchedFile;
 import org.sagebionetworks.repo.manager.events.EventsCollector;
 import org.sagebionetworks.repo.manager.statistics.StatisticsFileEvent;
 import org.sagebionetworks.repo.model.UserInfo;
@@ -64,7 +74,9 @@ import org.sagebionetworks.repo.model.jdo.NameValidation;
 import org.sagebionetworks.repo.web.NotFoundException;
 
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
 
 @ExtendWith(MockitoExtension.class)
 public class FileHandlePackageManagerImplTest {
@@ -78,8 +90,6 @@ public class FileHandlePackageManagerImplTest {
 	@Mock
 	private FileHandleManager mockFileHandleManager;
 	@Mock
-	private File mockTempFile;
-	@Mock
 	private ZipOutputStream mockZipOut;
 	@Mock
 	private ZipEntryNameProvider mockZipEntryNameProvider;
@@ -91,6 +101,12 @@ public class FileHandlePackageManagerImplTest {
 	private ArgumentCaptor<ZipEntryNameProvider> zipEntryNameProviderCaptor;
 	@Captor
 	private ArgumentCaptor<List<StatisticsFileEvent>> statisticsFileEventCaptor;
+	@Captor
+	private ArgumentCaptor<LocalFileUploadRequest> uploadRequestCaptor;
+	@Captor
+	private ArgumentCaptor<Future<PrefetchedFile>> prefetchedCaptor;
+	@Captor
+	private ArgumentCaptor<InputStream> inputStreamCaptor;
 
 	@Spy
 	@InjectMocks
@@ -103,6 +119,8 @@ public class FileHandlePackageManagerImplTest {
 	private List<FileDownloadSummary> summaryResults;
 	private S3FileHandle resultFileHandle;
 	private boolean fileSizesChecked;
+	private byte[] fileContent;
+	private ByteArrayOutputStream uploadStream;
 
 	@BeforeEach
 	public void before() {
@@ -129,64 +147,37 @@ public class FileHandlePackageManagerImplTest {
 				.setRequestedFiles(associations);
 		
 		fileSizesChecked = false;
+		fileContent = "some file content".getBytes(StandardCharsets.UTF_8);
+		uploadStream = new ByteArrayOutputStream();
+		// run the downloads on the calling thread.
+		fileHandleSupportSpy.setDownloadExecutor(MoreExecutors.newDirectExecutorService());
 	}
 
 	@Test
 	public void testZipRoundTrip() throws IOException {
-		File one = null;
-		File two = null;
-		File zip = null;
-		FileOutputStream oneOut = null;
-		FileOutputStream twoOut = null;
-		ZipOutputStream zipOut = null;
-		ZipInputStream zipIn = null;
-		try {
-			String oneContents = "data for one";
-			String twoContents = "data for two";
-			// create one.
-			one = fileHandleSupportSpy.createTempFile("One", ".txt");
-			oneOut = new FileOutputStream(one);
-			IOUtils.write(oneContents, oneOut);
-			oneOut.close();
-			// create two
-			two = fileHandleSupportSpy.createTempFile("two", ".txt");
-			twoOut = new FileOutputStream(two);
-			IOUtils.write(twoContents, twoOut);
-			// The output zip
-			zip = fileHandleSupportSpy.createTempFile("Zip", ".zip");
-			zipOut = fileHandleSupportSpy.createZipOutputStream(zip);
-
+		String oneContents = "data for one";
+		String twoContents = "data for two";
+		ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zipOut = new ZipOutputStream(zipBytes)) {
 			// add the files to the zip.
 			String entryNameOne = "p1/One.txt";
-			fileHandleSupportSpy.addFileToZip(zipOut, one, entryNameOne);
+			fileHandleSupportSpy.addStreamToZip(zipOut,
+					new ByteArrayInputStream(oneContents.getBytes(StandardCharsets.UTF_8)), entryNameOne);
 			String entryNameTwo = "p2/Two.txt";
-			fileHandleSupportSpy.addFileToZip(zipOut, two, entryNameTwo);
+			fileHandleSupportSpy.addStreamToZip(zipOut,
+					new ByteArrayInputStream(twoContents.getBytes(StandardCharsets.UTF_8)), entryNameTwo);
 			zipOut.close();
 
 			// unzip
-			zipIn = new ZipInputStream(new FileInputStream(zip));
-			ZipEntry entry = zipIn.getNextEntry();
-			assertEquals(entryNameOne, entry.getName());
-			assertEquals(oneContents, IOUtils.toString(zipIn));
-			zipIn.closeEntry();
-			entry = zipIn.getNextEntry();
-			assertEquals(entryNameTwo, entry.getName());
-			assertEquals(twoContents, IOUtils.toString(zipIn));
-			zipIn.closeEntry();
-
-		} finally {
-			IOUtils.closeQuietly(oneOut);
-			IOUtils.closeQuietly(twoOut);
-			IOUtils.closeQuietly(zipOut);
-			IOUtils.closeQuietly(zipIn);
-			if (one != null) {
-				one.delete();
-			}
-			if (two != null) {
-				two.delete();
-			}
-			if (zip != null) {
-				zip.delete();
+			try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(zipBytes.toByteArray()))) {
+				ZipEntry entry = zipIn.getNextEntry();
+				assertEquals(entryNameOne, entry.getName());
+				assertEquals(oneContents, IOUtils.toString(zipIn, StandardCharsets.UTF_8));
+				zipIn.closeEntry();
+				entry = zipIn.getNextEntry();
+				assertEquals(entryNameTwo, entry.getName());
+				assertEquals(twoContents, IOUtils.toString(zipIn, StandardCharsets.UTF_8));
+				zipIn.closeEntry();
 			}
 		}
 	}
@@ -233,12 +224,20 @@ public class FileHandlePackageManagerImplTest {
 		}
 	}
 
+	/**
+	 * Runs the writer passed to uploadLocalStream() against the local upload
+	 * stream.
+	 */
+	private S3FileHandle writeAndUpload(InvocationOnMock invocation) throws IOException {
+		UploadStreamWriter writer = invocation.getArgument(1);
+		return writer.write(uploadStream) ? resultFileHandle : null;
+	}
+
 	@Test
 	public void testBuildZip() throws IOException {
-		doReturn(mockTempFile).when(fileHandleSupportSpy).createTempFile(any(), any());
 		doReturn(summaryResults).when(fileHandleSupportSpy).addFilesToZip(any(), any(), any(), anyBoolean());
 		doNothing().when(fileHandleSupportSpy).collectDownloadStatistics(any(), any());
-		when(mockFileHandleManager.uploadLocalFile(any())).thenReturn(resultFileHandle);
+		when(mockFileHandleManager.uploadLocalStream(any(), any())).thenAnswer(this::writeAndUpload);
 
 		// call under test
 		BulkFileDownloadResponse response = fileHandleSupportSpy.buildZip(userInfo, request);
@@ -246,38 +245,33 @@ public class FileHandlePackageManagerImplTest {
 		BulkFileDownloadResponse expected = new BulkFileDownloadResponse().setUserId(userInfo.getId().toString())
 				.setFileSummary(summaryResults).setResultZipFileHandleId(resultFileHandle.getId());
 		assertEquals(expected, response);
-		verify(fileHandleSupportSpy).createTempFile("Job", ".zip");
-		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
-		verify(mockFileHandleManager).uploadLocalFile(new LocalFileUploadRequest()
+		verify(mockFileHandleManager).uploadLocalStream(eq(new LocalFileUploadRequest()
 				.withFileName(request.getZipFileName()).withUserId(userInfo.getId().toString())
-				.withFileToUpload(mockTempFile).withContentType(FileHandlePackageManagerImpl.APPLICATION_ZIP));
+				.withContentType(FileHandlePackageManagerImpl.APPLICATION_ZIP)), any());
+		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, uploadStream, fileSizesChecked);
 		verify(fileHandleSupportSpy).collectDownloadStatistics(userInfo.getId(), summaryResults);
-		verify(mockTempFile).delete();
 	}
 
 	@Test
 	public void testBuildZipWithNoSuccess() throws IOException {
-		doReturn(mockTempFile).when(fileHandleSupportSpy).createTempFile(any(), any());
-		
 		summaryResults =  Arrays.asList(
 				new FileDownloadSummary().setFileHandleId("11").setStatus(FileDownloadStatus.FAILURE),
 				new FileDownloadSummary().setFileHandleId("22").setStatus(FileDownloadStatus.FAILURE)
 		);
 		
 		doReturn(summaryResults).when(fileHandleSupportSpy).addFilesToZip(any(), any(), any(), anyBoolean());
+		when(mockFileHandleManager.uploadLocalStream(any(), any())).thenAnswer(this::writeAndUpload);
 
 		// call under test
 		BulkFileDownloadResponse response = fileHandleSupportSpy.buildZip(userInfo, request);
 
+		// the zip is empty so the upload is discarded
 		BulkFileDownloadResponse expected = new BulkFileDownloadResponse().setUserId(userInfo.getId().toString())
 				.setFileSummary(summaryResults).setResultZipFileHandleId(null);
 		assertEquals(expected, response);
-		verify(fileHandleSupportSpy).createTempFile("Job", ".zip");
-		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
-		// the zip is empty so it should not get uploaded
-		verify(mockFileHandleManager, never()).uploadLocalFile(any());
+		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, uploadStream, fileSizesChecked);
 		verify(fileHandleSupportSpy).collectDownloadStatistics(userInfo.getId(), summaryResults);
-		verify(mockTempFile).delete();
+		verify(mockStatisticsCollector, never()).collectEvents(any());
 	}
 
 	@Test
@@ -289,19 +283,17 @@ public class FileHandlePackageManagerImplTest {
 		}).getMessage();
 		assertEquals(NameValidation.createInvalidMessage(request.getZipFileName()), message);
 
-		verify(fileHandleSupportSpy, never()).createTempFile(any(), any());
 		verify(fileHandleSupportSpy, never()).addFilesToZip(any(), any(), any(), anyBoolean());
-		verify(mockFileHandleManager, never()).uploadLocalFile(any());
+		verify(mockFileHandleManager, never()).uploadLocalStream(any(), any());
 	}
 
 	@Test
 	public void testBuildZipWithNullName() throws IOException {
 		request.setZipFileName(null);
 
-		doReturn(mockTempFile).when(fileHandleSupportSpy).createTempFile(any(), any());
 		doReturn(summaryResults).when(fileHandleSupportSpy).addFilesToZip(any(), any(), any(), anyBoolean());
 		doNothing().when(fileHandleSupportSpy).collectDownloadStatistics(any(), any());
-		when(mockFileHandleManager.uploadLocalFile(any())).thenReturn(resultFileHandle);
+		when(mockFileHandleManager.uploadLocalStream(any(), any())).thenAnswer(this::writeAndUpload);
 
 		// call under test
 		BulkFileDownloadResponse response = fileHandleSupportSpy.buildZip(userInfo, request);
@@ -309,43 +301,42 @@ public class FileHandlePackageManagerImplTest {
 		BulkFileDownloadResponse expected = new BulkFileDownloadResponse().setUserId(userInfo.getId().toString())
 				.setFileSummary(summaryResults).setResultZipFileHandleId(resultFileHandle.getId());
 		assertEquals(expected, response);
-		verify(fileHandleSupportSpy).createTempFile("Job", ".zip");
-		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
-		verify(mockFileHandleManager).uploadLocalFile(new LocalFileUploadRequest()
-				.withFileName(request.getZipFileName()).withUserId(userInfo.getId().toString())
-				.withFileToUpload(mockTempFile).withContentType(FileHandlePackageManagerImpl.APPLICATION_ZIP));
+		verify(mockFileHandleManager).uploadLocalStream(uploadRequestCaptor.capture(), any());
+		LocalFileUploadRequest uploadRequest = uploadRequestCaptor.getValue();
+		// a name is generated for the zip.
+		assertTrue(uploadRequest.getFileName().startsWith("Job"));
+		assertTrue(uploadRequest.getFileName().endsWith(".zip"));
+		assertEquals(userInfo.getId().toString(), uploadRequest.getUserId());
+		assertEquals(FileHandlePackageManagerImpl.APPLICATION_ZIP, uploadRequest.getContentType());
+		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, uploadStream, fileSizesChecked);
 		verify(fileHandleSupportSpy).collectDownloadStatistics(userInfo.getId(), summaryResults);
-		verify(mockTempFile).delete();
 	}
 
 	@Test
-	public void testBuildZipWithExceptionDeleteFile() throws IOException {
-		doReturn(mockTempFile).when(fileHandleSupportSpy).createTempFile(any(), any());
+	public void testBuildZipWithException() throws IOException {
 		IllegalArgumentException exception = new IllegalArgumentException("not working");
 		doThrow(exception).when(fileHandleSupportSpy).addFilesToZip(any(), any(), any(), anyBoolean());
+		when(mockFileHandleManager.uploadLocalStream(any(), any())).thenAnswer(this::writeAndUpload);
 		String message = assertThrows(IllegalArgumentException.class, () -> {
 			// call under test
 			fileHandleSupportSpy.buildZip(userInfo, request);
 		}).getMessage();
 		assertEquals(exception.getMessage(), message);
 
-		verify(fileHandleSupportSpy).createTempFile("Job", ".zip");
-		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
-		verify(mockFileHandleManager, never()).uploadLocalFile(any());
-		// the temp file still must be deleted.
-		verify(mockTempFile).delete();
+		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, uploadStream, fileSizesChecked);
+		verify(fileHandleSupportSpy, never()).collectDownloadStatistics(any(), any());
 	}
 
 	@Test
-	public void testAddFilesToZip() throws IOException {
-		doReturn(mockZipOut).when(fileHandleSupportSpy).createZipOutputStream(any());
+	public void testAddFilesToZip() throws Exception {
 		when(mockFileHandleAuthorizationManager.canDownLoadFile(any(), any())).thenReturn(authResults);
+		PrefetchedFile prefetchedFile = new PrefetchedFile(resultFileHandle, fileContent);
+		doReturn(prefetchedFile).when(fileHandleSupportSpy).prefetchFile(any());
 		doReturn("one.txt", "two.txt").when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(),
-				any(), anyBoolean());
-		when(mockTempFile.length()).thenReturn(25L,125L);
+				any(), anyBoolean(), any());
 
 		// call under test
-		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
+		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, uploadStream, fileSizesChecked);
 		// @formatter:off
 		List<FileDownloadSummary> expected = Arrays.asList(
 				createSummary(associations.get(0)).setZipEntryName("one.txt").setStatus(FileDownloadStatus.SUCCESS),
@@ -354,93 +345,181 @@ public class FileHandlePackageManagerImplTest {
 		// @formatter:on
 		assertEquals(expected, summary);
 
-		verify(fileHandleSupportSpy).createZipOutputStream(mockTempFile);
-		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(25L), eq(authResults.get(0)), filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
-		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(125L), eq(authResults.get(1)), filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
+		// only the authorized file is fetched ahead of time.
+		verify(fileHandleSupportSpy).prefetchFile("11");
+		verify(fileHandleSupportSpy).writeOneFileToZip(any(ZipOutputStream.class), eq(0L), eq(authResults.get(0)), filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked), prefetchedCaptor.capture());
+		verify(fileHandleSupportSpy).writeOneFileToZip(any(ZipOutputStream.class), eq(0L), eq(authResults.get(1)), filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked), isNull());
+		assertEquals(prefetchedFile, prefetchedCaptor.getValue().get());
 		assertEquals(Sets.newHashSet("11","22"),  filesInZipCaptor.getValue());
 		assertTrue(zipEntryNameProviderCaptor.getValue() instanceof FlatZipEntryNameProvider);
-		verify(mockZipOut).close();
+		// the end of the zip is written but the stream is left open for the caller.
+		assertTrue(uploadStream.size() > 0);
 	}
 	
 	@Test
 	public void testAddFilesToZipWithBulkFileException() throws IOException {
-		doReturn(mockZipOut).when(fileHandleSupportSpy).createZipOutputStream(any());
 		authResults = Arrays.asList(
 				new FileHandleAssociationAuthorizationStatus(associations.get(0), AuthorizationStatus.authorized()));
 		when(mockFileHandleAuthorizationManager.canDownLoadFile(any(), any())).thenReturn(authResults);
+		doReturn(new PrefetchedFile(resultFileHandle, fileContent)).when(fileHandleSupportSpy).prefetchFile(any());
 
 		BulkFileException exception = new BulkFileException("not found", FileDownloadCode.NOT_FOUND);
-		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), anyBoolean());
-		when(mockTempFile.length()).thenReturn(25L, 125L);
+		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), anyBoolean(), any());
 
 		// call under test
-		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
+		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, uploadStream, fileSizesChecked);
 
 		List<FileDownloadSummary> expected = Arrays
 				.asList(createSummary(associations.get(0)).setStatus(FileDownloadStatus.FAILURE)
 						.setFailureMessage(exception.getMessage()).setFailureCode(FileDownloadCode.NOT_FOUND));
 		assertEquals(expected, summary);
 
-		verify(fileHandleSupportSpy).createZipOutputStream(mockTempFile);
-		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(25L), eq(authResults.get(0)),
-				filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
+		verify(fileHandleSupportSpy).writeOneFileToZip(any(ZipOutputStream.class), eq(0L), eq(authResults.get(0)),
+				filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked), any());
 		assertEquals(Collections.emptySet(), filesInZipCaptor.getValue());
 		assertTrue(zipEntryNameProviderCaptor.getValue() instanceof FlatZipEntryNameProvider);
-		verify(mockZipOut).close();
 	}
 	
 	@Test
 	public void testAddFilesToZipWithNotFoundException() throws IOException {
-		doReturn(mockZipOut).when(fileHandleSupportSpy).createZipOutputStream(any());
 		authResults = Arrays.asList(
 				new FileHandleAssociationAuthorizationStatus(associations.get(0), AuthorizationStatus.authorized()));
 		when(mockFileHandleAuthorizationManager.canDownLoadFile(any(), any())).thenReturn(authResults);
+		doReturn(new PrefetchedFile(resultFileHandle, fileContent)).when(fileHandleSupportSpy).prefetchFile(any());
 
 		NotFoundException exception = new NotFoundException("not found");
-		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), anyBoolean());
-		when(mockTempFile.length()).thenReturn(25L, 125L);
+		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), anyBoolean(), any());
 
 		// call under test
-		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
+		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, uploadStream, fileSizesChecked);
 
 		List<FileDownloadSummary> expected = Arrays
 				.asList(createSummary(associations.get(0)).setStatus(FileDownloadStatus.FAILURE)
 						.setFailureMessage(exception.getMessage()).setFailureCode(FileDownloadCode.NOT_FOUND));
 		assertEquals(expected, summary);
 
-		verify(fileHandleSupportSpy).createZipOutputStream(mockTempFile);
-		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(25L), eq(authResults.get(0)),
-				filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
+		verify(fileHandleSupportSpy).writeOneFileToZip(any(ZipOutputStream.class), eq(0L), eq(authResults.get(0)),
+				filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked), any());
 		assertEquals(Collections.emptySet(), filesInZipCaptor.getValue());
 		assertTrue(zipEntryNameProviderCaptor.getValue() instanceof FlatZipEntryNameProvider);
-		verify(mockZipOut).close();
 	}
 	
 	@Test
 	public void testAddFilesToZipWithException() throws IOException {
-		doReturn(mockZipOut).when(fileHandleSupportSpy).createZipOutputStream(any());
 		authResults = Arrays.asList(
 				new FileHandleAssociationAuthorizationStatus(associations.get(0), AuthorizationStatus.authorized()));
 		when(mockFileHandleAuthorizationManager.canDownLoadFile(any(), any())).thenReturn(authResults);
+		doReturn(new PrefetchedFile(resultFileHandle, fileContent)).when(fileHandleSupportSpy).prefetchFile(any());
 
 		RuntimeException exception = new RuntimeException("something else");
-		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), anyBoolean());
-		when(mockTempFile.length()).thenReturn(25L, 125L);
+		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), anyBoolean(), any());
 
 		// call under test
-		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
+		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, uploadStream, fileSizesChecked);
 
 		List<FileDownloadSummary> expected = Arrays
 				.asList(createSummary(associations.get(0)).setStatus(FileDownloadStatus.FAILURE)
 						.setFailureMessage(exception.getMessage()).setFailureCode(FileDownloadCode.UNKNOWN_ERROR));
 		assertEquals(expected, summary);
 
-		verify(fileHandleSupportSpy).createZipOutputStream(mockTempFile);
-		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(25L), eq(authResults.get(0)),
-				filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
+		verify(fileHandleSupportSpy).writeOneFileToZip(any(ZipOutputStream.class), eq(0L), eq(authResults.get(0)),
+				filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked), any());
 		assertEquals(Collections.emptySet(), filesInZipCaptor.getValue());
 		assertTrue(zipEntryNameProviderCaptor.getValue() instanceof FlatZipEntryNameProvider);
-		verify(mockZipOut).close();
+	}
+	
+	@Test
+	public void testAddFilesToZipRoundTrip() throws IOException {
+		// @formatter:off
+		associations = Arrays.asList(
+				new FileHandleAssociation().setAssociateObjectId("syn1").setAssociateObjectType(FileEntity).setFileHandleId("11"),
+				new FileHandleAssociation().setAssociateObjectId("syn2").setAssociateObjectType(FileEntity).setFileHandleId("22"),
+				new FileHandleAssociation().setAssociateObjectId("syn3").setAssociateObjectType(FileEntity).setFileHandleId("33")
+		);
+		// @formatter:on
+		authResults = Arrays.asList(
+				new FileHandleAssociationAuthorizationStatus(associations.get(0), AuthorizationStatus.authorized()),
+				new FileHandleAssociationAuthorizationStatus(associations.get(1), AuthorizationStatus.authorized()),
+				new FileHandleAssociationAuthorizationStatus(associations.get(2), AuthorizationStatus.authorized()));
+		request.setRequestedFiles(associations);
+		when(mockFileHandleAuthorizationManager.canDownLoadFile(any(), any())).thenReturn(authResults);
+		when(mockFileHandleDao.get(any())).thenAnswer(invocation -> {
+			String id = invocation.getArgument(0);
+			// the last file is too large to be fetched ahead of time.
+			long size = "33".equals(id) ? FileHandlePackageManagerImpl.MAX_PREFETCH_FILE_SIZE_BYTES + 1 : 10L;
+			return new S3FileHandle().setId(id).setBucketName("bucket").setKey("key" + id).setFileName("file" + id + ".txt")
+					.setContentSize(size);
+		});
+		when(mockS3client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+			GetObjectRequest getRequest = invocation.getArgument(0);
+			S3Object object = new S3Object();
+			object.setObjectContent(new ByteArrayInputStream(("content of " + getRequest.getKey()).getBytes(StandardCharsets.UTF_8)));
+			return object;
+		});
+
+		// call under test
+		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, uploadStream, fileSizesChecked);
+
+		assertEquals(3, summary.size());
+		// The entries must be in the same order as the request.
+		try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(uploadStream.toByteArray()))) {
+			for (FileDownloadSummary fileSummary : summary) {
+				assertEquals(FileDownloadStatus.SUCCESS, fileSummary.getStatus());
+				ZipEntry entry = zipIn.getNextEntry();
+				assertEquals(fileSummary.getZipEntryName(), entry.getName());
+				assertEquals("content of key" + fileSummary.getFileHandleId(), IOUtils.toString(zipIn, StandardCharsets.UTF_8));
+				zipIn.closeEntry();
+			}
+		}
+		// The two small files are fetched ahead of time and the large file is streamed.
+		verify(fileHandleSupportSpy).prefetchFile("11");
+		verify(fileHandleSupportSpy).prefetchFile("22");
+		verify(fileHandleSupportSpy).prefetchFile("33");
+	}
+
+	@Test
+	public void testAddFilesToZipWithZipFull() throws IOException {
+		int fileCount = FileHandlePackageManagerImpl.MAX_PREFETCHED_FILES + 2;
+		associations = new ArrayList<>(fileCount);
+		authResults = new ArrayList<>(fileCount);
+		for (int i = 0; i < fileCount; i++) {
+			FileHandleAssociation association = new FileHandleAssociation().setAssociateObjectId("syn" + i)
+					.setAssociateObjectType(FileEntity).setFileHandleId("" + i);
+			associations.add(association);
+			authResults.add(new FileHandleAssociationAuthorizationStatus(association, AuthorizationStatus.authorized()));
+		}
+		request.setRequestedFiles(associations);
+		when(mockFileHandleAuthorizationManager.canDownLoadFile(any(), any())).thenReturn(authResults);
+		when(mockFileHandleDao.get(any())).thenAnswer(invocation -> {
+			String id = invocation.getArgument(0);
+			return new S3FileHandle().setId(id).setBucketName("bucket").setKey("key" + id).setFileName("file" + id + ".txt")
+					.setContentSize(10L);
+		});
+		when(mockS3client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+			S3Object object = new S3Object();
+			object.setObjectContent(new ByteArrayInputStream(fileContent));
+			return object;
+		});
+		// the zip is full as soon as the first file is written.
+		doAnswer(invocation -> invocation.<Long>getArgument(0) > 0L).when(fileHandleSupportSpy).isZipFull(anyLong(),
+				anyBoolean());
+
+		// call under test
+		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, uploadStream, fileSizesChecked);
+
+		assertEquals(fileCount, summary.size());
+		assertEquals(FileDownloadStatus.SUCCESS, summary.get(0).getStatus());
+		for (FileDownloadSummary fileSummary : summary.subList(1, fileCount)) {
+			assertEquals(FileDownloadStatus.FAILURE, fileSummary.getStatus());
+			assertEquals(FileDownloadCode.EXCEEDS_SIZE_LIMIT, fileSummary.getFailureCode());
+		}
+		// Only the first window is fetched before the zip is full.
+		for (int i = 0; i < FileHandlePackageManagerImpl.MAX_PREFETCHED_FILES; i++) {
+			verify(fileHandleSupportSpy).prefetchFile("" + i);
+		}
+		for (int i = FileHandlePackageManagerImpl.MAX_PREFETCHED_FILES; i < fileCount; i++) {
+			verify(fileHandleSupportSpy, never()).prefetchFile("" + i);
+		}
 	}
 	
 	public static FileDownloadSummary createSummary(FileHandleAssociation association) {
@@ -452,8 +531,8 @@ public class FileHandlePackageManagerImplTest {
 	@Test
 	public void testWriteOneFileToZip() throws IOException {
 		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
-		doReturn(mockTempFile).when(fileHandleSupportSpy).downloadToTempFile(any());
-		doNothing().when(fileHandleSupportSpy).addFileToZip(any(), any(), any());
+		doReturn(new ByteArrayInputStream(fileContent)).when(fileHandleSupportSpy).openObjectStream(any());
+		doNothing().when(fileHandleSupportSpy).addStreamToZip(any(), any(), any());
 		long zipFileSize = 100L;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
 				associations.get(0), AuthorizationStatus.authorized());
@@ -462,14 +541,13 @@ public class FileHandlePackageManagerImplTest {
 		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
 
 		// call under test
-		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, null);
 		
 		assertEquals(entryName, filename);
 		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy).downloadToTempFile(resultFileHandle);
-		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockTempFile, entryName);
+		verify(fileHandleSupportSpy).openObjectStream(resultFileHandle);
+		verify(fileHandleSupportSpy).addStreamToZip(eq(mockZipOut), any(), eq(entryName));
 		verify(mockZipEntryNameProvider).createZipEntryName(resultFileHandle.getFileName(), Long.parseLong(resultFileHandle.getId()));
-		verify(mockTempFile).delete();
 	}
 	
 	@Test
@@ -481,16 +559,15 @@ public class FileHandlePackageManagerImplTest {
 
 		BulkFileException exception = assertThrows(BulkFileException.class, ()->{
 			// call under test
-			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, null);
 		});
 		assertEquals(FileDownloadCode.UNAUTHORIZED, exception.getFailureCode());
 		assertEquals("nope", exception.getMessage());
 		
 		verify(fileHandleSupportSpy, never()).getS3FileHandle(any());
-		verify(fileHandleSupportSpy, never()).downloadToTempFile(any());
-		verify(fileHandleSupportSpy, never()).addFileToZip(any(), any(), any());
+		verify(fileHandleSupportSpy, never()).openObjectStream(any());
+		verify(fileHandleSupportSpy, never()).addStreamToZip(any(), any(), any());
 		verify(mockZipEntryNameProvider, never()).createZipEntryName(any(), any());
-		verifyNoMoreInteractions(mockTempFile);
 	}
 	
 	@Test
@@ -502,23 +579,22 @@ public class FileHandlePackageManagerImplTest {
 
 		BulkFileException exception = assertThrows(BulkFileException.class, ()->{
 			// call under test
-			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, null);
 		});
 		assertEquals(FileDownloadCode.DUPLICATE, exception.getFailureCode());
 		assertEquals(FILE_ALREADY_ADDED, exception.getMessage());
 		
 		verify(fileHandleSupportSpy, never()).getS3FileHandle(any());
-		verify(fileHandleSupportSpy, never()).downloadToTempFile(any());
-		verify(fileHandleSupportSpy, never()).addFileToZip(any(), any(), any());
+		verify(fileHandleSupportSpy, never()).openObjectStream(any());
+		verify(fileHandleSupportSpy, never()).addStreamToZip(any(), any(), any());
 		verify(mockZipEntryNameProvider, never()).createZipEntryName(any(), any());
-		verifyNoMoreInteractions(mockTempFile);
 	}
 	
 	@Test
 	public void testWriteOneFileToZipWithZipAtMaxSize() throws IOException {
 		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
-		doReturn(mockTempFile).when(fileHandleSupportSpy).downloadToTempFile(any());
-		doNothing().when(fileHandleSupportSpy).addFileToZip(any(), any(), any());
+		doReturn(new ByteArrayInputStream(fileContent)).when(fileHandleSupportSpy).openObjectStream(any());
+		doNothing().when(fileHandleSupportSpy).addStreamToZip(any(), any(), any());
 		long zipFileSize = FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
 				associations.get(0), AuthorizationStatus.authorized());
@@ -527,22 +603,21 @@ public class FileHandlePackageManagerImplTest {
 		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
 
 		// call under test
-		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, null);
 		
 		assertEquals(entryName, filename);
 		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy).downloadToTempFile(resultFileHandle);
-		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockTempFile, entryName);
+		verify(fileHandleSupportSpy).openObjectStream(resultFileHandle);
+		verify(fileHandleSupportSpy).addStreamToZip(eq(mockZipOut), any(), eq(entryName));
 		verify(mockZipEntryNameProvider).createZipEntryName(resultFileHandle.getFileName(), Long.parseLong(resultFileHandle.getId()));
-		verify(mockTempFile).delete();
 	}
 	
 	@Test
 	public void testWriteOneFileToZipWithZipOverMaxMaxSizeAndFileSizeChecked() throws IOException {
 		fileSizesChecked = true;
 		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
-		doReturn(mockTempFile).when(fileHandleSupportSpy).downloadToTempFile(any());
-		doNothing().when(fileHandleSupportSpy).addFileToZip(any(), any(), any());
+		doReturn(new ByteArrayInputStream(fileContent)).when(fileHandleSupportSpy).openObjectStream(any());
+		doNothing().when(fileHandleSupportSpy).addStreamToZip(any(), any(), any());
 		long zipFileSize = FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES + 1;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
 				associations.get(0), AuthorizationStatus.authorized());
@@ -551,14 +626,13 @@ public class FileHandlePackageManagerImplTest {
 		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
 
 		// call under test
-		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, null);
 		
 		assertEquals(entryName, filename);
 		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy).downloadToTempFile(resultFileHandle);
-		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockTempFile, entryName);
+		verify(fileHandleSupportSpy).openObjectStream(resultFileHandle);
+		verify(fileHandleSupportSpy).addStreamToZip(eq(mockZipOut), any(), eq(entryName));
 		verify(mockZipEntryNameProvider).createZipEntryName(resultFileHandle.getFileName(), Long.parseLong(resultFileHandle.getId()));
-		verify(mockTempFile).delete();
 	}
 	
 	@Test
@@ -570,24 +644,23 @@ public class FileHandlePackageManagerImplTest {
 
 		BulkFileException exception = assertThrows(BulkFileException.class, ()->{
 			// call under test
-			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, null);
 		});
 		assertEquals(FileDownloadCode.EXCEEDS_SIZE_LIMIT, exception.getFailureCode());
 		assertEquals(RESULT_FILE_HAS_REACHED_THE_MAXIMUM_SIZE, exception.getMessage());
 		
 		verify(fileHandleSupportSpy, never()).getS3FileHandle(any());
-		verify(fileHandleSupportSpy, never()).downloadToTempFile(any());
-		verify(fileHandleSupportSpy, never()).addFileToZip(any(), any(), any());
+		verify(fileHandleSupportSpy, never()).openObjectStream(any());
+		verify(fileHandleSupportSpy, never()).addStreamToZip(any(), any(), any());
 		verify(mockZipEntryNameProvider, never()).createZipEntryName(any(), any());
-		verifyNoMoreInteractions(mockTempFile);
 	}
 	
 	@Test
 	public void testWriteOneFileToZipWithFileAtMaxSize() throws IOException {
 		resultFileHandle.setContentSize(FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES);
 		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
-		doReturn(mockTempFile).when(fileHandleSupportSpy).downloadToTempFile(any());
-		doNothing().when(fileHandleSupportSpy).addFileToZip(any(), any(), any());
+		doReturn(new ByteArrayInputStream(fileContent)).when(fileHandleSupportSpy).openObjectStream(any());
+		doNothing().when(fileHandleSupportSpy).addStreamToZip(any(), any(), any());
 		long zipFileSize = 100L;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
 				associations.get(0), AuthorizationStatus.authorized());
@@ -596,14 +669,13 @@ public class FileHandlePackageManagerImplTest {
 		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
 
 		// call under test
-		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, null);
 		
 		assertEquals(entryName, filename);
 		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy).downloadToTempFile(resultFileHandle);
-		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockTempFile, entryName);
+		verify(fileHandleSupportSpy).openObjectStream(resultFileHandle);
+		verify(fileHandleSupportSpy).addStreamToZip(eq(mockZipOut), any(), eq(entryName));
 		verify(mockZipEntryNameProvider).createZipEntryName(resultFileHandle.getFileName(), Long.parseLong(resultFileHandle.getId()));
-		verify(mockTempFile).delete();
 	}
 	
 	@Test
@@ -617,16 +689,15 @@ public class FileHandlePackageManagerImplTest {
 
 		BulkFileException exception = assertThrows(BulkFileException.class, ()->{
 			// call under test
-			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, null);
 		});
 		assertEquals(FileDownloadCode.EXCEEDS_SIZE_LIMIT, exception.getFailureCode());
 		assertEquals(FILE_EXCEEDS_THE_MAXIMUM_SIZE_LIMIT, exception.getMessage());
 		
 		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy, never()).downloadToTempFile(any());
-		verify(fileHandleSupportSpy, never()).addFileToZip(any(), any(), any());
+		verify(fileHandleSupportSpy, never()).openObjectStream(any());
+		verify(fileHandleSupportSpy, never()).addStreamToZip(any(), any(), any());
 		verify(mockZipEntryNameProvider, never()).createZipEntryName(any(), any());
-		verifyNoMoreInteractions(mockTempFile);
 	}
 	
 	@Test
@@ -634,8 +705,8 @@ public class FileHandlePackageManagerImplTest {
 		fileSizesChecked = true;
 		resultFileHandle.setContentSize(FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES+1);
 		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
-		doReturn(mockTempFile).when(fileHandleSupportSpy).downloadToTempFile(any());
-		doNothing().when(fileHandleSupportSpy).addFileToZip(any(), any(), any());
+		doReturn(new ByteArrayInputStream(fileContent)).when(fileHandleSupportSpy).openObjectStream(any());
+		doNothing().when(fileHandleSupportSpy).addStreamToZip(any(), any(), any());
 		long zipFileSize = 100L;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
 				associations.get(0), AuthorizationStatus.authorized());
@@ -644,14 +715,104 @@ public class FileHandlePackageManagerImplTest {
 		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
 
 		// call under test
-		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, null);
 		
 		assertEquals(entryName, filename);
 		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy).downloadToTempFile(resultFileHandle);
-		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockTempFile, entryName);
+		verify(fileHandleSupportSpy).openObjectStream(resultFileHandle);
+		verify(fileHandleSupportSpy).addStreamToZip(eq(mockZipOut), any(), eq(entryName));
 		verify(mockZipEntryNameProvider).createZipEntryName(resultFileHandle.getFileName(), Long.parseLong(resultFileHandle.getId()));
-		verify(mockTempFile).delete();
+	}
+
+	@Test
+	public void testWriteOneFileToZipWithPrefetchedContent() throws IOException {
+		doNothing().when(fileHandleSupportSpy).addStreamToZip(any(), any(), any());
+		long zipFileSize = 100L;
+		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
+				associations.get(0), AuthorizationStatus.authorized());
+		Set<String> fileIdsInZip = Collections.emptySet();
+		String entryName = "anEntry.txt";
+		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
+		Future<PrefetchedFile> prefetched = CompletableFuture.completedFuture(new PrefetchedFile(resultFileHandle, fileContent));
+
+		// call under test
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, prefetched);
+		
+		assertEquals(entryName, filename);
+		verify(fileHandleSupportSpy).addStreamToZip(eq(mockZipOut), inputStreamCaptor.capture(), eq(entryName));
+		assertArrayEquals(fileContent, IOUtils.toByteArray(inputStreamCaptor.getValue()));
+		// the content was already fetched.
+		verify(fileHandleSupportSpy, never()).getS3FileHandle(any());
+		verify(fileHandleSupportSpy, never()).openObjectStream(any());
+	}
+	
+	@Test
+	public void testWriteOneFileToZipWithPrefetchedHandleOnly() throws IOException {
+		doReturn(new ByteArrayInputStream(fileContent)).when(fileHandleSupportSpy).openObjectStream(any());
+		doNothing().when(fileHandleSupportSpy).addStreamToZip(any(), any(), any());
+		long zipFileSize = 100L;
+		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
+				associations.get(0), AuthorizationStatus.authorized());
+		Set<String> fileIdsInZip = Collections.emptySet();
+		String entryName = "anEntry.txt";
+		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
+		Future<PrefetchedFile> prefetched = CompletableFuture.completedFuture(new PrefetchedFile(resultFileHandle, null));
+
+		// call under test
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, prefetched);
+		
+		assertEquals(entryName, filename);
+		verify(fileHandleSupportSpy, never()).getS3FileHandle(any());
+		// the content is streamed from S3
+		verify(fileHandleSupportSpy).openObjectStream(resultFileHandle);
+		verify(fileHandleSupportSpy).addStreamToZip(eq(mockZipOut), any(), eq(entryName));
+	}
+	
+	@Test
+	public void testWriteOneFileToZipWithPrefetchFailure() throws IOException {
+		long zipFileSize = 100L;
+		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
+				associations.get(0), AuthorizationStatus.authorized());
+		Set<String> fileIdsInZip = Collections.emptySet();
+		CompletableFuture<PrefetchedFile> prefetched = new CompletableFuture<>();
+		NotFoundException exception = new NotFoundException("gone");
+		prefetched.completeExceptionally(exception);
+
+		NotFoundException thrown = assertThrows(NotFoundException.class, ()->{
+			// call under test
+			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked, prefetched);
+		});
+		assertEquals(exception, thrown);
+		verify(fileHandleSupportSpy, never()).addStreamToZip(any(), any(), any());
+	}
+	
+	@Test
+	public void testPrefetchFile() throws IOException {
+		resultFileHandle.setContentSize(FileHandlePackageManagerImpl.MAX_PREFETCH_FILE_SIZE_BYTES);
+		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
+		doReturn(new ByteArrayInputStream(fileContent)).when(fileHandleSupportSpy).openObjectStream(any());
+		
+		// call under test
+		PrefetchedFile prefetched = fileHandleSupportSpy.prefetchFile("3333");
+		
+		assertEquals(resultFileHandle, prefetched.getFileHandle());
+		assertArrayEquals(fileContent, prefetched.getContent());
+		verify(fileHandleSupportSpy).getS3FileHandle("3333");
+		verify(fileHandleSupportSpy).openObjectStream(resultFileHandle);
+	}
+	
+	@Test
+	public void testPrefetchFileOverMaxPrefetchSize() throws IOException {
+		resultFileHandle.setContentSize(FileHandlePackageManagerImpl.MAX_PREFETCH_FILE_SIZE_BYTES + 1);
+		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
+		
+		// call under test
+		PrefetchedFile prefetched = fileHandleSupportSpy.prefetchFile("3333");
+		
+		assertEquals(resultFileHandle, prefetched.getFileHandle());
+		// too large to hold in memory
+		assertNull(prefetched.getContent());
+		verify(fileHandleSupportSpy, never()).openObjectStream(any());
 	}
 
 	@Test
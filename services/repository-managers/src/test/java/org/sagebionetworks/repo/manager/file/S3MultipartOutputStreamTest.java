@@ -0,0 +1,235 @@
+package org.sagebionetworks.repo.manager.file;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.repo.manager.file.transfer.TransferUtils;
+
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.StorageClass;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+
+@ExtendWith(MockitoExtension.class)
+public class S3MultipartOutputStreamTest {
+
+	@Mock
+	private SynapseS3Client mockS3Client;
+	@Captor
+	private ArgumentCaptor<PutObjectRequest> putCaptor;
+	@Captor
+	private ArgumentCaptor<InitiateMultipartUploadRequest> initCaptor;
+	@Captor
+	private ArgumentCaptor<UploadPartRequest> partCaptor;
+	@Captor
+	private ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor;
+	@Captor
+	private ArgumentCaptor<AbortMultipartUploadRequest> abortCaptor;
+
+	private String bucket;
+	private String key;
+	private ObjectMetadata metadata;
+	private int partSize;
+	private String uploadId;
+	private List<byte[]> uploadedParts;
+
+	@BeforeEach
+	public void before() {
+		bucket = "some-bucket";
+		key = "some/key.zip";
+		metadata = new ObjectMetadata();
+		partSize = S3MultipartOutputStream.MIN_PART_SIZE_BYTES;
+		uploadId = "upload-id";
+		uploadedParts = new ArrayList<>();
+	}
+
+	void setupMultipart() {
+		InitiateMultipartUploadResult initResult = new InitiateMultipartUploadResult();
+		initResult.setUploadId(uploadId);
+		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(initResult);
+		when(mockS3Client.uploadPart(any())).thenAnswer(invocation -> {
+			UploadPartRequest partRequest = invocation.getArgument(0);
+			// the part buffer is reused so the content must be read now.
+			uploadedParts.add(IOUtils.toByteArray(partRequest.getInputStream()));
+			UploadPartResult result = new UploadPartResult();
+			result.setPartNumber(partRequest.getPartNumber());
+			result.setETag("etag-" + partRequest.getPartNumber());
+			return result;
+		});
+	}
+
+	S3MultipartOutputStream createStream(StorageClass storageClass) {
+		return new S3MultipartOutputStream(mockS3Client, bucket, key, metadata, storageClass, partSize);
+	}
+
+	@Test
+	public void testWriteSinglePart() throws IOException {
+		byte[] content = "small content".getBytes(StandardCharsets.UTF_8);
+		S3MultipartOutputStream out = createStream(StorageClass.IntelligentTiering);
+		// call under test
+		out.write(content);
+		out.close();
+
+		verify(mockS3Client).putObject(putCaptor.capture());
+		PutObjectRequest put = putCaptor.getValue();
+		assertEquals(bucket, put.getBucketName());
+		assertEquals(key, put.getKey());
+		assertEquals(StorageClass.IntelligentTiering.toString(), put.getStorageClass());
+		assertEquals(content.length, put.getMetadata().getContentLength());
+		assertArrayEquals(content, IOUtils.toByteArray(put.getInputStream()));
+		assertEquals(content.length, out.getBytesWritten());
+		assertEquals(TransferUtils.createMD5(content), out.getContentMD5Hex());
+		verify(mockS3Client, never()).initiateMultipartUpload(any());
+		verify(mockS3Client, never()).uploadPart(any());
+	}
+
+	@Test
+	public void testWriteMultipleParts() throws IOException {
+		setupMultipart();
+		byte[] content = new byte[partSize * 2 + 10];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+		S3MultipartOutputStream out = createStream(null);
+		// call under test
+		out.write(content[0]);
+		out.write(content, 1, content.length - 1);
+		out.close();
+
+		verify(mockS3Client).initiateMultipartUpload(initCaptor.capture());
+		assertEquals(bucket, initCaptor.getValue().getBucketName());
+		assertEquals(key, initCaptor.getValue().getKey());
+		verify(mockS3Client, times(3)).uploadPart(partCaptor.capture());
+		List<UploadPartRequest> parts = partCaptor.getAllValues();
+		assertEquals(1, parts.get(0).getPartNumber());
+		assertEquals(2, parts.get(1).getPartNumber());
+		assertEquals(3, parts.get(2).getPartNumber());
+		assertEquals(partSize, uploadedParts.get(0).length);
+		assertEquals(partSize, uploadedParts.get(1).length);
+		assertEquals(10, uploadedParts.get(2).length);
+		assertArrayEquals(Arrays.copyOfRange(content, partSize, partSize * 2), uploadedParts.get(1));
+
+		verify(mockS3Client).completeMultipartUpload(completeCaptor.capture());
+		CompleteMultipartUploadRequest complete = completeCaptor.getValue();
+		assertEquals(uploadId, complete.getUploadId());
+		List<PartETag> etags = complete.getPartETags();
+		assertEquals(3, etags.size());
+		assertEquals("etag-3", etags.get(2).getETag());
+		verify(mockS3Client, never()).putObject(any(PutObjectRequest.class));
+
+		assertEquals(content.length, out.getBytesWritten());
+		assertEquals(TransferUtils.createMD5(content), out.getContentMD5Hex());
+	}
+
+	@Test
+	public void testWriteExactlyOnePart() throws IOException {
+		setupMultipart();
+		byte[] content = new byte[partSize];
+		S3MultipartOutputStream out = createStream(null);
+		// call under test
+		out.write(content);
+		out.close();
+
+		// the last part must not be empty.
+		verify(mockS3Client, times(1)).uploadPart(any());
+		verify(mockS3Client).completeMultipartUpload(any());
+	}
+
+	@Test
+	public void testAbort() throws IOException {
+		setupMultipart();
+		S3MultipartOutputStream out = createStream(null);
+		out.write(new byte[partSize + 1]);
+		// call under test
+		out.abort();
+
+		verify(mockS3Client).abortMultipartUpload(abortCaptor.capture());
+		assertEquals(uploadId, abortCaptor.getValue().getUploadId());
+		assertEquals(bucket, abortCaptor.getValue().getBucketName());
+		assertEquals(key, abortCaptor.getValue().getKey());
+		// closing an aborted stream does nothing.
+		out.close();
+		verify(mockS3Client, never()).completeMultipartUpload(any());
+		assertThrows(IOException.class, () -> {
+			out.write(1);
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			out.getContentMD5Hex();
+		});
+	}
+
+	@Test
+	public void testAbortBeforeFirstPart() throws IOException {
+		S3MultipartOutputStream out = createStream(null);
+		out.write(1);
+		// call under test
+		out.abort();
+		// nothing was uploaded.
+		verify(mockS3Client, never()).abortMultipartUpload(any());
+		verify(mockS3Client, never()).putObject(any(PutObjectRequest.class));
+	}
+
+	@Test
+	public void testAbortAfterClose() throws IOException {
+		setupMultipart();
+		S3MultipartOutputStream out = createStream(null);
+		out.write(new byte[partSize + 1]);
+		out.close();
+		// call under test
+		out.abort();
+		verify(mockS3Client, never()).abortMultipartUpload(any());
+	}
+
+	@Test
+	public void testCloseWithFailure() throws IOException {
+		setupMultipart();
+		IllegalStateException exception = new IllegalStateException("failed");
+		when(mockS3Client.completeMultipartUpload(any())).thenThrow(exception);
+		S3MultipartOutputStream out = createStream(null);
+		out.write(new byte[partSize + 1]);
+
+		IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> {
+			// call under test
+			out.close();
+		});
+		assertEquals(exception, thrown);
+		// a failed upload is aborted.
+		verify(mockS3Client).abortMultipartUpload(any());
+	}
+
+	@Test
+	public void testPartSizeTooSmall() {
+		partSize = S3MultipartOutputStream.MIN_PART_SIZE_BYTES - 1;
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			createStream(null);
+		});
+	}
+}
@@ -6,6 +6,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.sagebionetworks.repo.model.AuthorizationConstants.ERR_MSG_YOU_LACK_ACCESS_TO_REQUESTED_ENTITY_TEMPLATE;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +18,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sagebionetworks.repo.manager.entity.EntityAuthorizationManagerImpl;
+import org.sagebionetworks.repo.manager.entity.EntityStateCache;
 import org.sagebionetworks.repo.model.ACCESS_TYPE;
 import org.sagebionetworks.repo.model.AuthorizationConstants;
 import org.sagebionetworks.repo.model.DataType;
@@ -564,6 +566,42 @@ public class EntityAuthorizationManagerUnitTest {
 	}
 	
 	
+	@Test
+	public void testCreateEntityStateCache() throws Exception {
+		when(mockUsersEntityPermissionsDao.getEntityPermissionsAsMap(any(), any())).thenReturn(mapIdToState);
+		when(mockAccessRestrictionStatusDao.getEntityStatusAsMap(any(), any())).thenReturn(mapIdToAccess);
+		permissionsState.withtDoesEntityExist(true);
+		permissionsState.withHasRead(true);
+		permissionsState.withHasDownload(true);
+		// call under test
+		EntityStateCache cache = entityAuthManager.createEntityStateCache(userInfo, entityIds);
+		verify(mockUsersEntityPermissionsDao).getEntityPermissionsAsMap(userInfo.getGroups(), entityIds);
+		AuthorizationStatus status = cache.bind(() -> {
+			entityAuthManager.getUserPermissionsForEntity(userInfo, entityId);
+			entityAuthManager.canDeleteACL(userInfo, entityId);
+			return entityAuthManager.hasAccess(userInfo, entityId, ACCESS_TYPE.READ, ACCESS_TYPE.DOWNLOAD);
+		}).call();
+		assertEquals(AuthorizationStatus.authorized(), status);
+		// the state was only loaded once for all of the checks.
+		verify(mockUsersEntityPermissionsDao).getEntityPermissionsAsMap(any(), any());
+		verify(mockAccessRestrictionStatusDao).getEntityStatusAsMap(entityIds, userInfo.getId());
+	}
+	
+	@Test
+	public void testHasAccessWithEntityStateCacheForOtherUser() throws Exception {
+		when(mockUsersEntityPermissionsDao.getEntityPermissionsAsMap(any(), any())).thenReturn(mapIdToState);
+		permissionsState.withtDoesEntityExist(true);
+		permissionsState.withHasRead(true);
+		EntityStateCache otherUsersCache = new EntityStateCache(new UserInfo(false, 456L));
+		// call under test
+		AuthorizationStatus status = otherUsersCache
+				.bind(() -> entityAuthManager.hasAccess(userInfo, entityId, ACCESS_TYPE.READ)).call();
+		assertEquals(AuthorizationStatus.authorized(), status);
+		verify(mockUsersEntityPermissionsDao).getEntityPermissionsAsMap(userInfo.getGroups(), entityIds);
+		// the state of this user must not be added to the other user's cache.
+		assertEquals(0, otherUsersCache.getPermissionsState(Collections.emptyList(), (List<Long> ids) -> null).size());
+	}
+	
 	public UserEntityPermissions createAllFalseUserEntityPermissions() {
 		UserEntityPermissions up =  new UserEntityPermissions();
 		up.setCanAddChild(false);
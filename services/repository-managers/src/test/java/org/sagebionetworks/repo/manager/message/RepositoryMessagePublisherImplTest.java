@@ -1,19 +1,44 @@
 package org.sagebionetworks.repo.manager.message;
 
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.repo.manager.collector.BoundedRecordCollector;
+import org.sagebionetworks.repo.manager.collector.RecordCollectorFactory;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.message.ChangeType;
 import org.sagebionetworks.repo.model.message.TransactionalMessenger;
 
 import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.services.sns.model.CreateTopicRequest;
+import com.amazonaws.services.sns.model.CreateTopicResult;
+import com.amazonaws.services.sns.model.PublishRequest;
+import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * Unit test for RepositoryMessagePublisherImpl.
@@ -29,6 +54,16 @@ public class RepositoryMessagePublisherImplTest {
 	TransactionalMessenger mockTransactionalMessanger;
 	@Mock
 	AmazonSNS mockAwsSNSClient;
+	@Mock
+	StackConfiguration mockStackConfiguration;
+	@Mock
+	Consumer mockConsumer;
+	@Mock
+	RecordCollectorFactory mockRecordCollectorFactory;
+	@Captor
+	ArgumentCaptor<List<ChangeMessage>> batchCaptor;
+	@Captor
+	ArgumentCaptor<List<ProfileData>> metricCaptor;
 
 	@InjectMocks
 	RepositoryMessagePublisherImpl messagePublisher;
@@ -41,6 +76,12 @@ public class RepositoryMessagePublisherImplTest {
 		message.setChangeType(ChangeType.CREATE);
 		message.setObjectId("syn456");
 		message.setObjectType(ObjectType.ENTITY);
+		// use a real collector without a flush executor so that messages are only published by the timer.
+		when(mockRecordCollectorFactory.createCollector(anyString(), any(), any())).thenAnswer(invocation -> {
+			return BoundedRecordCollector.builder(invocation.getArgument(0), invocation.getArgument(1)).build();
+		});
+		messagePublisher.setPublishExecutor(MoreExecutors.newDirectExecutorService());
+		messagePublisher.initialize();
 	}
 	
 	@Test (expected=IllegalArgumentException.class)
@@ -77,5 +118,70 @@ public class RepositoryMessagePublisherImplTest {
 		// This should work
 		messagePublisher.fireChangeMessage(message);
 	}
+
+	@Test
+	public void testTimerFiredWithBatches(){
+		when(mockStackConfiguration.getShouldMessagesBePublishedToTopic()).thenReturn(true);
+		when(mockStackConfiguration.getRepositoryChangeTopic(anyString())).thenAnswer(invocation -> "topic-" + invocation.getArgument(0));
+		when(mockStackConfiguration.getStackInstance()).thenReturn("123");
+		when(mockAwsSNSClient.createTopic(any(CreateTopicRequest.class))).thenReturn(new CreateTopicResult().withTopicArn("arn"));
+		int entityCount = ChangeMessageUtils.MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE + 1;
+		for(long i=0; i<entityCount; i++) {
+			messagePublisher.fireChangeMessage(createMessage(i, ObjectType.ENTITY));
+		}
+		messagePublisher.fireChangeMessage(createMessage(entityCount, ObjectType.TEAM));
+		
+		// call under test
+		messagePublisher.timerFired();
+		
+		verify(mockTransactionalMessanger, times(2)).registerMessagesSent(eq(ObjectType.ENTITY), batchCaptor.capture());
+		verify(mockTransactionalMessanger).registerMessagesSent(ObjectType.TEAM, Arrays.asList(createMessage(entityCount, ObjectType.TEAM)));
+		int sentEntities = 0;
+		for(List<ChangeMessage> batch: batchCaptor.getAllValues()) {
+			sentEntities += batch.size();
+		}
+		assertEquals(entityCount, sentEntities);
+		verify(mockAwsSNSClient, times(3)).publish(any(PublishRequest.class));
+		verify(mockConsumer).addProfileData(metricCaptor.capture());
+		// one latency per batch and one count per topic.
+		assertEquals(5, metricCaptor.getValue().size());
+	}
+	
+	@Test
+	public void testTimerFiredWithPublishingDisabled(){
+		when(mockStackConfiguration.getShouldMessagesBePublishedToTopic()).thenReturn(false);
+		messagePublisher.fireChangeMessage(message);
+		
+		// call under test
+		messagePublisher.timerFired();
+		
+		verify(mockTransactionalMessanger, never()).registerMessagesSent(any(ObjectType.class), anyList());
+		verify(mockAwsSNSClient, never()).publish(any(PublishRequest.class));
+	}
+	
+	@Test
+	public void testGroupByObjectType(){
+		ChangeMessage one = createMessage(1L, ObjectType.ENTITY);
+		ChangeMessage two = createMessage(2L, ObjectType.TEAM);
+		ChangeMessage three = createMessage(3L, ObjectType.ENTITY);
+		List<ChangeMessage> messages = new ArrayList<>(Arrays.asList(one, two, three));
+		
+		// call under test
+		Map<ObjectType, List<ChangeMessage>> results = RepositoryMessagePublisherImpl.groupByObjectType(messages);
+		
+		assertEquals(Arrays.asList(ObjectType.ENTITY, ObjectType.TEAM), new ArrayList<>(results.keySet()));
+		assertEquals(Arrays.asList(one, three), results.get(ObjectType.ENTITY));
+		assertEquals(Arrays.asList(two), results.get(ObjectType.TEAM));
+	}
+	
+	private ChangeMessage createMessage(long changeNumber, ObjectType type) {
+		ChangeMessage change = new ChangeMessage();
+		change.setChangeNumber(changeNumber);
+		change.setTimestamp(new Date(1L));
+		change.setChangeType(ChangeType.UPDATE);
+		change.setObjectId("" + changeNumber);
+		change.setObjectType(type);
+		return change;
+	}
 	
 }
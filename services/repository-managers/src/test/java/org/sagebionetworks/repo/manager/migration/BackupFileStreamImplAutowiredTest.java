@@ -1,16 +1,26 @@
 package org.sagebionetworks.repo.manager.migration;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.sagebionetworks.repo.manager.migration.ColumnarBackupSchema.Column;
 import org.sagebionetworks.repo.model.daemon.BackupAliasType;
 import org.sagebionetworks.repo.model.dbo.MigratableDatabaseObject;
+import org.sagebionetworks.repo.model.migration.MigrationType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -50,6 +60,83 @@ public class BackupFileStreamImplAutowiredTest {
 		}
 	}
 	
+	/**
+	 * Both formats must round trip some of the largest migration types, and the
+	 * columnar binary file must be smaller than the XML file.
+	 */
+	@Test
+	public void testColumnarBinaryRoundTrip() throws IOException {
+		int rowCount = 10;
+		for (MigrationType type : new MigrationType[] { MigrationType.NODE, MigrationType.NODE_REVISION }) {
+			MigratableDatabaseObject mdo = backupFileStream.typeProvider.getObjectForType(type);
+			ColumnarBackupSchema schema = ColumnarBackupSchema.forType(mdo).get();
+			List<MigratableDatabaseObject<?, ?>> rows = new ArrayList<>(rowCount);
+			for (int i = 0; i < rowCount; i++) {
+				rows.add((MigratableDatabaseObject<?, ?>) mdo.getTranslator()
+						.createDatabaseObjectFromBackup(createBackupObject(schema, i)));
+			}
+			long xmlBytes = writeThenRead(type, rows, BackupAliasType.MIGRATION_TYPE_NAME);
+			long binaryBytes = writeThenRead(type, rows, BackupAliasType.COLUMNAR_BINARY);
+			assertTrue(binaryBytes < xmlBytes);
+		}
+	}
+
+	/**
+	 * Write then read the given rows with the given format.
+	 * 
+	 * @return The size of the backup file in bytes.
+	 */
+	long writeThenRead(MigrationType type, List<MigratableDatabaseObject<?, ?>> rows, BackupAliasType aliasType) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		backupFileStream.writeBackupFile(out, rows, aliasType, 10000);
+		List<MigratableDatabaseObject<?, ?>> results = new ArrayList<>(rows.size());
+		for (MigratableDatabaseObject<?, ?> row : backupFileStream.readBackupFile(new ByteArrayInputStream(out.toByteArray()), aliasType)) {
+			results.add(row);
+		}
+		assertEquals(rows, results, type + " " + aliasType);
+		return out.size();
+	}
+
+	/**
+	 * Create a backup object with a value for each column that changes with the
+	 * given index.
+	 */
+	static Object createBackupObject(ColumnarBackupSchema schema, int index) {
+		Object backup = schema.newBackupObject();
+		for (Column column : schema.getColumns()) {
+			switch (column.getType()) {
+			case LONG:
+				column.setValue(backup, 1_000_000L + index);
+				break;
+			case INTEGER:
+				column.setValue(backup, index % 100);
+				break;
+			case DOUBLE:
+				column.setValue(backup, index / 3.0);
+				break;
+			case BOOLEAN:
+				column.setValue(backup, index % 2 == 0);
+				break;
+			case STRING:
+				column.setValue(backup, column.getName() + "-" + index);
+				break;
+			case BYTES:
+				column.setValue(backup, (column.getName() + "-" + index).getBytes(StandardCharsets.UTF_8));
+				break;
+			case TIMESTAMP:
+				column.setValue(backup, new Timestamp(1_600_000_000_000L + index * 1000L));
+				break;
+			case DATE:
+				column.setValue(backup, new Date(1_600_000_000_000L + index * 1000L));
+				break;
+			case ENUM:
+				column.setValue(backup, column.getJavaType().getEnumConstants()[index % column.getJavaType().getEnumConstants().length]);
+				break;
+			}
+		}
+		return backup;
+	}
+	
 	public static void main(String[] args) {
 		System.out.println(new String(Base64.getDecoder().decode("VGVhbSBDaGFsbGVuZ2UgU3VibWlzc2lvbg==")));
 	}
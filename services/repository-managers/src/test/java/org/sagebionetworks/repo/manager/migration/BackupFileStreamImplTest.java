@@ -228,6 +228,21 @@ public class BackupFileStreamImplTest {
 		assertEquals("ACCESS_REQUIREMENT.3.xml", name);
 	}
 	
+	@Test
+	public void testCreateBinaryFileName() {
+		// call under test
+		String name = BackupFileStreamImpl.createBinaryFileName(MigrationType.ACCESS_REQUIREMENT, 3);
+		assertEquals("ACCESS_REQUIREMENT.3.bin", name);
+	}
+	
+	@Test
+	public void testGetXmlAliasType() {
+		// call under test
+		assertEquals(BackupAliasType.MIGRATION_TYPE_NAME, BackupFileStreamImpl.getXmlAliasType(BackupAliasType.COLUMNAR_BINARY));
+		assertEquals(BackupAliasType.MIGRATION_TYPE_NAME, BackupFileStreamImpl.getXmlAliasType(BackupAliasType.MIGRATION_TYPE_NAME));
+		assertEquals(BackupAliasType.TABLE_NAME, BackupFileStreamImpl.getXmlAliasType(BackupAliasType.TABLE_NAME));
+	}
+	
 	@Test (expected=IllegalArgumentException.class)
 	public void testCreateFileNameNull() {
 		// call under test
@@ -406,6 +421,72 @@ public class BackupFileStreamImplTest {
 		assertEquals(rowsToWrite, allResults);
 	}
 	
+	@Test
+	public void testWriteBatchToZipColumnarBinary() throws IOException {
+		backupAliasType = BackupAliasType.COLUMNAR_BINARY;
+		// call under test
+		backupFileStream.writeBatchToZip(zipOutputStream, currentBatch, index, currentType, backupAliasType);
+		IOUtils.closeQuietly(zipOutputStream);
+		
+		// Read the results
+		ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+		ZipEntry entry = zipIn.getNextEntry();
+		assertNotNull(entry);
+		String expectedName = BackupFileStreamImpl.createBinaryFileName(dboNodeOne.getMigratableTableType(), index);
+		assertEquals(expectedName, entry.getName());
+		ColumnarBackupSchema schema = ColumnarBackupSchema.forType(dboNodeOne).get();
+		List<Object> resultList = ColumnarBackupCodec.readBatch(schema, zipIn);
+		assertEquals(currentBatch, resultList);
+	}
+	
+	@Test
+	public void testWriteThenReadColumnarBinary() throws IOException {
+		backupAliasType = BackupAliasType.COLUMNAR_BINARY;
+		// call under test
+		backupFileStream.writeBackupFile(byteArrayOutputStream, rowsToWrite, backupAliasType, maximumRowsPerFile);
+		ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+		assertEquals("NODE.0.bin", zipIn.getNextEntry().getName());
+		assertEquals("NODE_REVISION.1.bin", zipIn.getNextEntry().getName());
+		assertEquals(null, zipIn.getNextEntry());
+		ByteArrayInputStream input = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+		// call under test
+		Iterable<MigratableDatabaseObject<?, ?>> resultIterator = backupFileStream.readBackupFile(input, backupAliasType);
+		List<MigratableDatabaseObject<?, ?>> allResults = new LinkedList<>();
+		for(MigratableDatabaseObject<?, ?> row: resultIterator) {
+			allResults.add(row);
+		}
+		assertEquals(rowsToWrite, allResults);
+	}
+	
+	@Test
+	public void testWriteThenReadColumnarBinaryWithTranslation() throws IOException {
+		backupAliasType = BackupAliasType.COLUMNAR_BINARY;
+		// call under test
+		backupFileStream.writeBackupFile(byteArrayOutputStream, credentials, backupAliasType, maximumRowsPerFile);
+		ByteArrayInputStream input = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+		// call under test
+		Iterable<MigratableDatabaseObject<?, ?>> resultIterator = backupFileStream.readBackupFile(input, backupAliasType);
+		List<MigratableDatabaseObject<?, ?>> allResults = new LinkedList<>();
+		for(MigratableDatabaseObject<?, ?> row: resultIterator) {
+			allResults.add(row);
+		}
+		assertEquals(credentials, allResults);
+	}
+	
+	@Test
+	public void testReadFileFromStreamColumnarBinaryEmpty() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ColumnarBackupCodec.writeBatch(ColumnarBackupSchema.forType(credentialOne).get(), new LinkedList<>(), out);
+		String fileName = BackupFileStreamImpl.createBinaryFileName(MigrationType.CREDENTIAL, 0);
+		try {
+			// Call under test
+			backupFileStream.readFileFromStream(new ByteArrayInputStream(out.toByteArray()), BackupAliasType.COLUMNAR_BINARY, fileName);
+			fail();
+		} catch (EmptyFileException e) {
+			// expected
+		}
+	}
+	
 	@Test (expected=IllegalStateException.class)
 	public void testNextBeforeHasNext() throws IOException {
 		backupFileStream.writeBackupFile(byteArrayOutputStream, rowsToWrite, backupAliasType, maximumRowsPerFile);
@@ -0,0 +1,479 @@
+package org.sagebionetworks.repo.manager.migration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.manager.migration.ColumnarBackupSchema.Column;
+import org.sagebionetworks.repo.manager.migration.ColumnarBackupSchema.ColumnType;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.persistence.DBONode;
+import org.sagebionetworks.repo.model.dbo.persistence.DBORevision;
+
+public class ColumnarBackupCodecTest {
+
+	private Row rowOne;
+	private Row rowTwo;
+	private ColumnarBackupSchema rowSchema;
+
+	@BeforeEach
+	public void before() {
+		rowOne = new Row();
+		rowOne.setId(123L);
+		rowOne.setCount(-4);
+		rowOne.setRatio(0.5);
+		rowOne.setEnabled(true);
+		rowOne.setName("one é中");
+		rowOne.setBlob(new byte[] { 1, 2, 3 });
+		Timestamp createdOn = new Timestamp(1_600_000_000_123L);
+		createdOn.setNanos(123_456_789);
+		rowOne.setCreatedOn(createdOn);
+		rowOne.setModifiedOn(new Date(1_600_000_001_000L));
+		rowOne.setType(ObjectType.ENTITY);
+		rowOne.setVersion(7L);
+		rowOne.setFlag(true);
+		// every reference type is null
+		rowTwo = new Row();
+		rowTwo.setVersion(-1L);
+		rowSchema = ColumnarBackupSchema.createSchema(Row.class, null).get();
+	}
+
+	byte[] write(ColumnarBackupSchema schema, List<?> rows) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ColumnarBackupCodec.writeBatch(schema, rows, out);
+		return out.toByteArray();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<Row> rows = Arrays.asList(rowOne, rowTwo);
+		byte[] bytes = write(rowSchema, rows);
+		// call under test
+		List<Object> results = ColumnarBackupCodec.readBatch(rowSchema, new ByteArrayInputStream(bytes));
+		assertEquals(rows, results);
+		assertEquals(123_456_789, ((Row) results.get(0)).getCreatedOn().getNanos());
+	}
+
+	@Test
+	public void testRoundTripEmpty() throws IOException {
+		byte[] bytes = write(rowSchema, Collections.emptyList());
+		// call under test
+		List<Object> results = ColumnarBackupCodec.readBatch(rowSchema, new ByteArrayInputStream(bytes));
+		assertTrue(results.isEmpty());
+	}
+
+	@Test
+	public void testRoundTripManyRows() throws IOException {
+		List<Row> rows = new ArrayList<>();
+		for (long i = 0; i < 1000; i++) {
+			Row row = new Row();
+			row.setId(1_000_000L + i);
+			row.setVersion(i % 3);
+			row.setName(i % 2 == 0 ? null : "name-" + i);
+			rows.add(row);
+		}
+		byte[] bytes = write(rowSchema, rows);
+		// call under test
+		List<Object> results = ColumnarBackupCodec.readBatch(rowSchema, new ByteArrayInputStream(bytes));
+		assertEquals(rows, results);
+	}
+
+	@Test
+	public void testRoundTripRevision() throws IOException {
+		DBORevision revision = new DBORevision();
+		revision.setOwner(123L);
+		revision.setRevisionNumber(2L);
+		revision.setLabel("label");
+		revision.setReference("reference".getBytes());
+		revision.setIsSearchEnabled(false);
+		DBORevision mdo = new DBORevision();
+		ColumnarBackupSchema schema = ColumnarBackupSchema.forType(mdo).get();
+		// columns follow the table mapping
+		List<String> tableFields = Arrays.stream(mdo.getTableMapping().getFieldColumns()).map(FieldColumn::getFieldName)
+				.collect(Collectors.toList());
+		assertEquals(tableFields.get(0), schema.getColumns().get(0).getName());
+		byte[] bytes = write(schema, Collections.singletonList(revision));
+		// call under test
+		List<Object> results = ColumnarBackupCodec.readBatch(schema, new ByteArrayInputStream(bytes));
+		assertEquals(Collections.singletonList(revision), results);
+	}
+
+	@Test
+	public void testRoundTripNodeWithCaseMismatchedGetter() throws IOException {
+		DBONode node = new DBONode();
+		node.setId(123L);
+		node.setName("name");
+		// the getter of the 'eTag' field is 'getEtag'
+		node.seteTag("etag");
+		node.setDescription("description".getBytes());
+		ColumnarBackupSchema schema = ColumnarBackupSchema.forType(new DBONode()).get();
+		assertEquals(ColumnType.STRING, schema.getColumn("eTag").getType());
+		byte[] bytes = write(schema, Collections.singletonList(node));
+		// call under test
+		List<Object> results = ColumnarBackupCodec.readBatch(schema, new ByteArrayInputStream(bytes));
+		assertEquals(Collections.singletonList(node), results);
+	}
+
+	@Test
+	public void testReadWithAddedAndRemovedColumns() throws IOException {
+		byte[] bytes = write(rowSchema, Arrays.asList(rowOne));
+		ColumnarBackupSchema otherSchema = ColumnarBackupSchema.createSchema(OtherRow.class, null).get();
+		// call under test
+		List<Object> results = ColumnarBackupCodec.readBatch(otherSchema, new ByteArrayInputStream(bytes));
+		assertEquals(1, results.size());
+		OtherRow result = (OtherRow) results.get(0);
+		assertEquals(rowOne.getId(), result.getId());
+		assertEquals(rowOne.getName(), result.getName());
+		// not in the file.
+		assertNull(result.getAddedField());
+	}
+
+	@Test
+	public void testReadWithChangedColumnType() throws IOException {
+		byte[] bytes = write(rowSchema, Arrays.asList(rowOne));
+		ColumnarBackupSchema changedSchema = ColumnarBackupSchema.createSchema(ChangedRow.class, null).get();
+		IOException e = assertThrows(IOException.class, () -> {
+			// call under test
+			ColumnarBackupCodec.readBatch(changedSchema, new ByteArrayInputStream(bytes));
+		});
+		assertTrue(e.getMessage().contains("id"));
+	}
+
+	@Test
+	public void testReadNotColumnar() {
+		assertThrows(IOException.class, () -> {
+			// call under test
+			ColumnarBackupCodec.readBatch(rowSchema, new ByteArrayInputStream("<list></list>".getBytes()));
+		});
+	}
+
+	@Test
+	public void testSchemaColumnTypes() {
+		assertEquals(ColumnType.LONG, rowSchema.getColumn("id").getType());
+		assertEquals(ColumnType.LONG, rowSchema.getColumn("version").getType());
+		assertEquals(ColumnType.INTEGER, rowSchema.getColumn("count").getType());
+		assertEquals(ColumnType.DOUBLE, rowSchema.getColumn("ratio").getType());
+		assertEquals(ColumnType.BOOLEAN, rowSchema.getColumn("enabled").getType());
+		assertEquals(ColumnType.BOOLEAN, rowSchema.getColumn("flag").getType());
+		assertEquals(ColumnType.STRING, rowSchema.getColumn("name").getType());
+		assertEquals(ColumnType.BYTES, rowSchema.getColumn("blob").getType());
+		assertEquals(ColumnType.TIMESTAMP, rowSchema.getColumn("createdOn").getType());
+		assertEquals(ColumnType.DATE, rowSchema.getColumn("modifiedOn").getType());
+		assertEquals(ColumnType.ENUM, rowSchema.getColumn("type").getType());
+		// static fields are not columns
+		assertNull(rowSchema.getColumn("CONSTANT"));
+	}
+
+	@Test
+	public void testSchemaTableOrder() {
+		FieldColumn[] fieldColumns = new FieldColumn[] { new FieldColumn("name", "NAME"),
+				new FieldColumn("id", "ID", true) };
+		// call under test
+		ColumnarBackupSchema schema = ColumnarBackupSchema.createSchema(Row.class, fieldColumns).get();
+		List<String> names = schema.getColumns().stream().map(Column::getName).collect(Collectors.toList());
+		assertEquals(Arrays.asList("name", "id", "blob", "count", "createdOn", "enabled", "flag", "modifiedOn",
+				"ratio", "type", "version"), names);
+	}
+
+	@Test
+	public void testSchemaWithUnsupportedType() {
+		// call under test
+		Optional<ColumnarBackupSchema> schema = ColumnarBackupSchema.createSchema(UnsupportedTypeRow.class, null);
+		assertFalse(schema.isPresent());
+	}
+
+	@Test
+	public void testSchemaWithFieldWithoutSetter() {
+		// call under test
+		Optional<ColumnarBackupSchema> schema = ColumnarBackupSchema.createSchema(NoSetterRow.class, null);
+		assertFalse(schema.isPresent());
+	}
+
+	@Test
+	public void testSchemaWithoutDefaultConstructor() {
+		// call under test
+		Optional<ColumnarBackupSchema> schema = ColumnarBackupSchema.createSchema(NoConstructorRow.class, null);
+		assertFalse(schema.isPresent());
+	}
+
+	@Test
+	public void testVarLong() throws IOException {
+		long[] values = new long[] { 0L, 1L, 127L, 128L, 16_384L, Long.MAX_VALUE, ColumnarBackupCodec.zigZag(-1L),
+				ColumnarBackupCodec.zigZag(Long.MIN_VALUE) };
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(out);
+		for (long value : values) {
+			ColumnarBackupCodec.writeVarLong(data, value);
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+		for (long value : values) {
+			assertEquals(value, ColumnarBackupCodec.readVarLong(in));
+		}
+		assertEquals(-1L, ColumnarBackupCodec.unZigZag(ColumnarBackupCodec.zigZag(-1L)));
+		assertEquals(Long.MIN_VALUE, ColumnarBackupCodec.unZigZag(ColumnarBackupCodec.zigZag(Long.MIN_VALUE)));
+	}
+
+	@Test
+	public void testSequentialIdsAreCompact() throws IOException {
+		List<OtherRow> rows = new ArrayList<>();
+		for (long i = 0; i < 1000; i++) {
+			OtherRow row = new OtherRow();
+			row.setId(9_000_000_000L + i);
+			rows.add(row);
+		}
+		ColumnarBackupSchema schema = ColumnarBackupSchema.createSchema(OtherRow.class, null).get();
+		// call under test
+		byte[] bytes = write(schema, rows);
+		// after the first, each id is written as a single byte delta.
+		assertTrue(bytes.length < 1500, "Size: " + bytes.length);
+	}
+
+	@Test
+	public void testColumnTypeFromCode() {
+		for (ColumnType type : ColumnType.values()) {
+			assertEquals(type, ColumnType.fromCode(type.getCode()));
+		}
+		assertThrows(IllegalArgumentException.class, () -> {
+			ColumnType.fromCode((byte) 99);
+		});
+	}
+
+	@Test
+	public void testBytesAreCopied() throws IOException {
+		byte[] bytes = write(rowSchema, Arrays.asList(rowOne));
+		List<Object> results = ColumnarBackupCodec.readBatch(rowSchema, new ByteArrayInputStream(bytes));
+		assertArrayEquals(rowOne.getBlob(), ((Row) results.get(0)).getBlob());
+	}
+
+	public static class Row {
+
+		public static final String CONSTANT = "constant";
+
+		private Long id;
+		private Integer count;
+		private Double ratio;
+		private Boolean enabled;
+		private String name;
+		private byte[] blob;
+		private Timestamp createdOn;
+		private Date modifiedOn;
+		private ObjectType type;
+		private long version;
+		private boolean flag;
+
+		public Long getId() {
+			return id;
+		}
+
+		public void setId(Long id) {
+			this.id = id;
+		}
+
+		public Integer getCount() {
+			return count;
+		}
+
+		public void setCount(Integer count) {
+			this.count = count;
+		}
+
+		public Double getRatio() {
+			return ratio;
+		}
+
+		public void setRatio(Double ratio) {
+			this.ratio = ratio;
+		}
+
+		public Boolean getEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(Boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public byte[] getBlob() {
+			return blob;
+		}
+
+		public void setBlob(byte[] blob) {
+			this.blob = blob;
+		}
+
+		public Timestamp getCreatedOn() {
+			return createdOn;
+		}
+
+		public void setCreatedOn(Timestamp createdOn) {
+			this.createdOn = createdOn;
+		}
+
+		public Date getModifiedOn() {
+			return modifiedOn;
+		}
+
+		public void setModifiedOn(Date modifiedOn) {
+			this.modifiedOn = modifiedOn;
+		}
+
+		public ObjectType getType() {
+			return type;
+		}
+
+		public void setType(ObjectType type) {
+			this.type = type;
+		}
+
+		public long getVersion() {
+			return version;
+		}
+
+		public void setVersion(long version) {
+			this.version = version;
+		}
+
+		public boolean isFlag() {
+			return flag;
+		}
+
+		public void setFlag(boolean flag) {
+			this.flag = flag;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(id, count, ratio, enabled, name, Arrays.hashCode(blob), createdOn,
+					modifiedOn, type, version, flag);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Row)) {
+				return false;
+			}
+			Row other = (Row) obj;
+			return Objects.equals(id, other.id) && Objects.equals(count, other.count)
+					&& Objects.equals(ratio, other.ratio) && Objects.equals(enabled, other.enabled)
+					&& Objects.equals(name, other.name) && Arrays.equals(blob, other.blob)
+					&& Objects.equals(createdOn, other.createdOn)
+					&& Objects.equals(modifiedOn, other.modifiedOn) && type == other.type
+					&& version == other.version && flag == other.flag;
+		}
+	}
+
+	public static class OtherRow {
+
+		private Long id;
+		private String name;
+		private String addedField;
+
+		public Long getId() {
+			return id;
+		}
+
+		public void setId(Long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getAddedField() {
+			return addedField;
+		}
+
+		public void setAddedField(String addedField) {
+			this.addedField = addedField;
+		}
+	}
+
+	public static class ChangedRow {
+
+		private String id;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+	}
+
+	public static class UnsupportedTypeRow {
+
+		private List<String> values;
+
+		public List<String> getValues() {
+			return values;
+		}
+
+		public void setValues(List<String> values) {
+			this.values = values;
+		}
+	}
+
+	public static class NoSetterRow {
+
+		private Long id;
+
+		public Long getId() {
+			return id;
+		}
+	}
+
+	public static class NoConstructorRow {
+
+		private Long id;
+
+		public NoConstructorRow(Long id) {
+			this.id = id;
+		}
+
+		public Long getId() {
+			return id;
+		}
+
+		public void setId(Long id) {
+			this.id = id;
+		}
+	}
+}
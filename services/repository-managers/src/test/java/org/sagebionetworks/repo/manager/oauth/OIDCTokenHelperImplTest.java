@@ -4,7 +4,9 @@ package org.sagebionetworks.repo.manager.oauth;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
@@ -332,6 +334,42 @@ public class OIDCTokenHelperImplTest {
 				oidcTokenHelper.parseJWT(expiredAccessToken));
 	}
 
+	@Test
+	public void testParseJWTWithContext() {
+		when(mockClock.currentTimeMillis()).thenReturn(System.currentTimeMillis());
+		String accessToken = oidcTokenHelper.createInternalTotalAccessToken(101L);
+		VerifiedTokenContext.begin();
+		try {
+			Jwt<JwsHeader,Claims> first = oidcTokenHelper.parseJWT(accessToken);
+			// method under test
+			Jwt<JwsHeader,Claims> second = oidcTokenHelper.parseJWT(accessToken);
+			// the token was only verified once for this context.
+			assertSame(first, second);
+		} finally {
+			VerifiedTokenContext.end();
+		}
+		// without a context and cache the token is verified again.
+		assertNotSame(oidcTokenHelper.parseJWT(accessToken), oidcTokenHelper.parseJWT(accessToken));
+	}
+
+	@Test
+	public void testParseJWTWithCache() {
+		when(stackConfiguration.getVerifiedTokenCacheMaxSize()).thenReturn(100L);
+		when(stackConfiguration.getVerifiedTokenCacheTimeToLiveSeconds()).thenReturn(60L);
+		oidcTokenHelper.afterPropertiesSet();
+		when(mockClock.currentTimeMillis()).thenReturn(System.currentTimeMillis());
+		String accessToken = oidcTokenHelper.createInternalTotalAccessToken(101L);
+		Jwt<JwsHeader,Claims> first = oidcTokenHelper.parseJWT(accessToken);
+		// method under test
+		Jwt<JwsHeader,Claims> second = oidcTokenHelper.parseJWT(accessToken);
+		assertSame(first, second);
+		// a token with a bad signature is still rejected.
+		String[] parts = accessToken.split("\\.");
+		String[] otherParts = oidcTokenHelper.createInternalTotalAccessToken(202L).split("\\.");
+		String tampered = parts[0] + "." + otherParts[1] + "." + parts[2];
+		assertThrows(IllegalArgumentException.class, () -> oidcTokenHelper.parseJWT(tampered));
+	}
+
 	@Test
 	public void testCreatePersonalAccessToken() throws Exception {
 		List<OAuthScope> grantedScopes = Collections.singletonList(OAuthScope.openid);
@@ -0,0 +1,101 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.util.Clock;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwt;
+
+@ExtendWith(MockitoExtension.class)
+public class VerifiedTokenCacheTest {
+
+	@Mock
+	private Clock mockClock;
+	@Mock
+	private Jwt<JwsHeader, Claims> mockJwt;
+	@Mock
+	private Claims mockClaims;
+
+	private AtomicInteger verifyCount;
+	private Function<String, Jwt<JwsHeader, Claims>> verifier;
+
+	@BeforeEach
+	public void before() {
+		verifyCount = new AtomicInteger();
+		verifier = (String token) -> {
+			verifyCount.incrementAndGet();
+			return mockJwt;
+		};
+	}
+
+	@Test
+	public void testGetOrVerify() {
+		when(mockJwt.getBody()).thenReturn(mockClaims);
+		when(mockClaims.getExpiration()).thenReturn(new Date(2000L));
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		VerifiedTokenCache cache = new VerifiedTokenCache(10L, 60L, mockClock);
+		assertSame(mockJwt, cache.getOrVerify("token", verifier));
+		// call under test
+		assertSame(mockJwt, cache.getOrVerify("token", verifier));
+		assertEquals(1, verifyCount.get());
+		assertEquals(1L, cache.size());
+		// a different token is verified.
+		cache.getOrVerify("other", verifier);
+		assertEquals(2, verifyCount.get());
+	}
+
+	@Test
+	public void testGetOrVerifyWithExpiredToken() {
+		when(mockJwt.getBody()).thenReturn(mockClaims);
+		when(mockClaims.getExpiration()).thenReturn(new Date(2000L));
+		when(mockClock.currentTimeMillis()).thenReturn(2000L);
+		VerifiedTokenCache cache = new VerifiedTokenCache(10L, 60L, mockClock);
+		cache.getOrVerify("token", verifier);
+		// call under test
+		cache.getOrVerify("token", verifier);
+		// an expired token must be verified again so it is rejected.
+		assertEquals(2, verifyCount.get());
+	}
+
+	@Test
+	public void testGetOrVerifyWithFailure() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(10L, 60L, mockClock);
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			cache.getOrVerify("token", (String token) -> {
+				throw new IllegalArgumentException("bad signature");
+			});
+		});
+		assertEquals(0L, cache.size());
+	}
+
+	@Test
+	public void testGetOrVerifyDisabled() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(0L, 60L, mockClock);
+		cache.getOrVerify("token", verifier);
+		// call under test
+		cache.getOrVerify("token", verifier);
+		assertEquals(2, verifyCount.get());
+		assertEquals(0L, cache.size());
+	}
+
+	@Test
+	public void testHash() {
+		assertEquals(64, VerifiedTokenCache.hash("token").length());
+		assertEquals(VerifiedTokenCache.hash("token"), VerifiedTokenCache.hash("token"));
+	}
+}
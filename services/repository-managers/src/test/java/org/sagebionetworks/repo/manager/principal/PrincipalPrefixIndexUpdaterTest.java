@@ -0,0 +1,243 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.TeamDAO;
+import org.sagebionetworks.repo.model.UserGroup;
+import org.sagebionetworks.repo.model.UserGroupDAO;
+import org.sagebionetworks.repo.model.UserProfile;
+import org.sagebionetworks.repo.model.UserProfileDAO;
+import org.sagebionetworks.repo.model.dbo.dao.DBOChangeDAO;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixDAO;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex.PrincipalType;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.TransactionalMessenger;
+import org.sagebionetworks.repo.model.principal.AliasType;
+import org.sagebionetworks.repo.model.principal.PrincipalAlias;
+import org.sagebionetworks.repo.model.principal.PrincipalAliasDAO;
+import org.sagebionetworks.repo.web.NotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+public class PrincipalPrefixIndexUpdaterTest {
+
+	@Mock
+	private PrincipalPrefixIndex mockPrefixIndex;
+	@Mock
+	private PrincipalPrefixDAO mockPrincipalPrefixDAO;
+	@Mock
+	private UserGroupDAO mockUserGroupDAO;
+	@Mock
+	private UserProfileDAO mockUserProfileDAO;
+	@Mock
+	private PrincipalAliasDAO mockPrincipalAliasDAO;
+	@Mock
+	private TeamDAO mockTeamDAO;
+	@Mock
+	private DBOChangeDAO mockChangeDAO;
+	@Mock
+	private TransactionalMessenger mockTransactionalMessenger;
+	@InjectMocks
+	private PrincipalPrefixIndexUpdater updater;
+
+	@Test
+	public void testInitialize() {
+		// call under test
+		updater.initialize();
+		verify(mockTransactionalMessenger).removeObserver(updater);
+		verify(mockTransactionalMessenger).registerObserver(updater);
+	}
+
+	@Test
+	public void testOnTimerFiredFirstCall() {
+		when(mockPrefixIndex.isLoaded()).thenReturn(false);
+		when(mockChangeDAO.getCurrentChangeNumber()).thenReturn(PrincipalPrefixIndexUpdater.LOAD_REPLAY_CHANGE_COUNT + 5L);
+		when(mockChangeDAO.listChanges(anyLong(), any(), anyLong())).thenReturn(Collections.emptyList());
+		// call under test
+		updater.onTimerFired();
+		verify(mockPrincipalPrefixDAO).loadIndex(any(PrincipalPrefixIndex.Builder.class));
+		verify(mockPrefixIndex).load(any(PrincipalPrefixIndex.Builder.class));
+		// the changes made shortly before the load are applied again.
+		verify(mockChangeDAO).listChanges(6L, ObjectType.PRINCIPAL, PrincipalPrefixIndexUpdater.MAX_CHANGES_PER_POLL);
+	}
+
+	@Test
+	public void testOnTimerFiredWithChanges() {
+		when(mockPrefixIndex.isLoaded()).thenReturn(false, true);
+		when(mockChangeDAO.getCurrentChangeNumber()).thenReturn(0L);
+		List<ChangeMessage> fullPage = new ArrayList<>();
+		for (long i = 1; i <= PrincipalPrefixIndexUpdater.MAX_CHANGES_PER_POLL; i++) {
+			fullPage.add(new ChangeMessage().setObjectType(ObjectType.PRINCIPAL).setObjectId("1").setChangeNumber(i));
+		}
+		when(mockChangeDAO.listChanges(anyLong(), any(), anyLong())).thenReturn(fullPage,
+				Arrays.asList(new ChangeMessage().setObjectType(ObjectType.PRINCIPAL).setObjectId("2")
+						.setChangeNumber(PrincipalPrefixIndexUpdater.MAX_CHANGES_PER_POLL + 1)),
+				Collections.emptyList());
+		when(mockUserGroupDAO.get(any())).thenThrow(new NotFoundException("gone"));
+		// call under test
+		updater.onTimerFired();
+		verify(mockChangeDAO).listChanges(1L, ObjectType.PRINCIPAL, PrincipalPrefixIndexUpdater.MAX_CHANGES_PER_POLL);
+		verify(mockChangeDAO).listChanges(PrincipalPrefixIndexUpdater.MAX_CHANGES_PER_POLL + 1, ObjectType.PRINCIPAL,
+				PrincipalPrefixIndexUpdater.MAX_CHANGES_PER_POLL);
+		// each principal is refreshed once.
+		verify(mockUserGroupDAO).get(1L);
+		verify(mockUserGroupDAO).get(2L);
+		verify(mockPrefixIndex).removePrincipal(1L);
+		verify(mockPrefixIndex).removePrincipal(2L);
+
+		// the next call continues after the last change.
+		updater.onTimerFired();
+		verify(mockChangeDAO).listChanges(PrincipalPrefixIndexUpdater.MAX_CHANGES_PER_POLL + 2, ObjectType.PRINCIPAL,
+				PrincipalPrefixIndexUpdater.MAX_CHANGES_PER_POLL);
+		verify(mockPrincipalPrefixDAO, times(1)).loadIndex(any());
+	}
+
+	@Test
+	public void testOnTimerFiredWithLocalChange() {
+		when(mockPrefixIndex.isLoaded()).thenReturn(false, true);
+		when(mockChangeDAO.getCurrentChangeNumber()).thenReturn(0L);
+		when(mockChangeDAO.listChanges(anyLong(), any(), anyLong())).thenReturn(Collections.emptyList());
+		updater.onTimerFired();
+		when(mockUserGroupDAO.get(3L)).thenThrow(new NotFoundException("gone"));
+		// call under test
+		updater.fireChangeMessage(new ChangeMessage().setObjectType(ObjectType.PRINCIPAL).setObjectId("3"));
+		verify(mockPrefixIndex, never()).removePrincipal(anyLong());
+		updater.onTimerFired();
+		verify(mockPrefixIndex).removePrincipal(3L);
+	}
+
+	@Test
+	public void testOnTimerFiredWithFailure() {
+		when(mockPrefixIndex.isLoaded()).thenReturn(false, true);
+		when(mockChangeDAO.getCurrentChangeNumber()).thenReturn(0L);
+		when(mockChangeDAO.listChanges(anyLong(), any(), anyLong())).thenReturn(Collections.emptyList());
+		updater.onTimerFired();
+		updater.fireChangeMessage(new ChangeMessage().setObjectType(ObjectType.PRINCIPAL).setObjectId("3"));
+		when(mockUserGroupDAO.get(3L)).thenThrow(new IllegalStateException("database down"))
+				.thenThrow(new NotFoundException("gone"));
+		updater.onTimerFired();
+		verify(mockPrefixIndex, never()).removePrincipal(anyLong());
+		// the principal is tried again on the next call.
+		updater.onTimerFired();
+		verify(mockPrefixIndex).removePrincipal(3L);
+	}
+
+	@Test
+	public void testFireChangeMessageBeforeLoad() {
+		when(mockPrefixIndex.isLoaded()).thenReturn(false);
+		// call under test
+		updater.fireChangeMessage(new ChangeMessage().setObjectType(ObjectType.PRINCIPAL).setObjectId("3"));
+		when(mockChangeDAO.getCurrentChangeNumber()).thenReturn(0L);
+		when(mockChangeDAO.listChanges(anyLong(), any(), anyLong())).thenReturn(Collections.emptyList());
+		updater.onTimerFired();
+		verify(mockUserGroupDAO, never()).get(any());
+	}
+
+	@Test
+	public void testFireChangeMessageOtherType() {
+		// call under test
+		updater.fireChangeMessage(new ChangeMessage().setObjectType(ObjectType.ENTITY).setObjectId("syn1"));
+		verify(mockPrefixIndex, never()).isLoaded();
+	}
+
+	@Test
+	public void testRefreshPrincipalUser() {
+		UserGroup user = new UserGroup();
+		user.setIsIndividual(true);
+		when(mockUserGroupDAO.get(1L)).thenReturn(user);
+		UserProfile profile = new UserProfile();
+		profile.setFirstName("James");
+		profile.setLastName("Bond");
+		when(mockUserProfileDAO.get("1")).thenReturn(profile);
+		when(mockPrincipalAliasDAO.getUserName(1L)).thenReturn("007");
+		// call under test
+		updater.refreshPrincipal(1L);
+		verify(mockPrefixIndex).setPrincipal(1L, PrincipalType.USER,
+				new HashSet<>(Arrays.asList("jamesbond", "bondjames", "007")));
+	}
+
+	@Test
+	public void testRefreshPrincipalUserWithoutProfileOrUserName() {
+		UserGroup user = new UserGroup();
+		user.setIsIndividual(true);
+		when(mockUserGroupDAO.get(1L)).thenReturn(user);
+		when(mockUserProfileDAO.get("1")).thenThrow(new NotFoundException("no profile"));
+		when(mockPrincipalAliasDAO.getUserName(1L)).thenThrow(new NotFoundException("no user name"));
+		// call under test
+		updater.refreshPrincipal(1L);
+		verify(mockPrefixIndex).setPrincipal(1L, PrincipalType.USER, Collections.emptySet());
+	}
+
+	@Test
+	public void testRefreshPrincipalTeam() {
+		UserGroup group = new UserGroup();
+		group.setIsIndividual(false);
+		when(mockUserGroupDAO.get(2L)).thenReturn(group);
+		PrincipalAlias alias = new PrincipalAlias();
+		alias.setAlias("The Team");
+		when(mockPrincipalAliasDAO.listPrincipalAliases(2L, AliasType.TEAM_NAME)).thenReturn(Arrays.asList(alias));
+		// call under test
+		updater.refreshPrincipal(2L);
+		verify(mockTeamDAO).validateTeamExists("2");
+		verify(mockPrefixIndex).setPrincipal(2L, PrincipalType.TEAM, Collections.singleton("theteam"));
+	}
+
+	@Test
+	public void testRefreshPrincipalGroup() {
+		UserGroup group = new UserGroup();
+		group.setIsIndividual(false);
+		when(mockUserGroupDAO.get(2L)).thenReturn(group);
+		doThrow(new NotFoundException("not a team")).when(mockTeamDAO).validateTeamExists("2");
+		when(mockPrincipalAliasDAO.listPrincipalAliases(2L, AliasType.TEAM_NAME)).thenReturn(Collections.emptyList());
+		// call under test
+		updater.refreshPrincipal(2L);
+		verify(mockPrefixIndex).setPrincipal(2L, PrincipalType.GROUP, Collections.emptySet());
+	}
+
+	@Test
+	public void testRefreshPrincipalDeleted() {
+		when(mockUserGroupDAO.get(2L)).thenThrow(new NotFoundException("gone"));
+		// call under test
+		updater.refreshPrincipal(2L);
+		verify(mockPrefixIndex).removePrincipal(2L);
+		verify(mockPrefixIndex, never()).setPrincipal(eq(2L), any(), any());
+	}
+
+	@Test
+	public void testLoadIndex() {
+		when(mockChangeDAO.getCurrentChangeNumber()).thenReturn(3L);
+		doAnswer(invocation -> {
+			PrincipalPrefixIndex.Builder builder = invocation.getArgument(0);
+			builder.add("foo", 1L, PrincipalType.USER);
+			return null;
+		}).when(mockPrincipalPrefixDAO).loadIndex(any());
+		// call under test
+		updater.loadIndex();
+		verify(mockPrefixIndex).load(any(PrincipalPrefixIndex.Builder.class));
+		when(mockChangeDAO.listChanges(anyLong(), any(), anyLong())).thenReturn(Collections.emptyList());
+		when(mockPrefixIndex.isLoaded()).thenReturn(true);
+		updater.onTimerFired();
+		// the change number cannot go below zero.
+		verify(mockChangeDAO).listChanges(1L, ObjectType.PRINCIPAL, PrincipalPrefixIndexUpdater.MAX_CHANGES_PER_POLL);
+	}
+}
@@ -0,0 +1,128 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.model.GroupMembersDAO;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.dbo.dao.DBOChangeDAO;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.TransactionalMessenger;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class UserMembershipCacheInvalidatorTest {
+
+	@Mock
+	private UserMembershipCache mockMembershipCache;
+	@Mock
+	private GroupMembersDAO mockGroupMembersDAO;
+	@Mock
+	private DBOChangeDAO mockChangeDAO;
+	@Mock
+	private TransactionalMessenger mockTransactionalMessenger;
+	@Mock
+	private Clock mockClock;
+	@InjectMocks
+	private UserMembershipCacheInvalidator invalidator;
+
+	@Test
+	public void testInitialize() {
+		when(mockChangeDAO.getCurrentChangeNumber()).thenReturn(10L);
+		// call under test
+		invalidator.initialize();
+		verify(mockTransactionalMessenger).registerObserver(invalidator);
+	}
+
+	@Test
+	public void testFireChangeMessageForGroup() {
+		when(mockMembershipCache.contains(100L)).thenReturn(false);
+		when(mockGroupMembersDAO.getMemberIds(100L)).thenReturn(new HashSet<>(Arrays.asList(1L, 2L)));
+		// call under test
+		invalidator.fireChangeMessage(new ChangeMessage().setObjectType(ObjectType.PRINCIPAL).setObjectId("100"));
+		verify(mockMembershipCache).invalidate(new HashSet<>(Arrays.asList(100L, 1L, 2L)));
+	}
+
+	@Test
+	public void testFireChangeMessageForCachedUser() {
+		when(mockMembershipCache.contains(1L)).thenReturn(true);
+		// call under test
+		invalidator.fireChangeMessage(new ChangeMessage().setObjectType(ObjectType.PRINCIPAL).setObjectId("1"));
+		verify(mockMembershipCache).invalidate(Collections.singleton(1L));
+		verify(mockGroupMembersDAO, never()).getMemberIds(anyLong());
+	}
+
+	@Test
+	public void testFireChangeMessageForOtherType() {
+		// call under test
+		invalidator.fireChangeMessage(new ChangeMessage().setObjectType(ObjectType.ENTITY).setObjectId("syn1"));
+		verify(mockMembershipCache, never()).invalidate(any());
+	}
+
+	@Test
+	public void testOnTimerFired() {
+		when(mockChangeDAO.getCurrentChangeNumber()).thenReturn(10L);
+		invalidator.initialize();
+		when(mockClock.currentTimeMillis()).thenReturn(5000L);
+		when(mockMembershipCache.contains(anyLong())).thenReturn(true);
+		when(mockChangeDAO.listChanges(11L, ObjectType.PRINCIPAL, UserMembershipCacheInvalidator.MAX_CHANGES_PER_POLL))
+				.thenReturn(Arrays.asList(
+						new ChangeMessage().setObjectId("1").setChangeNumber(11L).setTimestamp(new Date(4000L)),
+						new ChangeMessage().setObjectId("2").setChangeNumber(13L).setTimestamp(new Date(4500L))));
+		// call under test
+		invalidator.onTimerFired();
+		verify(mockMembershipCache).invalidate(Collections.singleton(1L));
+		verify(mockMembershipCache).invalidate(Collections.singleton(2L));
+		assertEquals(1000L, invalidator.getAndResetMaxInvalidationLagMS());
+		assertEquals(0L, invalidator.getAndResetMaxInvalidationLagMS());
+
+		when(mockChangeDAO.listChanges(14L, ObjectType.PRINCIPAL, UserMembershipCacheInvalidator.MAX_CHANGES_PER_POLL))
+				.thenReturn(Collections.emptyList());
+		// the next call starts after the last change.
+		invalidator.onTimerFired();
+		verify(mockChangeDAO).listChanges(14L, ObjectType.PRINCIPAL, UserMembershipCacheInvalidator.MAX_CHANGES_PER_POLL);
+	}
+
+	@Test
+	public void testOnTimerFiredWithMultiplePages() {
+		when(mockChangeDAO.getCurrentChangeNumber()).thenReturn(0L);
+		invalidator.initialize();
+		when(mockMembershipCache.contains(anyLong())).thenReturn(true);
+		List<ChangeMessage> page = new ArrayList<>();
+		for (long i = 1; i <= UserMembershipCacheInvalidator.MAX_CHANGES_PER_POLL; i++) {
+			page.add(new ChangeMessage().setObjectId("" + i).setChangeNumber(i));
+		}
+		when(mockChangeDAO.listChanges(1L, ObjectType.PRINCIPAL, UserMembershipCacheInvalidator.MAX_CHANGES_PER_POLL))
+				.thenReturn(page);
+		long next = UserMembershipCacheInvalidator.MAX_CHANGES_PER_POLL + 1;
+		when(mockChangeDAO.listChanges(next, ObjectType.PRINCIPAL, UserMembershipCacheInvalidator.MAX_CHANGES_PER_POLL))
+				.thenReturn(Collections.singletonList(new ChangeMessage().setObjectId("" + next).setChangeNumber(next)));
+		// call under test
+		invalidator.onTimerFired();
+		verify(mockMembershipCache).invalidate(Collections.singleton(next));
+	}
+
+	@Test
+	public void testOnTimerFiredBeforeInitialize() {
+		when(mockChangeDAO.getCurrentChangeNumber()).thenReturn(10L);
+		// call under test
+		invalidator.onTimerFired();
+		verify(mockChangeDAO, never()).listChanges(anyLong(), any(), anyLong());
+	}
+}
@@ -0,0 +1,96 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.util.Clock;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+@ExtendWith(MockitoExtension.class)
+public class UserMembershipCacheMetricPublisherTest {
+
+	@Mock
+	private UserMembershipCache mockMembershipCache;
+	@Mock
+	private UserMembershipCacheInvalidator mockInvalidator;
+	@Mock
+	private Consumer mockConsumer;
+	@Mock
+	private Clock mockClock;
+	@Mock
+	private StackConfiguration mockStackConfig;
+	@InjectMocks
+	private UserMembershipCacheMetricPublisher publisher = new UserMembershipCacheMetricPublisher("Repository");
+	@Captor
+	private ArgumentCaptor<List<ProfileData>> profileDataCaptor;
+
+	@BeforeEach
+	public void before() {
+		when(mockStackConfig.getStackInstance()).thenReturn("instance1");
+	}
+
+	static Map<String, ProfileData> byName(List<ProfileData> metrics) {
+		return metrics.stream().collect(Collectors.toMap(ProfileData::getName, p -> p));
+	}
+
+	static double value(Map<String, ProfileData> metrics, String name) {
+		return metrics.get(name).getValue();
+	}
+
+	@Test
+	public void testOnTimerFired() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L, 2000L);
+		when(mockMembershipCache.getHitCount()).thenReturn(9L, 12L);
+		when(mockMembershipCache.getMissCount()).thenReturn(1L, 2L);
+		when(mockMembershipCache.size()).thenReturn(5L, 6L);
+		when(mockMembershipCache.getAndResetMaxServedAgeMS()).thenReturn(300L, 400L);
+		when(mockInvalidator.getAndResetMaxInvalidationLagMS()).thenReturn(1500L, 0L);
+		publisher.onTimerFired();
+		// call under test
+		publisher.onTimerFired();
+		verify(mockConsumer, times(2)).addProfileData(profileDataCaptor.capture());
+		Map<String, ProfileData> first = byName(profileDataCaptor.getAllValues().get(0));
+		assertEquals(90.0, value(first, UserMembershipCacheMetricPublisher.METRIC_HIT_RATE));
+		assertEquals(10.0, value(first, UserMembershipCacheMetricPublisher.METRIC_REQUESTS));
+		assertEquals(300.0, value(first, UserMembershipCacheMetricPublisher.METRIC_MAX_SERVED_AGE));
+		assertEquals(1500.0, value(first, UserMembershipCacheMetricPublisher.METRIC_MAX_INVALIDATION_LAG));
+		// the second period only includes the calls since the first.
+		Map<String, ProfileData> second = byName(profileDataCaptor.getAllValues().get(1));
+		assertEquals(75.0, value(second, UserMembershipCacheMetricPublisher.METRIC_HIT_RATE));
+		assertEquals(4.0, value(second, UserMembershipCacheMetricPublisher.METRIC_REQUESTS));
+		assertEquals(6.0, value(second, UserMembershipCacheMetricPublisher.METRIC_ENTRIES));
+		ProfileData servedAge = second.get(UserMembershipCacheMetricPublisher.METRIC_MAX_SERVED_AGE);
+		assertEquals(400.0, servedAge.getValue());
+		assertEquals(StandardUnit.Milliseconds.name(), servedAge.getUnit());
+		assertEquals("Repository-Membership-Cache-instance1", servedAge.getNamespace());
+		assertEquals(new Date(2000L), servedAge.getTimestamp());
+	}
+
+	@Test
+	public void testCreateMetricsWithNoRequests() {
+		// call under test
+		Map<String, ProfileData> metrics = byName(publisher.createMetrics(0L, 0L, 0L, 0L, 0L, new Date(1L)));
+		assertEquals(0.0, value(metrics, UserMembershipCacheMetricPublisher.METRIC_HIT_RATE));
+		assertEquals(StandardUnit.Percent.name(),
+				metrics.get(UserMembershipCacheMetricPublisher.METRIC_HIT_RATE).getUnit());
+	}
+}
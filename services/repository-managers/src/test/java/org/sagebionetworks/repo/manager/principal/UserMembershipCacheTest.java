@@ -0,0 +1,166 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.manager.principal.UserMembershipCache.UserMembership;
+import org.sagebionetworks.repo.model.UserGroup;
+import org.sagebionetworks.util.Clock;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class UserMembershipCacheTest {
+
+	@Mock
+	private Clock mockClock;
+
+	private AtomicInteger loadCount;
+	private Map<Long, UserMembership> memberships;
+	private Function<Long, UserMembership> loader;
+
+	@BeforeEach
+	public void before() {
+		loadCount = new AtomicInteger();
+		memberships = new ConcurrentHashMap<>();
+		memberships.put(1L, createMembership(1L, 0L, 100L, 200L));
+		memberships.put(2L, createMembership(2L, 0L, 200L));
+		memberships.put(3L, createMembership(3L, 0L));
+		loader = (Long principalId) -> {
+			loadCount.incrementAndGet();
+			return memberships.get(principalId);
+		};
+	}
+
+	static UserMembership createMembership(Long principalId, long loadedOn, Long... groupIds) {
+		UserGroup principal = new UserGroup();
+		principal.setId(principalId.toString());
+		principal.setIsIndividual(true);
+		return new UserMembership(principal, new HashSet<>(Arrays.asList(groupIds)), loadedOn);
+	}
+
+	@Test
+	public void testGetOrLoad() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		UserMembershipCache cache = new UserMembershipCache(10L, 60L, mockClock);
+		assertSame(memberships.get(1L), cache.getOrLoad(1L, loader));
+		// call under test
+		assertSame(memberships.get(1L), cache.getOrLoad(1L, loader));
+		assertEquals(1, loadCount.get());
+		assertEquals(1L, cache.getHitCount());
+		assertEquals(1L, cache.getMissCount());
+		assertEquals(1L, cache.size());
+		assertTrue(cache.contains(1L));
+		assertFalse(cache.contains(2L));
+		// the served entry was loaded at 0.
+		assertEquals(1000L, cache.getAndResetMaxServedAgeMS());
+		assertEquals(0L, cache.getAndResetMaxServedAgeMS());
+	}
+
+	@Test
+	public void testGetOrLoadExpired() {
+		AtomicLong now = new AtomicLong(1000L);
+		when(mockClock.currentTimeMillis()).thenAnswer(invocation -> now.get());
+		UserMembershipCache cache = new UserMembershipCache(10L, 60L, mockClock);
+		cache.getOrLoad(1L, loader);
+		now.set(61_001L);
+		// call under test
+		cache.getOrLoad(1L, loader);
+		assertEquals(2, loadCount.get());
+	}
+
+	@Test
+	public void testGetOrLoadDisabled() {
+		UserMembershipCache cache = new UserMembershipCache(0L, 60L, mockClock);
+		cache.getOrLoad(1L, loader);
+		// call under test
+		cache.getOrLoad(1L, loader);
+		assertEquals(2, loadCount.get());
+		assertEquals(0L, cache.size());
+		assertEquals(2L, cache.getMissCount());
+		// nothing to invalidate.
+		cache.invalidate(Collections.singleton(1L));
+	}
+
+	@Test
+	public void testGetOrLoadWithLoaderException() {
+		UserMembershipCache cache = new UserMembershipCache(10L, 60L, mockClock);
+		IllegalStateException exception = new IllegalStateException("nope");
+		IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> {
+			// call under test
+			cache.getOrLoad(1L, (Long id) -> {
+				throw exception;
+			});
+		});
+		assertSame(exception, thrown);
+		assertEquals(0L, cache.size());
+	}
+
+	@Test
+	public void testGetOrLoadWithInvalidationDuringLoad() {
+		UserMembershipCache cache = new UserMembershipCache(10L, 60L, mockClock);
+		// call under test
+		cache.getOrLoad(1L, (Long id) -> {
+			cache.invalidate(Collections.singleton(100L));
+			return memberships.get(id);
+		});
+		// the load might have read the membership before the change.
+		assertFalse(cache.contains(1L));
+	}
+
+	@Test
+	public void testGetOrLoadWithinTransaction() {
+		UserMembershipCache cache = new UserMembershipCache(10L, 60L, mockClock);
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		try {
+			// call under test
+			assertSame(memberships.get(1L), cache.getOrLoad(1L, loader));
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+		}
+		// the load read the snapshot of a transaction that might roll back.
+		assertFalse(cache.contains(1L));
+		assertEquals(1L, cache.getMissCount());
+	}
+
+	@Test
+	public void testInvalidate() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		UserMembershipCache cache = new UserMembershipCache(10L, 60L, mockClock);
+		cache.getOrLoad(1L, loader);
+		cache.getOrLoad(2L, loader);
+		cache.getOrLoad(3L, loader);
+		// call under test
+		cache.invalidate(Collections.singleton(100L));
+		assertFalse(cache.contains(1L));
+		assertTrue(cache.contains(2L));
+		assertTrue(cache.contains(3L));
+		// call under test
+		cache.invalidate(Arrays.asList(3L, 200L));
+		assertEquals(0L, cache.size());
+	}
+
+	@Test
+	public void testConstructorWithNegativeSize() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new UserMembershipCache(-1L, 60L, mockClock);
+		});
+	}
+}
@@ -15,6 +15,7 @@ import static org.mockito.Mockito.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -31,6 +32,9 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sagebionetworks.LoggerProvider;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
 import org.sagebionetworks.repo.manager.table.TableIndexConnectionFactory;
 import org.sagebionetworks.repo.manager.table.TableIndexManager;
 import org.sagebionetworks.repo.manager.table.TableManagerSupport;
@@ -39,7 +43,9 @@ import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProviderFact
 import org.sagebionetworks.repo.manager.table.metadata.ObjectDataProvider;
 import org.sagebionetworks.repo.manager.table.metadata.ObjectDataProviderFactory;
 import org.sagebionetworks.repo.model.IdAndChecksum;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.dbo.dao.table.ViewScopeDao;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
@@ -72,6 +78,8 @@ public class ReplicationManagerTest {
 	@Mock
 	private TableIndexManager mockTableIndexManager;
 	@Mock
+	private TableIndexManager mockSecondTableIndexManager;
+	@Mock
 	private TableManagerSupport mockTableManagerSupport;
 	@Mock
 	private MetadataIndexProviderFactory mockIndexProviderFactory;
@@ -81,6 +89,12 @@ public class ReplicationManagerTest {
 	private LoggerProvider mockLoggerProvider;
 	@Mock
 	private Logger mockLogger;
+	@Mock
+	private StackConfiguration mockStackConfiguration;
+	@Mock
+	private Consumer mockConsumer;
+	@Mock
+	private ViewScopeDao mockViewScopeDao;
 
 	private ReplicationManagerImpl manager;
 
@@ -94,6 +108,9 @@ public class ReplicationManagerTest {
 
 	@Captor
 	private ArgumentCaptor<Iterator<ObjectDataDTO>> iteratorCaptor;
+	
+	@Captor
+	private ArgumentCaptor<List<ProfileData>> profileDataCaptor;
 
 	private List<ChangeMessage> changes;
 
@@ -101,14 +118,17 @@ public class ReplicationManagerTest {
 	private IdAndVersion viewId;
 	private long typeMask;
 	private ViewScopeType viewScopeType;
+	private ReconcileStatistics statistics;
 
 	@BeforeEach
 	public void before() {
 		when(mockLoggerProvider.getLogger(any())).thenReturn(mockLogger);
-		manager = new ReplicationManagerImpl(mockObjectDataProviderFactory, mockTableManagerSupport,
-				mockReplicationMessageManager, mockIndexConnectionFactory, mockIndexProviderFactory,
-				mockLoggerProvider);
+		when(mockStackConfiguration.getReplicationReconcileTieredEnabled()).thenReturn(false);
+		when(mockStackConfiguration.getReplicationReconcileTopBucketSize()).thenReturn(100L);
+		when(mockStackConfiguration.getReplicationReconcileBucketFanout()).thenReturn(10);
+		manager = createManager();
 		managerSpy = Mockito.spy(manager);
+		statistics = new ReconcileStatistics(ReconcileStatistics.MODE_FULL);
 		ChangeMessage update = new ChangeMessage();
 		update.setChangeType(ChangeType.UPDATE);
 		update.setObjectType(ObjectType.ENTITY);
@@ -182,14 +202,14 @@ public class ReplicationManagerTest {
 		List<Long> expectedDeleteIds = ImmutableList.of(333L);
 		List<Long> expectedCreateOrUpdateIds = ImmutableList.of(111L, 222L);
 
-		when(mockIndexConnectionFactory.connectToFirstIndex()).thenReturn(mockTableIndexManager);
+		when(mockIndexConnectionFactory.connectToAllIndices()).thenReturn(Collections.singletonList(mockTableIndexManager));
 		when(mockObjectDataProviderFactory.getObjectDataProvider(any())).thenReturn(mockObjectDataProvider);
 		when(mockObjectDataProvider.getObjectData(any(), anyInt())).thenReturn(entityData.iterator());
 
 		// call under test
 		manager.replicate(changes);
 
-		verify(mockIndexConnectionFactory).connectToFirstIndex();
+		verify(mockIndexConnectionFactory).connectToAllIndices();
 		verify(mockObjectDataProviderFactory).getObjectDataProvider(mainType);
 		verify(mockObjectDataProvider).getObjectData(expectedCreateOrUpdateIds,
 				ReplicationManagerImpl.MAX_ANNOTATION_CHARS);
@@ -209,14 +229,14 @@ public class ReplicationManagerTest {
 
 		List<Long> expectedDeleteIds = Collections.emptyList();
 
-		when(mockIndexConnectionFactory.connectToFirstIndex()).thenReturn(mockTableIndexManager);
+		when(mockIndexConnectionFactory.connectToAllIndices()).thenReturn(Collections.singletonList(mockTableIndexManager));
 		when(mockObjectDataProviderFactory.getObjectDataProvider(any())).thenReturn(mockObjectDataProvider);
 		when(mockObjectDataProvider.getObjectData(any(), anyInt())).thenReturn(entityData.iterator());
 
 		// call under test
 		manager.replicate(mainType, entityId);
 
-		verify(mockIndexConnectionFactory).connectToFirstIndex();
+		verify(mockIndexConnectionFactory).connectToAllIndices();
 		verify(mockObjectDataProviderFactory).getObjectDataProvider(mainType);
 		verify(mockObjectDataProvider).getObjectData(entityids, ReplicationManagerImpl.MAX_ANNOTATION_CHARS);
 		verify(mockTableIndexManager).deleteObjectData(mainType, expectedDeleteIds);
@@ -225,6 +245,103 @@ public class ReplicationManagerTest {
 		assertEquals(entityData, actualList);
 	}
 
+	@Test
+	public void testReplicateSingleToAllIndices() {
+		String entityId = "syn123";
+		List<Long> entityids = Collections.singletonList(KeyFactory.stringToKey(entityId));
+
+		List<ObjectDataDTO> entityData = createEntityDtos(1);
+
+		when(mockIndexConnectionFactory.connectToAllIndices())
+				.thenReturn(Arrays.asList(mockTableIndexManager, mockSecondTableIndexManager));
+		when(mockObjectDataProviderFactory.getObjectDataProvider(any())).thenReturn(mockObjectDataProvider);
+		when(mockObjectDataProvider.getObjectData(any(), anyInt())).thenReturn(entityData.iterator());
+
+		// call under test
+		manager.replicate(mainType, entityId);
+
+		// the object data is only read once for all of the databases.
+		verify(mockObjectDataProvider).getObjectData(entityids, ReplicationManagerImpl.MAX_ANNOTATION_CHARS);
+		verify(mockTableIndexManager).deleteObjectData(mainType, Collections.emptyList());
+		verify(mockSecondTableIndexManager).deleteObjectData(mainType, Collections.emptyList());
+		verify(mockTableIndexManager).updateObjectReplication(eq(mainType), iteratorCaptor.capture());
+		assertEquals(entityData, ImmutableList.copyOf(iteratorCaptor.getValue()));
+		verify(mockSecondTableIndexManager).updateObjectReplication(eq(mainType), iteratorCaptor.capture());
+		assertEquals(entityData, ImmutableList.copyOf(iteratorCaptor.getValue()));
+	}
+
+	@Test
+	public void testReplicateChangesAddsPendingViewDeltas() {
+		when(mockIndexConnectionFactory.connectToAllIndices()).thenReturn(Collections.singletonList(mockTableIndexManager));
+		when(mockObjectDataProviderFactory.getObjectDataProvider(any())).thenReturn(mockObjectDataProvider);
+		when(mockObjectDataProvider.getObjectData(any(), anyInt())).thenReturn(Collections.emptyIterator());
+		Map<Long, Long> previousParentIds = new HashMap<>();
+		// 111 is moved from 10 to 11 and 333 is deleted from 20.
+		previousParentIds.put(111L, 10L);
+		previousParentIds.put(333L, 20L);
+		Map<Long, Long> currentParentIds = new HashMap<>();
+		currentParentIds.put(111L, 11L);
+		currentParentIds.put(222L, 11L);
+		when(mockTableIndexManager.getParentIds(any(), any())).thenReturn(previousParentIds, currentParentIds);
+		when(mockObjectDataProvider.getScopeContainerIds(10L)).thenReturn(Sets.newHashSet(1L, 10L));
+		when(mockObjectDataProvider.getScopeContainerIds(11L)).thenReturn(Sets.newHashSet(1L, 11L));
+		when(mockObjectDataProvider.getScopeContainerIds(20L)).thenReturn(Sets.newHashSet(1L, 20L));
+		Map<Long, Set<Long>> viewIdsForContainer = new HashMap<>();
+		viewIdsForContainer.put(10L, Sets.newHashSet(500L));
+		viewIdsForContainer.put(11L, Sets.newHashSet(600L));
+		viewIdsForContainer.put(20L, Sets.newHashSet(600L));
+		// a project view over 222
+		viewIdsForContainer.put(222L, Sets.newHashSet(700L));
+		when(mockViewScopeDao.getViewIdsForContainers(any(), any())).thenReturn(viewIdsForContainer);
+		when(mockIndexConnectionFactory.connectToTableIndex(any())).thenReturn(mockSecondTableIndexManager);
+
+		// call under test
+		manager.replicate(changes);
+
+		Set<Long> changedIds = Sets.newHashSet(111L, 222L, 333L);
+		verify(mockTableIndexManager, times(2)).getParentIds(mainType, changedIds);
+		// each parent is only expanded once.
+		verify(mockObjectDataProvider).getScopeContainerIds(11L);
+		verify(mockViewScopeDao).getViewIdsForContainers(ViewObjectType.ENTITY,
+				Sets.newHashSet(111L, 222L, 333L, 1L, 10L, 11L, 20L));
+		verify(mockSecondTableIndexManager).addPendingViewDeltas(IdAndVersion.parse("syn500"), Sets.newHashSet(111L));
+		verify(mockSecondTableIndexManager).addPendingViewDeltas(IdAndVersion.parse("syn600"),
+				Sets.newHashSet(111L, 222L, 333L));
+		verify(mockSecondTableIndexManager).addPendingViewDeltas(IdAndVersion.parse("syn700"), Sets.newHashSet(222L));
+		verify(mockIndexConnectionFactory, times(3)).connectToTableIndex(any());
+	}
+
+	@Test
+	public void testAddPendingViewDeltasWithNoViews() {
+		Map<Long, Long> parentIds = Collections.singletonMap(111L, 10L);
+		when(mockObjectDataProvider.getScopeContainerIds(10L)).thenReturn(Sets.newHashSet(1L, 10L));
+		when(mockViewScopeDao.getViewIdsForContainers(any(), any())).thenReturn(Collections.emptyMap());
+
+		// call under test
+		manager.addPendingViewDeltas(mainType, mockObjectDataProvider, Sets.newHashSet(111L), parentIds, parentIds);
+
+		verify(mockObjectDataProvider).getScopeContainerIds(10L);
+		verify(mockViewScopeDao).getViewIdsForContainers(ViewObjectType.ENTITY, Sets.newHashSet(111L, 1L, 10L));
+		verify(mockIndexConnectionFactory, never()).connectToTableIndex(any());
+	}
+
+	@Test
+	public void testAddPendingViewDeltasWithSubmission() {
+		Map<Long, Long> parentIds = Collections.singletonMap(111L, 10L);
+		when(mockObjectDataProvider.getScopeContainerIds(10L)).thenReturn(Sets.newHashSet(10L));
+		when(mockViewScopeDao.getViewIdsForContainers(any(), any()))
+				.thenReturn(Collections.singletonMap(10L, Sets.newHashSet(500L)));
+		when(mockIndexConnectionFactory.connectToTableIndex(any())).thenReturn(mockTableIndexManager);
+
+		// call under test
+		manager.addPendingViewDeltas(ReplicationType.SUBMISSION, mockObjectDataProvider, Sets.newHashSet(111L),
+				Collections.emptyMap(), parentIds);
+
+		verify(mockViewScopeDao).getViewIdsForContainers(ViewObjectType.SUBMISSION, Sets.newHashSet(111L, 10L));
+		verify(mockIndexConnectionFactory).connectToTableIndex(IdAndVersion.parse("syn500"));
+		verify(mockTableIndexManager).addPendingViewDeltas(IdAndVersion.parse("syn500"), Sets.newHashSet(111L));
+	}
+
 	/**
 	 * Test helper
 	 * 
@@ -255,9 +372,10 @@ public class ReplicationManagerTest {
 		verify(mockTableManagerSupport).getViewScopeType(viewId);
 		verify(mockIndexConnectionFactory).connectToTableIndex(viewId);
 		verify(mockTableIndexManager).isViewSynchronizeLockExpired(ReplicationType.ENTITY, viewId);
-		verify(managerSpy, never()).createReconcileIterator(any(), any(), any());
+		verify(managerSpy, never()).createReconcileIterator(any(), any(), any(), any());
 		verify(mockTableIndexManager, never()).resetViewSynchronizeLock(any(), any());
 		verifyZeroInteractions(mockReplicationMessageManager);
+		verifyZeroInteractions(mockConsumer);
 	}
 
 	@Test
@@ -265,7 +383,7 @@ public class ReplicationManagerTest {
 		when(mockTableManagerSupport.getViewScopeType(viewId)).thenReturn(viewScopeType);
 		when(mockIndexConnectionFactory.connectToTableIndex(any())).thenReturn(mockTableIndexManager);
 		when(mockTableIndexManager.isViewSynchronizeLockExpired(any(), any())).thenReturn(true);
-		doReturn(changes.iterator()).when(managerSpy).createReconcileIterator(any(), any(), any());
+		doReturn(changes.iterator()).when(managerSpy).createReconcileIterator(any(), any(), any(), any());
 
 		// call under test
 		managerSpy.reconcile(viewId);
@@ -273,15 +391,19 @@ public class ReplicationManagerTest {
 		verify(mockTableManagerSupport).getViewScopeType(viewId);
 		verify(mockIndexConnectionFactory).connectToTableIndex(viewId);
 		verify(mockTableIndexManager).isViewSynchronizeLockExpired(ReplicationType.ENTITY, viewId);
-		verify(managerSpy).createReconcileIterator(mockTableIndexManager, viewScopeType.getObjectType(),
-				viewId.getId());
+		verify(managerSpy).createReconcileIterator(eq(mockTableIndexManager), eq(viewScopeType.getObjectType()),
+				eq(viewId.getId()), any());
 
 		verify(mockLogger).info("Found 3 objects out-of-synch between truth and replication for view: 'syn123'.");
 
 		verify(mockTableIndexManager).resetViewSynchronizeLock(ReplicationType.ENTITY, viewId);
 		verify(mockReplicationMessageManager).pushChangeMessagesToReplicationQueue(changes);
 
-		verify(mockLogger).info("Finished reconcile for view: 'syn123'.");
+		verify(mockLogger).info("Finished reconcile for view: 'syn123'. ReconcileStatistics [mode=full, truthRowsScanned=0,"
+				+ " replicationRowsScanned=0, rangesCompared=0, bucketsCompared=0, bucketsDescended=0, changesFound=0]");
+		verify(mockConsumer).addProfileData(profileDataCaptor.capture());
+		assertEquals(6, profileDataCaptor.getValue().size());
+		assertEquals(ReplicationManagerImpl.class.getName(), profileDataCaptor.getValue().get(0).getNamespace());
 	}
 
 	@Test
@@ -292,7 +414,7 @@ public class ReplicationManagerTest {
 
 		int count = ReplicationManagerImpl.MAX_MESSAGE_PAGE_SIZE + 1;
 		List<ChangeMessage> changes = createChangeMessages(count);
-		doReturn(changes.iterator()).when(managerSpy).createReconcileIterator(any(), any(), any());
+		doReturn(changes.iterator()).when(managerSpy).createReconcileIterator(any(), any(), any(), any());
 
 		// call under test
 		managerSpy.reconcile(viewId);
@@ -300,8 +422,8 @@ public class ReplicationManagerTest {
 		verify(mockTableManagerSupport).getViewScopeType(viewId);
 		verify(mockIndexConnectionFactory).connectToTableIndex(viewId);
 		verify(mockTableIndexManager).isViewSynchronizeLockExpired(ReplicationType.ENTITY, viewId);
-		verify(managerSpy).createReconcileIterator(mockTableIndexManager, viewScopeType.getObjectType(),
-				viewId.getId());
+		verify(managerSpy).createReconcileIterator(eq(mockTableIndexManager), eq(viewScopeType.getObjectType()),
+				eq(viewId.getId()), any());
 
 		verify(mockLogger).info("Found 1000 objects out-of-synch between truth and replication for view: 'syn123'.");
 		verify(mockLogger).info("Found 1 objects out-of-synch between truth and replication for view: 'syn123'.");
@@ -312,7 +434,11 @@ public class ReplicationManagerTest {
 		verify(mockReplicationMessageManager).pushChangeMessagesToReplicationQueue(changes.subList(
 				ReplicationManagerImpl.MAX_MESSAGE_PAGE_SIZE, ReplicationManagerImpl.MAX_MESSAGE_PAGE_SIZE + 1));
 
-		verify(mockLogger).info("Finished reconcile for view: 'syn123'.");
+		verify(mockLogger).info("Finished reconcile for view: 'syn123'. ReconcileStatistics [mode=full, truthRowsScanned=0,"
+				+ " replicationRowsScanned=0, rangesCompared=0, bucketsCompared=0, bucketsDescended=0, changesFound=0]");
+		verify(mockConsumer).addProfileData(profileDataCaptor.capture());
+		assertEquals(6, profileDataCaptor.getValue().size());
+		assertEquals(ReplicationManagerImpl.class.getName(), profileDataCaptor.getValue().get(0).getNamespace());
 	}
 
 	@Test
@@ -322,7 +448,7 @@ public class ReplicationManagerTest {
 		when(mockTableIndexManager.isViewSynchronizeLockExpired(any(), any())).thenReturn(true);
 
 		List<ChangeMessage> changes = Collections.emptyList();
-		doReturn(changes.iterator()).when(managerSpy).createReconcileIterator(any(), any(), any());
+		doReturn(changes.iterator()).when(managerSpy).createReconcileIterator(any(), any(), any(), any());
 
 		// call under test
 		managerSpy.reconcile(viewId);
@@ -330,12 +456,16 @@ public class ReplicationManagerTest {
 		verify(mockTableManagerSupport).getViewScopeType(viewId);
 		verify(mockIndexConnectionFactory).connectToTableIndex(viewId);
 		verify(mockTableIndexManager).isViewSynchronizeLockExpired(ReplicationType.ENTITY, viewId);
-		verify(managerSpy).createReconcileIterator(mockTableIndexManager, viewScopeType.getObjectType(),
-				viewId.getId());
+		verify(managerSpy).createReconcileIterator(eq(mockTableIndexManager), eq(viewScopeType.getObjectType()),
+				eq(viewId.getId()), any());
 
 		verifyZeroInteractions(mockReplicationMessageManager);
 
-		verify(mockLogger).info("Finished reconcile for view: 'syn123'.");
+		verify(mockLogger).info("Finished reconcile for view: 'syn123'. ReconcileStatistics [mode=full, truthRowsScanned=0,"
+				+ " replicationRowsScanned=0, rangesCompared=0, bucketsCompared=0, bucketsDescended=0, changesFound=0]");
+		verify(mockConsumer).addProfileData(profileDataCaptor.capture());
+		assertEquals(6, profileDataCaptor.getValue().size());
+		assertEquals(ReplicationManagerImpl.class.getName(), profileDataCaptor.getValue().get(0).getNamespace());
 	}
 
 	@Test
@@ -468,7 +598,7 @@ public class ReplicationManagerTest {
 		Long viewId = 123L;
 		// call under test
 		Iterator<ChangeMessage> result = managerSpy.createReconcileIterator(mockTableIndexManager, viewObjectType,
-				viewId);
+				viewId, statistics);
 		assertNotNull(result);
 		assertTrue(result.hasNext());
 		ChangeMessage expecedMessage = new ChangeMessage().setObjectId("1").setObjectType(ObjectType.ENTITY)
@@ -476,10 +606,130 @@ public class ReplicationManagerTest {
 		assertEquals(expecedMessage, result.next());
 		assertFalse(result.hasNext());
 
+		assertEquals(1L, statistics.getTruthRowsScanned());
+		assertEquals(1L, statistics.getReplicationRowsScanned());
+		assertEquals(1L, statistics.getChangesFound());
+
 		verify(mockIndexProviderFactory).getMetadataIndexProvider(viewObjectType);
 		verify(managerSpy).createTruthStream(any(), eq(filter));
 		verify(mockTableIndexManager).streamOverIdsAndChecksums(any(), eq(filter));
 	}
+	
+	@Test
+	public void testCreateReconcileIteratorWithTiered() {
+		when(mockStackConfiguration.getReplicationReconcileTieredEnabled()).thenReturn(true);
+		managerSpy = Mockito.spy(createManager());
+		statistics = new ReconcileStatistics(ReconcileStatistics.MODE_TIERED);
+		when(mockIndexProviderFactory.getMetadataIndexProvider(any())).thenReturn(mockMetadataIndexProvider);
+		when(mockObjectDataProviderFactory.getObjectDataProvider(any())).thenReturn(mockObjectDataProvider);
+
+		Set<SubType> subTypes = Sets.newHashSet(SubType.file);
+		Set<Long> scope = Sets.newHashSet(99L);
+		ViewFilter filter = new HierarchicaFilter(ReplicationType.ENTITY, subTypes, scope);
+		when(mockMetadataIndexProvider.getViewFilter(any())).thenReturn(filter);
+
+		// bucket sizes are 100, 10 and 1. Only object 123 differs.
+		when(mockObjectDataProvider.getIdRangeChecksumsForChildren(any(), any(), any(), any(), any(), any()))
+				.thenReturn(Arrays.asList(new IdRangeChecksum().withBucket(1L).withCount(2L).withChecksum(5L)),
+						Arrays.asList(new IdRangeChecksum().withBucket(12L).withCount(2L).withChecksum(5L)),
+						Arrays.asList(new IdRangeChecksum().withBucket(121L).withCount(1L).withChecksum(2L),
+								new IdRangeChecksum().withBucket(123L).withCount(1L).withChecksum(3L)));
+		when(mockTableIndexManager.getIdRangeChecksums(any(), any(), any(), any(), any())).thenReturn(
+				Arrays.asList(new IdRangeChecksum().withBucket(1L).withCount(2L).withChecksum(6L)),
+				Arrays.asList(new IdRangeChecksum().withBucket(12L).withCount(2L).withChecksum(6L)),
+				Arrays.asList(new IdRangeChecksum().withBucket(121L).withCount(1L).withChecksum(2L),
+						new IdRangeChecksum().withBucket(123L).withCount(1L).withChecksum(4L)));
+
+		ViewObjectType viewObjectType = ViewObjectType.ENTITY;
+		Long viewId = 123L;
+		// call under test
+		Iterator<ChangeMessage> result = managerSpy.createReconcileIterator(mockTableIndexManager, viewObjectType,
+				viewId, statistics);
+		assertTrue(result.hasNext());
+		ChangeMessage expecedMessage = new ChangeMessage().setObjectId("123").setObjectType(ObjectType.ENTITY)
+				.setChangeType(ChangeType.UPDATE);
+		assertEquals(expecedMessage, result.next());
+		assertFalse(result.hasNext());
+
+		assertEquals(3L, statistics.getRangesCompared());
+		assertEquals(2L, statistics.getBucketsDescended());
+		assertEquals(6L, statistics.getTruthRowsScanned());
+
+		verify(mockObjectDataProvider).getIdRangeChecksumsForChildren(any(), eq(scope), eq(subTypes), eq(0L),
+				eq(Long.MAX_VALUE), eq(100L));
+		verify(mockObjectDataProvider).getIdRangeChecksumsForChildren(any(), eq(scope), eq(subTypes), eq(100L),
+				eq(200L), eq(10L));
+		verify(mockObjectDataProvider).getIdRangeChecksumsForChildren(any(), eq(scope), eq(subTypes), eq(120L),
+				eq(130L), eq(1L));
+		verify(mockTableIndexManager).getIdRangeChecksums(any(), eq(filter), eq(120L), eq(130L), eq(1L));
+		verify(mockTableIndexManager, never()).streamOverIdsAndChecksums(any(), any());
+	}
+	
+	@Test
+	public void testCreateTruthChecksumProviderWithHierarchicaFilter() {
+		when(mockObjectDataProviderFactory.getObjectDataProvider(any())).thenReturn(mockObjectDataProvider);
+		List<IdRangeChecksum> buckets = Arrays.asList(new IdRangeChecksum().withBucket(1L));
+		when(mockObjectDataProvider.getIdRangeChecksumsForChildren(any(), any(), any(), any(), any(), any()))
+				.thenReturn(buckets);
+
+		Long salt = 123L;
+		Set<SubType> subTypes = Sets.newHashSet(SubType.file);
+		Set<Long> scope = Sets.newHashSet(99L);
+		ViewFilter filter = new HierarchicaFilter(ReplicationType.ENTITY, subTypes, scope);
+		// call under test
+		assertEquals(buckets, manager.createTruthChecksumProvider(salt, filter).getIdRangeChecksums(0L, 10L, 1L));
+
+		verify(mockObjectDataProviderFactory).getObjectDataProvider(ReplicationType.ENTITY);
+		verify(mockObjectDataProvider).getIdRangeChecksumsForChildren(salt, scope, subTypes, 0L, 10L, 1L);
+	}
+	
+	@Test
+	public void testCreateTruthChecksumProviderWithFlatFilter() {
+		when(mockObjectDataProviderFactory.getObjectDataProvider(any())).thenReturn(mockObjectDataProvider);
+		List<IdRangeChecksum> buckets = Arrays.asList(new IdRangeChecksum().withBucket(1L));
+		when(mockObjectDataProvider.getIdRangeChecksumsForObjects(any(), any(), any(), any(), any()))
+				.thenReturn(buckets);
+
+		Long salt = 123L;
+		Set<SubType> subTypes = Sets.newHashSet(SubType.file);
+		Set<Long> scope = Sets.newHashSet(99L);
+		ViewFilter filter = new FlatIdsFilter(ReplicationType.ENTITY, subTypes, scope);
+		// call under test
+		assertEquals(buckets, manager.createTruthChecksumProvider(salt, filter).getIdRangeChecksums(0L, 10L, 1L));
+
+		verify(mockObjectDataProvider).getIdRangeChecksumsForObjects(salt, scope, 0L, 10L, 1L);
+	}
+	
+	@Test
+	public void testCreateTruthChecksumProviderWithFlatIdAndVersionFilter() {
+		when(mockObjectDataProviderFactory.getObjectDataProvider(any())).thenReturn(mockObjectDataProvider);
+		List<IdRangeChecksum> buckets = Arrays.asList(new IdRangeChecksum().withBucket(1L));
+		when(mockObjectDataProvider.getIdRangeChecksumsForObjects(any(), any(), any(), any(), any()))
+				.thenReturn(buckets);
+
+		Long salt = 123L;
+		Set<SubType> subTypes = Sets.newHashSet(SubType.file);
+		Set<IdVersionPair> scope = Sets.newHashSet(new IdVersionPair().setId(1L).setVersion(2L));
+		FlatIdAndVersionFilter filter = new FlatIdAndVersionFilter(ReplicationType.ENTITY, subTypes, scope);
+		// call under test
+		assertEquals(buckets, manager.createTruthChecksumProvider(salt, filter).getIdRangeChecksums(0L, 10L, 1L));
+
+		verify(mockObjectDataProvider).getIdRangeChecksumsForObjects(salt, filter.getObjectIds(), 0L, 10L, 1L);
+	}
+	
+	@Test
+	public void testCreateTruthChecksumProviderWithUnknownFilter() {
+		when(mockObjectDataProviderFactory.getObjectDataProvider(any())).thenReturn(mockObjectDataProvider);
+		Long salt = 123L;
+		ViewFilter filter = Mockito.mock(ViewFilter.class);
+
+		String message = assertThrows(IllegalStateException.class, () -> {
+			// call under test
+			manager.createTruthChecksumProvider(salt, filter);
+		}).getMessage();
+
+		assertTrue(message.startsWith("Unknown filter types: "));
+	}
 
 	@Test
 	public void testCreateReconcileIteratorWithNullManager() {
@@ -488,7 +738,7 @@ public class ReplicationManagerTest {
 		Long viewId = 123L;
 		String message = assertThrows(IllegalArgumentException.class, () -> {
 			// call under test
-			managerSpy.createReconcileIterator(mockTableIndexManager, viewObjectType, viewId);
+			managerSpy.createReconcileIterator(mockTableIndexManager, viewObjectType, viewId, statistics);
 		}).getMessage();
 		assertEquals("indexManager is required.", message);
 	}	
@@ -499,7 +749,7 @@ public class ReplicationManagerTest {
 		Long viewId = 123L;
 		String message = assertThrows(IllegalArgumentException.class, () -> {
 			// call under test
-			managerSpy.createReconcileIterator(mockTableIndexManager, viewObjectType, viewId);
+			managerSpy.createReconcileIterator(mockTableIndexManager, viewObjectType, viewId, statistics);
 		}).getMessage();
 		assertEquals("viewObjectType is required.", message);
 	}	
@@ -510,7 +760,7 @@ public class ReplicationManagerTest {
 		Long viewId = null;
 		String message = assertThrows(IllegalArgumentException.class, () -> {
 			// call under test
-			managerSpy.createReconcileIterator(mockTableIndexManager, viewObjectType, viewId);
+			managerSpy.createReconcileIterator(mockTableIndexManager, viewObjectType, viewId, statistics);
 		}).getMessage();
 		assertEquals("viewId is required.", message);
 	}	
@@ -520,12 +770,12 @@ public class ReplicationManagerTest {
 		when(mockIndexConnectionFactory.connectToTableIndex(any())).thenReturn(mockTableIndexManager);
 		ViewObjectType viewObjectType = ViewObjectType.ENTITY;
 		Iterator<ChangeMessage> it = Collections.emptyIterator();
-		doReturn(it).when(managerSpy).createReconcileIterator(any(), any(), any());
+		doReturn(it).when(managerSpy).createReconcileIterator(any(), any(), any(), any());
 		
 		// call under test
 		assertTrue(managerSpy.isReplicationSynchronizedForView(viewObjectType, viewId));
 		verify(mockIndexConnectionFactory).connectToTableIndex(viewId);
-		verify(managerSpy).createReconcileIterator(mockTableIndexManager, viewObjectType, viewId.getId());
+		verify(managerSpy).createReconcileIterator(eq(mockTableIndexManager), eq(viewObjectType), eq(viewId.getId()), any());
 	}
 	
 	@Test
@@ -533,12 +783,18 @@ public class ReplicationManagerTest {
 		when(mockIndexConnectionFactory.connectToTableIndex(any())).thenReturn(mockTableIndexManager);
 		ViewObjectType viewObjectType = ViewObjectType.ENTITY;
 		Iterator<ChangeMessage> it = changes.iterator();
-		doReturn(it).when(managerSpy).createReconcileIterator(any(), any(), any());
+		doReturn(it).when(managerSpy).createReconcileIterator(any(), any(), any(), any());
 		
 		// call under test
 		assertFalse(managerSpy.isReplicationSynchronizedForView(viewObjectType, viewId));
 		verify(mockIndexConnectionFactory).connectToTableIndex(viewId);
-		verify(managerSpy).createReconcileIterator(mockTableIndexManager, viewObjectType, viewId.getId());
+		verify(managerSpy).createReconcileIterator(eq(mockTableIndexManager), eq(viewObjectType), eq(viewId.getId()), any());
+	}
+	
+	ReplicationManagerImpl createManager() {
+		return new ReplicationManagerImpl(mockObjectDataProviderFactory, mockTableManagerSupport,
+				mockReplicationMessageManager, mockIndexConnectionFactory, mockIndexProviderFactory,
+				mockLoggerProvider, mockStackConfiguration, mockConsumer, mockViewScopeDao);
 	}
 	
 	/**
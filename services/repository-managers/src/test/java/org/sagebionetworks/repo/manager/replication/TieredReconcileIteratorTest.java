@@ -0,0 +1,182 @@
+package org.sagebionetworks.repo.manager.replication;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.manager.replication.TieredReconcileIterator.IdRangeChecksumProvider;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.ChangeType;
+
+import com.google.common.collect.Lists;
+
+public class TieredReconcileIteratorTest {
+
+	private Map<Long, Long> truth;
+	private Map<Long, Long> replication;
+	private long[] bucketSizes;
+	private ReconcileStatistics statistics;
+	private List<Long> truthBucketSizesRequested;
+
+	@BeforeEach
+	public void before() {
+		truth = new TreeMap<>();
+		replication = new TreeMap<>();
+		bucketSizes = new long[] { 100L, 10L, 1L };
+		statistics = new ReconcileStatistics(ReconcileStatistics.MODE_TIERED);
+		truthBucketSizesRequested = new ArrayList<>();
+		for (long id = 1; id < 1000; id += 3) {
+			truth.put(id, id * 7);
+			replication.put(id, id * 7);
+		}
+	}
+
+	/**
+	 * Simulates the SQL: SELECT ID DIV bucketSize, COUNT(*), SUM(CHECKSUM) ...
+	 * GROUP BY 1 ORDER BY 1.
+	 */
+	static List<IdRangeChecksum> aggregate(Map<Long, Long> data, Long minId, Long maxId, Long bucketSize) {
+		Map<Long, IdRangeChecksum> buckets = new TreeMap<>();
+		data.forEach((id, checksum) -> {
+			if (id >= minId && id < maxId) {
+				IdRangeChecksum bucket = buckets.computeIfAbsent(id / bucketSize,
+						b -> new IdRangeChecksum().withBucket(b).withCount(0L).withChecksum(0L));
+				bucket.withCount(bucket.getCount() + 1).withChecksum(bucket.getChecksum() + checksum);
+			}
+		});
+		return new ArrayList<>(buckets.values());
+	}
+
+	List<ChangeMessage> reconcile() {
+		IdRangeChecksumProvider truthProvider = (Long minId, Long maxId, Long bucketSize) -> {
+			truthBucketSizesRequested.add(bucketSize);
+			return aggregate(truth, minId, maxId, bucketSize);
+		};
+		IdRangeChecksumProvider replicationProvider = (Long minId, Long maxId, Long bucketSize) -> aggregate(
+				replication, minId, maxId, bucketSize);
+		return Lists.newArrayList(new TieredReconcileIterator(ObjectType.ENTITY, truthProvider, replicationProvider,
+				bucketSizes, statistics));
+	}
+
+	ChangeMessage change(ChangeType type, Long id) {
+		return new ChangeMessage().setChangeType(type).setObjectType(ObjectType.ENTITY).setObjectId(id.toString());
+	}
+
+	@Test
+	public void testWithNoChanges() {
+		// call under test
+		List<ChangeMessage> changes = reconcile();
+		assertEquals(0, changes.size());
+		// only the top tier should be read.
+		assertEquals(Arrays.asList(100L), truthBucketSizesRequested);
+		assertEquals(1L, statistics.getRangesCompared());
+		assertEquals(10L, statistics.getBucketsCompared());
+		assertEquals(0L, statistics.getBucketsDescended());
+		assertEquals(truth.size(), statistics.getTruthRowsScanned());
+		assertEquals(replication.size(), statistics.getReplicationRowsScanned());
+	}
+
+	@Test
+	public void testWithUpdateCreateAndDelete() {
+		truth.put(4L, 3L);
+		truth.put(503L, 1L);
+		replication.put(506L, 2L);
+		replication.remove(910L);
+		// call under test
+		List<ChangeMessage> changes = reconcile();
+		assertEquals(Arrays.asList(change(ChangeType.UPDATE, 4L), change(ChangeType.CREATE, 503L),
+				change(ChangeType.DELETE, 506L), change(ChangeType.CREATE, 910L)), changes);
+		assertEquals(4L, statistics.getChangesFound());
+		// one top range, three ranges at the second tier and three at the last tier.
+		assertEquals(7L, statistics.getRangesCompared());
+		assertEquals(6L, statistics.getBucketsDescended());
+		assertEquals(Arrays.asList(100L, 10L, 1L, 10L, 1L, 10L, 1L), truthBucketSizesRequested);
+	}
+
+	@Test
+	public void testWithEmptyReplication() {
+		truth.clear();
+		truth.put(1L, 1L);
+		truth.put(250L, 2L);
+		replication.clear();
+		// call under test
+		List<ChangeMessage> changes = reconcile();
+		assertEquals(Arrays.asList(change(ChangeType.CREATE, 1L), change(ChangeType.CREATE, 250L)), changes);
+	}
+
+	@Test
+	public void testWithEmptyTruth() {
+		truth.clear();
+		replication.clear();
+		replication.put(99L, 1L);
+		// call under test
+		List<ChangeMessage> changes = reconcile();
+		assertEquals(Arrays.asList(change(ChangeType.DELETE, 99L)), changes);
+	}
+
+	@Test
+	public void testWithBothEmpty() {
+		truth.clear();
+		replication.clear();
+		// call under test
+		assertFalse(new TieredReconcileIterator(ObjectType.ENTITY, (a, b, c) -> aggregate(truth, a, b, c),
+				(a, b, c) -> aggregate(replication, a, b, c), bucketSizes, statistics).hasNext());
+	}
+
+	@Test
+	public void testWithSingleTier() {
+		bucketSizes = new long[] { 1L };
+		replication.remove(7L);
+		// call under test
+		List<ChangeMessage> changes = reconcile();
+		assertEquals(Arrays.asList(change(ChangeType.CREATE, 7L)), changes);
+	}
+
+	@Test
+	public void testWithLastBucketSizeNotOne() {
+		bucketSizes = new long[] { 100L, 10L };
+		String message = assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			reconcile();
+		}).getMessage();
+		assertEquals("The last bucket size must be one", message);
+	}
+
+	@Test
+	public void testWithBucketSizeNotDivisor() {
+		bucketSizes = new long[] { 100L, 30L, 1L };
+		String message = assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			reconcile();
+		}).getMessage();
+		assertEquals("Each bucket size must evenly divide the previous bucket size", message);
+	}
+
+	@Test
+	public void testCreateBucketSizes() {
+		assertArrayEquals(new long[] { 1_000_000L, 10_000L, 100L, 1L },
+				TieredReconcileIterator.createBucketSizes(1_000_000L, 100));
+		assertArrayEquals(new long[] { 1000L, 250L, 50L, 10L, 2L, 1L },
+				TieredReconcileIterator.createBucketSizes(1000L, 3));
+		assertArrayEquals(new long[] { 1L }, TieredReconcileIterator.createBucketSizes(1L, 10));
+	}
+
+	@Test
+	public void testCreateBucketSizesWithFanoutOne() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			TieredReconcileIterator.createBucketSizes(100L, 1);
+		});
+	}
+}
@@ -6,6 +6,10 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -38,6 +42,7 @@ public class EntitySchemaValidatorImplTest {
 
 	String entityId;
 	String schema$id;
+	String versionId;
 	JsonSchemaObjectBinding binding;
 	@Mock
 	JsonSubject mockEntitySubject;
@@ -46,6 +51,22 @@ public class EntitySchemaValidatorImplTest {
 	@Mock
 	ValidationResults mockValidationResults;
 
+	String otherEntityId;
+	String thirdEntityId;
+	String otherSchema$id;
+	String otherVersionId;
+	JsonSchemaObjectBinding otherBinding;
+	@Mock
+	JsonSubject mockOtherEntitySubject;
+	@Mock
+	JsonSubject mockThirdEntitySubject;
+	@Mock
+	JsonSchema mockOtherJsonSchema;
+	@Mock
+	ValidationResults mockOtherValidationResults;
+	@Mock
+	ValidationResults mockThirdValidationResults;
+
 	@BeforeEach
 	public void before() {
 		entityId = "syn123";
@@ -54,15 +75,26 @@ public class EntitySchemaValidatorImplTest {
 		JsonSchemaVersionInfo versionInfo = new JsonSchemaVersionInfo();
 		versionInfo.set$id(schema$id);
 		binding.setJsonSchemaVersionInfo(versionInfo);
+		versionId = "11";
+
+		otherEntityId = "syn456";
+		thirdEntityId = "syn789";
+		otherSchema$id = "my.org-foo.baz";
+		otherBinding = new JsonSchemaObjectBinding();
+		JsonSchemaVersionInfo otherVersionInfo = new JsonSchemaVersionInfo();
+		otherVersionInfo.set$id(otherSchema$id);
+		otherBinding.setJsonSchemaVersionInfo(otherVersionInfo);
+		otherVersionId = "22";
 	}
 
 	@Test
 	public void testValidateObject() {
 		when(mockEntityManger.getBoundSchema(entityId)).thenReturn(binding);
 		when(mockEntityManger.getEntityJsonSubject(entityId)).thenReturn(mockEntitySubject);
+		when(mockJsonSchemaManager.getSchemaVersionId(schema$id)).thenReturn(versionId);
 		when(mockJsonSchemaManager.getValidationSchema(schema$id)).thenReturn(mockJsonSchema);
-		when(mockJsonSchemaValidationManager.validate(mockJsonSchema, mockEntitySubject))
-				.thenReturn(mockValidationResults);
+		when(mockJsonSchemaValidationManager.validate(versionId, mockJsonSchema,
+				Collections.singletonList(mockEntitySubject))).thenReturn(Collections.singletonList(mockValidationResults));
 		// call under test
 		manager.validateObject(entityId);
 		verify(mockSchemaValidationResultDao).createOrUpdateResults(mockValidationResults);
@@ -70,7 +102,8 @@ public class EntitySchemaValidatorImplTest {
 		verify(mockEntityManger).getBoundSchema(entityId);
 		verify(mockEntityManger).getEntityJsonSubject(entityId);
 		verify(mockJsonSchemaManager).getValidationSchema(schema$id);
-		verify(mockJsonSchemaValidationManager).validate(mockJsonSchema, mockEntitySubject);
+		verify(mockJsonSchemaValidationManager).validate(versionId, mockJsonSchema,
+				Collections.singletonList(mockEntitySubject));
 	}
 	
 	@Test
@@ -83,6 +116,73 @@ public class EntitySchemaValidatorImplTest {
 		verify(mockSchemaValidationResultDao).clearResults(entityId, ObjectType.entity);
 	}
 	
+	@Test
+	public void testValidateObjectWithValidationSchemaNotFound() {
+		when(mockEntityManger.getBoundSchema(entityId)).thenReturn(binding);
+		when(mockEntityManger.getEntityJsonSubject(entityId)).thenReturn(mockEntitySubject);
+		when(mockJsonSchemaManager.getSchemaVersionId(schema$id)).thenThrow(new NotFoundException());
+		// call under test
+		manager.validateObject(entityId);
+		verify(mockSchemaValidationResultDao, never()).createOrUpdateResults(any());
+		verify(mockSchemaValidationResultDao).clearResults(entityId, ObjectType.entity);
+	}
+
+	@Test
+	public void testValidateObjects() {
+		when(mockEntityManger.getBoundSchema(entityId)).thenReturn(binding);
+		when(mockEntityManger.getBoundSchema(otherEntityId)).thenReturn(otherBinding);
+		when(mockEntityManger.getBoundSchema(thirdEntityId)).thenReturn(binding);
+		when(mockEntityManger.getEntityJsonSubject(entityId)).thenReturn(mockEntitySubject);
+		when(mockEntityManger.getEntityJsonSubject(otherEntityId)).thenReturn(mockOtherEntitySubject);
+		when(mockEntityManger.getEntityJsonSubject(thirdEntityId)).thenReturn(mockThirdEntitySubject);
+		when(mockJsonSchemaManager.getSchemaVersionId(schema$id)).thenReturn(versionId);
+		when(mockJsonSchemaManager.getSchemaVersionId(otherSchema$id)).thenReturn(otherVersionId);
+		when(mockJsonSchemaManager.getValidationSchema(schema$id)).thenReturn(mockJsonSchema);
+		when(mockJsonSchemaManager.getValidationSchema(otherSchema$id)).thenReturn(mockOtherJsonSchema);
+		when(mockJsonSchemaValidationManager.validate(versionId, mockJsonSchema,
+				Arrays.asList(mockEntitySubject, mockThirdEntitySubject)))
+						.thenReturn(Arrays.asList(mockValidationResults, mockThirdValidationResults));
+		when(mockJsonSchemaValidationManager.validate(otherVersionId, mockOtherJsonSchema,
+				Collections.singletonList(mockOtherEntitySubject)))
+						.thenReturn(Collections.singletonList(mockOtherValidationResults));
+		List<String> entityIds = Arrays.asList(entityId, otherEntityId, thirdEntityId);
+		// call under test
+		manager.validateObjects(entityIds);
+		// each schema is fetched once for the batch
+		verify(mockJsonSchemaManager).getValidationSchema(schema$id);
+		verify(mockJsonSchemaManager).getValidationSchema(otherSchema$id);
+		verify(mockSchemaValidationResultDao).createOrUpdateResults(mockValidationResults);
+		verify(mockSchemaValidationResultDao).createOrUpdateResults(mockOtherValidationResults);
+		verify(mockSchemaValidationResultDao).createOrUpdateResults(mockThirdValidationResults);
+		verify(mockSchemaValidationResultDao, never()).clearResults(any(), any());
+	}
+
+	@Test
+	public void testValidateObjectsWithNotFound() {
+		when(mockEntityManger.getBoundSchema(entityId)).thenThrow(new NotFoundException());
+		when(mockEntityManger.getBoundSchema(otherEntityId)).thenReturn(otherBinding);
+		when(mockEntityManger.getEntityJsonSubject(otherEntityId)).thenReturn(mockOtherEntitySubject);
+		when(mockJsonSchemaManager.getSchemaVersionId(otherSchema$id)).thenReturn(otherVersionId);
+		when(mockJsonSchemaManager.getValidationSchema(otherSchema$id)).thenReturn(mockOtherJsonSchema);
+		when(mockJsonSchemaValidationManager.validate(otherVersionId, mockOtherJsonSchema,
+				Collections.singletonList(mockOtherEntitySubject)))
+						.thenReturn(Collections.singletonList(mockOtherValidationResults));
+		List<String> entityIds = Arrays.asList(entityId, otherEntityId);
+		// call under test
+		manager.validateObjects(entityIds);
+		verify(mockSchemaValidationResultDao).clearResults(entityId, ObjectType.entity);
+		verify(mockSchemaValidationResultDao).createOrUpdateResults(mockOtherValidationResults);
+		verify(mockSchemaValidationResultDao, never()).clearResults(otherEntityId, ObjectType.entity);
+	}
+
+	@Test
+	public void testValidateObjectsWithNullEntityIds() {
+		assertThrows(IllegalArgumentException.class, ()->{
+			// call under test
+			manager.validateObjects(null);
+		});
+	}
+
 	@Test
 	public void testValidateObjectWithNullEntityId() {
 		entityId = null;
@@ -4,11 +4,14 @@ import static org.junit.Assert.assertNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 import static org.sagebionetworks.repo.manager.schema.SchemaTestUtils.loadSchemaFromClasspath;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.json.JSONObject;
@@ -736,6 +739,113 @@ public class JsonSchemaValidationManagerImplTest {
 		buildStackTrackRecursive(builder, validationException);
 		return builder.toString();
 	}
+
+	@Test
+	public void testValidateBatch() throws Exception {
+		JsonSchema schema = loadSchemaFromClasspath("schemas/Enum.json");
+		String versionId = "123";
+		JsonSubject valid = setupSubject();
+		valid.toJson().put("enumKey", "a");
+		JsonSubject invalid = setupSubject();
+		invalid.toJson().put("enumKey", "c");
+		// call under test
+		List<ValidationResults> results = manager.validate(versionId, schema, Lists.newArrayList(valid, invalid));
+		assertEquals(2, results.size());
+		assertTrue(results.get(0).getIsValid());
+		assertEquals("hasEnum", results.get(0).getSchema$id());
+		assertFalse(results.get(1).getIsValid());
+		assertEquals(Lists.newArrayList("#/enumKey: c is not a valid enum value"),
+				results.get(1).getAllValidationMessages());
+		assertTrue(manager.isCompiledSchemaCached(versionId));
+	}
+
+	@Test
+	public void testValidateBatchWithNoSubjects() throws Exception {
+		JsonSchema schema = loadSchemaFromClasspath("schemas/Enum.json");
+		// call under test
+		List<ValidationResults> results = manager.validate("123", schema, Collections.emptyList());
+		assertEquals(Collections.emptyList(), results);
+	}
+
+	@Test
+	public void testValidateBatchWithNullVersionId() throws Exception {
+		JsonSchema schema = loadSchemaFromClasspath("schemas/Enum.json");
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			manager.validate(null, schema, Collections.emptyList());
+		});
+	}
+
+	@Test
+	public void testValidateBatchWithNullSchema() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			manager.validate("123", null, Collections.emptyList());
+		});
+	}
+
+	@Test
+	public void testValidateBatchWithNullSubjects() throws Exception {
+		JsonSchema schema = loadSchemaFromClasspath("schemas/Enum.json");
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			manager.validate("123", schema, null);
+		});
+	}
+
+	@Test
+	public void testGetOrCompileWithSameSchema() throws Exception {
+		String versionId = "123";
+		// call under test
+		JsonSchemaValidationManagerImpl.CompiledSchema first = manager.getOrCompile(versionId,
+				loadSchemaFromClasspath("schemas/Enum.json"));
+		JsonSchemaValidationManagerImpl.CompiledSchema second = manager.getOrCompile(versionId,
+				loadSchemaFromClasspath("schemas/Enum.json"));
+		assertSame(first, second);
+	}
+
+	@Test
+	public void testGetOrCompileWithChangedSchema() throws Exception {
+		String versionId = "123";
+		JsonSchema schema = loadSchemaFromClasspath("schemas/Enum.json");
+		// call under test
+		JsonSchemaValidationManagerImpl.CompiledSchema first = manager.getOrCompile(versionId, schema);
+		JsonSchema changed = loadSchemaFromClasspath("schemas/Enum.json");
+		changed.setDescription("changed");
+		JsonSchemaValidationManagerImpl.CompiledSchema second = manager.getOrCompile(versionId, changed);
+		assertNotSame(first, second);
+		assertSame(changed, second.getSource());
+		assertSame(second, manager.getOrCompile(versionId, changed));
+	}
+
+	@Test
+	public void testGetOrCompileWithNoSchemaVersion() throws Exception {
+		JsonSchema schema = loadSchemaFromClasspath("schemas/Enum.json");
+		schema.set$schema(null);
+		// call under test
+		JsonSchemaValidationManagerImpl.CompiledSchema compiled = manager.getOrCompile("123", schema);
+		assertEquals(JsonSchemaValidationManagerImpl.DRAFT_07, compiled.getSource().get$schema());
+	}
+
+	@Test
+	public void testEvictCompiledSchema() throws Exception {
+		String versionId = "123";
+		manager.getOrCompile(versionId, loadSchemaFromClasspath("schemas/Enum.json"));
+		manager.getOrCompile("456", loadSchemaFromClasspath("schemas/Enum.json"));
+		assertTrue(manager.isCompiledSchemaCached(versionId));
+		// call under test
+		manager.evictCompiledSchema(versionId);
+		assertFalse(manager.isCompiledSchemaCached(versionId));
+		assertTrue(manager.isCompiledSchemaCached("456"));
+	}
+
+	@Test
+	public void testEvictCompiledSchemaWithNullVersionId() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			manager.evictCompiledSchema(null);
+		});
+	}
 	
 	/**
 	 * Recursive method to build a stack trace from a ValidationException
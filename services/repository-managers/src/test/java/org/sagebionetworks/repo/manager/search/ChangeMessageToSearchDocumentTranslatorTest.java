@@ -1,13 +1,17 @@
 package org.sagebionetworks.repo.manager.search;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -53,7 +57,6 @@ public class ChangeMessageToSearchDocumentTranslatorTest{
 	private Document docOne;
 	private long changeNumber;
 	private String synapseId;
-	private String etag;
 	String wikiId;
 	WikiPageKey wikiKey;
 
@@ -61,7 +64,6 @@ public class ChangeMessageToSearchDocumentTranslatorTest{
 	public void setUp(){
 		changeNumber = 111L;
 		synapseId = "112233";
-		etag = "etag1";
 
 
 		//documentChangeMessage() test setup
@@ -74,11 +76,6 @@ public class ChangeMessageToSearchDocumentTranslatorTest{
 
 		docOne = new Document();
 		docOne.setId(synapseId);
-		when(mockSearchDocumentDriver.formulateSearchDocument(synapseId)).thenReturn(docOne);
-		
-		when(mockSearchDocumentDriver.doesEntityExistInRepository(synapseId)).thenReturn(true);
-		when(mockSearchDao.doesDocumentExistInSearchIndex(synapseId, etag)).thenReturn(false);
-		
 		wikiId = "987";
 		wikiKey = WikiPageKeyHelper.createWikiPageKey(synapseId, ObjectType.ENTITY, wikiId);
 		when(mockWikiPageDao.lookupWikiKey(wikiId)).thenReturn(wikiKey);
@@ -86,78 +83,41 @@ public class ChangeMessageToSearchDocumentTranslatorTest{
 	}
 	
 	@Test
-	public void testEntityChange() {
-		// call under test
-		Document doc = translator.entityChange(synapseId, mocKRecord);
-		assertEquals(docOne, doc);
-		verify(mocKRecord).withAction(DocumentAction.CREATE_OR_UPDATE);
-		verify(mockSearchDocumentDriver).formulateSearchDocument(synapseId);
-	}
-	
-	@Test
-	public void testEntityChangeEntityDoesNotExist() {
-		// documents that do not exist do not have an etag.
-		when(mockSearchDocumentDriver.doesEntityExistInRepository(synapseId)).thenReturn(false);
+	public void testGenerateSearchDocuments() {
+		ChangeMessage wikiMessage = new ChangeMessage();
+		wikiMessage.setObjectId(wikiId);
+		wikiMessage.setObjectType(ObjectType.WIKI);
+		ChangeMessage deletedMessage = new ChangeMessage();
+		deletedMessage.setObjectId("444");
+		deletedMessage.setObjectType(ObjectType.ENTITY);
+		when(mockSearchDocumentDriver.getEntitiesExistingInRepository(Arrays.asList(synapseId, "444")))
+				.thenReturn(Collections.singleton(synapseId));
+		when(mockSearchDocumentDriver.formulateSearchDocuments(Arrays.asList(synapseId)))
+				.thenReturn(Arrays.asList(docOne));
 		// call under test
-		Document doc = translator.entityChange(synapseId, mocKRecord);
-		Document expectedDocument = new Document();
-		expectedDocument.setId(message.getObjectId());
-		expectedDocument.setType(DocumentTypeNames.delete);
-		assertEquals(expectedDocument, doc);
+		List<Document> docs = translator.generateSearchDocuments(Arrays.asList(message, wikiMessage, deletedMessage));
+		Document expectedDelete = new Document();
+		expectedDelete.setId("444");
+		expectedDelete.setType(DocumentTypeNames.delete);
+		// the entity and its wiki are documented once.
+		assertEquals(Arrays.asList(docOne, expectedDelete), docs);
+		verify(mockRecordLogger, times(3)).startRecordForChangeMessage(any(ChangeMessage.class));
+		verify(mocKRecord).withWikiOwner(synapseId);
+		verify(mocKRecord, times(2)).withAction(DocumentAction.CREATE_OR_UPDATE);
 		verify(mocKRecord).withAction(DocumentAction.DELETE);
 		verify(mockSearchDocumentDriver, never()).formulateSearchDocument(anyString());
 	}
 	
 	@Test
-	public void testWikiChange() {
-		//when a wiki is updated, the entity to which it is associated may still have the same etag
-		when(mockSearchDao.doesDocumentExistInSearchIndex(synapseId, etag)).thenReturn(true);
-
-		String wikiId = "987";
-		WikiPageKey key = WikiPageKeyHelper.createWikiPageKey(synapseId, ObjectType.ENTITY, wikiId);
-		when(mockWikiPageDao.lookupWikiKey(wikiId)).thenReturn(key);
-		
-		// call under test
-		Document doc = translator.wikiChange(wikiId, mocKRecord);
-		assertEquals(docOne, doc);
-		verify(mockWikiPageDao).lookupWikiKey(wikiId);
-		verify(mocKRecord).withAction(DocumentAction.CREATE_OR_UPDATE);
-		verify(mocKRecord).withWikiOwner(synapseId);
-		verify(mockSearchDocumentDriver).formulateSearchDocument(synapseId);
-	}
-
-	@Test
-	public void testWikiChangeWikiNotFound() {
-		String wikiId = "987";
+	public void testGenerateSearchDocumentsWithIgnoredWiki() {
 		when(mockWikiPageDao.lookupWikiKey(wikiId)).thenThrow(new NotFoundException());
-
-		// call under test
-		Document doc = translator.wikiChange(wikiId, mocKRecord);
-		assertNull(doc);
-		verify(mocKRecord).withAction(DocumentAction.IGNORE);
-		verify(mockSearchDocumentDriver, never()).formulateSearchDocument(anyString());
-	}
-	
-	@Test
-	public void testGenerateSearchDocumentIfNecessaryEntity() {
-		// call under test
-		Document doc = translator.generateSearchDocumentIfNecessary(message);
-		assertEquals(docOne, doc);
-		verify(mockRecordLogger).startRecordForChangeMessage(message);
-		verify(mockWikiPageDao, never()).lockForUpdate(anyString());
-	}
-	
-	@Test
-	public void testGenerateSearchDocumentIfNecessaryWiki() {
-		String wikiId = "987";
-		WikiPageKey key = WikiPageKeyHelper.createWikiPageKey(synapseId, ObjectType.ENTITY, wikiId);
-		when(mockWikiPageDao.lookupWikiKey(wikiId)).thenReturn(key);
 		message.setObjectId(wikiId);
 		message.setObjectType(ObjectType.WIKI);
 		// call under test
-		Document doc = translator.generateSearchDocumentIfNecessary(message);
-		assertEquals(docOne, doc);
-		verify(mockRecordLogger).startRecordForChangeMessage(message);
-		verify(mockWikiPageDao).lookupWikiKey(wikiId);
+		List<Document> docs = translator.generateSearchDocuments(Arrays.asList(message));
+		assertEquals(Collections.emptyList(), docs);
+		verify(mocKRecord).withAction(DocumentAction.IGNORE);
+		verify(mockSearchDocumentDriver, never()).formulateSearchDocuments(any());
+		verify(mockSearchDocumentDriver, never()).getEntitiesExistingInRepository(any());
 	}
 }
@@ -8,16 +8,20 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.sagebionetworks.search.SearchConstants.FIELD_CONSORTIUM;
 import static org.sagebionetworks.search.SearchConstants.FIELD_DIAGNOSIS;
 import static org.sagebionetworks.search.SearchConstants.FIELD_ORGAN;
 import static org.sagebionetworks.search.SearchConstants.FIELD_TISSUE;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Before;
@@ -26,14 +30,22 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.sagebionetworks.repo.model.ACCESS_TYPE;
 import org.sagebionetworks.repo.model.AccessControlList;
+import org.sagebionetworks.repo.model.AccessControlListDAO;
 import org.sagebionetworks.repo.model.EntityType;
 import org.sagebionetworks.repo.model.Node;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.ResourceAccess;
 import org.sagebionetworks.repo.model.annotation.v2.Annotations;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2TestUtils;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsValueType;
 import org.sagebionetworks.repo.model.search.Document;
 import org.sagebionetworks.repo.model.search.DocumentFields;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.util.concurrent.MoreExecutors;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SearchDocumentDriverImplTest {
@@ -49,6 +61,12 @@ public class SearchDocumentDriverImplTest {
 	@Mock
 	private AccessControlList mockAcl;
 
+	@Mock
+	private NodeDAO mockNodeDao;
+
+	@Mock
+	private AccessControlListDAO mockAclDao;
+
 	private Node node;
 
 	private final String annoKey1 = "annoKey1";
@@ -192,4 +210,41 @@ public class SearchDocumentDriverImplTest {
 		assertEquals(sanitizedString, result.getFields().getDescription());
 	}
 
+	@Test
+	public void formulateSearchDocuments(){
+		ReflectionTestUtils.setField(spySearchDocumentDriver, "nodeDao", mockNodeDao);
+		ReflectionTestUtils.setField(spySearchDocumentDriver, "aclDAO", mockAclDao);
+		spySearchDocumentDriver.setWikiExecutor(MoreExecutors.newDirectExecutorService());
+		doReturn("wiki text").when(spySearchDocumentDriver).getAllWikiPageText("syn123");
+		doReturn(null).when(spySearchDocumentDriver).getAllWikiPageText("syn456");
+		annotationsV2.setId("syn123");
+		AccessControlList acl = new AccessControlList();
+		ResourceAccess access = new ResourceAccess();
+		access.setPrincipalId(5L);
+		access.setAccessType(Collections.singleton(ACCESS_TYPE.READ));
+		acl.setResourceAccess(Collections.singleton(access));
+		List<Long> ids = Arrays.asList(123L, 456L);
+		// syn456 was deleted.
+		when(mockNodeDao.getNodes(ids)).thenReturn(Arrays.asList(node));
+		when(mockNodeDao.getUserAnnotationsForCurrentVersions(ids)).thenReturn(Arrays.asList(annotationsV2));
+		when(mockNodeDao.getBenefactors(ids)).thenReturn(Collections.singletonMap(123L, 1L));
+		when(mockAclDao.getAcls(Collections.singleton(1L), ObjectType.ENTITY)).thenReturn(Collections.singletonMap(1L, acl));
+
+		//method under test
+		List<Document> results = spySearchDocumentDriver.formulateSearchDocuments(Arrays.asList("syn123", "syn456"));
+
+		assertEquals(1, results.size());
+		Document result = results.get(0);
+		assertEquals("syn123", result.getId());
+		assertEquals("wiki text", result.getFields().getDescription());
+		assertEquals(Arrays.asList("5"), result.getFields().getAcl());
+		verify(mockNodeDao, never()).getNode(anyString());
+	}
+
+	@Test
+	public void formulateSearchDocumentsEmpty(){
+		//method under test
+		assertEquals(Collections.emptyList(), spySearchDocumentDriver.formulateSearchDocuments(Collections.emptyList()));
+	}
+
 }
@@ -17,6 +17,7 @@ import static org.sagebionetworks.search.SearchConstants.FIELD_PATH;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -31,6 +32,8 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
 import org.sagebionetworks.repo.model.EntityPath;
 import org.sagebionetworks.repo.model.IdAndAlias;
 import org.sagebionetworks.repo.model.UserInfo;
@@ -49,6 +52,7 @@ import com.amazonaws.services.cloudsearchdomain.model.Hit;
 import com.amazonaws.services.cloudsearchdomain.model.Hits;
 import com.amazonaws.services.cloudsearchdomain.model.SearchRequest;
 import com.amazonaws.services.cloudsearchdomain.model.SearchResult;
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
@@ -67,9 +71,15 @@ public class SearchManagerImplTest {
 	
 	@Mock
 	CloudSearchLogger mockRecordLogger;
+	
+	@Mock
+	Consumer mockConsumer;
 
 	@Captor
 	ArgumentCaptor<Iterator<Document>> iteratorArgumentCaptor;
+	
+	@Captor
+	ArgumentCaptor<List<ProfileData>> profileDataCaptor;
 
 	private UserInfo nonAdminUserInfo;
 	private SearchRequest searchRequest;
@@ -168,26 +178,48 @@ public class SearchManagerImplTest {
 
 	@Test
 	public void testDocumentChangeMessages(){
-		Document doc2Null = null;
-
 		Document doc3 = new Document();
 		doc3.setId("syn3");
 
-		when(mockTranslator.generateSearchDocumentIfNecessary(any(ChangeMessage.class))).thenReturn(doc1, doc2Null, doc3);
-
 		List<ChangeMessage> messages = Arrays.asList(new ChangeMessage(), new ChangeMessage(), new ChangeMessage());
+		when(mockTranslator.generateSearchDocuments(messages)).thenReturn(Arrays.asList(doc1, doc3));
+
 		//method under test
 		searchManager.documentChangeMessages(messages);
 
 		verify(mockSearchDao).sendDocuments(iteratorArgumentCaptor.capture());
 		verify(mockRecordLogger).pushAllRecordsAndReset();
 
-		//check that the document iterator now only contains non-null Documents
 		Iterator<Document> generatedIterator = iteratorArgumentCaptor.getValue();
 		List<Document> documentsInIterator = Lists.newArrayList(generatedIterator);
 		assertEquals(2, documentsInIterator.size());
 		assertEquals(doc1, documentsInIterator.get(0));
 		assertEquals(doc3, documentsInIterator.get(1));
+		// build throughput is reported.
+		verify(mockConsumer).addProfileData(profileDataCaptor.capture());
+		List<ProfileData> metrics = profileDataCaptor.getValue();
+		assertEquals(3, metrics.size());
+		assertEquals(SearchManagerImpl.METRIC_DOCUMENTS_BUILT, metrics.get(0).getName());
+		assertEquals(2.0, metrics.get(0).getValue(), 0.0);
+	}
+
+	@Test
+	public void testCreateBuildMetrics(){
+		Date now = new Date();
+		// call under test
+		List<ProfileData> metrics = SearchManagerImpl.createBuildMetrics(50, 2000, now);
+		assertEquals(3, metrics.size());
+		assertEquals(SearchManagerImpl.METRIC_DOCUMENTS_BUILT, metrics.get(0).getName());
+		assertEquals(50.0, metrics.get(0).getValue(), 0.0);
+		assertEquals(StandardUnit.Count.name(), metrics.get(0).getUnit());
+		assertEquals(SearchManagerImpl.METRIC_DOCUMENT_BUILD_TIME, metrics.get(1).getName());
+		assertEquals(2000.0, metrics.get(1).getValue(), 0.0);
+		assertEquals(StandardUnit.Milliseconds.name(), metrics.get(1).getUnit());
+		assertEquals(SearchManagerImpl.METRIC_DOCUMENT_BUILD_RATE, metrics.get(2).getName());
+		assertEquals(25.0, metrics.get(2).getValue(), 0.0);
+		assertEquals(StandardUnit.CountSecond.name(), metrics.get(2).getUnit());
+		assertEquals(SearchManagerImpl.class.getName(), metrics.get(2).getNamespace());
+		assertEquals(now, metrics.get(2).getTimestamp());
 	}
 	
 	@Test
@@ -0,0 +1,91 @@
+package org.sagebionetworks.repo.manager.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.table.query.ParseException;
+import org.sagebionetworks.table.query.util.QuerySpecificationCache;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class QuerySpecificationCacheMetricPublisherTest {
+
+	@Mock
+	private Consumer mockConsumer;
+	@Mock
+	private Clock mockClock;
+	@Mock
+	private StackConfiguration mockStackConfig;
+	@InjectMocks
+	private QuerySpecificationCacheMetricPublisher publisher = new QuerySpecificationCacheMetricPublisher("Repository");
+	@Captor
+	private ArgumentCaptor<List<ProfileData>> profileDataCaptor;
+
+	private QuerySpecificationCache queryCache;
+
+	@BeforeEach
+	public void before() {
+		when(mockStackConfig.getStackInstance()).thenReturn("instance1");
+		queryCache = new QuerySpecificationCache(10);
+		publisher.queryCache = queryCache;
+	}
+
+	@Test
+	public void testOnTimerFired() throws ParseException {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L, 2000L);
+		// one miss and three hits
+		for (int i = 0; i < 4; i++) {
+			queryCache.parseQuery("select * from syn123");
+		}
+		publisher.onTimerFired();
+		// one miss and one hit
+		queryCache.parseQuery("select * from syn123");
+		queryCache.parseQuery("select * from syn456");
+		// call under test
+		publisher.onTimerFired();
+		verify(mockConsumer, times(2)).addProfileData(profileDataCaptor.capture());
+		List<ProfileData> first = profileDataCaptor.getAllValues().get(0);
+		assertEquals(3, first.size());
+		assertMetric(first.get(0), QuerySpecificationCacheMetricPublisher.METRIC_HIT_RATE, 75.0, "Percent");
+		assertMetric(first.get(1), QuerySpecificationCacheMetricPublisher.METRIC_REQUESTS, 4.0, "Count");
+		assertMetric(first.get(2), QuerySpecificationCacheMetricPublisher.METRIC_SIZE, 1.0, "Count");
+		assertEquals(new Date(1000L), first.get(0).getTimestamp());
+		// the second period only includes the queries parsed since the first.
+		List<ProfileData> second = profileDataCaptor.getAllValues().get(1);
+		assertMetric(second.get(0), QuerySpecificationCacheMetricPublisher.METRIC_HIT_RATE, 50.0, "Percent");
+		assertMetric(second.get(1), QuerySpecificationCacheMetricPublisher.METRIC_REQUESTS, 2.0, "Count");
+		assertMetric(second.get(2), QuerySpecificationCacheMetricPublisher.METRIC_SIZE, 2.0, "Count");
+		assertEquals(new Date(2000L), second.get(0).getTimestamp());
+	}
+
+	@Test
+	public void testCreateMetricsWithNoRequests() {
+		// call under test
+		List<ProfileData> metrics = publisher.createMetrics(0L, 0L, 0, new Date(1000L));
+		assertMetric(metrics.get(0), QuerySpecificationCacheMetricPublisher.METRIC_HIT_RATE, 0.0, "Percent");
+		assertMetric(metrics.get(1), QuerySpecificationCacheMetricPublisher.METRIC_REQUESTS, 0.0, "Count");
+	}
+
+	private void assertMetric(ProfileData metric, String name, double value, String unit) {
+		assertEquals("Repository-Query-Cache-instance1", metric.getNamespace());
+		assertEquals(name, metric.getName());
+		assertEquals(value, metric.getValue().doubleValue());
+		assertEquals(unit, metric.getUnit());
+	}
+}
@@ -411,7 +411,7 @@ public class TableEntityManagerTest {
 		assertEquals(rowCount, fileHandes.size());
 		verify(mockTruthDao).reserveIdsInRange(tableId, new Long(rowCount-1));
 		// row level conflict test
-		verify(mockTruthDao).listRowSetsKeysForTableGreaterThanVersion(tableId, 0L);
+		verify(mockTruthDao).listRowChangesThatMightContainRowIds(eq(tableId), eq(0L), any(Set.class));
 		// save the row set
 		verify(mockTruthDao).appendRowSetToTable(""+user.getId(), tableId, range.getEtag(), range.getVersionNumber(), models, sparseChangeSet.writeToDto(), transactionId, /* hasFileRefs */ true);
 		verify(mockStatisticsCollector, times(1)).collectEvents(any(List.class));
@@ -1490,7 +1490,7 @@ public class TableEntityManagerTest {
 		TableRowChange change = new TableRowChange();
 		change.setKeyNew("someKey");
 		change.setChangeType(TableChangeType.ROW);
-		when(mockTruthDao.listRowSetsKeysForTableGreaterThanVersion(tableId, etagVersion)).thenReturn(Lists.newArrayList(change));
+		when(mockTruthDao.listRowChangesThatMightContainRowIds(tableId, etagVersion, Sets.newHashSet(0L, 1L))).thenReturn(Lists.newArrayList(change));
 		SparseChangeSetDto conflictUpdate = new SparseChangeSetDto();
 		SparseRowDto conflictRow = new SparseRowDto();
 		conflictRow.setRowId(0L);
@@ -1519,7 +1519,7 @@ public class TableEntityManagerTest {
 			assertTrue(e.getMessage().startsWith(""));
 		}
 		// The etag version should be used to list the values
-		verify(mockTruthDao).listRowSetsKeysForTableGreaterThanVersion(tableId, etagVersion);
+		verify(mockTruthDao).listRowChangesThatMightContainRowIds(tableId, etagVersion, Sets.newHashSet(0L, 1L));
 	}
 	
 	
@@ -1542,7 +1542,7 @@ public class TableEntityManagerTest {
 		
 		manager.checkForRowLevelConflict(tableId, changeSet);
 		// All versions greater than two should be scanned
-		verify(mockTruthDao).listRowSetsKeysForTableGreaterThanVersion(tableId, 2L);
+		verify(mockTruthDao).listRowChangesThatMightContainRowIds(tableId, 2L, Sets.newHashSet(0L, 1L));
 	}
 	
 	@Test
@@ -1567,7 +1567,7 @@ public class TableEntityManagerTest {
 		
 		manager.checkForRowLevelConflict(tableId, changeSet);
 		// The etag version should be used to list the values
-		verify(mockTruthDao).listRowSetsKeysForTableGreaterThanVersion(tableId, etagVersion);
+		verify(mockTruthDao).listRowChangesThatMightContainRowIds(tableId, etagVersion, Sets.newHashSet(0L, 1L));
 	}
 	
 	@Test
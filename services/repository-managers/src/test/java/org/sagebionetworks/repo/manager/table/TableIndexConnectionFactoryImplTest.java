@@ -1,15 +1,25 @@
 package org.sagebionetworks.repo.manager.table;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProviderFactory;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.table.cluster.ConnectionFactory;
@@ -32,6 +42,12 @@ public class TableIndexConnectionFactoryImplTest {
 	private ObjectFieldModelResolverFactory mockObjectFieldModelResolverFactory;
 	@Mock
 	private RowSearchProcessor mockSearchProcessor;
+	@Mock
+	private ExecutorService mockExecutorService;
+	@Mock
+	private StackConfiguration mockStackConfig;
+	@Mock
+	private Consumer mockConsumer;
 	
 	@InjectMocks
 	private TableIndexConnectionFactoryImpl indexFactory;
@@ -53,6 +69,7 @@ public class TableIndexConnectionFactoryImplTest {
 	@Test
 	public void testConnectToTableIndexHappy(){
 		when(mockDaoConnectionFactory.getConnection(tableId)).thenReturn(mockTableIndexDAO);
+		when(mockStackConfig.getTableIndexReplayPrefetchCount()).thenReturn(8);
 		TableIndexManager manager = indexFactory.connectToTableIndex(tableId);
 		assertNotNull(manager);
 	}
@@ -69,8 +86,39 @@ public class TableIndexConnectionFactoryImplTest {
 	@Test
 	public void testGetFirstConnection(){
 		when(mockDaoConnectionFactory.getFirstConnection()).thenReturn(mockTableIndexDAO);
+		when(mockStackConfig.getTableIndexReplayPrefetchCount()).thenReturn(8);
 		TableIndexManager manager = indexFactory.connectToFirstIndex();
 		assertNotNull(manager);
 	}
+	
+	@Test
+	public void testConnectToAllIndices(){
+		when(mockDaoConnectionFactory.getAllConnections()).thenReturn(Arrays.asList(mockTableIndexDAO, mockTableIndexDAO));
+		when(mockStackConfig.getTableIndexReplayPrefetchCount()).thenReturn(8);
+		List<TableIndexManager> managers = indexFactory.connectToAllIndices();
+		assertEquals(2, managers.size());
+	}
+	
+	@Test
+	public void testConnectToRebalanceTarget(){
+		when(mockDaoConnectionFactory.getRebalanceConnection(tableId)).thenReturn(Optional.of(mockTableIndexDAO));
+		when(mockStackConfig.getTableIndexReplayPrefetchCount()).thenReturn(8);
+		Optional<TableIndexManager> manager = indexFactory.connectToRebalanceTarget(tableId);
+		assertTrue(manager.isPresent());
+	}
+	
+	@Test
+	public void testConnectToRebalanceTargetNotMoving(){
+		when(mockDaoConnectionFactory.getRebalanceConnection(tableId)).thenReturn(Optional.empty());
+		Optional<TableIndexManager> manager = indexFactory.connectToRebalanceTarget(tableId);
+		assertFalse(manager.isPresent());
+	}
+	
+	@Test
+	public void testConnectToRebalanceTargetWithNullId(){
+		assertThrows(IllegalArgumentException.class, () -> {
+			indexFactory.connectToRebalanceTarget(null);
+		});
+	}
 
 }
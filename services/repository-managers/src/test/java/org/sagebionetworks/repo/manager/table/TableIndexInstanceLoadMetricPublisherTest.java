@@ -0,0 +1,82 @@
+package org.sagebionetworks.repo.manager.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.table.cluster.ConnectionFactory;
+import org.sagebionetworks.table.cluster.InstanceLoad;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class TableIndexInstanceLoadMetricPublisherTest {
+
+	@Mock
+	private ConnectionFactory mockConnectionFactory;
+	@Mock
+	private Consumer mockConsumer;
+	@Mock
+	private Clock mockClock;
+	@Mock
+	private StackConfiguration mockStackConfig;
+	@InjectMocks
+	private TableIndexInstanceLoadMetricPublisher publisher = new TableIndexInstanceLoadMetricPublisher("Workers");
+	@Captor
+	private ArgumentCaptor<List<ProfileData>> profileDataCaptor;
+
+	@BeforeEach
+	public void before() {
+		when(mockStackConfig.getStackInstance()).thenReturn("instance1");
+	}
+
+	@Test
+	public void testOnTimerFired() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L, 2000L);
+		when(mockConnectionFactory.getInstanceLoads()).thenReturn(
+				Arrays.asList(new InstanceLoad("db-0", "tables", true, 10L, 2, 3),
+						new InstanceLoad("db-1", "tables", false, 4L, 0, 1)),
+				Arrays.asList(new InstanceLoad("db-0", "tables", true, 25L, 1, 4),
+						new InstanceLoad("db-1", "tables", false, 4L, 0, 1)));
+		publisher.onTimerFired();
+		// call under test
+		publisher.onTimerFired();
+		verify(mockConsumer, times(2)).addProfileData(profileDataCaptor.capture());
+		List<ProfileData> first = profileDataCaptor.getAllValues().get(0);
+		assertEquals(6, first.size());
+		assertMetric(first.get(0), "db-0/tables", TableIndexInstanceLoadMetricPublisher.METRIC_CONNECTION_REQUESTS, 10.0);
+		assertMetric(first.get(1), "db-0/tables", TableIndexInstanceLoadMetricPublisher.METRIC_ACTIVE_CONNECTIONS, 2.0);
+		assertMetric(first.get(2), "db-0/tables", TableIndexInstanceLoadMetricPublisher.METRIC_IDLE_CONNECTIONS, 3.0);
+		assertMetric(first.get(3), "db-1/tables", TableIndexInstanceLoadMetricPublisher.METRIC_CONNECTION_REQUESTS, 4.0);
+		assertEquals(new Date(1000L), first.get(0).getTimestamp());
+		// the second period only includes the requests since the first.
+		List<ProfileData> second = profileDataCaptor.getAllValues().get(1);
+		assertMetric(second.get(0), "db-0/tables", TableIndexInstanceLoadMetricPublisher.METRIC_CONNECTION_REQUESTS, 15.0);
+		assertMetric(second.get(1), "db-0/tables", TableIndexInstanceLoadMetricPublisher.METRIC_ACTIVE_CONNECTIONS, 1.0);
+		assertMetric(second.get(3), "db-1/tables", TableIndexInstanceLoadMetricPublisher.METRIC_CONNECTION_REQUESTS, 0.0);
+		assertEquals(new Date(2000L), second.get(0).getTimestamp());
+	}
+
+	private void assertMetric(ProfileData metric, String instance, String name, double value) {
+		assertEquals("Workers-Table-Cluster-instance1", metric.getNamespace());
+		assertEquals(instance, metric.getDimension().get(TableIndexInstanceLoadMetricPublisher.DIMENSION_INSTANCE));
+		assertEquals(name, metric.getName());
+		assertEquals(value, metric.getValue().doubleValue());
+		assertEquals("Count", metric.getUnit());
+	}
+}
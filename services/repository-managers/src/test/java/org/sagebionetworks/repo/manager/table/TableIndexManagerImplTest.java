@@ -31,6 +31,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -46,6 +47,7 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
+import org.sagebionetworks.cloudwatch.Consumer;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.common.util.progress.ProgressingCallable;
 import org.sagebionetworks.repo.manager.table.change.ListColumnIndexTableChange;
@@ -104,10 +106,14 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
 
 @ExtendWith(MockitoExtension.class)
 public class TableIndexManagerImplTest {
 
+	@Mock
+	private Consumer mockConsumer;
+
 	@Mock
 	private TableIndexDAO mockIndexDao;
 	@Mock
@@ -539,6 +545,16 @@ public class TableIndexManagerImplTest {
 	public void testDeleteTableIndex() {
 		manager.deleteTableIndex(tableId);
 		verify(mockIndexDao).deleteTable(tableId);
+		verify(mockIndexDao).clearPendingViewDeltas(tableId.getId());
+	}
+	
+	@Test
+	public void testDeleteTableIndexWithVersion() {
+		tableId = IdAndVersion.parse("syn123.1");
+		manager.deleteTableIndex(tableId);
+		verify(mockIndexDao).deleteTable(tableId);
+		// the changes queued for the view belong to the latest version.
+		verify(mockIndexDao, never()).clearPendingViewDeltas(any());
 	}
 
 	@Test
@@ -1384,6 +1400,76 @@ public class TableIndexManagerImplTest {
 				anyString(), anyLong(), anyLong());
 	}
 
+	@Test
+	public void testBuildIndexToChangeNumberPipelined() throws Exception {
+		manager = new TableIndexManagerImpl(mockIndexDao, mockManagerSupport, mockMetadataProviderFactory,
+				mockObjectFieldModelResolverFactory, mockSearchProcessor, MoreExecutors.newDirectExecutorService(), 4, mockConsumer);
+		setupExecuteInWriteTransaction();
+		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(tableId)).thenReturn(-1L);
+		when(mockManagerSupport.getTableSchema(tableId)).thenReturn(schema);
+		List<TableChangeMetaData> list = Lists.newArrayList(setupMockRowChange(0L), setupMockRowChange(1L),
+				setupMockColumnChange(2L), setupMockRowChange(3L));
+		long targetChangeNumber = 2L;
+		String resetToken = "resetToken";
+		// call under test
+		String lastEtag = manager.buildIndexToLatestChange(tableId, list.iterator(), targetChangeNumber, resetToken);
+		assertEquals("etag-2", lastEtag);
+		// the two row changes are coalesced and applied as one.
+		verify(mockManagerSupport, never()).attemptToUpdateTableProgress(tableId, resetToken, "Applying change: 0", 0L, 2L);
+		verify(mockManagerSupport).attemptToUpdateTableProgress(tableId, resetToken, "Applying change: 1", 1L, 2L);
+		verify(mockManagerSupport).attemptToUpdateTableProgress(tableId, resetToken, "Applying change: 2", 2L, 2L);
+		verify(mockIndexDao, times(2)).createOrUpdateOrDeleteRows(any(IdAndVersion.class), any(Grouping.class));
+		verify(mockIndexDao).applyFileHandleIdsToTable(tableId, Sets.newHashSet(2L, 6L));
+		verify(mockIndexDao, never()).setMaxCurrentCompleteVersionForTable(tableId, 0L);
+		verify(mockIndexDao).setMaxCurrentCompleteVersionForTable(tableId, 1L);
+		// column changes should be applied
+		boolean alterTemp = false;
+		verify(mockIndexDao).alterTableAsNeeded(tableId, columnChanges, alterTemp);
+		verify(mockIndexDao).setMaxCurrentCompleteVersionForTable(tableId, 2L);
+		// changes past the target are not applied.
+		verify(mockIndexDao, never()).setMaxCurrentCompleteVersionForTable(tableId, 3L);
+		verify(mockIndexDao).optimizeTableIndices(anyList(), any(IdAndVersion.class), anyInt());
+		verify(mockConsumer).addProfileData(anyList());
+	}
+	
+	@Test
+	public void testBuildIndexToChangeNumberPipelinedWithAppliedChanges() throws Exception {
+		manager = new TableIndexManagerImpl(mockIndexDao, mockManagerSupport, mockMetadataProviderFactory,
+				mockObjectFieldModelResolverFactory, mockSearchProcessor, MoreExecutors.newDirectExecutorService(), 4, mockConsumer);
+		setupExecuteInWriteTransaction();
+		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(tableId)).thenReturn(0L);
+		when(mockManagerSupport.getTableSchema(tableId)).thenReturn(schema);
+		List<TableChangeMetaData> list = Lists.newArrayList(setupMockRowChange(0L), setupMockRowChange(1L));
+		long targetChangeNumber = 1L;
+		String resetToken = "resetToken";
+		// call under test
+		String lastEtag = manager.buildIndexToLatestChange(tableId, list.iterator(), targetChangeNumber, resetToken);
+		assertEquals("etag-1", lastEtag);
+		verify(mockManagerSupport).attemptToUpdateTableProgress(tableId, resetToken, "Applying change: 1", 1L, 1L);
+		verify(mockManagerSupport, times(1)).attemptToUpdateTableProgress(any(IdAndVersion.class), anyString(),
+				anyString(), anyLong(), anyLong());
+		verify(mockIndexDao, times(2)).createOrUpdateOrDeleteRows(any(IdAndVersion.class), any(Grouping.class));
+		verify(mockIndexDao).setMaxCurrentCompleteVersionForTable(tableId, 1L);
+	}
+	
+	@Test
+	public void testBuildIndexToChangeNumberPipelinedNoWorkNeeded() throws Exception {
+		manager = new TableIndexManagerImpl(mockIndexDao, mockManagerSupport, mockMetadataProviderFactory,
+				mockObjectFieldModelResolverFactory, mockSearchProcessor, MoreExecutors.newDirectExecutorService(), 4, mockConsumer);
+		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(tableId)).thenReturn(1L);
+		when(mockManagerSupport.getTableSchema(tableId)).thenReturn(schema);
+		List<TableChangeMetaData> list = setupMockChanges();
+		long targetChangeNumber = 1L;
+		String resetToken = "resetToken";
+		// call under test
+		String lastEtag = manager.buildIndexToLatestChange(tableId, list.iterator(), targetChangeNumber, resetToken);
+		assertEquals(null, lastEtag);
+		verify(mockManagerSupport, never()).attemptToUpdateTableProgress(any(IdAndVersion.class), anyString(),
+				anyString(), anyLong(), anyLong());
+		verify(mockIndexDao, never()).createOrUpdateOrDeleteRows(any(IdAndVersion.class), any(Grouping.class));
+		verifyZeroInteractions(mockConsumer);
+	}
+
 	@Test
 	public void testBuildIndexToChangeNumberWithExclusiveLockNoWorkNeeded() throws Exception {
 		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(tableId)).thenReturn(1L);
@@ -2536,6 +2622,73 @@ public class TableIndexManagerImplTest {
 		assertTrue(expectedExpires >= expires);
 	}
 	
+	@Test
+	public void testGetParentIds() {
+		ReplicationType type = ReplicationType.ENTITY;
+		Set<Long> objectIds = Sets.newHashSet(1L, 2L);
+		Map<Long, Long> parentIds = Collections.singletonMap(1L, 11L);
+		when(mockIndexDao.getParentIds(any(), any())).thenReturn(parentIds);
+		// call under test
+		assertEquals(parentIds, manager.getParentIds(type, objectIds));
+		verify(mockIndexDao).getParentIds(type, objectIds);
+	}
+	
+	@Test
+	public void testAddPendingViewDeltas() {
+		Set<Long> objectIds = Sets.newHashSet(1L, 2L);
+		// call under test
+		manager.addPendingViewDeltas(tableId, objectIds);
+		verify(mockIndexDao).addPendingViewDeltas(tableId.getId(), objectIds);
+	}
+	
+	@Test
+	public void testAddPendingViewDeltasWithEmpty() {
+		// call under test
+		manager.addPendingViewDeltas(tableId, Collections.emptySet());
+		verify(mockIndexDao, never()).addPendingViewDeltas(any(), any());
+	}
+	
+	@Test
+	public void testGetPendingViewDeltas() {
+		Set<Long> objectIds = Sets.newHashSet(1L, 2L);
+		when(mockIndexDao.getPendingViewDeltas(any(), anyLong())).thenReturn(objectIds);
+		// call under test
+		assertEquals(objectIds, manager.getPendingViewDeltas(tableId, 10L));
+		verify(mockIndexDao).getPendingViewDeltas(tableId.getId(), 10L);
+	}
+	
+	@Test
+	public void testRemovePendingViewDeltas() {
+		Set<Long> objectIds = Sets.newHashSet(1L, 2L);
+		// call under test
+		manager.removePendingViewDeltas(tableId, objectIds);
+		verify(mockIndexDao).removePendingViewDeltas(tableId.getId(), objectIds);
+	}
+	
+	@Test
+	public void testRemovePendingViewDeltasWithEmpty() {
+		// call under test
+		manager.removePendingViewDeltas(tableId, Collections.emptySet());
+		verify(mockIndexDao, never()).removePendingViewDeltas(any(), any());
+	}
+	
+	@Test
+	public void testIsViewDeltaScanExpired() {
+		when(mockIndexDao.isViewDeltaScanExpired(any())).thenReturn(true);
+		// call under test
+		assertTrue(manager.isViewDeltaScanExpired(tableId));
+		verify(mockIndexDao).isViewDeltaScanExpired(tableId.getId());
+	}
+	
+	@Test
+	public void testResetViewDeltaScanExpiration() {
+		long start = System.currentTimeMillis();
+		// call under test
+		manager.resetViewDeltaScanExpiration(tableId);
+		verify(mockIndexDao).setViewDeltaScanExpiration(eq(tableId.getId()), longCaptor.capture());
+		assertTrue(longCaptor.getValue() >= start + TableIndexManagerImpl.VIEW_DELTA_SCAN_FREQUENCY_MS);
+	}
+	
 	@Test
 	public void testCreateTableIfDoesNotExists() {
 		
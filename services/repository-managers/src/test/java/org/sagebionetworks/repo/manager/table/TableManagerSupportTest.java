@@ -19,6 +19,7 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -76,6 +77,7 @@ import org.sagebionetworks.table.cluster.ConnectionFactory;
 import org.sagebionetworks.table.cluster.TableIndexDAO;
 import org.sagebionetworks.table.cluster.utils.TableModelUtils;
 import org.sagebionetworks.util.TimeoutUtils;
+import org.springframework.jdbc.BadSqlGrammarException;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -904,4 +906,32 @@ public class TableManagerSupportTest {
 		verify(managerSpy).getTableType(idAndVersion);
 		verifyZeroInteractions(mockTransactionalMessenger);
 	}
+
+	@Test
+	public void testGetAccessibleBenefactorsForView() {
+		Set<Long> viewBenefactors = Sets.newHashSet(1L, 2L, 3L);
+		Set<Long> accessible = Sets.newHashSet(2L);
+		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
+		when(mockTableIndexDAO.getDistinctLongValues(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenReturn(viewBenefactors);
+		when(mockViewScopeDao.getViewScopeType(idAndVersion.getId())).thenReturn(scopeType);
+		when(mockMetadataIndexProviderFactory.getMetadataIndexProvider(scopeType.getObjectType())).thenReturn(mockMetadataIndexProvider);
+		when(mockMetadataIndexProvider.getBenefactorObjectType()).thenReturn(ObjectType.ENTITY);
+		when(mockAuthorizationManager.getAccessibleBenefactors(userInfo, ObjectType.ENTITY, viewBenefactors)).thenReturn(accessible);
+		// call under test
+		Set<Long> result = manager.getAccessibleBenefactors(userInfo, idAndVersion);
+		assertEquals(accessible, result);
+	}
+
+	@Test
+	public void testGetAccessibleBenefactorsForViewNoIndex() {
+		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
+		when(mockTableIndexDAO.getDistinctLongValues(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenThrow(BadSqlGrammarException.class);
+		when(mockViewScopeDao.getViewScopeType(idAndVersion.getId())).thenReturn(scopeType);
+		when(mockMetadataIndexProviderFactory.getMetadataIndexProvider(scopeType.getObjectType())).thenReturn(mockMetadataIndexProvider);
+		when(mockMetadataIndexProvider.getBenefactorObjectType()).thenReturn(ObjectType.ENTITY);
+		when(mockAuthorizationManager.getAccessibleBenefactors(userInfo, ObjectType.ENTITY, Collections.emptySet())).thenReturn(Collections.emptySet());
+		// call under test
+		Set<Long> result = manager.getAccessibleBenefactors(userInfo, idAndVersion);
+		assertTrue(result.isEmpty());
+	}
 }
@@ -2,6 +2,7 @@ package org.sagebionetworks.repo.manager.table;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -37,6 +38,7 @@ import org.sagebionetworks.repo.model.table.FacetType;
 import org.sagebionetworks.repo.model.table.Query;
 import org.sagebionetworks.repo.model.table.QueryBundleRequest;
 import org.sagebionetworks.repo.model.table.QueryOptions;
+import org.sagebionetworks.repo.model.table.QueryPartTiming;
 import org.sagebionetworks.repo.model.table.QueryResult;
 import org.sagebionetworks.repo.model.table.QueryResultBundle;
 import org.sagebionetworks.repo.model.table.Row;
@@ -650,6 +652,80 @@ public class TableQueryManagerImplTest {
 		assertEquals("Invalid use of TEXT_MATCHES. Full text search is not enabled on table syn123.", message);
 
 	}
+
+	@Test
+	public void testQueryAsStreamAfterAuthorizationConcurrentParts() throws Exception {
+		manager.setConcurrentQueryPartsEnabled(true);
+		manager.setQueryPartExecutor(MoreExecutors.newDirectExecutorService());
+		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
+		setupQueryCallback();
+		Long count = 201L;
+		when(mockTableIndexDAO.countQuery(anyString(), anyMap())).thenReturn(count);
+		when(mockTableIndexDAO.query(isNull(), any(SqlQuery.class))).thenReturn(enumerationFacetResults, rangeFacetResults, enumerationFacetResults);
+		List<FacetColumnRequest> facetRequestList = new ArrayList<>();
+		facetRequestList.add(facetColumnRequest);
+		expectedRangeResult.setSelectedMin(facetColumnRequest.getMin());
+		expectedRangeResult.setSelectedMax(facetColumnRequest.getMax());
+
+		RowHandler rowHandler = new SinglePageRowHandler();
+		queryOptions = new QueryOptions().withRunQuery(true).withRunCount(true).withReturnFacets(true);
+		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models, user.getId())
+		.selectedFacets(facetRequestList)
+		.build();
+		// call under test
+		QueryResultBundle results = manager.queryAsStreamAfterAuthorization(mockProgressCallbackVoid, query, rowHandler, queryOptions);
+		assertNotNull(results);
+		assertNotNull(results.getQueryResult());
+		assertNotNull(results.getQueryResult().getQueryResults());
+		assertEquals(count, results.getQueryCount());
+		assertEquals(3, results.getFacets().size());
+		assertEquals(expectedRangeResult, results.getFacets().get(1));
+		assertNull(results.getSumFileSizes());
+		// one timing for each part in the order they were gathered.
+		List<QueryPartTiming> timings = results.getPartTimings();
+		assertNotNull(timings);
+		assertEquals(5, timings.size());
+		assertEquals(TableQueryManagerImpl.PART_QUERY, timings.get(0).getPartName());
+		assertEquals(TableQueryManagerImpl.PART_COUNT, timings.get(1).getPartName());
+		for (QueryPartTiming timing : timings.subList(2, 5)) {
+			assertTrue(timing.getPartName().startsWith(TableQueryManagerImpl.PART_FACET_PREFIX));
+			assertNotNull(timing.getElapsedMS());
+		}
+	}
+	
+	@Test
+	public void testQueryAsStreamAfterAuthorizationConcurrentPartsFailure() throws Exception {
+		manager.setConcurrentQueryPartsEnabled(true);
+		manager.setQueryPartExecutor(MoreExecutors.newDirectExecutorService());
+		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
+		setupQueryCallback();
+		IllegalStateException exception = new IllegalStateException("count failed");
+		when(mockTableIndexDAO.countQuery(anyString(), anyMap())).thenThrow(exception);
+
+		RowHandler rowHandler = new SinglePageRowHandler();
+		queryOptions = new QueryOptions().withRunQuery(true).withRunCount(true);
+		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models, user.getId()).build();
+		IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> {
+			// call under test
+			manager.queryAsStreamAfterAuthorization(mockProgressCallbackVoid, query, rowHandler, queryOptions);
+		});
+		assertEquals(exception, thrown);
+	}
+	
+	@Test
+	public void testQueryAsStreamAfterAuthorizationSequentialPartsNoTimings() throws Exception {
+		manager.setConcurrentQueryPartsEnabled(false);
+		manager.setQueryPartExecutor(MoreExecutors.newDirectExecutorService());
+		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
+		setupQueryCallback();
+
+		RowHandler rowHandler = new SinglePageRowHandler();
+		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models, user.getId()).build();
+		// call under test
+		QueryResultBundle results = manager.queryAsStreamAfterAuthorization(mockProgressCallbackVoid, query, rowHandler, queryOptions);
+		assertNotNull(results.getQueryResult());
+		assertNull(results.getPartTimings());
+	}
 	
 	
 	@Test
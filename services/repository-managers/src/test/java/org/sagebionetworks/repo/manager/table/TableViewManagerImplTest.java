@@ -30,6 +30,7 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -127,6 +128,8 @@ public class TableViewManagerImplTest {
 	@Mock
 	private TableIndexManager mockIndexManager;
 	@Mock
+	private TableIndexManager mockRebalanceIndexManager;
+	@Mock
 	private FileProvider mockFileProvider;
 	@Mock
 	private SynapseS3Client mockS3Client;
@@ -771,6 +774,66 @@ public class TableViewManagerImplTest {
 		verify(mockIndexManager).deleteTableIndex(idAndVersion);
 	}
 	
+	@Test
+	public void testDeleteViewIndexWithRebalance() {
+		when(mockConnectionFactory.connectToTableIndex(idAndVersion)).thenReturn(mockIndexManager);
+		when(mockConnectionFactory.connectToRebalanceTarget(idAndVersion)).thenReturn(Optional.of(mockRebalanceIndexManager));
+		// call under test
+		manager.deleteViewIndex(idAndVersion);
+		verify(mockIndexManager).deleteTableIndex(idAndVersion);
+		verify(mockRebalanceIndexManager).deleteTableIndex(idAndVersion);
+	}
+	
+	@Test
+	public void testCopyViewToRebalanceTarget() {
+		when(mockConnectionFactory.connectToRebalanceTarget(idAndVersion)).thenReturn(Optional.of(mockRebalanceIndexManager));
+		when(mockConnectionFactory.connectToTableIndex(idAndVersion)).thenReturn(mockIndexManager);
+		when(mockIndexManager.getCurrentVersionOfIndex(idAndVersion)).thenReturn(987L);
+		when(mockRebalanceIndexManager.getCurrentVersionOfIndex(idAndVersion)).thenReturn(-1L);
+		when(mockTableManagerSupport.getSchemaMD5Hex(idAndVersion)).thenReturn("startMD5");
+		when(mockColumnModelManager.getColumnModelsForObject(idAndVersion)).thenReturn(viewSchema);
+		when(mockTableManagerSupport.getViewScopeType(idAndVersion)).thenReturn(scopeType);
+		when(mockRebalanceIndexManager.populateViewFromEntityReplication(idAndVersion.getId(), scopeType, viewSchema)).thenReturn(999L);
+		
+		// call under test
+		manager.copyViewToRebalanceTarget(idAndVersion);
+		
+		verify(mockRebalanceIndexManager).deleteTableIndex(idAndVersion);
+		boolean isTableView = true;
+		verify(mockRebalanceIndexManager).setIndexSchema(idAndVersion, isTableView, viewSchema);
+		verify(mockRebalanceIndexManager).populateViewFromEntityReplication(idAndVersion.getId(), scopeType, viewSchema);
+		verify(mockRebalanceIndexManager).optimizeTableIndices(idAndVersion);
+		verify(mockRebalanceIndexManager).populateListColumnIndexTables(idAndVersion, viewSchema);
+		// the copy takes the version of the current index.
+		verify(mockRebalanceIndexManager).setIndexVersionAndSchemaMD5Hex(idAndVersion, 987L, "startMD5");
+		verify(mockIndexManager, never()).deleteTableIndex(any(IdAndVersion.class));
+		verify(mockTableManagerSupport, never()).startTableProcessing(any(IdAndVersion.class));
+	}
+	
+	@Test
+	public void testCopyViewToRebalanceTargetAlreadyCopied() {
+		when(mockConnectionFactory.connectToRebalanceTarget(idAndVersion)).thenReturn(Optional.of(mockRebalanceIndexManager));
+		when(mockConnectionFactory.connectToTableIndex(idAndVersion)).thenReturn(mockIndexManager);
+		when(mockIndexManager.getCurrentVersionOfIndex(idAndVersion)).thenReturn(987L);
+		when(mockRebalanceIndexManager.getCurrentVersionOfIndex(idAndVersion)).thenReturn(987L);
+		
+		// call under test
+		manager.copyViewToRebalanceTarget(idAndVersion);
+		
+		verify(mockRebalanceIndexManager, never()).deleteTableIndex(any(IdAndVersion.class));
+		verify(mockRebalanceIndexManager, never()).setIndexVersionAndSchemaMD5Hex(any(IdAndVersion.class), any(), any());
+	}
+	
+	@Test
+	public void testCopyViewToRebalanceTargetNotMoving() {
+		when(mockConnectionFactory.connectToRebalanceTarget(idAndVersion)).thenReturn(Optional.empty());
+		
+		// call under test
+		manager.copyViewToRebalanceTarget(idAndVersion);
+		
+		verify(mockConnectionFactory, never()).connectToTableIndex(any(IdAndVersion.class));
+	}
+	
 	@Test
 	public void testCreateOrUpdateViewIndex_AvailableNoVersion() throws Exception {
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
@@ -1221,6 +1284,7 @@ public class TableViewManagerImplTest {
 		verify(mockTableManagerSupport).tryRunWithTableExclusiveLock(eq(mockProgressCallback), eq(expectedKey),
 				any());
 		verify(managerSpy).applyChangesToAvailableViewOrSnapshot(idAndVersion);
+		verify(managerSpy).copyViewToRebalanceTarget(idAndVersion);
 	}
 	
 	/**
@@ -1309,6 +1373,9 @@ public class TableViewManagerImplTest {
 		manager.applyChangesToAvailableView(idAndVersion);
 		verify(mockTableManagerSupport).getTableStatusState(idAndVersion);
 		verify(mockIndexManager, never()).updateViewRowsInTransaction(any(), any(), any(), any());
+		// the full scan is not due.
+		verify(mockIndexManager).isViewDeltaScanExpired(idAndVersion);
+		verify(mockIndexManager, never()).getOutOfDateRowsForView(any(), any(), anyLong());
 		verifyNoMoreInteractions(mockTableManagerSupport);
 	}
 	
@@ -1321,6 +1388,7 @@ public class TableViewManagerImplTest {
 
 		Set<Long> rowsToUpdate = Sets.newHashSet(101L, 102L);
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
+		when(mockIndexManager.isViewDeltaScanExpired(idAndVersion)).thenReturn(true);
 		when(mockIndexManager.getOutOfDateRowsForView(any(), any(), anyLong())).thenReturn(rowsToUpdate);
 
 		HierarchicaFilter filter = new HierarchicaFilter(ReplicationType.ENTITY, Sets.newHashSet(SubType.file),
@@ -1334,6 +1402,7 @@ public class TableViewManagerImplTest {
 		verify(mockTableManagerSupport, never()).attemptToSetTableStatusToFailed(any(IdAndVersion.class),
 				any(Exception.class));
 		verify(mockTableManagerSupport).updateChangedOnIfAvailable(idAndVersion);
+		verify(mockIndexManager).resetViewDeltaScanExpiration(idAndVersion);
 	}
 	
 	@Test
@@ -1371,6 +1440,85 @@ public class TableViewManagerImplTest {
 	}
 	
 	
+	@Test
+	public void testApplyChangesToAvailableViewHoldingLock_PendingChanges() {
+		when(mockConnectionFactory.connectToTableIndex(idAndVersion)).thenReturn(mockIndexManager);
+		when(mockTableManagerSupport.getViewScopeType(idAndVersion)).thenReturn(scopeType);
+		when(mockTableManagerSupport.getTableSchema(idAndVersion)).thenReturn(viewSchema);
+		when(mockMetadataIndexProviderFactory.getMetadataIndexProvider(any())).thenReturn(mockMetadataIndexProvider);
+
+		Set<Long> pageOne = Sets.newHashSet(101L, 102L);
+		Set<Long> pageTwo = Sets.newHashSet(103L);
+		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
+		when(mockIndexManager.getPendingViewDeltas(any(), anyLong())).thenReturn(pageOne, pageTwo,
+				Collections.emptySet());
+
+		HierarchicaFilter filter = new HierarchicaFilter(ReplicationType.ENTITY, Sets.newHashSet(SubType.file),
+				allContainersInScope);
+		when(mockMetadataIndexProvider.getViewFilter(any())).thenReturn(filter);
+
+		// call under test
+		manager.applyChangesToAvailableView(idAndVersion);
+		verify(mockIndexManager, times(3)).getPendingViewDeltas(idAndVersion, TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION);
+		verify(mockIndexManager).removePendingViewDeltas(idAndVersion, pageOne);
+		verify(mockIndexManager).updateViewRowsInTransaction(idAndVersion, scopeType, viewSchema,
+				filter.newBuilder().addLimitObjectids(pageOne).build());
+		verify(mockIndexManager).removePendingViewDeltas(idAndVersion, pageTwo);
+		verify(mockIndexManager).updateViewRowsInTransaction(idAndVersion, scopeType, viewSchema,
+				filter.newBuilder().addLimitObjectids(pageTwo).build());
+		verify(mockTableManagerSupport, times(2)).updateChangedOnIfAvailable(idAndVersion);
+		// the full scan is not due.
+		verify(mockIndexManager, never()).getOutOfDateRowsForView(any(), any(), anyLong());
+		verify(mockIndexManager, never()).resetViewDeltaScanExpiration(any());
+	}
+	
+	@Test
+	public void testApplyChangesToAvailableViewHoldingLock_PendingChangesNotAvailable() {
+		when(mockConnectionFactory.connectToTableIndex(idAndVersion)).thenReturn(mockIndexManager);
+		when(mockTableManagerSupport.getViewScopeType(idAndVersion)).thenReturn(scopeType);
+		when(mockTableManagerSupport.getTableSchema(idAndVersion)).thenReturn(viewSchema);
+		when(mockMetadataIndexProviderFactory.getMetadataIndexProvider(any())).thenReturn(mockMetadataIndexProvider);
+
+		Set<Long> pageOne = Sets.newHashSet(101L, 102L);
+		// Status starts as available but changes to processing which stop the updates.
+		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE),
+				Optional.of(TableState.PROCESSING));
+		when(mockIndexManager.getPendingViewDeltas(any(), anyLong())).thenReturn(pageOne);
+
+		HierarchicaFilter filter = new HierarchicaFilter(ReplicationType.ENTITY, Sets.newHashSet(SubType.file),
+				allContainersInScope);
+		when(mockMetadataIndexProvider.getViewFilter(any())).thenReturn(filter);
+
+		// call under test
+		manager.applyChangesToAvailableView(idAndVersion);
+		verify(mockIndexManager).getPendingViewDeltas(idAndVersion, TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION);
+		verify(mockIndexManager).updateViewRowsInTransaction(idAndVersion, scopeType, viewSchema,
+				filter.newBuilder().addLimitObjectids(pageOne).build());
+		verify(mockIndexManager, never()).isViewDeltaScanExpired(any());
+		verify(mockIndexManager, never()).getOutOfDateRowsForView(any(), any(), anyLong());
+	}
+	
+	@Test
+	public void testApplyChangesToAvailableViewHoldingLock_Dataset() {
+		scopeType = new ViewScopeType(ViewObjectType.DATASET, ViewTypeMask.File.getMask());
+		when(mockConnectionFactory.connectToTableIndex(idAndVersion)).thenReturn(mockIndexManager);
+		when(mockTableManagerSupport.getViewScopeType(idAndVersion)).thenReturn(scopeType);
+		when(mockTableManagerSupport.getTableSchema(idAndVersion)).thenReturn(viewSchema);
+		when(mockMetadataIndexProviderFactory.getMetadataIndexProvider(any())).thenReturn(mockMetadataIndexProvider);
+		HierarchicaFilter filter = new HierarchicaFilter(ReplicationType.ENTITY, Sets.newHashSet(SubType.file),
+				allContainersInScope);
+		when(mockMetadataIndexProvider.getViewFilter(any())).thenReturn(filter);
+		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
+
+		// call under test
+		manager.applyChangesToAvailableView(idAndVersion);
+		// changes are not queued for datasets so they are always scanned.
+		verify(mockIndexManager, never()).getPendingViewDeltas(any(), anyLong());
+		verify(mockIndexManager, never()).isViewDeltaScanExpired(any());
+		verify(mockIndexManager).getOutOfDateRowsForView(idAndVersion, filter, TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION);
+		verify(mockIndexManager).resetViewDeltaScanExpiration(idAndVersion);
+	}
+	
 	@Test
 	public void testapplyChangesToAvailableViewWithNull() {
 		idAndVersion = null;
@@ -1405,6 +1553,7 @@ public class TableViewManagerImplTest {
 		Set<Long> pageOne = Sets.newHashSet(101L, 102L);
 		Set<Long> pageTwo = Sets.newHashSet(103L, 104L);
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
+		when(mockIndexManager.isViewDeltaScanExpired(idAndVersion)).thenReturn(true);
 		when(mockIndexManager.getOutOfDateRowsForView(any(), any(), anyLong())).thenReturn(pageOne, pageTwo);
 
 		HierarchicaFilter filter = new HierarchicaFilter(ReplicationType.ENTITY, Sets.newHashSet(SubType.file),
@@ -1433,7 +1582,8 @@ public class TableViewManagerImplTest {
 		Set<Long> pageTwo = Sets.newHashSet(103L, 104L);
 		// Status starts as available but changes to processing which stop the updates.
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE),
-				Optional.of(TableState.PROCESSING));
+				Optional.of(TableState.AVAILABLE), Optional.of(TableState.PROCESSING));
+		when(mockIndexManager.isViewDeltaScanExpired(idAndVersion)).thenReturn(true);
 		when(mockIndexManager.getOutOfDateRowsForView(any(), any(), anyLong())).thenReturn(pageOne, pageTwo);
 
 		HierarchicaFilter filter = new HierarchicaFilter(ReplicationType.ENTITY, Sets.newHashSet(SubType.file),
@@ -1465,6 +1615,7 @@ public class TableViewManagerImplTest {
 		Set<Long> pageOne = Sets.newHashSet(101L,102L);
 		Set<Long> pageTwo = Sets.newHashSet(102L,103L);
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
+		when(mockIndexManager.isViewDeltaScanExpired(idAndVersion)).thenReturn(true);
 		when(mockIndexManager.getOutOfDateRowsForView(any(), any(), anyLong())).thenReturn(pageOne, pageTwo);
 		
 		HierarchicaFilter filter = new HierarchicaFilter(ReplicationType.ENTITY, Sets.newHashSet(SubType.file),
@@ -1481,6 +1632,7 @@ public class TableViewManagerImplTest {
 		verify(mockTableManagerSupport, never()).attemptToSetTableStatusToFailed(any(IdAndVersion.class),
 				any(Exception.class));
 		verify(mockTableManagerSupport, times(1)).updateChangedOnIfAvailable(idAndVersion);
+		verify(mockIndexManager, never()).resetViewDeltaScanExpiration(any());
 	}
 	
 	/**
@@ -1495,6 +1647,7 @@ public class TableViewManagerImplTest {
 		
 		Set<Long> pageOne = Sets.newHashSet(101L,102L);
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
+		when(mockIndexManager.isViewDeltaScanExpired(idAndVersion)).thenReturn(true);
 		when(mockIndexManager.getOutOfDateRowsForView(any(), any(), anyLong())).thenReturn(pageOne);
 		
 		HierarchicaFilter filter = new HierarchicaFilter(ReplicationType.ENTITY, Sets.newHashSet(SubType.file),
@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.manager.table.metadata.providers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -23,9 +24,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sagebionetworks.repo.model.IdAndChecksum;
 import org.sagebionetworks.repo.model.IdAndEtag;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.NodeDAO;
 import org.sagebionetworks.repo.model.table.ObjectDataDTO;
 import org.sagebionetworks.repo.model.table.SubType;
+import org.sagebionetworks.repo.web.NotFoundException;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -115,6 +118,52 @@ public class EntityObjectProviderTest {
 		verify(mockNodeDao).getIdsAndChecksumsForObjects(eq(salt), eq(scope), eq(pageSize), eq(pageSize));
 	}
 
+	@Test
+	public void testGetIdRangeChecksumsForChildren() {
+		Long salt = 123L;
+		Set<Long> parentIds = Sets.newHashSet(1L);
+		Set<SubType> subTypes = Sets.newHashSet(SubType.file);
+		List<IdRangeChecksum> buckets = ImmutableList.of(new IdRangeChecksum().withBucket(1L));
+		when(mockNodeDao.getIdRangeChecksumsForChildren(any(), any(), any(), any(), any(), any())).thenReturn(buckets);
+		// call under test
+		assertEquals(buckets, provider.getIdRangeChecksumsForChildren(salt, parentIds, subTypes, 0L, 100L, 10L));
+		verify(mockNodeDao).getIdRangeChecksumsForChildren(salt, parentIds, subTypes, 0L, 100L, 10L);
+	}
+
+	@Test
+	public void testGetIdRangeChecksumsForObjects() {
+		Long salt = 123L;
+		Set<Long> objectIds = Sets.newHashSet(1L);
+		List<IdRangeChecksum> buckets = ImmutableList.of(new IdRangeChecksum().withBucket(1L));
+		when(mockNodeDao.getIdRangeChecksumsForObjects(any(), any(), any(), any(), any())).thenReturn(buckets);
+		// call under test
+		assertEquals(buckets, provider.getIdRangeChecksumsForObjects(salt, objectIds, 0L, 100L, 10L));
+		verify(mockNodeDao).getIdRangeChecksumsForObjects(salt, objectIds, 0L, 100L, 10L);
+	}
+
+	@Test
+	public void testGetScopeContainerIds() {
+		when(mockNodeDao.getEntityPathIds(any())).thenReturn(ImmutableList.of(1L, 2L, 3L));
+		// call under test
+		assertEquals(ImmutableSet.of(1L, 2L, 3L), provider.getScopeContainerIds(3L));
+		verify(mockNodeDao).getEntityPathIds("syn3");
+	}
+
+	@Test
+	public void testGetScopeContainerIdsWithDeletedParent() {
+		when(mockNodeDao.getEntityPathIds(any())).thenThrow(new NotFoundException("gone"));
+		// call under test
+		assertEquals(ImmutableSet.of(3L), provider.getScopeContainerIds(3L));
+	}
+
+	@Test
+	public void testGetScopeContainerIdsWithNullParent() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			provider.getScopeContainerIds(null);
+		});
+	}
+
 	/**
 	 * Helper to create a list of List<IdAndChecksum> of the given size.
 	 * 
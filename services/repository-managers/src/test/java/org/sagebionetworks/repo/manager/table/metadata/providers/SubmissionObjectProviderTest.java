@@ -24,6 +24,7 @@ import org.sagebionetworks.evaluation.dao.EvaluationDAO;
 import org.sagebionetworks.evaluation.dao.SubmissionDAO;
 import org.sagebionetworks.repo.model.IdAndChecksum;
 import org.sagebionetworks.repo.model.IdAndEtag;
+import org.sagebionetworks.repo.model.IdRangeChecksum;
 import org.sagebionetworks.repo.model.table.ObjectDataDTO;
 import org.sagebionetworks.repo.model.table.SubType;
 
@@ -100,6 +101,34 @@ public class SubmissionObjectProviderTest {
 		assertEquals("All submission views are hierarchical", message);
 	}
 	
+	@Test
+	public void testGetIdRangeChecksumsForChildren() {
+		Long salt = 123L;
+		Set<Long> parentIds = Sets.newHashSet(1L);
+		Set<SubType> subTypes = Sets.newHashSet(SubType.submission);
+		List<IdRangeChecksum> buckets = Collections.singletonList(new IdRangeChecksum().withBucket(1L));
+		when(mockSubmissionDao.getIdRangeChecksums(any(), any(), any(), any(), any())).thenReturn(buckets);
+		// call under test
+		assertEquals(buckets, provider.getIdRangeChecksumsForChildren(salt, parentIds, subTypes, 0L, 100L, 10L));
+		verify(mockSubmissionDao).getIdRangeChecksums(salt, parentIds, 0L, 100L, 10L);
+	}
+	
+	@Test
+	public void testGetIdRangeChecksumsForObjects() {
+		Long salt = 123L;
+		Set<Long> ids = Sets.newHashSet(1L, 2L, 3L);
+		String message = assertThrows(UnsupportedOperationException.class, ()->{
+			provider.getIdRangeChecksumsForObjects(salt, ids, 0L, 100L, 10L);
+		}).getMessage();
+		assertEquals("All submission views are hierarchical", message);
+	}
+	
+	@Test
+	public void testGetScopeContainerIds() {
+		// call under test
+		assertEquals(Collections.singleton(3L), provider.getScopeContainerIds(3L));
+	}
+
 	/**
 	 * Helper to create a list of List<IdAndChecksum> of the given size.
 	 * 
@@ -0,0 +1,42 @@
+package org.sagebionetworks.repo.web.filter;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.sagebionetworks.repo.manager.oauth.VerifiedTokenContext;
+
+/**
+ * Opens a {@link VerifiedTokenContext} for each request, so that a bearer
+ * token is only verified once no matter how many filters, interceptors and
+ * managers read it. Must be mapped before any filter that reads the token.
+ *
+ */
+public class VerifiedTokenContextFilter implements Filter {
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain filterChain)
+			throws IOException, ServletException {
+		VerifiedTokenContext.begin();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			VerifiedTokenContext.end();
+		}
+	}
+
+	@Override
+	public void init(FilterConfig config) throws ServletException {
+		// Nothing to do
+	}
+
+	@Override
+	public void destroy() {
+		// Nothing to do
+	}
+}
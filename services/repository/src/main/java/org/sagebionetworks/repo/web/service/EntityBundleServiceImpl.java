@@ -2,12 +2,21 @@ package org.sagebionetworks.repo.web.service;
 
 import static org.apache.commons.lang3.BooleanUtils.isTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.dataaccess.AccessRequirementManager;
+import org.sagebionetworks.repo.manager.entity.EntityAuthorizationManager;
+import org.sagebionetworks.repo.manager.entity.EntityStateCache;
 import org.sagebionetworks.repo.model.ACLInheritanceException;
 import org.sagebionetworks.repo.model.AccessControlList;
 import org.sagebionetworks.repo.model.ConflictingUpdateException;
@@ -27,6 +36,7 @@ import org.sagebionetworks.repo.model.RestrictableObjectType;
 import org.sagebionetworks.repo.model.RestrictionInformationRequest;
 import org.sagebionetworks.repo.model.RestrictionInformationResponse;
 import org.sagebionetworks.repo.model.UnauthorizedException;
+import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.VersionableEntity;
 import org.sagebionetworks.repo.model.annotation.v2.Annotations;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2Translator;
@@ -40,6 +50,7 @@ import org.sagebionetworks.repo.queryparser.ParseException;
 import org.sagebionetworks.repo.transactions.WriteTransaction;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 public class EntityBundleServiceImpl implements EntityBundleService {
 	
@@ -52,15 +63,43 @@ public class EntityBundleServiceImpl implements EntityBundleService {
 	@Autowired
 	AccessRequirementManager accessRequirementManager;
 
+	@Autowired
+	EntityAuthorizationManager entityAuthorizationManager;
+
+	/**
+	 * Injected via spring
+	 */
+	boolean concurrentPartsEnabled;
+	ExecutorService bundlePartExecutor;
+
 	public EntityBundleServiceImpl() {}
 
 	/**
 	 * Direct constructor (for testing purposes)
 	 * 
 	 * @param serviceProvider
+	 * @param userManager
+	 * @param entityAuthorizationManager
 	 */
-	public EntityBundleServiceImpl(ServiceProvider serviceProvider) {
+	public EntityBundleServiceImpl(ServiceProvider serviceProvider, UserManager userManager,
+			EntityAuthorizationManager entityAuthorizationManager) {
 		this.serviceProvider = serviceProvider;
+		this.userManager = userManager;
+		this.entityAuthorizationManager = entityAuthorizationManager;
+	}
+
+	/**
+	 * When true, the independent parts of a bundle are fetched concurrently
+	 * using the bundle part executor.
+	 * 
+	 * @param concurrentPartsEnabled
+	 */
+	public void setConcurrentPartsEnabled(boolean concurrentPartsEnabled) {
+		this.concurrentPartsEnabled = concurrentPartsEnabled;
+	}
+
+	public void setBundlePartExecutor(ExecutorService bundlePartExecutor) {
+		this.bundlePartExecutor = bundlePartExecutor;
 	}
 
 	@Override
@@ -76,85 +115,145 @@ public class EntityBundleServiceImpl implements EntityBundleService {
 			UnauthorizedException, ACLInheritanceException, ParseException {
 
 		EntityBundle eb = new EntityBundle();
-		Entity entity = null;
 		IdAndVersion idAndVersion = KeyFactory.idAndVersion(entityId, versionNumber);
+		BundlePartRunner parts = createPartRunner(userId, idAndVersion);
+		Future<Entity> entityPart = null;
 		if (isTrue(request.getIncludeEntity()) || isTrue(request.getIncludeFileName())) {
-			if(versionNumber == null) {
-				entity = serviceProvider.getEntityService().getEntity(userId, entityId);
-			} else {
-				entity = serviceProvider.getEntityService().getEntityForVersion(userId, entityId, versionNumber);
-			}
-			if (isTrue(request.getIncludeEntity())) {
-				eb.setEntity(entity);
-				eb.setEntityType(EntityTypeUtils.getEntityTypeForClass(entity.getClass()));
-			}
+			entityPart = parts.submit(() -> {
+				if(versionNumber == null) {
+					return serviceProvider.getEntityService().getEntity(userId, entityId);
+				} else {
+					return serviceProvider.getEntityService().getEntityForVersion(userId, entityId, versionNumber);
+				}
+			});
 		}
 		if (isTrue(request.getIncludeAnnotations())) {
-			if(versionNumber == null) {
-				eb.setAnnotations(serviceProvider.getEntityService().getEntityAnnotations(userId, entityId));
-			} else {
-				eb.setAnnotations(serviceProvider.getEntityService().getEntityAnnotationsForVersion(userId, entityId, versionNumber));
-			}
+			parts.submit(() -> {
+				if(versionNumber == null) {
+					eb.setAnnotations(serviceProvider.getEntityService().getEntityAnnotations(userId, entityId));
+				} else {
+					eb.setAnnotations(serviceProvider.getEntityService().getEntityAnnotationsForVersion(userId, entityId, versionNumber));
+				}
+				return null;
+			});
 		}
 		if (isTrue(request.getIncludePermissions())) {
-			eb.setPermissions(serviceProvider.getEntityService().getUserEntityPermissions(userId, entityId));
+			parts.submit(() -> {
+				eb.setPermissions(serviceProvider.getEntityService().getUserEntityPermissions(userId, entityId));
+				return null;
+			});
 		}
 		if (isTrue(request.getIncludeEntityPath())) {
-			List<EntityHeader> path = serviceProvider.getEntityService().getEntityPath(userId, entityId);
-			EntityPath ep = new EntityPath();
-			ep.setPath(path);
-			eb.setPath(ep);
+			parts.submit(() -> {
+				List<EntityHeader> path = serviceProvider.getEntityService().getEntityPath(userId, entityId);
+				EntityPath ep = new EntityPath();
+				ep.setPath(path);
+				eb.setPath(ep);
+				return null;
+			});
 		}
 		if (isTrue(request.getIncludeHasChildren())) {
-			eb.setHasChildren(serviceProvider.getEntityService().doesEntityHaveChildren(userId, entityId));
+			parts.submit(() -> {
+				eb.setHasChildren(serviceProvider.getEntityService().doesEntityHaveChildren(userId, entityId));
+				return null;
+			});
 		}
 		if (isTrue(request.getIncludeAccessControlList())) {
-			try {
-				eb.setAccessControlList(serviceProvider.getEntityService().getEntityACL(entityId, userId));
-			} catch (ACLInheritanceException e) {
-				// ACL is inherited from benefactor. Set ACL to null.
-				eb.setAccessControlList(null);
-			}
+			parts.submit(() -> {
+				try {
+					eb.setAccessControlList(serviceProvider.getEntityService().getEntityACL(entityId, userId));
+				} catch (ACLInheritanceException e) {
+					// ACL is inherited from benefactor. Set ACL to null.
+					eb.setAccessControlList(null);
+				}
+				return null;
+			});
 		}
 		if (isTrue(request.getIncludeBenefactorACL())) {
-			try {
-				// If this entity is its own benefactor then we just get the ACL
-				eb.setBenefactorAcl(serviceProvider.getEntityService().getEntityACL(entityId, userId));
-			} catch (ACLInheritanceException e) {
-				// ACL is inherited from benefactor. So get the benefactor's ACL
-				eb.setBenefactorAcl(serviceProvider.getEntityService().getEntityACL(e.getBenefactorId(), userId));
-			}
+			parts.submit(() -> {
+				try {
+					// If this entity is its own benefactor then we just get the ACL
+					eb.setBenefactorAcl(serviceProvider.getEntityService().getEntityACL(entityId, userId));
+				} catch (ACLInheritanceException e) {
+					// ACL is inherited from benefactor. So get the benefactor's ACL
+					eb.setBenefactorAcl(serviceProvider.getEntityService().getEntityACL(e.getBenefactorId(), userId));
+				}
+				return null;
+			});
 		}
-		List<FileHandle> fileHandles = null;
+		Future<List<FileHandle>> fileHandlesPart = null;
 		if (isTrue(request.getIncludeFileHandles()) || isTrue(request.getIncludeFileName())) {
-			try {
-				if (versionNumber == null) {
-					fileHandles = serviceProvider.getEntityService().
-							getEntityFileHandlesForCurrentVersion(userId, entityId).getList();
-				} else{
-					fileHandles = serviceProvider.getEntityService().
-							getEntityFileHandlesForVersion(userId, entityId, versionNumber).getList();
+			fileHandlesPart = parts.submit(() -> {
+				try {
+					if (versionNumber == null) {
+						return serviceProvider.getEntityService().
+								getEntityFileHandlesForCurrentVersion(userId, entityId).getList();
+					} else{
+						return serviceProvider.getEntityService().
+								getEntityFileHandlesForVersion(userId, entityId, versionNumber).getList();
+					}
+				}catch (NotFoundException | UnauthorizedException e) {
+					// If there are no file handle(s) or if the user does not have permission to see the handles then set them to be an empty list.
+					return new LinkedList<FileHandle>();
 				}
-			}catch (NotFoundException | UnauthorizedException e) {
-				// If there are no file handle(s) or if the user does not have permission to see the handles then set them to be an empty list.
-				fileHandles = new LinkedList<FileHandle>();
-			}
-			if (isTrue(request.getIncludeFileHandles())) {
-				eb.setFileHandles(fileHandles);
-			}
+			});
 		}
 		if (isTrue(request.getIncludeTableBundle())) {
-			// This mask only has meaning for implementations of tables.
-			eb.setTableBundle(serviceProvider.getTableServices().getTableBundle(idAndVersion));
+			parts.submit(() -> {
+				// This mask only has meaning for implementations of tables.
+				eb.setTableBundle(serviceProvider.getTableServices().getTableBundle(idAndVersion));
+				return null;
+			});
 		}
 		if(isTrue(request.getIncludeRootWikiId())){
-			try {
-				WikiPageKey rootKey = serviceProvider.getWikiService().getRootWikiKey(userId, entityId, ObjectType.ENTITY);
-				eb.setRootWikiId(rootKey.getWikiPageId());
-			} catch (NotFoundException e) {
-				// does not exist
-				eb.setRootWikiId(null);
-			}
+			parts.submit(() -> {
+				try {
+					WikiPageKey rootKey = serviceProvider.getWikiService().getRootWikiKey(userId, entityId, ObjectType.ENTITY);
+					eb.setRootWikiId(rootKey.getWikiPageId());
+				} catch (NotFoundException e) {
+					// does not exist
+					eb.setRootWikiId(null);
+				}
+				return null;
+			});
+		}
+		if (isTrue(request.getIncludeThreadCount())) {
+			parts.submit(() -> {
+				EntityIdList entityIdList = new EntityIdList();
+				entityIdList.setIdList(Arrays.asList(entityId));
+				EntityThreadCounts result = serviceProvider.getDiscussionService().getThreadCounts(userId, entityIdList );
+				if (result.getList().isEmpty()) {
+					eb.setThreadCount(0L);
+				} else if (result.getList().size() == 1) {
+					eb.setThreadCount(result.getList().get(0).getCount());
+				} else {
+					throw new IllegalStateException("Unexpected EntityThreadCount list size: "+result.getList().size());
+				}
+				return null;
+			});
+		}
+		if (isTrue(request.getIncludeRestrictionInformation())) {
+			parts.submit(() -> {
+				RestrictionInformationRequest restrictionInfoRequest = new RestrictionInformationRequest();
+				restrictionInfoRequest.setObjectId(entityId);
+				restrictionInfoRequest.setRestrictableObjectType(RestrictableObjectType.ENTITY);
+				RestrictionInformationResponse restrictionInfo = serviceProvider.getDataAccessService().getRestrictionInformation(userId, restrictionInfoRequest);
+				eb.setRestrictionInformation(restrictionInfo);
+				return null;
+			});
+		}
+		// Wait for all of the independent parts.
+		parts.awaitAll();
+
+		// The remaining parts depend on the entity and its file handles.
+		Entity entity = entityPart == null ? null : parts.get(entityPart);
+		if (isTrue(request.getIncludeEntity())) {
+			eb.setEntity(entity);
+			eb.setEntityType(EntityTypeUtils.getEntityTypeForClass(entity.getClass()));
+		}
+		List<FileHandle> fileHandles = fileHandlesPart == null ? null : parts.get(fileHandlesPart);
+		if (isTrue(request.getIncludeFileHandles())) {
+			eb.setFileHandles(fileHandles);
 		}
 		if(isTrue(request.getIncludeDOIAssociation()) ){
 			try {
@@ -185,26 +284,109 @@ public class EntityBundleServiceImpl implements EntityBundleService {
 				eb.setFileName(fileEntity.getFileNameOverride());
 			}
 		}
-		if (isTrue(request.getIncludeThreadCount())) {
-			EntityIdList entityIdList = new EntityIdList();
-			entityIdList.setIdList(Arrays.asList(entityId));
-			EntityThreadCounts result = serviceProvider.getDiscussionService().getThreadCounts(userId, entityIdList );
-			if (result.getList().isEmpty()) {
-				eb.setThreadCount(0L);
-			} else if (result.getList().size() == 1) {
-				eb.setThreadCount(result.getList().get(0).getCount());
+		return eb;
+	}
+
+	/**
+	 * Create the runner for the parts of a single bundle. Every part shares the
+	 * caller's permission state for the entity, which is loaded once up front.
+	 * The parts are run concurrently unless concurrency is disabled or the
+	 * bundle is built within a transaction, since the other threads could not
+	 * see the uncommitted changes of the transaction.
+	 * 
+	 * @param userId
+	 * @param idAndVersion
+	 * @return
+	 */
+	BundlePartRunner createPartRunner(Long userId, IdAndVersion idAndVersion) {
+		UserInfo userInfo = userManager.getUserInfo(userId);
+		EntityStateCache cache = entityAuthorizationManager.createEntityStateCache(userInfo,
+				Collections.singletonList(idAndVersion.getId()));
+		boolean runConcurrently = concurrentPartsEnabled && bundlePartExecutor != null
+				&& !TransactionSynchronizationManager.isActualTransactionActive();
+		return new BundlePartRunner(runConcurrently ? bundlePartExecutor : null, cache);
+	}
+
+	/**
+	 * Runs the parts of a single bundle, bound to the shared entity state cache.
+	 * Without an executor each part is run on the calling thread as it is
+	 * submitted.
+	 */
+	static class BundlePartRunner {
+
+		private final ExecutorService executor;
+		private final EntityStateCache cache;
+		private final List<Future<?>> parts;
+
+		BundlePartRunner(ExecutorService executor, EntityStateCache cache) {
+			this.executor = executor;
+			this.cache = cache;
+			this.parts = new ArrayList<>();
+		}
+
+		<T> Future<T> submit(Callable<T> part) throws ACLInheritanceException, ParseException {
+			Callable<T> boundPart = cache.bind(part);
+			Future<T> future;
+			if (executor == null) {
+				try {
+					future = CompletableFuture.completedFuture(boundPart.call());
+				} catch (Exception e) {
+					throw rethrow(e);
+				}
 			} else {
-				throw new IllegalStateException("Unexpected EntityThreadCount list size: "+result.getList().size());
+				future = executor.submit(boundPart);
 			}
+			parts.add(future);
+			return future;
 		}
-		if (isTrue(request.getIncludeRestrictionInformation())) {
-			RestrictionInformationRequest restrictionInfoRequest = new RestrictionInformationRequest();
-			restrictionInfoRequest.setObjectId(entityId);
-			restrictionInfoRequest.setRestrictableObjectType(RestrictableObjectType.ENTITY);
-			RestrictionInformationResponse restrictionInfo = serviceProvider.getDataAccessService().getRestrictionInformation(userId, restrictionInfoRequest);
-			eb.setRestrictionInformation(restrictionInfo);
+
+		/**
+		 * Wait for the given part to complete. If the part failed, all other parts
+		 * are cancelled and the part's exception is thrown.
+		 * 
+		 * @param part
+		 * @return
+		 */
+		<T> T get(Future<T> part) throws ACLInheritanceException, ParseException {
+			try {
+				return part.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancelAll();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				cancelAll();
+				throw rethrow(e.getCause());
+			}
+		}
+
+		/**
+		 * Wait for all of the submitted parts to complete.
+		 */
+		void awaitAll() throws ACLInheritanceException, ParseException {
+			for (Future<?> part : parts) {
+				get(part);
+			}
+		}
+
+		private void cancelAll() {
+			for (Future<?> part : parts) {
+				part.cancel(true);
+			}
+		}
+
+		private static RuntimeException rethrow(Throwable cause) throws ACLInheritanceException, ParseException {
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else if (cause instanceof ACLInheritanceException) {
+				throw (ACLInheritanceException) cause;
+			} else if (cause instanceof ParseException) {
+				throw (ParseException) cause;
+			}
+			throw new IllegalStateException(cause);
 		}
-		return eb;
 	}
 
 
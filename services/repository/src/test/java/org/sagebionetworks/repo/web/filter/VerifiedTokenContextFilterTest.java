@@ -0,0 +1,67 @@
+package org.sagebionetworks.repo.web.filter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.manager.oauth.VerifiedTokenContext;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwt;
+
+@ExtendWith(MockitoExtension.class)
+public class VerifiedTokenContextFilterTest {
+
+	@Mock
+	private HttpServletRequest mockRequest;
+	@Mock
+	private HttpServletResponse mockResponse;
+	@Mock
+	private FilterChain mockFilterChain;
+
+	@Test
+	public void testDoFilter() throws Exception {
+		@SuppressWarnings("unchecked")
+		Jwt<JwsHeader, Claims> jwt = mock(Jwt.class);
+		doAnswer(invocation -> {
+			// the context is active for the rest of the chain.
+			VerifiedTokenContext.put("token", jwt);
+			assertSame(jwt, VerifiedTokenContext.get("token").get());
+			return null;
+		}).when(mockFilterChain).doFilter(mockRequest, mockResponse);
+		// call under test
+		new VerifiedTokenContextFilter().doFilter(mockRequest, mockResponse, mockFilterChain);
+		// the context ends with the request.
+		assertFalse(VerifiedTokenContext.get("token").isPresent());
+	}
+
+	@Test
+	public void testDoFilterWithException() throws Exception {
+		@SuppressWarnings("unchecked")
+		Jwt<JwsHeader, Claims> jwt = mock(Jwt.class);
+		doAnswer(invocation -> {
+			VerifiedTokenContext.put("token", jwt);
+			assertTrue(VerifiedTokenContext.get("token").isPresent());
+			throw new ServletException("failed");
+		}).when(mockFilterChain).doFilter(any(), any());
+		assertThrows(ServletException.class, () -> {
+			// call under test
+			new VerifiedTokenContextFilter().doFilter(mockRequest, mockResponse, mockFilterChain);
+		});
+		assertFalse(VerifiedTokenContext.get("token").isPresent());
+	}
+}
@@ -24,12 +24,17 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.manager.UserManager;
+import org.sagebionetworks.repo.manager.entity.EntityAuthorizationManager;
+import org.sagebionetworks.repo.manager.entity.EntityStateCache;
 import org.sagebionetworks.repo.model.ACCESS_TYPE;
 import org.sagebionetworks.repo.model.ACLInheritanceException;
 import org.sagebionetworks.repo.model.AccessControlList;
@@ -43,6 +48,7 @@ import org.sagebionetworks.repo.model.ResourceAccess;
 import org.sagebionetworks.repo.model.RestrictableObjectType;
 import org.sagebionetworks.repo.model.RestrictionInformationRequest;
 import org.sagebionetworks.repo.model.RestrictionInformationResponse;
+import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.annotation.v2.Annotations;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2TestUtils;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2Translator;
@@ -87,6 +93,12 @@ public class EntityBundleServiceImplTest {
 	private DiscussionService mockDiscussionService;
 	@Mock
 	private DataAccessService mockDataAccessService;
+	@Mock
+	private UserManager mockUserManager;
+	@Mock
+	private EntityAuthorizationManager mockEntityAuthorizationManager;
+	
+	private UserInfo userInfo;
 	
 	private Project project;
 	private Folder study;
@@ -112,7 +124,11 @@ public class EntityBundleServiceImplTest {
 	
 	@BeforeEach
 	public void setUp() {
-		entityBundleService = new EntityBundleServiceImpl(mockServiceProvider);
+		entityBundleService = new EntityBundleServiceImpl(mockServiceProvider, mockUserManager, mockEntityAuthorizationManager);
+		userInfo = new UserInfo(false, TEST_USER1);
+		lenient().when(mockUserManager.getUserInfo(TEST_USER1)).thenReturn(userInfo);
+		lenient().when(mockEntityAuthorizationManager.createEntityStateCache(any(), any()))
+				.thenAnswer(invocation -> new EntityStateCache(invocation.getArgument(0)));
 		mockTableService = mock(TableServices.class);
 		lenient().when(mockServiceProvider.getTableServices()).thenReturn(mockTableService);
 		lenient().when(mockServiceProvider.getWikiService()).thenReturn(mockWikiService);
@@ -470,6 +486,104 @@ public class EntityBundleServiceImplTest {
 		assertEquals(response, bundle.getRestrictionInformation());
 		verify(mockDataAccessService).getRestrictionInformation(TEST_USER1, request);
 	}
+	@Test
+	public void testGetEntityBundleSharesEntityStateCache() throws Exception {
+		String entityId = "syn123";
+		EntityBundleRequest request = new EntityBundleRequest();
+		request.setIncludeEntity(true);
+		request.setIncludePermissions(true);
+		request.setIncludeAnnotations(true);
+		List<EntityStateCache> caches = Collections.synchronizedList(new ArrayList<>());
+		when(mockEntityService.getEntity(TEST_USER1, entityId)).thenAnswer(invocation -> {
+			caches.add(EntityStateCache.getCurrent().get());
+			return study;
+		});
+		when(mockEntityService.getUserEntityPermissions(TEST_USER1, entityId)).thenAnswer(invocation -> {
+			caches.add(EntityStateCache.getCurrent().get());
+			return new UserEntityPermissions();
+		});
+		when(mockEntityService.getEntityAnnotations(TEST_USER1, entityId)).thenAnswer(invocation -> {
+			caches.add(EntityStateCache.getCurrent().get());
+			return annotationsV2;
+		});
+		// call under test
+		EntityBundle bundle = entityBundleService.getEntityBundle(TEST_USER1, entityId, request);
+		assertEquals(study, bundle.getEntity());
+		assertEquals(annotationsV2, bundle.getAnnotations());
+		assertNotNull(bundle.getPermissions());
+		// the permission state is loaded once and shared by every part.
+		verify(mockEntityAuthorizationManager).createEntityStateCache(userInfo, Collections.singletonList(123L));
+		assertEquals(3, caches.size());
+		assertEquals(1, new HashSet<>(caches).size());
+		assertTrue(caches.get(0).isForUser(userInfo));
+		// the cache is not left on the calling thread.
+		assertFalse(EntityStateCache.getCurrent().isPresent());
+	}
+	
+	@Test
+	public void testGetEntityBundleConcurrent() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			((EntityBundleServiceImpl) entityBundleService).setConcurrentPartsEnabled(true);
+			((EntityBundleServiceImpl) entityBundleService).setBundlePartExecutor(executor);
+			EntityBundleRequest request = new EntityBundleRequest();
+			request.setIncludeEntity(true);
+			request.setIncludeAnnotations(true);
+			request.setIncludeAccessControlList(true);
+			request.setIncludeFileName(true);
+			request.setIncludeFileHandles(true);
+			S3FileHandle fileHandle = new S3FileHandle();
+			fileHandle.setId("789");
+			fileHandle.setFileName("foo.txt");
+			file.setDataFileHandleId(fileHandle.getId());
+			FileHandleResults fileHandleResults = new FileHandleResults();
+			fileHandleResults.setList(Collections.singletonList(fileHandle));
+			List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+			when(mockEntityService.getEntity(TEST_USER1, FILE_ID)).thenAnswer(invocation -> {
+				threads.add(Thread.currentThread());
+				return file;
+			});
+			when(mockEntityService.getEntityAnnotations(TEST_USER1, FILE_ID)).thenReturn(annotationsV2);
+			when(mockEntityService.getEntityACL(FILE_ID, TEST_USER1)).thenThrow(new ACLInheritanceException("inherited", "syn1"));
+			when(mockEntityService.getEntityFileHandlesForCurrentVersion(TEST_USER1, FILE_ID)).thenReturn(fileHandleResults);
+			// call under test
+			EntityBundle bundle = entityBundleService.getEntityBundle(TEST_USER1, FILE_ID, request);
+			assertEquals(file, bundle.getEntity());
+			assertEquals(annotationsV2, bundle.getAnnotations());
+			assertNull(bundle.getAccessControlList());
+			assertEquals(Collections.singletonList(fileHandle), bundle.getFileHandles());
+			assertEquals("foo.txt", bundle.getFileName());
+			// the part ran on a thread of the executor.
+			assertEquals(1, threads.size());
+			assertFalse(Thread.currentThread().equals(threads.get(0)));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void testGetEntityBundleConcurrentWithFailure() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			((EntityBundleServiceImpl) entityBundleService).setConcurrentPartsEnabled(true);
+			((EntityBundleServiceImpl) entityBundleService).setBundlePartExecutor(executor);
+			String entityId = "syn123";
+			EntityBundleRequest request = new EntityBundleRequest();
+			request.setIncludeEntity(true);
+			request.setIncludeAnnotations(true);
+			NotFoundException exception = new NotFoundException("does not exist");
+			when(mockEntityService.getEntity(TEST_USER1, entityId)).thenThrow(exception);
+			lenient().when(mockEntityService.getEntityAnnotations(TEST_USER1, entityId)).thenReturn(annotationsV2);
+			NotFoundException thrown = assertThrows(NotFoundException.class, () -> {
+				// call under test
+				entityBundleService.getEntityBundle(TEST_USER1, entityId, request);
+			});
+			assertSame(exception, thrown);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
 	@Test
 	public void testRequestFromMask_individualMasks() {
 		//assert individual requests
@@ -0,0 +1,36 @@
+package org.sagebionetworks.download.worker;
+
+import java.util.List;
+
+import org.sagebionetworks.asynchronous.workers.changes.BatchChangeMessageDrivenRunner;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.repo.manager.download.DownloadListManager;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * This worker listens to entity and entity container change events and
+ * invalidates the download list snapshots that include the changed entities.
+ * Permission changes and moves are broadcast as changes to the affected
+ * containers and their children, so the snapshots of the files that a user can
+ * download are kept consistent with the ACLs.
+ *
+ */
+public class DownloadListSnapshotWorker implements BatchChangeMessageDrivenRunner {
+
+	private DownloadListManager downloadListManager;
+
+	@Autowired
+	public DownloadListSnapshotWorker(DownloadListManager downloadListManager) {
+		super();
+		this.downloadListManager = downloadListManager;
+	}
+
+	@Override
+	public void run(ProgressCallback progressCallback, List<ChangeMessage> messages)
+			throws RecoverableMessageException, Exception {
+		downloadListManager.invalidateSnapshots(messages);
+	}
+
+}
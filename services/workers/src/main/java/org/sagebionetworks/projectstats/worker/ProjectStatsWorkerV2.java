@@ -1,16 +1,20 @@
 package org.sagebionetworks.projectstats.worker;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.sagebionetworks.asynchronous.workers.changes.ChangeMessageDrivenRunner;
+import org.sagebionetworks.asynchronous.workers.changes.BatchChangeMessageDrivenRunner;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.manager.ProjectStatsManager;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.util.TimeoutUtils;
+import org.sagebionetworks.util.ValidateArgument;
 import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
 import org.springframework.beans.factory.annotation.Autowired;
 
-public class ProjectStatsWorkerV2 implements ChangeMessageDrivenRunner {
+public class ProjectStatsWorkerV2 implements BatchChangeMessageDrivenRunner {
 	
 	static private Logger log = LogManager.getLogger(ProjectStatsWorkerV2.class);
 	
@@ -26,25 +30,31 @@ public class ProjectStatsWorkerV2 implements ChangeMessageDrivenRunner {
 
 	@Override
 	public void run(ProgressCallback progressCallback,
-			ChangeMessage message) throws RecoverableMessageException,
+			List<ChangeMessage> messages) throws RecoverableMessageException,
 			Exception {
-		
-		if(message.getUserId() == null){
-			if(log.isTraceEnabled()){
-				log.trace("Ignoring change message: "+message.getChangeNumber()+" since userId is null");
+		ValidateArgument.required(messages, "messages");
+		List<ChangeMessage> changes = new ArrayList<>(messages.size());
+		for(ChangeMessage message: messages){
+			if(message.getUserId() == null){
+				if(log.isTraceEnabled()){
+					log.trace("Ignoring change message: "+message.getChangeNumber()+" since userId is null");
+				}
+				continue;
 			}
-			return;
-		}
-		// ignore all old messages.
-		if(timeoutUtils.hasExpired(MAX_MESSAGE_TIMEOUT_MS, message.getTimestamp().getTime())){
-			if(log.isTraceEnabled()){
-				log.trace("Ignoring change message: "+message.getChangeNumber()+" since it is older than: "+MAX_MESSAGE_TIMEOUT_MS+" MS");
+			// ignore all old messages.
+			if(timeoutUtils.hasExpired(MAX_MESSAGE_TIMEOUT_MS, message.getTimestamp().getTime())){
+				if(log.isTraceEnabled()){
+					log.trace("Ignoring change message: "+message.getChangeNumber()+" since it is older than: "+MAX_MESSAGE_TIMEOUT_MS+" MS");
+				}
+				continue;
 			}
+			changes.add(message);
+		}
+		if(changes.isEmpty()){
 			return;
 		}
-		
-		// manager does the worker
-		projectStatsManager.updateProjectStats(message.getUserId(), message.getObjectId(), message.getObjectType(), message.getTimestamp());
+		// manager does the work, with a single update for the entire batch.
+		projectStatsManager.updateProjectStats(changes);
 	}
 
 }
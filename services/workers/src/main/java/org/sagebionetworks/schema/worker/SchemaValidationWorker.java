@@ -1,8 +1,10 @@
 package org.sagebionetworks.schema.worker;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.sagebionetworks.asynchronous.workers.changes.BatchChangeMessageDrivenRunner;
 import org.sagebionetworks.cloudwatch.WorkerLogger;
@@ -32,14 +34,30 @@ public class SchemaValidationWorker implements BatchChangeMessageDrivenRunner {
 	public void run(ProgressCallback progressCallback, List<ChangeMessage> messages)
 			throws RecoverableMessageException, Exception {
 		ValidateArgument.required(messages, "messages");
-		messages.stream().filter(c -> validators.containsKey(c.getObjectType())).forEach(c -> {
+		Map<ObjectType, List<ChangeMessage>> messagesByType = messages.stream()
+				.filter(c -> validators.containsKey(c.getObjectType()))
+				.collect(Collectors.groupingBy(ChangeMessage::getObjectType, LinkedHashMap::new, Collectors.toList()));
+		messagesByType.forEach((type, changes) -> {
+			ObjectSchemaValidator validator = validators.get(type);
+			List<String> objectIds = new ArrayList<>(changes.size());
+			changes.forEach(c -> objectIds.add(c.getObjectId()));
 			try {
-				validators.get(c.getObjectType()).validateObject(c.getObjectId());
+				// Objects bound to the same schema are validated against a single compiled schema.
+				validator.validateObjects(objectIds);
 			} catch (Throwable e) {
-				boolean willRetry = false;
-				workerLogger.logWorkerFailure(SchemaValidationWorker.class, c, e, willRetry);
+				// validate each object on its own so only the failures are logged.
+				changes.forEach(c -> validateObject(validator, c));
 			}
 		});
 	}
+
+	private void validateObject(ObjectSchemaValidator validator, ChangeMessage c) {
+		try {
+			validator.validateObject(c.getObjectId());
+		} catch (Throwable e) {
+			boolean willRetry = false;
+			workerLogger.logWorkerFailure(SchemaValidationWorker.class, c, e, willRetry);
+		}
+	}
 	
 }
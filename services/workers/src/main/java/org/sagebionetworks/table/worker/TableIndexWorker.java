@@ -1,6 +1,7 @@
 package org.sagebionetworks.table.worker;
 
 import java.util.Iterator;
+import java.util.Optional;
 
 import org.sagebionetworks.asynchronous.workers.changes.ChangeMessageDrivenRunner;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
@@ -40,14 +41,23 @@ public class TableIndexWorker implements ChangeMessageDrivenRunner {
 				// try again later.
 				throw new RecoverableMessageException();
 			}
+			// When the table is moving to another database, its index is also built there.
+			final Optional<TableIndexManager> rebalanceManager = connectionFactory.connectToRebalanceTarget(idAndVersion);
 			if (ChangeType.DELETE.equals(message.getChangeType())) {
 				// Delete the table in the index
 				tableEntityManager.deleteTableIfDoesNotExist(tableId);
 				indexManager.deleteTableIndex(idAndVersion);
+				if (rebalanceManager.isPresent()) {
+					rebalanceManager.get().deleteTableIndex(idAndVersion);
+				}
 				return;
 			} else {
 				Iterator<TableChangeMetaData> iterator = tableEntityManager.newTableChangeIterator(tableId);
 				indexManager.buildIndexToChangeNumber(progressCallback, idAndVersion, iterator);
+				if (rebalanceManager.isPresent()) {
+					rebalanceManager.get().buildIndexToChangeNumber(progressCallback, idAndVersion,
+							tableEntityManager.newTableChangeIterator(tableId));
+				}
 			}
 		}
 	}
@@ -0,0 +1,102 @@
+package org.sagebionetworks.worker;
+
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.common.util.progress.ProgressingRunner;
+import org.sagebionetworks.evaluation.dao.EvaluationDAO;
+import org.sagebionetworks.evaluation.dao.SubmissionStatusDAO;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.dbo.rewrite.BinaryPropertyRewriteDao;
+import org.sagebionetworks.repo.model.dbo.rewrite.BinaryPropertyType;
+import org.sagebionetworks.util.Clock;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Worker that rewrites the entity property annotations, submission statuses
+ * and submission quotas that are still stored as compressed XML with the
+ * binary encoding. Each run rewrites the next few ranges of IDs of each type,
+ * each range in its own transaction, and records how far it got so the next
+ * run continues from there. Once the rewrite of a type passes the highest ID
+ * of that type there is nothing left to do since new blobs are always binary.
+ *
+ */
+public class BinaryPropertyRewriteWorker implements ProgressingRunner {
+
+	private static final Logger LOG = LogManager.getLogger(BinaryPropertyRewriteWorker.class);
+
+	/**
+	 * The number of IDs rewritten in each transaction.
+	 */
+	public static final long ID_RANGE_SIZE = 1000;
+
+	/**
+	 * The number of ranges of each type rewritten in each run.
+	 */
+	public static final int RANGES_PER_RUN = 10;
+
+	@Autowired
+	BinaryPropertyRewriteDao rewriteDao;
+	@Autowired
+	NodeDAO nodeDao;
+	@Autowired
+	SubmissionStatusDAO submissionStatusDao;
+	@Autowired
+	EvaluationDAO evaluationDao;
+	@Autowired
+	Clock clock;
+
+	@Override
+	public void run(ProgressCallback progressCallback) throws Exception {
+		for (BinaryPropertyType type : BinaryPropertyType.values()) {
+			for (int i = 0; i < RANGES_PER_RUN; i++) {
+				if (!rewriteNextRange(type)) {
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rewrite the next range of IDs of the given type.
+	 * 
+	 * @param type
+	 * @return False if every ID of the type was already rewritten.
+	 * @throws InterruptedException
+	 */
+	boolean rewriteNextRange(BinaryPropertyType type) throws InterruptedException {
+		Optional<Long> firstId = rewriteDao.findFirstId(type, rewriteDao.getNextId(type));
+		if (!firstId.isPresent()) {
+			return false;
+		}
+		long minId = firstId.get();
+		long maxId = minId + ID_RANGE_SIZE;
+		// time each call
+		long startTimeMs = clock.currentTimeMillis();
+		long count = rewriteRange(type, minId, maxId);
+		rewriteDao.setNextId(type, maxId);
+		long elapseMS = clock.currentTimeMillis() - startTimeMs;
+		if (count > 0) {
+			LOG.info("Rewrote {} {} blobs with IDs from {} to {} in {} ms", count, type, minId, maxId, elapseMS);
+		}
+		// Sleep to guarantee the rewrite does not dominate the database activity.
+		clock.sleep(2 * elapseMS);
+		return true;
+	}
+
+	long rewriteRange(BinaryPropertyType type, long minId, long maxId) {
+		switch (type) {
+		case ENTITY_PROPERTY_ANNOTATIONS:
+			return nodeDao.rewriteCompressedEntityPropertyAnnotations(minId, maxId);
+		case SUBMISSION_STATUS:
+			return submissionStatusDao.rewriteCompressedSerializedEntities(minId, maxId);
+		case SUBMISSION_QUOTA:
+			return evaluationDao.rewriteCompressedQuotas(minId, maxId);
+		default:
+			throw new IllegalArgumentException("Unknown type: " + type);
+		}
+	}
+
+}
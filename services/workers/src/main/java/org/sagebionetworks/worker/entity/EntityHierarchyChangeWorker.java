@@ -1,9 +1,20 @@
 package org.sagebionetworks.worker.entity;
 
-import java.util.HashSet;
+import static org.sagebionetworks.repo.model.dbo.entity.EntityHierarchyCheckpointDao.NO_CHILD_ID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -17,95 +28,235 @@ import org.sagebionetworks.repo.model.NodeIdAndType;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.dbo.dao.DBOChangeDAO;
 import org.sagebionetworks.repo.model.dbo.dao.NodeUtils;
+import org.sagebionetworks.repo.model.dbo.entity.EntityHierarchyCheckpointDao;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.message.ChangeType;
 import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
 import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * This worker listens to entity hierarchy change messages and then broadcasts
  * entity change events for all children of the container.
+ * <p>
+ * The children of each container are read in pages keyed by the ID of the last
+ * child, and several containers are walked at the same time. The change
+ * messages of the children are published in full batches. The progress of the
+ * walk is recorded after each batch is published, so a walk that is
+ * interrupted resumes where it stopped when the message is delivered again.
+ * The checkpoints of walks whose message can no longer be processed are purged.
  *
  */
 public class EntityHierarchyChangeWorker implements ChangeMessageDrivenRunner {
-	
+
 	static private Logger log = LogManager.getLogger(ChangeSentMessageSynchWorker.class);
-	
+
 	/**
 	 * All messages older than 5 days will be ignored.
 	 */
 	public static final long MAX_MESSAGE_AGE_MS = 1000*60*60*24*5;
-	
+
+	/**
+	 * The number of children read for each page.
+	 */
+	public static final long PAGE_SIZE = ChangeMessageUtils.MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE;
+
 	@Autowired
 	DBOChangeDAO changeDao;
 	@Autowired
 	NodeDAO nodeDao;
 	@Autowired
+	EntityHierarchyCheckpointDao checkpointDao;
+	@Autowired
 	RepositoryMessagePublisher messagePublisher;
 	@Autowired
 	Clock clock;
 
+	ExecutorService walkerPool;
+
+	/**
+	 * Injected. The pool that walks the containers of a hierarchy at the same
+	 * time.
+	 *
+	 * @param walkerPool
+	 */
+	public void setWalkerPool(ExecutorService walkerPool) {
+		this.walkerPool = walkerPool;
+	}
+
 	@Override
 	public void run(ProgressCallback progressCallback,
 			ChangeMessage message) throws RecoverableMessageException,
 			Exception {
+		long now = clock.currentTimeMillis();
+		/*
+		 * Every checkpoint is written after its message was sent, so a checkpoint
+		 * that has not been updated for the max message age belongs to a message
+		 * that would be ignored, or that expired or was dead-lettered.
+		 */
+		checkpointDao.purgeCheckpointsUpdatedBefore(new Date(now - MAX_MESSAGE_AGE_MS));
 		// how old is this message?
-		long messageAgeMS = clock.currentTimeMillis() - message.getTimestamp().getTime();
+		long messageAgeMS = now - message.getTimestamp().getTime();
 		// only process messages that are less than 5 days old.
 		if(messageAgeMS < MAX_MESSAGE_AGE_MS){
-			// only process messages 
-			recursiveBroadcastMessages(progressCallback, message.getObjectId(), message.getChangeType());
+			// only process messages
+			broadcastHierarchy(progressCallback, KeyFactory.stringToKey(message.getObjectId()),
+					message.getChangeNumber(), message.getChangeType());
 		}else{
 			log.info("Ignoring old message:  "+message.toString());
 		}
 	}
-	
+
 	/**
-	 * Broadcast a change message for each child of the given container.
-	 * This method will recurse for each child that is a project or folder.
-	 * Messages are broadcast breadth-first.
-	 * 
-	 * @throws InterruptedException 
-	 * 
+	 * Broadcast a change message for each entity in the hierarchy under the given
+	 * root container. If a walk for the same change was interrupted, the walk
+	 * resumes from its checkpoints.
+	 *
+	 * @param progressCallback
+	 * @param rootId
+	 * @param changeNumber The number of the change that triggered the walk.
+	 * @param changeType The type set on each broadcast message.
+	 * @throws InterruptedException
+	 * @throws ExecutionException
 	 */
-	public void recursiveBroadcastMessages(ProgressCallback progressCallback, String parentId, ChangeType changeType) throws InterruptedException{
-		long limit = ChangeMessageUtils.MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE;
-		long offset = 0;
-		List<NodeIdAndType> children = null;
-		List<String> containerIds = new LinkedList<String>();
-		do{
-			// Get one page of children for this parentId
-			children = nodeDao.getChildren(parentId, limit, offset);
-			if(!children.isEmpty()){
-				Set<Long> childrenIds = new HashSet<Long>(children.size());
-				for(NodeIdAndType idAndType: children){
-					childrenIds.add(KeyFactory.stringToKey(idAndType.getNodeId()));
-					if(NodeUtils.isProjectOrFolder(idAndType.getType())){
-						// Keep track of children that are also containers for recursion.
-						containerIds.add(idAndType.getNodeId());
+	public void broadcastHierarchy(ProgressCallback progressCallback, Long rootId, Long changeNumber,
+			ChangeType changeType) throws InterruptedException, ExecutionException {
+		ValidateArgument.required(rootId, "rootId");
+		ValidateArgument.required(changeNumber, "changeNumber");
+		ValidateArgument.required(changeType, "changeType");
+		Map<Long, Long> checkpoints = checkpointDao.getCheckpoints(rootId, changeNumber);
+		if (checkpoints.isEmpty()) {
+			checkpointDao.startWalk(rootId, changeNumber);
+			checkpoints = Collections.singletonMap(rootId, NO_CHILD_ID);
+		} else {
+			log.info("Resuming the walk of: " + rootId + " for change: " + changeNumber + " from "
+					+ checkpoints.size() + " containers");
+		}
+		HierarchyWalk walk = new HierarchyWalk(rootId, changeNumber, changeType);
+		CompletionService<List<Long>> completionService = new ExecutorCompletionService<>(walkerPool);
+		List<Future<List<Long>>> running = new LinkedList<>();
+		try {
+			checkpoints.forEach((Long containerId, Long lastChildId) -> {
+				running.add(completionService.submit(() -> walk.walkContainer(containerId, lastChildId)));
+			});
+			while (!running.isEmpty()) {
+				Future<List<Long>> done = completionService.take();
+				running.remove(done);
+				// each child container is walked in turn.
+				for (Long childContainerId : done.get()) {
+					running.add(completionService.submit(() -> walk.walkContainer(childContainerId, NO_CHILD_ID)));
+				}
+			}
+		} finally {
+			// stop the rest of the walk if any container failed.
+			running.forEach((Future<List<Long>> future) -> future.cancel(true));
+		}
+		walk.flush();
+	}
+
+	/**
+	 * The state of a single walk of the hierarchy under a root. The change
+	 * messages of all containers of the walk are gathered into full batches.
+	 * The checkpoints of each page are only saved after the messages of the page
+	 * are published.
+	 */
+	class HierarchyWalk {
+
+		private final Long rootId;
+		private final Long changeNumber;
+		private final ChangeType changeType;
+		private final List<ChangeMessage> pendingMessages = new ArrayList<>();
+		private final List<Runnable> pendingCheckpoints = new ArrayList<>();
+
+		HierarchyWalk(Long rootId, Long changeNumber, ChangeType changeType) {
+			this.rootId = rootId;
+			this.changeNumber = changeNumber;
+			this.changeType = changeType;
+		}
+
+		/**
+		 * Broadcast a change message for each child of the given container, starting
+		 * after the given child.
+		 *
+		 * @param containerId
+		 * @param lastChildId
+		 * @return The IDs of the children that are also containers.
+		 * @throws InterruptedException
+		 */
+		List<Long> walkContainer(Long containerId, long lastChildId) throws InterruptedException {
+			List<Long> childContainerIds = new LinkedList<>();
+			while (true) {
+				// Get one page of children for this container
+				List<NodeIdAndType> children = nodeDao.getChildrenAfter(containerId, lastChildId, PAGE_SIZE);
+				if (!children.isEmpty()) {
+					Set<Long> childrenIds = new LinkedHashSet<>(children.size());
+					List<Long> pageContainerIds = new LinkedList<>();
+					for (NodeIdAndType idAndType : children) {
+						Long childId = KeyFactory.stringToKey(idAndType.getNodeId());
+						childrenIds.add(childId);
+						if (NodeUtils.isProjectOrFolder(idAndType.getType())) {
+							// Keep track of children that are also containers.
+							pageContainerIds.add(childId);
+						}
 					}
+					// Get the change messages for the direct children of this container.
+					List<ChangeMessage> changeMessages = changeDao.getChangesForObjectIds(ObjectType.ENTITY, childrenIds);
+					// Set all changes to match the type
+					for (ChangeMessage message : changeMessages) {
+						message.setChangeType(changeType);
+					}
+					long pageLastChildId = KeyFactory.stringToKey(children.get(children.size() - 1).getNodeId());
+					add(changeMessages, () -> checkpointDao.saveProgress(rootId, changeNumber, containerId,
+							pageLastChildId, pageContainerIds));
+					childContainerIds.addAll(pageContainerIds);
+					lastChildId = pageLastChildId;
 				}
-				// Get the change messages for the direct children of this container.
-				List<ChangeMessage> changeMessages = changeDao.getChangesForObjectIds(ObjectType.ENTITY, childrenIds);
-				// Set all changes to match the type
-				for(ChangeMessage message:  changeMessages){
-					message.setChangeType(changeType);
+				if (children.size() < PAGE_SIZE) {
+					add(Collections.emptyList(), () -> checkpointDao.finishContainer(rootId, changeNumber, containerId));
+					return childContainerIds;
 				}
-				// Send this batch of messages
-				messagePublisher.publishBatchToTopic(ObjectType.ENTITY, changeMessages);
-				// Get the next page
-				offset += limit;
 				// sleep between pages to reduce the load.
 				clock.sleep(10L);
 			}
-		}while(!children.isEmpty());
-		
-		// recursive call for each child that is also a container.
-		for(String containerId: containerIds){
-			recursiveBroadcastMessages(progressCallback, containerId, changeType);
+		}
+
+		/**
+		 * Add the messages of a page to the current batch, publishing the batch
+		 * each time it is full.
+		 *
+		 * @param changeMessages
+		 * @param checkpoint Saves the progress of the page once its messages are
+		 *                   published.
+		 */
+		synchronized void add(List<ChangeMessage> changeMessages, Runnable checkpoint) {
+			for (ChangeMessage message : changeMessages) {
+				pendingMessages.add(message);
+				if (pendingMessages.size() >= ChangeMessageUtils.MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE) {
+					flush();
+				}
+			}
+			pendingCheckpoints.add(checkpoint);
+			if (pendingCheckpoints.size() >= ChangeMessageUtils.MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE) {
+				flush();
+			}
+		}
+
+		/**
+		 * Publish the current batch and then save the checkpoints of the pages it
+		 * contains.
+		 */
+		synchronized void flush() {
+			if (!pendingMessages.isEmpty()) {
+				messagePublisher.publishBatchToTopic(ObjectType.ENTITY, new ArrayList<>(pendingMessages));
+				pendingMessages.clear();
+			}
+			for (Runnable checkpoint : pendingCheckpoints) {
+				checkpoint.run();
+			}
+			pendingCheckpoints.clear();
 		}
 	}
-	
+
 }
@@ -2,25 +2,35 @@ package org.sagebionetworks.change.workers;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyListOf;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anySetOf;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.sagebionetworks.repo.model.dbo.entity.EntityHierarchyCheckpointDao.NO_CHILD_ID;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
@@ -30,6 +40,7 @@ import org.sagebionetworks.repo.model.NodeDAO;
 import org.sagebionetworks.repo.model.NodeIdAndType;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.dbo.dao.DBOChangeDAO;
+import org.sagebionetworks.repo.model.dbo.entity.EntityHierarchyCheckpointDao;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.message.ChangeType;
 import org.sagebionetworks.util.Clock;
@@ -39,6 +50,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class EntityHierarchyChangeWorkerUnitTest {
 
@@ -47,42 +59,49 @@ public class EntityHierarchyChangeWorkerUnitTest {
 	@Mock
 	NodeDAO mockNodeDao;
 	@Mock
+	EntityHierarchyCheckpointDao mockCheckpointDao;
+	@Mock
 	RepositoryMessagePublisher mockMessagePublisher;
 	@Mock
 	Clock mockClock;
 	@Mock
 	ProgressCallback mockProgressCallback;
-	@Captor 
+	@Captor
 	private ArgumentCaptor<List<ChangeMessage>> publishCapture;
-	
+
 	EntityHierarchyChangeWorker worker;
 	ChangeMessage message;
-	String parentId;
-	String folderId;
+	Long parentId;
+	Long folderId;
+	Long changeNumber;
 	List<NodeIdAndType> filesOnly;
 	List<NodeIdAndType> empty;
 	List<NodeIdAndType> filesAndFolders;
-	List<ChangeMessage> chagnes;
-	
+
 	@Before
 	public void before(){
 		MockitoAnnotations.initMocks(this);
 		worker = new EntityHierarchyChangeWorker();
 		ReflectionTestUtils.setField(worker, "changeDao", mockChangeDao);
 		ReflectionTestUtils.setField(worker, "nodeDao", mockNodeDao);
+		ReflectionTestUtils.setField(worker, "checkpointDao", mockCheckpointDao);
 		ReflectionTestUtils.setField(worker, "messagePublisher", mockMessagePublisher);
 		ReflectionTestUtils.setField(worker, "clock", mockClock);
-		
+		// walk the containers on the calling thread.
+		worker.setWalkerPool(MoreExecutors.newDirectExecutorService());
+
 		message = new ChangeMessage();
 		message.setTimestamp(new Date(1));
 		message.setChangeType(ChangeType.UPDATE);
 		message.setObjectId("syn123");
-		
+		message.setChangeNumber(11L);
+
 		when(mockClock.currentTimeMillis()).thenReturn(1L, 2L,3L,4L,5L);
-		
-		parentId = "syn123";
-		folderId = "syn444";
-		
+
+		parentId = 123L;
+		folderId = 444L;
+		changeNumber = 11L;
+
 		filesOnly = Lists.newArrayList(
 				new NodeIdAndType("syn111", EntityType.file),
 				new NodeIdAndType("syn222", EntityType.file)
@@ -90,13 +109,27 @@ public class EntityHierarchyChangeWorkerUnitTest {
 		empty = new LinkedList<>();
 		filesAndFolders = Lists.newArrayList(
 				new NodeIdAndType("syn333", EntityType.file),
-				new NodeIdAndType(folderId, EntityType.folder)
+				new NodeIdAndType("syn444", EntityType.folder)
 		);
-		
-		ChangeMessage childChange = new ChangeMessage();
-		childChange.setObjectId("syn123");
+
+		when(mockCheckpointDao.getCheckpoints(anyLong(), anyLong())).thenReturn(Collections.emptyMap());
+		when(mockNodeDao.getChildrenAfter(anyLong(), anyLong(), anyLong())).thenReturn(empty);
 	}
-	
+
+	/**
+	 * Create a change message for each of the given entities.
+	 */
+	private List<ChangeMessage> createChanges(long... entityIds) {
+		List<ChangeMessage> changes = new ArrayList<>(entityIds.length);
+		for (long entityId : entityIds) {
+			ChangeMessage change = new ChangeMessage();
+			change.setObjectId("" + entityId);
+			change.setChangeType(ChangeType.UPDATE);
+			changes.add(change);
+		}
+		return changes;
+	}
+
 	@Test
 	public void testOldMessage() throws RecoverableMessageException, Exception{
 		// set the time past the first message
@@ -106,76 +139,151 @@ public class EntityHierarchyChangeWorkerUnitTest {
 		// call under test
 		worker.run(mockProgressCallback, message);
 		// the message should be ignored.
+		verify(mockCheckpointDao).purgeCheckpointsUpdatedBefore(new Date(message.getTimestamp().getTime() + 1));
 		verifyNoMoreInteractions(
 				mockProgressCallback
 				,mockChangeDao
 				,mockNodeDao
+				,mockCheckpointDao
 				,mockMessagePublisher
 				);
 	}
-	
+
 	@Test
 	public void testNewMessage() throws RecoverableMessageException, Exception{
 		// call under test
 		worker.run(mockProgressCallback, message);
-		verify(mockNodeDao).getChildren(eq(message.getObjectId()), anyLong(), anyLong());
+		verify(mockCheckpointDao).purgeCheckpointsUpdatedBefore(new Date(1L - EntityHierarchyChangeWorker.MAX_MESSAGE_AGE_MS));
+		verify(mockCheckpointDao).getCheckpoints(parentId, changeNumber);
+		verify(mockCheckpointDao).startWalk(parentId, changeNumber);
+		verify(mockNodeDao).getChildrenAfter(parentId, NO_CHILD_ID, EntityHierarchyChangeWorker.PAGE_SIZE);
+		verify(mockCheckpointDao).finishContainer(parentId, changeNumber, parentId);
+		verify(mockMessagePublisher, never()).publishBatchToTopic(any(ObjectType.class), anyList());
 	}
-	
+
 	@Test
-	public void testRecursiveBroadcastMessagesWithoutRecursion() throws InterruptedException{
+	public void testBroadcastHierarchyWithoutRecursion() throws Exception{
 		// setup only files in this container.
-		when(mockNodeDao.getChildren(anyString(), anyLong(), anyLong())).thenReturn(filesOnly, empty);
+		when(mockNodeDao.getChildrenAfter(parentId, NO_CHILD_ID, EntityHierarchyChangeWorker.PAGE_SIZE)).thenReturn(filesOnly);
+		when(mockChangeDao.getChangesForObjectIds(ObjectType.ENTITY, Sets.newHashSet(111L,222L))).thenReturn(createChanges(111L, 222L));
 		// call under test
-		worker.recursiveBroadcastMessages(mockProgressCallback, parentId, ChangeType.CREATE);
-		verify(mockNodeDao, times(2)).getChildren(anyString(), anyLong(), anyLong());
-		verify(mockChangeDao).getChangesForObjectIds(ObjectType.ENTITY, Sets.newHashSet(111L,222L));
-		verify(mockMessagePublisher).publishBatchToTopic(any(ObjectType.class), anyListOf(ChangeMessage.class));
-		verify(mockClock, times(1)).sleep(anyLong());
+		worker.broadcastHierarchy(mockProgressCallback, parentId, changeNumber, ChangeType.CREATE);
+		// a partial page is the last page.
+		verify(mockNodeDao, times(1)).getChildrenAfter(anyLong(), anyLong(), anyLong());
+		// the checkpoint is saved after the messages are published.
+		InOrder inOrder = inOrder(mockMessagePublisher, mockCheckpointDao);
+		inOrder.verify(mockMessagePublisher).publishBatchToTopic(eq(ObjectType.ENTITY), publishCapture.capture());
+		inOrder.verify(mockCheckpointDao).saveProgress(parentId, changeNumber, parentId, 222L, Collections.emptyList());
+		inOrder.verify(mockCheckpointDao).finishContainer(parentId, changeNumber, parentId);
+		assertEquals(2, publishCapture.getValue().size());
+		verify(mockClock, never()).sleep(anyLong());
 	}
-	
+
 	@Test
-	public void testRecursiveBroadcastMessagesWithRecursion() throws InterruptedException{
+	public void testBroadcastHierarchyWithRecursion() throws Exception{
 		// setup files and folders for children
-		when(mockNodeDao.getChildren(anyString(), anyLong(), anyLong())).thenReturn(filesAndFolders,empty, filesOnly, empty);
+		when(mockNodeDao.getChildrenAfter(parentId, NO_CHILD_ID, EntityHierarchyChangeWorker.PAGE_SIZE)).thenReturn(filesAndFolders);
+		when(mockNodeDao.getChildrenAfter(folderId, NO_CHILD_ID, EntityHierarchyChangeWorker.PAGE_SIZE)).thenReturn(filesOnly);
+		when(mockChangeDao.getChangesForObjectIds(ObjectType.ENTITY, Sets.newHashSet(333L,444L))).thenReturn(createChanges(333L, 444L));
+		when(mockChangeDao.getChangesForObjectIds(ObjectType.ENTITY, Sets.newHashSet(111L,222L))).thenReturn(createChanges(111L, 222L));
+		// call under test
+		worker.broadcastHierarchy(mockProgressCallback, parentId, changeNumber, ChangeType.CREATE);
+		// the messages of both containers are published in a single batch.
+		verify(mockMessagePublisher, times(1)).publishBatchToTopic(eq(ObjectType.ENTITY), publishCapture.capture());
+		assertEquals(4, publishCapture.getValue().size());
+		InOrder inOrder = inOrder(mockCheckpointDao);
+		inOrder.verify(mockCheckpointDao).saveProgress(parentId, changeNumber, parentId, 444L, Lists.newArrayList(folderId));
+		inOrder.verify(mockCheckpointDao).finishContainer(parentId, changeNumber, parentId);
+		inOrder.verify(mockCheckpointDao).saveProgress(parentId, changeNumber, folderId, 222L, Collections.emptyList());
+		inOrder.verify(mockCheckpointDao).finishContainer(parentId, changeNumber, folderId);
+	}
+
+	@Test
+	public void testBroadcastHierarchyMultiplePages() throws Exception{
+		// setup a full page of files followed by an empty page.
+		List<NodeIdAndType> fullPage = new ArrayList<>();
+		long[] fullPageIds = new long[(int) EntityHierarchyChangeWorker.PAGE_SIZE];
+		for (int i = 0; i < fullPageIds.length; i++) {
+			fullPageIds[i] = 1000L + i;
+			fullPage.add(new NodeIdAndType("syn" + fullPageIds[i], EntityType.file));
+		}
+		long lastChildId = fullPageIds[fullPageIds.length - 1];
+		when(mockNodeDao.getChildrenAfter(parentId, NO_CHILD_ID, EntityHierarchyChangeWorker.PAGE_SIZE)).thenReturn(fullPage);
+		when(mockChangeDao.getChangesForObjectIds(eq(ObjectType.ENTITY), anySet())).thenReturn(createChanges(fullPageIds));
 		// call under test
-		worker.recursiveBroadcastMessages(mockProgressCallback, parentId, ChangeType.CREATE);
-		// should be called twice with the original parent
-		verify(mockNodeDao, times(2)).getChildren(eq(parentId), anyLong(), anyLong());
-		// should be called twice for the child folder
-		verify(mockNodeDao, times(2)).getChildren(eq(folderId), anyLong(), anyLong());
-		verify(mockChangeDao).getChangesForObjectIds(ObjectType.ENTITY, Sets.newHashSet(111L,222L));
-		verify(mockMessagePublisher, times(2)).publishBatchToTopic(any(ObjectType.class), anyListOf(ChangeMessage.class));
-		verify(mockClock, times(2)).sleep(anyLong());
+		worker.broadcastHierarchy(mockProgressCallback, parentId, changeNumber, ChangeType.CREATE);
+		// the next page starts after the last child of the first page.
+		verify(mockNodeDao).getChildrenAfter(parentId, lastChildId, EntityHierarchyChangeWorker.PAGE_SIZE);
+		verify(mockMessagePublisher, times(1)).publishBatchToTopic(eq(ObjectType.ENTITY), publishCapture.capture());
+		assertEquals(fullPageIds.length, publishCapture.getValue().size());
+		verify(mockCheckpointDao).saveProgress(parentId, changeNumber, parentId, lastChildId, Collections.emptyList());
+		verify(mockCheckpointDao).finishContainer(parentId, changeNumber, parentId);
+		verify(mockClock, times(1)).sleep(anyLong());
 	}
-	
+
 	@Test
-	public void testRecursiveBroadcastMessagesMultiplePages() throws InterruptedException{
-		// setup multiple pages of files
-		when(mockNodeDao.getChildren(anyString(), anyLong(), anyLong())).thenReturn(filesOnly, filesOnly, empty);
+	public void testBroadcastHierarchyResume() throws Exception{
+		Map<Long, Long> checkpoints = new LinkedHashMap<>();
+		checkpoints.put(parentId, 333L);
+		checkpoints.put(folderId, NO_CHILD_ID);
+		when(mockCheckpointDao.getCheckpoints(parentId, changeNumber)).thenReturn(checkpoints);
+		when(mockNodeDao.getChildrenAfter(folderId, NO_CHILD_ID, EntityHierarchyChangeWorker.PAGE_SIZE)).thenReturn(filesOnly);
+		when(mockChangeDao.getChangesForObjectIds(ObjectType.ENTITY, Sets.newHashSet(111L,222L))).thenReturn(createChanges(111L, 222L));
 		// call under test
-		worker.recursiveBroadcastMessages(mockProgressCallback, parentId, ChangeType.CREATE);
-		// should be called three time with the original parent
-		verify(mockNodeDao, times(3)).getChildren(eq(parentId), anyLong(), anyLong());
-		verify(mockChangeDao, times(2)).getChangesForObjectIds(ObjectType.ENTITY, Sets.newHashSet(111L,222L));
-		verify(mockMessagePublisher, times(2)).publishBatchToTopic(any(ObjectType.class), anyListOf(ChangeMessage.class));
-		verify(mockClock, times(2)).sleep(anyLong());
+		worker.broadcastHierarchy(mockProgressCallback, parentId, changeNumber, ChangeType.CREATE);
+		verify(mockCheckpointDao, never()).startWalk(anyLong(), anyLong());
+		// each container continues after its last child.
+		verify(mockNodeDao).getChildrenAfter(parentId, 333L, EntityHierarchyChangeWorker.PAGE_SIZE);
+		verify(mockNodeDao).getChildrenAfter(folderId, NO_CHILD_ID, EntityHierarchyChangeWorker.PAGE_SIZE);
+		verify(mockMessagePublisher, times(1)).publishBatchToTopic(eq(ObjectType.ENTITY), anyList());
+		verify(mockCheckpointDao).finishContainer(parentId, changeNumber, parentId);
+		verify(mockCheckpointDao).finishContainer(parentId, changeNumber, folderId);
+	}
+
+	@Test
+	public void testBroadcastHierarchyFailure() throws Exception{
+		IllegalStateException error = new IllegalStateException("nope");
+		when(mockNodeDao.getChildrenAfter(parentId, NO_CHILD_ID, EntityHierarchyChangeWorker.PAGE_SIZE)).thenReturn(filesAndFolders);
+		when(mockNodeDao.getChildrenAfter(folderId, NO_CHILD_ID, EntityHierarchyChangeWorker.PAGE_SIZE)).thenThrow(error);
+		when(mockChangeDao.getChangesForObjectIds(ObjectType.ENTITY, Sets.newHashSet(333L,444L))).thenReturn(createChanges(333L, 444L));
+		try {
+			// call under test
+			worker.broadcastHierarchy(mockProgressCallback, parentId, changeNumber, ChangeType.CREATE);
+			fail();
+		} catch (ExecutionException e) {
+			assertEquals(error, e.getCause());
+		}
+		// nothing is published so no progress is saved.
+		verify(mockMessagePublisher, never()).publishBatchToTopic(any(ObjectType.class), anyList());
+		verify(mockCheckpointDao, never()).saveProgress(anyLong(), anyLong(), anyLong(), anyLong(), anyList());
+		verify(mockCheckpointDao, never()).finishContainer(anyLong(), anyLong(), anyLong());
+	}
+
+	@Test
+	public void testBroadcastHierarchyNullChangeNumber() throws Exception{
+		try {
+			// call under test
+			worker.broadcastHierarchy(mockProgressCallback, parentId, null, ChangeType.CREATE);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("changeNumber"));
+		}
 	}
-	
+
 	/**
 	 * Test for PLFM-1723.
-	 * 
-	 * @throws InterruptedException
+	 *
+	 * @throws Exception
 	 */
 	@Test
-	public void testRecursiveBroadcastMessagesChangeType() throws InterruptedException{
+	public void testBroadcastHierarchyChangeType() throws Exception{
 		ChangeMessage currentMessage = new ChangeMessage();
 		currentMessage.setChangeType(ChangeType.UPDATE);
-		when(mockChangeDao.getChangesForObjectIds(any(ObjectType.class), anySetOf(Long.class))).thenReturn(Lists.newArrayList(currentMessage));
-		
-		// setup multiple pages of files
-		when(mockNodeDao.getChildren(anyString(), anyLong(), anyLong())).thenReturn(filesOnly, empty);
+		when(mockChangeDao.getChangesForObjectIds(any(ObjectType.class), anySet())).thenReturn(Lists.newArrayList(currentMessage));
+
+		when(mockNodeDao.getChildrenAfter(parentId, NO_CHILD_ID, EntityHierarchyChangeWorker.PAGE_SIZE)).thenReturn(filesOnly);
 		// call under test
-		worker.recursiveBroadcastMessages(mockProgressCallback, parentId, ChangeType.DELETE);
+		worker.broadcastHierarchy(mockProgressCallback, parentId, changeNumber, ChangeType.DELETE);
 
 		verify(mockMessagePublisher, times(1)).publishBatchToTopic(any(ObjectType.class), publishCapture.capture());
 		List<ChangeMessage> published = publishCapture.getValue();
@@ -185,5 +293,5 @@ public class EntityHierarchyChangeWorkerUnitTest {
 		// the original message was a create but the pushed message should be a delete.
 		assertEquals(ChangeType.DELETE, publishedMessage.getChangeType());
 	}
-	
+
 }
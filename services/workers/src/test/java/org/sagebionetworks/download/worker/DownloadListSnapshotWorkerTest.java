@@ -0,0 +1,38 @@
+package org.sagebionetworks.download.worker;
+
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.repo.manager.download.DownloadListManager;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+
+@ExtendWith(MockitoExtension.class)
+public class DownloadListSnapshotWorkerTest {
+
+	@Mock
+	private DownloadListManager mockDownloadListManager;
+	@Mock
+	private ProgressCallback mockProgressCallback;
+
+	@InjectMocks
+	private DownloadListSnapshotWorker worker;
+
+	@Test
+	public void testRun() throws Exception {
+		List<ChangeMessage> messages = Arrays.asList(
+				new ChangeMessage().setObjectType(ObjectType.ENTITY).setObjectId("syn123"),
+				new ChangeMessage().setObjectType(ObjectType.ENTITY_CONTAINER).setObjectId("syn456"));
+		// call under test
+		worker.run(mockProgressCallback, messages);
+		verify(mockDownloadListManager).invalidateSnapshots(messages);
+	}
+}
@@ -1,12 +1,13 @@
 package org.sagebionetworks.projectstats.worker;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 
 import org.junit.Before;
@@ -58,22 +59,41 @@ public class ProjectStatsWorkerV2Test {
 	
 	@Test
 	public void testRunNotExpired() throws Exception{
-		worker.run(mockProgressCallback, message);
-		verify(mockProjectStatsManager).updateProjectStats(message.getUserId(), message.getObjectId(), message.getObjectType(), message.getTimestamp());
+		worker.run(mockProgressCallback, Collections.singletonList(message));
+		verify(mockProjectStatsManager).updateProjectStats(Collections.singletonList(message));
 	}
 	
 	@Test
 	public void testRunExpired() throws Exception{
 		// setup expired
 		when(mockTimeoutUtils.hasExpired(anyLong(), anyLong())).thenReturn(true);
-		worker.run(mockProgressCallback, message);
-		verify(mockProjectStatsManager, never()).updateProjectStats(anyLong(), anyString(), any(ObjectType.class), any(Date.class));
+		worker.run(mockProgressCallback, Collections.singletonList(message));
+		verify(mockProjectStatsManager, never()).updateProjectStats(anyList());
 	}
 	
 	@Test
 	public void testIgnoreMissingUserId() throws RecoverableMessageException, Exception{
 		message.setUserId(null);
-		worker.run(mockProgressCallback, message);
-		verify(mockProjectStatsManager, never()).updateProjectStats(anyLong(), anyString(), any(ObjectType.class), any(Date.class));
+		worker.run(mockProgressCallback, Collections.singletonList(message));
+		verify(mockProjectStatsManager, never()).updateProjectStats(anyList());
+	}
+	
+	@Test
+	public void testRunBatch() throws RecoverableMessageException, Exception{
+		ChangeMessage noUser = new ChangeMessage();
+		noUser.setChangeNumber(124L);
+		noUser.setObjectId("syn457");
+		noUser.setObjectType(ObjectType.ENTITY);
+		noUser.setTimestamp(new Date(3));
+		ChangeMessage other = new ChangeMessage();
+		other.setChangeNumber(125L);
+		other.setObjectId("syn458");
+		other.setObjectType(ObjectType.ENTITY);
+		other.setTimestamp(new Date(4));
+		other.setUserId(888L);
+		// call under test
+		worker.run(mockProgressCallback, Arrays.asList(message, noUser, other));
+		// a single update for the batch
+		verify(mockProjectStatsManager).updateProjectStats(Arrays.asList(message, other));
 	}
 }
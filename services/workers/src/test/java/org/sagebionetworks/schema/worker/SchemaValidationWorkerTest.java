@@ -1,6 +1,7 @@
 package org.sagebionetworks.schema.worker;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -68,9 +69,8 @@ public class SchemaValidationWorkerTest {
 
 		// call under test
 		worker.run(mockProgressCallback, messages);
-		verify(mockEntitySchemaManager).validateObject(entityIdOne);
-		verify(mockEntitySchemaManager, never()).validateObject(nonEntityId);
-		verify(mockEntitySchemaManager).validateObject(entityIdTwo);
+		verify(mockEntitySchemaManager).validateObjects(Lists.newArrayList(entityIdOne, entityIdTwo));
+		verify(mockEntitySchemaManager, never()).validateObject(any());
 		verifyZeroInteractions(mockWorkerLogger);
 
 	}
@@ -87,6 +87,8 @@ public class SchemaValidationWorkerTest {
 	@Test
 	public void testRunWithFailures() throws RecoverableMessageException, Exception {
 		IllegalStateException someException = new IllegalStateException("something went wrong");
+		doThrow(someException).when(mockEntitySchemaManager)
+				.validateObjects(Lists.newArrayList(entityIdOne, entityIdTwo));
 		doThrow(someException).when(mockEntitySchemaManager).validateObject(entityIdOne);
 		// call under test
 		worker.run(mockProgressCallback, messages);
@@ -97,6 +99,8 @@ public class SchemaValidationWorkerTest {
 		boolean willRetry = false;
 		verify(mockWorkerLogger).logWorkerFailure(SchemaValidationWorker.class, messages.get(0), someException,
 				willRetry);
+		verify(mockWorkerLogger, never()).logWorkerFailure(SchemaValidationWorker.class, messages.get(2), someException,
+				willRetry);
 
 	}
 }
@@ -10,6 +10,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.manager.schema.JsonSchemaManager;
+import org.sagebionetworks.repo.manager.schema.JsonSchemaValidationManager;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.message.ChangeType;
@@ -20,6 +21,9 @@ public class ValidationSchemaIndexChangeWorkerTest {
 	@Mock
 	JsonSchemaManager mockSchemaManager;
 	
+	@Mock
+	JsonSchemaValidationManager mockSchemaValidationManager;
+	
 	@Mock
 	ProgressCallback mockProgressCallback;
 	
@@ -42,5 +46,6 @@ public class ValidationSchemaIndexChangeWorkerTest {
 	public void testRun() throws Exception {
 		worker.run(mockProgressCallback, message);
 		verify(mockSchemaManager).createOrUpdateValidationSchemaIndex(objectId);
+		verify(mockSchemaValidationManager).evictCompiledSchema(objectId);
 	}
 }
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Optional;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -38,6 +39,8 @@ public class TableIndexWorkerTest {
 	@Mock
 	TableIndexManager mockTableIndexManger;
 	@Mock
+	TableIndexManager mockRebalanceIndexManger;
+	@Mock
 	ProgressCallback mockProgressCallback;
 
 	@InjectMocks
@@ -100,4 +103,30 @@ public class TableIndexWorkerTest {
 		verify(mockTableIndexManger).buildIndexToChangeNumber(mockProgressCallback, idAndVersion, iterator);
 	}
 
+	@Test
+	public void testRunCreateMessageWithRebalance() throws RecoverableMessageException, Exception {
+		Iterator<TableChangeMetaData> iterator = new LinkedList<TableChangeMetaData>().iterator();
+		Iterator<TableChangeMetaData> rebalanceIterator = new LinkedList<TableChangeMetaData>().iterator();
+		when(mockTableEntityManager.newTableChangeIterator(message.getObjectId())).thenReturn(iterator,
+				rebalanceIterator);
+		when(mockConnectionFactory.connectToRebalanceTarget(idAndVersion))
+				.thenReturn(Optional.of(mockRebalanceIndexManger));
+		// call under test
+		worker.run(mockProgressCallback, message);
+		verify(mockTableIndexManger).buildIndexToChangeNumber(mockProgressCallback, idAndVersion, iterator);
+		verify(mockRebalanceIndexManger).buildIndexToChangeNumber(mockProgressCallback, idAndVersion,
+				rebalanceIterator);
+	}
+
+	@Test
+	public void testRunDeleteMessageWithRebalance() throws Exception {
+		message.setChangeType(ChangeType.DELETE);
+		when(mockConnectionFactory.connectToRebalanceTarget(idAndVersion))
+				.thenReturn(Optional.of(mockRebalanceIndexManger));
+		// call under test
+		worker.run(mockProgressCallback, message);
+		verify(mockTableIndexManger).deleteTableIndex(idAndVersion);
+		verify(mockRebalanceIndexManger).deleteTableIndex(idAndVersion);
+	}
+
 }
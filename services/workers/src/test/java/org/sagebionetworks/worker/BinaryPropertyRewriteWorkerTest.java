@@ -0,0 +1,107 @@
+package org.sagebionetworks.worker;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.evaluation.dao.EvaluationDAO;
+import org.sagebionetworks.evaluation.dao.SubmissionStatusDAO;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.dbo.rewrite.BinaryPropertyRewriteDao;
+import org.sagebionetworks.repo.model.dbo.rewrite.BinaryPropertyType;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class BinaryPropertyRewriteWorkerTest {
+
+	@Mock
+	private BinaryPropertyRewriteDao mockRewriteDao;
+	@Mock
+	private NodeDAO mockNodeDao;
+	@Mock
+	private SubmissionStatusDAO mockSubmissionStatusDao;
+	@Mock
+	private EvaluationDAO mockEvaluationDao;
+	@Mock
+	private Clock mockClock;
+	@Mock
+	private ProgressCallback mockProgress;
+
+	@InjectMocks
+	private BinaryPropertyRewriteWorker worker;
+
+	@Test
+	public void testRewriteNextRange() throws InterruptedException {
+		BinaryPropertyType type = BinaryPropertyType.ENTITY_PROPERTY_ANNOTATIONS;
+		when(mockRewriteDao.getNextId(type)).thenReturn(2000L);
+		// the IDs up to 2500 do not exist
+		when(mockRewriteDao.findFirstId(type, 2000L)).thenReturn(Optional.of(2500L));
+		when(mockNodeDao.rewriteCompressedEntityPropertyAnnotations(anyLong(), anyLong())).thenReturn(3L);
+		// setup two milliseconds between calls.
+		when(mockClock.currentTimeMillis()).thenReturn(0L, 2L);
+
+		// call under test
+		assertTrue(worker.rewriteNextRange(type));
+
+		verify(mockNodeDao).rewriteCompressedEntityPropertyAnnotations(2500L, 2500L + BinaryPropertyRewriteWorker.ID_RANGE_SIZE);
+		verify(mockRewriteDao).setNextId(type, 2500L + BinaryPropertyRewriteWorker.ID_RANGE_SIZE);
+		// should sleep for twice the runtime of the rewrite
+		verify(mockClock).sleep(4L);
+	}
+
+	@Test
+	public void testRewriteNextRangeDone() throws InterruptedException {
+		BinaryPropertyType type = BinaryPropertyType.SUBMISSION_QUOTA;
+		when(mockRewriteDao.getNextId(type)).thenReturn(2000L);
+		when(mockRewriteDao.findFirstId(type, 2000L)).thenReturn(Optional.empty());
+
+		// call under test
+		assertFalse(worker.rewriteNextRange(type));
+
+		verify(mockEvaluationDao, never()).rewriteCompressedQuotas(anyLong(), anyLong());
+		verify(mockRewriteDao, never()).setNextId(any(), anyLong());
+		verify(mockClock, never()).sleep(anyLong());
+	}
+
+	@Test
+	public void testRewriteRange() {
+		// call under test
+		worker.rewriteRange(BinaryPropertyType.ENTITY_PROPERTY_ANNOTATIONS, 1L, 2L);
+		worker.rewriteRange(BinaryPropertyType.SUBMISSION_STATUS, 3L, 4L);
+		worker.rewriteRange(BinaryPropertyType.SUBMISSION_QUOTA, 5L, 6L);
+
+		verify(mockNodeDao).rewriteCompressedEntityPropertyAnnotations(1L, 2L);
+		verify(mockSubmissionStatusDao).rewriteCompressedSerializedEntities(3L, 4L);
+		verify(mockEvaluationDao).rewriteCompressedQuotas(5L, 6L);
+	}
+
+	@Test
+	public void testRun() throws Exception {
+		when(mockRewriteDao.getNextId(any())).thenReturn(0L);
+		// only the submission statuses have rows left to rewrite
+		when(mockRewriteDao.findFirstId(any(), anyLong())).thenReturn(Optional.empty());
+		when(mockRewriteDao.findFirstId(BinaryPropertyType.SUBMISSION_STATUS, 0L)).thenReturn(Optional.of(0L));
+
+		// call under test
+		worker.run(mockProgress);
+
+		verify(mockSubmissionStatusDao, times(BinaryPropertyRewriteWorker.RANGES_PER_RUN))
+				.rewriteCompressedSerializedEntities(0L, BinaryPropertyRewriteWorker.ID_RANGE_SIZE);
+		verify(mockNodeDao, never()).rewriteCompressedEntityPropertyAnnotations(anyLong(), anyLong());
+		verify(mockEvaluationDao, never()).rewriteCompressedQuotas(anyLong(), anyLong());
+	}
+
+}